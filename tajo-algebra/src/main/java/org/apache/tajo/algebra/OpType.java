@@ -56,6 +56,7 @@ public enum OpType {
   CreateIndex(CreateIndex.class),
   DropIndex(DropIndex.class),
   TruncateTable(TruncateTable.class),
+  AnalyzeTable(AnalyzeTable.class),
 
   // Insert or Update
   Insert(Insert.class),
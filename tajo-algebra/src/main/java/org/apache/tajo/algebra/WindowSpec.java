@@ -152,6 +152,10 @@ public class WindowSpec implements Cloneable {
       this.endBound = endBound;
     }
 
+    public WindowFrameUnit getUnit() {
+      return unit;
+    }
+
     public WindowStartBound getStartBound() {
       return startBound;
     }
@@ -169,9 +173,28 @@ public class WindowSpec implements Cloneable {
       WindowFrame frame = (WindowFrame) super.clone();
       frame.unit = unit;
       frame.startBound = (WindowStartBound) startBound.clone();
-      frame.endBound = (WindowEndBound) endBound.clone();
+      if (endBound != null) {
+        frame.endBound = (WindowEndBound) endBound.clone();
+      }
       return frame;
     }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(unit, startBound, endBound);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof WindowFrame) {
+        WindowFrame another = (WindowFrame) obj;
+        return unit == another.unit &&
+            TUtil.checkEquals(startBound, another.startBound) &&
+            TUtil.checkEquals(endBound, another.endBound);
+      } else {
+        return false;
+      }
+    }
   }
 
   public static class WindowStartBound implements Cloneable {
@@ -202,9 +225,26 @@ public class WindowSpec implements Cloneable {
     public Object clone() throws CloneNotSupportedException {
       WindowStartBound start = (WindowStartBound) super.clone();
       start.boundType = boundType;
-      start.number = (Expr) number.clone();
+      if (number != null) {
+        start.number = (Expr) number.clone();
+      }
       return start;
     }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(boundType, number);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof WindowStartBound) {
+        WindowStartBound another = (WindowStartBound) obj;
+        return boundType == another.boundType && TUtil.checkEquals(number, another.number);
+      } else {
+        return false;
+      }
+    }
   }
 
   public static class WindowEndBound implements Cloneable {
@@ -235,8 +275,25 @@ public class WindowSpec implements Cloneable {
     public Object clone() throws CloneNotSupportedException {
       WindowEndBound end = (WindowEndBound) super.clone();
       end.boundType = boundType;
-      end.number = (Expr) number.clone();
+      if (number != null) {
+        end.number = (Expr) number.clone();
+      }
       return end;
     }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(boundType, number);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof WindowEndBound) {
+        WindowEndBound another = (WindowEndBound) obj;
+        return boundType == another.boundType && TUtil.checkEquals(number, another.number);
+      } else {
+        return false;
+      }
+    }
   }
 }
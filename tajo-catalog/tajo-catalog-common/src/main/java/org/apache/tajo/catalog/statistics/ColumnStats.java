@@ -27,7 +27,10 @@ import com.google.protobuf.ByteString;
 import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.json.CatalogGsonHelper;
 import org.apache.tajo.catalog.proto.CatalogProtos;
+import org.apache.tajo.catalog.proto.CatalogProtos.FrequentValuesProto;
+import org.apache.tajo.catalog.proto.CatalogProtos.HistogramProto;
 import org.apache.tajo.common.ProtoObject;
+import org.apache.tajo.common.TajoDataTypes.DataType;
 import org.apache.tajo.datum.Datum;
 import org.apache.tajo.datum.DatumFactory;
 import org.apache.tajo.json.GsonObject;
@@ -39,6 +42,10 @@ public class ColumnStats implements ProtoObject<CatalogProtos.ColumnStatsProto>,
   @Expose private Long numNulls = null; // optional
   @Expose private Datum minValue = null; // optional
   @Expose private Datum maxValue = null; // optional
+  // the following statistics are collected by ANALYZE TABLE
+  private Histogram histogram = null; // optional
+  private HyperLogLog ndvSketch = null; // optional
+  private FrequentValues frequentValues = null; // optional
 
   public ColumnStats(Column column) {
     this.column = column;
@@ -61,6 +68,37 @@ public class ColumnStats implements ProtoObject<CatalogProtos.ColumnStatsProto>,
     if (proto.hasMaxValue()) {
       this.maxValue = DatumFactory.createFromBytes(getColumn().getDataType(), proto.getMaxValue().toByteArray());
     }
+    if (proto.hasHistogram()) {
+      this.histogram = convertHistogram(getColumn().getDataType(), proto.getHistogram());
+    }
+    if (proto.hasNdvSketch()) {
+      this.ndvSketch = new HyperLogLog(proto.getNdvSketch().toByteArray());
+    }
+    if (proto.hasFrequentValues()) {
+      this.frequentValues = convertFrequentValues(getColumn().getDataType(), proto.getFrequentValues());
+    }
+  }
+
+  private static Histogram convertHistogram(DataType dataType, HistogramProto proto) {
+    Datum[] bounds = new Datum[proto.getBoundsCount()];
+    for (int i = 0; i < bounds.length; i++) {
+      bounds[i] = DatumFactory.createFromBytes(dataType, proto.getBounds(i).toByteArray());
+    }
+    long[] counts = new long[proto.getCountsCount()];
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = proto.getCounts(i);
+    }
+    return new Histogram(bounds, counts);
+  }
+
+  private static FrequentValues convertFrequentValues(DataType dataType, FrequentValuesProto proto) {
+    Datum[] values = new Datum[proto.getValuesCount()];
+    long[] counts = new long[values.length];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = DatumFactory.createFromBytes(dataType, proto.getValues(i).toByteArray());
+      counts[i] = proto.getCounts(i);
+    }
+    return new FrequentValues(values, counts);
   }
 
   public Column getColumn() {
@@ -111,6 +149,42 @@ public class ColumnStats implements ProtoObject<CatalogProtos.ColumnStatsProto>,
     return numNulls > 0;
   }
 
+  public boolean hasHistogram() {
+    return histogram != null;
+  }
+
+  public Histogram getHistogram() {
+    return histogram;
+  }
+
+  public void setHistogram(Histogram histogram) {
+    this.histogram = histogram;
+  }
+
+  public boolean hasNdvSketch() {
+    return ndvSketch != null;
+  }
+
+  public HyperLogLog getNdvSketch() {
+    return ndvSketch;
+  }
+
+  public void setNdvSketch(HyperLogLog ndvSketch) {
+    this.ndvSketch = ndvSketch;
+  }
+
+  public boolean hasFrequentValues() {
+    return frequentValues != null;
+  }
+
+  public FrequentValues getFrequentValues() {
+    return frequentValues;
+  }
+
+  public void setFrequentValues(FrequentValues frequentValues) {
+    this.frequentValues = frequentValues;
+  }
+
   public boolean equals(Object obj) {
     if (obj instanceof ColumnStats) {
       ColumnStats other = (ColumnStats) obj;
@@ -118,7 +192,10 @@ public class ColumnStats implements ProtoObject<CatalogProtos.ColumnStatsProto>,
           && getNumDistValues().equals(other.getNumDistValues())
           && getNumNulls().equals(other.getNumNulls())
           && TUtil.checkEquals(getMinValue(), other.getMinValue())
-          && TUtil.checkEquals(getMaxValue(), other.getMaxValue());
+          && TUtil.checkEquals(getMaxValue(), other.getMaxValue())
+          && TUtil.checkEquals(getHistogram(), other.getHistogram())
+          && TUtil.checkEquals(getNdvSketch(), other.getNdvSketch())
+          && TUtil.checkEquals(getFrequentValues(), other.getFrequentValues());
     } else {
       return false;
     }
@@ -135,6 +212,9 @@ public class ColumnStats implements ProtoObject<CatalogProtos.ColumnStatsProto>,
     stat.numNulls = numNulls;
     stat.minValue = minValue;
     stat.maxValue = maxValue;
+    stat.histogram = histogram;
+    stat.ndvSketch = ndvSketch;
+    stat.frequentValues = frequentValues;
 
     return stat;
   }
@@ -168,6 +248,27 @@ public class ColumnStats implements ProtoObject<CatalogProtos.ColumnStatsProto>,
     if (this.maxValue != null) {
       builder.setMaxValue(ByteString.copyFrom(this.maxValue.asByteArray()));
     }
+    if (this.histogram != null) {
+      HistogramProto.Builder histogramBuilder = HistogramProto.newBuilder();
+      for (Datum bound : histogram.getBounds()) {
+        histogramBuilder.addBounds(ByteString.copyFrom(bound.asByteArray()));
+      }
+      for (long count : histogram.getCounts()) {
+        histogramBuilder.addCounts(count);
+      }
+      builder.setHistogram(histogramBuilder);
+    }
+    if (this.ndvSketch != null) {
+      builder.setNdvSketch(ByteString.copyFrom(ndvSketch.toBytes()));
+    }
+    if (this.frequentValues != null) {
+      FrequentValuesProto.Builder frequentValuesBuilder = FrequentValuesProto.newBuilder();
+      for (int i = 0; i < frequentValues.size(); i++) {
+        frequentValuesBuilder.addValues(ByteString.copyFrom(frequentValues.getValues()[i].asByteArray()));
+        frequentValuesBuilder.addCounts(frequentValues.getCounts()[i]);
+      }
+      builder.setFrequentValues(frequentValuesBuilder);
+    }
 
     return builder.build();
   }
@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.catalog.statistics;
+
+import com.google.common.base.Preconditions;
+import org.apache.tajo.datum.Datum;
+
+import java.util.*;
+
+/**
+ * FrequentValues keeps the most frequent values of a column and their estimated numbers of occurrences.
+ * It is the top-k list used to estimate the selectivity of equality predicates on skewed columns.
+ *
+ * Lists can be merged by adding up the counts of the same values, and only the top-k values are kept.
+ * Values are kept in the descending order of their counts.
+ */
+public class FrequentValues {
+  public static final int DEFAULT_NUM_VALUES = 32;
+
+  private final Datum[] values;
+  private final long[] counts;
+
+  public FrequentValues(Datum[] values, long[] counts) {
+    Preconditions.checkArgument(values.length == counts.length,
+        "invalid frequent values: " + values.length + " values, " + counts.length + " counts");
+    this.values = values;
+    this.counts = counts;
+  }
+
+  /**
+   * Build a list from the occurrences of values in a sample.
+   *
+   * @param sampleCounts The numbers of occurrences of values in a sample
+   * @param sampleSize The number of values in the sample
+   * @param numValues The number of all non-null values which the sample is drawn from
+   * @param maxValues The maximum number of values to be kept
+   * @return a list of the values occurring more than once in the sample
+   */
+  public static FrequentValues build(Map<Datum, Long> sampleCounts, long sampleSize, long numValues,
+                                     int maxValues) {
+    Map<Datum, Long> frequent = new HashMap<>();
+    for (Map.Entry<Datum, Long> entry : sampleCounts.entrySet()) {
+      // a value sampled only once does not tell whether it is frequent
+      if (entry.getValue() > 1 || sampleSize == numValues) {
+        frequent.put(entry.getKey(), Math.round((double) entry.getValue() * numValues / sampleSize));
+      }
+    }
+    return top(frequent, maxValues);
+  }
+
+  public static FrequentValues merge(FrequentValues f1, FrequentValues f2, int maxValues) {
+    Map<Datum, Long> merged = new HashMap<>();
+    f1.addTo(merged);
+    f2.addTo(merged);
+    return top(merged, maxValues);
+  }
+
+  private void addTo(Map<Datum, Long> map) {
+    for (int i = 0; i < values.length; i++) {
+      Long count = map.get(values[i]);
+      map.put(values[i], count == null ? counts[i] : count + counts[i]);
+    }
+  }
+
+  private static FrequentValues top(Map<Datum, Long> map, int maxValues) {
+    List<Map.Entry<Datum, Long>> entries = new ArrayList<>(map.entrySet());
+    Collections.sort(entries, new Comparator<Map.Entry<Datum, Long>>() {
+      @Override
+      public int compare(Map.Entry<Datum, Long> o1, Map.Entry<Datum, Long> o2) {
+        int cmp = Long.compare(o2.getValue(), o1.getValue());
+        return cmp != 0 ? cmp : o1.getKey().compareTo(o2.getKey());
+      }
+    });
+
+    int num = Math.min(maxValues, entries.size());
+    Datum[] values = new Datum[num];
+    long[] counts = new long[num];
+    for (int i = 0; i < num; i++) {
+      values[i] = entries.get(i).getKey();
+      counts[i] = entries.get(i).getValue();
+    }
+    return new FrequentValues(values, counts);
+  }
+
+  public int size() {
+    return values.length;
+  }
+
+  public Datum[] getValues() {
+    return values;
+  }
+
+  public long[] getCounts() {
+    return counts;
+  }
+
+  /**
+   * @return the estimated number of occurrences of a value, or -1 if the value is not a frequent value
+   */
+  public long getCount(Datum value) {
+    for (int i = 0; i < values.length; i++) {
+      if (values[i].equals(value)) {
+        return counts[i];
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return the sum of the counts of all frequent values
+   */
+  public long getTotalCount() {
+    long sum = 0;
+    for (long count : counts) {
+      sum += count;
+    }
+    return sum;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof FrequentValues) {
+      FrequentValues other = (FrequentValues) obj;
+      return Arrays.equals(values, other.values) && Arrays.equals(counts, other.counts);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(counts);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("FrequentValues (");
+    for (int i = 0; i < values.length; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(values[i]).append("=").append(counts[i]);
+    }
+    return sb.append(")").toString();
+  }
+}
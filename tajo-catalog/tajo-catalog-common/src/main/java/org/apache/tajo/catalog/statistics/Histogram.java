@@ -0,0 +1,322 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.catalog.statistics;
+
+import com.google.common.base.Preconditions;
+import org.apache.tajo.datum.Datum;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Histogram is an equi-depth histogram of the non-null values of a column. Each bucket has about the same number
+ * of values, and the i-th bucket covers the values in (bounds[i], bounds[i + 1]]. The first bucket also includes
+ * bounds[0], which is the minimum value. A value occupying several buckets appears as buckets whose bounds are
+ * all the same value.
+ *
+ * Histograms of the same column can be merged approximately, so that a histogram of a table can be built from
+ * the histograms built by multiple tasks.
+ */
+public class Histogram {
+  public static final int DEFAULT_NUM_BUCKETS = 128;
+
+  private final Datum[] bounds;
+  private final long[] counts;
+  private final long totalCount;
+
+  /**
+   * @param bounds The bounds of buckets. Its length must be the number of buckets + 1.
+   * @param counts The number of values of each bucket
+   */
+  public Histogram(Datum[] bounds, long[] counts) {
+    Preconditions.checkArgument(bounds.length == counts.length + 1 && counts.length > 0,
+        "invalid histogram: " + bounds.length + " bounds, " + counts.length + " buckets");
+    this.bounds = bounds;
+    this.counts = counts;
+    long sum = 0;
+    for (long count : counts) {
+      sum += count;
+    }
+    this.totalCount = sum;
+  }
+
+  /**
+   * Build a histogram from sampled values.
+   *
+   * @param sortedSample The sampled non-null values in ascending order
+   * @param numValues The number of all non-null values which the sample is drawn from
+   * @param numBuckets The maximum number of buckets
+   * @return a histogram, or null if the sample is empty
+   */
+  public static Histogram build(List<Datum> sortedSample, long numValues, int numBuckets) {
+    int sampleSize = sortedSample.size();
+    if (sampleSize == 0) {
+      return null;
+    }
+
+    int bucketNum = Math.min(numBuckets, sampleSize);
+    Datum[] bounds = new Datum[bucketNum + 1];
+    long[] counts = new long[bucketNum];
+    bounds[0] = sortedSample.get(0);
+
+    long assigned = 0;
+    for (int i = 0; i < bucketNum; i++) {
+      int end = (int) ((long) sampleSize * (i + 1) / bucketNum);
+      bounds[i + 1] = sortedSample.get(end - 1);
+      // scale the sampled values up to all values
+      long cumulative = i == bucketNum - 1 ? numValues : Math.round((double) numValues * end / sampleSize);
+      counts[i] = cumulative - assigned;
+      assigned = cumulative;
+    }
+    return new Histogram(bounds, counts);
+  }
+
+  /**
+   * Merge two histograms. The values of each bucket are regarded as its upper bound, and they are divided into
+   * new buckets at the equi-depth quantiles of all values.
+   *
+   * @return a new histogram having at most numBuckets buckets
+   */
+  public static Histogram merge(Histogram h1, Histogram h2, int numBuckets) {
+    if (h1.totalCount == 0) {
+      return h2;
+    } else if (h2.totalCount == 0) {
+      return h1;
+    }
+
+    List<Bucket> buckets = new ArrayList<>(h1.counts.length + h2.counts.length);
+    h1.addBuckets(buckets);
+    h2.addBuckets(buckets);
+    Collections.sort(buckets, new Comparator<Bucket>() {
+      @Override
+      public int compare(Bucket o1, Bucket o2) {
+        return o1.upper.compareTo(o2.upper);
+      }
+    });
+
+    long total = h1.totalCount + h2.totalCount;
+    int bucketNum = Math.min(numBuckets, buckets.size());
+    List<Datum> bounds = new ArrayList<>(bucketNum + 1);
+    List<Long> counts = new ArrayList<>(bucketNum);
+    bounds.add(h1.bounds[0].compareTo(h2.bounds[0]) <= 0 ? h1.bounds[0] : h2.bounds[0]);
+
+    long cumulative = 0;
+    long current = 0;
+    for (int i = 0; i < buckets.size(); i++) {
+      Bucket bucket = buckets.get(i);
+      cumulative += bucket.count;
+      current += bucket.count;
+      boolean last = i == buckets.size() - 1;
+      if (last || (double) cumulative >= (double) total * (counts.size() + 1) / bucketNum) {
+        bounds.add(bucket.upper);
+        counts.add(current);
+        current = 0;
+      }
+    }
+
+    long[] countArray = new long[counts.size()];
+    for (int i = 0; i < countArray.length; i++) {
+      countArray[i] = counts.get(i);
+    }
+    return new Histogram(bounds.toArray(new Datum[bounds.size()]), countArray);
+  }
+
+  private void addBuckets(List<Bucket> buckets) {
+    for (int i = 0; i < counts.length; i++) {
+      buckets.add(new Bucket(bounds[i + 1], counts[i]));
+    }
+  }
+
+  private static class Bucket {
+    final Datum upper;
+    final long count;
+
+    Bucket(Datum upper, long count) {
+      this.upper = upper;
+      this.count = count;
+    }
+  }
+
+  public int getNumBuckets() {
+    return counts.length;
+  }
+
+  public Datum[] getBounds() {
+    return bounds;
+  }
+
+  public long[] getCounts() {
+    return counts;
+  }
+
+  public long getTotalCount() {
+    return totalCount;
+  }
+
+  public Datum getMinValue() {
+    return bounds[0];
+  }
+
+  public Datum getMaxValue() {
+    return bounds[bounds.length - 1];
+  }
+
+  /**
+   * @return the estimated fraction of the values less than (or equal to, if inclusive) a given value
+   */
+  public double estimateLessThan(Datum value, boolean inclusive) {
+    if (totalCount == 0) {
+      return 0;
+    }
+
+    double sum = 0;
+    for (int i = 0; i < counts.length; i++) {
+      Datum lower = bounds[i];
+      Datum upper = bounds[i + 1];
+      int cmpUpper = upper.compareTo(value);
+      if (cmpUpper < 0 || (inclusive && cmpUpper == 0)) {
+        sum += counts[i];
+        continue;
+      }
+
+      int cmpLower = lower.compareTo(value);
+      if (cmpLower > 0 || (!inclusive && cmpLower == 0)) {
+        break;
+      }
+      sum += counts[i] * interpolate(lower, upper, value);
+    }
+    return sum / totalCount;
+  }
+
+  /**
+   * @return the estimated fraction of the values in a range. A null bound means an unbounded side.
+   */
+  public double estimateRange(Datum lower, boolean lowerInclusive, Datum upper, boolean upperInclusive) {
+    double upperFraction = upper == null ? 1.0 : estimateLessThan(upper, upperInclusive);
+    double lowerFraction = lower == null ? 0.0 : estimateLessThan(lower, !lowerInclusive);
+    return Math.max(0, upperFraction - lowerFraction);
+  }
+
+  /**
+   * @param numDistVals The number of distinct values of the column
+   * @return the estimated fraction of the values equal to a given value
+   */
+  public double estimateEquals(Datum value, long numDistVals) {
+    if (totalCount == 0 || value.compareTo(getMinValue()) < 0 || value.compareTo(getMaxValue()) > 0) {
+      return 0;
+    }
+
+    // buckets consisting of only the given value
+    long frequent = 0;
+    for (int i = 0; i < counts.length; i++) {
+      if (bounds[i].equals(value) && bounds[i + 1].equals(value)) {
+        frequent += counts[i];
+      }
+    }
+    if (frequent > 0) {
+      return (double) frequent / totalCount;
+    }
+    return 1.0 / Math.max(1, numDistVals);
+  }
+
+  /**
+   * @param num The number of partitions
+   * @return at most num - 1 distinct values dividing all values into the partitions of about the same size
+   */
+  public Datum[] getQuantiles(int num) {
+    List<Datum> quantiles = new ArrayList<>(num);
+    long cumulative = 0;
+    int next = 1;
+    for (int i = 0; i < counts.length && next < num; i++) {
+      cumulative += counts[i];
+      if ((double) cumulative >= (double) totalCount * next / num) {
+        Datum quantile = bounds[i + 1];
+        if (quantiles.isEmpty() || !quantiles.get(quantiles.size() - 1).equals(quantile)) {
+          quantiles.add(quantile);
+        }
+        while (next < num && (double) cumulative >= (double) totalCount * next / num) {
+          next++;
+        }
+      }
+    }
+
+    // the maximum value cannot divide the values
+    if (!quantiles.isEmpty() && quantiles.get(quantiles.size() - 1).equals(getMaxValue())) {
+      quantiles.remove(quantiles.size() - 1);
+    }
+    return quantiles.toArray(new Datum[quantiles.size()]);
+  }
+
+  /**
+   * @return the fraction of a bucket below a value by the linear interpolation between the bounds.
+   * If the values are not numeric, the half of the bucket.
+   */
+  private static double interpolate(Datum lower, Datum upper, Datum value) {
+    double l = toDouble(lower);
+    double u = toDouble(upper);
+    double v = toDouble(value);
+    if (Double.isNaN(l) || Double.isNaN(u) || Double.isNaN(v) || u <= l) {
+      return 0.5;
+    }
+    return Math.min(1.0, Math.max(0.0, (v - l) / (u - l)));
+  }
+
+  private static double toDouble(Datum datum) {
+    switch (datum.type()) {
+      case INT1:
+      case INT2:
+      case INT4:
+      case INT8:
+      case FLOAT4:
+      case FLOAT8:
+        return datum.asFloat8();
+      case DATE:
+        return datum.asInt4();
+      case TIME:
+      case TIMESTAMP:
+        return datum.asInt8();
+      default:
+        return Double.NaN;
+    }
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof Histogram) {
+      Histogram other = (Histogram) obj;
+      return Arrays.equals(bounds, other.bounds) && Arrays.equals(counts, other.counts);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(counts);
+  }
+
+  @Override
+  public String toString() {
+    return "Histogram (buckets=" + counts.length + ", min=" + getMinValue() + ", max=" + getMaxValue()
+        + ", count=" + totalCount + ")";
+  }
+}
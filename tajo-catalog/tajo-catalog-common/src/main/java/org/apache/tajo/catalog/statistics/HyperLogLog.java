@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.catalog.statistics;
+
+import com.google.common.base.Preconditions;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.util.MurmurHash;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog is a sketch estimating the number of distinct values of a column in a fixed space.
+ * The standard error of the estimate is about 1.04 / sqrt(2^precision).
+ *
+ * Sketches of the same precision can be merged, so that the distinct count of a table can be estimated from
+ * the sketches built by multiple tasks.
+ */
+public class HyperLogLog {
+  public static final int DEFAULT_PRECISION = 11;
+
+  private final int precision;
+  private final byte[] registers;
+
+  public HyperLogLog() {
+    this(DEFAULT_PRECISION);
+  }
+
+  public HyperLogLog(int precision) {
+    Preconditions.checkArgument(precision >= 4 && precision <= 16, "precision must be in [4, 16]: " + precision);
+    this.precision = precision;
+    this.registers = new byte[1 << precision];
+  }
+
+  /**
+   * @param bytes The registers serialized by {@link #toBytes()}
+   */
+  public HyperLogLog(byte[] bytes) {
+    Preconditions.checkArgument(Integer.bitCount(bytes.length) == 1 && bytes.length >= 16 && bytes.length <= 65536,
+        "invalid HyperLogLog length: " + bytes.length);
+    this.precision = Integer.numberOfTrailingZeros(bytes.length);
+    this.registers = Arrays.copyOf(bytes, bytes.length);
+  }
+
+  public int getPrecision() {
+    return precision;
+  }
+
+  /**
+   * Add a non-null value.
+   */
+  public void offer(Datum datum) {
+    byte[] bytes = datum.asByteArray();
+    offerHash(MurmurHash.hash64(bytes, bytes.length));
+  }
+
+  void offerHash(long hash) {
+    int index = (int) (hash >>> (Long.SIZE - precision));
+    // the guard bit bounds the rank when all remaining bits are zero
+    long remaining = (hash << precision) | (1L << (precision - 1));
+    byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+    if (registers[index] < rank) {
+      registers[index] = rank;
+    }
+  }
+
+  /**
+   * @return the estimated number of distinct values
+   */
+  public long cardinality() {
+    int m = registers.length;
+    double sum = 0;
+    int zeros = 0;
+    for (byte register : registers) {
+      sum += 1.0 / (1L << register);
+      if (register == 0) {
+        zeros++;
+      }
+    }
+
+    double estimate = alpha(m) * m * m / sum;
+    if (estimate <= 2.5 * m && zeros > 0) {
+      // linear counting is more accurate for small cardinalities
+      estimate = m * Math.log((double) m / zeros);
+    }
+    return Math.round(estimate);
+  }
+
+  /**
+   * @return a new sketch of the union of two sketches
+   */
+  public static HyperLogLog merge(HyperLogLog s1, HyperLogLog s2) {
+    Preconditions.checkArgument(s1.precision == s2.precision,
+        "cannot merge HyperLogLog sketches of different precisions: " + s1.precision + ", " + s2.precision);
+    HyperLogLog merged = new HyperLogLog(s1.precision);
+    for (int i = 0; i < merged.registers.length; i++) {
+      merged.registers[i] = (byte) Math.max(s1.registers[i], s2.registers[i]);
+    }
+    return merged;
+  }
+
+  public byte[] toBytes() {
+    return Arrays.copyOf(registers, registers.length);
+  }
+
+  private static double alpha(int m) {
+    switch (m) {
+      case 16: return 0.673;
+      case 32: return 0.697;
+      case 64: return 0.709;
+      default: return 0.7213 / (1 + 1.079 / m);
+    }
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof HyperLogLog) {
+      return Arrays.equals(registers, ((HyperLogLog) obj).registers);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(registers);
+  }
+
+  @Override
+  public String toString() {
+    return "HyperLogLog (precision=" + precision + ", cardinality=" + cardinality() + ")";
+  }
+}
@@ -80,6 +80,7 @@ public class StatisticsUtil {
                 agg.getMaxValue().compareTo(cs.getMaxValue()) < 0)) {
               agg.setMaxValue(stats.getColumnStats().get(i).getMaxValue());
             }
+            aggregateSketches(agg, cs);
           } catch (Exception e) {
             LOG.warn(e.getMessage(), e);
           }
@@ -90,6 +91,7 @@ public class StatisticsUtil {
     result.setNumRows(result.getNumRows() + stats.getNumRows());
     result.setNumBytes(result.getNumBytes() + stats.getNumBytes());
     result.setReadBytes(result.getReadBytes() + stats.getReadBytes());
+    result.setUncompressedBytes(result.getUncompressedBytes() + stats.getUncompressedBytes());
     result.setNumBlocks(result.getNumBlocks() + stats.getNumBlocks());
     result.setNumShuffleOutputs(result.getNumShuffleOutputs() + stats.getNumShuffleOutputs());
   }
@@ -136,6 +138,7 @@ public class StatisticsUtil {
                 css[i].getMaxValue().compareTo(cs.getMaxValue()) < 0)) {
               css[i].setMaxValue(ts.getColumnStats().get(i).getMaxValue());
             }
+            aggregateSketches(css[i], cs);
           } catch (Exception e) {
             LOG.warn(e.getMessage(), e);
           }
@@ -146,6 +149,7 @@ public class StatisticsUtil {
       aggregated.setNumRows(aggregated.getNumRows() + ts.getNumRows());
       aggregated.setNumBytes(aggregated.getNumBytes() + ts.getNumBytes());
       aggregated.setReadBytes(aggregated.getReadBytes() + ts.getReadBytes());
+      aggregated.setUncompressedBytes(aggregated.getUncompressedBytes() + ts.getUncompressedBytes());
       aggregated.setNumBlocks(aggregated.getNumBlocks() + ts.getNumBlocks());
       aggregated.setNumShuffleOutputs(aggregated.getNumShuffleOutputs() + ts.getNumShuffleOutputs());
     }
@@ -158,6 +162,31 @@ public class StatisticsUtil {
     return aggregated;
   }
 
+  /**
+   * Merge the histogram, the NDV sketch and the frequent values of column stats into the aggregated column stats.
+   * If there is an NDV sketch, the number of distinct values is estimated from the merged sketch
+   * instead of the sum of the numbers of distinct values.
+   */
+  private static void aggregateSketches(ColumnStats agg, ColumnStats cs) {
+    if (agg == cs) {
+      return;
+    }
+    if (cs.hasHistogram()) {
+      agg.setHistogram(agg.hasHistogram() ?
+          Histogram.merge(agg.getHistogram(), cs.getHistogram(), Histogram.DEFAULT_NUM_BUCKETS) : cs.getHistogram());
+    }
+    if (cs.hasFrequentValues()) {
+      agg.setFrequentValues(agg.hasFrequentValues() ?
+          FrequentValues.merge(agg.getFrequentValues(), cs.getFrequentValues(), FrequentValues.DEFAULT_NUM_VALUES) :
+          cs.getFrequentValues());
+    }
+    if (cs.hasNdvSketch()) {
+      agg.setNdvSketch(agg.hasNdvSketch() ?
+          HyperLogLog.merge(agg.getNdvSketch(), cs.getNdvSketch()) : cs.getNdvSketch());
+      agg.setNumDistVals(agg.getNdvSketch().cardinality());
+    }
+  }
+
   public static List<ColumnStats> aggregateColumnStats(List<ColumnStats> stats1, List<ColumnStats> stats2) {
     Preconditions.checkState(stats1.size() == stats2.size());
     List<ColumnStats> result = new ArrayList<>(stats1.size());
@@ -42,6 +42,7 @@ public class TableStats implements ProtoObject<TableStatsProto>, Cloneable, Gson
   @Expose private Integer numShuffleOutputs = null; // optional
   @Expose private Long avgRows = null; // optional
   @Expose private Long readBytes = null; //optional
+  @Expose private Long uncompressedBytes = null; // optional
   @Expose private List<ColumnStats> columnStatses = null; // repeated
 
   public TableStats() {
@@ -55,6 +56,7 @@ public class TableStats implements ProtoObject<TableStatsProto>, Cloneable, Gson
     numShuffleOutputs = 0;
     avgRows = 0l;
     readBytes = 0l;
+    uncompressedBytes = 0l;
     columnStatses = new ArrayList<>();
   }
 
@@ -82,6 +84,11 @@ public class TableStats implements ProtoObject<TableStatsProto>, Cloneable, Gson
     } else {
       this.readBytes = 0l;
     }
+    if (proto.hasUncompressedBytes()) {
+      this.uncompressedBytes = proto.getUncompressedBytes();
+    } else {
+      this.uncompressedBytes = 0l;
+    }
 
     this.columnStatses = new ArrayList<>();
     for (CatalogProtos.ColumnStatsProto colProto : proto.getColStatList()) {
@@ -140,6 +147,18 @@ public class TableStats implements ProtoObject<TableStatsProto>, Cloneable, Gson
     this.readBytes = readBytes;
   }
 
+  /**
+   * @return the number of bytes before compression. For compressed shuffle outputs, numBytes is the number of
+   * compressed bytes.
+   */
+  public Long getUncompressedBytes() {
+    return uncompressedBytes;
+  }
+
+  public void setUncompressedBytes(long uncompressedBytes) {
+    this.uncompressedBytes = uncompressedBytes;
+  }
+
   public List<ColumnStats> getColumnStats() {
     return this.columnStatses;
   }
@@ -162,6 +181,7 @@ public class TableStats implements ProtoObject<TableStatsProto>, Cloneable, Gson
       eq = eq && TUtil.checkEquals(this.numShuffleOutputs, other.numShuffleOutputs);
       eq = eq && TUtil.checkEquals(this.avgRows, other.avgRows);
       eq = eq && TUtil.checkEquals(this.readBytes, other.readBytes);
+      eq = eq && TUtil.checkEquals(this.uncompressedBytes, other.uncompressedBytes);
       eq = eq && TUtil.checkEquals(this.columnStatses, other.columnStatses);
       return eq;
     } else {
@@ -182,6 +202,7 @@ public class TableStats implements ProtoObject<TableStatsProto>, Cloneable, Gson
     stat.numShuffleOutputs = numShuffleOutputs != null ? numShuffleOutputs : null;
     stat.avgRows = avgRows != null ? avgRows : null;
     stat.readBytes = readBytes != null ? readBytes : null;
+    stat.uncompressedBytes = uncompressedBytes != null ? uncompressedBytes : null;
 
     stat.columnStatses = new ArrayList<>(this.columnStatses);
 
@@ -211,6 +232,9 @@ public class TableStats implements ProtoObject<TableStatsProto>, Cloneable, Gson
     if (stat.readBytes != null) {
       readBytes += stat.readBytes;
     }
+    if (stat.uncompressedBytes != null) {
+      uncompressedBytes += stat.uncompressedBytes;
+    }
   }
 
   public void setValues(TableStats stat) {
@@ -224,6 +248,7 @@ public class TableStats implements ProtoObject<TableStatsProto>, Cloneable, Gson
     numShuffleOutputs = stat.numShuffleOutputs != null ? stat.numShuffleOutputs : 0;
     avgRows = stat.avgRows != null ? stat.avgRows : 0;
     readBytes = stat.readBytes != null ? stat.readBytes : 0;
+    uncompressedBytes = stat.uncompressedBytes != null ? stat.uncompressedBytes : 0;
   }
 
   public String toString() {
@@ -255,6 +280,9 @@ public class TableStats implements ProtoObject<TableStatsProto>, Cloneable, Gson
     if (this.readBytes != null) {
       builder.setReadBytes(this.readBytes);
     }
+    if (this.uncompressedBytes != null) {
+      builder.setUncompressedBytes(this.uncompressedBytes);
+    }
     if (this.columnStatses != null) {
       for (ColumnStats colStat : columnStatses) {
         builder.addColStat(colStat.getProto());
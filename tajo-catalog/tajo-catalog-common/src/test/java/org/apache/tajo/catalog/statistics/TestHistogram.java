@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.catalog.statistics;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TestHistogram {
+
+  private static List<Datum> createValues(int from, int to) {
+    List<Datum> values = new ArrayList<>();
+    for (int i = from; i < to; i++) {
+      values.add(DatumFactory.createInt4(i));
+    }
+    return values;
+  }
+
+  @Test
+  public final void testBuild() {
+    assertNull(Histogram.build(new ArrayList<Datum>(), 0, 10));
+
+    // 1000 sampled values of 10000 values
+    Histogram histogram = Histogram.build(createValues(0, 1000), 10000, 10);
+    assertEquals(10, histogram.getNumBuckets());
+    assertEquals(10000, histogram.getTotalCount());
+    assertEquals(DatumFactory.createInt4(0), histogram.getMinValue());
+    assertEquals(DatumFactory.createInt4(999), histogram.getMaxValue());
+    for (long count : histogram.getCounts()) {
+      assertEquals(1000, count);
+    }
+
+    assertEquals(0.0, histogram.estimateLessThan(DatumFactory.createInt4(0), false), 0.01);
+    assertEquals(0.25, histogram.estimateLessThan(DatumFactory.createInt4(250), false), 0.01);
+    assertEquals(1.0, histogram.estimateLessThan(DatumFactory.createInt4(999), true), 0.01);
+    assertEquals(0.5, histogram.estimateRange(DatumFactory.createInt4(250), true, DatumFactory.createInt4(750), false),
+        0.01);
+    assertEquals(0.3, histogram.estimateRange(DatumFactory.createInt4(700), true, null, false), 0.01);
+    assertEquals(0.001, histogram.estimateEquals(DatumFactory.createInt4(10), 1000), 0.0001);
+  }
+
+  @Test
+  public final void testSkewedValues() {
+    // a half of the values are 7
+    List<Datum> values = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      values.add(DatumFactory.createInt4(7));
+    }
+    values.addAll(createValues(8, 508));
+
+    Histogram histogram = Histogram.build(values, values.size(), 10);
+    assertEquals(0.5, histogram.estimateEquals(DatumFactory.createInt4(7), 501), 0.01);
+
+    Datum[] quantiles = histogram.getQuantiles(4);
+    assertEquals(2, quantiles.length);
+    assertEquals(DatumFactory.createInt4(7), quantiles[0]);
+    assertTrue(quantiles[1].compareTo(DatumFactory.createInt4(250)) > 0);
+  }
+
+  @Test
+  public final void testMerge() {
+    Histogram h1 = Histogram.build(createValues(0, 1000), 1000, 10);
+    Histogram h2 = Histogram.build(createValues(500, 1500), 1000, 10);
+    Histogram merged = Histogram.merge(h1, h2, 10);
+
+    assertEquals(2000, merged.getTotalCount());
+    assertEquals(DatumFactory.createInt4(0), merged.getMinValue());
+    assertEquals(DatumFactory.createInt4(1499), merged.getMaxValue());
+    // the values between 500 and 1000 are twice as dense as the others
+    assertEquals(0.5, merged.estimateLessThan(DatumFactory.createInt4(750), false), 0.1);
+  }
+
+  @Test
+  public final void testFrequentValues() {
+    Map<Datum, Long> sampleCounts = new HashMap<>();
+    sampleCounts.put(DatumFactory.createText("a"), 50L);
+    sampleCounts.put(DatumFactory.createText("b"), 20L);
+    sampleCounts.put(DatumFactory.createText("c"), 1L);
+
+    // 100 values are sampled from 1000 values
+    FrequentValues frequentValues = FrequentValues.build(sampleCounts, 100, 1000, 10);
+    assertEquals(2, frequentValues.size());
+    assertEquals(DatumFactory.createText("a"), frequentValues.getValues()[0]);
+    assertEquals(500, frequentValues.getCount(DatumFactory.createText("a")));
+    assertEquals(-1, frequentValues.getCount(DatumFactory.createText("c")));
+
+    FrequentValues merged = FrequentValues.merge(frequentValues, frequentValues, 1);
+    assertEquals(1, merged.size());
+    assertEquals(1000, merged.getCount(DatumFactory.createText("a")));
+  }
+
+  @Test
+  public final void testColumnStatsProto() {
+    ColumnStats stats = new ColumnStats(new Column("test", Type.INT4));
+    stats.setHistogram(Histogram.build(createValues(0, 100), 100, 10));
+    Map<Datum, Long> sampleCounts = new HashMap<>();
+    sampleCounts.put(DatumFactory.createInt4(1), 3L);
+    stats.setFrequentValues(FrequentValues.build(sampleCounts, 100, 100, 10));
+    HyperLogLog hll = new HyperLogLog();
+    hll.offer(DatumFactory.createInt4(1));
+    stats.setNdvSketch(hll);
+
+    ColumnStats fromProto = new ColumnStats(stats.getProto());
+    assertEquals(stats, fromProto);
+    assertEquals(stats.getHistogram(), fromProto.getHistogram());
+    assertEquals(stats.getFrequentValues(), fromProto.getFrequentValues());
+    assertEquals(hll, fromProto.getNdvSketch());
+  }
+}
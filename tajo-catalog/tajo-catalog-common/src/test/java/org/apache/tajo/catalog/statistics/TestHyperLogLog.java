@@ -0,0 +1,67 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.catalog.statistics;
+
+import org.apache.tajo.datum.DatumFactory;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestHyperLogLog {
+
+  private static void assertEstimate(long expected, long actual) {
+    assertTrue("expected: " + expected + ", but estimated: " + actual,
+        Math.abs(actual - expected) <= Math.max(expected * 0.1, 2));
+  }
+
+  @Test
+  public final void testCardinality() {
+    HyperLogLog hll = new HyperLogLog();
+    assertEquals(0, hll.cardinality());
+
+    for (int i = 0; i < 100; i++) {
+      hll.offer(DatumFactory.createInt8(i));
+    }
+    assertEstimate(100, hll.cardinality());
+
+    // duplicated values are not counted
+    for (int j = 0; j < 10; j++) {
+      for (int i = 0; i < 100000; i++) {
+        hll.offer(DatumFactory.createText("value_" + i));
+      }
+    }
+    assertEstimate(100100, hll.cardinality());
+  }
+
+  @Test
+  public final void testMerge() {
+    HyperLogLog hll1 = new HyperLogLog();
+    HyperLogLog hll2 = new HyperLogLog();
+    for (int i = 0; i < 50000; i++) {
+      hll1.offer(DatumFactory.createInt4(i));
+      hll2.offer(DatumFactory.createInt4(i + 25000));
+    }
+
+    HyperLogLog merged = HyperLogLog.merge(hll1, hll2);
+    assertEstimate(75000, merged.cardinality());
+    assertEquals(merged, new HyperLogLog(merged.toBytes()));
+  }
+}
@@ -262,6 +262,11 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
 
     schemaVersion = getSchemaVersion();
 
+    if (schemaVersion != -1 && catalogSchemaManager.isUpgradable(schemaVersion)) {
+      upgradeSchema(schemaVersion);
+      schemaVersion = getSchemaVersion();
+    }
+
     if (schemaVersion == -1 || schemaVersion != getDriverVersion()) {
       LOG.error(String.format("Catalog version (%d) and current driver version (%d) are mismatch to each other",
           schemaVersion, getDriverVersion()));
@@ -280,6 +285,21 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
         getDriverVersion()));
   }
 
+  /**
+   * Apply the schema patches from the given version, and update the version of the catalog schema
+   */
+  private void upgradeSchema(int schemaVersion) {
+    LOG.info(String.format("Upgrading the catalog schema from version %d to %d", schemaVersion, getDriverVersion()));
+    catalogSchemaManager.upgradeBaseSchema(getConnection(), schemaVersion);
+
+    try (PreparedStatement pstmt = getConnection().prepareStatement("UPDATE META SET VERSION = ?")) {
+      pstmt.setInt(1, getDriverVersion());
+      pstmt.executeUpdate();
+    } catch (SQLException se) {
+      throw new TajoInternalError(se);
+    }
+  }
+
   /**
    * Insert the version of the current catalog schema
    */
@@ -954,6 +974,34 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
         pstmt.setLong(2, statsProto.getStats().getNumBytes());
         pstmt.setInt(3, tableId);
         pstmt.executeUpdate();
+        pstmt.close();
+      }
+
+      // Column stats are valid only for the data analyzed by ANALYZE TABLE. They are removed by other updates.
+      String deleteSql = "DELETE FROM " + TB_COLUMN_STATISTICS + " WHERE " + COL_TABLES_PK + " = ?";
+      if (LOG.isDebugEnabled()) {
+        LOG.debug(deleteSql);
+      }
+      pstmt = conn.prepareStatement(deleteSql);
+      pstmt.setInt(1, tableId);
+      pstmt.executeUpdate();
+      pstmt.close();
+
+      if (statsProto.hasStats() && statsProto.getUpdateColumnStats()) {
+        String insertSql = "INSERT INTO " + TB_COLUMN_STATISTICS + " (" + COL_TABLES_PK + ", " + COL_COLUMN_NAME
+            + ", STATS) VALUES (?, ?, ?)";
+        if (LOG.isDebugEnabled()) {
+          LOG.debug(insertSql);
+        }
+        pstmt = conn.prepareStatement(insertSql);
+        for (ColumnStatsProto colStats : statsProto.getStats().getColStatList()) {
+          pstmt.setInt(1, tableId);
+          pstmt.setString(2, CatalogUtil.extractSimpleName(colStats.getColumn().getName()));
+          pstmt.setBytes(3, colStats.toByteArray());
+          pstmt.addBatch();
+          pstmt.clearParameters();
+        }
+        pstmt.executeBatch();
       }
 
       // If there is no error, commit the changes.
@@ -1465,6 +1513,17 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
       pstmt.executeUpdate();
       pstmt.close();
 
+      sql = "DELETE FROM " + TB_COLUMN_STATISTICS + " WHERE " + COL_TABLES_PK + " = ? ";
+
+      if (LOG.isDebugEnabled()) {
+        LOG.debug(sql);
+      }
+
+      pstmt = conn.prepareStatement(sql);
+      pstmt.setInt(1, tableId);
+      pstmt.executeUpdate();
+      pstmt.close();
+
       sql = "DELETE FROM " + TB_PARTTION_KEYS
         + " WHERE " + COL_PARTITIONS_PK
         + " IN (SELECT " + COL_PARTITIONS_PK + " FROM " + TB_PARTTIONS + " WHERE " + COL_TABLES_PK + "= ? )";
@@ -1681,6 +1740,11 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
       res.close();
       pstmt.close();
 
+      if (tableBuilder.hasStats()) {
+        tableBuilder.getStatsBuilder().addAllColStat(
+            getColumnStats(conn, tableId, tableBuilder.hasSchema() ? tableBuilder.getSchema() : null));
+      }
+
 
       //////////////////////////////////////////
       // Getting Table Partition Method
@@ -1699,7 +1763,7 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
       if (res.next()) {
         tableBuilder.setPartition(resultToPartitionMethodProto(databaseName, tableName, res));
       }
-    } catch (SQLException se) {
+    } catch (SQLException | InvalidProtocolBufferException se) {
       throw new TajoInternalError(se);
     } finally {
       CatalogUtil.closeQuietly(pstmt, res);
@@ -2932,6 +2996,45 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
     return builder.build();
   }
 
+  /**
+   * Read column stats collected by ANALYZE TABLE. They are bound to the current columns of a table by their names.
+   * Stats of dropped columns or columns whose types are changed are ignored.
+   */
+  private List<ColumnStatsProto> getColumnStats(Connection conn, int tableId, @Nullable SchemaProto schema)
+      throws SQLException, InvalidProtocolBufferException {
+    Map<String, ColumnProto> columns = new HashMap<>();
+    if (schema != null) {
+      for (ColumnProto column : schema.getFieldsList()) {
+        columns.put(CatalogUtil.extractSimpleName(column.getName()), column);
+      }
+    }
+
+    String sql = "SELECT " + COL_COLUMN_NAME + ", STATS FROM " + TB_COLUMN_STATISTICS
+        + " WHERE " + COL_TABLES_PK + " = ?";
+    if (LOG.isDebugEnabled()) {
+      LOG.debug(sql);
+    }
+
+    List<ColumnStatsProto> colStats = new ArrayList<>();
+    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      pstmt.setInt(1, tableId);
+      try (ResultSet res = pstmt.executeQuery()) {
+        while (res.next()) {
+          ColumnStatsProto proto = ColumnStatsProto.parseFrom(res.getBytes("STATS"));
+          if (schema == null) {
+            colStats.add(proto);
+          } else {
+            ColumnProto column = columns.get(res.getString(COL_COLUMN_NAME));
+            if (column != null && column.getDataType().equals(proto.getColumn().getDataType())) {
+              colStats.add(proto.toBuilder().setColumn(column).build());
+            }
+          }
+        }
+      }
+    }
+    return colStats;
+  }
+
   private KeyValueSetProto resultToKeyValueSetProto(final ResultSet res) throws SQLException {
     KeyValueSetProto.Builder setBuilder = KeyValueSetProto.newBuilder();
     KeyValueProto.Builder builder = KeyValueProto.newBuilder();
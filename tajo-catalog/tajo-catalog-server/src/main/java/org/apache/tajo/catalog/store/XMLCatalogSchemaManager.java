@@ -306,7 +306,7 @@ public class XMLCatalogSchemaManager {
     Statement stmt;
     
     for (SchemaPatch patch: this.catalogStore.getPatches()) {
-      if (currentVersion >= patch.getPriorVersion()) {
+      if (patch.getPriorVersion() >= currentVersion) {
         candidatePatches.add(patch);
       }
     }
@@ -332,6 +332,26 @@ public class XMLCatalogSchemaManager {
     CatalogUtil.closeQuietly(stmt);
   }
 
+  /**
+   * @return true if the patches lead the catalog schema of the given version to the version of the base schema
+   */
+  public boolean isUpgradable(int currentVersion) {
+    if (!isLoaded()) {
+      return false;
+    }
+
+    final List<SchemaPatch> patches = new ArrayList<>(this.catalogStore.getPatches());
+    Collections.sort(patches);
+
+    int version = currentVersion;
+    for (SchemaPatch patch: patches) {
+      if (patch.getPriorVersion() == version) {
+        version = patch.getNextVersion();
+      }
+    }
+    return currentVersion < version && version == this.catalogStore.getSchema().getVersion();
+  }
+
   public boolean catalogAlreadyExists(Connection conn) {
     boolean result = false;
     try {
@@ -344,6 +364,7 @@ public class XMLCatalogSchemaManager {
       constants.add(CatalogConstants.TB_OPTIONS);
       constants.add(CatalogConstants.TB_INDEXES);
       constants.add(CatalogConstants.TB_STATISTICS);
+      constants.add(CatalogConstants.TB_COLUMN_STATISTICS);
       constants.add(CatalogConstants.TB_PARTITION_METHODS);
       constants.add(CatalogConstants.TB_PARTTIONS);
       constants.add(CatalogConstants.TB_PARTTION_KEYS);
@@ -27,8 +27,12 @@ import org.apache.tajo.catalog.partition.PartitionMethodDesc;
 import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.catalog.proto.CatalogProtos.FunctionType;
 import org.apache.tajo.catalog.proto.CatalogProtos.IndexMethod;
+import org.apache.tajo.catalog.proto.CatalogProtos.UpdateTableStatsProto;
+import org.apache.tajo.catalog.statistics.*;
 import org.apache.tajo.common.TajoDataTypes;
 import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
 import org.apache.tajo.exception.TajoException;
 import org.apache.tajo.exception.UndefinedFunctionException;
 import org.apache.tajo.function.Function;
@@ -319,6 +323,72 @@ public class TestCatalog {
     assertFalse(catalog.existsTable(DEFAULT_DATABASE_NAME, "getTable"));
 	}
 
+  @Test
+  public void testUpdateColumnStats() throws Exception {
+    String tableName = CatalogUtil.buildFQName(DEFAULT_DATABASE_NAME, "analyzed");
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("name", Type.TEXT);
+    TableDesc desc = new TableDesc(tableName, schema, "TEXT", new KeyValueSet(),
+        new Path(CommonTestingUtil.getTestDir(), "analyzed").toUri());
+    desc.setStats(new TableStats());
+    catalog.createTable(desc);
+
+    // column stats collected by ANALYZE TABLE
+    ColumnStats idStats = new ColumnStats(new Column("id", Type.INT4));
+    idStats.setNumDistVals(100);
+    idStats.setNumNulls(0);
+    idStats.setMinValue(DatumFactory.createInt4(0));
+    idStats.setMaxValue(DatumFactory.createInt4(99));
+    idStats.setHistogram(new Histogram(new Datum[] {DatumFactory.createInt4(0), DatumFactory.createInt4(50),
+        DatumFactory.createInt4(99)}, new long[] {50, 50}));
+    HyperLogLog sketch = new HyperLogLog();
+    for (int i = 0; i < 100; i++) {
+      sketch.offer(DatumFactory.createInt4(i));
+    }
+    idStats.setNdvSketch(sketch);
+    idStats.setFrequentValues(new FrequentValues(new Datum[] {DatumFactory.createInt4(7)}, new long[] {10}));
+
+    TableStats stats = new TableStats();
+    stats.setNumRows(100);
+    stats.setNumBytes(1000);
+    stats.addColumnStat(idStats);
+    catalog.updateTableStats(UpdateTableStatsProto.newBuilder()
+        .setTableName(tableName)
+        .setStats(stats.getProto())
+        .setUpdateColumnStats(true)
+        .build());
+
+    TableStats restored = catalog.getTableDesc(tableName).getStats();
+    assertEquals(100, restored.getNumRows().longValue());
+    assertEquals(1, restored.getColumnStats().size());
+    ColumnStats restoredIdStats = restored.getColumnStats().get(0);
+    assertEquals("id", restoredIdStats.getColumn().getSimpleName());
+    assertEquals(100, restoredIdStats.getNumDistValues().longValue());
+    assertEquals(0, restoredIdStats.getNumNulls().longValue());
+    assertEquals(idStats.getMinValue(), restoredIdStats.getMinValue());
+    assertEquals(idStats.getMaxValue(), restoredIdStats.getMaxValue());
+    assertEquals(idStats.getHistogram(), restoredIdStats.getHistogram());
+    assertEquals(sketch, restoredIdStats.getNdvSketch());
+    assertEquals(idStats.getFrequentValues(), restoredIdStats.getFrequentValues());
+
+    // an update without column stats, such as the one made by INSERT, removes the stored column stats
+    stats = new TableStats();
+    stats.setNumRows(200);
+    stats.setNumBytes(2000);
+    catalog.updateTableStats(UpdateTableStatsProto.newBuilder()
+        .setTableName(tableName)
+        .setStats(stats.getProto())
+        .build());
+
+    restored = catalog.getTableDesc(tableName).getStats();
+    assertEquals(200, restored.getNumRows().longValue());
+    assertTrue(restored.getColumnStats().isEmpty());
+
+    catalog.dropTable(tableName);
+    assertFalse(catalog.existsTable(tableName));
+  }
+
   /**
    * It asserts the equality between an original table desc and a restored table desc.
    */
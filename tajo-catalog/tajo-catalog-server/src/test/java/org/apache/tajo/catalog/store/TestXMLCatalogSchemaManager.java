@@ -491,5 +491,17 @@ public class TestXMLCatalogSchemaManager {
     assertThat(columns.getInt("DATA_TYPE"), is(Types.VARCHAR));
     assertThat(columns.getInt("COLUMN_SIZE"), is(25));
   }
+
+  @Test
+  public void testUpgradableVersions() throws Exception {
+    XMLCatalogSchemaManager manager = new XMLCatalogSchemaManager("schemas/derby");
+    assertThat(manager.isLoaded(), is(true));
+    assertThat(manager.getCatalogStore().getSchema().getVersion(), is(13));
+
+    // the catalog of version 12 is upgraded by adding the table of column stats
+    assertThat(manager.isUpgradable(12), is(true));
+    assertThat(manager.isUpgradable(11), is(false));
+    assertThat(manager.isUpgradable(13), is(false));
+  }
   
 }
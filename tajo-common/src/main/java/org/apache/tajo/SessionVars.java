@@ -92,6 +92,11 @@ public enum SessionVars implements ConfigKey {
   USE_TABLE_VOLUME(ConfVars.$USE_TABLE_VOLUME,
       "Enable optimizer to get and use the table volume via storage handlers", DEFAULT, Boolean.class,
       Validators.bool()),
+  JOIN_ORDER_ALGORITHM(ConfVars.$JOIN_ORDER_ALGORITHM, "join order algorithm (greedy or dp)", DEFAULT,
+      String.class, Validators.patternMatch("^(greedy|dp)$")),
+  JOIN_ORDER_DP_MAX_RELATIONS(ConfVars.$JOIN_ORDER_DP_MAX_RELATIONS,
+      "maximum number of relations for the dynamic programming join order algorithm", DEFAULT, Integer.class,
+      Validators.range("2", "12")),
 
   // for distributed query strategies
   BROADCAST_NON_CROSS_JOIN_THRESHOLD(ConfVars.$DIST_QUERY_BROADCAST_NON_CROSS_JOIN_THRESHOLD,
@@ -114,6 +119,19 @@ public enum SessionVars implements ConfigKey {
   TABLE_PARTITION_PER_SHUFFLE_SIZE(ConfVars.$DIST_QUERY_TABLE_PARTITION_VOLUME,
       "shuffle output size for partition table write (mb)", DEFAULT, Integer.class, Validators.min("1")),
 
+  JOIN_SKEW_ENABLED(ConfVars.$DIST_QUERY_JOIN_SKEW_ENABLED, "splitting skewed join partitions enabled", DEFAULT,
+      Boolean.class, Validators.bool()),
+  JOIN_SKEW_FACTOR(ConfVars.$DIST_QUERY_JOIN_SKEW_FACTOR,
+      "ratio of a skewed join partition to the median partition", DEFAULT, Float.class, Validators.min("1")),
+  JOIN_SKEW_THRESHOLD(ConfVars.$DIST_QUERY_JOIN_SKEW_THRESHOLD, "minimum size of a skewed join partition (mb)",
+      DEFAULT, Integer.class, Validators.min("1")),
+  ADAPTIVE_EXECUTION_ENABLED(ConfVars.$DIST_QUERY_ADAPTIVE_ENABLED,
+      "re-planning from runtime statistics enabled", DEFAULT, Boolean.class, Validators.bool()),
+  JOIN_RUNTIME_FILTER_ENABLED(ConfVars.$DIST_QUERY_JOIN_RUNTIME_FILTER_ENABLED,
+      "filtering join inputs by runtime bloom filters enabled", DEFAULT, Boolean.class, Validators.bool()),
+  JOIN_RUNTIME_FILTER_SIZE(ConfVars.$DIST_QUERY_JOIN_RUNTIME_FILTER_SIZE, "size of a runtime bloom filter (kb)",
+      DEFAULT, Integer.class, Validators.range("1", "65536")),
+
   GROUPBY_MULTI_LEVEL_ENABLED(ConfVars.$GROUPBY_MULTI_LEVEL_ENABLED, "Multiple level groupby enabled", DEFAULT,
       Boolean.class, Validators.bool()),
 
@@ -125,21 +143,44 @@ public enum SessionVars implements ConfigKey {
       Integer.class, Validators.min("0")),
   HASH_SHUFFLE_BUFFER_SIZE(ConfVars.$EXECUTOR_HASH_SHUFFLE_BUFFER_SIZE, "hash-shuffle buffer size for local disk I/O (mb)"
       , DEFAULT, Integer.class, Validators.min("1")),
+  SHUFFLE_FETCH_STREAMING_ENABLED(ConfVars.$SHUFFLE_FETCHER_STREAMING_ENABLED,
+      "Fetched hash-shuffle data is scanned as each fetch completes, without waiting for all fetches", DEFAULT,
+      Boolean.class, Validators.bool()),
+  SHUFFLE_FETCH_STREAMING_BUFFER_SIZE(ConfVars.$SHUFFLE_FETCHER_STREAMING_BUFFER_SIZE,
+      "memory size for streamed shuffle data before spilling to disk (mb)", DEFAULT, Integer.class,
+      Validators.min("1")),
+  SHUFFLE_PUSH_ENABLED(ConfVars.$SHUFFLE_PUSH_ENABLED, "push hash-shuffled partitions to the workers merging them",
+      DEFAULT, Boolean.class, Validators.bool()),
   HASH_JOIN_SIZE_LIMIT(ConfVars.$EXECUTOR_HASH_JOIN_SIZE_THRESHOLD, "limited size for hash join (mb)", DEFAULT,
       Long.class, Validators.min("0")),
   INNER_HASH_JOIN_SIZE_LIMIT(ConfVars.$EXECUTOR_INNER_HASH_JOIN_SIZE_THRESHOLD,
       "limited size for hash inner join (mb)", DEFAULT, Long.class, Validators.min("0")),
   OUTER_HASH_JOIN_SIZE_LIMIT(ConfVars.$EXECUTOR_OUTER_HASH_JOIN_SIZE_THRESHOLD, "limited size for hash outer join (mb)",
       DEFAULT, Long.class, Validators.min("0")),
+  HYBRID_HASH_JOIN_MEMORY_LIMIT(ConfVars.$EXECUTOR_HYBRID_HASH_JOIN_MEMORY_LIMIT,
+      "memory limit of hybrid hash join before spilling to disk (mb)", DEFAULT, Long.class, Validators.min("1")),
   HASH_GROUPBY_SIZE_LIMIT(ConfVars.$EXECUTOR_GROUPBY_INMEMORY_HASH_THRESHOLD, "limited size for hash groupby (mb)",
       DEFAULT, Long.class, Validators.min("0")),
+  HASH_GROUPBY_MEMORY_LIMIT(ConfVars.$EXECUTOR_GROUPBY_HASH_MEMORY_LIMIT,
+      "memory limit of hash groupby before spilling to disk (mb)", DEFAULT, Long.class, Validators.min("1")),
+  WINDOW_PARTITION_MEMORY_LIMIT(ConfVars.$EXECUTOR_WINDOW_PARTITION_MEMORY_LIMIT,
+      "memory limit of a window partition before spilling to disk (mb)", DEFAULT, Long.class, Validators.min("1")),
   MAX_OUTPUT_FILE_SIZE(ConfVars.$MAX_OUTPUT_FILE_SIZE, "Maximum per-output file size (mb). 0 means infinite.", DEFAULT,
       Long.class, Validators.min("0")),
   NULL_CHAR(ConfVars.$TEXT_NULL, "Null char of text file output. " +
       "This value is used when the table property 'text.null' is not specified.", DEFAULT),
   CODEGEN(ConfVars.$CODEGEN, "Runtime code generation enabled (experiment)", DEFAULT),
+  VECTORIZED_EXECUTION(ConfVars.$EXECUTOR_VECTORIZED_ENABLED,
+      "Scans, filters and projections of a table process rows in column vectors (experiment)", DEFAULT,
+      Boolean.class, Validators.bool()),
   AGG_HASH_TABLE_SIZE(ConfVars.$AGG_HASH_TABLE_SIZE, "The initial size of list for in-memory aggregation", DEFAULT),
   SORT_LIST_SIZE(ConfVars.$SORT_LIST_SIZE, "The initial size of list for in-memory sort", DEFAULT),
+  SORT_NORMALIZED_KEY_ENABLED(ConfVars.$SORT_NORMALIZED_KEY_ENABLED,
+      "In-memory sort orders rows by normalized keys of the first sort key before full comparisons", DEFAULT,
+      Boolean.class, Validators.bool()),
+  SORT_TOPK_THRESHOLD(ConfVars.$SORT_TOPK_THRESHOLD,
+      "The maximum limit of ORDER BY ... LIMIT evaluated by a bounded heap. 0 disables it.", DEFAULT, Long.class,
+      Validators.min("0")),
   JOIN_HASH_TABLE_SIZE(ConfVars.$JOIN_HASH_TABLE_SIZE, "The initial size of hash table for in-memory hash join",
       DEFAULT),
 
@@ -153,6 +194,10 @@ public enum SessionVars implements ConfigKey {
     "If true, a partitioned table is overwritten even if a sub query leads to no result. "
     + "Otherwise, the table data will be kept if there is no result", DEFAULT),
 
+  // for storage
+  STORAGE_PUSHDOWN_ENABLED(ConfVars.$STORAGE_PUSHDOWN_ENABLED,
+      "If true, aggregations and joins are evaluated by storages supporting them", DEFAULT),
+
   // Behavior Control ---------------------------------------------------------
   ARITHABORT(ConfVars.$BEHAVIOR_ARITHMETIC_ABORT,
       "If true, a running query will be terminated when an overflow or divide-by-zero occurs.", DEFAULT),
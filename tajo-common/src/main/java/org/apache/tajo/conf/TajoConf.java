@@ -218,16 +218,27 @@ public class TajoConf extends Configuration {
     PULLSERVER_CACHE_TIMEOUT("tajo.pullserver.index-cache.timeout-min", 5, Validators.min("1")),
     PULLSERVER_FETCH_URL_MAX_LENGTH("tajo.pullserver.fetch-url.max-length", StorageUnit.KB,
         Validators.min("1")),
+    // the heap memory of pushed pages which a pull server receives at the same time
+    PULLSERVER_PUSH_MEMORY_LIMIT("tajo.pullserver.push.memory-limit-mb", 256, Validators.min("1")),
     SHUFFLE_SSL_ENABLED_KEY("tajo.pullserver.ssl.enabled", false, Validators.bool()),
     SHUFFLE_FILE_FORMAT("tajo.shuffle.file-format", BuiltinStorages.RAW, Validators.javaString()),
+    SHUFFLE_COMPRESSION_CODEC("tajo.shuffle.compression.codec", ""),
     SHUFFLE_FETCHER_PARALLEL_EXECUTION_MAX_NUM("tajo.shuffle.fetcher.parallel-execution.max-num",
         2, Validators.min("1")),
     SHUFFLE_FETCHER_CHUNK_MAX_SIZE("tajo.shuffle.fetcher.chunk.max-size",  8192),
     SHUFFLE_FETCHER_CONNECT_TIMEOUT("tajo.shuffle.fetcher.connect.timeout-sec", 60, Validators.min("1")),
     SHUFFLE_FETCHER_READ_TIMEOUT("tajo.shuffle.fetcher.read.timeout-sec", 60, Validators.min("1")),
     SHUFFLE_FETCHER_READ_RETRY_MAX_NUM("tajo.shuffle.fetcher.read.retry.max-num", 2, Validators.min("0")),
+    SHUFFLE_FETCHER_KEEP_ALIVE_ENABLED("tajo.shuffle.fetcher.keep-alive.enabled", true, Validators.bool()),
+    SHUFFLE_FETCHER_IDLE_CONNECTION_MAX_NUM("tajo.shuffle.fetcher.idle-connection.max-num-per-host", 8,
+        Validators.min("0")),
+    SHUFFLE_FETCHER_IDLE_CONNECTION_TIMEOUT("tajo.shuffle.fetcher.idle-connection.timeout-sec", 60,
+        Validators.min("1")),
+    SHUFFLE_FETCHER_BATCH_PARTITION_MAX_NUM("tajo.shuffle.fetcher.batch.partition.max-num", 32,
+        Validators.min("1")),
     SHUFFLE_HASH_APPENDER_PAGE_VOLUME("tajo.shuffle.hash.appender.page.volume-mb", 30),
     SHUFFLE_HASH_PARENT_DIRS("tajo.shuffle.hash.parent.dirs.count", 64),
+    SHUFFLE_PUSH_THREAD_NUM("tajo.shuffle.push.thread-num", 4, Validators.min("1")),
 
     // Query output Configuration --------------------------------------------------
     QUERY_OUTPUT_DEFAULT_FILE_FORMAT("tajo.query.output.file-format", BuiltinStorages.DRAW, Validators.javaString()),
@@ -285,6 +296,9 @@ public class TajoConf extends Configuration {
         "org.apache.tajo.engine.planner.global.rewriter.BaseGlobalPlanRewriteRuleProvider"),
     EXECUTOR_EXTERNAL_SORT_THREAD_NUM("tajo.executor.external-sort.thread-num", 1),
     EXECUTOR_EXTERNAL_SORT_FANOUT("tajo.executor.external-sort.fanout-num", 8),
+    // runs are stored and read on background threads while the next run is loaded or merged
+    EXECUTOR_EXTERNAL_SORT_ASYNC_IO("tajo.executor.external-sort.async-io.enabled", true),
+    EXECUTOR_EXTERNAL_SORT_READ_AHEAD_SIZE("tajo.executor.external-sort.read-ahead-kb", 512),
 
     // Metrics ----------------------------------------------------------------
     METRICS_PROPERTY_FILENAME("tajo.metrics.property.file", "tajo-metrics.properties"),
@@ -334,6 +348,11 @@ public class TajoConf extends Configuration {
     // By default, this config value is false, and in this case the optimizer uses the table stats from catalog.
     $USE_TABLE_VOLUME("tajo.optimizer.stats.use-table-volume", Boolean.FALSE),
 
+    // The algorithm to find join orders. 'greedy' or 'dp' (dynamic programming).
+    $JOIN_ORDER_ALGORITHM("tajo.optimizer.join-order.algorithm", "greedy", Validators.patternMatch("^(greedy|dp)$")),
+    // The dynamic programming is used only for the blocks having at most this number of relations.
+    $JOIN_ORDER_DP_MAX_RELATIONS("tajo.optimizer.join-order.dp.max-relations", 10, Validators.range("2", "12")),
+
 
     // for distributed query strategies
     $DIST_QUERY_BROADCAST_NON_CROSS_JOIN_THRESHOLD("tajo.dist-query.broadcast.non-cross-join.threshold-kb", 5 * 1024l,
@@ -348,6 +367,20 @@ public class TajoConf extends Configuration {
     $DIST_QUERY_GROUPBY_PARTITION_VOLUME("tajo.dist-query.groupby.partition-volume-mb", 256, Validators.min("1")),
     $DIST_QUERY_TABLE_PARTITION_VOLUME("tajo.dist-query.table-partition.task-volume-mb", 256, Validators.min("1")),
 
+    // A hash partition of a join is skewed if it is larger than both the factor times the median partition volume
+    // and the threshold. The skewed side of the partition is split into multiple tasks.
+    $DIST_QUERY_JOIN_SKEW_ENABLED("tajo.dist-query.join.skew.enabled", true),
+    $DIST_QUERY_JOIN_SKEW_FACTOR("tajo.dist-query.join.skew.factor", 4.0f, Validators.min("1")),
+    $DIST_QUERY_JOIN_SKEW_THRESHOLD("tajo.dist-query.join.skew.threshold-mb", 256, Validators.min("1")),
+
+    // Re-plans the remaining execution blocks from the actual volumes of the finished ones
+    $DIST_QUERY_ADAPTIVE_ENABLED("tajo.dist-query.adaptive.enabled", true),
+
+    // Filters the probe side of a repartition join by a bloom filter over the join keys of the build side
+    $DIST_QUERY_JOIN_RUNTIME_FILTER_ENABLED("tajo.dist-query.join.runtime-filter.enabled", true),
+    $DIST_QUERY_JOIN_RUNTIME_FILTER_SIZE("tajo.dist-query.join.runtime-filter.size-kb", 1024,
+        Validators.range("1", "65536")),
+
     $GROUPBY_MULTI_LEVEL_ENABLED("tajo.dist-query.groupby.multi-level-aggr", true),
 
     $QUERY_EXECUTE_PARALLEL_MAX("tajo.query.execute.parallel.max", 10),
@@ -359,19 +392,33 @@ public class TajoConf extends Configuration {
         Validators.min("0")),
     $EXECUTOR_OUTER_HASH_JOIN_SIZE_THRESHOLD("tajo.executor.join.outer.in-memory-hash-threshold-mb", 64l,
         Validators.min("0")),
+    $EXECUTOR_HYBRID_HASH_JOIN_MEMORY_LIMIT("tajo.executor.join.hybrid-hash.memory-limit-mb", 256l,
+        Validators.min("1")),
     $EXECUTOR_GROUPBY_INMEMORY_HASH_THRESHOLD("tajo.executor.groupby.in-memory-hash-threshold-mb", 64l,
         Validators.min("0")),
+    $EXECUTOR_GROUPBY_HASH_MEMORY_LIMIT("tajo.executor.groupby.hash-memory-limit-mb", 256l, Validators.min("1")),
+    $EXECUTOR_WINDOW_PARTITION_MEMORY_LIMIT("tajo.executor.window.partition-memory-limit-mb", 256l,
+        Validators.min("1")),
     $EXECUTOR_HASH_SHUFFLE_BUFFER_SIZE("tajo.executor.hash-shuffle.buffer-mb", 100, Validators.min("1")),
+    $SHUFFLE_FETCHER_STREAMING_ENABLED("tajo.shuffle.fetcher.streaming.enabled", false),
+    $SHUFFLE_FETCHER_STREAMING_BUFFER_SIZE("tajo.shuffle.fetcher.streaming.buffer-mb", 128, Validators.min("1")),
+    $SHUFFLE_PUSH_ENABLED("tajo.shuffle.push.enabled", false),
     $MAX_OUTPUT_FILE_SIZE("tajo.query.max-outfile-size-mb", 0), // zero means infinite
     $CODEGEN("tajo.executor.codegen.enabled", false), // Runtime code generation (todo this is broken)
+    $EXECUTOR_VECTORIZED_ENABLED("tajo.executor.vectorized.enabled", false),
     $AGG_HASH_TABLE_SIZE("tajo.executor.aggregate.hash-table.size", 10000),
     $SORT_LIST_SIZE("tajo.executor.sort.list.size", 100000),
+    $SORT_NORMALIZED_KEY_ENABLED("tajo.executor.sort.normalized-key.enabled", true),
+    $SORT_TOPK_THRESHOLD("tajo.executor.sort.top-k.threshold", 100000l, Validators.min("0")),
     $JOIN_HASH_TABLE_SIZE("tajo.executor.join.hash-table.size", 100000),
 
     // for index
     $INDEX_ENABLED("tajo.query.index.enabled", false),
     $INDEX_SELECTIVITY_THRESHOLD("tajo.query.index.selectivity.threshold", 0.05f),
 
+    // for storage
+    $STORAGE_PUSHDOWN_ENABLED("tajo.query.storage-pushdown.enabled", false),
+
     // Client -----------------------------------------------------------------
     $CLIENT_SESSION_EXPIRY_TIME("tajo.client.session.expiry-time-sec", 3600), // default time is one hour.
 
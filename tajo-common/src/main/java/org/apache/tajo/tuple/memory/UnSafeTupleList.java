@@ -93,6 +93,23 @@ public class UnSafeTupleList extends ArrayList<UnSafeTuple> {
     return totalUsedMem + currentRowBlock.usedMem();
   }
 
+  /**
+   * Remove all tuples, but keep the first page to be reused
+   */
+  public void reset() {
+    MemoryRowBlock firstRowBlock = rowBlocks.get(0);
+    for (int i = 1; i < rowBlocks.size(); i++) {
+      rowBlocks.get(i).release();
+    }
+    super.clear();
+    rowBlocks.clear();
+    totalUsedMem = 0;
+
+    firstRowBlock.clear();
+    rowBlocks.add(firstRowBlock);
+    currentRowBlock = firstRowBlock;
+  }
+
   /**
    * Release and reset
    */
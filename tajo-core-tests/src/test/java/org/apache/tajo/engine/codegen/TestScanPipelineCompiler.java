@@ -0,0 +1,160 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.codegen;
+
+import org.apache.tajo.LocalTajoTestingUtility;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.engine.query.QueryContext;
+import org.apache.tajo.plan.expr.*;
+import org.apache.tajo.storage.AbstractScanner;
+import org.apache.tajo.storage.Scanner;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.worker.TaskAttemptContext;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestScanPipelineCompiler {
+
+  private static final Column ID = new Column("t.id", Type.INT4);
+  private static final Column SCORE = new Column("t.score", Type.FLOAT8);
+  private static final Column NAME = new Column("t.name", Type.TEXT);
+  private static final Schema SCHEMA = new Schema(new Column[] {ID, SCORE, NAME});
+
+  private static List<Tuple> createTuples(int num) {
+    List<Tuple> tuples = new ArrayList<>();
+    for (int i = 0; i < num; i++) {
+      tuples.add(new VTuple(new Datum[] {
+          i % 11 == 0 ? NullDatum.get() : DatumFactory.createInt4(i),
+          i % 13 == 0 ? NullDatum.get() : DatumFactory.createFloat8(i % 10),
+          i % 17 == 0 ? NullDatum.get() : DatumFactory.createText("name_" + (i % 3))}));
+    }
+    return tuples;
+  }
+
+  private static Scanner createScanner(final List<Tuple> tuples) {
+    return new AbstractScanner() {
+      private final Iterator<Tuple> iterator = tuples.iterator();
+
+      @Override
+      public Tuple next() {
+        return iterator.hasNext() ? iterator.next() : null;
+      }
+    };
+  }
+
+  private static TaskAttemptContext createContext() {
+    return new TaskAttemptContext(new QueryContext(new TajoConf()), null,
+        LocalTajoTestingUtility.newTaskAttemptId(), null, null);
+  }
+
+  private static EvalNode field(Column column) {
+    return new FieldEval(column);
+  }
+
+  private static EvalNode constant(Datum datum) {
+    return new ConstEval(datum);
+  }
+
+  private static EvalNode[] bind(EvalNode... evals) {
+    for (EvalNode eval : evals) {
+      eval.bind(new EvalContext(), SCHEMA);
+    }
+    return evals;
+  }
+
+  private static List<Tuple> run(ScanPipeline pipeline, List<Tuple> tuples, int outputSize) throws Exception {
+    List<Tuple> results = new ArrayList<>();
+    long count = pipeline.run(createScanner(tuples), new VTuple(outputSize), tuple -> results.add(new VTuple(tuple)),
+        createContext());
+    assertEquals(results.size(), count);
+    return results;
+  }
+
+  @Test
+  public final void testFilterAndProjection() throws Exception {
+    // id > 100 and 5.0 >= score and name = 'name_1'
+    EvalNode[] conjuncts = bind(
+        new BinaryEval(EvalType.GTH, field(ID), constant(DatumFactory.createInt8(100))),
+        new BinaryEval(EvalType.GEQ, constant(DatumFactory.createFloat8(5.0)), field(SCORE)),
+        new BinaryEval(EvalType.EQUAL, field(NAME), constant(DatumFactory.createText("name_1"))));
+    // name, id, id + 1
+    EvalNode[] targets = bind(field(NAME), field(ID),
+        new BinaryEval(EvalType.PLUS, field(ID), constant(DatumFactory.createInt4(1))));
+
+    assertTrue(ScanPipelineCompiler.isInlinable(SCHEMA, conjuncts[0]));
+    assertTrue(ScanPipelineCompiler.isInlinable(SCHEMA, conjuncts[1]));
+    assertFalse(ScanPipelineCompiler.isInlinable(SCHEMA, conjuncts[2]));
+
+    List<Tuple> tuples = createTuples(1000);
+    List<Tuple> expected = new ArrayList<>();
+    for (Tuple tuple : tuples) {
+      boolean satisfied = true;
+      for (EvalNode conjunct : conjuncts) {
+        satisfied &= conjunct.eval(tuple).isTrue();
+      }
+      if (satisfied) {
+        Tuple projected = new VTuple(targets.length);
+        for (int i = 0; i < targets.length; i++) {
+          projected.put(i, targets[i].eval(tuple));
+        }
+        expected.add(projected);
+      }
+    }
+
+    ScanPipelineCompiler compiler = new ScanPipelineCompiler(new TajoClassLoader());
+    List<Tuple> actual = run(compiler.compile(SCHEMA, conjuncts, targets), tuples, targets.length);
+    assertFalse(expected.isEmpty());
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public final void testPassThrough() throws Exception {
+    ScanPipelineCompiler compiler = new ScanPipelineCompiler(new TajoClassLoader());
+    List<Tuple> tuples = createTuples(100);
+    assertEquals(tuples, run(compiler.compile(SCHEMA, new EvalNode[0], null), tuples, SCHEMA.size()));
+  }
+
+  @Test
+  public final void testReuseGeneratedClass() throws Exception {
+    ScanPipelineCompiler compiler = new ScanPipelineCompiler(new TajoClassLoader());
+    ScanPipeline pipeline1 = compiler.compile(SCHEMA,
+        bind(new BinaryEval(EvalType.LTH, field(ID), constant(DatumFactory.createInt4(10)))), bind(field(NAME)));
+    ScanPipeline pipeline2 = compiler.compile(SCHEMA,
+        bind(new BinaryEval(EvalType.LTH, field(ID), constant(DatumFactory.createInt4(10)))), bind(field(NAME)));
+    ScanPipeline pipeline3 = compiler.compile(SCHEMA,
+        bind(new BinaryEval(EvalType.LTH, field(ID), constant(DatumFactory.createInt4(20)))), bind(field(NAME)));
+
+    assertSame(pipeline1.getClass(), pipeline2.getClass());
+    assertNotSame(pipeline1.getClass(), pipeline3.getClass());
+    assertEquals(9, run(pipeline1, createTuples(100), 1).size());
+    assertEquals(18, run(pipeline3, createTuples(100), 1).size());
+  }
+}
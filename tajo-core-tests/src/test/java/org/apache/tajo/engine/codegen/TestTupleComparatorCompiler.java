@@ -0,0 +1,140 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.codegen;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SchemaUtil;
+import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.storage.BaseTupleComparator;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.tuple.memory.OffHeapRowBlockUtils;
+import org.apache.tajo.tuple.memory.UnSafeTuple;
+import org.apache.tajo.tuple.memory.UnSafeTupleList;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestTupleComparatorCompiler {
+
+  private static final Column ID = new Column("t.id", Type.INT4);
+  private static final Column SCORE = new Column("t.score", Type.FLOAT8);
+  private static final Column NAME = new Column("t.name", Type.TEXT);
+  private static final Column TS = new Column("t.ts", Type.INT8);
+  private static final Column DAY = new Column("t.day", Type.DATE);
+  private static final Schema SCHEMA = new Schema(new Column[] {ID, SCORE, NAME, TS, DAY});
+
+  private static List<Tuple> createTuples(int num) {
+    Random random = new Random(1);
+    List<Tuple> tuples = new ArrayList<>();
+    for (int i = 0; i < num; i++) {
+      tuples.add(new VTuple(new Datum[] {
+          i % 11 == 0 ? NullDatum.get() : DatumFactory.createInt4(random.nextInt(10) - 5),
+          i % 13 == 0 ? NullDatum.get() : DatumFactory.createFloat8(random.nextInt(5) / 2.0),
+          i % 17 == 0 ? NullDatum.get() : DatumFactory.createText("name_" + random.nextInt(4)),
+          i % 7 == 0 ? NullDatum.get() : DatumFactory.createInt8(random.nextLong() % 3),
+          i % 19 == 0 ? NullDatum.get() : DatumFactory.createDate(2457000 + random.nextInt(3))}));
+    }
+    return tuples;
+  }
+
+  private static SortSpec[] createSortSpecs() {
+    return new SortSpec[] {
+        new SortSpec(NAME, true, true),
+        new SortSpec(ID, false, false),
+        new SortSpec(SCORE, true, false),
+        new SortSpec(DAY, false, true),
+        new SortSpec(TS, true, true)};
+  }
+
+  /**
+   * The same order as ExternalSortExec.UnSafeComparator
+   */
+  private static int compare(UnSafeTuple tuple1, UnSafeTuple tuple2, SortSpec[] sortSpecs) {
+    for (SortSpec sortSpec : sortSpecs) {
+      int compare = OffHeapRowBlockUtils.compareColumn(tuple1, tuple2,
+          SCHEMA.getColumnId(sortSpec.getSortKey().getQualifiedName()), sortSpec.getSortKey().getDataType().getType(),
+          sortSpec.isAscending(), sortSpec.isNullsFirst());
+      if (compare != 0) {
+        return compare;
+      }
+    }
+    return 0;
+  }
+
+  @Test
+  public final void testUnSafeComparator() {
+    SortSpec[] sortSpecs = createSortSpecs();
+    UnSafeTupleList tuples = new UnSafeTupleList(SchemaUtil.toDataTypes(SCHEMA), 200);
+    for (Tuple tuple : createTuples(200)) {
+      tuples.addTuple(tuple);
+    }
+
+    try {
+      TupleComparatorCompiler compiler = new TupleComparatorCompiler(new TajoClassLoader());
+      GeneratedUnSafeComparator comparator = compiler.compileUnSafeComparator(SCHEMA, sortSpecs);
+      for (UnSafeTuple tuple1 : tuples) {
+        for (UnSafeTuple tuple2 : tuples) {
+          assertEquals(Integer.signum(compare(tuple1, tuple2, sortSpecs)),
+              Integer.signum(comparator.compare(tuple1, tuple2)));
+        }
+      }
+    } finally {
+      tuples.release();
+    }
+  }
+
+  @Test
+  public final void testTupleComparator() {
+    SortSpec[] sortSpecs = createSortSpecs();
+    List<Tuple> tuples = createTuples(200);
+
+    TupleComparatorCompiler compiler = new TupleComparatorCompiler(new TajoClassLoader());
+    GeneratedTupleComparator comparator = compiler.compileTupleComparator(SCHEMA, sortSpecs);
+    BaseTupleComparator expected = new BaseTupleComparator(SCHEMA, sortSpecs);
+    assertEquals(expected.getProto(), comparator.getProto());
+    assertTrue(comparator.isAscendingFirstKey());
+
+    for (Tuple tuple1 : tuples) {
+      for (Tuple tuple2 : tuples) {
+        assertEquals(Integer.signum(expected.compare(tuple1, tuple2)),
+            Integer.signum(comparator.compare(tuple1, tuple2)));
+      }
+    }
+  }
+
+  @Test
+  public final void testReuseGeneratedClass() {
+    TupleComparatorCompiler compiler = new TupleComparatorCompiler(new TajoClassLoader());
+    SortSpec[] sortSpecs = createSortSpecs();
+    assertSame(compiler.compileUnSafeComparator(SCHEMA, sortSpecs).getClass(),
+        compiler.compileUnSafeComparator(SCHEMA, createSortSpecs()).getClass());
+    assertNotSame(compiler.compileUnSafeComparator(SCHEMA, sortSpecs).getClass(),
+        compiler.compileUnSafeComparator(SCHEMA, new SortSpec[] {new SortSpec(ID)}).getClass());
+  }
+}
@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.catalog.statistics.Histogram;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.plan.util.PlannerUtil;
+import org.apache.tajo.storage.TupleRange;
+import org.apache.tajo.storage.VTuple;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestHistogramRangePartition {
+  // 75% of values are less than 30, though the maximum value is 1000
+  private static final Histogram SKEWED = new Histogram(
+      new Datum[] {int4(0), int4(10), int4(20), int4(30), int4(1000)}, new long[] {25, 25, 25, 25});
+
+  private static Datum int4(int value) {
+    return DatumFactory.createInt4(value);
+  }
+
+  private static SortSpec[] createSortSpecs(boolean ascending) {
+    SortSpec[] sortSpecs = PlannerUtil.schemaToSortSpecs(new Schema().addColumn("col1", Type.INT4));
+    if (!ascending) {
+      sortSpecs[0].setDescOrder();
+    }
+    return sortSpecs;
+  }
+
+  private static TupleRange createRange(SortSpec[] sortSpecs, int start, int end) {
+    return new TupleRange(sortSpecs, new VTuple(new Datum[] {int4(start)}), new VTuple(new Datum[] {int4(end)}));
+  }
+
+  /**
+   * It asserts that the ranges are continuous, and each range starts at the expected value.
+   */
+  private static void assertRanges(TupleRange[] ranges, int[] expectedStarts, int end) {
+    assertEquals(expectedStarts.length, ranges.length);
+    for (int i = 0; i < ranges.length; i++) {
+      assertEquals(int4(expectedStarts[i]), ranges[i].getStart().asDatum(0));
+      if (i > 0) {
+        assertEquals(ranges[i - 1].getEnd(), ranges[i].getStart());
+        assertTrue(ranges[i - 1].compareTo(ranges[i]) < 0);
+      }
+    }
+    assertEquals(int4(end), ranges[ranges.length - 1].getEnd().asDatum(0));
+  }
+
+  @Test
+  public void testPartitionAsc() {
+    SortSpec[] sortSpecs = createSortSpecs(true);
+    HistogramRangePartition partitioner =
+        new HistogramRangePartition(createRange(sortSpecs, 0, 1000), sortSpecs, SKEWED);
+
+    // divided at the quantiles rather than at 250, 500 and 750
+    assertRanges(partitioner.partition(4), new int[] {0, 10, 20, 30}, 1000);
+    assertRanges(partitioner.partition(1), new int[] {0}, 1000);
+  }
+
+  @Test
+  public void testPartitionDesc() {
+    SortSpec[] sortSpecs = createSortSpecs(false);
+    HistogramRangePartition partitioner =
+        new HistogramRangePartition(createRange(sortSpecs, 1000, 0), sortSpecs, SKEWED);
+
+    assertRanges(partitioner.partition(4), new int[] {1000, 30, 20, 10}, 0);
+  }
+
+  @Test
+  public void testPartitionNarrowedRange() {
+    SortSpec[] sortSpecs = createSortSpecs(true);
+
+    // the quantile 10 is out of the range
+    HistogramRangePartition partitioner =
+        new HistogramRangePartition(createRange(sortSpecs, 15, 1000), sortSpecs, SKEWED);
+    assertRanges(partitioner.partition(4), new int[] {15, 20, 30}, 1000);
+
+    // no quantile is within the range, so it is divided uniformly
+    partitioner = new HistogramRangePartition(createRange(sortSpecs, 11, 19), sortSpecs, SKEWED);
+    TupleRange[] ranges = partitioner.partition(4);
+    UniformRangePartition uniform = new UniformRangePartition(createRange(sortSpecs, 11, 19), sortSpecs);
+    TupleRange[] expected = uniform.partition(4);
+    assertEquals(expected.length, ranges.length);
+    for (int i = 0; i < ranges.length; i++) {
+      assertEquals(expected[i], ranges[i]);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMultipleSortKeys() {
+    Schema schema = new Schema().addColumn("col1", Type.INT4).addColumn("col2", Type.INT4);
+    SortSpec[] sortSpecs = PlannerUtil.schemaToSortSpecs(schema);
+    VTuple start = new VTuple(new Datum[] {int4(0), int4(0)});
+    VTuple end = new VTuple(new Datum[] {int4(1000), int4(1000)});
+    new HistogramRangePartition(new TupleRange(sortSpecs, start, end), sortSpecs, SKEWED);
+  }
+}
@@ -21,10 +21,13 @@ package org.apache.tajo.engine.planner;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.tajo.LocalTajoTestingUtility;
+import org.apache.tajo.SessionVars;
 import org.apache.tajo.TajoConstants;
 import org.apache.tajo.TajoTestingCluster;
 import org.apache.tajo.algebra.Expr;
+import org.apache.tajo.algebra.JoinType;
 import org.apache.tajo.catalog.*;
+import org.apache.tajo.catalog.statistics.ColumnStats;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.common.TajoDataTypes.Type;
 import org.apache.tajo.engine.function.FunctionLoader;
@@ -123,6 +126,13 @@ public class TestJoinOrderAlgorithm {
     }
     ///////////////////////////////////////////////////////////////////////////
 
+    ///////////////////////////////////////////////////////////////////////////
+    // creating tables for a star join
+    createStarTable(fs, "fact", 1000000, "k1", "k2", "v");
+    createStarTable(fs, "dim1", 1000, "k", "name");
+    createStarTable(fs, "dim2", 1000, "k", "name");
+    ///////////////////////////////////////////////////////////////////////////
+
     sqlAnalyzer = new SQLAnalyzer();
     planner = new LogicalPlanner(catalog, TablespaceManager.getInstance());
     optimizer = new LogicalOptimizer(util.getConfiguration(), catalog, TablespaceManager.getInstance());
@@ -130,6 +140,29 @@ public class TestJoinOrderAlgorithm {
     defaultContext = LocalTajoTestingUtility.createDummyContext(util.getConfiguration());
   }
 
+  private static void createStarTable(FileSystem fs, String name, long numRows, String... columns)
+      throws Exception {
+    Schema schema = new Schema();
+    for (String column : columns) {
+      schema.addColumn(column, column.equals("name") ? Type.TEXT : Type.INT4);
+    }
+    Path tablePath = new Path(CommonTestingUtil.getTestDir(), name);
+    fs.create(tablePath);
+    TableDesc desc = new TableDesc(CatalogUtil.buildFQName(DEFAULT_DATABASE_NAME, name), schema,
+        CatalogUtil.newTableMeta("FAKEFILE"), tablePath.toUri());
+    TableStats stats = new TableStats();
+    stats.setNumRows(numRows);
+    stats.setNumBytes(numRows * 10);
+    desc.setStats(stats);
+    catalog.createTable(desc);
+  }
+
+  private static ColumnStats createColumnStats(String name, long numDistVals) {
+    ColumnStats stats = new ColumnStats(new Column(name, Type.INT4));
+    stats.setNumDistVals(numDistVals);
+    return stats;
+  }
+
   @AfterClass
   public static void tearDown() throws Exception {
     util.shutdownCatalogCluster();
@@ -165,6 +198,56 @@ public class TestJoinOrderAlgorithm {
 
   }
 
+  @Test
+  public final void testDynamicProgrammingWithColumnStats() throws Exception {
+    String query = "select f.v, d1.name, d2.name from fact f, dim1 d1, dim2 d2 where f.k1 = d1.k and f.k2 = d2.k";
+
+    Expr expr = sqlAnalyzer.parse(query);
+    LogicalPlan newPlan = planner.createPlan(defaultContext, expr);
+
+    // Column stats are given to the plan directly because the catalog does not keep them.
+    // Every fact row matches dim1, but only 1% of fact rows match dim2.
+    for (LogicalNode node : PlannerUtil.findAllNodes(newPlan.getRootBlock().getRoot(), NodeType.SCAN)) {
+      ScanNode scan = (ScanNode) node;
+      TableStats stats = scan.getTableDesc().getStats();
+      if (scan.getCanonicalName().equals("default.f")) {
+        stats.addColumnStat(createColumnStats("k1", 1000));
+        stats.addColumnStat(createColumnStats("k2", 100000));
+      } else {
+        stats.addColumnStat(createColumnStats("k", 1000));
+      }
+    }
+
+    QueryContext context = LocalTajoTestingUtility.createDummyContext(util.getConfiguration());
+    context.put(SessionVars.JOIN_ORDER_ALGORITHM, "dp");
+    optimizer.optimize(context, newPlan);
+
+    // the more selective join with dim2 should be performed first
+    LogicalNode[] joinNodes = PlannerUtil.findAllNodes(newPlan.getRootBlock().getRoot(), NodeType.JOIN);
+    assertEquals(2, joinNodes.length);
+    assertJoinNode(joinNodes[0], "default.f", "default.d2");
+    assertJoinNode(joinNodes[1], null, "default.d1");
+  }
+
+  @Test
+  public final void testDynamicProgrammingForCrossJoins() throws Exception {
+    String query = "select a.deptname from large_dept1 a, large_dept2 b, large_dept3 c, " +
+        "large_dept4 d, large_dept5 e, large_dept6 f ";
+
+    Expr expr = sqlAnalyzer.parse(query);
+    LogicalPlan newPlan = planner.createPlan(defaultContext, expr);
+
+    QueryContext context = LocalTajoTestingUtility.createDummyContext(util.getConfiguration());
+    context.put(SessionVars.JOIN_ORDER_ALGORITHM, "dp");
+    optimizer.optimize(context, newPlan);
+
+    LogicalNode[] joinNodes = PlannerUtil.findAllNodes(newPlan.getRootBlock().getRoot(), NodeType.JOIN);
+    assertEquals(5, joinNodes.length);
+    for (LogicalNode joinNode : joinNodes) {
+      assertEquals(JoinType.CROSS, ((JoinNode) joinNode).getJoinType());
+    }
+  }
+
   private void assertJoinNode(LogicalNode node, String left, String right) {
     assertEquals(NodeType.JOIN, node.getType());
     JoinNode joinNode = (JoinNode)node;
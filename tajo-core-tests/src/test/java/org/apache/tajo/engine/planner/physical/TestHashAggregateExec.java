@@ -0,0 +1,202 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.LocalTajoTestingUtility;
+import org.apache.tajo.SessionVars;
+import org.apache.tajo.TajoConstants;
+import org.apache.tajo.TajoTestingCluster;
+import org.apache.tajo.algebra.Expr;
+import org.apache.tajo.catalog.*;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.engine.planner.PhysicalPlanner;
+import org.apache.tajo.engine.planner.PhysicalPlannerImpl;
+import org.apache.tajo.engine.planner.enforce.Enforcer;
+import org.apache.tajo.engine.query.QueryContext;
+import org.apache.tajo.parser.sql.SQLAnalyzer;
+import org.apache.tajo.plan.LogicalPlan;
+import org.apache.tajo.plan.LogicalPlanner;
+import org.apache.tajo.plan.logical.GroupbyNode;
+import org.apache.tajo.plan.logical.LogicalNode;
+import org.apache.tajo.plan.logical.NodeType;
+import org.apache.tajo.plan.util.PlannerUtil;
+import org.apache.tajo.storage.*;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.apache.tajo.worker.TaskAttemptContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.apache.tajo.TajoConstants.DEFAULT_TABLESPACE_NAME;
+import static org.junit.Assert.*;
+
+public class TestHashAggregateExec {
+  private TajoConf conf;
+  private TajoTestingCluster util;
+  private final String TEST_PATH = TajoTestingCluster.DEFAULT_TEST_DIRECTORY + "/TestHashAggregateExec";
+  private CatalogService catalog;
+  private SQLAnalyzer analyzer;
+  private LogicalPlanner planner;
+  private Path testDir;
+
+  // each group has two rows, and groups do not fit in 1MB
+  private final int numGroup = 100000;
+  private final int numTuple = numGroup * 2;
+
+  private TableDesc employee;
+  // the sum of empid for each managerid
+  private Map<Integer, Long> expectedSums;
+
+  @Before
+  public void setUp() throws Exception {
+    this.conf = new TajoConf();
+    util = new TajoTestingCluster();
+    util.startCatalogCluster();
+    catalog = util.getCatalogService();
+    testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+    catalog.createTablespace(DEFAULT_TABLESPACE_NAME, testDir.toUri().toString());
+    catalog.createDatabase(TajoConstants.DEFAULT_DATABASE_NAME, DEFAULT_TABLESPACE_NAME);
+    conf.setVar(TajoConf.ConfVars.WORKER_TEMPORAL_DIR, testDir.toString());
+
+    Schema schema = new Schema();
+    schema.addColumn("managerid", Type.INT4);
+    schema.addColumn("empid", Type.INT4);
+    schema.addColumn("deptname", Type.TEXT);
+
+    TableMeta employeeMeta = CatalogUtil.newTableMeta("TEXT");
+    Path employeePath = new Path(testDir, "employee.csv");
+    Appender appender = ((FileTablespace) TablespaceManager.getLocalFs())
+        .getAppender(employeeMeta, schema, employeePath);
+    appender.enableStats();
+    appender.init();
+    expectedSums = new HashMap<>();
+    VTuple tuple = new VTuple(schema.size());
+    for (int i = 0; i < numTuple; i++) {
+      // scatter groups so that rows of a group are far from each other
+      int managerId = (int) ((i * 7919L) % numGroup);
+      tuple.put(new Datum[] {
+          DatumFactory.createInt4(managerId),
+          DatumFactory.createInt4(i),
+          DatumFactory.createText("dept_" + managerId),
+      });
+      appender.addTuple(tuple);
+      expectedSums.merge(managerId, (long) i, Long::sum);
+    }
+    appender.flush();
+    appender.close();
+
+    employee = new TableDesc("default.employee", schema, employeeMeta, employeePath.toUri());
+    catalog.createTable(employee);
+    analyzer = new SQLAnalyzer();
+    planner = new LogicalPlanner(catalog, TablespaceManager.getInstance());
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    CommonTestingUtil.cleanupTestDir(TEST_PATH);
+    util.shutdownCatalogCluster();
+  }
+
+  private PhysicalExec createPlan(QueryContext queryContext, String query) throws Exception {
+    FileFragment[] frags = FileTablespace.splitNG(conf, "default.employee", employee.getMeta(),
+        new Path(employee.getUri()), Integer.MAX_VALUE);
+    Path workDir = new Path(testDir, TestHashAggregateExec.class.getName());
+    TaskAttemptContext ctx = new TaskAttemptContext(queryContext,
+        LocalTajoTestingUtility.newTaskAttemptId(), new FileFragment[] { frags[0] }, workDir);
+    Expr expr = analyzer.parse(query);
+    LogicalPlan plan = planner.createPlan(LocalTajoTestingUtility.createDummyContext(conf), expr);
+    LogicalNode rootNode = plan.getRootBlock().getRoot();
+
+    Enforcer enforcer = new Enforcer();
+    GroupbyNode groupbyNode = PlannerUtil.findTopNode(rootNode, NodeType.GROUP_BY);
+    enforcer.enforceHashAggregation(groupbyNode.getPID());
+    ctx.setEnforcer(enforcer);
+
+    PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(conf);
+    return phyPlanner.createPlan(ctx, rootNode);
+  }
+
+  private void assertGroups(PhysicalExec exec, boolean textKey) throws Exception {
+    Map<Integer, Long> actualSums = new HashMap<>();
+    Tuple tuple;
+    while ((tuple = exec.next()) != null) {
+      int managerId = textKey ? Integer.parseInt(tuple.getText(0).substring("dept_".length())) : tuple.getInt4(0);
+      assertEquals(2, tuple.getInt8(1));
+      assertNull("duplicated group " + managerId, actualSums.put(managerId, tuple.getInt8(2)));
+    }
+    assertEquals(expectedSums, actualSums);
+  }
+
+  private void testSpill(QueryContext queryContext, String query, boolean textKey) throws Exception {
+    queryContext.setLong(SessionVars.HASH_GROUPBY_MEMORY_LIMIT, 1);
+    PhysicalExec exec = createPlan(queryContext, query);
+    HashAggregateExec aggregation = PhysicalPlanUtil.findExecutor(exec, HashAggregateExec.class);
+    assertNotNull(aggregation);
+
+    exec.init();
+    assertGroups(exec, textKey);
+    assertTrue(aggregation.isSpilled());
+
+    // for rescan test
+    exec.rescan();
+    assertGroups(exec, textKey);
+    assertTrue(aggregation.isSpilled());
+    exec.close();
+  }
+
+  @Test
+  public final void testSpillGenericKeys() throws Exception {
+    testSpill(LocalTajoTestingUtility.createDummyContext(conf),
+        "select deptname, count(*), sum(empid) from employee group by deptname", true);
+  }
+
+  @Test
+  public final void testSpillPrimitiveKeys() throws Exception {
+    testSpill(LocalTajoTestingUtility.createDummyContext(conf),
+        "select managerid, count(*), sum(empid) from employee group by managerid", false);
+  }
+
+  @Test
+  public final void testSpillPrimitiveKeysInBatches() throws Exception {
+    QueryContext queryContext = LocalTajoTestingUtility.createDummyContext(conf);
+    queryContext.setBool(SessionVars.VECTORIZED_EXECUTION, true);
+    testSpill(queryContext, "select managerid, count(*), sum(empid) from employee group by managerid", false);
+  }
+
+  @Test
+  public final void testNoSpill() throws Exception {
+    PhysicalExec exec = createPlan(LocalTajoTestingUtility.createDummyContext(conf),
+        "select managerid, count(*), sum(empid) from employee group by managerid");
+    HashAggregateExec aggregation = PhysicalPlanUtil.findExecutor(exec, HashAggregateExec.class);
+    assertNotNull(aggregation);
+
+    exec.init();
+    assertGroups(exec, false);
+    assertFalse(aggregation.isSpilled());
+    exec.close();
+  }
+}
@@ -187,6 +187,62 @@ public class TestHashJoinExec {
     assertEquals(10 / 2, count);
   }
 
+  @Test
+  public final void testHybridHashInnerJoin() throws IOException, TajoException {
+
+    Expr expr = analyzer.parse(QUERIES[0]);
+    LogicalNode plan = planner.createPlan(defaultContext, expr).getRootBlock().getRoot();
+
+    JoinNode joinNode = PlannerUtil.findTopNode(plan, NodeType.JOIN);
+    Enforcer enforcer = new Enforcer();
+    enforcer.enforceJoinAlgorithm(joinNode.getPID(), JoinAlgorithm.HYBRID_HASH_JOIN);
+
+    FileFragment[] empFrags = FileTablespace.splitNG(conf, "default.e", employee.getMeta(),
+        new Path(employee.getUri()), Integer.MAX_VALUE);
+    FileFragment[] peopleFrags = FileTablespace.splitNG(conf, "default.p", people.getMeta(),
+        new Path(people.getUri()), Integer.MAX_VALUE);
+    FileFragment[] merged = TUtil.concat(empFrags, peopleFrags);
+
+    Path workDir = CommonTestingUtil.getTestDir(TajoTestingCluster.DEFAULT_TEST_DIRECTORY + "/testHybridHashInnerJoin");
+    TaskAttemptContext ctx = new TaskAttemptContext(new QueryContext(conf),
+        LocalTajoTestingUtility.newTaskAttemptId(), merged, workDir);
+    ctx.setEnforcer(enforcer);
+
+    PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(conf);
+    PhysicalExec exec = phyPlanner.createPlan(ctx, plan);
+
+    ProjectionExec proj = (ProjectionExec) exec;
+    assertTrue(proj.getChild() instanceof HybridHashJoinExec);
+    // every build partition is spilled until the last level
+    HybridHashJoinExec joinExec = proj.getChild();
+    joinExec.setMemoryLimit(1);
+
+    Tuple tuple;
+    boolean[] found = new boolean[10];
+    exec.init();
+    while ((tuple = exec.next()) != null) {
+      int i = tuple.getInt4(0);
+      assertEquals(1, i % 2);
+      assertFalse(found[i]);
+      found[i] = true;
+      assertEquals(i, tuple.getInt4(1));
+      assertEquals("dept_" + i, tuple.getText(2));
+      assertEquals(10 + i, tuple.getInt4(3));
+    }
+
+    // the result of rescan is the same
+    exec.rescan();
+    int count = 0;
+    while (exec.next() != null) {
+      count++;
+    }
+    exec.close();
+    assertEquals(10 / 2, count);
+    for (int i = 1; i < 10; i += 2) {
+      assertTrue(found[i]);
+    }
+  }
+
   @Test
   public final void testCheckIfInMemoryInnerJoinIsPossible() throws IOException, TajoException {
     Expr expr = analyzer.parse(QUERIES[0]);
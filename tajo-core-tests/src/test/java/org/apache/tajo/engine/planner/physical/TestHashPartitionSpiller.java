@@ -0,0 +1,60 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestHashPartitionSpiller {
+
+  @Test
+  public final void testGetPartition() {
+    final int hashes = 1 << 16;
+    int[] counts = new int[HashPartitionSpiller.PARTITION_NUM];
+    for (int i = 0; i < hashes; i++) {
+      int partition = HashPartitionSpiller.getPartition(i, 0);
+      assertTrue(partition >= 0 && partition < HashPartitionSpiller.PARTITION_NUM);
+      counts[partition]++;
+    }
+    // sequential hash values should be distributed to all partitions
+    for (int count : counts) {
+      assertTrue(count > hashes / HashPartitionSpiller.PARTITION_NUM / 2);
+    }
+  }
+
+  @Test
+  public final void testRepartition() {
+    // hash values in the same partition at a level are divided into different partitions at the next level
+    for (int level = 0; level < HashPartitionSpiller.MAX_LEVEL; level++) {
+      boolean[] used = new boolean[HashPartitionSpiller.PARTITION_NUM];
+      int usedNum = 0;
+      for (int i = 0; i < 1 << 16; i++) {
+        if (HashPartitionSpiller.getPartition(i, level) == 0) {
+          int partition = HashPartitionSpiller.getPartition(i, level + 1);
+          if (!used[partition]) {
+            used[partition] = true;
+            usedNum++;
+          }
+        }
+      }
+      assertTrue("level " + level, usedNum > 1);
+    }
+  }
+}
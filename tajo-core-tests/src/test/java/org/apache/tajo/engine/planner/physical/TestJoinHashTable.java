@@ -0,0 +1,182 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import com.google.common.collect.Lists;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.tuple.memory.UnSafeTuple;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class TestJoinHashTable {
+
+  private static final Column ID = new Column("id", Type.INT4);
+  private static final Column NAME = new Column("name", Type.TEXT);
+  private static final Schema SCHEMA = new Schema(new Column[] {ID, NAME});
+
+  private static Tuple row(int id, String name) {
+    return new VTuple(new Datum[] {
+        DatumFactory.createInt4(id), DatumFactory.createText(name)});
+  }
+
+  private static KeyTuple key(int id) {
+    return new KeyTuple(new Datum[] {DatumFactory.createInt4(id)});
+  }
+
+  private static int count(Iterable<Tuple> tuples) {
+    int count = 0;
+    if (tuples != null) {
+      for (Tuple ignored : tuples) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Test
+  public final void testFindWithRehash() {
+    // a small initial capacity forces many rehashes and page allocations
+    JoinHashTable table = new JoinHashTable(SCHEMA, new Column[] {ID}, 4, 4096);
+    try {
+      final int rows = 100000;
+      for (int i = 0; i < rows; i++) {
+        table.add(row(i % 1000, "name_" + i));
+      }
+
+      assertEquals(rows, table.size());
+      assertEquals(1000, table.keyNum());
+
+      for (int i = 0; i < 1000; i++) {
+        Iterable<Tuple> matched = table.get(key(i));
+        assertEquals(rows / 1000, count(matched));
+
+        // rows are returned in insertion order
+        int expected = i;
+        for (Tuple tuple : matched) {
+          assertEquals(i, tuple.getInt4(0));
+          assertEquals("name_" + expected, tuple.getText(1));
+          expected += 1000;
+        }
+      }
+
+      assertNull(table.get(key(1000)));
+      assertEquals(-1, table.find(key(-1)));
+    } finally {
+      table.release();
+    }
+  }
+
+  @Test
+  public final void testConcurrentProbes() throws Exception {
+    // a broadcast table is probed by several tasks at the same time
+    final JoinHashTable table = new JoinHashTable(SCHEMA, new Column[] {ID}, 16, 4096);
+    final int keys = 1000;
+    final int rowsPerKey = 3;
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      for (int i = 0; i < keys * rowsPerKey; i++) {
+        table.add(row(i % keys, "name_" + i));
+      }
+
+      List<Future<Integer>> futures = Lists.newArrayList();
+      for (int t = 0; t < 8; t++) {
+        final int seed = t;
+        futures.add(executor.submit(new Callable<Integer>() {
+          @Override
+          public Integer call() throws Exception {
+            UnSafeTuple probeRow = new UnSafeTuple();
+            int matched = 0;
+            for (int round = 0; round < 50; round++) {
+              for (int i = 0; i < keys; i++) {
+                int id = (i * 7 + seed) % keys;
+                Iterable<Tuple> rows = table.get(key(id), probeRow);
+                assertNotNull(rows);
+                for (Tuple tuple : rows) {
+                  assertEquals(id, tuple.getInt4(0));
+                  matched++;
+                }
+                assertEquals(-1, table.find(key(keys + id), probeRow));
+              }
+            }
+            return matched;
+          }
+        }));
+      }
+
+      for (Future<Integer> future : futures) {
+        assertEquals(50 * keys * rowsPerKey, future.get().intValue());
+      }
+    } finally {
+      executor.shutdownNow();
+      table.release();
+    }
+  }
+
+  @Test
+  public final void testNullKey() {
+    JoinHashTable table = new JoinHashTable(SCHEMA, new Column[] {ID}, 16);
+    try {
+      table.add(new VTuple(new Datum[] {NullDatum.get(), DatumFactory.createText("a")}));
+      table.add(row(1, "b"));
+
+      assertEquals(1, count(table.get(new KeyTuple(new Datum[] {NullDatum.get()}))));
+      assertEquals(1, count(table.get(key(1))));
+    } finally {
+      table.release();
+    }
+  }
+
+  @Test
+  public final void testEmptyKey() {
+    JoinHashTable table = new JoinHashTable(SCHEMA, new Column[0], 1);
+    try {
+      assertNull(table.get(null));
+      for (int i = 0; i < 10; i++) {
+        table.add(row(i, "name_" + i));
+      }
+      assertEquals(1, table.keyNum());
+      assertEquals(10, count(table.get(null)));
+
+      int occupied = 0;
+      for (int slot = 0; slot < table.capacity(); slot++) {
+        if (table.isOccupied(slot)) {
+          occupied++;
+          assertEquals(10, count(table.rows(slot)));
+        }
+      }
+      assertEquals(1, occupied);
+    } finally {
+      table.release();
+    }
+  }
+}
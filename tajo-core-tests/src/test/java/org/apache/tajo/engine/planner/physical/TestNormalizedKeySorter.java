@@ -0,0 +1,124 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SchemaUtil;
+import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.tuple.memory.UnSafeTuple;
+import org.apache.tajo.tuple.memory.UnSafeTupleList;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestNormalizedKeySorter {
+
+  private static final Column ID = new Column("t.id", Type.INT4);
+  private static final Column SCORE = new Column("t.score", Type.FLOAT8);
+  private static final Column NAME = new Column("t.name", Type.TEXT);
+  private static final Column TS = new Column("t.ts", Type.INT8);
+  private static final Schema SCHEMA = new Schema(new Column[] {ID, SCORE, NAME, TS});
+
+  private static UnSafeTupleList createTuples(int num) {
+    Random random = new Random(1);
+    UnSafeTupleList tuples = new UnSafeTupleList(SchemaUtil.toDataTypes(SCHEMA), num);
+    for (int i = 0; i < num; i++) {
+      tuples.addTuple(new VTuple(new Datum[] {
+          i % 11 == 0 ? NullDatum.get() : DatumFactory.createInt4(random.nextInt(100) - 50),
+          i % 13 == 0 ? NullDatum.get() : DatumFactory.createFloat8((random.nextInt(20) - 10) / 4.0),
+          // long texts sharing prefixes, and short texts
+          i % 17 == 0 ? NullDatum.get() : DatumFactory.createText(
+              i % 2 == 0 ? "common_prefix_" + random.nextInt(10) : "n" + random.nextInt(10)),
+          i % 7 == 0 ? NullDatum.get() : DatumFactory.createInt8(random.nextLong())}));
+    }
+    return tuples;
+  }
+
+  private static List<Tuple> toHeapTuples(List<UnSafeTuple> tuples) {
+    List<Tuple> heapTuples = new ArrayList<>();
+    for (UnSafeTuple tuple : tuples) {
+      heapTuples.add(new VTuple(tuple.getValues()));
+    }
+    return heapTuples;
+  }
+
+  private static void assertSort(SortSpec... sortSpecs) {
+    assertTrue(NormalizedKeySorter.isApplicable(sortSpecs));
+    ExternalSortExec.UnSafeComparator comparator = new ExternalSortExec.UnSafeComparator(SCHEMA, sortSpecs);
+
+    UnSafeTupleList tuples = createTuples(2000);
+    try {
+      List<UnSafeTuple> expected = new ArrayList<>(tuples);
+      Collections.sort(expected, comparator);
+
+      NormalizedKeySorter sorter = new NormalizedKeySorter(SCHEMA, sortSpecs);
+      sorter.sort(tuples, comparator);
+      assertEquals(toHeapTuples(expected), toHeapTuples(tuples));
+
+      // buffers are reused for a smaller input
+      List<UnSafeTuple> subList = new ArrayList<>(expected.subList(0, 100));
+      Collections.reverse(subList);
+      sorter.sort(subList, comparator);
+      assertEquals(toHeapTuples(expected.subList(0, 100)), toHeapTuples(subList));
+    } finally {
+      tuples.release();
+    }
+  }
+
+  @Test
+  public final void testIntegralKeys() {
+    assertSort(new SortSpec(ID, true, true), new SortSpec(TS, true, false));
+    assertSort(new SortSpec(ID, false, false), new SortSpec(NAME, true, true));
+    assertSort(new SortSpec(TS, false, true));
+  }
+
+  @Test
+  public final void testFloatKeys() {
+    assertSort(new SortSpec(SCORE, true, false), new SortSpec(ID, true, true));
+    assertSort(new SortSpec(SCORE, false, true), new SortSpec(TS, false, false));
+  }
+
+  @Test
+  public final void testTextKeys() {
+    assertSort(new SortSpec(NAME, true, true), new SortSpec(TS, true, true));
+    assertSort(new SortSpec(NAME, false, false), new SortSpec(ID, false, true));
+  }
+
+  @Test
+  public final void testNormalizeDouble() {
+    double[] values = new double[] {Double.NEGATIVE_INFINITY, -1.5, -0.0, 0.0, Double.MIN_VALUE, 2.5,
+        Double.POSITIVE_INFINITY, Double.NaN};
+    for (int i = 1; i < values.length; i++) {
+      assertTrue(Long.compareUnsigned(NormalizedKeySorter.normalizeDouble(values[i - 1]),
+          NormalizedKeySorter.normalizeDouble(values[i])) < 0);
+    }
+  }
+}
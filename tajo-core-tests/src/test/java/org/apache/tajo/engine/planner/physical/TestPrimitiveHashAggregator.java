@@ -0,0 +1,223 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import com.google.common.collect.Lists;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.FunctionDesc;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.proto.CatalogProtos.FunctionType;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.engine.function.builtin.AvgLong;
+import org.apache.tajo.engine.function.builtin.CountRows;
+import org.apache.tajo.engine.function.builtin.MaxInt;
+import org.apache.tajo.engine.function.builtin.SumInt;
+import org.apache.tajo.function.Function;
+import org.apache.tajo.plan.expr.AggregationFunctionCallEval;
+import org.apache.tajo.plan.expr.EvalNode;
+import org.apache.tajo.plan.expr.FieldEval;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TestPrimitiveHashAggregator {
+
+  private static final Column KEY1 = new Column("key1", Type.INT4);
+  private static final Column KEY2 = new Column("key2", Type.DATE);
+  private static final Column VAL = new Column("val", Type.INT4);
+  private static final Column NAME = new Column("name", Type.TEXT);
+  private static final Schema SCHEMA = new Schema(new Column[] {KEY1, KEY2, VAL, NAME});
+
+  private static AggregationFunctionCallEval aggFunction(String name, Class<? extends Function> clazz,
+                                                         Type returnType, Column... args) {
+    DataType[] paramTypes = new DataType[args.length];
+    EvalNode[] argEvals = new EvalNode[args.length];
+    for (int i = 0; i < args.length; i++) {
+      paramTypes[i] = args[i].getDataType();
+      argEvals[i] = new FieldEval(args[i]);
+    }
+    FunctionDesc desc = new FunctionDesc(name, clazz, FunctionType.AGGREGATION,
+        CatalogUtil.newSimpleDataType(returnType), paramTypes);
+    return new AggregationFunctionCallEval(desc, argEvals);
+  }
+
+  @Test
+  public final void testIsApplicable() {
+    List<AggregationFunctionCallEval> funcs = Lists.newArrayList(
+        aggFunction("count", CountRows.class, Type.INT8),
+        aggFunction("sum", SumInt.class, Type.INT8, VAL),
+        aggFunction("max", MaxInt.class, Type.INT4, VAL));
+
+    assertTrue(PrimitiveHashAggregator.isApplicable(SCHEMA, new Column[] {KEY1}, funcs));
+    assertTrue(PrimitiveHashAggregator.isApplicable(SCHEMA, new Column[] {KEY1, KEY2}, funcs));
+
+    // no grouping key, too many keys, and non-primitive keys
+    assertFalse(PrimitiveHashAggregator.isApplicable(SCHEMA, new Column[0], funcs));
+    assertFalse(PrimitiveHashAggregator.isApplicable(SCHEMA, new Column[] {KEY1, KEY2, VAL}, funcs));
+    assertFalse(PrimitiveHashAggregator.isApplicable(SCHEMA, new Column[] {NAME}, funcs));
+
+    // not specialized function
+    funcs.add(aggFunction("avg", AvgLong.class, Type.FLOAT8, VAL));
+    assertFalse(PrimitiveHashAggregator.isApplicable(SCHEMA, new Column[] {KEY1}, funcs));
+  }
+
+  @Test
+  public final void testAggregate() {
+    List<AggregationFunctionCallEval> funcs = Lists.newArrayList(
+        aggFunction("count", CountRows.class, Type.INT8),
+        aggFunction("sum", SumInt.class, Type.INT8, VAL),
+        aggFunction("max", MaxInt.class, Type.INT4, VAL));
+    PrimitiveHashAggregator aggregator = new PrimitiveHashAggregator(SCHEMA, new Column[] {KEY1, KEY2}, funcs, 4);
+
+    final int rows = 10000;
+    for (int i = 0; i < rows; i++) {
+      Datum key1 = i % 10 == 0 ? NullDatum.get() : DatumFactory.createInt4(i % 7 - 3);
+      Datum val = i % 3 == 0 ? NullDatum.get() : DatumFactory.createInt4(i);
+      aggregator.add(new VTuple(new Datum[] {key1, DatumFactory.createDate(i % 2), val,
+          DatumFactory.createText("name_" + i)}));
+    }
+
+    // expected results
+    Map<String, long[]> expected = new HashMap<>();
+    for (int i = 0; i < rows; i++) {
+      String key = (i % 10 == 0 ? "NULL" : String.valueOf(i % 7 - 3)) + "," + (i % 2);
+      long[] result = expected.get(key);
+      if (result == null) {
+        expected.put(key, result = new long[] {0, 0, Long.MIN_VALUE});
+      }
+      result[0]++;
+      if (i % 3 != 0) {
+        result[1] += i;
+        result[2] = Math.max(result[2], i);
+      }
+    }
+
+    assertEquals(expected.size(), aggregator.size());
+    Tuple output = new VTuple(5);
+    for (int groupId = 0; groupId < aggregator.size(); groupId++) {
+      aggregator.fill(groupId, output);
+      String key = (output.isBlankOrNull(0) ? "NULL" : String.valueOf(output.getInt4(0))) + "," + output.getInt4(1);
+      assertEquals(Type.DATE, output.type(1));
+
+      long[] result = expected.get(key);
+      assertNotNull(key, result);
+      assertEquals(result[0], output.getInt8(2));
+      assertEquals(result[1], output.getInt8(3));
+      assertEquals(Type.INT4, output.type(4));
+      assertEquals(result[2], output.getInt4(4));
+    }
+  }
+
+  @Test
+  public final void testAggregateBatch() {
+    List<AggregationFunctionCallEval> funcs = Lists.newArrayList(
+        aggFunction("count", CountRows.class, Type.INT8),
+        aggFunction("sum", SumInt.class, Type.INT8, VAL),
+        aggFunction("max", MaxInt.class, Type.INT4, VAL));
+    PrimitiveHashAggregator rowAggregator = new PrimitiveHashAggregator(SCHEMA, new Column[] {KEY1, KEY2}, funcs, 4);
+    PrimitiveHashAggregator batchAggregator = new PrimitiveHashAggregator(SCHEMA, new Column[] {KEY1, KEY2}, funcs, 4);
+
+    VectorizedRowBatch batch = new VectorizedRowBatch(SCHEMA, 100);
+    for (int i = 0; i < 10000; i++) {
+      Datum key1 = i % 10 == 0 ? NullDatum.get() : DatumFactory.createInt4(i % 7 - 3);
+      Datum val = i % 3 == 0 ? NullDatum.get() : DatumFactory.createInt4(i);
+      Tuple tuple = new VTuple(new Datum[] {key1, DatumFactory.createDate(i % 2), val,
+          DatumFactory.createText("name_" + i)});
+
+      rowAggregator.add(tuple);
+      batch.addTuple(tuple);
+      if (batch.isFull()) {
+        batchAggregator.add(batch);
+        batch.reset();
+      }
+    }
+
+    // rows of a batch can be selected partially
+    batch.reset();
+    for (int i = 0; i < 10; i++) {
+      batch.addTuple(new VTuple(new Datum[] {DatumFactory.createInt4(100 + i), DatumFactory.createDate(0),
+          DatumFactory.createInt4(i), NullDatum.get()}));
+    }
+    batch.getSelected()[0] = 3;
+    batch.getSelected()[1] = 5;
+    batch.setSize(2);
+    batch.setSelectedInUse(true);
+    batchAggregator.add(batch);
+    rowAggregator.add(new VTuple(new Datum[] {DatumFactory.createInt4(103), DatumFactory.createDate(0),
+        DatumFactory.createInt4(3), NullDatum.get()}));
+    rowAggregator.add(new VTuple(new Datum[] {DatumFactory.createInt4(105), DatumFactory.createDate(0),
+        DatumFactory.createInt4(5), NullDatum.get()}));
+
+    // both aggregators create groups in the same order
+    assertEquals(rowAggregator.size(), batchAggregator.size());
+    Tuple expected = new VTuple(5);
+    Tuple actual = new VTuple(5);
+    for (int groupId = 0; groupId < rowAggregator.size(); groupId++) {
+      rowAggregator.fill(groupId, expected);
+      batchAggregator.fill(groupId, actual);
+      assertEquals(expected, actual);
+    }
+  }
+
+  @Test
+  public final void testAddIfPresent() {
+    List<AggregationFunctionCallEval> funcs = Lists.newArrayList(aggFunction("count", CountRows.class, Type.INT8));
+    PrimitiveHashAggregator aggregator = new PrimitiveHashAggregator(SCHEMA, new Column[] {KEY1}, funcs, 4);
+    long initialBytes = aggregator.estimateBytes();
+
+    Tuple tuple = new VTuple(new Datum[] {DatumFactory.createInt4(1), DatumFactory.createDate(0),
+        DatumFactory.createInt4(1), NullDatum.get()});
+    assertFalse(aggregator.addIfPresent(tuple));
+    assertEquals(0, aggregator.size());
+    aggregator.add(tuple);
+    assertTrue(aggregator.addIfPresent(tuple));
+
+    // a null key is another group
+    Tuple nullKey = new VTuple(new Datum[] {NullDatum.get(), DatumFactory.createDate(0),
+        DatumFactory.createInt4(1), NullDatum.get()});
+    assertFalse(aggregator.addIfPresent(nullKey));
+    aggregator.add(nullKey);
+    assertTrue(aggregator.addIfPresent(nullKey));
+
+    Tuple output = new VTuple(2);
+    aggregator.fill(0, output);
+    assertEquals(2, output.getInt8(1));
+    aggregator.fill(1, output);
+    assertEquals(2, output.getInt8(1));
+    assertEquals(2, aggregator.size());
+
+    for (int i = 0; i < 1000; i++) {
+      aggregator.add(new VTuple(new Datum[] {DatumFactory.createInt4(i + 2), DatumFactory.createDate(0),
+          DatumFactory.createInt4(1), NullDatum.get()}));
+    }
+    assertTrue(aggregator.estimateBytes() > initialBytes);
+  }
+}
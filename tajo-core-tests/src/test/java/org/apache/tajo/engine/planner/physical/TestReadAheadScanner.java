@@ -0,0 +1,197 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.storage.AbstractScanner;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class TestReadAheadScanner {
+
+  private static final Schema SCHEMA = new Schema(new Column[] {
+      new Column("t.id", Type.INT4), new Column("t.name", Type.TEXT)});
+  private static final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @AfterClass
+  public static void tearDown() {
+    executor.shutdown();
+  }
+
+  /**
+   * It returns tuples of a list, and it fails after failAt tuples if failAt is not negative.
+   */
+  private static class ListScanner extends AbstractScanner {
+    private final List<Tuple> tuples;
+    private final int failAt;
+    private int idx;
+    private boolean closed;
+
+    ListScanner(List<Tuple> tuples, int failAt) {
+      this.tuples = tuples;
+      this.failAt = failAt;
+    }
+
+    @Override
+    public Tuple next() throws IOException {
+      if (idx == failAt) {
+        throw new IOException("failed at " + idx);
+      }
+      return idx < tuples.size() ? tuples.get(idx++) : null;
+    }
+
+    @Override
+    public void reset() throws IOException {
+      idx = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+      closed = true;
+    }
+
+    @Override
+    public Schema getSchema() {
+      return SCHEMA;
+    }
+  }
+
+  private static List<Tuple> createTuples(int num) {
+    List<Tuple> tuples = new ArrayList<>();
+    for (int i = 0; i < num; i++) {
+      tuples.add(new VTuple(new Datum[] {
+          DatumFactory.createInt4(i),
+          i % 7 == 0 ? NullDatum.get() : DatumFactory.createText("name_" + i)}));
+    }
+    return tuples;
+  }
+
+  private static List<Tuple> readAll(ReadAheadScanner scanner) throws IOException {
+    List<Tuple> result = new ArrayList<>();
+    Tuple tuple;
+    while ((tuple = scanner.next()) != null) {
+      result.add(new VTuple(tuple.getValues()));
+    }
+    // the end is returned repeatedly
+    assertNull(scanner.next());
+    return result;
+  }
+
+  @Test
+  public final void testNext() throws IOException {
+    for (int num : new int[] {0, 1, 1000}) {
+      List<Tuple> tuples = createTuples(num);
+      ListScanner listScanner = new ListScanner(tuples, -1);
+      // small blocks to be refilled many times
+      ReadAheadScanner scanner = new ReadAheadScanner(listScanner, executor, 256);
+      scanner.init();
+      try {
+        assertEquals(tuples, readAll(scanner));
+
+        scanner.reset();
+        assertEquals(tuples, readAll(scanner));
+
+        // reset in the middle of the scan
+        scanner.reset();
+        scanner.next();
+        scanner.reset();
+        assertEquals(tuples, readAll(scanner));
+      } finally {
+        scanner.close();
+      }
+      assertTrue(listScanner.closed);
+    }
+  }
+
+  @Test
+  public final void testFailure() throws IOException {
+    List<Tuple> tuples = createTuples(100);
+    ReadAheadScanner scanner = new ReadAheadScanner(new ListScanner(tuples, 50), executor, 256);
+    scanner.init();
+    int cnt = 0;
+    try {
+      while (scanner.next() != null) {
+        cnt++;
+      }
+      fail("The failure of the underlying scanner should be thrown");
+    } catch (IOException e) {
+      // tuples of the block being filled at the failure are discarded
+      assertTrue(cnt <= 50);
+      assertEquals("failed at 50", e.getCause().getMessage());
+    } finally {
+      scanner.close();
+    }
+  }
+
+  @Test(timeout = 60000)
+  public final void testFailureWithoutFreeBlock() throws Exception {
+    List<Thread> threads = new ArrayList<>();
+    Executor threadPerTask = command -> {
+      Thread thread = new Thread(command);
+      threads.add(thread);
+      thread.start();
+    };
+
+    List<Tuple> tuples = createTuples(1000);
+    ReadAheadScanner scanner = new ReadAheadScanner(new ListScanner(tuples, -1), threadPerTask, 256);
+    scanner.init();
+    try {
+      // the consumer holds a block, and the other block is filled
+      assertNotNull(scanner.next());
+      Thread filler = threads.get(0);
+      while (filler.getState() != Thread.State.WAITING) {
+        Thread.sleep(10);
+      }
+
+      // the background thread fails while it has no block
+      filler.interrupt();
+      filler.join();
+
+      int cnt = 1;
+      try {
+        while (scanner.next() != null) {
+          cnt++;
+        }
+        fail("The failure of the background thread should be thrown");
+      } catch (IOException e) {
+        // rows already filled are returned before the failure
+        assertTrue(cnt > 1 && cnt < tuples.size());
+        assertTrue(e.getCause() instanceof InterruptedException);
+      }
+    } finally {
+      scanner.close();
+    }
+  }
+}
@@ -0,0 +1,184 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.LocalTajoTestingUtility;
+import org.apache.tajo.SessionVars;
+import org.apache.tajo.TajoConstants;
+import org.apache.tajo.TajoTestingCluster;
+import org.apache.tajo.algebra.Expr;
+import org.apache.tajo.catalog.*;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.engine.planner.PhysicalPlanner;
+import org.apache.tajo.engine.planner.PhysicalPlannerImpl;
+import org.apache.tajo.engine.planner.enforce.Enforcer;
+import org.apache.tajo.engine.query.QueryContext;
+import org.apache.tajo.parser.sql.SQLAnalyzer;
+import org.apache.tajo.plan.LogicalPlan;
+import org.apache.tajo.plan.LogicalPlanner;
+import org.apache.tajo.plan.logical.LogicalNode;
+import org.apache.tajo.storage.*;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.apache.tajo.worker.TaskAttemptContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.apache.tajo.TajoConstants.DEFAULT_TABLESPACE_NAME;
+import static org.junit.Assert.*;
+
+public class TestTopKExec {
+  private TajoConf conf;
+  private TajoTestingCluster util;
+  private final String TEST_PATH = TajoTestingCluster.DEFAULT_TEST_DIRECTORY + "/TestTopKExec";
+  private CatalogService catalog;
+  private SQLAnalyzer analyzer;
+  private LogicalPlanner planner;
+  private Path testDir;
+
+  private final int numTuple = 10000;
+  private Random rnd = new Random(System.currentTimeMillis());
+
+  private TableDesc employee;
+  // (managerid, empid) of all rows in the sort order
+  private List<Long> sortedKeys;
+
+  @Before
+  public void setUp() throws Exception {
+    this.conf = new TajoConf();
+    util = new TajoTestingCluster();
+    util.startCatalogCluster();
+    catalog = util.getCatalogService();
+    testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+    catalog.createTablespace(DEFAULT_TABLESPACE_NAME, testDir.toUri().toString());
+    catalog.createDatabase(TajoConstants.DEFAULT_DATABASE_NAME, DEFAULT_TABLESPACE_NAME);
+    conf.setVar(TajoConf.ConfVars.WORKER_TEMPORAL_DIR, testDir.toString());
+
+    Schema schema = new Schema();
+    schema.addColumn("managerid", Type.INT4);
+    schema.addColumn("empid", Type.INT4);
+    schema.addColumn("deptname", Type.TEXT);
+
+    TableMeta employeeMeta = CatalogUtil.newTableMeta("TEXT");
+    Path employeePath = new Path(testDir, "employee.csv");
+    Appender appender = ((FileTablespace) TablespaceManager.getLocalFs())
+        .getAppender(employeeMeta, schema, employeePath);
+    appender.enableStats();
+    appender.init();
+    sortedKeys = new ArrayList<>();
+    VTuple tuple = new VTuple(schema.size());
+    for (int i = 0; i < numTuple; i++) {
+      int managerId = rnd.nextInt(1000);
+      int empId = rnd.nextInt(1000);
+      tuple.put(new Datum[] {
+          DatumFactory.createInt4(managerId),
+          DatumFactory.createInt4(empId),
+          DatumFactory.createText("dept_" + i),
+      });
+      appender.addTuple(tuple);
+      sortedKeys.add(managerId * 1000L + empId);
+    }
+    appender.flush();
+    appender.close();
+    Collections.sort(sortedKeys);
+
+    employee = new TableDesc("default.employee", schema, employeeMeta, employeePath.toUri());
+    catalog.createTable(employee);
+    analyzer = new SQLAnalyzer();
+    planner = new LogicalPlanner(catalog, TablespaceManager.getInstance());
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    CommonTestingUtil.cleanupTestDir(TEST_PATH);
+    util.shutdownCatalogCluster();
+  }
+
+  private PhysicalExec createPlan(QueryContext queryContext, String query) throws Exception {
+    FileFragment[] frags = FileTablespace.splitNG(conf, "default.employee", employee.getMeta(),
+        new Path(employee.getUri()), Integer.MAX_VALUE);
+    Path workDir = new Path(testDir, TestTopKExec.class.getName());
+    TaskAttemptContext ctx = new TaskAttemptContext(queryContext,
+        LocalTajoTestingUtility.newTaskAttemptId(), new FileFragment[] { frags[0] }, workDir);
+    ctx.setEnforcer(new Enforcer());
+    Expr expr = analyzer.parse(query);
+    LogicalPlan plan = planner.createPlan(LocalTajoTestingUtility.createDummyContext(conf), expr);
+    LogicalNode rootNode = plan.getRootBlock().getRoot();
+
+    PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(conf);
+    return phyPlanner.createPlan(ctx, rootNode);
+  }
+
+  private void assertTopK(PhysicalExec exec, int limit) throws Exception {
+    Tuple tuple;
+    int cnt = 0;
+    while ((tuple = exec.next()) != null) {
+      assertEquals(sortedKeys.get(cnt).longValue(), tuple.getInt4(0) * 1000L + tuple.getInt4(1));
+      cnt++;
+    }
+    assertEquals(Math.min(limit, numTuple), cnt);
+  }
+
+  @Test
+  public final void testNext() throws Exception {
+    // large enough to evict rows from the heap many times, and to compact the memory of rows
+    int[] limits = {0, 1, 10, 1500, numTuple + 1};
+    for (int limit : limits) {
+      QueryContext queryContext = LocalTajoTestingUtility.createDummyContext(conf);
+      PhysicalExec exec = createPlan(queryContext,
+          "select managerId, empId from employee order by managerId, empId limit " + limit);
+      TopKExec topK = PhysicalPlanUtil.findExecutor(exec, TopKExec.class);
+      assertNotNull(topK);
+      assertEquals(limit, topK.getLimit());
+
+      exec.init();
+      assertTopK(exec, limit);
+
+      // for rescan test
+      exec.rescan();
+      assertTopK(exec, limit);
+      exec.close();
+    }
+  }
+
+  @Test
+  public final void testLimitExceedingThreshold() throws Exception {
+    QueryContext queryContext = LocalTajoTestingUtility.createDummyContext(conf);
+    queryContext.setLong(SessionVars.SORT_TOPK_THRESHOLD, 100);
+    PhysicalExec exec = createPlan(queryContext,
+        "select managerId, empId from employee order by managerId, empId limit 101");
+    assertNull(PhysicalPlanUtil.findExecutor(exec, TopKExec.class));
+    assertNotNull(PhysicalPlanUtil.findExecutor(exec, ExternalSortExec.class));
+    assertNotNull(PhysicalPlanUtil.findExecutor(exec, LimitExec.class));
+
+    exec.init();
+    assertTopK(exec, 101);
+    exec.close();
+  }
+}
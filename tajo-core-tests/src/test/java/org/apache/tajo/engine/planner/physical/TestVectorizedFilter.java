@@ -0,0 +1,128 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.plan.expr.*;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestVectorizedFilter {
+
+  private static final Column ID = new Column("t.id", Type.INT4);
+  private static final Column SCORE = new Column("t.score", Type.FLOAT8);
+  private static final Column NAME = new Column("t.name", Type.TEXT);
+  private static final Schema SCHEMA = new Schema(new Column[] {ID, SCORE, NAME});
+
+  private static List<Tuple> createTuples(int num) {
+    List<Tuple> tuples = new ArrayList<>();
+    for (int i = 0; i < num; i++) {
+      tuples.add(new VTuple(new Datum[] {
+          i % 11 == 0 ? NullDatum.get() : DatumFactory.createInt4(i),
+          i % 13 == 0 ? NullDatum.get() : DatumFactory.createFloat8(i % 10),
+          i % 17 == 0 ? NullDatum.get() : DatumFactory.createText("name_" + (i % 3))}));
+    }
+    return tuples;
+  }
+
+  /**
+   * Filter tuples in batches, and compare them with tuples filtered by the qual row by row.
+   */
+  private static void assertFilter(EvalNode qual) {
+    List<Tuple> tuples = createTuples(1000);
+
+    List<Tuple> expected = new ArrayList<>();
+    qual.bind(new EvalContext(), SCHEMA);
+    for (Tuple tuple : tuples) {
+      if (qual.eval(tuple).isTrue()) {
+        expected.add(tuple);
+      }
+    }
+
+    VectorizedFilter filter = VectorizedFilter.create(new EvalContext(), qual, SCHEMA);
+    VectorizedRowBatch batch = new VectorizedRowBatch(SCHEMA, 64);
+    List<Tuple> actual = new ArrayList<>();
+    for (int i = 0; i < tuples.size(); ) {
+      batch.reset();
+      while (i < tuples.size() && batch.addTuple(tuples.get(i))) {
+        i++;
+      }
+      filter.filter(batch);
+
+      for (int j = 0; j < batch.size(); j++) {
+        Tuple tuple = new VTuple(SCHEMA.size());
+        batch.fillTuple(batch.getRow(j), tuple);
+        actual.add(tuple);
+      }
+    }
+
+    assertFalse(expected.isEmpty());
+    assertEquals(expected, actual);
+  }
+
+  private static EvalNode field(Column column) {
+    return new FieldEval(column);
+  }
+
+  private static EvalNode constant(Datum datum) {
+    return new ConstEval(datum);
+  }
+
+  @Test
+  public final void testPrimitiveFilters() {
+    // id > 100 and 5.0 >= score and name = 'name_1' and score is not null
+    EvalNode qual = AlgebraicUtil.createSingletonExprFromCNF(
+        new BinaryEval(EvalType.GTH, field(ID), constant(DatumFactory.createInt8(100))),
+        new BinaryEval(EvalType.GEQ, constant(DatumFactory.createFloat8(5.0)), field(SCORE)),
+        new BinaryEval(EvalType.EQUAL, field(NAME), constant(DatumFactory.createText("name_1"))),
+        new IsNullEval(true, field(SCORE)));
+    assertTrue(VectorizedFilter.create(new EvalContext(), qual, SCHEMA) instanceof VectorizedFilter.AndFilter);
+    assertFilter(qual);
+
+    assertFilter(new IsNullEval(false, field(ID)));
+    assertFilter(new BinaryEval(EvalType.NOT_EQUAL, field(NAME), constant(DatumFactory.createText("name_0"))));
+  }
+
+  @Test
+  public final void testRowFilter() {
+    // (id < 10 or id > 900) and id + 1 <> 950 and score < 3
+    EvalNode or = new BinaryEval(EvalType.OR,
+        new BinaryEval(EvalType.LTH, field(ID), constant(DatumFactory.createInt4(10))),
+        new BinaryEval(EvalType.GTH, field(ID), constant(DatumFactory.createInt4(900))));
+    EvalNode plus = new BinaryEval(EvalType.NOT_EQUAL,
+        new BinaryEval(EvalType.PLUS, field(ID), constant(DatumFactory.createInt4(1))),
+        constant(DatumFactory.createInt4(950)));
+    EvalNode score = new BinaryEval(EvalType.LTH, field(SCORE), constant(DatumFactory.createInt4(3)));
+
+    assertTrue(VectorizedFilter.create(new EvalContext(), or, SCHEMA) instanceof VectorizedFilter.RowFilter);
+    assertFilter(AlgebraicUtil.createSingletonExprFromCNF(or, plus, score));
+  }
+}
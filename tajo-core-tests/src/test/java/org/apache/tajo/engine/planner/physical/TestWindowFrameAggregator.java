@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestWindowFrameAggregator {
+  private static final int ROW_NUM = 500;
+
+  private static Datum[] createValues() {
+    Random random = new Random(1234);
+    Datum[] values = new Datum[ROW_NUM];
+    for (int i = 0; i < ROW_NUM; i++) {
+      values[i] = i % 7 == 0 ? NullDatum.get() : DatumFactory.createInt8(random.nextInt(1000) - 500);
+    }
+    return values;
+  }
+
+  /**
+   * Aggregate frames of sliding window sizes, and compare them with frames aggregated from scratch.
+   */
+  private static void assertFrames(WindowFrameAggregator aggregator, String func, Datum[] values,
+                                   int preceding, int following) {
+    aggregator.reset();
+    int added = 0;
+    int removed = 0;
+    for (int i = 0; i < ROW_NUM; i++) {
+      int start = Math.max(0, i - preceding);
+      int end = Math.min(ROW_NUM, i + following + 1);
+      while (added < end) {
+        aggregator.add(values[added++]);
+      }
+      while (removed < start) {
+        aggregator.remove(values[removed++]);
+      }
+      assertEquals(func + " of [" + start + ", " + end + ")", aggregate(func, values, start, end),
+          aggregator.result());
+    }
+  }
+
+  private static Datum aggregate(String func, Datum[] values, int start, int end) {
+    long count = 0;
+    long sum = 0;
+    Datum minMax = NullDatum.get();
+    for (int i = start; i < end; i++) {
+      if (values[i].isNull()) {
+        continue;
+      }
+      count++;
+      sum += values[i].asInt8();
+      if (minMax.isNull() || (func.equals("max") ? values[i].compareTo(minMax) > 0 : values[i].compareTo(minMax) < 0)) {
+        minMax = values[i];
+      }
+    }
+
+    switch (func) {
+    case "count":
+      return DatumFactory.createInt8(count);
+    case "sum":
+      return count == 0 ? NullDatum.get() : DatumFactory.createInt8(sum);
+    case "avg":
+      return count == 0 ? NullDatum.get() : DatumFactory.createFloat8((double) sum / count);
+    default:
+      return minMax;
+    }
+  }
+
+  @Test
+  public final void testSlidingAggregator() {
+    Datum[] values = createValues();
+    int[][] frames = {{0, 0}, {3, 0}, {0, 5}, {10, 10}, {ROW_NUM, 0}, {0, ROW_NUM}};
+    for (int[] frame : frames) {
+      assertFrames(new WindowFrameAggregator.SlidingAggregator(WindowFrameAggregator.SlidingAggregator.SUM, false),
+          "sum", values, frame[0], frame[1]);
+      assertFrames(new WindowFrameAggregator.SlidingAggregator(WindowFrameAggregator.SlidingAggregator.COUNT, false),
+          "count", values, frame[0], frame[1]);
+      assertFrames(new WindowFrameAggregator.SlidingAggregator(WindowFrameAggregator.SlidingAggregator.AVG, false),
+          "avg", values, frame[0], frame[1]);
+    }
+  }
+
+  @Test
+  public final void testMinMaxAggregator() {
+    Datum[] values = createValues();
+    int[][] frames = {{0, 0}, {3, 0}, {0, 5}, {10, 10}, {ROW_NUM, 0}, {0, ROW_NUM}};
+    for (int[] frame : frames) {
+      assertFrames(new WindowFrameAggregator.MinMaxAggregator(false, true), "min", values, frame[0], frame[1]);
+      assertFrames(new WindowFrameAggregator.MinMaxAggregator(true, true), "max", values, frame[0], frame[1]);
+    }
+
+    // frames starting at the first row keep only the running results
+    for (int following : new int[] {0, 5, ROW_NUM}) {
+      assertFrames(new WindowFrameAggregator.MinMaxAggregator(false, false), "min", values, ROW_NUM, following);
+      assertFrames(new WindowFrameAggregator.MinMaxAggregator(true, false), "max", values, ROW_NUM, following);
+    }
+  }
+
+  @Test
+  public final void testCountRows() {
+    Datum[] values = createValues();
+    for (int preceding : new int[] {0, 3, 10, ROW_NUM}) {
+      // null values are counted as well
+      WindowFrameAggregator aggregator = new WindowFrameAggregator.CountRows();
+      aggregator.reset();
+      for (int i = 0; i < ROW_NUM; i++) {
+        aggregator.add(values[i]);
+        if (i > preceding) {
+          aggregator.remove(values[i - preceding - 1]);
+        }
+        assertEquals(DatumFactory.createInt8(Math.min(i, preceding) + 1), aggregator.result());
+      }
+    }
+  }
+}
@@ -0,0 +1,199 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.query;
+
+import org.apache.tajo.*;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.storage.StorageConstants;
+import org.apache.tajo.util.KeyValueSet;
+import org.apache.tajo.util.Pair;
+import org.apache.tajo.util.history.QueryHistory;
+import org.apache.tajo.util.history.StageHistory;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Repartition joins re-planned from the actual volumes of their inputs. A join switches to a broadcast join if an
+ * input turns out to be small, and small partitions are coalesced into fewer tasks. The results must not change.
+ */
+@Category(IntegrationTest.class)
+public class TestAdaptiveJoinQuery extends QueryTestCaseBase {
+  private static final int PARTITION_NUM = 4;
+
+  // adaptive_dim is larger than the broadcast threshold, but less than 100 rows of it are not.
+  private static final String FILTERED_DIM = "(select k, v from adaptive_dim where k < 100) d";
+
+  public TestAdaptiveJoinQuery() {
+    super(TajoConstants.DEFAULT_DATABASE_NAME);
+  }
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    KeyValueSet tableOptions = new KeyValueSet();
+    tableOptions.set(StorageConstants.TEXT_DELIMITER, StorageConstants.DEFAULT_FIELD_DELIMITER);
+    tableOptions.set(StorageConstants.TEXT_NULL, "\\\\N");
+
+    Schema schema = new Schema();
+    schema.addColumn("k", Type.INT4);
+    schema.addColumn("v", Type.TEXT);
+
+    // a few megabytes, which are hash-partitioned into a few partitions of 1 MB
+    String[] data = new String[100000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (i % 2000) + "|adaptive_big_value_" + i;
+    }
+    TajoTestingCluster.createTable("adaptive_big", schema, tableOptions, data, 4);
+
+    data = new String[2000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = i + "|adaptive_dim_value_" + i;
+    }
+    TajoTestingCluster.createTable("adaptive_dim", schema, tableOptions, data, 2);
+  }
+
+  @AfterClass
+  public static void tearDown() throws Exception {
+    client.executeQuery("DROP TABLE IF EXISTS adaptive_big PURGE");
+    client.executeQuery("DROP TABLE IF EXISTS adaptive_dim PURGE");
+  }
+
+  /**
+   * @return the result and the number of tasks of the join
+   */
+  private Pair<String, Integer> execute(String sql, Map<String, String> variables) throws Exception {
+    client.updateSessionVariables(variables);
+    try {
+      ResultSet res = executeString(sql);
+      try {
+        String result = resultSetToString(res, true);
+
+        QueryHistory queryHistory = testingCluster.getQueryHistory(getQueryId(res));
+        int joinTaskNum = -1;
+        for (StageHistory eachStage : queryHistory.getStageHistories()) {
+          if (eachStage.getPlan() != null && eachStage.getPlan().contains("JOIN")) {
+            joinTaskNum = eachStage.getTotalScheduledObjectsCount();
+          }
+        }
+        assertTrue(joinTaskNum > 0);
+        return new Pair<>(result, joinTaskNum);
+      } finally {
+        cleanupQuery(res);
+      }
+    } finally {
+      client.unsetSessionVariables(new ArrayList<>(variables.keySet()));
+    }
+  }
+
+  /**
+   * Both inputs are shuffled into a fixed number of partitions, which are not coalesced. A join can be switched
+   * to a broadcast join only at runtime.
+   */
+  private Pair<String, Integer> executeWithBroadcastSwitch(String sql, boolean adaptive) throws Exception {
+    Map<String, String> variables = new HashMap<>();
+    variables.put(SessionVars.ADAPTIVE_EXECUTION_ENABLED.keyname(), String.valueOf(adaptive));
+    variables.put(SessionVars.TEST_BROADCAST_JOIN_ENABLED.keyname(), "true");
+    variables.put(SessionVars.BROADCAST_NON_CROSS_JOIN_THRESHOLD.keyname(), "16");
+    variables.put(SessionVars.TEST_MIN_TASK_NUM.keyname(), String.valueOf(PARTITION_NUM));
+    return execute(sql, variables);
+  }
+
+  private void assertBroadcastSwitch(String sql, boolean switched) throws Exception {
+    Pair<String, Integer> expected = executeWithBroadcastSwitch(sql, false);
+    assertEquals(PARTITION_NUM, expected.getSecond().intValue());
+
+    Pair<String, Integer> actual = executeWithBroadcastSwitch(sql, true);
+    assertEquals(expected.getFirst(), actual.getFirst());
+    // the large input is split into tasks of the join task volume, which is larger than its whole volume
+    assertEquals(switched ? 1 : PARTITION_NUM, actual.getSecond().intValue());
+  }
+
+  @Test
+  public final void testBroadcastSwitchInnerJoin() throws Exception {
+    assertBroadcastSwitch("select count(*) as cnt, sum(length(b.v)) as len from adaptive_big b join "
+        + FILTERED_DIM + " on b.k = d.k", true);
+  }
+
+  @Test
+  public final void testBroadcastSwitchLeftOuterJoin() throws Exception {
+    // the small input supplies nulls
+    assertBroadcastSwitch("select count(*) as cnt, count(d.k) as matched from adaptive_big b left outer join "
+        + FILTERED_DIM + " on b.k = d.k", true);
+  }
+
+  @Test
+  public final void testBroadcastSwitchRightOuterJoin() throws Exception {
+    // the small input supplies nulls
+    assertBroadcastSwitch("select count(*) as cnt, count(d.k) as matched from " + FILTERED_DIM
+        + " right outer join adaptive_big b on b.k = d.k", true);
+
+    // the large input supplies nulls, so it cannot be split
+    assertBroadcastSwitch("select count(*) as cnt, count(b.k) as matched from adaptive_big b right outer join "
+        + FILTERED_DIM + " on b.k = d.k", false);
+  }
+
+  @Test
+  public final void testBroadcastSwitchFullOuterJoin() throws Exception {
+    assertBroadcastSwitch("select count(*) as cnt, count(b.k) as big_num, count(d.k) as dim_num "
+        + "from adaptive_big b full outer join " + FILTERED_DIM + " on b.k = d.k", false);
+  }
+
+  private Pair<String, Integer> executeWithCoalescing(String sql, boolean adaptive) throws Exception {
+    Map<String, String> variables = new HashMap<>();
+    variables.put(SessionVars.ADAPTIVE_EXECUTION_ENABLED.keyname(), String.valueOf(adaptive));
+    variables.put(SessionVars.TEST_BROADCAST_JOIN_ENABLED.keyname(), "false");
+    variables.put(SessionVars.JOIN_PER_SHUFFLE_SIZE.keyname(), "1");
+    return execute(sql, variables);
+  }
+
+  private void assertCoalescing(String sql) throws Exception {
+    Pair<String, Integer> expected = executeWithCoalescing(sql, false);
+    assertTrue(expected.getSecond() > 1);
+
+    // all partitions are smaller than the join task volume
+    Pair<String, Integer> actual = executeWithCoalescing(sql, true);
+    assertEquals(expected.getFirst(), actual.getFirst());
+    assertEquals(1, actual.getSecond().intValue());
+  }
+
+  @Test
+  public final void testCoalesceInnerJoin() throws Exception {
+    assertCoalescing("select d.k, count(*) as cnt from adaptive_big b join adaptive_dim d on b.k = d.k "
+        + "where d.k < 10 group by d.k");
+  }
+
+  @Test
+  public final void testCoalesceOuterJoins() throws Exception {
+    assertCoalescing("select count(*) as cnt, count(d.k) as matched from adaptive_big b left outer join "
+        + FILTERED_DIM + " on b.k = d.k");
+    assertCoalescing("select count(*) as cnt, count(b.k) as matched from adaptive_big b right outer join "
+        + FILTERED_DIM + " on b.k = d.k");
+    assertCoalescing("select count(*) as cnt, count(b.k) as big_num, count(d.k) as dim_num "
+        + "from adaptive_big b full outer join " + FILTERED_DIM + " on b.k = d.k");
+  }
+}
@@ -0,0 +1,145 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.query;
+
+import org.apache.tajo.IntegrationTest;
+import org.apache.tajo.QueryTestCaseBase;
+import org.apache.tajo.TajoConstants;
+import org.apache.tajo.TajoTestingCluster;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.statistics.ColumnStats;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.storage.StorageConstants;
+import org.apache.tajo.util.KeyValueSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.sql.ResultSet;
+
+import static org.junit.Assert.*;
+
+@Category(IntegrationTest.class)
+public class TestAnalyzeTableQuery extends QueryTestCaseBase {
+  private static final String TABLE_NAME = "analyzed";
+  private static final int ROW_NUM = 1000;
+
+  public TestAnalyzeTableQuery() {
+    super(TajoConstants.DEFAULT_DATABASE_NAME);
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    KeyValueSet tableOptions = new KeyValueSet();
+    tableOptions.set(StorageConstants.TEXT_DELIMITER, StorageConstants.DEFAULT_FIELD_DELIMITER);
+    tableOptions.set(StorageConstants.TEXT_NULL, "\\\\N");
+
+    Schema schema = new Schema();
+    schema.addColumn("k", Type.INT4);
+    schema.addColumn("v", Type.TEXT);
+
+    // 100 distinct keys, and every 10th value is null
+    String[] data = new String[ROW_NUM];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (i % 100) + "|" + (i % 10 == 0 ? "\\N" : "value_" + i);
+    }
+    TajoTestingCluster.createTable(TABLE_NAME, schema, tableOptions, data, 2);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    executeString("DROP TABLE IF EXISTS " + TABLE_NAME + " PURGE");
+  }
+
+  private TableStats getTableStats() throws Exception {
+    return catalog.getTableDesc(CatalogUtil.buildFQName(TajoConstants.DEFAULT_DATABASE_NAME, TABLE_NAME))
+        .getStats();
+  }
+
+  private static ColumnStats getColumnStats(TableStats tableStats, String columnName) {
+    for (ColumnStats eachStats : tableStats.getColumnStats()) {
+      if (eachStats.getColumn().getSimpleName().equals(columnName)) {
+        return eachStats;
+      }
+    }
+    fail("No column stats of " + columnName);
+    return null;
+  }
+
+  private String executeAndGetResult(String sql) throws Exception {
+    ResultSet res = executeString(sql);
+    try {
+      return resultSetToString(res);
+    } finally {
+      cleanupQuery(res);
+    }
+  }
+
+  @Test
+  public final void testAnalyzeTable() throws Exception {
+    assertTrue(getTableStats().getColumnStats().isEmpty());
+
+    ResultSet res = executeString("ANALYZE TABLE " + TABLE_NAME);
+    assertFalse(res.next());
+    cleanupQuery(res);
+
+    TableStats tableStats = getTableStats();
+    assertEquals(ROW_NUM, tableStats.getNumRows().longValue());
+
+    ColumnStats keyStats = getColumnStats(tableStats, "k");
+    assertEquals(0, keyStats.getNumNulls().longValue());
+    assertEquals(DatumFactory.createInt4(0), keyStats.getMinValue());
+    assertEquals(DatumFactory.createInt4(99), keyStats.getMaxValue());
+    // estimated by a HyperLogLog sketch
+    assertTrue(Math.abs(keyStats.getNumDistValues() - 100) <= 10);
+    assertTrue(keyStats.hasHistogram());
+    assertEquals(ROW_NUM, keyStats.getHistogram().getTotalCount());
+    assertEquals(DatumFactory.createInt4(0), keyStats.getHistogram().getMinValue());
+    assertEquals(DatumFactory.createInt4(99), keyStats.getHistogram().getMaxValue());
+
+    ColumnStats valueStats = getColumnStats(tableStats, "v");
+    assertEquals(ROW_NUM / 10, valueStats.getNumNulls().longValue());
+    assertTrue(valueStats.hasHistogram());
+    assertEquals(ROW_NUM - ROW_NUM / 10, valueStats.getHistogram().getTotalCount());
+  }
+
+  @Test
+  public final void testSortWithHistogram() throws Exception {
+    // the scanned rows are range-partitioned at the quantiles of the histogram of the sort key
+    String sql = "select k from " + TABLE_NAME + " where k >= 50 order by k";
+    String expected = executeAndGetResult(sql);
+
+    executeString("ANALYZE TABLE " + TABLE_NAME).close();
+    assertEquals(expected, executeAndGetResult(sql));
+  }
+
+  @Test
+  public final void testInsertRemovesColumnStats() throws Exception {
+    executeString("ANALYZE TABLE " + TABLE_NAME).close();
+    assertFalse(getTableStats().getColumnStats().isEmpty());
+
+    // the collected stats do not cover the inserted rows
+    executeString("INSERT INTO " + TABLE_NAME + " SELECT k + 100, v FROM " + TABLE_NAME).close();
+    assertTrue(getTableStats().getColumnStats().isEmpty());
+  }
+}
@@ -364,6 +364,87 @@ public class TestHBaseTable extends QueryTestCaseBase {
     }
   }
 
+  @Test
+  public void testFilterAndLimitPushDown() throws Exception {
+    Optional<Tablespace> existing = TablespaceManager.removeTablespaceForTest("cluster1");
+    assertTrue(existing.isPresent());
+
+    try {
+      HTableDescriptor hTableDesc = new HTableDescriptor(TableName.valueOf("external_hbase_table"));
+      hTableDesc.addFamily(new HColumnDescriptor("col1"));
+      hTableDesc.addFamily(new HColumnDescriptor("col3"));
+      testingCluster.getHBaseUtil().createTable(hTableDesc);
+
+      String sql = String.format(
+          "CREATE EXTERNAL TABLE external_hbase_mapped_table (rk int8, col1 text, col3 int4)\n " +
+              "USING hbase WITH ('table'='external_hbase_table', 'columns'=':key#b,col1:a,col3:b#b') " +
+              "LOCATION '%s/external_hbase_table'", tableSpaceUri);
+      executeString(sql).close();
+
+      assertTableExists("external_hbase_mapped_table");
+
+      HConnection hconn = ((HBaseTablespace)existing.get()).getConnection();
+
+      try (HTableInterface htable = hconn.getTable("external_hbase_table")) {
+        for (int i = 0; i < 100; i++) {
+          Put put = new Put(Bytes.toBytes((long) i));
+          put.add("col1".getBytes(), "a".getBytes(), ("a-" + i).getBytes());
+          if (i % 10 != 0) {
+            put.add("col3".getBytes(), "b".getBytes(), Bytes.toBytes(i));
+          }
+          htable.put(put);
+        }
+
+        ResultSet res = executeString(
+            "select rk, col1 from external_hbase_mapped_table where col1 = 'a-5' or col3 in (7, 9)");
+        String expected = "rk,col1\n" +
+            "-------------------------------\n" +
+            "5,a-5\n" +
+            "7,a-7\n" +
+            "9,a-9\n";
+        assertEquals(expected, resultSetToString(res));
+        res.close();
+
+        // a part of the filter is evaluated by region servers
+        res = executeString("select rk, col3 from external_hbase_mapped_table " +
+            "where col1 >= 'a-89' and col3 <> 95 and col3 is not null and col3 % 2 = 0");
+        expected = "rk,col3\n" +
+            "-------------------------------\n" +
+            "92,92\n" +
+            "94,94\n" +
+            "96,96\n" +
+            "98,98\n";
+        assertEquals(expected, resultSetToString(res));
+        res.close();
+
+        res = executeString("select rk, col1 from external_hbase_mapped_table where col3 is null");
+        expected = "rk,col1\n" +
+            "-------------------------------\n";
+        for (int i = 0; i < 100; i += 10) {
+          expected += i + ",a-" + i + "\n";
+        }
+        assertEquals(expected, resultSetToString(res));
+        res.close();
+
+        // limit
+        res = executeString("select rk, col1 from external_hbase_mapped_table limit 3");
+        expected = "rk,col1\n" +
+            "-------------------------------\n" +
+            "0,a-0\n" +
+            "1,a-1\n" +
+            "2,a-2\n";
+        assertEquals(expected, resultSetToString(res));
+        res.close();
+
+      } finally {
+        executeString("DROP TABLE external_hbase_mapped_table PURGE").close();
+
+      }
+    } finally {
+      TablespaceManager.addTableSpaceForTest(existing.get());
+    }
+  }
+
   @Test
   public void testColumnKeyValueSelectQuery() throws Exception {
     Optional<Tablespace> existing = TablespaceManager.removeTablespaceForTest("cluster1");
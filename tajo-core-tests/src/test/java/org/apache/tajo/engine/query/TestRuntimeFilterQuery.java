@@ -0,0 +1,196 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.query;
+
+import org.apache.tajo.*;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.storage.StorageConstants;
+import org.apache.tajo.util.KeyValueSet;
+import org.apache.tajo.util.Pair;
+import org.apache.tajo.util.history.QueryHistory;
+import org.apache.tajo.util.history.StageHistory;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Repartition joins whose probe-side scans are filtered by runtime bloom filters. See RuntimeFilterRule.
+ */
+@Category(IntegrationTest.class)
+public class TestRuntimeFilterQuery extends QueryTestCaseBase {
+  private static final int BIG_ROW_NUM = 20000;
+  // 50 keys of rf_small, each of which appears 10 times in rf_big
+  private static final int MATCHED_NUM = 500;
+
+  public TestRuntimeFilterQuery() {
+    super(TajoConstants.DEFAULT_DATABASE_NAME);
+  }
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    KeyValueSet tableOptions = new KeyValueSet();
+    tableOptions.set(StorageConstants.TEXT_DELIMITER, StorageConstants.DEFAULT_FIELD_DELIMITER);
+    tableOptions.set(StorageConstants.TEXT_NULL, "\\\\N");
+
+    Schema schema = new Schema();
+    schema.addColumn("k", Type.INT4);
+    schema.addColumn("v", Type.TEXT);
+
+    String[] data = new String[BIG_ROW_NUM];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (i % 2000) + "|rf_big_value_" + i;
+    }
+    TajoTestingCluster.createTable("rf_big", schema, tableOptions, data, 2);
+
+    data = new String[50];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (i * 3) + "|rf_small_value_" + i;
+    }
+    TajoTestingCluster.createTable("rf_small", schema, tableOptions, data, 1);
+  }
+
+  @AfterClass
+  public static void tearDown() throws Exception {
+    client.executeQuery("DROP TABLE IF EXISTS rf_big PURGE");
+    client.executeQuery("DROP TABLE IF EXISTS rf_small PURGE");
+  }
+
+  /**
+   * @return the result and the number of rows shuffled by the scan of a probe table
+   */
+  private Pair<String, Long> execute(String sql, String probeTable, boolean runtimeFilter, boolean vectorized)
+      throws Exception {
+    Map<String, String> variables = new HashMap<>();
+    variables.put(SessionVars.JOIN_RUNTIME_FILTER_ENABLED.keyname(), String.valueOf(runtimeFilter));
+    variables.put(SessionVars.VECTORIZED_EXECUTION.keyname(), String.valueOf(vectorized));
+    // both inputs are shuffled
+    variables.put(SessionVars.TEST_BROADCAST_JOIN_ENABLED.keyname(), "false");
+    client.updateSessionVariables(variables);
+
+    try {
+      ResultSet res = executeString(sql);
+      try {
+        String result = resultSetToString(res, true);
+
+        QueryHistory queryHistory = testingCluster.getQueryHistory(getQueryId(res));
+        long probeRows = -1;
+        for (StageHistory eachStage : queryHistory.getStageHistories()) {
+          String plan = eachStage.getPlan();
+          if (plan != null && plan.contains(probeTable) && !plan.contains("JOIN")) {
+            probeRows = eachStage.getTotalWriteRows();
+          }
+        }
+        assertTrue(probeRows >= 0);
+        return new Pair<>(result, probeRows);
+      } finally {
+        cleanupQuery(res);
+      }
+    } finally {
+      client.unsetSessionVariables(new ArrayList<>(variables.keySet()));
+    }
+  }
+
+  /**
+   * @param filtered true if the probe table is expected to be filtered
+   */
+  private void assertRuntimeFilter(String sql, String probeTable, boolean filtered, boolean vectorized)
+      throws Exception {
+    Pair<String, Long> expected = execute(sql, probeTable, false, vectorized);
+    assertEquals(BIG_ROW_NUM, expected.getSecond().longValue());
+
+    Pair<String, Long> actual = execute(sql, probeTable, true, vectorized);
+    assertEquals(expected.getFirst(), actual.getFirst());
+    if (filtered) {
+      // a few false positives may remain
+      assertTrue(actual.getSecond() >= MATCHED_NUM);
+      assertTrue(actual.getSecond() < BIG_ROW_NUM / 4);
+    } else {
+      assertEquals(BIG_ROW_NUM, actual.getSecond().longValue());
+    }
+  }
+
+  @Test
+  public final void testInnerJoin() throws Exception {
+    assertRuntimeFilter("select s.k, count(*) as cnt, min(b.v) as min_v from rf_big b join rf_small s "
+        + "on b.k = s.k group by s.k", "rf_big", true, false);
+  }
+
+  @Test
+  public final void testOuterJoin() throws Exception {
+    // rf_big supplies nulls, so its rows without matching keys are not needed
+    assertRuntimeFilter("select count(*) as cnt, count(b.k) as matched from rf_small s left outer join rf_big b "
+        + "on b.k = s.k", "rf_big", true, false);
+    assertRuntimeFilter("select count(*) as cnt, count(b.k) as matched from rf_big b right outer join rf_small s "
+        + "on b.k = s.k", "rf_big", true, false);
+
+    // all rows of the preserved side are needed
+    assertRuntimeFilter("select count(*) as cnt, count(s.k) as matched from rf_big b left outer join rf_small s "
+        + "on b.k = s.k", "rf_big", false, false);
+  }
+
+  @Test
+  public final void testVectorizedScan() throws Exception {
+    // ORC files are read in column vectors unless a runtime filter is applied
+    executeString("CREATE TABLE rf_big_orc USING orc AS SELECT * FROM rf_big").close();
+    try {
+      assertRuntimeFilter("select s.k, count(*) as cnt, min(b.v) as min_v from rf_big_orc b join rf_small s "
+          + "on b.k = s.k group by s.k", "rf_big_orc", true, true);
+      assertRuntimeFilter("select count(*) as cnt, count(b.k) as matched from rf_small s left outer join "
+          + "rf_big_orc b on b.k = s.k", "rf_big_orc", true, true);
+    } finally {
+      executeString("DROP TABLE IF EXISTS rf_big_orc PURGE");
+    }
+  }
+
+  @Test
+  public final void testPartitionedJoin() throws Exception {
+    // 40 partitions of 10 rows, and the join keys of 14 partitions are in rf_small
+    executeString("CREATE TABLE rf_part (v TEXT) PARTITION BY COLUMN (k INT4) AS SELECT v, k FROM rf_big "
+        + "WHERE k < 40").close();
+    try {
+      // all join keys are partition columns, so the partitions not in the filter are pruned
+      String sql = "select p.k, count(*) as cnt from rf_part p join rf_small s on p.k = s.k group by p.k";
+      Pair<String, Long> expected = execute(sql, "rf_part", false, false);
+      assertEquals(400, expected.getSecond().longValue());
+      Pair<String, Long> actual = execute(sql, "rf_part", true, false);
+      assertEquals(expected.getFirst(), actual.getFirst());
+      assertTrue(actual.getSecond() >= 140);
+      assertTrue(actual.getSecond() < 400);
+
+      // a join key is not a partition column, so the partitioned table is not filtered
+      sql = "select count(*) as cnt from rf_part p join rf_small s on p.k = s.k and p.v = s.v";
+      expected = execute(sql, "rf_part", false, false);
+      assertEquals(400, expected.getSecond().longValue());
+      actual = execute(sql, "rf_part", true, false);
+      assertEquals(expected.getFirst(), actual.getFirst());
+      assertEquals(400, actual.getSecond().longValue());
+    } finally {
+      executeString("DROP TABLE IF EXISTS rf_part PURGE");
+    }
+  }
+}
@@ -791,4 +791,51 @@ public class TestSelectQuery extends QueryTestCaseBase {
     assertResultSet(res);
     cleanupQuery(res);
   }
+
+  private void assertFilteredScans(String[] tables, String[] filters) throws Exception {
+    for (String filter : filters) {
+      ResultSet expected = executeString("SELECT * FROM lineitem WHERE " + filter);
+      String expectedResult = resultSetToString(expected, true);
+      cleanupQuery(expected);
+
+      for (String table : tables) {
+        ResultSet res = executeString("SELECT * FROM " + table + " WHERE " + filter);
+        assertEquals(table + " WHERE " + filter, expectedResult, resultSetToString(res, true));
+        cleanupQuery(res);
+      }
+    }
+  }
+
+  @Test
+  public void testFilterPushDownToColumnarFiles() throws Exception {
+    // Parquet and ORC scanners skip data by the filter, but results should be the same as the text table.
+    String[] tables = {"lineitem_parquet", "lineitem_orc"};
+    String[] filters = {
+        "l_orderkey = 3",
+        "2 < l_orderkey AND l_quantity < 30",
+        "l_partkey IN (1, 3) OR l_returnflag = 'R'",
+        "l_extendedprice BETWEEN 20000.0 AND 50000.0",
+        "l_shipmode IS NOT NULL AND l_comment LIKE '%ly%'",
+        "l_orderkey > 100"
+    };
+
+    try {
+      executeString("CREATE TABLE lineitem_parquet USING parquet AS SELECT * FROM lineitem").close();
+      executeString("CREATE TABLE lineitem_orc USING orc AS SELECT * FROM lineitem").close();
+      assertFilteredScans(tables, filters);
+
+      // ORC files are read in column vectors
+      Map<String, String> variables = new HashMap<>();
+      variables.put(SessionVars.VECTORIZED_EXECUTION.keyname(), "true");
+      client.updateSessionVariables(variables);
+      try {
+        assertFilteredScans(tables, filters);
+      } finally {
+        client.unsetSessionVariables(Lists.newArrayList(SessionVars.VECTORIZED_EXECUTION.keyname()));
+      }
+    } finally {
+      executeString("DROP TABLE IF EXISTS lineitem_parquet PURGE");
+      executeString("DROP TABLE IF EXISTS lineitem_orc PURGE");
+    }
+  }
 }
\ No newline at end of file
@@ -0,0 +1,166 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.query;
+
+import org.apache.tajo.*;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.storage.StorageConstants;
+import org.apache.tajo.util.KeyValueSet;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Joins of a table whose hash partition of the key 1 is skewed. The results must not change whether skewed
+ * partitions are split or not.
+ */
+@Category(IntegrationTest.class)
+public class TestSkewedJoinQuery extends QueryTestCaseBase {
+  private static final int BIG_ROW_NUM = 100000;
+  private static final int SMALL_ROW_NUM = 500;
+  private static final List<String> SESSION_VARS = Arrays.asList(SessionVars.JOIN_SKEW_ENABLED.keyname(),
+      SessionVars.JOIN_SKEW_FACTOR.keyname(), SessionVars.JOIN_SKEW_THRESHOLD.keyname(),
+      SessionVars.TEST_BROADCAST_JOIN_ENABLED.keyname(), SessionVars.ADAPTIVE_EXECUTION_ENABLED.keyname());
+
+  public TestSkewedJoinQuery() {
+    super(TajoConstants.DEFAULT_DATABASE_NAME);
+  }
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    KeyValueSet tableOptions = new KeyValueSet();
+    tableOptions.set(StorageConstants.TEXT_DELIMITER, StorageConstants.DEFAULT_FIELD_DELIMITER);
+    tableOptions.set(StorageConstants.TEXT_NULL, "\\\\N");
+
+    Schema schema = new Schema();
+    schema.addColumn("k", Type.INT4);
+    schema.addColumn("v", Type.TEXT);
+
+    // 80% of rows have the key 1, and each key from 0 to 999 appears in the others
+    String[] data = new String[BIG_ROW_NUM];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = getBigKey(i) + "|skewed_big_" + i;
+    }
+    TajoTestingCluster.createTable("skewed_big", schema, tableOptions, data, 4);
+
+    data = new String[SMALL_ROW_NUM];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = i + "|skewed_small_" + i;
+    }
+    TajoTestingCluster.createTable("skewed_small", schema, tableOptions, data, 2);
+  }
+
+  @AfterClass
+  public static void tearDown() throws Exception {
+    client.executeQuery("DROP TABLE IF EXISTS skewed_big PURGE");
+    client.executeQuery("DROP TABLE IF EXISTS skewed_small PURGE");
+  }
+
+  private String executeWithSkew(String sql, boolean skewEnabled) throws Exception {
+    Map<String, String> variables = new HashMap<>();
+    variables.put(SessionVars.JOIN_SKEW_ENABLED.keyname(), String.valueOf(skewEnabled));
+    variables.put(SessionVars.JOIN_SKEW_FACTOR.keyname(), "2");
+    variables.put(SessionVars.JOIN_SKEW_THRESHOLD.keyname(), "1");
+    // both inputs are shuffled, and the plan is not changed at runtime
+    variables.put(SessionVars.TEST_BROADCAST_JOIN_ENABLED.keyname(), "false");
+    variables.put(SessionVars.ADAPTIVE_EXECUTION_ENABLED.keyname(), "false");
+    client.updateSessionVariables(variables);
+
+    try {
+      ResultSet res = executeString(sql);
+      try {
+        return resultSetToString(res, true);
+      } finally {
+        cleanupQuery(res);
+      }
+    } finally {
+      client.unsetSessionVariables(SESSION_VARS);
+    }
+  }
+
+  private void assertSkewedJoin(String sql, String expected) throws Exception {
+    assertEquals(expected, executeWithSkew(sql, false));
+    assertEquals(expected, executeWithSkew(sql, true));
+  }
+
+  private static int getBigKey(int rowId) {
+    return rowId % 5 == 0 ? (rowId / 5) % 1000 : 1;
+  }
+
+  /**
+   * @return the number of rows of skewed_big whose keys are in skewed_small
+   */
+  private static long getMatchedNum() {
+    long matched = 0;
+    for (int i = 0; i < BIG_ROW_NUM; i++) {
+      if (getBigKey(i) < SMALL_ROW_NUM) {
+        matched++;
+      }
+    }
+    return matched;
+  }
+
+  @Test
+  public final void testInnerJoin() throws Exception {
+    assertSkewedJoin("select count(*) as cnt from skewed_big b join skewed_small s on b.k = s.k",
+        "cnt\n-------------------------------\n" + getMatchedNum() + "\n");
+  }
+
+  @Test
+  public final void testLeftOuterJoin() throws Exception {
+    // the skewed side is preserved
+    assertSkewedJoin("select count(*) as cnt, count(s.k) as matched "
+        + "from skewed_big b left outer join skewed_small s on b.k = s.k",
+        "cnt,matched\n-------------------------------\n" + BIG_ROW_NUM + "," + getMatchedNum() + "\n");
+  }
+
+  @Test
+  public final void testRightOuterJoin() throws Exception {
+    // the skewed side supplies nulls, and all keys of skewed_small appear in skewed_big
+    assertSkewedJoin("select count(*) as cnt, count(b.k) as matched "
+        + "from skewed_big b right outer join skewed_small s on b.k = s.k",
+        "cnt,matched\n-------------------------------\n" + getMatchedNum() + "," + getMatchedNum() + "\n");
+  }
+
+  @Test
+  public final void testFullOuterJoin() throws Exception {
+    assertSkewedJoin("select count(*) as cnt, count(b.k) as big_num, count(s.k) as small_num "
+        + "from skewed_big b full outer join skewed_small s on b.k = s.k",
+        "cnt,big_num,small_num\n-------------------------------\n"
+            + BIG_ROW_NUM + "," + BIG_ROW_NUM + "," + getMatchedNum() + "\n");
+  }
+
+  @Test
+  public final void testGroupByJoinKey() throws Exception {
+    String sql = "select s.k, count(*) as cnt from skewed_big b left outer join skewed_small s on b.k = s.k "
+        + "where s.k is null or s.k < 3 group by s.k";
+    String expected = executeWithSkew(sql, false);
+    assertEquals(expected, executeWithSkew(sql, true));
+  }
+}
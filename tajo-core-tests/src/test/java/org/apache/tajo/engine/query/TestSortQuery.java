@@ -143,6 +143,13 @@ public class TestSortQuery extends QueryTestCaseBase {
     cleanupQuery(res);
   }
 
+  @Test
+  public final void testTopKWithUnion() throws Exception {
+    ResultSet res = executeQuery();
+    assertResultSet(res);
+    cleanupQuery(res);
+  }
+
   @Test
   public final void testSortAfterGroupby() throws Exception {
     ResultSet res = executeQuery();
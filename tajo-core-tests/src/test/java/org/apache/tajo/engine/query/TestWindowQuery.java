@@ -20,6 +20,7 @@ package org.apache.tajo.engine.query;
 
 import org.apache.tajo.IntegrationTest;
 import org.apache.tajo.QueryTestCaseBase;
+import org.apache.tajo.SessionVars;
 import org.apache.tajo.TajoConstants;
 import org.apache.tajo.TajoTestingCluster;
 import org.apache.tajo.catalog.Schema;
@@ -30,6 +31,7 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
 import java.sql.ResultSet;
+import java.util.Collections;
 
 import static org.junit.Assert.assertEquals;
 
@@ -131,6 +133,20 @@ public class TestWindowQuery extends QueryTestCaseBase {
     cleanupQuery(res);
   }
 
+  @Test
+  public final void testWindowWithRowsFrame() throws Exception {
+    ResultSet res = executeQuery();
+    assertResultSet(res);
+    cleanupQuery(res);
+  }
+
+  @Test
+  public final void testWindowWithRangeFrame() throws Exception {
+    ResultSet res = executeQuery();
+    assertResultSet(res);
+    cleanupQuery(res);
+  }
+
   @Test
   public final void testWindowBeforeLimit() throws Exception {
     ResultSet res = executeQuery();
@@ -462,4 +478,69 @@ public class TestWindowQuery extends QueryTestCaseBase {
       executeString("DROP TABLE multiwindow PURGE");
     }
   }
-}
\ No newline at end of file
+
+  private String executeWithPartitionMemoryLimit(String sql, String memoryLimitMb) throws Exception {
+    client.updateSessionVariables(
+        Collections.singletonMap(SessionVars.WINDOW_PARTITION_MEMORY_LIMIT.keyname(), memoryLimitMb));
+    try {
+      ResultSet res = executeString(sql);
+      try {
+        return resultSetToString(res);
+      } finally {
+        cleanupQuery(res);
+      }
+    } finally {
+      client.unsetSessionVariables(Collections.singletonList(SessionVars.WINDOW_PARTITION_MEMORY_LIMIT.keyname()));
+    }
+  }
+
+  @Test
+  public final void testWindowWithSpilledPartition() throws Exception {
+    KeyValueSet tableOptions = new KeyValueSet();
+    tableOptions.set(StorageConstants.TEXT_DELIMITER, StorageConstants.DEFAULT_FIELD_DELIMITER);
+    tableOptions.set(StorageConstants.TEXT_NULL, "\\\\N");
+
+    Schema schema = new Schema();
+    schema.addColumn("id", TajoDataTypes.Type.INT4);
+    schema.addColumn("g", TajoDataTypes.Type.INT4);
+    schema.addColumn("v", TajoDataTypes.Type.INT4);
+    schema.addColumn("t", TajoDataTypes.Type.TEXT);
+    // two window partitions, each of which is larger than 1 MB in memory
+    String[] data = new String[40000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = i + "|" + (i % 2) + "|" + (i % 11 == 0 ? "\\N" : String.valueOf((i * 37) % 1000))
+          + "|window_spilled_partition_value_" + ((i * 7) % 5000);
+    }
+    TajoTestingCluster.createTable("window_spill", schema, tableOptions, data, 2);
+
+    try {
+      // frames of several kinds in four different orders, and an aggregation of the whole partition
+      String sql = "select id, "
+          + "sum(v) over (partition by g order by id rows between 2 preceding and 3 following) s, "
+          + "count(*) over (partition by g order by id range between 10 preceding and current row) c, "
+          + "avg(v) over (partition by g order by id desc rows 5 preceding) a, "
+          + "max(v) over (partition by g order by id rows between 100 preceding and current row) mx, "
+          + "min(t) over (partition by g order by id rows between current row and unbounded following) mn, "
+          + "stddev_samp(v) over (partition by g order by id rows between 3 preceding and 3 following) sd, "
+          + "sum(v) over (partition by g) total, "
+          + "rank() over (partition by g order by v) r, "
+          + "row_number() over (partition by g order by t, id) rn "
+          + "from window_spill order by id";
+      // the default memory limit keeps every partition in memory
+      String expected = executeWithPartitionMemoryLimit(sql, "256");
+      assertEquals(expected, executeWithPartitionMemoryLimit(sql, "1"));
+
+      // a single partition of all rows
+      sql = "select id, "
+          + "sum(v) over (order by v range between 5 preceding and 5 following) s, "
+          + "count(v) over (order by id desc rows between unbounded preceding and current row) c, "
+          + "min(v) over (order by id rows between 10 preceding and 10 following) mn, "
+          + "count(*) over (order by g range between current row and unbounded following) cg "
+          + "from window_spill order by id";
+      expected = executeWithPartitionMemoryLimit(sql, "256");
+      assertEquals(expected, executeWithPartitionMemoryLimit(sql, "1"));
+    } finally {
+      executeString("DROP TABLE window_spill PURGE");
+    }
+  }
+}
@@ -0,0 +1,110 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.engine.util;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.engine.utils.KeyBloomFilter;
+import org.apache.tajo.plan.rewrite.rules.PartitionedTableRewriter;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestKeyBloomFilter {
+  private static final int[] KEY_IDS = new int[] {0, 2};
+
+  private static Tuple createTuple(int id, Datum name) {
+    return new VTuple(new Datum[] {DatumFactory.createInt4(id), DatumFactory.createText("value"), name});
+  }
+
+  private static Tuple createTuple(int id) {
+    return createTuple(id, DatumFactory.createText("name_" + (id % 10)));
+  }
+
+  @Test
+  public final void testMightContain() {
+    KeyBloomFilter filter = new KeyBloomFilter(64 * 1024);
+    for (int i = 0; i < 1000; i++) {
+      filter.add(createTuple(i * 2), KEY_IDS);
+    }
+
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(filter.mightContain(createTuple(i * 2), KEY_IDS));
+    }
+
+    int falsePositives = 0;
+    for (int i = 0; i < 1000; i++) {
+      if (filter.mightContain(createTuple(i * 2 + 1), KEY_IDS)) {
+        falsePositives++;
+      }
+    }
+    assertTrue("false positives: " + falsePositives, falsePositives < 50);
+  }
+
+  @Test
+  public final void testNullKey() {
+    KeyBloomFilter filter = new KeyBloomFilter(1024);
+    filter.add(createTuple(1, NullDatum.get()), KEY_IDS);
+    assertEquals(0.0, filter.getFillRatio(), 0.0);
+    assertFalse(filter.mightContain(createTuple(1, NullDatum.get()), KEY_IDS));
+  }
+
+  @Test
+  public final void testPartitionKey() {
+    KeyBloomFilter filter = new KeyBloomFilter(1024);
+    filter.add(createTuple(7, DatumFactory.createText("name_7")), KEY_IDS);
+
+    // partition keys parsed from paths are matched to the keys of rows
+    Schema partitionSchema = new Schema(new Column[] {
+        new Column("name", Type.TEXT), new Column("id", Type.INT4)});
+    int[] partitionKeyIds = new int[] {1, 0};
+    Tuple matched = PartitionedTableRewriter.buildTupleFromPartitionPath(partitionSchema,
+        new Path("hdfs://localhost:8020/warehouse/t/name=name_7/id=7"), false);
+    Tuple unmatched = PartitionedTableRewriter.buildTupleFromPartitionPath(partitionSchema,
+        new Path("hdfs://localhost:8020/warehouse/t/name=name_8/id=8"), false);
+    assertTrue(filter.mightContain(matched, partitionKeyIds));
+    assertFalse(filter.mightContain(unmatched, partitionKeyIds));
+  }
+
+  @Test
+  public final void testMergeAndSerialize() {
+    KeyBloomFilter filter1 = new KeyBloomFilter(1000);
+    KeyBloomFilter filter2 = new KeyBloomFilter(1000);
+    assertEquals(1024, filter1.getNumBits());
+    for (int i = 0; i < 100; i++) {
+      (i % 2 == 0 ? filter1 : filter2).add(createTuple(i), KEY_IDS);
+    }
+
+    filter1.merge(filter2);
+    KeyBloomFilter deserialized = new KeyBloomFilter(filter1.toBytes());
+    assertEquals(filter1.getNumBits(), deserialized.getNumBits());
+    assertEquals(filter1.getFillRatio(), deserialized.getFillRatio(), 0.0);
+    for (int i = 0; i < 100; i++) {
+      assertTrue(deserialized.mightContain(createTuple(i), KEY_IDS));
+    }
+  }
+}
@@ -497,6 +497,97 @@ public class TestRepartitioner {
     assertNotEquals(expected, fetch2);
   }
 
+  @Test
+  public void testGroupFetchesByPullServer() {
+    ExecutionBlockId ebId = new ExecutionBlockId(LocalTajoTestingUtility.newQueryId(), 1);
+    Task.PullHost host1 = new Task.PullHost("tajo1", 1234);
+    Task.PullHost host2 = new Task.PullHost("tajo2", 1234);
+
+    List<FetchProto> fetches = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      fetches.add(new FetchImpl("name", host1, HASH_SHUFFLE, ebId, i).getProto());
+      fetches.add(new FetchImpl("name", host2, HASH_SHUFFLE, ebId, i).getProto());
+    }
+    // a ranged fetch is not merged
+    FetchImpl ranged = new FetchImpl("name", host1, HASH_SHUFFLE, ebId, 10);
+    ranged.setOffset(0);
+    ranged.setLength(100);
+    fetches.add(ranged.getProto());
+
+    List<List<FetchProto>> groups = Repartitioner.groupFetchesByPullServer(fetches, 3);
+    // host1: [0, 1, 2], [3, 4], host2: [0, 1, 2], [3, 4], and the ranged one
+    assertEquals(5, groups.size());
+    int partitionNum = 0;
+    for (List<FetchProto> group : groups) {
+      assertTrue(group.size() <= 3);
+      for (FetchProto fetch : group) {
+        assertEquals(group.get(0).getHost(), fetch.getHost());
+      }
+      partitionNum += group.size();
+    }
+    assertEquals(fetches.size(), partitionNum);
+
+    List<URI> uris = Repartitioner.createBatchedURIs(1024, groups.get(0));
+    assertEquals(1, uris.size());
+    Map<String, List<String>> params = new QueryStringDecoder(uris.get(0)).parameters();
+    assertEquals("0,1,2", params.get("p").get(0));
+    assertEquals("h", params.get("type").get(0));
+    assertEquals("" + ebId.getId(), params.get("sid").get(0));
+
+    // a long request is divided
+    uris = Repartitioner.createBatchedURIs(uris.get(0).toString().length() - 2, groups.get(0));
+    assertEquals(2, uris.size());
+
+    // no merge
+    assertEquals(fetches.size(), Repartitioner.groupFetchesByPullServer(fetches, 1).size());
+  }
+
+  @Test
+  public void testFindSkewedPartitions() {
+    long mb = StorageUnit.MB;
+    Map<Integer, Long> volumes = new HashMap<>();
+    for (int i = 0; i < 10; i++) {
+      volumes.put(i, 100 * mb);
+    }
+    volumes.put(10, 300 * mb);
+    volumes.put(11, 2000 * mb);
+
+    // larger than 4 times the median
+    assertEquals(Sets.newHashSet(11), Repartitioner.findSkewedPartitions(volumes, 4.0f, 256 * mb));
+    assertEquals(Sets.newHashSet(10, 11), Repartitioner.findSkewedPartitions(volumes, 2.0f, 256 * mb));
+
+    // smaller than the threshold
+    assertTrue(Repartitioner.findSkewedPartitions(volumes, 4.0f, 4096 * mb).isEmpty());
+
+    // a single partition cannot be skewed
+    Map<Integer, Long> single = new HashMap<>();
+    single.put(0, 2000 * mb);
+    assertTrue(Repartitioner.findSkewedPartitions(single, 4.0f, 256 * mb).isEmpty());
+  }
+
+  @Test
+  public void testCoalescePartitions() {
+    long mb = StorageUnit.MB;
+    SortedMap<Integer, Long> volumes = new TreeMap<>();
+    volumes.put(0, 10 * mb);
+    volumes.put(1, 20 * mb);
+    volumes.put(3, 40 * mb);
+    volumes.put(4, 100 * mb);
+    volumes.put(5, 0L);
+    volumes.put(7, 30 * mb);
+
+    List<List<Integer>> groups = Repartitioner.coalescePartitions(volumes, 64 * mb);
+    assertEquals(4, groups.size());
+    assertEquals(Arrays.asList(0, 1), groups.get(0));
+    assertEquals(Arrays.asList(3), groups.get(1));
+    // a large partition is not split
+    assertEquals(Arrays.asList(4), groups.get(2));
+    assertEquals(Arrays.asList(5, 7), groups.get(3));
+
+    // no coalescing
+    assertEquals(volumes.size(), Repartitioner.coalescePartitions(volumes, 0).size());
+  }
+
   private static void assertFetchProto(FetchProto [] expected, Map<String, List<FetchProto>>[] result) {
     Set<FetchProto> expectedURLs = Sets.newHashSet();
 
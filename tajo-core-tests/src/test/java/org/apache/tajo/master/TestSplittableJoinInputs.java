@@ -0,0 +1,182 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.master;
+
+import com.google.common.collect.Sets;
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.LocalTajoTestingUtility;
+import org.apache.tajo.TajoTestingCluster;
+import org.apache.tajo.benchmark.TPCH;
+import org.apache.tajo.catalog.CatalogService;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.TableDesc;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.engine.planner.global.ExecutionBlock;
+import org.apache.tajo.engine.planner.global.ExecutionBlockCursor;
+import org.apache.tajo.engine.planner.global.GlobalPlanner;
+import org.apache.tajo.engine.planner.global.MasterPlan;
+import org.apache.tajo.engine.query.QueryContext;
+import org.apache.tajo.parser.sql.SQLAnalyzer;
+import org.apache.tajo.plan.LogicalOptimizer;
+import org.apache.tajo.plan.LogicalPlan;
+import org.apache.tajo.plan.LogicalPlanner;
+import org.apache.tajo.plan.logical.NodeType;
+import org.apache.tajo.plan.logical.ScanNode;
+import org.apache.tajo.plan.util.PlannerUtil;
+import org.apache.tajo.querymaster.Repartitioner;
+import org.apache.tajo.storage.TablespaceManager;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.apache.tajo.TajoConstants.DEFAULT_DATABASE_NAME;
+import static org.apache.tajo.TajoConstants.DEFAULT_TABLESPACE_NAME;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class TestSplittableJoinInputs {
+  private static TajoTestingCluster util;
+  private static TajoConf conf;
+  private static CatalogService catalog;
+  private static GlobalPlanner planner;
+  private static SQLAnalyzer analyzer;
+  private static LogicalPlanner logicalPlanner;
+  private static LogicalOptimizer optimizer;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    util = new TajoTestingCluster();
+    util.startCatalogCluster();
+
+    conf = util.getConfiguration();
+    conf.set(TajoConf.ConfVars.$TEST_BROADCAST_JOIN_ENABLED.varname, "false");
+
+    catalog = util.getCatalogService();
+    catalog.createTablespace(DEFAULT_TABLESPACE_NAME, "hdfs://localhost:1234/warehouse");
+    catalog.createDatabase(DEFAULT_DATABASE_NAME, DEFAULT_TABLESPACE_NAME);
+    TPCH tpch = new TPCH();
+    tpch.loadSchemas();
+    tpch.loadOutSchema();
+    for (String table : tpch.getTableNames()) {
+      TableMeta m = CatalogUtil.newTableMeta("TEXT");
+      TableDesc d = CatalogUtil.newTableDesc(CatalogUtil.buildFQName(DEFAULT_DATABASE_NAME, table),
+          tpch.getSchema(table), m, CommonTestingUtil.getTestDir());
+      TableStats stats = new TableStats();
+      stats.setNumBytes(TPCH.tableVolumes.get(table));
+      d.setStats(stats);
+      catalog.createTable(d);
+    }
+
+    analyzer = new SQLAnalyzer();
+    logicalPlanner = new LogicalPlanner(catalog, TablespaceManager.getInstance());
+    optimizer = new LogicalOptimizer(conf, catalog, TablespaceManager.getInstance());
+    planner = new GlobalPlanner(conf, catalog);
+  }
+
+  @AfterClass
+  public static void tearDown() {
+    util.shutdownCatalogCluster();
+  }
+
+  private LogicalPlan createLogicalPlan(String sql) throws Exception {
+    LogicalPlan logicalPlan = logicalPlanner.createPlan(LocalTajoTestingUtility.createDummyContext(conf),
+        analyzer.parse(sql));
+    optimizer.optimize(logicalPlan);
+    return logicalPlan;
+  }
+
+  /**
+   * @return the simple names of the tables whose intermediate data can be split in the join block
+   */
+  private Set<String> getSplittableTables(String sql) throws Exception {
+    QueryContext queryContext = new QueryContext(conf);
+    MasterPlan plan = new MasterPlan(LocalTajoTestingUtility.newQueryId(), queryContext, createLogicalPlan(sql));
+    planner.build(queryContext, plan);
+
+    ExecutionBlock joinBlock = null;
+    for (ExecutionBlock eachBlock : new ExecutionBlockCursor(plan)) {
+      if (eachBlock.getPlan() != null && PlannerUtil.findTopNode(eachBlock.getPlan(), NodeType.JOIN) != null) {
+        joinBlock = eachBlock;
+      }
+    }
+    assertNotNull(joinBlock);
+    assertEquals(2, plan.getChilds(joinBlock).size());
+
+    Set<String> tableNames = new HashSet<>();
+    Set<ExecutionBlockId> splittable = Repartitioner.getSplittableJoinInputs(plan, joinBlock);
+    for (ExecutionBlock eachChild : plan.getChilds(joinBlock)) {
+      if (splittable.contains(eachChild.getId())) {
+        ScanNode scan = PlannerUtil.findTopNode(eachChild.getPlan(), NodeType.SCAN);
+        tableNames.add(CatalogUtil.extractSimpleName(scan.getTableName()));
+      }
+    }
+    return tableNames;
+  }
+
+  @Test
+  public void testInnerJoin() throws Exception {
+    assertEquals(Sets.newHashSet("lineitem", "orders"),
+        getSplittableTables("select l_orderkey, o_orderdate from lineitem join orders on l_orderkey = o_orderkey"));
+  }
+
+  @Test
+  public void testOuterJoins() throws Exception {
+    // the null-supplying side is never split
+    assertEquals(Sets.newHashSet("lineitem"), getSplittableTables(
+        "select l_orderkey, o_orderdate from lineitem left outer join orders on l_orderkey = o_orderkey"));
+    assertEquals(Sets.newHashSet("orders"), getSplittableTables(
+        "select l_orderkey, o_orderdate from lineitem right outer join orders on l_orderkey = o_orderkey"));
+    assertEquals(Sets.newHashSet(), getSplittableTables(
+        "select l_orderkey, o_orderdate from lineitem full outer join orders on l_orderkey = o_orderkey"));
+  }
+
+  @Test
+  public void testAggregation() throws Exception {
+    String sql = "select l_orderkey, count(*) from lineitem join orders on l_orderkey = o_orderkey group by l_orderkey";
+
+    // the join block only aggregates partially, and the aggregation is finished by the next block
+    assertEquals(Sets.newHashSet("lineitem", "orders"), getSplittableTables(sql));
+
+    // an aggregation finished in the same block needs all rows of a group
+    LogicalPlan logicalPlan = createLogicalPlan(sql);
+    Set<String> tableNames = new HashSet<>();
+    Repartitioner.collectSplittableScans(logicalPlan.getRootBlock().getRoot(), true, false, tableNames);
+    assertEquals(Sets.newHashSet(), tableNames);
+
+    tableNames.clear();
+    Repartitioner.collectSplittableScans(logicalPlan.getRootBlock().getRoot(), true, true, tableNames);
+    assertEquals(Sets.newHashSet("lineitem", "orders"), tableNames);
+  }
+
+  @Test
+  public void testNestedOuterJoin() throws Exception {
+    // orders and lineitem are on the null-supplying sides of the lower and upper joins respectively
+    LogicalPlan logicalPlan = createLogicalPlan("select l_orderkey, o_orderdate, c_name from customer "
+        + "left outer join orders on c_custkey = o_custkey left outer join lineitem on o_orderkey = l_orderkey");
+    Set<String> tableNames = new HashSet<>();
+    Repartitioner.collectSplittableScans(logicalPlan.getRootBlock().getRoot(), true, true, tableNames);
+    assertEquals(Sets.newHashSet("customer"), tableNames);
+  }
+}
@@ -27,7 +27,11 @@ import org.antlr.v4.runtime.CommonTokenStream;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.tajo.algebra.AnalyzeTable;
 import org.apache.tajo.algebra.Expr;
+import org.apache.tajo.algebra.OpType;
+import org.apache.tajo.algebra.Projection;
+import org.apache.tajo.algebra.Relation;
 import org.apache.tajo.annotation.Nullable;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.exception.SQLSyntaxError;
@@ -217,6 +221,25 @@ public class TestSQLAnalyzer {
     return visitor.visitValue_expression(context);
   }
 
+  @Test
+  public void testAnalyzeTable() {
+    Expr expr = parseQuery("ANALYZE TABLE db1.table1");
+    assertEquals(OpType.AnalyzeTable, expr.getType());
+    AnalyzeTable analyzeTable = (AnalyzeTable) expr;
+    assertEquals("db1.table1", analyzeTable.getTableName());
+
+    // all columns of the table are scanned
+    assertEquals(OpType.Projection, analyzeTable.getChild().getType());
+    Projection projection = (Projection) analyzeTable.getChild();
+    assertEquals(1, projection.size());
+    assertEquals(OpType.Asterisk, projection.getNamedExprs().get(0).getExpr().getType());
+    assertEquals(OpType.Relation, projection.getChild().getType());
+    assertEquals("db1.table1", ((Relation) projection.getChild()).getName());
+
+    // ANALYZE is not a reserved keyword
+    assertNotNull(parseQuery("SELECT analyze FROM table1"));
+  }
+
   /**
    * In order to add more unit tests, add text files including SQL expressions
    * into the directory resources/queries/TestSQLAnalyzer/exprs.
@@ -33,7 +33,9 @@ import org.junit.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.URI;
+import java.util.List;
 import java.util.Random;
 
 import static org.junit.Assert.*;
@@ -53,6 +55,8 @@ public class TestFetcher {
     conf.setVar(TajoConf.ConfVars.WORKER_TEMPORAL_DIR, INPUT_DIR);
     conf.setIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_READ_TIMEOUT, 1);
     conf.setIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_CHUNK_MAX_SIZE, 127);
+    // the pool is shared in a JVM, so connections left by other tests are discarded
+    FetcherConnectionPool.shutdown();
 
     pullServerService = new TajoPullServerService();
     pullServerService.init(conf);
@@ -61,6 +65,7 @@ public class TestFetcher {
 
   @After
   public void tearDown(){
+    FetcherConnectionPool.shutdown();
     pullServerService.stop();
   }
 
@@ -142,6 +147,79 @@ public class TestFetcher {
     assertEquals(TajoProtos.FetcherState.FETCH_FINISHED, fetcher.getState());
   }
 
+  private long writeHashShuffleFile(QueryId queryId, String sid, int partId, int len) throws IOException {
+    int partParentId = HashShuffleAppenderManager.getPartParentId(partId, conf);
+    String dataPath = conf.getVar(ConfVars.WORKER_TEMPORAL_DIR) +
+        queryId.toString() + "/output/" + sid + "/hash-shuffle/" + partParentId + "/" + partId;
+
+    Random rnd = new Random();
+    FSDataOutputStream stream = FileSystem.getLocal(conf).create(new Path(dataPath), true);
+    byte[] data = new byte[len];
+    rnd.nextBytes(data);
+    stream.write(data);
+    stream.close();
+    return len;
+  }
+
+  @Test
+  public void testGetMultiplePartitions() throws IOException {
+    QueryId queryId = QueryIdFactory.NULL_QUERY_ID;
+    String sid = "1";
+    long len1 = writeHashShuffleFile(queryId, sid, 1, 1000);
+    long len3 = writeHashShuffleFile(queryId, sid, 3, 300);
+
+    // partition 2 does not exist, and it is skipped
+    String params = String.format("qid=%s&sid=%s&p=%s&type=%s", queryId, sid, "1,2,3", "h");
+    URI uri = URI.create("http://127.0.0.1:" + pullServerService.getPort() + "/?" + params);
+    FileChunk storeChunk = new FileChunk(new File(OUTPUT_DIR + "data"), 0, 0);
+    storeChunk.setFromRemote(true);
+    final Fetcher fetcher = new Fetcher(conf, uri, storeChunk);
+    List<FileChunk> chunks = fetcher.get();
+
+    assertEquals(TajoProtos.FetcherState.FETCH_FINISHED, fetcher.getState());
+    assertEquals(2, chunks.size());
+    assertEquals(0, chunks.get(0).startOffset());
+    assertEquals(len1, chunks.get(0).length());
+    assertEquals(len1, chunks.get(1).startOffset());
+    assertEquals(len3, chunks.get(1).length());
+    assertEquals(len1 + len3, new File(OUTPUT_DIR + "data").length());
+  }
+
+  @Test
+  public void testConnectionReuse() throws IOException {
+    QueryId queryId = QueryIdFactory.NULL_QUERY_ID;
+    String sid = "1";
+    writeHashShuffleFile(queryId, sid, 1, 1000);
+
+    InetSocketAddress address = new InetSocketAddress("127.0.0.1", pullServerService.getPort());
+    FetcherConnectionPool pool = FetcherConnectionPool.getInstance(conf);
+    assertEquals(0, pool.getIdleNum(address));
+
+    String params = String.format("qid=%s&sid=%s&p=%s&type=%s", queryId, sid, "1", "h");
+    URI uri = URI.create("http://127.0.0.1:" + pullServerService.getPort() + "/?" + params);
+    for (int i = 0; i < 3; i++) {
+      FileChunk storeChunk = new FileChunk(new File(OUTPUT_DIR + "data_" + i), 0, 0);
+      storeChunk.setFromRemote(true);
+      Fetcher fetcher = new Fetcher(conf, uri, storeChunk);
+      fetcher.get();
+      assertEquals(TajoProtos.FetcherState.FETCH_FINISHED, fetcher.getState());
+      assertEquals(1000, new File(OUTPUT_DIR + "data_" + i).length());
+
+      // the same connection is returned to the pool
+      assertEquals(1, pool.getIdleNum(address));
+    }
+
+    // a missing partition is responded without closing the connection
+    params = String.format("qid=%s&sid=%s&p=%s&type=%s", queryId, sid, "5", "h");
+    uri = URI.create("http://127.0.0.1:" + pullServerService.getPort() + "/?" + params);
+    FileChunk storeChunk = new FileChunk(new File(OUTPUT_DIR + "data"), 0, 0);
+    storeChunk.setFromRemote(true);
+    Fetcher fetcher = new Fetcher(conf, uri, storeChunk);
+    assertTrue(fetcher.get().isEmpty());
+    assertEquals(TajoProtos.FetcherState.FETCH_FINISHED, fetcher.getState());
+    assertEquals(1, pool.getIdleNum(address));
+  }
+
   @Test
   public void testNoContentFetch() throws Exception {
 
@@ -0,0 +1,222 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.worker;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.HttpClientCodec;
+import org.apache.tajo.BuiltinStorages;
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.QueryIdFactory;
+import org.apache.tajo.TajoTestingCluster;
+import org.apache.tajo.TaskAttemptId;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.pullserver.TajoPullServerService;
+import org.apache.tajo.rpc.NettyUtils;
+import org.apache.tajo.storage.HashShuffleAppenderManager;
+import org.apache.tajo.storage.HashShuffleAppenderManager.HashShuffleIntermediate;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.tuple.memory.MemoryRowBlock;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.apache.tajo.util.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class TestHashShufflePusher {
+  private String TEST_DATA = TajoTestingCluster.DEFAULT_TEST_DIRECTORY + "/TestHashShufflePusher";
+  private String INPUT_DIR = TEST_DATA + "/in/";
+  private TajoConf conf = new TajoConf();
+  private TajoPullServerService pullServerService;
+  private HashShuffleAppenderManager appenderManager;
+  private static final DataType[] DATA_TYPES = new DataType[] {
+      DataType.newBuilder().setType(Type.INT4).build(), DataType.newBuilder().setType(Type.TEXT).build()};
+
+  @Before
+  public void setUp() throws Exception {
+    CommonTestingUtil.getTestDir(TEST_DATA);
+    CommonTestingUtil.getTestDir(INPUT_DIR);
+    conf.setVar(ConfVars.WORKER_TEMPORAL_DIR, INPUT_DIR);
+
+    pullServerService = new TajoPullServerService();
+    pullServerService.init(conf);
+    pullServerService.start();
+    appenderManager = new HashShuffleAppenderManager(conf);
+  }
+
+  @After
+  public void tearDown() {
+    FetcherConnectionPool.shutdown();
+    appenderManager.shutdown();
+    pullServerService.stop();
+  }
+
+  private MemoryRowBlock createRowBlock(int start, int num) {
+    MemoryRowBlock rowBlock = new MemoryRowBlock(DATA_TYPES, 4096, true, BuiltinStorages.RAW);
+    for (int i = start; i < start + num; i++) {
+      rowBlock.getWriter().addTuple(new VTuple(new Datum[] {
+          DatumFactory.createInt4(i), DatumFactory.createText("row_" + i)}));
+    }
+    return rowBlock;
+  }
+
+  private static byte[] getBytes(MemoryRowBlock rowBlock) {
+    byte[] bytes = new byte[rowBlock.getMemory().readableBytes()];
+    rowBlock.getMemory().getBuffer().getBytes(rowBlock.getMemory().readerPosition(), bytes);
+    return bytes;
+  }
+
+  @Test
+  public void testPush() throws Exception {
+    ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(QueryIdFactory.NULL_QUERY_ID, 1);
+    TaskAttemptId succeeded = QueryIdFactory.newTaskAttemptId(QueryIdFactory.newTaskId(ebId, 1), 0);
+    TaskAttemptId failed = QueryIdFactory.newTaskAttemptId(QueryIdFactory.newTaskId(ebId, 2), 0);
+    String pullHost = "127.0.0.1:" + pullServerService.getPort();
+    HashShufflePusher pusher = HashShufflePusher.getInstance(conf);
+    TableMeta meta = CatalogUtil.newTableMeta(BuiltinStorages.RAW);
+
+    // partId -> pushed bytes of each block
+    Map<Integer, List<byte[]>> pushed = new HashMap<>();
+    List<Future<Long>> futures = new ArrayList<>();
+    int rowId = 0;
+    for (int i = 0; i < 5; i++) {
+      for (int partId = 1; partId <= 2; partId++) {
+        MemoryRowBlock rowBlock = createRowBlock(rowId, 10 + i);
+        rowId += 10 + i;
+        if (!pushed.containsKey(partId)) {
+          pushed.put(partId, new ArrayList<>());
+        }
+        pushed.get(partId).add(getBytes(rowBlock));
+        futures.add(pusher.push(appenderManager, meta, i % 2 == 0 ? succeeded : failed, pullHost, partId, rowBlock,
+            true));
+      }
+    }
+    for (Future<Long> future : futures) {
+      future.get();
+    }
+    appenderManager.finalizeTask(succeeded);
+
+    List<HashShuffleIntermediate> intermediates = appenderManager.close(ebId);
+    assertEquals(2, intermediates.size());
+
+    for (HashShuffleIntermediate intermediate : intermediates) {
+      int partId = intermediate.getPartId();
+      assertEquals(pullHost, intermediate.getPullHost());
+
+      int partParentId = HashShuffleAppenderManager.getPartParentId(partId, conf);
+      File file = new File(INPUT_DIR + ebId.getQueryId().toString() + "/output/" + ebId.getId() + "/hash-shuffle/"
+          + partParentId + "/" + partId);
+      byte[] fileBytes = Files.readAllBytes(file.toPath());
+      assertEquals(fileBytes.length, intermediate.getVolume());
+
+      // each push is appended to the file as a page at the returned position
+      Set<byte[]> pages = new HashSet<>();
+      long totalLength = 0;
+      for (Pair<Long, Integer> page : intermediate.getPages()) {
+        int pos = page.getFirst().intValue();
+        pages.add(Arrays.copyOfRange(fileBytes, pos, pos + page.getSecond()));
+        totalLength += page.getSecond();
+      }
+      assertEquals(fileBytes.length, totalLength);
+
+      List<byte[]> expected = pushed.get(partId);
+      assertEquals(expected.size(), pages.size());
+      for (byte[] eachExpected : expected) {
+        boolean found = false;
+        for (byte[] page : pages) {
+          found |= Arrays.equals(eachExpected, page);
+        }
+        assertTrue(found);
+      }
+
+      // the pages of the unfinished task remain as failures
+      assertEquals(2, intermediate.getFailureTskTupleIndexes().size());
+    }
+  }
+
+  @Test
+  public void testRetryOnStaleConnection() throws Exception {
+    ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(QueryIdFactory.NULL_QUERY_ID, 2);
+    TaskAttemptId taskId = QueryIdFactory.newTaskAttemptId(QueryIdFactory.newTaskId(ebId, 1), 0);
+    String pullHost = "127.0.0.1:" + pullServerService.getPort();
+    InetSocketAddress address = new InetSocketAddress("127.0.0.1", pullServerService.getPort());
+
+    // a server which closes a connection after receiving a request, like a pull server closing an idle connection
+    try (final ServerSocket staleServer = new ServerSocket(0)) {
+      Thread acceptor = new Thread(() -> {
+        try (Socket socket = staleServer.accept()) {
+          socket.getInputStream().read(new byte[1024]);
+        } catch (IOException e) {
+          // ignore
+        }
+      });
+      acceptor.start();
+
+      // a pooled connection of the pull server address is actually connected to the stale server
+      Channel staleChannel = new Bootstrap()
+          .group(NettyUtils.getSharedEventLoopGroup(NettyUtils.GROUP.FETCHER, 1))
+          .channel(NioSocketChannel.class)
+          .handler(new ChannelInitializer<Channel>() {
+            @Override
+            protected void initChannel(Channel channel) throws Exception {
+              channel.pipeline().addLast("codec", new HttpClientCodec());
+            }
+          })
+          .connect("127.0.0.1", staleServer.getLocalPort()).sync().channel();
+      FetcherConnectionPool.getInstance(conf).release(address, staleChannel);
+
+      MemoryRowBlock rowBlock = createRowBlock(0, 10);
+      byte[] expected = getBytes(rowBlock);
+      HashShufflePusher.getInstance(conf).push(appenderManager, CatalogUtil.newTableMeta(BuiltinStorages.RAW), taskId,
+          pullHost, 1, rowBlock, true).get();
+      acceptor.join();
+      appenderManager.finalizeTask(taskId);
+
+      // the page is pushed once over a new connection
+      List<HashShuffleIntermediate> intermediates = appenderManager.close(ebId);
+      assertEquals(1, intermediates.size());
+      assertEquals(1, intermediates.get(0).getPages().size());
+      int partParentId = HashShuffleAppenderManager.getPartParentId(1, conf);
+      File file = new File(INPUT_DIR + ebId.getQueryId().toString() + "/output/" + ebId.getId() + "/hash-shuffle/"
+          + partParentId + "/1");
+      assertArrayEquals(expected, Files.readAllBytes(file.toPath()));
+    }
+  }
+}
@@ -0,0 +1,167 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.worker;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.BuiltinStorages;
+import org.apache.tajo.TajoTestingCluster;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.pullserver.retriever.FileChunk;
+import org.apache.tajo.storage.*;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class TestShuffleStreamScanner {
+  private final String TEST_PATH = TajoTestingCluster.DEFAULT_TEST_DIRECTORY + "/TestShuffleStreamScanner";
+  private static final int NUM_TUPLES = 1000;
+
+  private TajoConf conf;
+  private Schema schema;
+  private TableMeta meta;
+  private File dataFile;
+
+  @Before
+  public void setUp() throws Exception {
+    conf = new TajoConf();
+    Path testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+
+    schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("name", Type.TEXT);
+    meta = CatalogUtil.newTableMeta(BuiltinStorages.RAW);
+
+    Path dataPath = new Path(testDir, "data.raw");
+    Appender appender = ((FileTablespace) TablespaceManager.getLocalFs()).getAppender(meta, schema, dataPath);
+    appender.init();
+    VTuple tuple = new VTuple(schema.size());
+    for (int i = 0; i < NUM_TUPLES; i++) {
+      tuple.put(0, DatumFactory.createInt4(i));
+      tuple.put(1, DatumFactory.createText("name_" + i));
+      appender.addTuple(tuple);
+    }
+    appender.close();
+    dataFile = new File(dataPath.toUri());
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    CommonTestingUtil.cleanupTestDir(TEST_PATH);
+  }
+
+  @Test
+  public void testScanMemoryAndFileSegments() throws Exception {
+    ShuffleDataStream stream = new ShuffleDataStream("default.t1", dataFile.length());
+    stream.addFetch();
+    stream.addFetch();
+    stream.finishRegistration();
+    assertEquals(2, stream.getFetchNum());
+
+    // the first response is kept in memory, and the second one is spilled
+    ByteBuf buffer = Unpooled.wrappedBuffer(Files.readAllBytes(dataFile.toPath()));
+    assertTrue(stream.reserve(buffer.readableBytes()));
+    assertFalse(stream.reserve(1));
+    stream.addBuffer(buffer);
+    stream.finishFetch();
+    stream.addFile(new FileChunk(dataFile, 0, dataFile.length()));
+    stream.finishFetch();
+    assertEquals(1.0f, stream.getProgress(), 0);
+
+    ShuffleStreamScanner scanner = new ShuffleStreamScanner(conf, schema, meta, stream);
+    scanner.init();
+    int[] counts = new int[NUM_TUPLES];
+    int rows = 0;
+    Tuple tuple;
+    while ((tuple = scanner.next()) != null) {
+      counts[tuple.getInt4(0)]++;
+      assertEquals("name_" + tuple.getInt4(0), tuple.getText(1));
+      rows++;
+    }
+    scanner.close();
+
+    assertEquals(NUM_TUPLES * 2, rows);
+    for (int count : counts) {
+      assertEquals(2, count);
+    }
+    assertEquals(NUM_TUPLES * 2, scanner.getInputStats().getNumRows().longValue());
+    assertEquals(0, stream.getUsedMemory());
+    assertEquals(0, buffer.refCnt());
+  }
+
+  @Test
+  public void testFailedFetch() throws Exception {
+    ShuffleDataStream stream = new ShuffleDataStream("default.t1", dataFile.length());
+    stream.addFetch();
+    stream.addFetch();
+    stream.finishRegistration();
+    stream.addFile(new FileChunk(dataFile, 0, dataFile.length()));
+    stream.finishFetch();
+    stream.fail();
+
+    ShuffleStreamScanner scanner = new ShuffleStreamScanner(conf, schema, meta, stream);
+    scanner.init();
+    int rows = 0;
+    try {
+      while (scanner.next() != null) {
+        rows++;
+      }
+      fail("A failed fetch must not be read as the end of data");
+    } catch (IOException e) {
+      assertEquals(NUM_TUPLES, rows);
+    } finally {
+      scanner.close();
+    }
+  }
+
+  @Test
+  public void testCloseReleasesBuffers() throws Exception {
+    ShuffleDataStream stream = new ShuffleDataStream("default.t1", dataFile.length());
+    stream.addFetch();
+    stream.finishRegistration();
+
+    ByteBuf buffer = Unpooled.wrappedBuffer(Files.readAllBytes(dataFile.toPath()));
+    assertTrue(stream.reserve(buffer.readableBytes()));
+    stream.addBuffer(buffer);
+    stream.close();
+    assertEquals(0, buffer.refCnt());
+    assertEquals(0, stream.getUsedMemory());
+
+    // data arriving after close are dropped
+    ByteBuf late = Unpooled.wrappedBuffer(new byte[16]);
+    assertTrue(stream.reserve(late.readableBytes()));
+    stream.addBuffer(late);
+    assertEquals(0, late.refCnt());
+    assertEquals(0, stream.getUsedMemory());
+  }
+}
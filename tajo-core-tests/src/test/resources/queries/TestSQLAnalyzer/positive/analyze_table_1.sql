@@ -0,0 +1 @@
+ANALYZE TABLE table1
\ No newline at end of file
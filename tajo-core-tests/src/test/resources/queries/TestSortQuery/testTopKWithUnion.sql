@@ -0,0 +1,5 @@
+select l_orderkey, l_linenumber from (
+  select l_orderkey, l_linenumber from lineitem
+  union all
+  select l_orderkey, l_linenumber from lineitem
+) t order by l_orderkey desc, l_linenumber desc limit 3;
\ No newline at end of file
@@ -0,0 +1,8 @@
+SELECT
+  l_orderkey,
+  l_quantity,
+  sum(l_quantity) OVER (ORDER BY l_quantity RANGE BETWEEN 5 PRECEDING AND 5 FOLLOWING) s,
+  count(*) OVER (ORDER BY l_quantity RANGE BETWEEN CURRENT ROW AND 10 FOLLOWING) c,
+  max(l_orderkey) OVER (ORDER BY l_quantity RANGE 10 PRECEDING) m
+FROM
+  LINEITEM;
\ No newline at end of file
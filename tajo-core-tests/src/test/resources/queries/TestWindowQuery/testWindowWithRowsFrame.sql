@@ -0,0 +1,10 @@
+SELECT
+  l_orderkey,
+  l_suppkey,
+  sum(l_partkey) OVER (ORDER BY l_orderkey, l_suppkey ROWS BETWEEN 1 PRECEDING AND 1 FOLLOWING) s,
+  count(*) OVER (ORDER BY l_orderkey, l_suppkey ROWS 1 PRECEDING) c,
+  avg(l_quantity) OVER (ORDER BY l_orderkey, l_suppkey ROWS BETWEEN 1 PRECEDING AND CURRENT ROW) a,
+  max(l_quantity) OVER (ORDER BY l_orderkey, l_suppkey ROWS BETWEEN 2 PRECEDING AND CURRENT ROW) m1,
+  min(l_linenumber) OVER (ORDER BY l_orderkey, l_suppkey ROWS BETWEEN CURRENT ROW AND UNBOUNDED FOLLOWING) m2
+FROM
+  LINEITEM;
\ No newline at end of file
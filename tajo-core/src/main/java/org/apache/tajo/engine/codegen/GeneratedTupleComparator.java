@@ -0,0 +1,51 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.codegen;
+
+import org.apache.tajo.index.IndexProtos.TupleComparatorProto;
+import org.apache.tajo.storage.BaseTupleComparator;
+import org.apache.tajo.storage.TupleComparator;
+
+/**
+ * The base class of {@link TupleComparator}s generated by {@link TupleComparatorCompiler}.
+ * A generated comparator compares sort keys by the primitive getters of tuples. The other methods are
+ * delegated to the {@link BaseTupleComparator} of the same sort keys.
+ */
+public abstract class GeneratedTupleComparator extends TupleComparator {
+  private BaseTupleComparator base;
+
+  public void setBase(BaseTupleComparator base) {
+    this.base = base;
+  }
+
+  @Override
+  public boolean isAscendingFirstKey() {
+    return base.isAscendingFirstKey();
+  }
+
+  @Override
+  public TupleComparatorProto getProto() {
+    return base.getProto();
+  }
+
+  @Override
+  public String toString() {
+    return "Compiled(" + base + ")";
+  }
+}
@@ -0,0 +1,41 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.codegen;
+
+import org.apache.tajo.tuple.memory.UnSafeTuple;
+
+import java.util.Comparator;
+
+/**
+ * The base class of {@link UnSafeTuple} comparators generated by {@link TupleComparatorCompiler}.
+ * A generated comparator reads sort keys from off-heap rows directly.
+ */
+public abstract class GeneratedUnSafeComparator implements Comparator<UnSafeTuple> {
+
+  @Override
+  public int compare(UnSafeTuple tuple1, UnSafeTuple tuple2) {
+    return compareRows(tuple1.address(), tuple2.address());
+  }
+
+  /**
+   * @param row1 the address of the first row
+   * @param row2 the address of the second row
+   */
+  public abstract int compareRows(long row1, long row2);
+}
@@ -0,0 +1,54 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.codegen;
+
+import org.apache.tajo.engine.planner.physical.TupleConsumer;
+import org.apache.tajo.plan.expr.EvalNode;
+import org.apache.tajo.storage.Scanner;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.worker.TaskAttemptContext;
+
+import java.io.IOException;
+
+/**
+ * ScanPipeline is the base class of a pipeline generated by {@link ScanPipelineCompiler}.
+ *
+ * A generated pipeline reads all tuples from a scanner, filters and projects them in a single loop,
+ * and pushes the results into a {@link TupleConsumer}.
+ */
+public abstract class ScanPipeline {
+  /** evals which are not inlined into the generated code. They are bound to the schema of scanned tuples. */
+  protected EvalNode[] evals;
+
+  public void setEvals(EvalNode[] evals) {
+    this.evals = evals;
+  }
+
+  /**
+   * Run the pipeline until the scanner is exhausted or the task is stopped.
+   *
+   * @param scanner the initialized scanner
+   * @param output a tuple to keep projected fields. It is not used if the pipeline does not project tuples.
+   * @param consumer the consumer of result tuples
+   * @param context the task attempt context
+   * @return the number of tuples pushed into the consumer
+   */
+  public abstract long run(Scanner scanner, Tuple output, TupleConsumer consumer, TaskAttemptContext context)
+      throws IOException;
+}
@@ -0,0 +1,400 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.codegen;
+
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.engine.planner.physical.TupleConsumer;
+import org.apache.tajo.engine.planner.physical.VectorizedFilter;
+import org.apache.tajo.org.objectweb.asm.ClassWriter;
+import org.apache.tajo.org.objectweb.asm.Label;
+import org.apache.tajo.org.objectweb.asm.MethodVisitor;
+import org.apache.tajo.org.objectweb.asm.Opcodes;
+import org.apache.tajo.plan.expr.*;
+import org.apache.tajo.storage.Scanner;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.util.Pair;
+import org.apache.tajo.worker.TaskAttemptContext;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.apache.tajo.common.TajoDataTypes.DataType;
+import static org.apache.tajo.engine.codegen.TajoGeneratorAdapter.getDescription;
+import static org.apache.tajo.engine.codegen.TajoGeneratorAdapter.getInternalName;
+
+/**
+ * ScanPipelineCompiler generates a {@link ScanPipeline} which fuses a scan, its filter and its projection
+ * into a single loop. In the generated loop,
+ * <ul>
+ *   <li>conjuncts comparing a numeric or datetime column with a constant are inlined into primitive comparisons,</li>
+ *   <li>plain column references of targets are copied from scanned tuples without evaluation, and</li>
+ *   <li>the other conjuncts and targets are evaluated by their (possibly compiled) {@link EvalNode}s.</li>
+ * </ul>
+ *
+ * Generated classes depend on the shape of the pipeline and on the constants of inlined comparisons, which are
+ * pushed into the bytecode as literals. Both are part of the key of cached classes, so a class is shared only by
+ * the pipelines having the same shape and the same inlined constants, while each pipeline instance keeps its own
+ * evals. Constants of conjuncts which are not inlined are kept in the evals, and do not affect the class.
+ */
+public class ScanPipelineCompiler {
+  private static final String RUN_METHOD_DESC = TajoGeneratorAdapter.getMethodDescription(long.class,
+      new Class[] {Scanner.class, Tuple.class, TupleConsumer.class, TaskAttemptContext.class});
+
+  // local variable ids of the run method
+  private static final int THIS = 0;
+  private static final int SCANNER = 1;
+  private static final int OUTPUT = 2;
+  private static final int CONSUMER = 3;
+  private static final int CONTEXT = 4;
+  private static final int TUPLE = 5;
+  private static final int COUNT = 6;
+
+  private static final DataType INT8 = CatalogUtil.newSimpleDataType(Type.INT8);
+  private static final DataType FLOAT8 = CatalogUtil.newSimpleDataType(Type.FLOAT8);
+
+  private final TajoClassLoader classLoader;
+  private final Map<String, Class<? extends ScanPipeline>> pipelineClasses = new ConcurrentHashMap<>();
+  static int classSeq = 1;
+
+  public ScanPipelineCompiler(TajoClassLoader classLoader) {
+    this.classLoader = classLoader;
+  }
+
+  protected synchronized static int getAndIncrementClassSeq() {
+    return classSeq++;
+  }
+
+  /**
+   * @return True if a conjunct is evaluated by primitive comparisons in a generated pipeline.
+   */
+  public static boolean isInlinable(Schema schema, EvalNode conjunct) {
+    return InlinedPredicate.create(schema, conjunct) != null;
+  }
+
+  /**
+   * @param schema the schema of scanned tuples
+   * @param conjuncts conjuncts of the filter bound to the schema. It is empty if scanned tuples are not filtered.
+   * @param targets target evals bound to the schema, or null if scanned tuples are consumed as they are
+   * @return a new pipeline instance
+   */
+  public ScanPipeline compile(Schema schema, EvalNode[] conjuncts, @Nullable EvalNode[] targets)
+      throws CompilationError {
+
+    // the shape of the pipeline including inlined constants, and the evals which are not inlined
+    StringBuilder signature = new StringBuilder();
+    List<Object> steps = new ArrayList<>();
+    List<EvalNode> evals = new ArrayList<>();
+
+    for (EvalNode conjunct : conjuncts) {
+      InlinedPredicate predicate = InlinedPredicate.create(schema, conjunct);
+      if (predicate != null) {
+        steps.add(predicate);
+        signature.append(predicate).append(';');
+      } else {
+        steps.add(evals.size());
+        signature.append("eval;");
+        evals.add(conjunct);
+      }
+    }
+
+    // a column id for a plain column reference, or an eval index for the others
+    List<Pair<Boolean, Integer>> projections = null;
+    if (targets == null) {
+      signature.append("*");
+    } else {
+      projections = new ArrayList<>();
+      for (EvalNode target : targets) {
+        int columnId = target instanceof FieldEval ?
+            VectorizedFilter.getColumnId(schema, ((FieldEval) target).getColumnRef()) : -1;
+        if (columnId >= 0) {
+          projections.add(new Pair<>(true, columnId));
+          signature.append("col ").append(columnId).append(',');
+        } else {
+          projections.add(new Pair<>(false, evals.size()));
+          signature.append("eval,");
+          evals.add(target);
+        }
+      }
+    }
+
+    Class<? extends ScanPipeline> pipelineClass = pipelineClasses.get(signature.toString());
+    if (pipelineClass == null) {
+      pipelineClass = generate(steps, projections);
+      pipelineClasses.put(signature.toString(), pipelineClass);
+    }
+
+    ScanPipeline pipeline;
+    try {
+      pipeline = pipelineClass.getConstructor().newInstance();
+    } catch (Throwable t) {
+      throw new CompilationError("Cannot create a scan pipeline (" + signature + "): " + t.getMessage());
+    }
+    pipeline.setEvals(evals.toArray(new EvalNode[evals.size()]));
+    return pipeline;
+  }
+
+  private Class<? extends ScanPipeline> generate(List<Object> steps,
+                                                 @Nullable List<Pair<Boolean, Integer>> projections) {
+    ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+    String className = ScanPipelineCompiler.class.getPackage().getName() + ".ScanPipeline" + getAndIncrementClassSeq();
+    String owner = getInternalName(className);
+    String superName = getInternalName(ScanPipeline.class);
+
+    classWriter.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC, owner, null, superName, null);
+
+    MethodVisitor initMethod = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+    initMethod.visitCode();
+    initMethod.visitVarInsn(Opcodes.ALOAD, THIS);
+    initMethod.visitMethodInsn(Opcodes.INVOKESPECIAL, superName, "<init>", "()V");
+    initMethod.visitInsn(Opcodes.RETURN);
+    initMethod.visitMaxs(1, 1);
+    initMethod.visitEnd();
+
+    MethodVisitor runMethod = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "run", RUN_METHOD_DESC, null,
+        new String[] {getInternalName(IOException.class)});
+    runMethod.visitCode();
+    TajoGeneratorAdapter adapter = new TajoGeneratorAdapter(Opcodes.ACC_PUBLIC, runMethod, "run", RUN_METHOD_DESC);
+
+    Label loop = adapter.newLabel();
+    Label end = adapter.newLabel();
+
+    // long count = 0;
+    adapter.push(0L);
+    runMethod.visitVarInsn(Opcodes.LSTORE, COUNT);
+
+    // while (!context.isStopped() && (tuple = scanner.next()) != null) {
+    adapter.markLabel(loop);
+    runMethod.visitVarInsn(Opcodes.ALOAD, CONTEXT);
+    adapter.invokeVirtual(TaskAttemptContext.class, "isStopped", boolean.class, new Class[] {});
+    runMethod.visitJumpInsn(Opcodes.IFNE, end);
+    runMethod.visitVarInsn(Opcodes.ALOAD, SCANNER);
+    adapter.invokeInterface(Scanner.class, "next", Tuple.class, new Class[] {});
+    adapter.dup();
+    runMethod.visitVarInsn(Opcodes.ASTORE, TUPLE);
+    runMethod.visitJumpInsn(Opcodes.IFNULL, end);
+
+    // filter: each failed conjunct continues the loop
+    for (Object step : steps) {
+      if (step instanceof InlinedPredicate) {
+        ((InlinedPredicate) step).emit(adapter, loop);
+      } else {
+        emitEval(adapter, owner, (Integer) step);
+        adapter.invokeVirtual(Datum.class, "isTrue", boolean.class, new Class[] {});
+        runMethod.visitJumpInsn(Opcodes.IFEQ, loop);
+      }
+    }
+
+    // projection
+    if (projections != null) {
+      for (int i = 0; i < projections.size(); i++) {
+        Pair<Boolean, Integer> projection = projections.get(i);
+        runMethod.visitVarInsn(Opcodes.ALOAD, OUTPUT);
+        adapter.push(i);
+        if (projection.getFirst()) {
+          runMethod.visitVarInsn(Opcodes.ALOAD, TUPLE);
+          adapter.push(projection.getSecond());
+          adapter.invokeInterface(Tuple.class, "asDatum", Datum.class, new Class[] {int.class});
+        } else {
+          emitEval(adapter, owner, projection.getSecond());
+        }
+        adapter.invokeInterface(Tuple.class, "put", void.class, new Class[] {int.class, Datum.class});
+      }
+    }
+
+    // consumer.consume(output or tuple); count++;
+    runMethod.visitVarInsn(Opcodes.ALOAD, CONSUMER);
+    runMethod.visitVarInsn(Opcodes.ALOAD, projections != null ? OUTPUT : TUPLE);
+    adapter.invokeInterface(TupleConsumer.class, "consume", void.class, new Class[] {Tuple.class});
+    runMethod.visitVarInsn(Opcodes.LLOAD, COUNT);
+    adapter.push(1L);
+    runMethod.visitInsn(Opcodes.LADD);
+    runMethod.visitVarInsn(Opcodes.LSTORE, COUNT);
+    adapter.gotoLabel(loop);
+
+    // return count;
+    adapter.markLabel(end);
+    runMethod.visitVarInsn(Opcodes.LLOAD, COUNT);
+    runMethod.visitInsn(Opcodes.LRETURN);
+    runMethod.visitMaxs(0, 0);
+    runMethod.visitEnd();
+    classWriter.visitEnd();
+
+    try {
+      return classLoader.defineClass(className, classWriter.toByteArray()).asSubclass(ScanPipeline.class);
+    } catch (Throwable t) {
+      throw new CompilationError("Cannot define a scan pipeline: " + t.getMessage());
+    }
+  }
+
+  /**
+   * Emit <code>evals[evalId].eval(tuple)</code>.
+   */
+  private static void emitEval(TajoGeneratorAdapter adapter, String owner, int evalId) {
+    adapter.methodvisitor.visitVarInsn(Opcodes.ALOAD, THIS);
+    adapter.methodvisitor.visitFieldInsn(Opcodes.GETFIELD, owner, "evals", getDescription(EvalNode[].class));
+    adapter.push(evalId);
+    adapter.methodvisitor.visitInsn(Opcodes.AALOAD);
+    adapter.methodvisitor.visitVarInsn(Opcodes.ALOAD, TUPLE);
+    adapter.invokeVirtual(EvalNode.class, "eval", Datum.class, new Class[] {Tuple.class});
+  }
+
+  /**
+   * A comparison between a column and a constant. Integral and datetime columns are compared as long,
+   * and floating point columns are compared as double. A null value never satisfies the comparison.
+   */
+  private static class InlinedPredicate {
+    private final int columnId;
+    private final Type columnType;
+    private final EvalType op;
+    private final Datum value;
+
+    private InlinedPredicate(int columnId, Type columnType, EvalType op, Datum value) {
+      this.columnId = columnId;
+      this.columnType = columnType;
+      this.op = op;
+      this.value = value;
+    }
+
+    static InlinedPredicate create(Schema schema, EvalNode node) {
+      // only the six comparison operators
+      if (!(node instanceof BinaryEval) || flip(node.getType()) == null) {
+        return null;
+      }
+
+      BinaryEval binaryEval = (BinaryEval) node;
+      EvalType op = node.getType();
+      FieldEval field;
+      ConstEval constant;
+      if (binaryEval.getLeftExpr() instanceof FieldEval && binaryEval.getRightExpr() instanceof ConstEval) {
+        field = binaryEval.getLeftExpr();
+        constant = binaryEval.getRightExpr();
+      } else if (binaryEval.getLeftExpr() instanceof ConstEval && binaryEval.getRightExpr() instanceof FieldEval) {
+        field = binaryEval.getRightExpr();
+        constant = binaryEval.getLeftExpr();
+        op = flip(op);
+      } else {
+        return null;
+      }
+
+      int columnId = VectorizedFilter.getColumnId(schema, field.getColumnRef());
+      Datum value = constant.getValue();
+      if (columnId < 0 || value.isNull()) {
+        return null;
+      }
+
+      Type columnType = schema.getColumn(columnId).getDataType().getType();
+      Type valueType = value.type();
+      switch (columnType) {
+        case INT2:
+        case INT4:
+        case INT8:
+          return isIntegral(valueType) ? new InlinedPredicate(columnId, columnType, op, value) : null;
+        case DATE:
+        case TIME:
+        case TIMESTAMP:
+          return columnType == valueType ? new InlinedPredicate(columnId, columnType, op, value) : null;
+        case FLOAT4:
+        case FLOAT8:
+          return isIntegral(valueType) || valueType == Type.FLOAT4 || valueType == Type.FLOAT8 ?
+              new InlinedPredicate(columnId, columnType, op, value) : null;
+        default:
+          return null;
+      }
+    }
+
+    private static boolean isIntegral(Type type) {
+      return type == Type.INT1 || type == Type.INT2 || type == Type.INT4 || type == Type.INT8;
+    }
+
+    /**
+     * @return the operator for swapped operands, or null if it is not a simple comparison
+     */
+    private static EvalType flip(EvalType op) {
+      switch (op) {
+        case EQUAL:
+        case NOT_EQUAL: return op;
+        case LTH: return EvalType.GTH;
+        case LEQ: return EvalType.GEQ;
+        case GTH: return EvalType.LTH;
+        case GEQ: return EvalType.LEQ;
+        default: return null;
+      }
+    }
+
+    /**
+     * Emit the comparison which jumps to a given label if the current tuple does not satisfy it.
+     */
+    void emit(TajoGeneratorAdapter adapter, Label notSatisfied) {
+      MethodVisitor mv = adapter.methodvisitor;
+
+      // if (tuple.isBlankOrNull(columnId)) continue;
+      mv.visitVarInsn(Opcodes.ALOAD, TUPLE);
+      adapter.push(columnId);
+      adapter.invokeInterface(Tuple.class, "isBlankOrNull", boolean.class, new Class[] {int.class});
+      mv.visitJumpInsn(Opcodes.IFNE, notSatisfied);
+
+      mv.visitVarInsn(Opcodes.ALOAD, TUPLE);
+      adapter.push(columnId);
+      switch (columnType) {
+        case INT2:
+          adapter.invokeInterface(Tuple.class, "getInt2", short.class, new Class[] {int.class});
+          mv.visitInsn(Opcodes.I2L);
+          break;
+        case INT4:
+        case DATE:
+          adapter.invokeInterface(Tuple.class, "getInt4", int.class, new Class[] {int.class});
+          mv.visitInsn(Opcodes.I2L);
+          break;
+        case FLOAT4:
+          adapter.invokeInterface(Tuple.class, "getFloat4", float.class, new Class[] {int.class});
+          mv.visitInsn(Opcodes.F2D);
+          break;
+        case FLOAT8:
+          adapter.invokeInterface(Tuple.class, "getFloat8", double.class, new Class[] {int.class});
+          break;
+        default: // INT8, TIME and TIMESTAMP
+          adapter.invokeInterface(Tuple.class, "getInt8", long.class, new Class[] {int.class});
+          break;
+      }
+
+      if (columnType == Type.FLOAT4 || columnType == Type.FLOAT8) {
+        adapter.push(value.asFloat8());
+        adapter.ifCmp(FLOAT8, op, notSatisfied);
+      } else {
+        adapter.push(value.asInt8());
+        adapter.ifCmp(INT8, op, notSatisfied);
+      }
+    }
+
+    /**
+     * @return a part of the class signature. It includes the constant because it is inlined into the bytecode.
+     */
+    @Override
+    public String toString() {
+      return "col " + columnId + " " + columnType + " " + op + " " + value.asChars();
+    }
+  }
+}
@@ -0,0 +1,454 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.codegen;
+
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.UnsignedInts;
+import io.netty.util.internal.PlatformDependent;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.TextDatum;
+import org.apache.tajo.org.objectweb.asm.ClassWriter;
+import org.apache.tajo.org.objectweb.asm.Label;
+import org.apache.tajo.org.objectweb.asm.MethodVisitor;
+import org.apache.tajo.org.objectweb.asm.Opcodes;
+import org.apache.tajo.storage.BaseTupleComparator;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.tuple.memory.MemoryRowBlock;
+import org.apache.tajo.tuple.memory.UnSafeTupleBytesComparator;
+import org.apache.tajo.util.SizeOf;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.apache.tajo.engine.codegen.TajoGeneratorAdapter.getInternalName;
+import static org.apache.tajo.engine.codegen.TajoGeneratorAdapter.getMethodDescription;
+
+/**
+ * TupleComparatorCompiler generates a comparator class specialized for sort keys. The generated code
+ * unrolls the loop over sort keys, and compares each key with the primitive comparison of its type
+ * instead of dispatching on the type for every comparison.
+ *
+ * <ul>
+ *   <li>{@link GeneratedUnSafeComparator} reads field offsets and values from off-heap rows directly.</li>
+ *   <li>{@link GeneratedTupleComparator} reads values by the primitive getters of {@link Tuple}.</li>
+ * </ul>
+ * Both have the same ordering as <code>ExternalSortExec.UnSafeComparator</code>. Generated classes are cached
+ * by their sort keys.
+ */
+public class TupleComparatorCompiler {
+  // local variable ids of compareRows(long, long) of GeneratedUnSafeComparator
+  private static final int ROW1 = 1;
+  private static final int ROW2 = 3;
+  private static final int OFFSET1 = 5;
+  private static final int OFFSET2 = 6;
+  private static final int UNSAFE_COMPARE = 7;
+
+  // local variable ids of compare(Tuple, Tuple) of GeneratedTupleComparator
+  private static final int TUPLE1 = 1;
+  private static final int TUPLE2 = 2;
+  private static final int NULL1 = 3;
+  private static final int NULL2 = 4;
+  private static final int TUPLE_COMPARE = 5;
+
+  private final TajoClassLoader classLoader;
+  private final Map<String, Class<?>> comparatorClasses = new ConcurrentHashMap<>();
+  static int classSeq = 1;
+
+  public TupleComparatorCompiler(TajoClassLoader classLoader) {
+    this.classLoader = classLoader;
+  }
+
+  protected synchronized static int getAndIncrementClassSeq() {
+    return classSeq++;
+  }
+
+  private static class SortKey {
+    final int columnId;
+    final Type type;
+    final boolean asc;
+    final boolean nullFirst;
+
+    SortKey(Schema schema, SortSpec sortSpec) {
+      if (sortSpec.getSortKey().hasQualifier()) {
+        columnId = schema.getColumnId(sortSpec.getSortKey().getQualifiedName());
+      } else {
+        columnId = schema.getColumnIdByName(sortSpec.getSortKey().getSimpleName());
+      }
+      type = sortSpec.getSortKey().getDataType().getType();
+      asc = sortSpec.isAscending();
+      nullFirst = sortSpec.isNullsFirst();
+    }
+
+    @Override
+    public String toString() {
+      return columnId + " " + type + (asc ? " asc" : " desc") + (nullFirst ? " nulls first" : " nulls last");
+    }
+  }
+
+  private static SortKey[] toSortKeys(Schema schema, SortSpec[] sortSpecs) {
+    Preconditions.checkArgument(sortSpecs.length > 0, "At least one sort key must be specified.");
+    SortKey[] sortKeys = new SortKey[sortSpecs.length];
+    for (int i = 0; i < sortSpecs.length; i++) {
+      sortKeys[i] = new SortKey(schema, sortSpecs[i]);
+      if (!isSupported(sortKeys[i].type)) {
+        throw new CompilationError("Unsupported sort key type: " + sortKeys[i].type.name());
+      }
+    }
+    return sortKeys;
+  }
+
+  private static boolean isSupported(Type type) {
+    switch (type) {
+      case BOOLEAN:
+      case BIT:
+      case INT1:
+      case INT2:
+      case INT4:
+      case DATE:
+      case INET4:
+      case INT8:
+      case TIME:
+      case TIMESTAMP:
+      case FLOAT4:
+      case FLOAT8:
+      case CHAR:
+      case TEXT:
+      case BLOB:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static String getSignature(String kind, SortKey[] sortKeys) {
+    StringBuilder sb = new StringBuilder(kind);
+    for (SortKey sortKey : sortKeys) {
+      sb.append(';').append(sortKey);
+    }
+    return sb.toString();
+  }
+
+  private <T> T newInstance(String signature, Class<?> clazz, Class<T> baseClass) {
+    try {
+      return baseClass.cast(clazz.getConstructor().newInstance());
+    } catch (Throwable t) {
+      throw new CompilationError("Cannot create a comparator (" + signature + "): " + t.getMessage());
+    }
+  }
+
+  private Class<?> defineClass(String className, ClassWriter classWriter) {
+    try {
+      return classLoader.defineClass(className, classWriter.toByteArray());
+    } catch (Throwable t) {
+      throw new CompilationError("Cannot define a comparator: " + t.getMessage());
+    }
+  }
+
+  public GeneratedUnSafeComparator compileUnSafeComparator(Schema schema, SortSpec[] sortSpecs)
+      throws CompilationError {
+    SortKey[] sortKeys = toSortKeys(schema, sortSpecs);
+    String signature = getSignature("unsafe", sortKeys);
+
+    Class<?> clazz = comparatorClasses.get(signature);
+    if (clazz == null) {
+      clazz = generate(GeneratedUnSafeComparator.class, "compareRows",
+          getMethodDescription(int.class, new Class[] {long.class, long.class}), sortKeys, true);
+      comparatorClasses.put(signature, clazz);
+    }
+    return newInstance(signature, clazz, GeneratedUnSafeComparator.class);
+  }
+
+  public GeneratedTupleComparator compileTupleComparator(Schema schema, SortSpec[] sortSpecs)
+      throws CompilationError {
+    SortKey[] sortKeys = toSortKeys(schema, sortSpecs);
+    String signature = getSignature("tuple", sortKeys);
+
+    Class<?> clazz = comparatorClasses.get(signature);
+    if (clazz == null) {
+      clazz = generate(GeneratedTupleComparator.class, "compare",
+          getMethodDescription(int.class, new Class[] {Tuple.class, Tuple.class}), sortKeys, false);
+      comparatorClasses.put(signature, clazz);
+    }
+    GeneratedTupleComparator comparator = newInstance(signature, clazz, GeneratedTupleComparator.class);
+    comparator.setBase(new BaseTupleComparator(schema, sortSpecs));
+    return comparator;
+  }
+
+  private Class<?> generate(Class<?> baseClass, String methodName, String methodDesc, SortKey[] sortKeys,
+                            boolean unsafe) {
+    ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+    String className = TupleComparatorCompiler.class.getPackage().getName() + "." + baseClass.getSimpleName()
+        + getAndIncrementClassSeq();
+    String superName = getInternalName(baseClass);
+    classWriter.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC, getInternalName(className), null, superName, null);
+
+    MethodVisitor initMethod = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+    initMethod.visitCode();
+    initMethod.visitVarInsn(Opcodes.ALOAD, 0);
+    initMethod.visitMethodInsn(Opcodes.INVOKESPECIAL, superName, "<init>", "()V");
+    initMethod.visitInsn(Opcodes.RETURN);
+    initMethod.visitMaxs(1, 1);
+    initMethod.visitEnd();
+
+    MethodVisitor method = classWriter.visitMethod(Opcodes.ACC_PUBLIC, methodName, methodDesc, null, null);
+    method.visitCode();
+    TajoGeneratorAdapter adapter = new TajoGeneratorAdapter(Opcodes.ACC_PUBLIC, method, methodName, methodDesc);
+
+    for (SortKey sortKey : sortKeys) {
+      if (unsafe) {
+        emitUnSafeSortKey(adapter, sortKey);
+      } else {
+        emitTupleSortKey(adapter, sortKey);
+      }
+    }
+
+    // all sort keys are equal
+    adapter.push(0);
+    method.visitInsn(Opcodes.IRETURN);
+    method.visitMaxs(0, 0);
+    method.visitEnd();
+    classWriter.visitEnd();
+
+    return defineClass(className, classWriter);
+  }
+
+  /**
+   * Emit the comparison of a sort key in two off-heap rows. A row starts with its length followed by
+   * the offsets of fields, and the offset of a null field is {@link MemoryRowBlock#NULL_FIELD_OFFSET}.
+   */
+  private static void emitUnSafeSortKey(TajoGeneratorAdapter adapter, SortKey sortKey) {
+    MethodVisitor mv = adapter.methodvisitor;
+    long offsetPos = SizeOf.SIZE_OF_INT + (long) sortKey.columnId * SizeOf.SIZE_OF_INT;
+
+    // offset = PlatformDependent.getInt(row + offsetPos);
+    for (int side = 0; side < 2; side++) {
+      mv.visitVarInsn(Opcodes.LLOAD, side == 0 ? ROW1 : ROW2);
+      adapter.push(offsetPos);
+      mv.visitInsn(Opcodes.LADD);
+      adapter.invokeStatic(PlatformDependent.class, "getInt", int.class, new Class[] {long.class});
+      mv.visitVarInsn(Opcodes.ISTORE, side == 0 ? OFFSET1 : OFFSET2);
+    }
+
+    Label next = adapter.newLabel();
+    emitNullComparison(adapter, sortKey, next, true);
+
+    // PlatformDependent.getXXX(row + offset)
+    for (int side = 0; side < 2; side++) {
+      mv.visitVarInsn(Opcodes.LLOAD, side == 0 ? ROW1 : ROW2);
+      mv.visitVarInsn(Opcodes.ILOAD, side == 0 ? OFFSET1 : OFFSET2);
+      mv.visitInsn(Opcodes.I2L);
+      mv.visitInsn(Opcodes.LADD);
+
+      switch (sortKey.type) {
+        case BOOLEAN:
+        case BIT:
+          adapter.invokeStatic(PlatformDependent.class, "getByte", byte.class, new Class[] {long.class});
+          break;
+        case INT1:
+        case INT2:
+          adapter.invokeStatic(PlatformDependent.class, "getShort", short.class, new Class[] {long.class});
+          break;
+        case INT4:
+        case DATE:
+        case INET4:
+          adapter.invokeStatic(PlatformDependent.class, "getInt", int.class, new Class[] {long.class});
+          break;
+        case FLOAT4:
+          adapter.invokeStatic(PlatformDependent.class, "getInt", int.class, new Class[] {long.class});
+          adapter.invokeStatic(Float.class, "intBitsToFloat", float.class, new Class[] {int.class});
+          break;
+        case FLOAT8:
+          adapter.invokeStatic(PlatformDependent.class, "getLong", long.class, new Class[] {long.class});
+          adapter.invokeStatic(Double.class, "longBitsToDouble", double.class, new Class[] {long.class});
+          break;
+        case CHAR:
+        case TEXT:
+        case BLOB:
+          // compared by their addresses
+          break;
+        default: // INT8, TIME and TIMESTAMP
+          adapter.invokeStatic(PlatformDependent.class, "getLong", long.class, new Class[] {long.class});
+          break;
+      }
+    }
+
+    if (isBytes(sortKey.type)) {
+      adapter.invokeStatic(UnSafeTupleBytesComparator.class, "compare", int.class,
+          new Class[] {long.class, long.class});
+    } else {
+      emitPrimitiveComparison(adapter, sortKey.type);
+    }
+    emitReturnIfNotEqual(adapter, sortKey, UNSAFE_COMPARE, next);
+  }
+
+  /**
+   * Emit the comparison of a sort key in two tuples.
+   */
+  private static void emitTupleSortKey(TajoGeneratorAdapter adapter, SortKey sortKey) {
+    MethodVisitor mv = adapter.methodvisitor;
+
+    // isNull = tuple.isBlankOrNull(columnId);
+    for (int side = 0; side < 2; side++) {
+      mv.visitVarInsn(Opcodes.ALOAD, side == 0 ? TUPLE1 : TUPLE2);
+      adapter.push(sortKey.columnId);
+      adapter.invokeInterface(Tuple.class, "isBlankOrNull", boolean.class, new Class[] {int.class});
+      mv.visitVarInsn(Opcodes.ISTORE, side == 0 ? NULL1 : NULL2);
+    }
+
+    Label next = adapter.newLabel();
+    emitNullComparison(adapter, sortKey, next, false);
+
+    // tuple.getXXX(columnId)
+    for (int side = 0; side < 2; side++) {
+      mv.visitVarInsn(Opcodes.ALOAD, side == 0 ? TUPLE1 : TUPLE2);
+      adapter.push(sortKey.columnId);
+
+      switch (sortKey.type) {
+        case BOOLEAN:
+          adapter.invokeInterface(Tuple.class, "getBool", boolean.class, new Class[] {int.class});
+          break;
+        case BIT:
+          adapter.invokeInterface(Tuple.class, "getByte", byte.class, new Class[] {int.class});
+          break;
+        case INT1:
+        case INT2:
+          adapter.invokeInterface(Tuple.class, "getInt2", short.class, new Class[] {int.class});
+          break;
+        case INT4:
+        case DATE:
+        case INET4:
+          adapter.invokeInterface(Tuple.class, "getInt4", int.class, new Class[] {int.class});
+          break;
+        case FLOAT4:
+          adapter.invokeInterface(Tuple.class, "getFloat4", float.class, new Class[] {int.class});
+          break;
+        case FLOAT8:
+          adapter.invokeInterface(Tuple.class, "getFloat8", double.class, new Class[] {int.class});
+          break;
+        case CHAR:
+        case TEXT:
+        case BLOB:
+          adapter.invokeInterface(Tuple.class, "getBytes", byte[].class, new Class[] {int.class});
+          break;
+        default: // INT8, TIME and TIMESTAMP
+          adapter.invokeInterface(Tuple.class, "getInt8", long.class, new Class[] {int.class});
+          break;
+      }
+    }
+
+    if (isBytes(sortKey.type)) {
+      adapter.invokeStatic(TupleComparatorCompiler.class, "compareBytes", int.class,
+          new Class[] {byte[].class, byte[].class});
+    } else {
+      emitPrimitiveComparison(adapter, sortKey.type);
+    }
+    emitReturnIfNotEqual(adapter, sortKey, TUPLE_COMPARE, next);
+  }
+
+  /**
+   * Emit the comparison of nulls. If both are null, it jumps to the next sort key. If either is null,
+   * it returns the order of the null. Otherwise, it falls through.
+   */
+  private static void emitNullComparison(TajoGeneratorAdapter adapter, SortKey sortKey, Label next, boolean unsafe) {
+    MethodVisitor mv = adapter.methodvisitor;
+    Label firstNotNull = adapter.newLabel();
+    Label onlyFirstNull = adapter.newLabel();
+    Label bothNotNull = adapter.newLabel();
+
+    emitJumpIfNotNull(adapter, unsafe ? OFFSET1 : NULL1, unsafe, firstNotNull);
+    emitJumpIfNotNull(adapter, unsafe ? OFFSET2 : NULL2, unsafe, onlyFirstNull);
+    adapter.gotoLabel(next);
+
+    adapter.markLabel(onlyFirstNull);
+    adapter.push(sortKey.nullFirst ? -1 : 1);
+    mv.visitInsn(Opcodes.IRETURN);
+
+    adapter.markLabel(firstNotNull);
+    emitJumpIfNotNull(adapter, unsafe ? OFFSET2 : NULL2, unsafe, bothNotNull);
+    adapter.push(sortKey.nullFirst ? 1 : -1);
+    mv.visitInsn(Opcodes.IRETURN);
+
+    adapter.markLabel(bothNotNull);
+  }
+
+  private static void emitJumpIfNotNull(TajoGeneratorAdapter adapter, int varId, boolean unsafe, Label label) {
+    MethodVisitor mv = adapter.methodvisitor;
+    mv.visitVarInsn(Opcodes.ILOAD, varId);
+    if (unsafe) {
+      adapter.push(MemoryRowBlock.NULL_FIELD_OFFSET);
+      mv.visitJumpInsn(Opcodes.IF_ICMPNE, label);
+    } else {
+      mv.visitJumpInsn(Opcodes.IFEQ, label);
+    }
+  }
+
+  /**
+   * Compare two primitive values on the stack, and push an int as the result.
+   */
+  private static void emitPrimitiveComparison(TajoGeneratorAdapter adapter, Type type) {
+    switch (type) {
+      case INET4:
+        adapter.invokeStatic(UnsignedInts.class, "compare", int.class, new Class[] {int.class, int.class});
+        break;
+      case INT8:
+      case TIME:
+      case TIMESTAMP:
+        adapter.methodvisitor.visitInsn(Opcodes.LCMP);
+        break;
+      case FLOAT4:
+        adapter.invokeStatic(Float.class, "compare", int.class, new Class[] {float.class, float.class});
+        break;
+      case FLOAT8:
+        adapter.invokeStatic(Double.class, "compare", int.class, new Class[] {double.class, double.class});
+        break;
+      default: // BOOLEAN, BIT, INT1, INT2, INT4 and DATE are int values in JVM
+        adapter.invokeStatic(Integer.class, "compare", int.class, new Class[] {int.class, int.class});
+        break;
+    }
+  }
+
+  /**
+   * if (compare != 0) return asc ? compare : -compare;
+   */
+  private static void emitReturnIfNotEqual(TajoGeneratorAdapter adapter, SortKey sortKey, int varId, Label next) {
+    MethodVisitor mv = adapter.methodvisitor;
+    if (!sortKey.asc) {
+      mv.visitInsn(Opcodes.INEG);
+    }
+    mv.visitVarInsn(Opcodes.ISTORE, varId);
+    mv.visitVarInsn(Opcodes.ILOAD, varId);
+    mv.visitJumpInsn(Opcodes.IFEQ, next);
+    mv.visitVarInsn(Opcodes.ILOAD, varId);
+    mv.visitInsn(Opcodes.IRETURN);
+    adapter.markLabel(next);
+  }
+
+  private static boolean isBytes(Type type) {
+    return type == Type.CHAR || type == Type.TEXT || type == Type.BLOB;
+  }
+
+  /**
+   * Called by generated comparators. It is the same order as {@link TextDatum#COMPARATOR}.
+   */
+  public static int compareBytes(byte[] bytes1, byte[] bytes2) {
+    return TextDatum.COMPARATOR.compare(bytes1, bytes2);
+  }
+}
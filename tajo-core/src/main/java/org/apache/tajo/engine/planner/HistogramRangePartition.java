@@ -0,0 +1,99 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.engine.planner;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.catalog.statistics.Histogram;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.TupleRange;
+import org.apache.tajo.storage.VTuple;
+
+import java.util.List;
+
+/**
+ * It divides the range of a single sort key at the quantiles of the equi-depth histogram of the key column.
+ * Unlike {@link UniformRangePartition}, each range is expected to have a similar number of rows
+ * even if the values are skewed.
+ *
+ * If the histogram does not have enough quantiles within the given range, for example because the range is
+ * narrowed by a filter, the range is divided by {@link UniformRangePartition}.
+ */
+public class HistogramRangePartition extends RangePartitionAlgorithm {
+  private final Histogram histogram;
+
+  public HistogramRangePartition(TupleRange entireRange, SortSpec[] sortSpecs, Histogram histogram) {
+    super(sortSpecs, entireRange, true);
+    Preconditions.checkArgument(sortSpecs.length == 1,
+        "HistogramRangePartition supports only a single sort key, but " + sortSpecs.length + " keys are given");
+    this.histogram = histogram;
+  }
+
+  @Override
+  public TupleRange[] partition(int partNum) {
+    Preconditions.checkArgument(partNum > 0,
+        "The number of partitions must be positive, but the given number: " + partNum);
+
+    List<Datum> cuts = getCutValues(partNum);
+    if (cuts.isEmpty()) {
+      return new UniformRangePartition(mergedRange, sortSpecs, inclusive).partition(partNum);
+    }
+
+    List<TupleRange> ranges = Lists.newArrayList();
+    Tuple last = mergedRange.getStart();
+    for (Datum cut : cuts) {
+      Tuple next = new VTuple(new Datum[] {cut});
+      ranges.add(new TupleRange(sortSpecs, last, next));
+      last = next;
+    }
+    ranges.add(new TupleRange(sortSpecs, last, mergedRange.getEnd()));
+    return ranges.toArray(new TupleRange[ranges.size()]);
+  }
+
+  /**
+   * @return the quantiles strictly within the range in the sort order
+   */
+  private List<Datum> getCutValues(int partNum) {
+    List<Datum> cuts = Lists.newArrayList();
+    if (partNum == 1) {
+      return cuts;
+    }
+
+    boolean ascending = sortSpecs[0].isAscending();
+    Tuple start = mergedRange.getStart();
+    Tuple end = mergedRange.getEnd();
+    for (Datum quantile : histogram.getQuantiles(partNum)) {
+      if (!start.isBlankOrNull(0) && compare(quantile, start.asDatum(0), ascending) <= 0) {
+        continue;
+      }
+      if (!end.isBlankOrNull(0) && compare(quantile, end.asDatum(0), ascending) >= 0) {
+        continue;
+      }
+      cuts.add(quantile);
+    }
+    return ascending ? cuts : Lists.reverse(cuts);
+  }
+
+  private static int compare(Datum d1, Datum d2, boolean ascending) {
+    return ascending ? d1.compareTo(d2) : d2.compareTo(d1);
+  }
+}
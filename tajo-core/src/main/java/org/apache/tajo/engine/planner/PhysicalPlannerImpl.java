@@ -91,7 +91,8 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
       if (execPlan instanceof StoreTableExec
           || execPlan instanceof RangeShuffleFileWriteExec
           || execPlan instanceof HashShuffleFileWriteExec
-          || execPlan instanceof ColPartitionStoreExec) {
+          || execPlan instanceof ColPartitionStoreExec
+          || execPlan instanceof AnalyzeTableExec) {
         return execPlan;
       } else if (context.getDataChannel() != null) {
         return buildOutputOperator(context, logicalPlan, execPlan);
@@ -228,6 +229,11 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
       case LIMIT:
         LimitNode limitNode = (LimitNode) logicalNode;
         stack.push(limitNode);
+        if (isTopKSortable(ctx, limitNode)) {
+          PhysicalExec topKExec = createTopKPlan(ctx, limitNode, stack);
+          stack.pop();
+          return topKExec;
+        }
         leftExec = createPlanRecursive(ctx, limitNode.getChild(), stack);
         stack.pop();
         return new LimitExec(ctx, limitNode.getInSchema(),
@@ -245,6 +251,13 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
         stack.pop();
         return new StoreIndexExec(ctx, createIndexNode, leftExec);
 
+      case ANALYZE_TABLE:
+        AnalyzeTableNode analyzeTableNode = (AnalyzeTableNode) logicalNode;
+        stack.push(analyzeTableNode);
+        leftExec = createPlanRecursive(ctx, analyzeTableNode.getChild(), stack);
+        stack.pop();
+        return new AnalyzeTableExec(ctx, analyzeTableNode, leftExec);
+
       default:
         return null;
     }
@@ -372,7 +385,7 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
           LOG.info("Join (" + plan.getPID() +") chooses [Sort Merge Join]");
           return createMergeInnerJoin(context, plan, leftExec, rightExec);
         case HYBRID_HASH_JOIN:
-
+          return createHybridHashInnerJoin(context, plan, leftExec, rightExec);
         default:
           LOG.error("Invalid Inner Join Algorithm Enforcer: " + algorithm.name());
           LOG.error("Choose a fallback inner join algorithm: " + JoinAlgorithm.MERGE_JOIN.name());
@@ -435,10 +448,19 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
       PhysicalExec [] orderedChilds = switchJoinSidesIfNecessary(context, plan, leftExec, rightExec);
       return new HashJoinExec(context, plan, orderedChilds[1], orderedChilds[0]);
     } else {
-      return createMergeInnerJoin(context, plan, leftExec, rightExec);
+      return createHybridHashInnerJoin(context, plan, leftExec, rightExec);
     }
   }
 
+  private HybridHashJoinExec createHybridHashInnerJoin(TaskAttemptContext context, JoinNode plan,
+                                                       PhysicalExec leftExec, PhysicalExec rightExec)
+      throws IOException {
+    LOG.info("Join (" + plan.getPID() +") chooses [Hybrid Hash Join]");
+    // the smaller side is used to build hash tables.
+    PhysicalExec [] orderedChilds = switchJoinSidesIfNecessary(context, plan, leftExec, rightExec);
+    return new HybridHashJoinExec(context, plan, orderedChilds[1], orderedChilds[0]);
+  }
+
   private MergeJoinExec createMergeInnerJoin(TaskAttemptContext context, JoinNode plan,
                                              PhysicalExec leftExec, PhysicalExec rightExec) throws IOException {
     SortSpec[][] sortSpecs = PlannerUtil.getSortKeysFromJoinQual(
@@ -948,6 +970,9 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
         return new SeqScanExec(ctx, scanNode, null);
       }
       FragmentProto [] fragments = ctx.getTables(scanNode.getCanonicalName());
+      if (ctx.getQueryContext().getBool(SessionVars.VECTORIZED_EXECUTION)) {
+        return new VectorizedSeqScanExec(ctx, scanNode, fragments);
+      }
       return new SeqScanExec(ctx, scanNode, fragments);
     }
   }
@@ -1167,6 +1192,31 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
     return new ExternalSortExec(context, sortNode, child);
   }
 
+  private static boolean isTopKSortable(TaskAttemptContext ctx, LimitNode limitNode) {
+    long threshold = ctx.getQueryContext().getLong(SessionVars.SORT_TOPK_THRESHOLD);
+    return threshold > 0 && limitNode.getChild().getType() == NodeType.SORT
+        && limitNode.getFetchFirstNum() <= Math.min(threshold, Integer.MAX_VALUE - 1);
+  }
+
+  /**
+   * Create a TopKExec for ORDER BY ... LIMIT, which keeps only the first rows of the limit in a bounded heap.
+   *
+   * The child of the sort is planned while the limit is still on the top of the stack. So, even if the input is
+   * already sorted by a range shuffle, it is scanned by a sequential scan instead of a merge sort of sorted runs.
+   * The number of the input rows is bounded by the limit of each task in this case.
+   */
+  private PhysicalExec createTopKPlan(TaskAttemptContext ctx, LimitNode limitNode, Stack<LogicalNode> stack)
+      throws IOException {
+    SortNode sortNode = limitNode.getChild();
+    PhysicalExec child = createPlanRecursive(ctx, sortNode.getChild(), stack);
+
+    // the child is already sorted in the same order
+    if (child instanceof SortExec && TUtil.checkEquals(sortNode.getSortKeys(), ((SortExec) child).getSortSpecs())) {
+      return new LimitExec(ctx, limitNode.getInSchema(), limitNode.getOutSchema(), child, limitNode);
+    }
+    return new TopKExec(ctx, sortNode, child, limitNode.getFetchFirstNum());
+  }
+
   public PhysicalExec createIndexScanExec(TaskAttemptContext ctx,
                                           IndexScanNode annotation)
       throws IOException {
@@ -71,6 +71,13 @@ public class Projector {
     }
   }
 
+  /**
+   * @return the evals of targets bound to the input schema
+   */
+  public EvalNode[] getEvals() {
+    return evals;
+  }
+
   public Tuple eval(Tuple in) {
     for (int i = 0; i < evals.length; i++) {
       outTuple.put(i, evals[i].eval(in));
@@ -209,6 +209,16 @@ public class Enforcer implements ProtoObject<EnforcerProto> {
     TUtil.putToNestedList(properties, builder.getType(), builder.build());
   }
 
+  public void enforceRuntimeFilter(int numBits) {
+    EnforceProperty.Builder builder = newProperty();
+    RuntimeFilterEnforce.Builder enforce = RuntimeFilterEnforce.newBuilder();
+    enforce.setNumBits(numBits);
+
+    builder.setType(EnforceType.RUNTIME_FILTER);
+    builder.setRuntimeFilter(enforce);
+    TUtil.putToNestedList(properties, builder.getType(), builder.build());
+  }
+
   public List<EnforceProperty> getProperties() {
     if (proto != null) {
       return proto.getPropertiesList();
@@ -320,6 +330,9 @@ public class Enforcer implements ProtoObject<EnforcerProto> {
     case SORTED_INPUT:
       SortedInputEnforce sortedInput = property.getSortedInput();
       sb.append("sorted input=" + sortedInput.getTableName());
+      break;
+    case RUNTIME_FILTER:
+      sb.append("type=RuntimeFilter, bits=").append(property.getRuntimeFilter().getNumBits());
     }
 
     return sb.toString();
@@ -15,6 +15,7 @@
 package org.apache.tajo.engine.planner.global;
 
 import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.catalog.Column;
 import org.apache.tajo.engine.planner.enforce.Enforcer;
 import org.apache.tajo.exception.TajoException;
 import org.apache.tajo.plan.LogicalPlan;
@@ -39,6 +40,9 @@ public class ExecutionBlock {
 
   private Map<String, ScanNode> broadcastRelations = new HashMap<>();
 
+  // bloom filters built by other blocks and applied to the scan of this block
+  private List<RuntimeFilter> runtimeFilters = new ArrayList<>();
+
   private PlanContext planContext;
 
   /*
@@ -182,6 +186,27 @@ public class ExecutionBlock {
     return broadcastRelations.values();
   }
 
+  /**
+   * Filter the scan of this block by a bloom filter which is built by another block over its shuffle keys.
+   * If the scan is a partitioned table scan, the keys are partition columns and the filter prunes partitions.
+   *
+   * @param sourceId The block building the filter
+   * @param scan The scan to be filtered
+   * @param keys The columns of the scan corresponding to the shuffle keys of the source block
+   */
+  public void addRuntimeFilter(ExecutionBlockId sourceId, ScanNode scan, Column[] keys) {
+    runtimeFilters.add(new RuntimeFilter(sourceId, scan.getCanonicalName(), keys,
+        scan.getType() == NodeType.PARTITIONS_SCAN));
+  }
+
+  public boolean hasRuntimeFilter() {
+    return runtimeFilters.size() > 0;
+  }
+
+  public List<RuntimeFilter> getRuntimeFilters() {
+    return runtimeFilters;
+  }
+
   public String toString() {
     return executionBlockId.toString();
   }
@@ -202,6 +227,39 @@ public class ExecutionBlock {
     return preservedRow;
   }
 
+  public static class RuntimeFilter {
+    private final ExecutionBlockId sourceId;
+    private final String tableName;
+    private final Column[] keys;
+    private final boolean partitionFilter;
+
+    public RuntimeFilter(ExecutionBlockId sourceId, String tableName, Column[] keys, boolean partitionFilter) {
+      this.sourceId = sourceId;
+      this.tableName = tableName;
+      this.keys = keys;
+      this.partitionFilter = partitionFilter;
+    }
+
+    public ExecutionBlockId getSourceId() {
+      return sourceId;
+    }
+
+    public String getTableName() {
+      return tableName;
+    }
+
+    public Column[] getKeys() {
+      return keys;
+    }
+
+    /**
+     * @return True if the filter prunes partitions before the scan is scheduled, instead of filtering rows.
+     */
+    public boolean isPartitionFilter() {
+      return partitionFilter;
+    }
+  }
+
   private class PlanContext {
     StoreTableNode store = null;
 
@@ -1014,13 +1014,19 @@ public class GlobalPlanner {
         node.setChild(execBlock.getPlan());
         execBlock.setPlan(node);
 
-        ExecutionBlock childBlock = context.plan.getChild(execBlock, 0);
-        LimitNode childLimit = PlannerUtil.clone(context.plan.getLogicalPlan(), node);
-        childLimit.setChild(childBlock.getPlan());
-        childBlock.setPlan(childLimit);
+        // Each block sorting its input locally ships at most the limit of rows. If the sort is over a union,
+        // there is a sorting block for each union operand.
+        for (ExecutionBlock childBlock : context.plan.getChilds(execBlock)) {
+          if (childBlock.getPlan() == null || childBlock.getPlan().getType() != NodeType.SORT) {
+            continue;
+          }
+          LimitNode childLimit = PlannerUtil.clone(context.plan.getLogicalPlan(), node);
+          childLimit.setChild(childBlock.getPlan());
+          childBlock.setPlan(childLimit);
 
-        DataChannel channel = context.plan.getChannel(childBlock, execBlock);
-        channel.setShuffleOutputNum(1);
+          DataChannel channel = context.plan.getChannel(childBlock, execBlock);
+          channel.setShuffleOutputNum(1);
+        }
         context.execBlockMap.put(node.getPID(), execBlock);
       } else {
         node.setChild(execBlock.getPlan());
@@ -1423,5 +1429,19 @@ public class GlobalPlanner {
 
       return node;
     }
+
+    @Override
+    public LogicalNode visitAnalyzeTable(GlobalPlanContext context, LogicalPlan plan, LogicalPlan.QueryBlock queryBlock,
+                                         AnalyzeTableNode node, Stack<LogicalNode> stack) throws TajoException {
+      LogicalNode child = super.visitAnalyzeTable(context, plan, queryBlock, node, stack);
+
+      // Like CreateIndex, AnalyzeTable is pushed to the execution block scanning the table.
+      ExecutionBlock childBlock = context.execBlockMap.remove(child.getPID());
+      node.setChild(childBlock.getPlan());
+      childBlock.setPlan(node);
+      context.execBlockMap.put(node.getPID(), childBlock);
+
+      return node;
+    }
   }
 }
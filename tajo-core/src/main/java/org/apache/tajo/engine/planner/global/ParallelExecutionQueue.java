@@ -116,6 +116,12 @@ public class ParallelExecutionQueue implements ExecutionQueue, Iterable<Executio
         return false;   // there's something should be done before this
       }
     }
+    // a scan filtered at runtime waits for the block building the filter
+    for (ExecutionBlock.RuntimeFilter filter : current.getRuntimeFilters()) {
+      if (!executed.contains(filter.getSourceId())) {
+        return false;
+      }
+    }
     return true;
   }
 
@@ -21,6 +21,7 @@ package org.apache.tajo.engine.planner.global.rewriter;
 import com.google.common.collect.Lists;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.engine.planner.global.rewriter.rules.BroadcastJoinRule;
+import org.apache.tajo.engine.planner.global.rewriter.rules.RuntimeFilterRule;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -38,6 +39,7 @@ public class BaseGlobalPlanRewriteRuleProvider extends GlobalPlanRewriteRuleProv
   public Collection<Class<? extends GlobalPlanRewriteRule>> getRules() {
     List<Class<? extends GlobalPlanRewriteRule>> rules = Lists.newArrayList();
     rules.add(BroadcastJoinRule.class);
+    rules.add(RuntimeFilterRule.class);
     return rules;
   }
 }
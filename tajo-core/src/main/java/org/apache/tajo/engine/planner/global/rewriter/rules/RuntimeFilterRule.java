@@ -0,0 +1,287 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.engine.planner.global.rewriter.rules;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.OverridableConf;
+import org.apache.tajo.SessionVars;
+import org.apache.tajo.algebra.JoinType;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.partition.PartitionMethodDesc;
+import org.apache.tajo.catalog.proto.CatalogProtos.PartitionType;
+import org.apache.tajo.engine.planner.global.DataChannel;
+import org.apache.tajo.engine.planner.global.ExecutionBlock;
+import org.apache.tajo.engine.planner.global.MasterPlan;
+import org.apache.tajo.engine.planner.global.rewriter.GlobalPlanRewriteRule;
+import org.apache.tajo.plan.LogicalPlan;
+import org.apache.tajo.plan.Target;
+import org.apache.tajo.plan.expr.FieldEval;
+import org.apache.tajo.plan.logical.*;
+import org.apache.tajo.plan.serder.PlanProto.ShuffleType;
+import org.apache.tajo.plan.util.PlannerUtil;
+import org.apache.tajo.unit.StorageUnit;
+
+import java.util.List;
+
+/**
+ * {@link RuntimeFilterRule} filters the probe side of a repartition join by the join keys of the build side.
+ *
+ * <h3>Rules to add a runtime filter</h3>
+ * <ul>
+ *   <li>The join block has two child blocks, and both of them are hash-shuffled by the join keys.</li>
+ *   <li>The probe side is a leaf block which scans a single table. Only selections and projections are allowed over
+ *   the scan, and the join keys must be plain columns of the table.</li>
+ *   <li>The probe side must not be preserved-row. That is, rows of the probe side must not appear in the join result
+ *   without a matching row of the build side.</li>
+ *   <li>The build side is the other child which is expected to be smaller than the probe side.</li>
+ *   <li>If the probe side scans a column-partitioned table, all join keys must be partition columns. The filter
+ *   prunes the partitions whose key values are not in it before the probe side is scheduled.</li>
+ * </ul>
+ *
+ * The build block builds a bloom filter over its shuffle keys while writing the shuffle output, and the probe block
+ * waits for the build block so that its scan drops the rows whose keys are not in the filter. If the filter is not
+ * available when the probe block starts, the probe block is executed without it.
+ */
+public class RuntimeFilterRule implements GlobalPlanRewriteRule {
+  private static final Log LOG = LogFactory.getLog(RuntimeFilterRule.class);
+
+  @Override
+  public String getName() {
+    return "Runtime filter rule";
+  }
+
+  @Override
+  public boolean isEligible(OverridableConf queryContext, MasterPlan plan) {
+    if (queryContext.getBool(SessionVars.JOIN_RUNTIME_FILTER_ENABLED)) {
+      for (LogicalPlan.QueryBlock block : plan.getLogicalPlan().getQueryBlocks()) {
+        if (block.hasNode(NodeType.JOIN)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public MasterPlan rewrite(OverridableConf queryContext, MasterPlan plan) {
+    int numBits = queryContext.getInt(SessionVars.JOIN_RUNTIME_FILTER_SIZE) * StorageUnit.KB * Byte.SIZE;
+    visit(plan, plan.getRoot(), numBits);
+    return plan;
+  }
+
+  private void visit(MasterPlan plan, ExecutionBlock current, int numBits) {
+    if (plan.isLeaf(current)) {
+      return;
+    }
+    for (ExecutionBlock child : plan.getChilds(current)) {
+      visit(plan, child, numBits);
+    }
+    if (current.hasJoin()) {
+      addRuntimeFilter(plan, current, numBits);
+    }
+  }
+
+  private void addRuntimeFilter(MasterPlan plan, ExecutionBlock current, int numBits) {
+    List<ExecutionBlock> children = plan.getChilds(current);
+    if (children.size() != 2 || !current.getUnionScanMap().isEmpty()) {
+      return;
+    }
+
+    ExecutionBlock leftBlock = null;
+    ExecutionBlock rightBlock = null;
+    JoinNode join = null;
+    for (LogicalNode node : PlannerUtil.findAllNodes(current.getPlan(), NodeType.JOIN)) {
+      JoinNode candidate = (JoinNode) node;
+      leftBlock = findChildBlock(children, candidate.getLeftChild());
+      rightBlock = findChildBlock(children, candidate.getRightChild());
+      if (leftBlock != null && rightBlock != null && leftBlock != rightBlock) {
+        join = candidate;
+        break;
+      }
+    }
+    if (join == null) {
+      return;
+    }
+
+    DataChannel leftChannel = plan.getChannel(leftBlock, current);
+    DataChannel rightChannel = plan.getChannel(rightBlock, current);
+    if (leftChannel.getShuffleType() != ShuffleType.HASH_SHUFFLE || !leftChannel.hasShuffleKeys()
+        || rightChannel.getShuffleType() != ShuffleType.HASH_SHUFFLE || !rightChannel.hasShuffleKeys()
+        || leftChannel.getShuffleKeys().length != rightChannel.getShuffleKeys().length) {
+      return;
+    }
+
+    JoinType joinType = join.getJoinType();
+    boolean leftProbe = joinType == JoinType.INNER || joinType == JoinType.LEFT_SEMI
+        || joinType == JoinType.RIGHT_SEMI || joinType == JoinType.RIGHT_OUTER || joinType == JoinType.RIGHT_ANTI;
+    boolean rightProbe = joinType == JoinType.INNER || joinType == JoinType.LEFT_SEMI
+        || joinType == JoinType.RIGHT_SEMI || joinType == JoinType.LEFT_OUTER || joinType == JoinType.LEFT_ANTI;
+
+    long leftVolume = estimateOutputVolume(plan, leftBlock);
+    long rightVolume = estimateOutputVolume(plan, rightBlock);
+    if (leftProbe && (!rightProbe || leftVolume >= rightVolume)) {
+      addRuntimeFilter(rightBlock, rightVolume, rightChannel, leftBlock, leftVolume, leftChannel, numBits);
+    } else if (rightProbe) {
+      addRuntimeFilter(leftBlock, leftVolume, leftChannel, rightBlock, rightVolume, rightChannel, numBits);
+    }
+  }
+
+  private static void addRuntimeFilter(ExecutionBlock buildBlock, long buildVolume, DataChannel buildChannel,
+                                       ExecutionBlock probeBlock, long probeVolume, DataChannel probeChannel,
+                                       int numBits) {
+    if (buildVolume < 0 || probeVolume <= buildVolume) {
+      return;
+    }
+
+    ScanNode scan = getFilterableScan(probeBlock.getPlan());
+    if (scan == null) {
+      return;
+    }
+
+    Column[] buildKeys = buildChannel.getShuffleKeys();
+    Column[] probeKeys = new Column[buildKeys.length];
+    for (int i = 0; i < probeKeys.length; i++) {
+      probeKeys[i] = resolveColumn(probeBlock.getPlan(), probeChannel.getShuffleKeys()[i]);
+      // keys are hashed by the hash codes of datums, which depend on data types
+      if (probeKeys[i] == null || !probeKeys[i].getDataType().equals(buildKeys[i].getDataType())) {
+        return;
+      }
+    }
+    if (scan.getType() == NodeType.PARTITIONS_SCAN && !isPartitionKeys(scan, probeKeys)) {
+      return;
+    }
+
+    buildBlock.getEnforcer().enforceRuntimeFilter(numBits);
+    probeBlock.addRuntimeFilter(buildBlock.getId(), scan, probeKeys);
+    LOG.info("Runtime filter: " + scan.getCanonicalName() + " of " + probeBlock.getId()
+        + " is filtered by the output of " + buildBlock.getId());
+  }
+
+  /**
+   * Partition columns are not stored in the files of a column-partitioned table, so that its rows cannot be
+   * filtered by them. Instead, the partitions are pruned if all keys are partition columns.
+   */
+  private static boolean isPartitionKeys(ScanNode scan, Column[] keys) {
+    PartitionMethodDesc partitionMethod = scan.getTableDesc().getPartitionMethod();
+    if (partitionMethod == null || partitionMethod.getPartitionType() != PartitionType.COLUMN) {
+      return false;
+    }
+
+    Schema partitionSchema = partitionMethod.getExpressionSchema();
+    for (Column key : keys) {
+      if (!partitionSchema.containsByName(key.getSimpleName())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static ExecutionBlock findChildBlock(List<ExecutionBlock> children, LogicalNode node) {
+    if (node.getType() != NodeType.SCAN) {
+      return null;
+    }
+    String tableName = CatalogUtil.extractSimpleName(((ScanNode) node).getTableName());
+    for (ExecutionBlock child : children) {
+      if (child.getId().toString().equals(tableName)) {
+        return child;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the estimated output volume of a block, or -1 if it is unknown.
+   */
+  private static long estimateOutputVolume(MasterPlan plan, ExecutionBlock block) {
+    if (!plan.isLeaf(block) || block.getScanNodes().length == 0) {
+      return -1;
+    }
+
+    long volume = 0;
+    for (ScanNode scan : block.getScanNodes()) {
+      long tableVolume = GlobalPlanRewriteUtil.getTableVolume(scan);
+      if (tableVolume < 0) {
+        return -1;
+      }
+      volume += tableVolume;
+    }
+    return volume;
+  }
+
+  /**
+   * @return the scan if a plan consists of a table scan or a partitioned table scan, and selections or projections
+   * over it. Otherwise, null.
+   */
+  private static ScanNode getFilterableScan(LogicalNode node) {
+    switch (node.getType()) {
+      case SCAN:
+      case PARTITIONS_SCAN:
+        return (ScanNode) node;
+      case ROOT:
+      case SELECTION:
+      case PROJECTION:
+        return getFilterableScan(((UnaryNode) node).getChild());
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * @return the column of the scanned table which an output column of a plan refers to, or null if the output
+   * column is not a plain column of the table.
+   */
+  private static Column resolveColumn(LogicalNode node, Column column) {
+    switch (node.getType()) {
+      case SCAN:
+      case PARTITIONS_SCAN:
+        ScanNode scan = (ScanNode) node;
+        Column scanned = scan.hasTargets() ? findTargetColumn(scan.getTargets(), column) : column;
+        if (scanned == null || !scan.getInSchema().containsByQualifiedName(scanned.getQualifiedName())) {
+          return null;
+        }
+        return scanned;
+      case PROJECTION:
+        ProjectionNode projection = (ProjectionNode) node;
+        Column projected = findTargetColumn(projection.getTargets(), column);
+        return projected != null ? resolveColumn(projection.getChild(), projected) : null;
+      case ROOT:
+      case SELECTION:
+        return resolveColumn(((UnaryNode) node).getChild(), column);
+      default:
+        return null;
+    }
+  }
+
+  private static Column findTargetColumn(List<Target> targets, Column column) {
+    for (Target target : targets) {
+      if (target.getNamedColumn().getQualifiedName().equals(column.getQualifiedName())) {
+        if (target.getEvalTree() instanceof FieldEval) {
+          return ((FieldEval) target.getEvalTree()).getColumnRef();
+        }
+        return null;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,169 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.statistics.ColumnStats;
+import org.apache.tajo.catalog.statistics.FrequentValues;
+import org.apache.tajo.catalog.statistics.Histogram;
+import org.apache.tajo.catalog.statistics.HyperLogLog;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.plan.logical.AnalyzeTableNode;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.worker.TaskAttemptContext;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * AnalyzeTableExec collects the column statistics of the rows of a fragment for ANALYZE TABLE.
+ * For each column, it computes the number of nulls, the min and max values, a HyperLogLog sketch of distinct values,
+ * and an equi-depth histogram and frequent values from a reservoir sample. The statistics are returned as
+ * the result stats of the task, and they are merged into the statistics of the table by the query master.
+ */
+public class AnalyzeTableExec extends UnaryPhysicalExec {
+  // the number of sampled values of each column
+  static final int SAMPLE_SIZE = 4096;
+
+  private final Random random = new Random();
+  private ColumnCollector[] collectors;
+  private long numRows;
+
+  public AnalyzeTableExec(TaskAttemptContext context, AnalyzeTableNode plan, PhysicalExec child) {
+    super(context, plan.getInSchema(), plan.getOutSchema(), child);
+  }
+
+  @Override
+  public void init() throws IOException {
+    super.init();
+
+    collectors = new ColumnCollector[inSchema.size()];
+    for (int i = 0; i < collectors.length; i++) {
+      Column column = inSchema.getColumn(i);
+      if (isAnalyzable(column.getDataType().getType())) {
+        collectors[i] = new ColumnCollector(column);
+      }
+    }
+  }
+
+  static boolean isAnalyzable(Type type) {
+    return type != Type.PROTOBUF && type != Type.RECORD && type != Type.NULL_TYPE;
+  }
+
+  @Override
+  public Tuple next() throws IOException {
+    Tuple tuple;
+    while (!context.isStopped() && (tuple = child.next()) != null) {
+      numRows++;
+      for (int i = 0; i < collectors.length; i++) {
+        if (collectors[i] != null) {
+          collectors[i].add(tuple, i, random);
+        }
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void rescan() throws IOException {
+    // nothing to do
+  }
+
+  @Override
+  public void close() throws IOException {
+    super.close();
+
+    if (collectors != null) {
+      TableStats stats = new TableStats();
+      stats.setNumRows(numRows);
+      for (ColumnCollector collector : collectors) {
+        if (collector != null) {
+          stats.addColumnStat(collector.getColumnStats());
+        }
+      }
+      context.setResultStats(stats);
+    }
+    collectors = null;
+  }
+
+  private static class ColumnCollector {
+    private final Column column;
+    private final HyperLogLog ndvSketch = new HyperLogLog();
+    private final List<Datum> sample = new ArrayList<>();
+    private long numNulls;
+    private long numValues;
+    private Datum minValue;
+    private Datum maxValue;
+
+    ColumnCollector(Column column) {
+      this.column = column;
+    }
+
+    void add(Tuple tuple, int fieldId, Random random) {
+      if (tuple.isBlankOrNull(fieldId)) {
+        numNulls++;
+        return;
+      }
+
+      Datum datum = tuple.asDatum(fieldId);
+      numValues++;
+      if (minValue == null || minValue.compareTo(datum) > 0) {
+        minValue = datum;
+      }
+      if (maxValue == null || maxValue.compareTo(datum) < 0) {
+        maxValue = datum;
+      }
+      ndvSketch.offer(datum);
+
+      // reservoir sampling keeps each value with the same probability
+      if (sample.size() < SAMPLE_SIZE) {
+        sample.add(datum);
+      } else {
+        long index = (long) (random.nextDouble() * numValues);
+        if (index < SAMPLE_SIZE) {
+          sample.set((int) index, datum);
+        }
+      }
+    }
+
+    ColumnStats getColumnStats() {
+      ColumnStats stats = new ColumnStats(column);
+      stats.setNumNulls(numNulls);
+      stats.setMinValue(minValue);
+      stats.setMaxValue(maxValue);
+      stats.setNdvSketch(ndvSketch);
+      stats.setNumDistVals(ndvSketch.cardinality());
+
+      Collections.sort(sample);
+      stats.setHistogram(Histogram.build(sample, numValues, Histogram.DEFAULT_NUM_BUCKETS));
+
+      Map<Datum, Long> sampleCounts = new HashMap<>();
+      for (Datum datum : sample) {
+        Long count = sampleCounts.get(datum);
+        sampleCounts.put(datum, count == null ? 1 : count + 1);
+      }
+      stats.setFrequentValues(FrequentValues.build(sampleCounts, sample.size(), numValues,
+          FrequentValues.DEFAULT_NUM_VALUES));
+      return stats;
+    }
+  }
+}
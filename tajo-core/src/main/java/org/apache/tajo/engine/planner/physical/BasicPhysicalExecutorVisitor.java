@@ -53,6 +53,8 @@ public class BasicPhysicalExecutorVisitor<CONTEXT, RESULT> implements PhysicalEx
       return visitHashShuffleFileWrite(context, (HashShuffleFileWriteExec) exec, stack);
     } else if (exec instanceof HavingExec) {
       return visitHaving(context, (HavingExec) exec, stack);
+    } else if (exec instanceof HybridHashJoinExec) {
+      return visitHybridHashJoin(context, (HybridHashJoinExec) exec, stack);
     } else if (exec instanceof LimitExec) {
       return visitLimit(context, (LimitExec) exec, stack);
     } else if (exec instanceof MergeFullOuterJoinExec) {
@@ -77,6 +79,8 @@ public class BasicPhysicalExecutorVisitor<CONTEXT, RESULT> implements PhysicalEx
       return visitStoreTable(context, (StoreTableExec) exec, stack);
     } else if (exec instanceof StoreIndexExec) {
       return visitStoreIndex(context, (StoreIndexExec) exec, stack);
+    } else if (exec instanceof TopKExec) {
+      return visitTopK(context, (TopKExec) exec, stack);
     }
 
     throw new PhysicalPlanningException("Unsupported Type: " + exec.getClass().getSimpleName());
@@ -171,6 +175,12 @@ public class BasicPhysicalExecutorVisitor<CONTEXT, RESULT> implements PhysicalEx
     return visitUnaryExecutor(context, exec, stack);
   }
 
+  @Override
+  public RESULT visitHybridHashJoin(CONTEXT context, HybridHashJoinExec exec, Stack<PhysicalExec> stack)
+      throws PhysicalPlanningException {
+    return visitBinaryExecutor(context, exec, stack);
+  }
+
   @Override
   public RESULT visitLimit(CONTEXT context, LimitExec exec, Stack<PhysicalExec> stack)
       throws PhysicalPlanningException {
@@ -241,4 +251,10 @@ public class BasicPhysicalExecutorVisitor<CONTEXT, RESULT> implements PhysicalEx
       throws PhysicalPlanningException {
     return visitUnaryExecutor(context, exec, stack);
   }
+
+  @Override
+  public RESULT visitTopK(CONTEXT context, TopKExec exec, Stack<PhysicalExec> stack)
+      throws PhysicalPlanningException {
+    return visitUnaryExecutor(context, exec, stack);
+  }
 }
@@ -28,6 +28,7 @@ import org.apache.tajo.exception.TajoInternalError;
 import org.apache.tajo.plan.logical.JoinNode;
 import org.apache.tajo.plan.util.PlannerUtil;
 import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.tuple.memory.UnSafeTuple;
 import org.apache.tajo.worker.ExecutionBlockSharedResource;
 import org.apache.tajo.worker.TaskAttemptContext;
 
@@ -37,14 +38,16 @@ import java.util.List;
 
 /**
  * common exec for all hash join execs
- *
- * @param <T> Tuple collection type to load small relation onto in-memory
  */
-public abstract class CommonHashJoinExec<T> extends CommonJoinExec {
+public abstract class CommonHashJoinExec extends CommonJoinExec {
 
   // temporal tuples and states for nested loop join
   protected boolean first = true;
-  protected TupleMap<T> tupleSlots;
+  protected JoinHashTable tupleSlots;
+  // true if tupleSlots is shared with other tasks through the broadcast cache
+  protected boolean sharedTupleSlots;
+  // owned by this exec for probing tupleSlots, which may be probed by other tasks at the same time
+  protected final UnSafeTuple probeRow = new UnSafeTuple();
 
   protected Iterator<Tuple> iterator;
 
@@ -114,7 +117,8 @@ public abstract class CommonHashJoinExec<T> extends CommonJoinExec {
       TableCacheKey key = CacheHolder.BroadcastCacheHolder.getCacheKey(context, scanExec);
       loadRightFromCache(key);
     } else {
-      this.tupleSlots = convert(buildRightToHashTable(), false);
+      this.tupleSlots = buildRightToHashTable();
+      this.sharedTupleSlots = false;
     }
 
     first = false;
@@ -123,21 +127,22 @@ public abstract class CommonHashJoinExec<T> extends CommonJoinExec {
   protected void loadRightFromCache(TableCacheKey key) throws IOException {
     ExecutionBlockSharedResource sharedResource = context.getSharedResource();
 
-    CacheHolder<TupleMap<TupleList>> holder;
+    CacheHolder<JoinHashTable> holder;
     synchronized (sharedResource.getLock()) {
       if (sharedResource.hasBroadcastCache(key)) {
         holder = sharedResource.getBroadcastCache(key);
       } else {
-        TupleMap<TupleList> built = buildRightToHashTable();
-        holder = new CacheHolder.BroadcastCacheHolder(built, rightChild.getInputStats(), null);
+        JoinHashTable built = buildRightToHashTable();
+        holder = new CacheHolder.BroadcastCacheHolder(built, rightChild.getInputStats());
         sharedResource.addBroadcastCache(key, holder);
       }
     }
     this.tableStatsOfCachedRightChild = holder.getTableStats();
-    this.tupleSlots = convert(holder.getData(), true);
+    this.tupleSlots = holder.getData();
+    this.sharedTupleSlots = true;
   }
 
-  protected TupleMap<TupleList> buildRightToHashTable() throws IOException {
+  protected JoinHashTable buildRightToHashTable() throws IOException {
     if (isCrossJoin) {
       return buildRightToHashTableForCrossJoin();
     } else {
@@ -145,39 +150,29 @@ public abstract class CommonHashJoinExec<T> extends CommonJoinExec {
     }
   }
 
-  protected TupleMap<TupleList> buildRightToHashTableForCrossJoin() throws IOException {
+  protected JoinHashTable buildRightToHashTableForCrossJoin() throws IOException {
     Tuple tuple;
-    TupleMap<TupleList> map = new TupleMap<>(1);
-    TupleList tuples = new TupleList();
+    // all tuples are kept in a single slot for an empty key
+    JoinHashTable table = new JoinHashTable(rightSchema, new Column[0], 1);
 
     while (!context.isStopped() && (tuple = rightChild.next()) != null) {
-      tuples.add(tuple);
+      table.add(tuple);
     }
-    map.put(null, tuples);
-    return map;
+    return table;
   }
 
-  protected TupleMap<TupleList> buildRightToHashTableForNonCrossJoin() throws IOException {
+  protected JoinHashTable buildRightToHashTableForNonCrossJoin() throws IOException {
     Tuple tuple;
-    TupleMap<TupleList> map = new TupleMap<>(context.getQueryContext().getInt(SessionVars.JOIN_HASH_TABLE_SIZE));
-    KeyProjector keyProjector = new KeyProjector(rightSchema, rightKeyList);
+    JoinHashTable table = new JoinHashTable(rightSchema, rightKeyList,
+        context.getQueryContext().getInt(SessionVars.JOIN_HASH_TABLE_SIZE));
 
     while (!context.isStopped() && (tuple = rightChild.next()) != null) {
-      KeyTuple keyTuple = keyProjector.project(tuple);
-      TupleList newValue = map.get(keyTuple);
-      if (newValue == null) {
-        map.put(keyTuple, newValue = new TupleList());
-      }
-      // if source is scan or groupby, it needs not to be cloned
-      newValue.add(tuple);
+      // tuples are copied into off-heap pages of the hash table
+      table.add(tuple);
     }
-    return map;
+    return table;
   }
 
-  // todo: convert loaded data to cache condition
-  protected abstract TupleMap<T> convert(TupleMap<TupleList> hashed, boolean fromCache)
-      throws IOException;
-
   @Override
   public void rescan() throws IOException {
     super.rescan();
@@ -190,7 +185,10 @@ public abstract class CommonHashJoinExec<T> extends CommonJoinExec {
     super.close();
     iterator = null;
     if (tupleSlots != null) {
-      tupleSlots.clear();
+      // a shared hash table is released by the broadcast cache when the execution block is finished
+      if (!sharedTupleSlots) {
+        tupleSlots.release();
+      }
       tupleSlots = null;
     }
   }
@@ -21,6 +21,7 @@ package org.apache.tajo.engine.planner.physical;
 import com.google.common.base.Preconditions;
 import com.google.common.primitives.*;
 import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.fs.LocalDirAllocator;
@@ -35,6 +36,8 @@ import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.common.TajoDataTypes;
 import org.apache.tajo.conf.TajoConf.ConfVars;
 import org.apache.tajo.datum.TextDatum;
+import org.apache.tajo.engine.codegen.CompilationError;
+import org.apache.tajo.engine.codegen.TupleComparatorCompiler;
 import org.apache.tajo.engine.planner.PhysicalPlanningException;
 import org.apache.tajo.exception.TajoRuntimeException;
 import org.apache.tajo.exception.UnsupportedException;
@@ -58,6 +61,7 @@ import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -69,6 +73,8 @@ import java.util.concurrent.Future;
  *   <li>in-memory sort if input data size fits a sort buffer</li>
  *   <li>k-way merge sort if input data size exceeds the size of sort buffer</li>
  *   <li>parallel merge</li>
+ *   <li>asynchronous I/O: a run is sorted and stored while the next run is loaded,
+ *   and inputs of merge are read ahead</li>
  *   <li>final merge avoidance</li>
  *   <li>Unbalance merge if needed</li>
  * </ul>
@@ -86,16 +92,26 @@ public class ExternalSortExec extends SortExec {
   private final int defaultFanout;
   /** It's the size of in-memory table. If memory consumption exceeds it, store the memory table into a disk. */
   private final long sortBufferBytesNum;
+  /** the bytes read ahead from each input of merge */
+  private final int readAheadBytesNum;
   /** the number of available cores */
   private final int allocatedCoreNum;
   /** If there are available multiple cores, it tries parallel merge. */
   private ExecutorService executorService;
+  /** for storing runs and reading ahead inputs of merge. It is null if the asynchronous I/O is disabled. */
+  private ExecutorService ioExecutorService;
   /** used for in-memory sort of each chunk. */
   private UnSafeTupleList inMemoryTable;
+  /** the run being stored by the asynchronous I/O. It is swapped with inMemoryTable. */
+  private UnSafeTupleList spillTable;
+  /** the chunk being stored by the asynchronous I/O */
+  private Future<Chunk> pendingSpill;
   /** for zero copy tuple comparison */
   private Comparator<UnSafeTuple> unSafeComparator;
   /** for other type tuple comparison */
   private Comparator<Tuple> primitiveComparator;
+  /** sorts in-memory rows by normalized keys. It is null if the normalized-key sort is not used. */
+  private NormalizedKeySorter normalizedKeySorter;
   /** temporal dir */
   private Path sortTmpDir;
   /** It enables round-robin disks allocation */
@@ -129,6 +145,8 @@ public class ExternalSortExec extends SortExec {
     // TODO - sort buffer and core num should be changed to use the allocated container resource.
     this.sortBufferBytesNum = context.getQueryContext().getInt(SessionVars.EXTSORT_BUFFER_SIZE) * StorageUnit.MB;
     this.allocatedCoreNum = context.getConf().getIntVar(ConfVars.EXECUTOR_EXTERNAL_SORT_THREAD_NUM);
+    this.readAheadBytesNum = context.getConf().getIntVar(ConfVars.EXECUTOR_EXTERNAL_SORT_READ_AHEAD_SIZE)
+        * StorageUnit.KB;
     this.localDirAllocator = new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
     this.localFS = new RawLocalFileSystem();
     this.intermediateMeta = CatalogUtil.newTableMeta(BuiltinStorages.DRAW);
@@ -157,6 +175,10 @@ public class ExternalSortExec extends SortExec {
     if(allocatedCoreNum > 1) {
       this.executorService = Executors.newFixedThreadPool(this.allocatedCoreNum);
     }
+    if (context.getConf().getBoolVar(ConfVars.EXECUTOR_EXTERNAL_SORT_ASYNC_IO)) {
+      this.ioExecutorService = Executors.newCachedThreadPool(
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("External sort I/O #%d").build());
+    }
 
     this.sortTmpDir = getExecutorTmpDir();
 
@@ -164,14 +186,42 @@ public class ExternalSortExec extends SortExec {
     this.inMemoryTable = new UnSafeTupleList(SchemaUtil.toDataTypes(inSchema), initialArraySize);
     this.unSafeComparator = new UnSafeComparator(inSchema, sortSpecs);
     this.primitiveComparator = new PrimitiveComparator(inSchema, sortSpecs);
+    if (context.getQueryContext().getBool(SessionVars.SORT_NORMALIZED_KEY_ENABLED)
+        && NormalizedKeySorter.isApplicable(sortSpecs)) {
+      this.normalizedKeySorter = new NormalizedKeySorter(inSchema, sortSpecs);
+    }
 
     super.init();
   }
 
+  @Override
+  protected void compile() throws CompilationError {
+    TupleComparatorCompiler compiler = context.getComparatorCompiler();
+    if (compiler == null) {
+      return;
+    }
+
+    try {
+      this.unSafeComparator = compiler.compileUnSafeComparator(inSchema, sortSpecs);
+      this.primitiveComparator = compiler.compileTupleComparator(inSchema, sortSpecs);
+    } catch (CompilationError e) {
+      LOG.warn("Cannot compile comparators for " + plan.getPID() + ". Interpreted comparators are used: "
+          + e.getMessage());
+    }
+  }
+
   public SortNode getPlan() {
     return this.plan;
   }
 
+  private void sortInMemory(UnSafeTupleList tupleBlock) {
+    if (normalizedKeySorter != null) {
+      normalizedKeySorter.sort(tupleBlock, unSafeComparator);
+    } else {
+      OffHeapRowBlockUtils.sort(tupleBlock, unSafeComparator);
+    }
+  }
+
   /**
    * Sort a tuple block and store them into a chunk file
    */
@@ -180,7 +230,7 @@ public class ExternalSortExec extends SortExec {
     int rowNum = tupleBlock.size();
 
     long sortStart = System.currentTimeMillis();
-    OffHeapRowBlockUtils.sort(tupleBlock, unSafeComparator);
+    sortInMemory(tupleBlock);
     long sortEnd = System.currentTimeMillis();
 
     long chunkWriteStart = System.currentTimeMillis();
@@ -204,6 +254,53 @@ public class ExternalSortExec extends SortExec {
     return new Chunk(inSchema, frag, intermediateMeta);
   }
 
+  /**
+   * Sort and store the in-memory table into a chunk file.
+   *
+   * If the asynchronous I/O is enabled, the in-memory table is swapped with the other buffer, and it is sorted and
+   * stored on a background thread while the next run is loaded. Its chunk is added when the next run is stored.
+   * The first run fills the whole sort buffer, so it is always stored synchronously.
+   */
+  private void spill(final int chunkId, List<Chunk> chunks) throws IOException {
+    if (ioExecutorService == null || chunkId == 0) {
+      chunks.add(sortAndStoreChunk(chunkId, inMemoryTable));
+      inMemoryTable.clear();
+      return;
+    }
+
+    // the other buffer can be reused after the previous run is stored
+    waitForSpill(chunks);
+    if (spillTable == null) {
+      int initialArraySize = context.getQueryContext().getInt(SessionVars.SORT_LIST_SIZE);
+      spillTable = new UnSafeTupleList(SchemaUtil.toDataTypes(inSchema), initialArraySize);
+    }
+
+    final UnSafeTupleList run = inMemoryTable;
+    inMemoryTable = spillTable;
+    spillTable = run;
+    pendingSpill = ioExecutorService.submit(() -> sortAndStoreChunk(chunkId, run));
+  }
+
+  /**
+   * Wait for the run being stored by the asynchronous I/O, and add its chunk.
+   */
+  private void waitForSpill(List<Chunk> chunks) throws IOException {
+    if (pendingSpill == null) {
+      return;
+    }
+
+    try {
+      chunks.add(pendingSpill.get());
+    } catch (InterruptedException e) {
+      throw new IOException(e);
+    } catch (ExecutionException e) {
+      throw new IOException(e.getCause());
+    } finally {
+      pendingSpill = null;
+    }
+    spillTable.clear();
+  }
+
   /**
    * It divides all tuples into a number of chunks, then sort for each chunk.
    *
@@ -216,20 +313,25 @@ public class ExternalSortExec extends SortExec {
 
     int chunkId = 0;
     long runStartTime = System.currentTimeMillis();
+    // Inputs fitting in the sort buffer are sorted in memory. After the first run is stored,
+    // two buffers share the sort buffer if runs are stored asynchronously.
+    long runBytesNum = sortBufferBytesNum;
 
     while (!context.isStopped() && (tuple = child.next()) != null) { // partition sort start
       inMemoryTable.addTuple(tuple);
 
-      if (inMemoryTable.usedMem() > sortBufferBytesNum) { // if input data exceeds main-memory at least once
+      if (inMemoryTable.usedMem() > runBytesNum) { // if input data exceeds main-memory at least once
         long runEndTime = System.currentTimeMillis();
         info(LOG, "Chunk #" + chunkId + " run loading time: " + (runEndTime - runStartTime) + " msec");
         runStartTime = runEndTime;
 
         info(LOG, "Memory consumption exceeds " + FileUtil.humanReadableByteCount(inMemoryTable.usedMem(), false));
 
-        chunkPaths.add(sortAndStoreChunk(chunkId, inMemoryTable));
-        inMemoryTable.clear();
+        spill(chunkId, chunkPaths);
         chunkId++;
+        if (ioExecutorService != null) {
+          runBytesNum = sortBufferBytesNum / 2;
+        }
 
         // When the volume of sorting data once exceed the size of sort buffer,
         // the total progress of this external sort is divided into two parts.
@@ -245,6 +347,11 @@ public class ExternalSortExec extends SortExec {
         progress = child.getProgress() * 0.5f;
       }
     }
+    waitForSpill(chunkPaths);
+    if (spillTable != null) { // no more runs are stored
+      spillTable.release();
+      spillTable = null;
+    }
 
     if(inMemoryTable.size() > 0) { //if there are at least one or more input tuples
       //store the remain data into a memory chunk.
@@ -527,7 +634,7 @@ public class ExternalSortExec extends SortExec {
     if (chunk.isMemory()) {
       long sortStart = System.currentTimeMillis();
 
-      OffHeapRowBlockUtils.sort(inMemoryTable, unSafeComparator);
+      sortInMemory(inMemoryTable);
       Scanner scanner = new MemTableScanner<>(inMemoryTable, inMemoryTable.size(), inMemoryTable.usedMem());
       if(LOG.isDebugEnabled()) {
         debug(LOG, "Memory Chunk sort (" + FileUtil.humanReadableByteCount(inMemoryTable.usedMem(), false)
@@ -536,7 +643,12 @@ public class ExternalSortExec extends SortExec {
       }
       return scanner;
     } else {
-      return TablespaceManager.getLocalFs().getScanner(chunk.meta, chunk.schema, chunk.fragment, chunk.schema);
+      Scanner scanner =
+          TablespaceManager.getLocalFs().getScanner(chunk.meta, chunk.schema, chunk.fragment, chunk.schema);
+      if (ioExecutorService != null) {
+        return new ReadAheadScanner(scanner, ioExecutorService, readAheadBytesNum);
+      }
+      return scanner;
     }
   }
 
@@ -806,6 +918,16 @@ public class ExternalSortExec extends SortExec {
       result.close();
     }
 
+    // the run being stored uses spillTable
+    if (pendingSpill != null) {
+      try {
+        pendingSpill.get();
+      } catch (Throwable t) {
+        LOG.warn("Failed to store a sorted run: " + t.getMessage());
+      }
+      pendingSpill = null;
+    }
+
     if (finalOutputFiles != null) {
       for (Chunk chunk : finalOutputFiles) {
         if (!chunk.isMemory()) {
@@ -826,6 +948,16 @@ public class ExternalSortExec extends SortExec {
       inMemoryTable = null;
     }
 
+    if (spillTable != null) {
+      spillTable.release();
+      spillTable = null;
+    }
+
+    if (ioExecutorService != null) {
+      ioExecutorService.shutdown();
+      ioExecutorService = null;
+    }
+
     if(executorService != null){
       executorService.shutdown();
       executorService = null;
@@ -18,55 +18,183 @@
 
 package org.apache.tajo.engine.planner.physical;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.Path;
 import org.apache.tajo.SessionVars;
+import org.apache.tajo.datum.Datum;
 import org.apache.tajo.engine.planner.KeyProjector;
+import org.apache.tajo.engine.planner.physical.HashPartitionSpiller.SpilledPartition;
 import org.apache.tajo.plan.function.FunctionContext;
 import org.apache.tajo.plan.logical.GroupbyNode;
+import org.apache.tajo.storage.Scanner;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
+import org.apache.tajo.unit.StorageUnit;
+import org.apache.tajo.util.FileUtil;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.Map.Entry;
 
 /**
  * This is the hash-based GroupBy Operator.
+ *
+ * If the estimated size of groups exceeds {@link SessionVars#HASH_GROUPBY_MEMORY_LIMIT}, groups already in memory
+ * continue to be aggregated, but input tuples of new groups are spilled to local disks, partitioned by hash
+ * of their grouping keys. After all groups in memory are returned, each spilled partition is aggregated in turn,
+ * and it can be spilled again at the next level if it still does not fit in memory.
+ *
+ * If the grouping keys and aggregation functions can be handled by {@link PrimitiveHashAggregator} and the child is
+ * a {@link VectorizedExec}, input rows are aggregated in batches of column vectors. If the child is a
+ * {@link SeqScanExec}, it pushes input tuples into this executor by {@link SeqScanExec#pushTo(TupleConsumer)}.
+ * The primitive aggregation is spilled in the same way when it exceeds the memory limit, and spilled partitions
+ * are aggregated by the generic aggregation.
  */
 public class HashAggregateExec extends AggregationExec {
+  private static final Log LOG = LogFactory.getLog(HashAggregateExec.class);
+  /** rough heap bytes of a hash entry, a key tuple and a context array except for datums */
+  private static final int GROUP_OVERHEAD_BYTES = 96;
+  /** rough heap bytes of a function context */
+  private static final int FUNCTION_CONTEXT_BYTES = 32;
+
   private Tuple tuple = null;
   private TupleMap<FunctionContext[]> hashTable;
   private KeyProjector hashKeyProjector;
   private boolean computed = false;
   private Iterator<Entry<KeyTuple, FunctionContext []>> iterator = null;
 
+  // specialized aggregation for primitive grouping keys and builtin functions. It is null if not applicable.
+  private PrimitiveHashAggregator primitiveAggregator;
+  private int groupIdx;
+  // true if all primitive groups were returned and released to aggregate spilled partitions
+  private boolean primitiveReleased;
+  // an input row of a batch which is spilled or aggregated tuple-at-a-time
+  private Tuple rowTuple;
+
+  // for spilling
+  private final long memoryLimit;
+  private long estimatedMemory;
+  private Path spillTmpDir;
+  private HashPartitionSpiller spiller;
+  private final LinkedList<SpilledPartition> spilledPartitions = new LinkedList<>();
+  private boolean spilled = false;
+
   public HashAggregateExec(TaskAttemptContext ctx, GroupbyNode plan, PhysicalExec subOp) throws IOException {
     super(ctx, plan, subOp);
+    int initialCapacity = ctx.getQueryContext().getInt(SessionVars.AGG_HASH_TABLE_SIZE);
+    if (PrimitiveHashAggregator.isApplicable(inSchema, plan.getGroupingColumns(), aggFunctions)) {
+      primitiveAggregator = new PrimitiveHashAggregator(inSchema, plan.getGroupingColumns(), aggFunctions,
+          initialCapacity);
+    } else {
+      hashTable = new TupleMap<>(initialCapacity);
+    }
+    // the primitive aggregation also uses it to spill tuples
     hashKeyProjector = new KeyProjector(inSchema, plan.getGroupingColumns());
-    hashTable = new TupleMap<>(ctx.getQueryContext().getInt(SessionVars.AGG_HASH_TABLE_SIZE));
+    this.memoryLimit = ctx.getQueryContext().getLong(SessionVars.HASH_GROUPBY_MEMORY_LIMIT) * StorageUnit.MB;
     this.tuple = new VTuple(plan.getOutSchema().size());
   }
 
-  private void compute() throws IOException {
-    Tuple tuple;
-    KeyTuple keyTuple;
-    while(!context.isStopped() && (tuple = child.next()) != null) {
-      keyTuple = hashKeyProjector.project(tuple);
-
-      FunctionContext [] contexts = hashTable.get(keyTuple);
-      if(contexts != null) {
-        for(int i = 0; i < aggFunctions.size(); i++) {
-          aggFunctions.get(i).merge(contexts[i], tuple);
+  private void computeWithPrimitiveAggregator() throws IOException {
+    if (child instanceof VectorizedExec && ((VectorizedExec) child).isBatchAvailable()) {
+      // the child can pass rows in column vectors without creating tuples
+      VectorizedExec vectorizedChild = (VectorizedExec) child;
+      VectorizedRowBatch batch;
+      while(!context.isStopped() && (batch = vectorizedChild.nextBatch()) != null) {
+        if (spiller == null) {
+          primitiveAggregator.add(batch);
+          spillPrimitiveIfFull();
+        } else {
+          // after the memory is full, rows of new groups are spilled one by one
+          if (rowTuple == null) {
+            rowTuple = new VTuple(inSchema.size());
+          }
+          for (int i = 0; i < batch.size(); i++) {
+            batch.fillTuple(batch.getRow(i), rowTuple);
+            aggregatePrimitive(rowTuple);
+          }
         }
-      } else { // if the key occurs firstly
-        contexts = new FunctionContext[aggFunctionsNum];
-        for(int i = 0; i < aggFunctionsNum; i++) {
-          contexts[i] = aggFunctions.get(i).newContext();
-          aggFunctions.get(i).merge(contexts[i], tuple);
-        }
-        hashTable.put(keyTuple, contexts);
+      }
+    } else if (child instanceof SeqScanExec) {
+      // a sequential scan can push tuples in a fused loop without the next() chain
+      ((SeqScanExec) child).pushTo(this::aggregatePrimitive);
+    } else {
+      Tuple tuple;
+      while(!context.isStopped() && (tuple = child.next()) != null) {
+        aggregatePrimitive(tuple);
+      }
+    }
+
+    if (spiller != null) {
+      finishSpill();
+      // groups of spilled tuples are returned by the generic aggregation after the primitive groups
+      iterator = hashTable.entrySet().iterator();
+    }
+  }
+
+  private void aggregatePrimitive(Tuple tuple) throws IOException {
+    if (spiller == null) {
+      primitiveAggregator.add(tuple);
+      spillPrimitiveIfFull();
+    } else if (!primitiveAggregator.addIfPresent(tuple)) {
+      spiller.add(hashKeyProjector.project(tuple).hashCode(), tuple);
+    }
+  }
+
+  private void spillPrimitiveIfFull() {
+    long bytes = primitiveAggregator.estimateBytes();
+    if (bytes > memoryLimit) {
+      startSpill(primitiveAggregator.size(), bytes, 0);
+      // spilled partitions are aggregated by the generic aggregation
+      hashTable = new TupleMap<>(context.getQueryContext().getInt(SessionVars.AGG_HASH_TABLE_SIZE));
+    }
+  }
+
+  private void startSpill(int groupNum, long bytes, int level) {
+    LOG.info("The estimated size of " + groupNum + " groups (" + FileUtil.humanReadableByteCount(bytes, false)
+        + ") exceeds the memory limit. Tuples of new groups will be spilled at level " + level);
+    if (spillTmpDir == null) {
+      spillTmpDir = getExecutorTmpDir();
+    }
+    spiller = new HashPartitionSpiller(context, inSchema, spillTmpDir, "groupby", level);
+    spilled = true;
+  }
+
+  private void finishSpill() throws IOException {
+    for (SpilledPartition partition : spiller.finish()) {
+      if (partition != null) {
+        spilledPartitions.add(partition);
       }
     }
+    spiller = null;
+  }
+
+  /**
+   * Aggregate input tuples into the hash table.
+   *
+   * @param input spilled tuples. If it is null, tuples are read from the child.
+   * @param level the level of spill which input tuples may be spilled at
+   */
+  private void compute(Scanner input, int level) throws IOException {
+    // without any grouping key, there is only one group
+    boolean spillable = groupingKeyNum > 0 && level <= HashPartitionSpiller.MAX_LEVEL;
+
+    if (input == null && child instanceof SeqScanExec) {
+      // a sequential scan can push tuples in a fused loop without the next() chain
+      ((SeqScanExec) child).pushTo(tuple -> aggregate(tuple, level, spillable));
+    } else {
+      Tuple tuple;
+      while(!context.isStopped() && (tuple = (input == null ? child.next() : input.next())) != null) {
+        aggregate(tuple, level, spillable);
+      }
+    }
+
+    if (spiller != null) {
+      finishSpill();
+    }
 
     // If HashAggregateExec received NullDatum and didn't has any grouping keys,
     // it should return primitive values for NullLDatum.
@@ -79,14 +207,89 @@ public class HashAggregateExec extends AggregationExec {
     }
   }
 
+  private void aggregate(Tuple tuple, int level, boolean spillable) throws IOException {
+    KeyTuple keyTuple = hashKeyProjector.project(tuple);
+
+    FunctionContext [] contexts = hashTable.get(keyTuple);
+    if(contexts != null) {
+      for(int i = 0; i < aggFunctions.size(); i++) {
+        aggFunctions.get(i).merge(contexts[i], tuple);
+      }
+    } else if (spiller != null) { // if the memory is full, a tuple of a new group is spilled
+      spiller.add(keyTuple.hashCode(), tuple);
+    } else { // if the key occurs firstly
+      contexts = new FunctionContext[aggFunctionsNum];
+      for(int i = 0; i < aggFunctionsNum; i++) {
+        contexts[i] = aggFunctions.get(i).newContext();
+        aggFunctions.get(i).merge(contexts[i], tuple);
+      }
+      hashTable.put(keyTuple, contexts);
+
+      estimatedMemory += estimateGroupBytes(keyTuple);
+      if (spillable && estimatedMemory > memoryLimit) {
+        startSpill(hashTable.size(), estimatedMemory, level);
+      }
+    }
+  }
+
+  private long estimateGroupBytes(KeyTuple keyTuple) {
+    long bytes = GROUP_OVERHEAD_BYTES + (long) aggFunctionsNum * FUNCTION_CONTEXT_BYTES;
+    for (Datum datum : keyTuple.getValues()) {
+      bytes += datum.size();
+    }
+    return bytes;
+  }
+
+  /**
+   * Aggregate the next spilled partition after all groups in memory are returned.
+   */
+  private void computeNextSpilledPartition() throws IOException {
+    hashTable.clear();
+    estimatedMemory = 0;
+
+    SpilledPartition partition = spilledPartitions.removeFirst();
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Aggregating a spilled partition " + partition);
+    }
+    Scanner scanner = partition.openScanner();
+    try {
+      compute(scanner, partition.getLevel() + 1);
+    } finally {
+      scanner.close();
+      partition.delete();
+    }
+    iterator = hashTable.entrySet().iterator();
+  }
+
   @Override
   public Tuple next() throws IOException {
-    if(!computed) {
-      compute();
+    if (primitiveAggregator != null) {
+      if (!computed) {
+        computeWithPrimitiveAggregator();
+        computed = true;
+      }
+
+      if (!primitiveReleased) {
+        if (groupIdx < primitiveAggregator.size()) {
+          primitiveAggregator.fill(groupIdx++, tuple);
+          return tuple;
+        } else if (!spilled) {
+          return null;
+        }
+        // all groups in memory were returned, so spilled partitions are aggregated below
+        primitiveAggregator.clear();
+        primitiveReleased = true;
+      }
+    } else if(!computed) {
+      compute(null, 0);
       iterator = hashTable.entrySet().iterator();
       computed = true;
     }
 
+    while (!iterator.hasNext() && !spilledPartitions.isEmpty() && !context.isStopped()) {
+      computeNextSpilledPartition();
+    }
+
     FunctionContext [] contexts;
 
     if (iterator.hasNext()) {
@@ -108,16 +311,58 @@ public class HashAggregateExec extends AggregationExec {
     }
   }
 
+  /**
+   * @return True if any input tuple was spilled since the last rescan
+   */
+  public boolean isSpilled() {
+    return spilled;
+  }
+
   @Override
   public void rescan() throws IOException {
-    iterator = hashTable.entrySet().iterator();
+    if (spilled) {
+      // spilled groups were already consumed, so all tuples are aggregated again.
+      super.rescan();
+      clearSpilledPartitions();
+      if (primitiveAggregator != null) {
+        primitiveAggregator.clear();
+        groupIdx = 0;
+        primitiveReleased = false;
+      }
+      hashTable.clear();
+      estimatedMemory = 0;
+      spilled = false;
+      computed = false;
+    } else if (primitiveAggregator != null) {
+      groupIdx = 0;
+    } else {
+      iterator = hashTable.entrySet().iterator();
+    }
+  }
+
+  private void clearSpilledPartitions() throws IOException {
+    if (spiller != null) {
+      spiller.close();
+      spiller = null;
+    }
+    for (SpilledPartition partition : spilledPartitions) {
+      partition.delete();
+    }
+    spilledPartitions.clear();
   }
 
   @Override
   public void close() throws IOException {
     super.close();
-    hashTable.clear();
-    hashTable = null;
+    if (primitiveAggregator != null) {
+      primitiveAggregator.clear();
+      primitiveAggregator = null;
+    }
+    clearSpilledPartitions();
+    if (hashTable != null) {
+      hashTable.clear();
+      hashTable = null;
+    }
     iterator = null;
   }
 }
@@ -21,18 +21,20 @@ package org.apache.tajo.engine.planner.physical;
 import org.apache.tajo.plan.logical.JoinNode;
 import org.apache.tajo.storage.NullTuple;
 import org.apache.tajo.storage.Tuple;
-import org.apache.tajo.util.Pair;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
-public class HashFullOuterJoinExec extends CommonHashJoinExec<Pair<Boolean, TupleList>> {
+public class HashFullOuterJoinExec extends CommonHashJoinExec {
 
   private boolean finalLoop; // final loop for right unmatched
   private final List<Tuple> nullTupleList;
+  // flags whether each slot of the hash table had at least one match on the counter part.
+  // It is kept per task because the hash table can be shared through the broadcast cache.
+  private final BitSet matched = new BitSet();
 
   public HashFullOuterJoinExec(TaskAttemptContext context, JoinNode plan, PhysicalExec outer,
                                PhysicalExec inner) {
@@ -44,7 +46,7 @@ public class HashFullOuterJoinExec extends CommonHashJoinExec<Pair<Boolean, Tupl
 
     return new Iterator<Tuple>() {
 
-      private Iterator<Pair<Boolean, TupleList>> iterator1 = tupleSlots.values().iterator();
+      private int slot = -1;
       private Iterator<Tuple> iterator2;
 
       @Override
@@ -52,10 +54,9 @@ public class HashFullOuterJoinExec extends CommonHashJoinExec<Pair<Boolean, Tupl
         if (hasMore()) {
           return true;
         }
-        for (iterator2 = null; !hasMore() && iterator1.hasNext();) {
-          Pair<Boolean, TupleList> next = iterator1.next();
-          if (!next.getFirst()) {
-            iterator2 = next.getSecond().iterator();
+        for (iterator2 = null; !hasMore() && ++slot < tupleSlots.capacity();) {
+          if (tupleSlots.isOccupied(slot) && !matched.get(slot)) {
+            iterator2 = tupleSlots.rows(slot).iterator();
           }
         }
         return hasMore();
@@ -107,40 +108,27 @@ public class HashFullOuterJoinExec extends CommonHashJoinExec<Pair<Boolean, Tupl
         continue;
       }
       // getting corresponding right
-      Pair<Boolean, TupleList> hashed = tupleSlots.get(leftKeyExtractor.project(leftTuple));
-      if (hashed == null) {
+      int slot = tupleSlots.find(leftKeyExtractor.project(leftTuple), probeRow);
+      if (slot < 0) {
         iterator = nullTupleList.iterator();
         continue;
       }
-      Iterator<Tuple> rightTuples = rightFiltered(hashed.getSecond());
+      Iterator<Tuple> rightTuples = rightFiltered(tupleSlots.rows(slot));
       if (!rightTuples.hasNext()) {
         iterator = nullTupleList.iterator();
         continue;
       }
       iterator = rightTuples;
-      hashed.setFirst(true);   // match found
+      matched.set(slot);   // match found
     }
 
     return null;
   }
 
-  @Override
-  protected TupleMap<Pair<Boolean, TupleList>> convert(TupleMap<TupleList> hashed,
-                                                       boolean fromCache) throws IOException {
-    TupleMap<Pair<Boolean, TupleList>> tuples = new TupleMap<>(hashed.size());
-    for (Map.Entry<KeyTuple, TupleList> entry : hashed.entrySet()) {
-      // flag: initially false (whether this join key had at least one match on the counter part)
-      tuples.putWihtoutKeyCopy(entry.getKey(), new Pair<>(false, entry.getValue()));
-    }
-    return tuples;
-  }
-
   @Override
   public void rescan() throws IOException {
     super.rescan();
-    for (Pair<Boolean, TupleList> value : tupleSlots.values()) {
-      value.setFirst(false);
-    }
+    matched.clear();
     finalLoop = false;
   }
 }
@@ -25,19 +25,13 @@ import org.apache.tajo.worker.TaskAttemptContext;
 import java.io.IOException;
 import java.util.Iterator;
 
-public class HashJoinExec extends CommonHashJoinExec<TupleList> {
+public class HashJoinExec extends CommonHashJoinExec {
 
   public HashJoinExec(TaskAttemptContext context, JoinNode plan, PhysicalExec leftExec,
       PhysicalExec rightExec) {
     super(context, plan, leftExec, rightExec);
   }
 
-  @Override
-  protected TupleMap<TupleList> convert(TupleMap<TupleList> hashed, boolean fromCache)
-      throws IOException {
-    return fromCache ? new TupleMap<>(hashed) : hashed;
-  }
-
   @Override
   public Tuple next() throws IOException {
     if (first) {
@@ -61,9 +55,9 @@ public class HashJoinExec extends CommonHashJoinExec<TupleList> {
       // getting corresponding right
       Iterable<Tuple> hashed;
       if (!isCrossJoin) {
-        hashed = tupleSlots.get(leftKeyExtractor.project(leftTuple));
+        hashed = tupleSlots.get(leftKeyExtractor.project(leftTuple), probeRow);
       } else {
-        hashed = tupleSlots.get(null);
+        hashed = tupleSlots.get(null, probeRow);
       }
       Iterator<Tuple> rightTuples = rightFiltered(hashed);
       if (rightTuples.hasNext()) {
@@ -63,7 +63,7 @@ public class HashLeftOuterJoinExec extends HashJoinExec {
       }
 
       // getting corresponding right
-      TupleList hashed = tupleSlots.get(leftKeyExtractor.project(leftTuple));
+      Iterable<Tuple> hashed = tupleSlots.get(leftKeyExtractor.project(leftTuple), probeRow);
       Iterator<Tuple> rightTuples = rightFiltered(hashed);
       if (!rightTuples.hasNext()) {
         //this left tuple doesn't have a match on the right.But full outer join => we should keep it anyway
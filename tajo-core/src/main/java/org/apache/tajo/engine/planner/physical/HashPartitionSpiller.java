@@ -0,0 +1,222 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.LocalDirAllocator;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.apache.tajo.BuiltinStorages;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.storage.Scanner;
+import org.apache.tajo.storage.TablespaceManager;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.storage.rawfile.DirectRawFileWriter;
+import org.apache.tajo.util.FileUtil;
+import org.apache.tajo.worker.TaskAttemptContext;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HashPartitionSpiller writes tuples into local temporal files partitioned by the hash of their keys.
+ * It is used by hash-based operators which cannot keep all tuples in memory.
+ *
+ * Every recursion level uses different bits of a hash value to choose a partition, so that
+ * a spilled partition can be divided again into smaller partitions at the next level.
+ */
+public class HashPartitionSpiller implements Closeable {
+  private static final Log LOG = LogFactory.getLog(HashPartitionSpiller.class);
+
+  public static final int PARTITION_BITS = 4;
+  public static final int PARTITION_NUM = 1 << PARTITION_BITS;
+  /** the maximum level which can be partitioned again */
+  public static final int MAX_LEVEL = Integer.SIZE / PARTITION_BITS - 1;
+
+  private static final TableMeta INTERMEDIATE_META = CatalogUtil.newTableMeta(BuiltinStorages.DRAW);
+  // distinguishes files of spillers which have the same name and level
+  private static final AtomicInteger SPILLER_SEQ = new AtomicInteger();
+
+  private final TaskAttemptContext context;
+  private final Schema schema;
+  private final Path tmpDir;
+  private final String name;
+  private final int level;
+  private final int seq;
+  private final LocalDirAllocator localDirAllocator;
+  private final RawLocalFileSystem localFS;
+
+  private final DirectRawFileWriter[] writers = new DirectRawFileWriter[PARTITION_NUM];
+  private final Path[] paths = new Path[PARTITION_NUM];
+  private final long[] rowNums = new long[PARTITION_NUM];
+
+  /**
+   * @param context task context
+   * @param schema the schema of spilled tuples
+   * @param tmpDir the relative path of temporal files under local temporal dirs
+   * @param name the unique name of this spiller in the temporal dir
+   * @param level recursion level
+   */
+  public HashPartitionSpiller(TaskAttemptContext context, Schema schema, Path tmpDir, String name, int level) {
+    this.context = context;
+    this.schema = schema;
+    this.tmpDir = tmpDir;
+    this.name = name;
+    this.level = level;
+    this.seq = SPILLER_SEQ.getAndIncrement();
+    this.localDirAllocator = new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
+    this.localFS = new RawLocalFileSystem();
+  }
+
+  /**
+   * @param hash the hash value of a key
+   * @param level recursion level
+   * @return partition id between 0 and PARTITION_NUM - 1
+   */
+  public static int getPartition(int hash, int level) {
+    hash ^= (hash >>> 16);
+    hash *= 0x85ebca6b;
+    hash ^= (hash >>> 13);
+    return (hash >>> (level * PARTITION_BITS)) & (PARTITION_NUM - 1);
+  }
+
+  public int getLevel() {
+    return level;
+  }
+
+  /**
+   * Write a tuple into the partition of its hash value.
+   */
+  public void add(int hash, Tuple tuple) throws IOException {
+    addToPartition(getPartition(hash, level), tuple);
+  }
+
+  /**
+   * Write a tuple into a given partition.
+   */
+  public void addToPartition(int partitionId, Tuple tuple) throws IOException {
+    DirectRawFileWriter writer = writers[partitionId];
+    if (writer == null) {
+      paths[partitionId] = localFS.makeQualified(localDirAllocator.getLocalPathForWrite(
+          tmpDir + "/" + name + "_" + level + "_" + seq + "_" + partitionId, context.getConf()));
+      writer = writers[partitionId] =
+          new DirectRawFileWriter(context.getConf(), null, schema, INTERMEDIATE_META, paths[partitionId]);
+      writer.init();
+    }
+    writer.addTuple(tuple);
+    rowNums[partitionId]++;
+  }
+
+  /**
+   * Close all writers, and return spilled partitions.
+   *
+   * @return an array of spilled partitions indexed by the partition id. It contains null for empty partitions.
+   */
+  public SpilledPartition[] finish() throws IOException {
+    SpilledPartition[] partitions = new SpilledPartition[PARTITION_NUM];
+    long totalBytes = 0;
+    for (int i = 0; i < PARTITION_NUM; i++) {
+      if (writers[i] != null) {
+        writers[i].close();
+        writers[i] = null;
+
+        long length = new File(paths[i].toUri()).length();
+        totalBytes += length;
+        partitions[i] = new SpilledPartition(schema, paths[i], length, rowNums[i], level);
+      }
+    }
+    LOG.info(name + " spilled " + FileUtil.humanReadableByteCount(totalBytes, false)
+        + " at level " + level + " (" + context.getTaskId() + ")");
+    return partitions;
+  }
+
+  /**
+   * Close all writers and remove written files without returning them.
+   */
+  @Override
+  public void close() throws IOException {
+    for (int i = 0; i < PARTITION_NUM; i++) {
+      if (writers[i] != null) {
+        writers[i].close();
+        writers[i] = null;
+        localFS.delete(paths[i], false);
+      }
+    }
+  }
+
+  /**
+   * A partition written into a local file
+   */
+  public static class SpilledPartition {
+    private final Schema schema;
+    private final Path path;
+    private final long length;
+    private final long rowNum;
+    private final int level;
+
+    SpilledPartition(Schema schema, Path path, long length, long rowNum, int level) {
+      this.schema = schema;
+      this.path = path;
+      this.length = length;
+      this.rowNum = rowNum;
+      this.level = level;
+    }
+
+    public long getLength() {
+      return length;
+    }
+
+    public long getRowNum() {
+      return rowNum;
+    }
+
+    /**
+     * @return the level at which this partition was written
+     */
+    public int getLevel() {
+      return level;
+    }
+
+    /**
+     * @return an initialized scanner for the spilled tuples
+     */
+    public Scanner openScanner() throws IOException {
+      FileFragment fragment = new FileFragment(path.getName(), path, 0, length);
+      Scanner scanner = TablespaceManager.getLocalFs().getScanner(INTERMEDIATE_META, schema, fragment, schema);
+      scanner.init();
+      return scanner;
+    }
+
+    public void delete() throws IOException {
+      new RawLocalFileSystem().delete(path, false);
+    }
+
+    @Override
+    public String toString() {
+      return path.getName() + " (" + rowNum + " rows, " + FileUtil.humanReadableByteCount(length, false) + ")";
+    }
+  }
+}
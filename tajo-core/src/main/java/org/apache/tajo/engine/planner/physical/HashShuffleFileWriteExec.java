@@ -30,9 +30,14 @@ import org.apache.tajo.catalog.SchemaUtil;
 import org.apache.tajo.catalog.TableMeta;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.engine.planner.enforce.Enforcer;
+import org.apache.tajo.engine.utils.KeyBloomFilter;
 import org.apache.tajo.exception.TajoRuntimeException;
 import org.apache.tajo.exception.UnsupportedException;
 import org.apache.tajo.plan.logical.ShuffleFileWriteNode;
+import org.apache.tajo.plan.serder.PlanProto.EnforceProperty;
+import org.apache.tajo.plan.serder.PlanProto.EnforceProperty.EnforceType;
 import org.apache.tajo.storage.HashShuffleAppenderManager;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.tuple.memory.MemoryRowBlock;
@@ -40,6 +45,7 @@ import org.apache.tajo.tuple.memory.RowBlock;
 import org.apache.tajo.tuple.memory.RowWriter;
 import org.apache.tajo.unit.StorageUnit;
 import org.apache.tajo.util.FileUtil;
+import org.apache.tajo.worker.HashShufflePusher;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
@@ -52,6 +58,13 @@ import java.util.concurrent.Future;
 /**
  * <code>HashShuffleFileWriteExec</code> is a physical executor to store intermediate data into a number of
  * file outputs associated with shuffle keys. The file outputs are stored on local disks.
+ *
+ * If the stage has push targets, partitions are pushed to the pull servers merging them by {@link HashShufflePusher}
+ * instead. A partition buffer is also pushed as soon as it reaches the page volume, so that each push is a page
+ * of the merged file.
+ *
+ * If the block is enforced to build a runtime filter, it also builds a bloom filter over the shuffle keys, which is
+ * reported to the QueryMaster with the shuffle report of the worker.
  */
 public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
   private static final Log LOG = LogFactory.getLog(HashShuffleFileWriteExec.class);
@@ -59,6 +72,8 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
   private static final int MINIMUM_INITIAL_BUFFER_SIZE = 4 * StorageUnit.KB;
   // Buffer usage is greater than threshold, it will be flush to local storage
   private static final float BUFFER_THRESHOLD_FACTOR = 0.8f;
+  // the maximum number of pages being pushed while this executor writes tuples
+  private static final int MAX_PENDING_PUSHES = 4;
 
   private final ShuffleFileWriteNode plan;
   private final TableMeta meta;
@@ -70,9 +85,17 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
   private final int bufferThreshold;
   private final int initialBufferSize;
   private final DataType[] dataTypes;
+  // pull servers (host:port) receiving pushed partitions. It is empty if partitions are written to local disks.
+  private final List<String> pushTargets;
+  private final int pageVolume;
+  private final List<Future<Long>> pendingPushes = Lists.newArrayList();
+  // a bloom filter over the shuffle keys. It is null if no runtime filter is built.
+  private final KeyBloomFilter runtimeFilter;
 
   private final Map<Integer, MemoryRowBlock> partitionMemoryMap;
   private long writtenBytes = 0;
+  // the number of bytes written to files or pushed. They are less than writtenBytes if they are compressed.
+  private long storedBytes = 0;
   private long usedBufferSize = 0;
   private long totalBufferCapacity = 0;
 
@@ -86,6 +109,7 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
     } else {
       this.meta = CatalogUtil.newTableMeta(plan.getStorageType());
     }
+    PhysicalPlanUtil.setShuffleCodecIfNecessary(context.getConf(), meta);
     // about the shuffle
     this.numShuffleOutputs = this.plan.getNumOutputs();
     int i = 0;
@@ -99,6 +123,8 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
     this.maxBufferSize = context.getQueryContext().getInt(SessionVars.HASH_SHUFFLE_BUFFER_SIZE) * StorageUnit.MB;
     this.bufferThreshold = (int) (maxBufferSize * BUFFER_THRESHOLD_FACTOR);
     this.dataTypes = SchemaUtil.toDataTypes(outSchema);
+    this.pushTargets = context.getShufflePushTargets();
+    this.pageVolume = context.getConf().getIntVar(TajoConf.ConfVars.SHUFFLE_HASH_APPENDER_PAGE_VOLUME) * StorageUnit.MB;
 
     if(numShuffleOutputs > 0){
       //calculate initial buffer by total partition. a buffer size will be 4Kb ~ 1MB
@@ -109,6 +135,14 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
     }
 
     this.partitionMemoryMap = Maps.newHashMap();
+
+    Enforcer enforcer = context.getEnforcer();
+    if (enforcer != null && enforcer.hasEnforceProperty(EnforceType.RUNTIME_FILTER)) {
+      EnforceProperty property = enforcer.getEnforceProperties(EnforceType.RUNTIME_FILTER).get(0);
+      this.runtimeFilter = new KeyBloomFilter(property.getRuntimeFilter().getNumBits());
+    } else {
+      this.runtimeFilter = null;
+    }
   }
 
   @Override
@@ -119,62 +153,36 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
   @Override
   public Tuple next() throws IOException {
     try {
-      Tuple tuple;
-      int partId;
-      long numRows = 0;
-      while (!context.isStopped() && (tuple = child.next()) != null) {
-
-        partId = partitioner.getPartition(tuple);
-        MemoryRowBlock rowBlock = partitionMemoryMap.get(partId);
-        if (rowBlock == null) {
-          rowBlock = new MemoryRowBlock(dataTypes, initialBufferSize, true, plan.getStorageType());
-          partitionMemoryMap.put(partId, rowBlock);
-          totalBufferCapacity += rowBlock.capacity();
-        }
-
-        RowWriter writer = rowBlock.getWriter();
-        long prevUsedMem = rowBlock.usedMem();
-        totalBufferCapacity -= rowBlock.capacity();
-
-        writer.addTuple(tuple);
-        numRows++;
-
-        totalBufferCapacity += rowBlock.capacity(); // calculate resizeable buffer capacity
-        usedBufferSize += (rowBlock.usedMem() - prevUsedMem);
-
-        // if total buffer capacity are required more than maxBufferSize,
-        // all partitions are flushed and the buffers are released
-        if (totalBufferCapacity > maxBufferSize) {
-          if (LOG.isDebugEnabled()) {
-            LOG.debug(String.format("Too low buffer usage. threshold: %s, total capacity: %s, used: %s",
-                FileUtil.humanReadableByteCount(maxBufferSize, false),
-                FileUtil.humanReadableByteCount(totalBufferCapacity, false),
-                FileUtil.humanReadableByteCount(usedBufferSize, false)));
-          }
-
-          //flush and release buffer
-          flushBuffer(partitionMemoryMap, true);
-          writtenBytes += usedBufferSize;
-          totalBufferCapacity = usedBufferSize = 0;
-
-        } else if (usedBufferSize > bufferThreshold) {
-          //flush and reuse buffer
-          flushBuffer(partitionMemoryMap, false);
-          writtenBytes += usedBufferSize;
-          usedBufferSize = 0;
+      long numRows;
+      if (child instanceof SeqScanExec) {
+        // a sequential scan can push tuples in a fused loop without the next() chain
+        numRows = ((SeqScanExec) child).pushTo(this::write);
+      } else {
+        Tuple tuple;
+        numRows = 0;
+        while (!context.isStopped() && (tuple = child.next()) != null) {
+          write(tuple);
+          numRows++;
         }
       }
 
       // flush remaining buffers
       flushBuffer(partitionMemoryMap, true);
+      waitForPushes();
 
       writtenBytes += usedBufferSize;
       usedBufferSize = totalBufferCapacity = 0;
       TableStats aggregated = new TableStats();
-      aggregated.setNumBytes(writtenBytes);
+      aggregated.setNumBytes(storedBytes);
+      aggregated.setUncompressedBytes(writtenBytes);
       aggregated.setNumRows(numRows);
       context.setResultStats(aggregated);
 
+      // merged even if this attempt fails later. Redundant keys only cause false positives.
+      if (runtimeFilter != null) {
+        context.getSharedResource().mergeRuntimeFilter(runtimeFilter);
+      }
+
       return null;
     } catch (RuntimeException e) {
       LOG.error(e.getMessage(), e);
@@ -185,12 +193,101 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
     }
   }
 
+  private void write(Tuple tuple) throws IOException {
+    if (runtimeFilter != null) {
+      runtimeFilter.add(tuple, shuffleKeyIds);
+    }
+
+    int partId = partitioner.getPartition(tuple);
+    MemoryRowBlock rowBlock = partitionMemoryMap.get(partId);
+    if (rowBlock == null) {
+      rowBlock = new MemoryRowBlock(dataTypes, initialBufferSize, true, plan.getStorageType());
+      partitionMemoryMap.put(partId, rowBlock);
+      totalBufferCapacity += rowBlock.capacity();
+    }
+
+    RowWriter writer = rowBlock.getWriter();
+    long prevUsedMem = rowBlock.usedMem();
+    totalBufferCapacity -= rowBlock.capacity();
+
+    writer.addTuple(tuple);
+
+    totalBufferCapacity += rowBlock.capacity(); // calculate resizeable buffer capacity
+    usedBufferSize += (rowBlock.usedMem() - prevUsedMem);
+
+    try {
+      if (!pushTargets.isEmpty() && rowBlock.usedMem() >= pageVolume) {
+        // the buffer is released after being pushed, and a new buffer is allocated for the next tuples
+        partitionMemoryMap.remove(partId);
+        totalBufferCapacity -= rowBlock.capacity();
+        usedBufferSize -= rowBlock.usedMem();
+        writtenBytes += rowBlock.usedMem();
+
+        if (pendingPushes.size() >= MAX_PENDING_PUSHES) {
+          waitForPushes();
+        }
+        pendingPushes.add(writePartition(partId, rowBlock, true));
+        return;
+      }
+
+      // if total buffer capacity are required more than maxBufferSize,
+      // all partitions are flushed and the buffers are released
+      if (totalBufferCapacity > maxBufferSize) {
+        if (LOG.isDebugEnabled()) {
+          LOG.debug(String.format("Too low buffer usage. threshold: %s, total capacity: %s, used: %s",
+              FileUtil.humanReadableByteCount(maxBufferSize, false),
+              FileUtil.humanReadableByteCount(totalBufferCapacity, false),
+              FileUtil.humanReadableByteCount(usedBufferSize, false)));
+        }
+
+        //flush and release buffer
+        flushBuffer(partitionMemoryMap, true);
+        writtenBytes += usedBufferSize;
+        totalBufferCapacity = usedBufferSize = 0;
+
+      } else if (usedBufferSize > bufferThreshold) {
+        //flush and reuse buffer
+        flushBuffer(partitionMemoryMap, false);
+        writtenBytes += usedBufferSize;
+        usedBufferSize = 0;
+      }
+    } catch (ExecutionException | InterruptedException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Write a partition buffer to the local storage, or push it to the pull server merging the partition.
+   */
+  private Future<Long> writePartition(int partId, MemoryRowBlock rowBlock, boolean release)
+      throws IOException {
+    if (pushTargets.isEmpty()) {
+      return hashShuffleAppenderManager.
+          writePartitions(meta, outSchema, context.getTaskId(), partId, rowBlock, release);
+    } else {
+      return HashShufflePusher.getInstance(context.getConf()).push(hashShuffleAppenderManager, meta,
+          context.getTaskId(), pushTargets.get(partId % pushTargets.size()), partId, rowBlock, release);
+    }
+  }
+
+  private void waitForPushes() throws IOException {
+    try {
+      for (Future<Long> future : pendingPushes) {
+        storedBytes += future.get();
+      }
+    } catch (ExecutionException | InterruptedException e) {
+      throw new IOException(e);
+    } finally {
+      pendingPushes.clear();
+    }
+  }
+
   /**
    * flush all buffer to local storage
    */
   private void flushBuffer(Map<Integer, MemoryRowBlock> partitionMemoryMap, boolean releaseBuffer)
       throws IOException, ExecutionException, InterruptedException {
-    List<Future<MemoryRowBlock>> resultList = Lists.newArrayList();
+    List<Future<Long>> resultList = Lists.newArrayList();
     ArrayList<Integer> unusedBuffer = Lists.newArrayList();
 
     for (Map.Entry<Integer, MemoryRowBlock> entry : partitionMemoryMap.entrySet()) {
@@ -199,8 +296,7 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
       MemoryRowBlock memoryRowBlock = entry.getValue();
       if (memoryRowBlock.getMemory().isReadable()) {
         //flush and release buffer
-        resultList.add(hashShuffleAppenderManager.
-            writePartitions(meta, outSchema, context.getTaskId(), appendPartId, memoryRowBlock, releaseBuffer));
+        resultList.add(writePartition(appendPartId, memoryRowBlock, releaseBuffer));
       } else {
         if (releaseBuffer) {
           memoryRowBlock.release();
@@ -211,8 +307,8 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
     }
 
     // wait for flush to storage
-    for (Future<MemoryRowBlock> future : resultList) {
-      future.get();
+    for (Future<Long> future : resultList) {
+      storedBytes += future.get();
     }
 
     if (releaseBuffer) {
@@ -0,0 +1,342 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.SessionVars;
+import org.apache.tajo.algebra.JoinType;
+import org.apache.tajo.engine.planner.KeyProjector;
+import org.apache.tajo.engine.planner.physical.HashPartitionSpiller.SpilledPartition;
+import org.apache.tajo.exception.TajoInternalError;
+import org.apache.tajo.plan.logical.JoinNode;
+import org.apache.tajo.storage.Scanner;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.unit.StorageUnit;
+import org.apache.tajo.util.FileUtil;
+import org.apache.tajo.worker.TaskAttemptContext;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedList;
+
+/**
+ * Hybrid hash join for inner joins.
+ *
+ * Both sides are partitioned by hash of their join keys. Each partition of the right (build) side has
+ * its own {@link JoinHashTable}. When the build partitions exceed {@link SessionVars#HYBRID_HASH_JOIN_MEMORY_LIMIT},
+ * the largest one is spilled to local disks, and the remaining right tuples of that partition are spilled as well.
+ * While probing, left tuples of the spilled partitions are also spilled instead of being joined.
+ *
+ * After the left side is exhausted, each pair of spilled partitions is joined in turn in the same way
+ * with the other bits of hash values, so a pair which still does not fit in memory is partitioned again.
+ */
+public class HybridHashJoinExec extends CommonHashJoinExec {
+  private static final Log LOG = LogFactory.getLog(HybridHashJoinExec.class);
+  // the number of build tuples between memory checks
+  private static final int MEMORY_CHECK_INTERVAL = 1024;
+
+  private final KeyProjector rightKeyExtractor;
+  private long memoryLimit;
+  private Path spillTmpDir;
+
+  // the current level and its inputs. A null input means the child exec.
+  private int level;
+  private Scanner buildInput;
+  private Scanner probeInput;
+  private SpilledPartition currentProbePartition;
+
+  private JoinHashTable[] partitionTables;
+  private boolean[] spilled;
+  private HashPartitionSpiller buildSpiller;
+  private HashPartitionSpiller probeSpiller;
+  private SpilledPartition[] spilledBuildPartitions;
+
+  // pairs of spilled build and probe partitions to be joined
+  private final LinkedList<SpilledPartition[]> pendingPairs = new LinkedList<>();
+
+  public HybridHashJoinExec(TaskAttemptContext context, JoinNode plan, PhysicalExec leftExec,
+                            PhysicalExec rightExec) {
+    super(context, plan, leftExec, rightExec);
+    if (plan.getJoinType() != JoinType.INNER) {
+      throw new TajoInternalError("Hybrid hash join only supports inner joins: " + plan.getJoinType());
+    }
+    this.rightKeyExtractor = new KeyProjector(rightSchema, rightKeyList);
+    this.memoryLimit = context.getQueryContext().getLong(SessionVars.HYBRID_HASH_JOIN_MEMORY_LIMIT) * StorageUnit.MB;
+  }
+
+  @VisibleForTesting
+  void setMemoryLimit(long bytes) {
+    this.memoryLimit = bytes;
+  }
+
+  @Override
+  public Tuple next() throws IOException {
+    if (first) {
+      level = 0;
+      build();
+      first = false;
+    }
+
+    while (!context.isStopped() && !finished) {
+      if (iterator != null && iterator.hasNext()) {
+        frameTuple.setRight(iterator.next());
+        return projector.eval(frameTuple);
+      }
+
+      Tuple leftTuple = probeInput == null ? leftChild.next() : probeInput.next();
+      if (leftTuple == null) {
+        finished = !nextSpilledPair();
+        continue;
+      }
+      if (leftFiltered(leftTuple)) {
+        continue;
+      }
+
+      KeyTuple key = leftKeyExtractor.project(leftTuple);
+      int partition = HashPartitionSpiller.getPartition(key.hashCode(), level);
+      if (spilled[partition]) {
+        probeSpiller.addToPartition(partition, leftTuple);
+        continue;
+      }
+      if (partitionTables[partition] == null) {
+        continue;
+      }
+
+      frameTuple.setLeft(leftTuple);
+      Iterator<Tuple> rightTuples = rightFiltered(partitionTables[partition].get(key, probeRow));
+      if (rightTuples.hasNext()) {
+        iterator = rightTuples;
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Build hash tables of the current level, spilling partitions if they do not fit in memory.
+   */
+  private void build() throws IOException {
+    partitionTables = new JoinHashTable[HashPartitionSpiller.PARTITION_NUM];
+    spilled = new boolean[HashPartitionSpiller.PARTITION_NUM];
+    boolean spillable = level <= HashPartitionSpiller.MAX_LEVEL;
+    int initialCapacity = Math.max(16,
+        context.getQueryContext().getInt(SessionVars.JOIN_HASH_TABLE_SIZE) / HashPartitionSpiller.PARTITION_NUM);
+
+    Tuple tuple;
+    long rowNum = 0;
+    while (!context.isStopped() && (tuple = buildInput == null ? rightChild.next() : buildInput.next()) != null) {
+      int partition = HashPartitionSpiller.getPartition(rightKeyExtractor.project(tuple).hashCode(), level);
+      if (spilled[partition]) {
+        buildSpiller.addToPartition(partition, tuple);
+        continue;
+      }
+
+      if (partitionTables[partition] == null) {
+        partitionTables[partition] = new JoinHashTable(rightSchema, rightKeyList, initialCapacity);
+      }
+      partitionTables[partition].add(tuple);
+
+      if (spillable && ++rowNum % MEMORY_CHECK_INTERVAL == 0) {
+        spillUntilFit();
+      }
+    }
+    if (spillable) {
+      spillUntilFit();
+    }
+
+    if (buildSpiller != null) {
+      spilledBuildPartitions = buildSpiller.finish();
+      buildSpiller = null;
+      probeSpiller = new HashPartitionSpiller(context, leftSchema, spillTmpDir, "hashjoin_probe", level);
+    }
+  }
+
+  private void spillUntilFit() throws IOException {
+    while (usedMemory() > memoryLimit && spillLargestPartition()) {
+      // spill until the remaining partitions fit in memory
+    }
+  }
+
+  private long usedMemory() {
+    long used = 0;
+    for (JoinHashTable table : partitionTables) {
+      if (table != null) {
+        used += table.usedMem();
+      }
+    }
+    return used;
+  }
+
+  /**
+   * Move the largest build partition in memory to a local file.
+   *
+   * @return false if there is no partition to be spilled
+   */
+  private boolean spillLargestPartition() throws IOException {
+    int victim = -1;
+    long victimMem = 0;
+    for (int i = 0; i < partitionTables.length; i++) {
+      if (partitionTables[i] != null && partitionTables[i].usedMem() > victimMem) {
+        victim = i;
+        victimMem = partitionTables[i].usedMem();
+      }
+    }
+    if (victim < 0) {
+      return false;
+    }
+
+    if (buildSpiller == null) {
+      if (spillTmpDir == null) {
+        spillTmpDir = getExecutorTmpDir();
+      }
+      buildSpiller = new HashPartitionSpiller(context, rightSchema, spillTmpDir, "hashjoin_build", level);
+    }
+
+    JoinHashTable table = partitionTables[victim];
+    for (int slot = 0; slot < table.capacity(); slot++) {
+      if (table.isOccupied(slot)) {
+        for (Tuple tuple : table.rows(slot)) {
+          buildSpiller.addToPartition(victim, tuple);
+        }
+      }
+    }
+    LOG.info("Spilling the build partition " + victim + " (" + table.size() + " rows, "
+        + FileUtil.humanReadableByteCount(victimMem, false) + ") at level " + level);
+
+    table.release();
+    partitionTables[victim] = null;
+    spilled[victim] = true;
+    return true;
+  }
+
+  /**
+   * Finish the current level, and build the hash tables of the next pair of spilled partitions.
+   *
+   * @return false if there are no more spilled partitions
+   */
+  private boolean nextSpilledPair() throws IOException {
+    releasePartitionTables();
+    closeProbeInput();
+
+    if (probeSpiller != null) {
+      SpilledPartition[] spilledProbePartitions = probeSpiller.finish();
+      probeSpiller = null;
+      for (int i = 0; i < HashPartitionSpiller.PARTITION_NUM; i++) {
+        if (spilledBuildPartitions[i] != null && spilledProbePartitions[i] != null) {
+          pendingPairs.add(new SpilledPartition[] {spilledBuildPartitions[i], spilledProbePartitions[i]});
+        } else {
+          // for inner joins, a partition without any tuple on one side has no result
+          deleteIfExists(spilledBuildPartitions[i]);
+          deleteIfExists(spilledProbePartitions[i]);
+        }
+      }
+      spilledBuildPartitions = null;
+    }
+
+    if (pendingPairs.isEmpty() || context.isStopped()) {
+      return false;
+    }
+
+    SpilledPartition[] pair = pendingPairs.removeFirst();
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Joining spilled partitions " + pair[0] + " and " + pair[1]);
+    }
+    level = pair[0].getLevel() + 1;
+    buildInput = pair[0].openScanner();
+    try {
+      build();
+    } finally {
+      buildInput.close();
+      buildInput = null;
+      pair[0].delete();
+    }
+    probeInput = pair[1].openScanner();
+    currentProbePartition = pair[1];
+    return true;
+  }
+
+  private static void deleteIfExists(SpilledPartition partition) throws IOException {
+    if (partition != null) {
+      partition.delete();
+    }
+  }
+
+  private void releasePartitionTables() {
+    iterator = null;
+    if (partitionTables != null) {
+      for (int i = 0; i < partitionTables.length; i++) {
+        if (partitionTables[i] != null) {
+          partitionTables[i].release();
+          partitionTables[i] = null;
+        }
+      }
+    }
+  }
+
+  private void closeProbeInput() throws IOException {
+    if (probeInput != null) {
+      probeInput.close();
+      probeInput = null;
+      currentProbePartition.delete();
+      currentProbePartition = null;
+    }
+  }
+
+  private void clearSpilledPartitions() throws IOException {
+    releasePartitionTables();
+    closeProbeInput();
+    if (buildSpiller != null) {
+      buildSpiller.close();
+      buildSpiller = null;
+    }
+    if (probeSpiller != null) {
+      probeSpiller.close();
+      probeSpiller = null;
+    }
+    if (spilledBuildPartitions != null) {
+      for (SpilledPartition partition : spilledBuildPartitions) {
+        deleteIfExists(partition);
+      }
+      spilledBuildPartitions = null;
+    }
+    for (SpilledPartition[] pair : pendingPairs) {
+      pair[0].delete();
+      pair[1].delete();
+    }
+    pendingPairs.clear();
+  }
+
+  @Override
+  public void rescan() throws IOException {
+    super.rescan();
+    // the hash tables are rebuilt because spilled partitions are consumed while joining
+    clearSpilledPartitions();
+    first = true;
+  }
+
+  @Override
+  public void close() throws IOException {
+    clearSpilledPartitions();
+    partitionTables = null;
+    super.close();
+  }
+}
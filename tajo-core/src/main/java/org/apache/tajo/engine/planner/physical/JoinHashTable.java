@@ -0,0 +1,371 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import com.google.common.collect.Lists;
+import org.apache.tajo.annotation.Nullable;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SchemaUtil;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.engine.planner.KeyProjector;
+import org.apache.tajo.exception.TajoInternalError;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.tuple.memory.FixedSizeLimitSpec;
+import org.apache.tajo.tuple.memory.MemoryRowBlock;
+import org.apache.tajo.tuple.memory.UnSafeTuple;
+import org.apache.tajo.unit.StorageUnit;
+import org.apache.tajo.util.Deallocatable;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * JoinHashTable is an open-addressing hash table for the build side of hash joins.
+ *
+ * Rows are copied into off-heap row blocks, and the table itself only keeps primitive arrays:
+ * a pre-computed hash, a head and a tail row for each distinct key (a slot), and for each row,
+ * its reference (page index and offset) and the next row having the same key. This avoids
+ * cloning a KeyTuple and a VTuple for every row of the build side.
+ *
+ * Key equality follows {@link KeyTuple}; rows are equal if all join keys are equal by {@link Datum#equals}.
+ * Once built, the table can be read by multiple threads at the same time because it is never modified
+ * by lookups: every iterator has its own tuple pointer, and every caller of {@link #find(Tuple, UnSafeTuple)}
+ * passes its own tuple for comparing keys of stored rows.
+ */
+public class JoinHashTable implements Deallocatable {
+  private static final float LOAD_FACTOR = 0.75f;
+  private static final int EMPTY = -1;
+  private static final int DEFAULT_PAGE_SIZE = StorageUnit.MB;
+
+  private final DataType[] dataTypes;
+  private final int[] keyIds;
+  private final KeyProjector keyProjector;
+  private final int pageSize;
+
+  // row pages
+  private final List<MemoryRowBlock> pages = Lists.newArrayList();
+  private MemoryRowBlock currentPage;
+
+  // slots for distinct keys
+  private int[] slotHashes;
+  private int[] slotHeads;
+  private int[] slotTails;
+  private int mask;
+  private int keyNum;
+
+  // rows
+  private long[] rowRefs;
+  private int[] nextRows;
+  private int rowNum;
+
+  // reused for comparing keys of stored rows while building the table; lookups use their own tuple
+  private final UnSafeTuple buildRow = new UnSafeTuple();
+
+  public JoinHashTable(Schema schema, Column[] keyColumns, int initialCapacity) {
+    this(schema, keyColumns, initialCapacity, DEFAULT_PAGE_SIZE);
+  }
+
+  public JoinHashTable(Schema schema, Column[] keyColumns, int initialCapacity, int pageSize) {
+    this.dataTypes = SchemaUtil.toDataTypes(schema);
+    this.keyIds = new int[keyColumns.length];
+    for (int i = 0; i < keyColumns.length; i++) {
+      keyIds[i] = schema.getColumnId(keyColumns[i].getQualifiedName());
+    }
+    this.keyProjector = new KeyProjector(schema, keyColumns);
+    this.pageSize = pageSize;
+
+    int capacity = tableSizeFor((int) Math.min(Integer.MAX_VALUE >> 1, Math.max(16, initialCapacity / LOAD_FACTOR)));
+    this.slotHashes = new int[capacity];
+    this.slotHeads = new int[capacity];
+    this.slotTails = new int[capacity];
+    Arrays.fill(slotHeads, EMPTY);
+    this.mask = capacity - 1;
+
+    this.rowRefs = new long[Math.max(16, Math.min(initialCapacity, 1 << 20))];
+    this.nextRows = new int[rowRefs.length];
+
+    this.currentPage = newPage();
+  }
+
+  private static int tableSizeFor(int cap) {
+    return Integer.highestOneBit(Math.max(2, cap - 1)) << 1;
+  }
+
+  /**
+   * Spread the higher bits of a hash into the lower bits, which select a slot.
+   */
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  private MemoryRowBlock newPage() {
+    MemoryRowBlock page = new MemoryRowBlock(dataTypes, new FixedSizeLimitSpec(pageSize), true);
+    pages.add(page);
+    return page;
+  }
+
+  /**
+   * Copy a tuple into the off-heap pages and link it to the slot of its join key.
+   *
+   * @param tuple a row of the build side
+   */
+  public void add(Tuple tuple) {
+    KeyTuple key = keyIds.length == 0 ? null : keyProjector.project(tuple);
+    int hash = key == null ? 1 : key.hashCode();
+
+    int offset = currentPage.getMemory().writerPosition();
+    if (!currentPage.getWriter().addTuple(tuple)) {
+      if (currentPage.rows() == 0) {
+        throw new TajoInternalError("A row is larger than the page size (" + pageSize + " bytes) of join hash table");
+      }
+      currentPage = newPage();
+      offset = currentPage.getMemory().writerPosition();
+      if (!currentPage.getWriter().addTuple(tuple)) {
+        throw new TajoInternalError("A row is larger than the page size (" + pageSize + " bytes) of join hash table");
+      }
+    }
+
+    if (rowNum == rowRefs.length) {
+      int newLength = rowRefs.length << 1;
+      rowRefs = Arrays.copyOf(rowRefs, newLength);
+      nextRows = Arrays.copyOf(nextRows, newLength);
+    }
+    int rowId = rowNum++;
+    rowRefs[rowId] = ((long) (pages.size() - 1) << 32) | (offset & 0xFFFFFFFFL);
+    nextRows[rowId] = EMPTY;
+
+    int slot = findSlot(hash, key, buildRow);
+    if (slotHeads[slot] == EMPTY) {
+      slotHashes[slot] = hash;
+      slotHeads[slot] = rowId;
+      slotTails[slot] = rowId;
+      if (++keyNum > (slotHeads.length * LOAD_FACTOR)) {
+        rehash();
+      }
+    } else {
+      nextRows[slotTails[slot]] = rowId;
+      slotTails[slot] = rowId;
+    }
+  }
+
+  /**
+   * Find a slot for a given key.
+   *
+   * @param key join key projected from the probe side. It can be null only for cross joins.
+   * @return slot index if the key exists. Otherwise, -1.
+   */
+  public int find(@Nullable Tuple key) {
+    return find(key, new UnSafeTuple());
+  }
+
+  /**
+   * Find a slot for a given key.
+   *
+   * @param key join key projected from the probe side. It can be null only for cross joins.
+   * @param probeRow a tuple owned by the caller, which is pointed at stored rows for comparing keys.
+   *                 It must not be shared with other threads.
+   * @return slot index if the key exists. Otherwise, -1.
+   */
+  public int find(@Nullable Tuple key, UnSafeTuple probeRow) {
+    if (rowNum == 0) {
+      return EMPTY;
+    }
+    int hash = key == null ? 1 : key.hashCode();
+    int slot = findSlot(hash, key, probeRow);
+    return slotHeads[slot] == EMPTY ? EMPTY : slot;
+  }
+
+  /**
+   * Return the rows matched to a given key.
+   *
+   * @param key join key projected from the probe side. It can be null only for cross joins.
+   * @return matched rows if the key exists. Otherwise, null.
+   */
+  public Iterable<Tuple> get(@Nullable Tuple key) {
+    return get(key, new UnSafeTuple());
+  }
+
+  /**
+   * Return the rows matched to a given key.
+   *
+   * @param key join key projected from the probe side. It can be null only for cross joins.
+   * @param probeRow a tuple owned by the caller. See {@link #find(Tuple, UnSafeTuple)}.
+   * @return matched rows if the key exists. Otherwise, null.
+   */
+  public Iterable<Tuple> get(@Nullable Tuple key, UnSafeTuple probeRow) {
+    int slot = find(key, probeRow);
+    return slot == EMPTY ? null : rows(slot);
+  }
+
+  /**
+   * @param slot slot index
+   * @return rows linked to a given slot
+   */
+  public Iterable<Tuple> rows(final int slot) {
+    return new Iterable<Tuple>() {
+      @Override
+      public Iterator<Tuple> iterator() {
+        return new RowIterator(slotHeads[slot]);
+      }
+    };
+  }
+
+  /**
+   * @return the number of slots. Each slot between 0 and capacity() - 1 may be empty.
+   */
+  public int capacity() {
+    return slotHeads.length;
+  }
+
+  public boolean isOccupied(int slot) {
+    return slotHeads[slot] != EMPTY;
+  }
+
+  /**
+   * @return the number of distinct keys
+   */
+  public int keyNum() {
+    return keyNum;
+  }
+
+  /**
+   * @return the number of rows
+   */
+  public int size() {
+    return rowNum;
+  }
+
+  /**
+   * @return the number of off-heap bytes used by rows
+   */
+  public long usedMem() {
+    long used = 0;
+    for (MemoryRowBlock page : pages) {
+      used += page.usedMem();
+    }
+    return used;
+  }
+
+  private int findSlot(int hash, Tuple key, UnSafeTuple row) {
+    int slot = spread(hash) & mask;
+    while (slotHeads[slot] != EMPTY) {
+      if (slotHashes[slot] == hash) {
+        setRow(row, slotHeads[slot]);
+        if (keyEquals(key, row)) {
+          return slot;
+        }
+      }
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private boolean keyEquals(Tuple key, UnSafeTuple row) {
+    for (int i = 0; i < keyIds.length; i++) {
+      if (!equals(key.asDatum(i), row.asDatum(keyIds[i]))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean equals(Datum d1, Datum d2) {
+    return d1 == null ? d2 == null : d1.equals(d2);
+  }
+
+  private void rehash() {
+    int[] oldHashes = slotHashes;
+    int[] oldHeads = slotHeads;
+    int[] oldTails = slotTails;
+
+    int capacity = oldHeads.length << 1;
+    slotHashes = new int[capacity];
+    slotHeads = new int[capacity];
+    slotTails = new int[capacity];
+    Arrays.fill(slotHeads, EMPTY);
+    mask = capacity - 1;
+
+    for (int i = 0; i < oldHeads.length; i++) {
+      if (oldHeads[i] != EMPTY) {
+        int slot = spread(oldHashes[i]) & mask;
+        while (slotHeads[slot] != EMPTY) {
+          slot = (slot + 1) & mask;
+        }
+        slotHashes[slot] = oldHashes[i];
+        slotHeads[slot] = oldHeads[i];
+        slotTails[slot] = oldTails[i];
+      }
+    }
+  }
+
+  private void setRow(UnSafeTuple tuple, int rowId) {
+    long ref = rowRefs[rowId];
+    tuple.set(pages.get((int) (ref >>> 32)).getMemory(), (int) ref, dataTypes);
+  }
+
+  /**
+   * Iterates a chain of rows having the same key. The returned tuple is reused for every row.
+   */
+  private class RowIterator implements Iterator<Tuple> {
+    private final UnSafeTuple tuple = new UnSafeTuple();
+    private int nextRow;
+
+    RowIterator(int head) {
+      this.nextRow = head;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return nextRow != EMPTY;
+    }
+
+    @Override
+    public Tuple next() {
+      if (nextRow == EMPTY) {
+        throw new NoSuchElementException();
+      }
+      setRow(tuple, nextRow);
+      nextRow = nextRows[nextRow];
+      return tuple;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("remove");
+    }
+  }
+
+  @Override
+  public void release() {
+    for (MemoryRowBlock page : pages) {
+      page.release();
+    }
+    pages.clear();
+    currentPage = null;
+    rowRefs = new long[0];
+    nextRows = new int[0];
+    rowNum = 0;
+    Arrays.fill(slotHeads, EMPTY);
+    keyNum = 0;
+  }
+}
@@ -292,6 +292,12 @@ public class MergeFullOuterJoinExec extends CommonJoinExec {
   }
 
 
+  @Override
+  protected void compile() {
+    super.compile();
+    tupleComparator = PhysicalPlanUtil.compileComparators(context, tupleComparator);
+  }
+
   @Override
   public void rescan() throws IOException {
     super.rescan();
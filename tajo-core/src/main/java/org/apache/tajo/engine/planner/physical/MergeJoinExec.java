@@ -146,6 +146,12 @@ public class MergeJoinExec extends CommonJoinExec {
     return null;
   }
 
+  @Override
+  protected void compile() {
+    super.compile();
+    tupleComparator = PhysicalPlanUtil.compileComparators(context, tupleComparator);
+  }
+
   @Override
   public void rescan() throws IOException {
     super.rescan();
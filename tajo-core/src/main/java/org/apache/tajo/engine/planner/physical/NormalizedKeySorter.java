@@ -0,0 +1,255 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import io.netty.util.internal.PlatformDependent;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.tuple.memory.UnSafeTuple;
+import org.apache.tajo.util.SizeOf;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * NormalizedKeySorter sorts {@link UnSafeTuple}s by a normalized key of the first sort key.
+ *
+ * A normalized key is a 64-bit prefix which can be compared as an unsigned long, and keeps the order of
+ * the first sort key: integral values with the sign bit flipped, floating point values in an order-preserving
+ * encoding, and the first 8 bytes of text values. Rows are radix-sorted by their normalized keys. Only rows having
+ * the same normalized key are compared by the full comparator, so the result is the same as sorting with
+ * the full comparator. Like {@link java.util.Collections#sort(List, Comparator)}, the sort is stable.
+ *
+ * An instance keeps its buffers across sorts, and it is not thread-safe.
+ */
+public class NormalizedKeySorter {
+  private static final int RADIX_BITS = 8;
+  private static final int RADIX = 1 << RADIX_BITS;
+  private static final int TEXT_PREFIX_BYTES = SizeOf.SIZE_OF_LONG;
+
+  private final int keyId;
+  private final Type keyType;
+  private final boolean asc;
+  private final boolean nullFirst;
+
+  private long[] keys = new long[0];
+  private long[] tmpKeys = new long[0];
+  private int[] ids = new int[0];
+  private int[] tmpIds = new int[0];
+  private final int[] counts = new int[RADIX];
+
+  public NormalizedKeySorter(Schema schema, SortSpec[] sortSpecs) {
+    SortSpec firstKey = sortSpecs[0];
+    if (firstKey.getSortKey().hasQualifier()) {
+      this.keyId = schema.getColumnId(firstKey.getSortKey().getQualifiedName());
+    } else {
+      this.keyId = schema.getColumnIdByName(firstKey.getSortKey().getSimpleName());
+    }
+    this.keyType = firstKey.getSortKey().getDataType().getType();
+    this.asc = firstKey.isAscending();
+    this.nullFirst = firstKey.isNullsFirst();
+  }
+
+  /**
+   * @return True if the first sort key can be normalized
+   */
+  public static boolean isApplicable(SortSpec[] sortSpecs) {
+    if (sortSpecs.length == 0) {
+      return false;
+    }
+
+    switch (sortSpecs[0].getSortKey().getDataType().getType()) {
+      case BOOLEAN:
+      case BIT:
+      case INT1:
+      case INT2:
+      case INT4:
+      case DATE:
+      case INET4:
+      case INT8:
+      case TIME:
+      case TIMESTAMP:
+      case FLOAT4:
+      case FLOAT8:
+      case CHAR:
+      case TEXT:
+      case BLOB:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Sort tuples in place.
+   *
+   * @param tuples tuples to be sorted
+   * @param comparator the full comparator of the sort keys
+   */
+  public void sort(List<UnSafeTuple> tuples, Comparator<UnSafeTuple> comparator) {
+    int num = tuples.size();
+    if (num < 2) {
+      return;
+    }
+
+    ensureCapacity(num);
+    for (int i = 0; i < num; i++) {
+      keys[i] = normalize(tuples.get(i));
+      ids[i] = i;
+    }
+    radixSort(num);
+
+    UnSafeTuple[] sorted = new UnSafeTuple[num];
+    for (int i = 0; i < num; i++) {
+      sorted[i] = tuples.get(ids[i]);
+    }
+
+    // rows of the same normalized key are ordered by the full comparator
+    int start = 0;
+    for (int i = 1; i <= num; i++) {
+      if (i == num || keys[i] != keys[start]) {
+        if (i - start > 1) {
+          Arrays.sort(sorted, start, i, comparator);
+        }
+        start = i;
+      }
+    }
+
+    for (int i = 0; i < num; i++) {
+      tuples.set(i, sorted[i]);
+    }
+  }
+
+  private void ensureCapacity(int num) {
+    if (keys.length < num) {
+      keys = new long[num];
+      tmpKeys = new long[num];
+      ids = new int[num];
+      tmpIds = new int[num];
+    }
+  }
+
+  /**
+   * LSD radix sort of normalized keys with their row ids. A pass is skipped if all keys have the same digit.
+   */
+  private void radixSort(int num) {
+    for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+      Arrays.fill(counts, 0);
+      for (int i = 0; i < num; i++) {
+        counts[(int) (keys[i] >>> shift) & (RADIX - 1)]++;
+      }
+      if (counts[(int) (keys[0] >>> shift) & (RADIX - 1)] == num) {
+        continue;
+      }
+
+      int sum = 0;
+      for (int digit = 0; digit < RADIX; digit++) {
+        int count = counts[digit];
+        counts[digit] = sum;
+        sum += count;
+      }
+
+      for (int i = 0; i < num; i++) {
+        int pos = counts[(int) (keys[i] >>> shift) & (RADIX - 1)]++;
+        tmpKeys[pos] = keys[i];
+        tmpIds[pos] = ids[i];
+      }
+
+      long[] swapKeys = keys;
+      keys = tmpKeys;
+      tmpKeys = swapKeys;
+      int[] swapIds = ids;
+      ids = tmpIds;
+      tmpIds = swapIds;
+    }
+  }
+
+  /**
+   * @return the normalized key of a tuple. Unsigned comparison of two normalized keys gives the order of their
+   * first sort keys, or zero if it cannot be determined by the normalized keys.
+   */
+  long normalize(UnSafeTuple tuple) {
+    // The smallest or the largest key. A non-null value may have the same key, and it is resolved by the comparator.
+    if (tuple.isBlankOrNull(keyId)) {
+      return nullFirst ? 0L : -1L;
+    }
+
+    long key;
+    switch (keyType) {
+      case BOOLEAN:
+        key = tuple.getBool(keyId) ? 1 : 0;
+        break;
+      case BIT:
+        key = tuple.getByte(keyId) ^ Long.MIN_VALUE;
+        break;
+      case INT1:
+      case INT2:
+        key = tuple.getInt2(keyId) ^ Long.MIN_VALUE;
+        break;
+      case INT4:
+      case DATE:
+        key = tuple.getInt4(keyId) ^ Long.MIN_VALUE;
+        break;
+      case INET4:
+        key = tuple.getInt4(keyId) & 0xFFFFFFFFL;
+        break;
+      case FLOAT4:
+        key = normalizeDouble(tuple.getFloat4(keyId));
+        break;
+      case FLOAT8:
+        key = normalizeDouble(tuple.getFloat8(keyId));
+        break;
+      case CHAR:
+      case TEXT:
+      case BLOB:
+        key = normalizeBytes(tuple.getFieldAddr(keyId));
+        break;
+      default: // INT8, TIME and TIMESTAMP
+        key = tuple.getInt8(keyId) ^ Long.MIN_VALUE;
+        break;
+    }
+    return asc ? key : ~key;
+  }
+
+  /**
+   * The same order as {@link Double#compare(double, double)}. The bits of a negative value are all flipped,
+   * and the sign bit of a positive value is flipped.
+   */
+  static long normalizeDouble(double value) {
+    long bits = Double.doubleToLongBits(value);
+    return bits ^ ((bits >> (Long.SIZE - 1)) | Long.MIN_VALUE);
+  }
+
+  /**
+   * The first 8 bytes in big-endian order, padded with zeros.
+   *
+   * @param addr the address of a variable-length field, which starts with its length
+   */
+  private static long normalizeBytes(long addr) {
+    int length = Math.min(PlatformDependent.getInt(addr), TEXT_PREFIX_BYTES);
+    long bytesAddr = addr + SizeOf.SIZE_OF_INT;
+    long key = 0;
+    for (int i = 0; i < length; i++) {
+      key |= (PlatformDependent.getByte(bytesAddr + i) & 0xFFL) << ((TEXT_PREFIX_BYTES - 1 - i) * Byte.SIZE);
+    }
+    return key;
+  }
+}
@@ -18,6 +18,8 @@
 
 package org.apache.tajo.engine.planner.physical;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -29,6 +31,8 @@ import org.apache.tajo.catalog.TableDesc;
 import org.apache.tajo.catalog.TableMeta;
 import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.engine.codegen.CompilationError;
+import org.apache.tajo.engine.codegen.TupleComparatorCompiler;
 import org.apache.tajo.engine.planner.PhysicalPlanningException;
 import org.apache.tajo.engine.query.QueryContext;
 import org.apache.tajo.plan.expr.EvalNode;
@@ -41,6 +45,7 @@ import org.apache.tajo.storage.StorageConstants;
 import org.apache.tajo.storage.TupleComparator;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.fragment.FragmentConvertor;
+import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -50,6 +55,8 @@ import java.util.Stack;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class PhysicalPlanUtil {
+  private static final Log LOG = LogFactory.getLog(PhysicalPlanUtil.class);
+
   public static <T extends PhysicalExec> T findExecutor(PhysicalExec plan, Class<? extends PhysicalExec> clazz)
       throws PhysicalPlanningException {
     return (T) new FindVisitor().visit(plan, new Stack<>(), clazz);
@@ -63,6 +70,31 @@ public class PhysicalPlanUtil {
     return comparators;
   }
 
+  /**
+   * Replace {@link BaseTupleComparator}s with comparators generated for their sort keys if code generation is
+   * available. A comparator which cannot be compiled is kept as it is.
+   */
+  public static TupleComparator[] compileComparators(TaskAttemptContext context, TupleComparator[] comparators) {
+    TupleComparatorCompiler compiler = context.getComparatorCompiler();
+    if (compiler == null) {
+      return comparators;
+    }
+
+    TupleComparator[] compiled = new TupleComparator[comparators.length];
+    for (int i = 0; i < comparators.length; i++) {
+      compiled[i] = comparators[i];
+      if (comparators[i] instanceof BaseTupleComparator) {
+        BaseTupleComparator base = (BaseTupleComparator) comparators[i];
+        try {
+          compiled[i] = compiler.compileTupleComparator(base.getSchema(), base.getSortSpecs());
+        } catch (CompilationError e) {
+          LOG.warn("Cannot compile a comparator (" + base + "): " + e.getMessage());
+        }
+      }
+    }
+    return compiled;
+  }
+
   /**
    * Listing table data file which is not empty.
    * If the table is a partitioned table, return file list which has same partition key.
@@ -253,4 +285,19 @@ public class PhysicalPlanUtil {
       }
     }
   }
+
+  /**
+   * Set the shuffle compression codec to the TableMeta of a shuffle file if necessary.
+   * It is used only for the RAW format.
+   *
+   * @param conf System conf
+   * @param meta TableMeta of a shuffle file
+   */
+  public static void setShuffleCodecIfNecessary(TajoConf conf, TableMeta meta) {
+    String codec = conf.getVar(TajoConf.ConfVars.SHUFFLE_COMPRESSION_CODEC);
+    if (!codec.isEmpty() && meta.getDataFormat().equalsIgnoreCase(BuiltinStorages.RAW)
+        && !meta.containsProperty(StorageConstants.COMPRESSION_CODEC)) {
+      meta.putProperty(StorageConstants.COMPRESSION_CODEC, codec);
+    }
+  }
 }
@@ -0,0 +1,620 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.engine.function.builtin.CountRows;
+import org.apache.tajo.engine.function.builtin.CountValue;
+import org.apache.tajo.engine.function.builtin.MaxInt;
+import org.apache.tajo.engine.function.builtin.MaxLong;
+import org.apache.tajo.engine.function.builtin.MinInt;
+import org.apache.tajo.engine.function.builtin.MinLong;
+import org.apache.tajo.engine.function.builtin.SumInt;
+import org.apache.tajo.engine.function.builtin.SumLong;
+import org.apache.tajo.exception.TajoInternalError;
+import org.apache.tajo.function.Function;
+import org.apache.tajo.plan.expr.AggregationFunctionCallEval;
+import org.apache.tajo.plan.expr.EvalNode;
+import org.apache.tajo.plan.expr.FieldEval;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.vector.ColumnVector;
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * PrimitiveHashAggregator is a specialized hash aggregation for one or two primitive grouping keys
+ * and the builtin count, sum, min and max functions over integral columns.
+ *
+ * Grouping keys are packed into a single long and looked up in an open-addressing table.
+ * Each group is identified by a sequential group id, and every aggregation keeps its state in
+ * a primitive array indexed by the group id. So, no KeyTuple, FunctionContext or Datum is created
+ * per input row or per group. Rows having null keys are kept in separate tables for each null pattern.
+ *
+ * {@link #isApplicable(Schema, Column[], List)} must be checked before creating this aggregator.
+ * Otherwise, the generic aggregation based on {@link TupleMap} should be used.
+ */
+public class PrimitiveHashAggregator {
+  private static final int MAX_KEY_NUM = 2;
+
+  enum AccumulatorType {
+    COUNT_ROWS,   // count(*)
+    COUNT_VALUE,  // count(expr)
+    SUM,
+    MIN,
+    MAX
+  }
+
+  private final int[] keyIds;
+  private final Type[] keyTypes;
+
+  private final AccumulatorType[] accTypes;
+  private final boolean[] mergePhase;
+  private final int[] argIds;
+  private final Type[] argTypes;
+
+  // a table for each null pattern of keys. The i-th bit of a pattern is set if the i-th key is null.
+  private final LongKeyTable[] tables;
+
+  // group states
+  private int groupNum;
+  private long[] groupKeys;
+  private byte[] groupNullPatterns;
+  private long[][] accValues;
+  private boolean[][] accHasValue;
+
+  // group ids of rows in a batch
+  private int[] batchGroupIds = new int[0];
+
+  public PrimitiveHashAggregator(Schema inSchema, Column[] keyColumns, List<AggregationFunctionCallEval> aggFunctions,
+                                 int initialCapacity) {
+    if (!isApplicable(inSchema, keyColumns, aggFunctions)) {
+      throw new TajoInternalError("PrimitiveHashAggregator cannot be applied to " + Arrays.toString(keyColumns)
+          + " and " + aggFunctions);
+    }
+
+    keyIds = new int[keyColumns.length];
+    keyTypes = new Type[keyColumns.length];
+    for (int i = 0; i < keyColumns.length; i++) {
+      keyIds[i] = inSchema.getColumnId(keyColumns[i].getQualifiedName());
+      keyTypes[i] = keyColumns[i].getDataType().getType();
+    }
+
+    int aggNum = aggFunctions.size();
+    accTypes = new AccumulatorType[aggNum];
+    mergePhase = new boolean[aggNum];
+    argIds = new int[aggNum];
+    argTypes = new Type[aggNum];
+    for (int i = 0; i < aggNum; i++) {
+      AggregationFunctionCallEval aggFunction = aggFunctions.get(i);
+      accTypes[i] = getAccumulatorType(aggFunction);
+      mergePhase[i] = !aggFunction.isFirstPhase();
+      if (aggFunction.getArgs().length > 0) {
+        Column arg = ((FieldEval) aggFunction.getArgs()[0]).getColumnRef();
+        argIds[i] = getColumnId(inSchema, arg);
+        argTypes[i] = arg.getDataType().getType();
+      } else {
+        argIds[i] = -1;
+      }
+    }
+
+    int capacity = Math.max(16, initialCapacity);
+    tables = new LongKeyTable[1 << keyColumns.length];
+    groupKeys = new long[capacity];
+    groupNullPatterns = new byte[capacity];
+    accValues = new long[aggNum][capacity];
+    accHasValue = new boolean[aggNum][capacity];
+  }
+
+  /**
+   * @return True if all grouping keys and aggregation functions can be handled by this aggregator.
+   */
+  public static boolean isApplicable(Schema inSchema, Column[] keyColumns,
+                                     List<AggregationFunctionCallEval> aggFunctions) {
+    if (keyColumns.length == 0 || keyColumns.length > MAX_KEY_NUM) {
+      return false;
+    }
+
+    for (Column keyColumn : keyColumns) {
+      if (inSchema.getColumnId(keyColumn.getQualifiedName()) < 0) {
+        return false;
+      }
+      Type type = keyColumn.getDataType().getType();
+      if (keyColumns.length == 1 ? !isLongKeyType(type) : !isIntKeyType(type)) {
+        return false;
+      }
+    }
+
+    for (AggregationFunctionCallEval aggFunction : aggFunctions) {
+      if (aggFunction.isDistinct()) {
+        return false;
+      }
+
+      AccumulatorType accType = getAccumulatorType(aggFunction);
+      if (accType == null) {
+        return false;
+      }
+
+      EvalNode[] args = aggFunction.getArgs();
+      if (accType == AccumulatorType.COUNT_ROWS && aggFunction.isFirstPhase()) {
+        if (args.length != 0) {
+          return false;
+        }
+        continue;
+      }
+
+      if (args.length != 1 || !(args[0] instanceof FieldEval)) {
+        return false;
+      }
+      Column arg = ((FieldEval) args[0]).getColumnRef();
+      if (getColumnId(inSchema, arg) < 0) {
+        return false;
+      }
+      Type argType = arg.getDataType().getType();
+      if (accType == AccumulatorType.COUNT_VALUE && aggFunction.isFirstPhase()) {
+        continue; // any type is allowed
+      }
+      if (!isIntegralType(argType)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int getColumnId(Schema schema, Column column) {
+    // the same as FieldEval.bind()
+    if (column.hasQualifier()) {
+      return schema.getColumnId(column.getQualifiedName());
+    } else {
+      return schema.getColumnIdByName(column.getSimpleName());
+    }
+  }
+
+  private static AccumulatorType getAccumulatorType(AggregationFunctionCallEval aggFunction) {
+    if (!aggFunction.getFuncDesc().getInvocation().hasLegacy()) {
+      return null; // UDAFs
+    }
+
+    Class<? extends Function> clazz = aggFunction.getFuncDesc().getLegacyFuncClass();
+    if (clazz == CountRows.class) {
+      return AccumulatorType.COUNT_ROWS;
+    } else if (clazz == CountValue.class) {
+      return AccumulatorType.COUNT_VALUE;
+    } else if (clazz == SumInt.class || clazz == SumLong.class) {
+      return AccumulatorType.SUM;
+    } else if (clazz == MinInt.class || clazz == MinLong.class) {
+      return AccumulatorType.MIN;
+    } else if (clazz == MaxInt.class || clazz == MaxLong.class) {
+      return AccumulatorType.MAX;
+    } else {
+      return null;
+    }
+  }
+
+  private static boolean isIntKeyType(Type type) {
+    return type == Type.INT2 || type == Type.INT4 || type == Type.DATE;
+  }
+
+  private static boolean isLongKeyType(Type type) {
+    return isIntKeyType(type) || type == Type.INT8 || type == Type.TIMESTAMP || type == Type.TIME;
+  }
+
+  private static boolean isIntegralType(Type type) {
+    return type == Type.INT2 || type == Type.INT4 || type == Type.INT8;
+  }
+
+  private static long getLong(Tuple tuple, int fieldId, Type type) {
+    switch (type) {
+    case INT2:
+      return tuple.getInt2(fieldId);
+    case INT4:
+    case DATE:
+      return tuple.getInt4(fieldId);
+    default:
+      return tuple.getInt8(fieldId);
+    }
+  }
+
+  private static Datum createDatum(Type type, long value) {
+    switch (type) {
+    case INT2:
+      return DatumFactory.createInt2((short) value);
+    case INT4:
+      return DatumFactory.createInt4((int) value);
+    case DATE:
+      return DatumFactory.createDate((int) value);
+    case TIMESTAMP:
+      return DatumFactory.createTimestamp(value);
+    case TIME:
+      return DatumFactory.createTime(value);
+    default:
+      return DatumFactory.createInt8(value);
+    }
+  }
+
+  /**
+   * Aggregate an input tuple into its group.
+   */
+  public void add(Tuple tuple) {
+    aggregate(tuple, true);
+  }
+
+  /**
+   * Aggregate an input tuple only if its group already exists.
+   *
+   * @return True if the tuple is aggregated, or false if it belongs to a new group
+   */
+  public boolean addIfPresent(Tuple tuple) {
+    return aggregate(tuple, false);
+  }
+
+  private boolean aggregate(Tuple tuple, boolean createGroup) {
+    long key = 0;
+    int nullPattern = 0;
+    for (int i = 0; i < keyIds.length; i++) {
+      if (tuple.isBlankOrNull(keyIds[i])) {
+        nullPattern |= 1 << i;
+      } else if (keyIds.length == 1) {
+        key = getLong(tuple, keyIds[i], keyTypes[i]);
+      } else {
+        key |= (getLong(tuple, keyIds[i], keyTypes[i]) & 0xFFFFFFFFL) << (i * Integer.SIZE);
+      }
+    }
+
+    LongKeyTable table = tables[nullPattern];
+    int groupId = table == null ? -1 : table.get(key);
+    if (groupId < 0) {
+      if (!createGroup) {
+        return false;
+      }
+      if (table == null) {
+        table = tables[nullPattern] = new LongKeyTable(nullPattern == 0 ? groupKeys.length : 16);
+      }
+      groupId = newGroup(key, nullPattern);
+      table.put(key, groupId);
+    }
+
+    for (int i = 0; i < accTypes.length; i++) {
+      accumulate(i, groupId, tuple);
+    }
+    return true;
+  }
+
+  /**
+   * Aggregate the selected rows of a batch, whose columns are in the same order as the input schema.
+   * Group ids are looked up for all rows first, and then each aggregation is accumulated over its column vector.
+   */
+  public void add(VectorizedRowBatch batch) {
+    int size = batch.size();
+    if (batchGroupIds.length < size) {
+      batchGroupIds = new int[batch.getMaxSize()];
+    }
+
+    for (int i = 0; i < size; i++) {
+      int row = batch.getRow(i);
+      long key = 0;
+      int nullPattern = 0;
+      for (int k = 0; k < keyIds.length; k++) {
+        ColumnVector keyVector = batch.getColumn(keyIds[k]);
+        if (keyVector.isNull(row)) {
+          nullPattern |= 1 << k;
+        } else if (keyIds.length == 1) {
+          key = keyVector.getLongs()[row];
+        } else {
+          key |= (keyVector.getLongs()[row] & 0xFFFFFFFFL) << (k * Integer.SIZE);
+        }
+      }
+
+      LongKeyTable table = tables[nullPattern];
+      if (table == null) {
+        table = tables[nullPattern] = new LongKeyTable(nullPattern == 0 ? groupKeys.length : 16);
+      }
+
+      int groupId = table.get(key);
+      if (groupId < 0) {
+        groupId = newGroup(key, nullPattern);
+        table.put(key, groupId);
+      }
+      batchGroupIds[i] = groupId;
+    }
+
+    for (int accIdx = 0; accIdx < accTypes.length; accIdx++) {
+      accumulate(accIdx, batch);
+    }
+  }
+
+  private void accumulate(int accIdx, VectorizedRowBatch batch) {
+    AccumulatorType accType = accTypes[accIdx];
+    long[] values = accValues[accIdx];
+    boolean[] hasValue = accHasValue[accIdx];
+    int size = batch.size();
+
+    if (accType == AccumulatorType.COUNT_ROWS && !mergePhase[accIdx]) {
+      for (int i = 0; i < size; i++) {
+        values[batchGroupIds[i]]++;
+      }
+      return;
+    }
+
+    ColumnVector vector = batch.getColumn(argIds[accIdx]);
+    // count(expr) accepts any type in the first phase
+    long[] args = vector.getLongs();
+
+    for (int i = 0; i < size; i++) {
+      int row = batch.getRow(i);
+      if (vector.isNull(row)) {
+        continue;
+      }
+      int groupId = batchGroupIds[i];
+
+      switch (accType) {
+      case COUNT_ROWS:
+      case COUNT_VALUE:
+        if (mergePhase[accIdx]) {
+          values[groupId] += args[row];
+        } else {
+          values[groupId]++;
+        }
+        break;
+      case SUM:
+        values[groupId] += args[row];
+        hasValue[groupId] = true;
+        break;
+      case MIN:
+        if (!hasValue[groupId] || args[row] < values[groupId]) {
+          values[groupId] = args[row];
+          hasValue[groupId] = true;
+        }
+        break;
+      case MAX:
+        if (!hasValue[groupId] || args[row] > values[groupId]) {
+          values[groupId] = args[row];
+          hasValue[groupId] = true;
+        }
+        break;
+      default:
+        throw new TajoInternalError("Unknown accumulator type: " + accType);
+      }
+    }
+  }
+
+  private int newGroup(long key, int nullPattern) {
+    if (groupNum == groupKeys.length) {
+      int newCapacity = groupKeys.length << 1;
+      groupKeys = Arrays.copyOf(groupKeys, newCapacity);
+      groupNullPatterns = Arrays.copyOf(groupNullPatterns, newCapacity);
+      for (int i = 0; i < accTypes.length; i++) {
+        accValues[i] = Arrays.copyOf(accValues[i], newCapacity);
+        accHasValue[i] = Arrays.copyOf(accHasValue[i], newCapacity);
+      }
+    }
+    groupKeys[groupNum] = key;
+    groupNullPatterns[groupNum] = (byte) nullPattern;
+    return groupNum++;
+  }
+
+  private void accumulate(int accIdx, int groupId, Tuple tuple) {
+    AccumulatorType accType = accTypes[accIdx];
+    long[] values = accValues[accIdx];
+
+    if (accType == AccumulatorType.COUNT_ROWS && !mergePhase[accIdx]) {
+      values[groupId]++;
+      return;
+    }
+
+    int argId = argIds[accIdx];
+    if (tuple.isBlankOrNull(argId)) {
+      return;
+    }
+
+    switch (accType) {
+    case COUNT_ROWS:
+    case COUNT_VALUE:
+      if (mergePhase[accIdx]) {
+        values[groupId] += tuple.getInt8(argId);
+      } else {
+        values[groupId]++;
+      }
+      break;
+    case SUM:
+      values[groupId] += getLong(tuple, argId, argTypes[accIdx]);
+      accHasValue[accIdx][groupId] = true;
+      break;
+    case MIN: {
+      long value = getLong(tuple, argId, argTypes[accIdx]);
+      if (!accHasValue[accIdx][groupId] || value < values[groupId]) {
+        values[groupId] = value;
+        accHasValue[accIdx][groupId] = true;
+      }
+      break;
+    }
+    case MAX: {
+      long value = getLong(tuple, argId, argTypes[accIdx]);
+      if (!accHasValue[accIdx][groupId] || value > values[groupId]) {
+        values[groupId] = value;
+        accHasValue[accIdx][groupId] = true;
+      }
+      break;
+    }
+    default:
+      throw new TajoInternalError("Unknown accumulator type: " + accType);
+    }
+  }
+
+  /**
+   * @return the number of groups
+   */
+  public int size() {
+    return groupNum;
+  }
+
+  /**
+   * @return the rough heap bytes of group states and hash tables
+   */
+  public long estimateBytes() {
+    // a key, a null pattern, and a value and a flag of each aggregation per group
+    long bytes = (long) groupKeys.length * (Long.BYTES + 1 + accTypes.length * (Long.BYTES + 1));
+    for (LongKeyTable table : tables) {
+      if (table != null) {
+        bytes += (long) table.capacity() * (Long.BYTES + Integer.BYTES);
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * Write grouping keys and aggregation results of a group into an output tuple.
+   * Grouping keys come first and aggregation results follow them.
+   *
+   * @param groupId group id between 0 and size() - 1
+   * @param output output tuple
+   */
+  public void fill(int groupId, Tuple output) {
+    int tupleIdx = 0;
+    long key = groupKeys[groupId];
+    int nullPattern = groupNullPatterns[groupId];
+    for (int i = 0; i < keyIds.length; i++, tupleIdx++) {
+      if ((nullPattern & (1 << i)) != 0) {
+        output.put(tupleIdx, NullDatum.get());
+      } else if (keyIds.length == 1) {
+        output.put(tupleIdx, createDatum(keyTypes[i], key));
+      } else {
+        output.put(tupleIdx, createDatum(keyTypes[i], (int) (key >>> (i * Integer.SIZE))));
+      }
+    }
+
+    for (int i = 0; i < accTypes.length; i++, tupleIdx++) {
+      long value = accValues[i][groupId];
+      switch (accTypes[i]) {
+      case COUNT_ROWS:
+      case COUNT_VALUE:
+        output.put(tupleIdx, DatumFactory.createInt8(value));
+        break;
+      case SUM:
+        output.put(tupleIdx, accHasValue[i][groupId] ? DatumFactory.createInt8(value) : NullDatum.get());
+        break;
+      default:
+        // min and max return the same type as their argument
+        output.put(tupleIdx, accHasValue[i][groupId] ? createDatum(argTypes[i], value) : NullDatum.get());
+        break;
+      }
+    }
+  }
+
+  public void clear() {
+    Arrays.fill(tables, null);
+    groupNum = 0;
+    groupKeys = new long[16];
+    groupNullPatterns = new byte[16];
+    for (int i = 0; i < accTypes.length; i++) {
+      accValues[i] = new long[16];
+      accHasValue[i] = new boolean[16];
+    }
+  }
+
+  /**
+   * An open-addressing hash table from a long key to a group id.
+   */
+  static class LongKeyTable {
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    LongKeyTable(int expectedSize) {
+      int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+      keys = new long[capacity];
+      values = new int[capacity];
+      Arrays.fill(values, -1);
+      mask = capacity - 1;
+    }
+
+    int capacity() {
+      return keys.length;
+    }
+
+    private static int hash(long key) {
+      // a finalizer of MurmurHash3
+      key ^= key >>> 33;
+      key *= 0xff51afd7ed558ccdL;
+      key ^= key >>> 33;
+      return (int) key;
+    }
+
+    /**
+     * @return the value for a given key. If the key does not exist, -1.
+     */
+    int get(long key) {
+      int slot = hash(key) & mask;
+      while (values[slot] >= 0) {
+        if (keys[slot] == key) {
+          return values[slot];
+        }
+        slot = (slot + 1) & mask;
+      }
+      return -1;
+    }
+
+    /**
+     * Put a key which does not exist in this table yet.
+     */
+    void put(long key, int value) {
+      int slot = hash(key) & mask;
+      while (values[slot] >= 0) {
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = key;
+      values[slot] = value;
+
+      if (++size > keys.length * LOAD_FACTOR) {
+        rehash();
+      }
+    }
+
+    private void rehash() {
+      long[] oldKeys = keys;
+      int[] oldValues = values;
+
+      int capacity = oldKeys.length << 1;
+      keys = new long[capacity];
+      values = new int[capacity];
+      Arrays.fill(values, -1);
+      mask = capacity - 1;
+
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldValues[i] >= 0) {
+          int slot = hash(oldKeys[i]) & mask;
+          while (values[slot] >= 0) {
+            slot = (slot + 1) & mask;
+          }
+          keys[slot] = oldKeys[i];
+          values[slot] = oldValues[i];
+        }
+      }
+    }
+  }
+}
@@ -66,6 +66,7 @@ public class RangeShuffleFileWriteExec extends UnaryPhysicalExec {
     } else {
       this.meta = CatalogUtil.newTableMeta(plan.getStorageType());
     }
+    PhysicalPlanUtil.setShuffleCodecIfNecessary(context.getConf(), meta);
   }
 
   public void init() throws IOException {
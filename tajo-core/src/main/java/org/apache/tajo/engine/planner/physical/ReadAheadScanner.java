@@ -0,0 +1,235 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.tajo.BuiltinStorages;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SchemaUtil;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.storage.AbstractScanner;
+import org.apache.tajo.storage.Scanner;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.tuple.RowBlockReader;
+import org.apache.tajo.tuple.memory.MemoryRowBlock;
+import org.apache.tajo.tuple.memory.RowWriter;
+import org.apache.tajo.tuple.memory.UnSafeTuple;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * ReadAheadScanner reads tuples of an underlying scanner into row blocks on a background thread, so that its
+ * consumer, such as the k-way merge of {@link ExternalSortExec}, does not wait for disk reads.
+ *
+ * Two row blocks are used in turn. While the consumer reads one block, the other is filled by the background
+ * thread. Like the other scanners, a tuple returned by {@link #next()} is valid until the next call of
+ * {@link #next()}.
+ */
+class ReadAheadScanner extends AbstractScanner {
+  private static final Log LOG = LogFactory.getLog(ReadAheadScanner.class);
+  private static final int BLOCK_NUM = 2;
+
+  private final Scanner scanner;
+  private final Executor executor;
+  /** a block is passed to the consumer when its size exceeds this size */
+  private final int blockBytes;
+
+  private MemoryRowBlock[] blocks;
+  private final BlockingQueue<MemoryRowBlock> freeBlocks = new LinkedBlockingQueue<>();
+  // an empty block means the end of the underlying scanner
+  private final BlockingQueue<MemoryRowBlock> filledBlocks = new LinkedBlockingQueue<>();
+  // the end of data after an error. It does not belong to the free blocks.
+  private MemoryRowBlock errorMarker;
+
+  private volatile boolean stopped;
+  private volatile Throwable error;
+  private CountDownLatch finished;
+
+  // for the consumer
+  private MemoryRowBlock current;
+  private RowBlockReader reader;
+  private final UnSafeTuple tuple = new UnSafeTuple();
+  private boolean eof;
+
+  public ReadAheadScanner(Scanner scanner, Executor executor, int blockBytes) {
+    this.scanner = scanner;
+    this.executor = executor;
+    this.blockBytes = blockBytes;
+  }
+
+  @Override
+  public void init() throws IOException {
+    scanner.init();
+
+    blocks = new MemoryRowBlock[BLOCK_NUM];
+    for (int i = 0; i < BLOCK_NUM; i++) {
+      blocks[i] = new MemoryRowBlock(SchemaUtil.toDataTypes(scanner.getSchema()), blockBytes);
+    }
+    errorMarker = new MemoryRowBlock(SchemaUtil.toDataTypes(scanner.getSchema()), 1, false, BuiltinStorages.DRAW);
+    start();
+  }
+
+  private void start() {
+    stopped = false;
+    error = null;
+    eof = false;
+    freeBlocks.clear();
+    filledBlocks.clear();
+    Collections.addAll(freeBlocks, blocks);
+
+    finished = new CountDownLatch(1);
+    executor.execute(this::fill);
+  }
+
+  /**
+   * It runs on a background thread.
+   */
+  private void fill() {
+    try {
+      while (!stopped) {
+        MemoryRowBlock block = freeBlocks.take();
+        if (stopped) {
+          break;
+        }
+
+        block.clear();
+        RowWriter writer = block.getWriter();
+        Tuple t;
+        while (block.usedMem() < blockBytes && (t = scanner.next()) != null) {
+          writer.addTuple(t);
+        }
+        filledBlocks.put(block);
+
+        if (block.rows() == 0) {
+          break;
+        }
+      }
+    } catch (Throwable t) {
+      LOG.error(t.getMessage(), t);
+      error = t;
+      // The consumer may be waiting for a filled block, while no free block is left to pass the end of data.
+      filledBlocks.offer(errorMarker);
+    } finally {
+      finished.countDown();
+    }
+  }
+
+  /**
+   * Stop the background thread, and wait for it.
+   */
+  private void stop() throws IOException {
+    if (finished == null) {
+      return;
+    }
+
+    stopped = true;
+    // wake up the background thread waiting for a free block
+    if (current != null && current != errorMarker) {
+      freeBlocks.add(current);
+    }
+    filledBlocks.drainTo(freeBlocks);
+    try {
+      finished.await();
+    } catch (InterruptedException e) {
+      throw new IOException(e);
+    }
+
+    finished = null;
+    current = null;
+    reader = null;
+  }
+
+  @Override
+  public Tuple next() throws IOException {
+    while (!eof) {
+      if (reader != null && reader.next(tuple)) {
+        return tuple;
+      }
+      nextBlock();
+    }
+    return null;
+  }
+
+  private void nextBlock() throws IOException {
+    if (current != null && current != errorMarker) {
+      freeBlocks.add(current);
+      current = null;
+      reader = null;
+    }
+
+    try {
+      current = filledBlocks.take();
+    } catch (InterruptedException e) {
+      throw new IOException(e);
+    }
+
+    if (current.rows() == 0) {
+      eof = true;
+      if (error != null) {
+        throw new IOException(error);
+      }
+    } else {
+      reader = current.getReader();
+    }
+  }
+
+  @Override
+  public void reset() throws IOException {
+    stop();
+    scanner.reset();
+    start();
+  }
+
+  @Override
+  public void close() throws IOException {
+    stop();
+
+    if (blocks != null) {
+      for (MemoryRowBlock block : blocks) {
+        block.release();
+      }
+      blocks = null;
+      errorMarker.release();
+      errorMarker = null;
+    }
+    IOUtils.cleanup(LOG, scanner);
+  }
+
+  @Override
+  public Schema getSchema() {
+    return scanner.getSchema();
+  }
+
+  @Override
+  public float getProgress() {
+    return scanner.getProgress();
+  }
+
+  @Override
+  public TableStats getInputStats() {
+    return scanner.getInputStats();
+  }
+}
@@ -315,6 +315,12 @@ public class RightOuterMergeJoinExec extends CommonJoinExec {
     return null;
   }
 
+  @Override
+  protected void compile() {
+    super.compile();
+    tupleComparator = PhysicalPlanUtil.compileComparators(context, tupleComparator);
+  }
+
   @Override
   public void rescan() throws IOException {
     super.rescan();
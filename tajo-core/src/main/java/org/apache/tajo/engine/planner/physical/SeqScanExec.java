@@ -18,7 +18,11 @@
 
 package org.apache.tajo.engine.planner.physical;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.io.IOUtils;
+import org.apache.tajo.ResourceProtos.RuntimeFilterProto;
+import org.apache.tajo.SessionVars;
 import org.apache.tajo.catalog.*;
 import org.apache.tajo.catalog.partition.PartitionMethodDesc;
 import org.apache.tajo.catalog.proto.CatalogProtos;
@@ -26,8 +30,12 @@ import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.datum.Datum;
 import org.apache.tajo.datum.NullDatum;
 import org.apache.tajo.engine.codegen.CompilationError;
+import org.apache.tajo.engine.codegen.ScanPipeline;
+import org.apache.tajo.engine.codegen.ScanPipelineCompiler;
 import org.apache.tajo.engine.planner.Projector;
+import org.apache.tajo.engine.utils.KeyBloomFilter;
 import org.apache.tajo.plan.Target;
+import org.apache.tajo.plan.expr.AlgebraicUtil;
 import org.apache.tajo.plan.expr.ConstEval;
 import org.apache.tajo.plan.expr.EvalNode;
 import org.apache.tajo.plan.expr.EvalTreeUtil;
@@ -38,6 +46,8 @@ import org.apache.tajo.plan.util.PlannerUtil;
 import org.apache.tajo.storage.*;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.fragment.FragmentConvertor;
+import org.apache.tajo.worker.ShuffleDataStream;
+import org.apache.tajo.worker.ShuffleStreamScanner;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
@@ -47,22 +57,33 @@ import java.util.Set;
 
 
 public class SeqScanExec extends ScanExec {
+  private static final Log LOG = LogFactory.getLog(SeqScanExec.class);
+
   private ScanNode plan;
 
-  private Scanner scanner = null;
+  protected Scanner scanner = null;
 
-  private EvalNode qual = null;
+  protected EvalNode qual = null;
 
   private CatalogProtos.FragmentProto [] fragments;
 
-  private Projector projector;
+  protected Projector projector;
 
   private TableStats inputStats;
 
   // scanner iterator with filter or without filter
   private ScanIterator scanIt;
 
-  private boolean needProjection;
+  // a generated loop for pushTo()
+  private ScanPipeline pipeline;
+
+  protected boolean needProjection;
+
+  // the schema of tuples retrieved from the scanner
+  private Schema actualInSchema;
+
+  // true if tuples are filtered by a bloom filter built by the other side of a join. See RuntimeFilterRule.
+  private boolean runtimeFiltered;
 
   public SeqScanExec(TaskAttemptContext context, ScanNode plan,
                      CatalogProtos.FragmentProto [] fragments) throws IOException {
@@ -183,7 +204,7 @@ public class SeqScanExec extends ScanExec {
 
     // Why we should check nullity? See https://issues.apache.org/jira/browse/TAJO-1422
 
-    if (fragments == null) {
+    if (fragments == null && context.getShuffleDataStream(plan.getCanonicalName()) == null) {
       scanIt = new EmptyScanIterator();
 
     } else {
@@ -196,7 +217,7 @@ public class SeqScanExec extends ScanExec {
       // If projectable, the retrieved tuple will contain only projected fields.
       // Otherwise, the retrieved tuple will contain projected fields and NullDatum
       // for non-projected fields.
-      Schema actualInSchema = scanner.isProjectable() ? projectedFields : inSchema;
+      actualInSchema = scanner.isProjectable() ? projectedFields : inSchema;
 
       initializeProjector(actualInSchema);
 
@@ -205,11 +226,38 @@ public class SeqScanExec extends ScanExec {
       }
 
       initScanIterator();
+
+      RuntimeFilterProto runtimeFilter = context.getRuntimeFilter(plan.getCanonicalName());
+      if (runtimeFilter != null) {
+        initRuntimeFilter(runtimeFilter);
+      }
     }
 
     super.init();
   }
 
+  private void initRuntimeFilter(RuntimeFilterProto runtimeFilter) {
+    int[] keyIds = new int[runtimeFilter.getKeysCount()];
+    for (int i = 0; i < keyIds.length; i++) {
+      keyIds[i] = actualInSchema.getColumnId(new Column(runtimeFilter.getKeys(i)).getQualifiedName());
+      if (keyIds[i] < 0) {
+        LOG.warn(getCanonicalName() + " cannot be filtered by the runtime filter because of missing key columns");
+        return;
+      }
+    }
+
+    scanIt = new RuntimeFilterScanIterator(scanIt,
+        new KeyBloomFilter(runtimeFilter.getFilter().toByteArray()), keyIds);
+    runtimeFiltered = true;
+  }
+
+  /**
+   * @return True if tuples are filtered by a bloom filter. They should be retrieved by {@link #next()}.
+   */
+  protected boolean isRuntimeFiltered() {
+    return runtimeFiltered;
+  }
+
   protected void initializeProjector(Schema actualInSchema){
     List<Target> realTargets;
     if (plan.getTargets() == null) {
@@ -256,8 +304,13 @@ public class SeqScanExec extends ScanExec {
   private void initScanner(Schema projected) throws IOException {
     TableDesc table = plan.getTableDesc();
     TableMeta meta = table.getMeta();
+    ShuffleDataStream stream = context.getShuffleDataStream(plan.getCanonicalName());
 
-    if (fragments.length > 1) {
+    if (stream != null) {
+      // shuffle data are scanned while being fetched
+      this.scanner = new ShuffleStreamScanner(context.getConf(), plan.getPhysicalSchema(), meta, stream);
+
+    } else if (fragments.length > 1) {
 
       this.scanner = new MergeScanner(
           context.getConf(),
@@ -301,6 +354,69 @@ public class SeqScanExec extends ScanExec {
     return null;
   }
 
+  /**
+   * Push all the remaining result tuples into a consumer, instead of returning them by {@link #next()}.
+   * If code generation is enabled, the scan, the filter and the projection are fused into a generated loop
+   * (see {@link ScanPipelineCompiler}). Otherwise, it is the same as calling {@link #next()} repeatedly.
+   *
+   * @return the number of pushed tuples
+   */
+  public long pushTo(TupleConsumer consumer) throws IOException {
+    if (scanner != null && !runtimeFiltered && context.getQueryContext().getBool(SessionVars.CODEGEN)) {
+      if (pipeline == null) {
+        pipeline = compilePipeline();
+      }
+      if (pipeline != null) {
+        return pipeline.run(scanner, new VTuple(outSchema.size()), consumer, context);
+      }
+    }
+    return pushByNext(consumer);
+  }
+
+  protected final long pushByNext(TupleConsumer consumer) throws IOException {
+    long count = 0;
+    Tuple tuple;
+    while (!context.isStopped() && (tuple = next()) != null) {
+      consumer.consume(tuple);
+      count++;
+    }
+    return count;
+  }
+
+  private ScanPipeline compilePipeline() {
+    // A selectable scanner returns only the tuples satisfying the filter. See initScanIterator().
+    EvalNode[] conjuncts = new EvalNode[0];
+    if (plan.hasQual() && !scanner.isSelectable()) {
+      conjuncts = AlgebraicUtil.toConjunctiveNormalFormArray(plan.getQual());
+      boolean inlinable = false;
+      for (EvalNode conjunct : conjuncts) {
+        conjunct.bind(context.getEvalContext(), actualInSchema);
+        inlinable |= ScanPipelineCompiler.isInlinable(actualInSchema, conjunct);
+      }
+      // keep the compiled qual if no conjunct can be inlined
+      if (!inlinable) {
+        conjuncts = new EvalNode[] {qual};
+      }
+    }
+
+    EvalNode[] targets = null;
+    if (needProjection) {
+      List<Target> realTargets = plan.getTargets() == null ? PlannerUtil.schemaToTargets(outSchema) : plan.getTargets();
+      targets = new EvalNode[realTargets.size()];
+      for (int i = 0; i < targets.length; i++) {
+        EvalNode eval = realTargets.get(i).getEvalTree();
+        targets[i] = eval instanceof FieldEval ? eval : projector.getEvals()[i];
+      }
+    }
+
+    try {
+      return context.compileScanPipeline(actualInSchema, conjuncts, targets);
+    } catch (Throwable t) {
+      LOG.warn("Cannot compile the scan pipeline of " + getCanonicalName() + ". It falls back to next().", t);
+      return null;
+    }
+  }
+
   @Override
   public void rescan() throws IOException {
     scanner.reset();
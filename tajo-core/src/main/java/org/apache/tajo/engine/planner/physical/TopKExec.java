@@ -0,0 +1,195 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import com.google.common.base.Preconditions;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.catalog.SchemaUtil;
+import org.apache.tajo.plan.logical.SortNode;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.tuple.memory.UnSafeTuple;
+import org.apache.tajo.tuple.memory.UnSafeTupleList;
+import org.apache.tajo.worker.TaskAttemptContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * TopKExec evaluates <code>ORDER BY ... LIMIT N</code> by a bounded heap instead of sorting all input rows.
+ *
+ * The heap keeps the first N rows in the sort order seen so far, and its top is the last one of them.
+ * An input row is compared with the top before it is copied, so that most rows of a large input are discarded
+ * without any copy. Rows having the same sort keys are kept in the input order like a stable sort.
+ * Kept rows are copied into off-heap memory. Since rows evicted from the heap still occupy the memory,
+ * the kept rows are compacted into new memory whenever the evicted rows outnumber them.
+ *
+ * It is used for both the local phase sorting each fragment and the final phase merging the results of tasks.
+ */
+public class TopKExec extends SortExec {
+  private static final Log LOG = LogFactory.getLog(TopKExec.class);
+
+  /** the minimum number of rows which triggers a compaction */
+  private static final int MIN_COMPACTION_SIZE = 1024;
+
+  private SortNode plan;
+  private final long limit;
+
+  private UnSafeTupleList memoryTuples;
+  // the top is the last row in the sort order
+  private PriorityQueue<HeapEntry> heap;
+  private Comparator<HeapEntry> entryComparator;
+  private long inputRows;
+  private List<HeapEntry> sortedEntries;
+  private int cursor;
+
+  /** a kept row and its position in the input */
+  private static class HeapEntry {
+    private final Tuple tuple;
+    private final long seq;
+
+    HeapEntry(Tuple tuple, long seq) {
+      this.tuple = tuple;
+      this.seq = seq;
+    }
+  }
+
+  public TopKExec(TaskAttemptContext context, SortNode plan, PhysicalExec child, long limit) {
+    super(context, plan.getInSchema(), plan.getOutSchema(), child, plan.getSortKeys());
+    Preconditions.checkArgument(limit >= 0 && limit < Integer.MAX_VALUE, "Invalid limit: " + limit);
+    this.plan = plan;
+    this.limit = limit;
+  }
+
+  public SortNode getPlan() {
+    return plan;
+  }
+
+  public long getLimit() {
+    return limit;
+  }
+
+  @Override
+  public void init() throws IOException {
+    super.init();
+    int initialSize = (int) Math.min(limit + 1, MIN_COMPACTION_SIZE);
+    memoryTuples = new UnSafeTupleList(SchemaUtil.toDataTypes(inSchema), initialSize);
+    entryComparator = (e1, e2) -> {
+      int cmp = comparator.compare(e1.tuple, e2.tuple);
+      return cmp != 0 ? cmp : Long.compare(e1.seq, e2.seq);
+    };
+    heap = new PriorityQueue<>(initialSize, entryComparator.reversed());
+  }
+
+  @Override
+  public Tuple next() throws IOException {
+    if (sortedEntries == null) {
+      long startTime = System.currentTimeMillis();
+      loadTopK();
+
+      sortedEntries = new ArrayList<>(heap);
+      heap.clear();
+      Collections.sort(sortedEntries, entryComparator);
+      progress = 1.0f;
+
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Top-" + limit + " of " + inputRows + " rows are selected in "
+            + (System.currentTimeMillis() - startTime) + " msec (" + context.getTaskId() + ")");
+      }
+    }
+
+    if (cursor < sortedEntries.size()) {
+      return sortedEntries.get(cursor++).tuple;
+    }
+    return null;
+  }
+
+  private void loadTopK() throws IOException {
+    if (limit == 0) {
+      return;
+    }
+
+    Tuple tuple;
+    while (!context.isStopped() && (tuple = child.next()) != null) {
+      long seq = inputRows++;
+      if (heap.size() < limit) {
+        heap.add(new HeapEntry(copy(tuple), seq));
+      } else if (comparator.compare(tuple, heap.peek().tuple) < 0) {
+        // a row equal to the top comes after it in the input order, so it is discarded
+        heap.poll();
+        heap.add(new HeapEntry(copy(tuple), seq));
+      }
+    }
+  }
+
+  private UnSafeTuple copy(Tuple tuple) {
+    if (memoryTuples.size() > Math.max(limit * 2, MIN_COMPACTION_SIZE)) {
+      compact();
+    }
+    memoryTuples.addTuple(tuple);
+    return memoryTuples.get(memoryTuples.size() - 1);
+  }
+
+  /**
+   * Copy only the rows in the heap into new memory, and release the memory including evicted rows.
+   */
+  private void compact() {
+    UnSafeTupleList compacted = new UnSafeTupleList(SchemaUtil.toDataTypes(inSchema), heap.size() + 1);
+    List<HeapEntry> kept = new ArrayList<>(heap);
+    heap.clear();
+    for (HeapEntry entry : kept) {
+      compacted.addTuple(entry.tuple);
+      heap.add(new HeapEntry(compacted.get(compacted.size() - 1), entry.seq));
+    }
+
+    memoryTuples.release();
+    memoryTuples = compacted;
+  }
+
+  @Override
+  public void rescan() throws IOException {
+    // the selected rows are reused
+    cursor = 0;
+    progress = sortedEntries == null ? 0.0f : 1.0f;
+  }
+
+  @Override
+  public void close() throws IOException {
+    super.close();
+    if (heap != null) {
+      heap.clear();
+      heap = null;
+    }
+    sortedEntries = null;
+    if (memoryTuples != null) {
+      memoryTuples.release();
+      memoryTuples = null;
+    }
+    plan = null;
+  }
+
+  @Override
+  public String toString() {
+    return "TopK (limit: " + limit + ", keys: " + sortSpecs.length + ")";
+  }
+}
@@ -0,0 +1,42 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
+
+import java.io.IOException;
+
+/**
+ * A physical executor which can return its output rows in column vectors.
+ * Operators which understand column vectors call {@link #nextBatch()} instead of {@link PhysicalExec#next()}.
+ * The two methods should not be mixed for the same executor.
+ */
+public interface VectorizedExec {
+
+  /**
+   * @return True if {@link #nextBatch()} is available. It is valid only after init().
+   */
+  boolean isBatchAvailable();
+
+  /**
+   * @return the next batch which has at least one selected row, or null if there are no more rows.
+   * Columns of the batch are in the same order as the output schema. The batch is reused by the next call.
+   */
+  VectorizedRowBatch nextBatch() throws IOException;
+}
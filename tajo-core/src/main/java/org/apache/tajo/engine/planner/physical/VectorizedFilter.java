@@ -0,0 +1,400 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.plan.expr.*;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.storage.vector.ColumnVector;
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * VectorizedFilter evaluates a search condition over a {@link VectorizedRowBatch}, and narrows
+ * the selection of the batch to the rows satisfying the condition.
+ *
+ * Conjuncts which compare a column with a constant or test the nullity of a column are evaluated
+ * over primitive arrays directly. The other conjuncts are evaluated by their {@link EvalNode}s
+ * for each remaining row through a tuple.
+ */
+public abstract class VectorizedFilter {
+
+  /**
+   * Remove the rows which do not satisfy this filter from the selection of a batch.
+   */
+  public abstract void filter(VectorizedRowBatch batch);
+
+  /**
+   * @param evalContext eval context to bind conjuncts evaluated for each row
+   * @param qual search condition
+   * @param schema the schema of batches
+   */
+  public static VectorizedFilter create(EvalContext evalContext, EvalNode qual, Schema schema) {
+    List<VectorizedFilter> filters = new ArrayList<>();
+    List<EvalNode> remains = new ArrayList<>();
+    for (EvalNode conjunct : AlgebraicUtil.toConjunctiveNormalFormArray(qual)) {
+      VectorizedFilter filter = createPrimitiveFilter(conjunct, schema);
+      if (filter != null) {
+        filters.add(filter);
+      } else {
+        remains.add(conjunct);
+      }
+    }
+
+    // primitive filters come first because they are much cheaper.
+    if (!remains.isEmpty()) {
+      EvalNode rowQual = AlgebraicUtil.createSingletonExprFromCNF(remains);
+      rowQual.bind(evalContext, schema);
+      filters.add(new RowFilter(rowQual, schema));
+    }
+
+    return filters.size() == 1 ? filters.get(0) : new AndFilter(filters);
+  }
+
+  public static int getColumnId(Schema schema, Column column) {
+    // the same as FieldEval.bind()
+    if (column.hasQualifier()) {
+      return schema.getColumnId(column.getQualifiedName());
+    } else {
+      return schema.getColumnIdByName(column.getSimpleName());
+    }
+  }
+
+  private static VectorizedFilter createPrimitiveFilter(EvalNode node, Schema schema) {
+    if (node.getType() == EvalType.IS_NULL) {
+      IsNullEval isNullEval = (IsNullEval) node;
+      if (isNullEval.getChild() instanceof FieldEval) {
+        int columnId = getColumnId(schema, ((FieldEval) isNullEval.getChild()).getColumnRef());
+        return columnId < 0 ? null : new NullFilter(columnId, isNullEval.isNot());
+      }
+      return null;
+    }
+
+    if (!isComparison(node.getType())) {
+      return null;
+    }
+
+    BinaryEval binaryEval = (BinaryEval) node;
+    EvalType op = node.getType();
+    FieldEval field;
+    ConstEval constant;
+    if (binaryEval.getLeftExpr() instanceof FieldEval && binaryEval.getRightExpr() instanceof ConstEval) {
+      field = binaryEval.getLeftExpr();
+      constant = binaryEval.getRightExpr();
+    } else if (binaryEval.getLeftExpr() instanceof ConstEval && binaryEval.getRightExpr() instanceof FieldEval) {
+      field = binaryEval.getRightExpr();
+      constant = binaryEval.getLeftExpr();
+      op = flip(op);
+    } else {
+      return null;
+    }
+
+    int columnId = getColumnId(schema, field.getColumnRef());
+    Datum value = constant.getValue();
+    // a comparison with null is evaluated for each row
+    if (columnId < 0 || value.isNull()) {
+      return null;
+    }
+
+    Type columnType = schema.getColumn(columnId).getDataType().getType();
+    Type valueType = value.type();
+    ColumnVector.VectorType vectorType = ColumnVector.getVectorType(columnType);
+    if (vectorType == null) {
+      return null;
+    }
+
+    switch (vectorType) {
+      case LONG:
+        if ((isIntegral(columnType) && isIntegral(valueType)) || (columnType == valueType && isDateTime(columnType))) {
+          return new LongCompareFilter(columnId, op, value.asInt8());
+        }
+        return null;
+      case DOUBLE:
+        if (isIntegral(valueType) || valueType == Type.FLOAT4 || valueType == Type.FLOAT8) {
+          return new DoubleCompareFilter(columnId, op, value.asFloat8());
+        }
+        return null;
+      default:
+        if (columnType == Type.TEXT && valueType == Type.TEXT && (op == EvalType.EQUAL || op == EvalType.NOT_EQUAL)) {
+          return new BytesEqualFilter(columnId, op == EvalType.NOT_EQUAL, value.asByteArray());
+        }
+        return null;
+    }
+  }
+
+  private static boolean isComparison(EvalType type) {
+    switch (type) {
+      case EQUAL:
+      case NOT_EQUAL:
+      case LTH:
+      case LEQ:
+      case GTH:
+      case GEQ:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * @return the operator for swapped operands
+   */
+  private static EvalType flip(EvalType op) {
+    switch (op) {
+      case LTH: return EvalType.GTH;
+      case LEQ: return EvalType.GEQ;
+      case GTH: return EvalType.LTH;
+      case GEQ: return EvalType.LEQ;
+      default: return op;
+    }
+  }
+
+  private static boolean isIntegral(Type type) {
+    return type == Type.INT1 || type == Type.INT2 || type == Type.INT4 || type == Type.INT8;
+  }
+
+  private static boolean isDateTime(Type type) {
+    return type == Type.DATE || type == Type.TIME || type == Type.TIMESTAMP;
+  }
+
+  private static boolean satisfies(EvalType op, int compare) {
+    switch (op) {
+      case EQUAL: return compare == 0;
+      case NOT_EQUAL: return compare != 0;
+      case LTH: return compare < 0;
+      case LEQ: return compare <= 0;
+      case GTH: return compare > 0;
+      default: return compare >= 0;
+    }
+  }
+
+  static class AndFilter extends VectorizedFilter {
+    private final VectorizedFilter[] filters;
+
+    AndFilter(List<VectorizedFilter> filters) {
+      this.filters = filters.toArray(new VectorizedFilter[filters.size()]);
+    }
+
+    @Override
+    public void filter(VectorizedRowBatch batch) {
+      for (VectorizedFilter filter : filters) {
+        if (batch.size() == 0) {
+          return;
+        }
+        filter.filter(batch);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return Arrays.toString(filters);
+    }
+  }
+
+  static class NullFilter extends VectorizedFilter {
+    private final int columnId;
+    private final boolean isNot;
+
+    NullFilter(int columnId, boolean isNot) {
+      this.columnId = columnId;
+      this.isNot = isNot;
+    }
+
+    @Override
+    public void filter(VectorizedRowBatch batch) {
+      ColumnVector vector = batch.getColumn(columnId);
+      if (!vector.hasNulls()) {
+        if (!isNot) {
+          batch.setSize(0);
+        }
+        return;
+      }
+
+      int[] selected = batch.getSelected();
+      int newSize = 0;
+      for (int i = 0; i < batch.size(); i++) {
+        int row = batch.getRow(i);
+        if (vector.isNull(row) != isNot) {
+          selected[newSize++] = row;
+        }
+      }
+      batch.setSize(newSize);
+      batch.setSelectedInUse(true);
+    }
+
+    @Override
+    public String toString() {
+      return "$" + columnId + (isNot ? " IS NOT NULL" : " IS NULL");
+    }
+  }
+
+  static class LongCompareFilter extends VectorizedFilter {
+    private final int columnId;
+    private final EvalType op;
+    private final long value;
+
+    LongCompareFilter(int columnId, EvalType op, long value) {
+      this.columnId = columnId;
+      this.op = op;
+      this.value = value;
+    }
+
+    @Override
+    public void filter(VectorizedRowBatch batch) {
+      ColumnVector vector = batch.getColumn(columnId);
+      long[] values = vector.getLongs();
+      int[] selected = batch.getSelected();
+      int newSize = 0;
+      for (int i = 0; i < batch.size(); i++) {
+        int row = batch.getRow(i);
+        if (!vector.isNull(row) && satisfies(op, Long.compare(values[row], value))) {
+          selected[newSize++] = row;
+        }
+      }
+      batch.setSize(newSize);
+      batch.setSelectedInUse(true);
+    }
+
+    @Override
+    public String toString() {
+      return "$" + columnId + " " + op.getOperatorName() + " " + value;
+    }
+  }
+
+  static class DoubleCompareFilter extends VectorizedFilter {
+    private final int columnId;
+    private final EvalType op;
+    private final double value;
+
+    DoubleCompareFilter(int columnId, EvalType op, double value) {
+      this.columnId = columnId;
+      this.op = op;
+      this.value = value;
+    }
+
+    @Override
+    public void filter(VectorizedRowBatch batch) {
+      ColumnVector vector = batch.getColumn(columnId);
+      double[] values = vector.getDoubles();
+      int[] selected = batch.getSelected();
+      int newSize = 0;
+      for (int i = 0; i < batch.size(); i++) {
+        int row = batch.getRow(i);
+        if (!vector.isNull(row)) {
+          double v = values[row];
+          // the same as the comparison of float datums
+          int compare = v < value ? -1 : (v == value ? 0 : 1);
+          if (satisfies(op, compare)) {
+            selected[newSize++] = row;
+          }
+        }
+      }
+      batch.setSize(newSize);
+      batch.setSelectedInUse(true);
+    }
+
+    @Override
+    public String toString() {
+      return "$" + columnId + " " + op.getOperatorName() + " " + value;
+    }
+  }
+
+  static class BytesEqualFilter extends VectorizedFilter {
+    private final int columnId;
+    private final boolean isNot;
+    private final byte[] value;
+
+    BytesEqualFilter(int columnId, boolean isNot, byte[] value) {
+      this.columnId = columnId;
+      this.isNot = isNot;
+      this.value = value;
+    }
+
+    @Override
+    public void filter(VectorizedRowBatch batch) {
+      ColumnVector vector = batch.getColumn(columnId);
+      byte[][] values = vector.getBytes();
+      int[] selected = batch.getSelected();
+      int newSize = 0;
+      for (int i = 0; i < batch.size(); i++) {
+        int row = batch.getRow(i);
+        if (!vector.isNull(row) && Arrays.equals(values[row], value) != isNot) {
+          selected[newSize++] = row;
+        }
+      }
+      batch.setSize(newSize);
+      batch.setSelectedInUse(true);
+    }
+
+    @Override
+    public String toString() {
+      return "$" + columnId + (isNot ? " <> " : " = ") + "'" + new String(value) + "'";
+    }
+  }
+
+  /**
+   * Evaluates an EvalNode for each selected row. Only the columns referred by the EvalNode are copied into a tuple.
+   */
+  static class RowFilter extends VectorizedFilter {
+    private final EvalNode qual;
+    private final int[] columnIds;
+    private final Tuple tuple;
+
+    RowFilter(EvalNode qual, Schema schema) {
+      this.qual = qual;
+      Set<Column> columns = EvalTreeUtil.findUniqueColumns(qual);
+      this.columnIds = new int[columns.size()];
+      int i = 0;
+      for (Column column : columns) {
+        columnIds[i++] = getColumnId(schema, column);
+      }
+      this.tuple = new VTuple(schema.size());
+    }
+
+    @Override
+    public void filter(VectorizedRowBatch batch) {
+      int[] selected = batch.getSelected();
+      int newSize = 0;
+      for (int i = 0; i < batch.size(); i++) {
+        int row = batch.getRow(i);
+        for (int columnId : columnIds) {
+          tuple.put(columnId, batch.getColumn(columnId).getDatum(row));
+        }
+        if (qual.eval(tuple).isTrue()) {
+          selected[newSize++] = row;
+        }
+      }
+      batch.setSize(newSize);
+      batch.setSelectedInUse(true);
+    }
+
+    @Override
+    public String toString() {
+      return qual.toString();
+    }
+  }
+}
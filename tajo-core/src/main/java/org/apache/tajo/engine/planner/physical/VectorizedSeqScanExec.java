@@ -0,0 +1,209 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.proto.CatalogProtos;
+import org.apache.tajo.plan.Target;
+import org.apache.tajo.plan.expr.FieldEval;
+import org.apache.tajo.plan.logical.ScanNode;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
+import org.apache.tajo.storage.vector.VectorizedScanner;
+import org.apache.tajo.worker.TaskAttemptContext;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * VectorizedSeqScanExec is a sequential scan which reads rows into column vectors in batches,
+ * and evaluates its filter over the batches by {@link VectorizedFilter}.
+ *
+ * If the scanner is a {@link VectorizedScanner}, it fills column vectors directly. Otherwise, tuples of
+ * the scanner are copied into column vectors. If the targets are plain columns, a parent operator implementing
+ * the vectorized path can receive the batches by {@link #nextBatch()}. For the other operators,
+ * {@link #next()} converts each selected row into a tuple and projects it.
+ *
+ * If any scanned column cannot be kept in column vectors, it works in the same way as {@link SeqScanExec}.
+ */
+public class VectorizedSeqScanExec extends SeqScanExec implements VectorizedExec {
+  private static final Log LOG = LogFactory.getLog(VectorizedSeqScanExec.class);
+
+  private boolean vectorized;
+  private VectorizedRowBatch batch;
+  private VectorizedFilter filter;
+  // a view of the batch in the order of the output schema. It is null if any target is not a plain column.
+  private VectorizedRowBatch outputBatch;
+
+  // for tuple-at-a-time parents
+  private Tuple inTuple;
+  private int rowIdx;
+  private boolean eof;
+
+  public VectorizedSeqScanExec(TaskAttemptContext context, ScanNode plan,
+                               CatalogProtos.FragmentProto[] fragments) throws IOException {
+    super(context, plan, fragments);
+  }
+
+  @Override
+  public void init() throws IOException {
+    super.init();
+
+    if (scanner == null) { // no fragment
+      return;
+    }
+
+    // a runtime filter is applied row by row
+    if (isRuntimeFiltered()) {
+      return;
+    }
+
+    // the same as tuples retrieved from the scanner. See SeqScanExec.init().
+    Schema batchSchema = scanner.isProjectable() ? getProjectSchema() : inSchema;
+    vectorized = VectorizedRowBatch.isSupported(batchSchema);
+    if (!vectorized) {
+      LOG.info("Some columns of " + batchSchema + " cannot be vectorized. "
+          + getScanNode().getCanonicalName() + " is scanned row by row.");
+      return;
+    }
+
+    batch = new VectorizedRowBatch(batchSchema);
+    inTuple = new VTuple(batchSchema.size());
+
+    // A selectable scanner returns only the tuples satisfying the filter. But, a vectorized scanner does not.
+    ScanNode plan = getScanNode();
+    if (plan.hasQual() && (scanner instanceof VectorizedScanner || !scanner.isSelectable())) {
+      filter = VectorizedFilter.create(context.getEvalContext(), plan.getQual(), batchSchema);
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Vectorized filter: " + filter);
+      }
+    }
+
+    outputBatch = createOutputBatch(batchSchema);
+  }
+
+  private VectorizedRowBatch createOutputBatch(Schema batchSchema) {
+    if (!needProjection) {
+      return batch;
+    }
+
+    List<Target> targets = getScanNode().getTargets();
+    if (targets == null) {
+      return null;
+    }
+
+    int[] columnIds = new int[targets.size()];
+    for (int i = 0; i < columnIds.length; i++) {
+      if (!(targets.get(i).getEvalTree() instanceof FieldEval)) {
+        return null;
+      }
+      FieldEval field = targets.get(i).getEvalTree();
+      columnIds[i] = VectorizedFilter.getColumnId(batchSchema, field.getColumnRef());
+      if (columnIds[i] < 0) {
+        return null;
+      }
+    }
+    return batch.project(columnIds);
+  }
+
+  /**
+   * Read batches until a batch having at least one selected row.
+   *
+   * @return False if there are no more rows
+   */
+  private boolean readBatch() throws IOException {
+    while (!eof) {
+      if (scanner instanceof VectorizedScanner) {
+        eof = !((VectorizedScanner) scanner).nextBatch(batch);
+      } else {
+        batch.reset();
+        Tuple tuple;
+        while (!batch.isFull() && (tuple = scanner.next()) != null) {
+          batch.addTuple(tuple);
+        }
+        eof = batch.size() == 0;
+      }
+
+      if (!eof && filter != null) {
+        filter.filter(batch);
+      }
+      if (!eof && batch.size() > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean isBatchAvailable() {
+    return vectorized && outputBatch != null;
+  }
+
+  @Override
+  public VectorizedRowBatch nextBatch() throws IOException {
+    if (!readBatch()) {
+      return null;
+    }
+    if (outputBatch != batch) {
+      outputBatch.setSelection(batch);
+    }
+    return outputBatch;
+  }
+
+  @Override
+  public Tuple next() throws IOException {
+    if (!vectorized) {
+      return super.next();
+    }
+
+    if (rowIdx == batch.size()) {
+      if (!readBatch()) {
+        return null;
+      }
+      rowIdx = 0;
+    }
+
+    batch.fillTuple(batch.getRow(rowIdx++), inTuple);
+    return needProjection ? projector.eval(inTuple) : inTuple;
+  }
+
+  @Override
+  public long pushTo(TupleConsumer consumer) throws IOException {
+    // batches are converted into tuples by next()
+    return vectorized ? pushByNext(consumer) : super.pushTo(consumer);
+  }
+
+  @Override
+  public void rescan() throws IOException {
+    super.rescan();
+    if (vectorized) {
+      batch.reset();
+      rowIdx = 0;
+      eof = false;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "Vectorized" + super.toString();
+  }
+}
@@ -18,29 +18,52 @@
 
 package org.apache.tajo.engine.planner.physical;
 
-import com.google.common.collect.Lists;
+import org.apache.tajo.SessionVars;
+import org.apache.tajo.algebra.WindowSpec.WindowFrameEndBoundType;
+import org.apache.tajo.algebra.WindowSpec.WindowFrameStartBoundType;
+import org.apache.tajo.algebra.WindowSpec.WindowFrameUnit;
 import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.SortSpec;
 import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.plan.LogicalPlan;
+import org.apache.tajo.plan.expr.ConstEval;
 import org.apache.tajo.plan.expr.EvalNode;
 import org.apache.tajo.plan.expr.WindowFunctionEval;
 import org.apache.tajo.plan.function.FunctionContext;
+import org.apache.tajo.plan.logical.SortNode;
 import org.apache.tajo.plan.logical.WindowAggNode;
 import org.apache.tajo.plan.logical.WindowSpec;
 import org.apache.tajo.storage.BaseTupleComparator;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.TupleComparator;
 import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.unit.StorageUnit;
 import org.apache.tajo.worker.TaskAttemptContext;
 
+import java.io.Closeable;
 import java.io.IOException;
-import java.util.Collections;
-import java.util.Iterator;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * The sort-based window aggregation operator
+ *
+ * The rows of each window partition are buffered in a {@link WindowPartition}, which spills them to local disks
+ * if they exceed the memory limit. Consecutive functions sharing the same order are evaluated in a stage, which
+ * reads the rows of the partition once in its order. An in-memory partition is ordered by sorting its row ids, and
+ * a spilled partition is sorted by {@link ExternalSortExec} into another partition. If there are several stages,
+ * every stage except the last one writes its rows with the results of its functions into another partition, and
+ * the next stage takes them. The last stage returns its rows, so the output rows follow the order of the last
+ * ordered function. While a stage writes its rows into another partition, the memory used can reach twice the memory
+ * limit of a partition.
+ *
+ * Functions with an explicit ROWS or RANGE frame are evaluated by {@link FrameEvaluator} while a stage reads the
+ * rows. Aggregation functions without an explicit frame take the whole partition, which is aggregated by reading
+ * the rows once more before the stage.
  */
 public class WindowAggExec extends UnaryPhysicalExec {
   // plan information
@@ -51,23 +74,30 @@ public class WindowAggExec extends UnaryPhysicalExec {
   protected final int functionNum;
   protected final WindowFunctionEval functions[];
 
-  protected Schema schemaForOrderBy;
-  protected int sortKeyColumns[];
   protected final boolean hasPartitionKeys;
   protected final int partitionKeyNum;
   protected final int partitionKeyIds[];
 
   // for evaluation
-  protected FunctionContext contexts [];
   protected Tuple lastKey = null;
   protected boolean noMoreTuples = false;
   private boolean [] orderedFuncFlags;
-  private boolean [] aggFuncFlags;
   private boolean [] windowFuncFlags;
-  private boolean [] endUnboundedFollowingFlags;
-  private boolean [] endCurrentRowFlags;
+  private boolean [] frameFuncFlags;
+  private TupleComparator [] comparators;
+  private WindowFrameAggregator [] frameAggregators;
   private Tuple currentKey;
-  private Tuple evaluatedTuple;
+  private Tuple outTuple;
+
+  // The functions of the i-th stage are [stageStarts[i], stageStarts[i + 1]).
+  private final int stageNum;
+  private final int [] stageStarts;
+  // the sort keys of each stage. null if a stage is not ordered.
+  private final SortSpec [][] stageSortSpecs;
+  private final TupleComparator [] stageComparators;
+  // The input columns followed by the results of all functions. The rows passed between stages have this schema.
+  private final Schema stageSchema;
+  private Tuple stageTuple;
 
   // operator state
   enum WindowState {
@@ -79,12 +109,17 @@ public class WindowAggExec extends UnaryPhysicalExec {
   }
 
   // Transient state
-  boolean firstTime = true;
-  TupleList evaluatedTuples = null;
-  TupleList accumulatedInTuples = null;
-  TupleList nextAccumulatedInTuples = null;
   WindowState state = WindowState.NEW_WINDOW;
-  Iterator<Tuple> tupleInFrameIterator = null;
+  // the input rows of the current partition
+  WindowPartition partition = null;
+  // the first row of the next partition
+  Tuple nextFirstTuple = null;
+  // a spilled partition sorted by the first stage
+  WindowPartition sortedPartition = null;
+  // the rows passed between stages
+  WindowPartition [] stagePartitions = new WindowPartition[2];
+  // the last stage, from which the output rows are retrieved
+  StageEvaluator lastStage = null;
 
   public WindowAggExec(TaskAttemptContext context, WindowAggNode plan, PhysicalExec child) throws IOException {
     super(context, plan.getInSchema(), plan.getOutSchema(), child);
@@ -110,68 +145,77 @@ public class WindowAggExec extends UnaryPhysicalExec {
     if (plan.hasAggFunctions()) {
       functions = plan.getWindowFunctions();
       functionNum = functions.length;
+    } else {
+      functions = new WindowFunctionEval[0];
+      functionNum = 0;
+    }
 
-      orderedFuncFlags = new boolean[functions.length];
-      windowFuncFlags = new boolean[functions.length];
-      aggFuncFlags = new boolean[functions.length];
-
-      endUnboundedFollowingFlags = new boolean[functions.length];
-      endCurrentRowFlags = new boolean[functions.length];
-
-      List<Column> additionalSortKeyColumns = Lists.newArrayList();
-      Schema rewrittenSchema = new Schema(outSchema);
-      for (int i = 0; i < functions.length; i++) {
-        WindowSpec.WindowEndBound endBound = functions[i].getWindowFrame().getEndBound();
-        switch (endBound.getBoundType()) {
-        case CURRENT_ROW:
-          endCurrentRowFlags[i] = true; break;
-        case UNBOUNDED_FOLLOWING:
-          endUnboundedFollowingFlags[i] = true; break;
-        default:
-        }
-
-        switch (functions[i].getFuncDesc().getFuncType()) {
+    orderedFuncFlags = new boolean[functionNum];
+    windowFuncFlags = new boolean[functionNum];
+    frameFuncFlags = new boolean[functionNum];
+    comparators = new TupleComparator[functionNum];
+    frameAggregators = new WindowFrameAggregator[functionNum];
+
+    List<Integer> starts = new ArrayList<>();
+    List<SortSpec []> sortSpecs = new ArrayList<>();
+    starts.add(0);
+    sortSpecs.add(null);
+    for (int i = 0; i < functionNum; i++) {
+      boolean aggFunction = false;
+      switch (functions[i].getFuncDesc().getFuncType()) {
         case AGGREGATION:
         case DISTINCT_AGGREGATION:
-          aggFuncFlags[i] = true; break;
+          aggFunction = true; break;
         case WINDOW:
           windowFuncFlags[i] = true; break;
         default:
-        }
+      }
 
-        if (functions[i].hasSortSpecs()) {
-          orderedFuncFlags[i] = true;
-
-          for (SortSpec sortSpec : functions[i].getSortSpecs()) {
-            if (!rewrittenSchema.contains(sortSpec.getSortKey())) {
-              // check if additionalSortKeyColumns already has that sort key
-              boolean newKey = true;
-              for (Column c : additionalSortKeyColumns) {
-                if (c.equals(sortSpec.getSortKey())) {
-                  newKey = false;
-                }
-              }
-              if (newKey) {
-                additionalSortKeyColumns.add(sortSpec.getSortKey());
-              }
-            }
-          }
+      // lead() takes the rows following the current row regardless of the frame.
+      if (aggFunction && functions[i].getWindowFrame().hasFrameUnit()
+          && !functions[i].getFuncDesc().getFunctionName().equalsIgnoreCase("lead")) {
+        frameFuncFlags[i] = true;
+        frameAggregators[i] = WindowFrameAggregator.create(functions[i]);
+      }
+
+      if (functions[i].hasSortSpecs()) {
+        orderedFuncFlags[i] = true;
+        comparators[i] = new BaseTupleComparator(inSchema, functions[i].getSortSpecs());
+
+        // A new stage begins if the order differs from that of the current stage.
+        SortSpec [] current = sortSpecs.get(sortSpecs.size() - 1);
+        if (current == null) {
+          sortSpecs.set(sortSpecs.size() - 1, functions[i].getSortSpecs());
+        } else if (!Arrays.equals(current, functions[i].getSortSpecs())) {
+          starts.add(i);
+          sortSpecs.add(functions[i].getSortSpecs());
         }
       }
+    }
+    starts.add(functionNum);
+
+    stageNum = sortSpecs.size();
+    stageStarts = new int[stageNum + 1];
+    stageSortSpecs = new SortSpec[stageNum][];
+    stageComparators = new TupleComparator[stageNum];
+    for (int stage = 0; stage < stageNum; stage++) {
+      stageStarts[stage] = starts.get(stage);
+      stageSortSpecs[stage] = sortSpecs.get(stage);
+      if (stageSortSpecs[stage] != null) {
+        stageComparators[stage] = new BaseTupleComparator(inSchema, stageSortSpecs[stage]);
+      }
+    }
+    stageStarts[stageNum] = functionNum;
 
-      sortKeyColumns = new int[additionalSortKeyColumns.size()];
-      schemaForOrderBy = new Schema(outSchema);
-      for (int i = 0; i < additionalSortKeyColumns.size(); i++) {
-        sortKeyColumns[i] = i;
-        schemaForOrderBy.addColumn(additionalSortKeyColumns.get(i));
+    if (stageNum > 1) {
+      stageSchema = new Schema(inSchema);
+      for (int idx = 0; idx < functionNum; idx++) {
+        stageSchema.addColumn("?window_result_" + idx, functions[idx].getValueType());
       }
     } else {
-      functions = new WindowFunctionEval[0];
-      functionNum = 0;
-      schemaForOrderBy = outSchema;
+      stageSchema = null;
     }
 
-    evaluatedTuple = new VTuple(schemaForOrderBy.size());
     nonFunctionColumnNum = plan.getTargets().size() - functionNum;
     nonFunctionColumns = new int[nonFunctionColumnNum];
     for (int idx = 0; idx < plan.getTargets().size() - functionNum; idx++) {
@@ -179,6 +223,7 @@ public class WindowAggExec extends UnaryPhysicalExec {
     }
 
     outputColumnNum = nonFunctionColumnNum + functionNum;
+    outTuple = new VTuple(outputColumnNum);
   }
 
   @Override
@@ -187,6 +232,13 @@ public class WindowAggExec extends UnaryPhysicalExec {
     for (EvalNode functionEval : functions) {
       functionEval.bind(context.getEvalContext(), inSchema);
     }
+
+    partition = createPartition(inSchema);
+  }
+
+  private WindowPartition createPartition(Schema schema) {
+    long memoryLimit = context.getQueryContext().getLong(SessionVars.WINDOW_PARTITION_MEMORY_LIMIT) * StorageUnit.MB;
+    return new WindowPartition(context, schema, memoryLimit, getExecutorTmpDir());
   }
 
   private void transition(WindowState state) {
@@ -195,8 +247,6 @@ public class WindowAggExec extends UnaryPhysicalExec {
 
   @Override
   public Tuple next() throws IOException {
-    Tuple readTuple = null;
-
     while(!context.isStopped() && state != WindowState.END_OF_TUPLE) {
 
       if (state == WindowState.NEW_WINDOW) {
@@ -204,35 +254,19 @@ public class WindowAggExec extends UnaryPhysicalExec {
         transition(WindowState.ACCUMULATING_WINDOW);
       }
 
-      if (state != WindowState.RETRIEVING_FROM_WINDOW) { // read an input tuple and build a partition key
-        readTuple = child.next();
-
-        if (readTuple == null) { // the end of tuple
-          noMoreTuples = true;
-          transition(WindowState.EVALUATION);
-        }
-
-        if (readTuple != null && hasPartitionKeys) { // get a key tuple
-          for (int i = 0; i < partitionKeyIds.length; i++) {
-            currentKey.put(i, readTuple.asDatum(partitionKeyIds[i]));
-          }
-        }
-      }
-
       if (state == WindowState.ACCUMULATING_WINDOW) {
-        accumulatingWindow(currentKey, readTuple);
+        accumulatingWindow();
       }
 
       if (state == WindowState.EVALUATION) {
         evaluationWindowFrame();
-
-        tupleInFrameIterator = evaluatedTuples.iterator();
         transition(WindowState.RETRIEVING_FROM_WINDOW);
       }
 
       if (state == WindowState.RETRIEVING_FROM_WINDOW) {
-        if (tupleInFrameIterator.hasNext()) {
-          return tupleInFrameIterator.next();
+        Tuple tuple = retrieveFromWindow();
+        if (tuple != null) {
+          return tuple;
         } else {
           finalizeWindow();
         }
@@ -242,99 +276,199 @@ public class WindowAggExec extends UnaryPhysicalExec {
     return null;
   }
 
-  private void initWindow() {
-    if (firstTime) {
-      accumulatedInTuples = new TupleList();
-
-      contexts = new FunctionContext[functionNum];
-      for(int evalIdx = 0; evalIdx < functionNum; evalIdx++) {
-        contexts[evalIdx] = functions[evalIdx].newContext();
-      }
-      firstTime = false;
+  private void initWindow() throws IOException {
+    if (nextFirstTuple != null) {
+      partition.add(nextFirstTuple);
+      nextFirstTuple = null;
     }
   }
 
-  private void accumulatingWindow(Tuple currentKey, Tuple inTuple) {
+  /**
+   * Read input tuples until the partition key changes.
+   */
+  private void accumulatingWindow() throws IOException {
+    Tuple readTuple;
+    while (!context.isStopped() && (readTuple = child.next()) != null) {
+      if (hasPartitionKeys) { // get a key tuple
+        for (int i = 0; i < partitionKeyIds.length; i++) {
+          currentKey.put(i, readTuple.asDatum(partitionKeyIds[i]));
+        }
 
-    if (lastKey == null || lastKey.equals(currentKey)) { // if the current key is same to the previous key
-      accumulatedInTuples.add(inTuple);
-      if (lastKey == null) {
-        lastKey = new VTuple(currentKey.size());
+        if (lastKey == null) {
+          lastKey = new VTuple(currentKey.size());
+        } else if (!lastKey.equals(currentKey)) {
+          // the current tuple belongs to the next window partition.
+          lastKey.put(currentKey.getValues());
+          nextFirstTuple = new VTuple(readTuple);
+          transition(WindowState.EVALUATION);
+          return;
+        }
+        lastKey.put(currentKey.getValues());
       }
-    } else {
-      // if the current key is different from the previous key,
-      // the current key belongs to the next window frame. preaccumulatingNextWindow() will
-      // aggregate the current key for next window frame.
-      preAccumulatingNextWindow(inTuple);
-      transition(WindowState.EVALUATION);
+
+      partition.add(readTuple);
     }
 
-    lastKey.put(currentKey.getValues());
+    noMoreTuples = true;
+    transition(WindowState.EVALUATION);
   }
 
-  private void preAccumulatingNextWindow(Tuple inTuple) {
-    nextAccumulatedInTuples = new TupleList();
-    nextAccumulatedInTuples.add(inTuple);
+  /**
+   * Evaluate all stages except the last one, whose rows are retrieved one by one.
+   */
+  private void evaluationWindowFrame() throws IOException {
+    WindowPartition source = partition;
+    for (int stage = 0; stage < stageNum; stage++) {
+      int [] order = null;
+      if (stageSortSpecs[stage] != null) {
+        if (source.isSpilled()) {
+          source = sortSpilled(stage, source);
+        } else {
+          order = sortStably(source, stageComparators[stage]);
+        }
+      }
+
+      StageEvaluator evaluator = new StageEvaluator(stage, source, order);
+      if (stage == stageNum - 1) {
+        lastStage = evaluator;
+        return;
+      }
+
+      WindowPartition sink = getStagePartition(source);
+      try {
+        Tuple tuple;
+        while ((tuple = evaluator.next()) != null) {
+          sink.add(evaluator.toStageTuple(tuple));
+        }
+      } finally {
+        evaluator.close();
+      }
+      source.clear();
+      source = sink;
+    }
   }
 
-  private void evaluationWindowFrame() {
-    TupleComparator comp;
+  /**
+   * @return a partition to which the rows of a stage are written. It is not the partition from which they are read.
+   */
+  private WindowPartition getStagePartition(WindowPartition source) {
+    int i = source == stagePartitions[0] ? 1 : 0;
+    if (stagePartitions[i] == null) {
+      stagePartitions[i] = createPartition(stageSchema);
+    }
+    return stagePartitions[i];
+  }
 
-    evaluatedTuples = new TupleList();
+  /**
+   * Sort the row ids of an in-memory partition by a merge sort, which keeps the order of rows having the same keys.
+   */
+  private static int [] sortStably(WindowPartition source, TupleComparator comparator) {
+    int rowNum = (int) source.getRowNum();
+    int [] order = new int[rowNum];
+    for (int i = 0; i < rowNum; i++) {
+      order[i] = i;
+    }
 
-    for (Tuple inTuple : accumulatedInTuples) {
-      for (int c = 0; c < nonFunctionColumnNum; c++) {
-        evaluatedTuple.put(c, inTuple.asDatum(nonFunctionColumns[c]));
-      }
-      for (int c = 0; c < sortKeyColumns.length; c++) {
-        evaluatedTuple.put(outputColumnNum + c, inTuple.asDatum(sortKeyColumns[c]));
+    int [] merged = new int[rowNum];
+    for (int width = 1; width < rowNum; width <<= 1) {
+      for (int from = 0; from < rowNum; from += width << 1) {
+        int mid = Math.min(from + width, rowNum);
+        int to = Math.min(from + (width << 1), rowNum);
+        int left = from;
+        int right = mid;
+        int k = from;
+        while (left < mid && right < to) {
+          if (comparator.compare(source.get(order[right]), source.get(order[left])) < 0) {
+            merged[k++] = order[right++];
+          } else {
+            merged[k++] = order[left++];
+          }
+        }
+        while (left < mid) {
+          merged[k++] = order[left++];
+        }
+        while (right < to) {
+          merged[k++] = order[right++];
+        }
       }
+      int [] tmp = order;
+      order = merged;
+      merged = tmp;
+    }
+    return order;
+  }
 
-      evaluatedTuples.add(evaluatedTuple);
+  /**
+   * Sort a spilled partition into another partition, and clear the given partition.
+   */
+  private WindowPartition sortSpilled(int stage, WindowPartition source) throws IOException {
+    WindowPartition sorted;
+    if (source == partition) {
+      if (sortedPartition == null) {
+        sortedPartition = createPartition(inSchema);
+      }
+      sorted = sortedPartition;
+    } else {
+      sorted = getStagePartition(source);
     }
 
-    for (int idx = 0; idx < functions.length; idx++) {
-      if (orderedFuncFlags[idx]) {
-        comp = new BaseTupleComparator(inSchema, functions[idx].getSortSpecs());
-        Collections.sort(accumulatedInTuples, comp);
-        comp = new BaseTupleComparator(schemaForOrderBy, functions[idx].getSortSpecs());
-        Collections.sort(evaluatedTuples, comp);
+    SortNode sortNode = LogicalPlan.createNodeWithoutPID(SortNode.class);
+    sortNode.setSortSpecs(stageSortSpecs[stage]);
+    sortNode.setInSchema(source.getSchema());
+    sortNode.setOutSchema(source.getSchema());
+    PhysicalExec sortExec = new ExternalSortExec(context, sortNode, new PartitionScanExec(context, source));
+    try {
+      sortExec.init();
+      Tuple tuple;
+      while ((tuple = sortExec.next()) != null) {
+        sorted.add(tuple);
       }
+    } finally {
+      sortExec.close();
+    }
 
-      for (int i = 0; i < accumulatedInTuples.size(); i++) {
-        Tuple inTuple = accumulatedInTuples.get(i);
-        Tuple outTuple = evaluatedTuples.get(i);
+    source.clear();
+    return sorted;
+  }
 
-        functions[idx].merge(contexts[idx], inTuple);
+  private Tuple retrieveFromWindow() throws IOException {
+    Tuple inTuple = lastStage.next();
+    if (inTuple == null) {
+      return null;
+    }
 
-        if (windowFuncFlags[idx]) {
-          Datum result = functions[idx].terminate(contexts[idx]);
-          outTuple.put(nonFunctionColumnNum + idx, result);
-        }
-      }
+    for (int c = 0; c < nonFunctionColumnNum; c++) {
+      outTuple.put(c, inTuple.asDatum(nonFunctionColumns[c]));
+    }
+    for (int idx = 0; idx < functionNum; idx++) {
+      outTuple.put(nonFunctionColumnNum + idx, lastStage.getResult(idx, inTuple));
+    }
+    return outTuple;
+  }
 
-      if (aggFuncFlags[idx]) {
-        for (Tuple outTuple : evaluatedTuples) {
-          Datum result = functions[idx].terminate(contexts[idx]);
-          outTuple.put(nonFunctionColumnNum + idx, result);
-        }
+  private void closeLastStage() throws IOException {
+    if (lastStage != null) {
+      lastStage.close();
+      lastStage = null;
+    }
+  }
+
+  private void clearPartitions() throws IOException {
+    for (WindowPartition eachPartition : new WindowPartition[] {partition, sortedPartition, stagePartitions[0],
+        stagePartitions[1]}) {
+      if (eachPartition != null) {
+        eachPartition.clear();
       }
     }
   }
 
-  private void finalizeWindow() {
-    evaluatedTuples.clear();
-    accumulatedInTuples.clear();
+  private void finalizeWindow() throws IOException {
+    closeLastStage();
+    clearPartitions();
 
     if (noMoreTuples) {
       transition(WindowState.END_OF_TUPLE);
     } else {
-      accumulatedInTuples = nextAccumulatedInTuples;
-
-      contexts = new FunctionContext[functionNum];
-      for(int evalIdx = 0; evalIdx < functionNum; evalIdx++) {
-        contexts[evalIdx] = functions[evalIdx].newContext();
-      }
       transition(WindowState.NEW_WINDOW);
     }
   }
@@ -343,25 +477,431 @@ public class WindowAggExec extends UnaryPhysicalExec {
   public void rescan() throws IOException {
     super.rescan();
 
+    closeLastStage();
+    clearPartitions();
+    nextFirstTuple = null;
     lastKey = null;
     noMoreTuples = false;
+    transition(WindowState.NEW_WINDOW);
   }
 
   @Override
   public void close() throws IOException {
-    if (evaluatedTuples != null) {
-      evaluatedTuples.clear();
-      evaluatedTuples = null;
+    closeLastStage();
+    for (WindowPartition eachPartition : new WindowPartition[] {partition, sortedPartition, stagePartitions[0],
+        stagePartitions[1]}) {
+      if (eachPartition != null) {
+        eachPartition.close();
+      }
     }
-    if (accumulatedInTuples != null) {
-      accumulatedInTuples.clear();
-      accumulatedInTuples = null;
+    partition = null;
+    sortedPartition = null;
+    stagePartitions = new WindowPartition[2];
+
+    super.close();
+  }
+
+  private static Datum getOffset(EvalNode number) {
+    return ((ConstEval) number).getValue();
+  }
+
+  /**
+   * Evaluates the functions of a stage while reading the rows of a partition once in the order of the stage.
+   */
+  class StageEvaluator implements Closeable {
+    private final int from;
+    private final int to;
+    private final FunctionContext [] contexts;
+    private final FrameEvaluator [] frameEvaluators;
+    private final Datum [] results;
+    private WindowPartition.RowReader reader;
+    private long position;
+
+    /**
+     * @param order the row ids of an in-memory partition in the order of the stage. null if the rows are already
+     *              in the order.
+     */
+    StageEvaluator(int stage, WindowPartition source, int [] order) throws IOException {
+      from = stageStarts[stage];
+      to = stageStarts[stage + 1];
+      contexts = new FunctionContext[functionNum];
+      frameEvaluators = new FrameEvaluator[functionNum];
+      results = new Datum[functionNum];
+
+      boolean hasWholeAggFunctions = false;
+      for (int idx = from; idx < to; idx++) {
+        contexts[idx] = functions[idx].newContext();
+        hasWholeAggFunctions |= !windowFuncFlags[idx] && !frameFuncFlags[idx];
+      }
+
+      // Aggregation functions without explicit frames take the whole partition in the order of the stage.
+      if (hasWholeAggFunctions) {
+        try (WindowPartition.RowReader wholeReader = source.openReader(order)) {
+          Tuple tuple;
+          while ((tuple = wholeReader.next()) != null) {
+            for (int idx = from; idx < to; idx++) {
+              if (!windowFuncFlags[idx] && !frameFuncFlags[idx]) {
+                functions[idx].merge(contexts[idx], tuple);
+              }
+            }
+          }
+        }
+      }
+
+      try {
+        for (int idx = from; idx < to; idx++) {
+          if (frameFuncFlags[idx]) {
+            frameEvaluators[idx] = new FrameEvaluator(idx, source, order);
+          }
+        }
+        reader = source.openReader(order);
+      } catch (IOException | RuntimeException e) {
+        close();
+        throw e;
+      }
     }
-    if (nextAccumulatedInTuples != null) {
-      nextAccumulatedInTuples.clear();
-      nextAccumulatedInTuples = null;
+
+    /**
+     * @return the next row whose results are evaluated, or null if there are no more rows
+     */
+    Tuple next() throws IOException {
+      Tuple tuple = reader.next();
+      if (tuple == null) {
+        return null;
+      }
+
+      for (int idx = from; idx < to; idx++) {
+        if (windowFuncFlags[idx]) {
+          functions[idx].merge(contexts[idx], tuple);
+          results[idx] = functions[idx].terminate(contexts[idx]);
+        } else if (frameFuncFlags[idx]) {
+          results[idx] = frameEvaluators[idx].evaluate(position, tuple);
+        } else {
+          // some functions like lead() return a different value whenever terminate() is called.
+          results[idx] = functions[idx].terminate(contexts[idx]);
+        }
+      }
+      position++;
+      return tuple;
     }
 
-    super.close();
+    /**
+     * @return the result of a function for the last row. The results of the previous stages are kept in the row.
+     */
+    Datum getResult(int idx, Tuple tuple) {
+      return idx < from ? tuple.asDatum(inSchema.size() + idx) : results[idx];
+    }
+
+    /**
+     * @return the last row with the results evaluated so far, which is passed to the next stage
+     */
+    Tuple toStageTuple(Tuple tuple) {
+      if (stageTuple == null) {
+        stageTuple = new VTuple(stageSchema.size());
+      }
+      for (int c = 0; c < stageSchema.size(); c++) {
+        if (c < inSchema.size()) {
+          stageTuple.put(c, tuple.asDatum(c));
+        } else {
+          int idx = c - inSchema.size();
+          stageTuple.put(c, idx < to ? getResult(idx, tuple) : NullDatum.get());
+        }
+      }
+      return stageTuple;
+    }
+
+    @Override
+    public void close() throws IOException {
+      for (FrameEvaluator frameEvaluator : frameEvaluators) {
+        if (frameEvaluator != null) {
+          frameEvaluator.close();
+        }
+      }
+      if (reader != null) {
+        reader.close();
+        reader = null;
+      }
+    }
+  }
+
+  /**
+   * Evaluates a function with an explicit frame, while the rows of a stage are read in its order.
+   *
+   * The frame of each row is found by two more readers of the partition. One reads the rows entering the frame ahead
+   * of the current row, and the other reads the rows leaving the frame behind it. The frame slides forward because
+   * its start and end never decrease from row to row. An aggregation supported by {@link WindowFrameAggregator}
+   * keeps only its own state. Otherwise, the function is aggregated over the rows entering the frame if the frame
+   * starts at the first row. If neither is possible, the rows in the frame are kept, and each frame is aggregated
+   * from scratch. In any case, the memory used is bounded by the rows of a frame, not those of the partition.
+   */
+  class FrameEvaluator implements Closeable {
+    private final WindowFunctionEval function;
+    private final TupleComparator comparator;
+    private final WindowFrameAggregator aggregator;
+    private final EvalNode arg;
+    private final WindowFrameUnit unit;
+    private final WindowSpec.WindowStartBound startBound;
+    private final WindowSpec.WindowEndBound endBound;
+
+    // the sort key to which offsets of a RANGE frame are applied
+    private int keyId = -1;
+    private boolean ascending;
+
+    // the next row to enter the frame, and the number of rows entered
+    private WindowPartition.RowReader endReader;
+    private Tuple endTuple;
+    private long endPosition;
+
+    // the first row in the frame, and the number of rows left
+    private WindowPartition.RowReader startReader;
+    private Tuple startTuple;
+    private long startPosition;
+
+    // for functions not supported by WindowFrameAggregator
+    private FunctionContext growingContext;
+    private ArrayDeque<Tuple> frameTuples;
+    private boolean frameChanged = true;
+    private Datum frameResult;
+
+    FrameEvaluator(int idx, WindowPartition source, int [] order) throws IOException {
+      function = functions[idx];
+      comparator = comparators[idx];
+      aggregator = frameAggregators[idx];
+      arg = aggregator != null && aggregator.needValues() ? function.getArgs()[0] : null;
+
+      WindowSpec.WindowFrame frame = function.getWindowFrame();
+      unit = frame.getFrameUnit();
+      startBound = frame.getStartBound();
+      endBound = frame.getEndBound();
+      if (unit == WindowFrameUnit.RANGE && (startBound.getBoundType() == WindowFrameStartBoundType.PRECEDING
+          || endBound.getBoundType() == WindowFrameEndBoundType.FOLLOWING)) {
+        SortSpec sortSpec = function.getSortSpecs()[0];
+        keyId = inSchema.getColumnId(sortSpec.getSortKey().getQualifiedName());
+        ascending = sortSpec.isAscending();
+      }
+
+      boolean growing = startBound.getBoundType() == WindowFrameStartBoundType.UNBOUNDED_PRECEDING;
+      if (aggregator != null) {
+        aggregator.reset();
+      } else if (growing) {
+        growingContext = function.newContext();
+      } else {
+        frameTuples = new ArrayDeque<>();
+      }
+
+      endReader = source.openReader(order);
+      endTuple = endReader.next();
+      if (aggregator != null && !growing) {
+        startReader = source.openReader(order);
+        startTuple = startReader.next();
+      }
+    }
+
+    /**
+     * @param position the position of the current row in the order of the window
+     * @param current the current row
+     * @return the result over the frame of the current row
+     */
+    Datum evaluate(long position, Tuple current) throws IOException {
+      // The frame always includes the current row, so the end is advanced before the start.
+      switch (endBound.getBoundType()) {
+        case UNBOUNDED_FOLLOWING:
+          while (endTuple != null) {
+            addEnd();
+          }
+          break;
+        case CURRENT_ROW:
+          if (unit == WindowFrameUnit.ROW) {
+            addEndUntil(position + 1);
+          } else {
+            addPeers(position, current);
+          }
+          break;
+        default:
+          if (unit == WindowFrameUnit.ROW) {
+            long offset = getOffset(endBound.getNumber()).asInt8();
+            addEndUntil(offset < Long.MAX_VALUE - position ? position + offset + 1 : Long.MAX_VALUE);
+          } else if (current.isBlankOrNull(keyId)) {
+            addPeers(position, current);
+          } else {
+            double to = getKey(current) + getOffset(endBound.getNumber()).asFloat8();
+            while (endTuple != null &&
+                (endPosition <= position || (!endTuple.isBlankOrNull(keyId) && getKey(endTuple) <= to))) {
+              addEnd();
+            }
+          }
+      }
+
+      switch (startBound.getBoundType()) {
+        case UNBOUNDED_PRECEDING:
+          break;
+        case CURRENT_ROW:
+          if (unit == WindowFrameUnit.ROW) {
+            removeStartUntil(position);
+          } else {
+            removeNonPeers(position, current);
+          }
+          break;
+        default:
+          if (unit == WindowFrameUnit.ROW) {
+            removeStartUntil(position - getOffset(startBound.getNumber()).asInt8());
+          } else if (current.isBlankOrNull(keyId)) {
+            removeNonPeers(position, current);
+          } else {
+            double from = getKey(current) - getOffset(startBound.getNumber()).asFloat8();
+            while (startPosition < position &&
+                (getStartTuple().isBlankOrNull(keyId) || getKey(getStartTuple()) < from)) {
+              removeStart();
+            }
+          }
+      }
+
+      return getFrameResult();
+    }
+
+    /**
+     * Keys are negated for a descending order, so that non-null keys are always ascending.
+     * Null keys are placed at one end of the partition.
+     */
+    private double getKey(Tuple tuple) {
+      double key = tuple.asDatum(keyId).asFloat8();
+      return ascending ? key : -key;
+    }
+
+    private boolean isPeer(Tuple tuple, Tuple current) {
+      return comparator == null || comparator.compare(tuple, current) == 0;
+    }
+
+    private void addEnd() throws IOException {
+      if (aggregator != null) {
+        aggregator.add(arg != null ? arg.eval(endTuple) : NullDatum.get());
+      } else if (growingContext != null) {
+        function.merge(growingContext, endTuple);
+      } else {
+        frameTuples.addLast(new VTuple(endTuple));
+        frameChanged = true;
+      }
+      endTuple = endReader.next();
+      endPosition++;
+    }
+
+    private void addEndUntil(long end) throws IOException {
+      while (endTuple != null && endPosition < end) {
+        addEnd();
+      }
+    }
+
+    private void addPeers(long position, Tuple current) throws IOException {
+      while (endTuple != null && (endPosition <= position || isPeer(endTuple, current))) {
+        addEnd();
+      }
+    }
+
+    private Tuple getStartTuple() {
+      return startReader != null ? startTuple : frameTuples.peekFirst();
+    }
+
+    private void removeStart() throws IOException {
+      if (aggregator != null) {
+        aggregator.remove(arg != null ? arg.eval(startTuple) : NullDatum.get());
+        startTuple = startReader.next();
+      } else {
+        frameTuples.pollFirst();
+        frameChanged = true;
+      }
+      startPosition++;
+    }
+
+    private void removeStartUntil(long start) throws IOException {
+      while (startPosition < start) {
+        removeStart();
+      }
+    }
+
+    private void removeNonPeers(long position, Tuple current) throws IOException {
+      while (startPosition < position && !isPeer(getStartTuple(), current)) {
+        removeStart();
+      }
+    }
+
+    private Datum getFrameResult() {
+      if (aggregator != null) {
+        return aggregator.result();
+      } else if (growingContext != null) {
+        return function.terminate(growingContext);
+      }
+
+      if (frameChanged) {
+        FunctionContext frameContext = function.newContext();
+        for (Tuple tuple : frameTuples) {
+          function.merge(frameContext, tuple);
+        }
+        frameResult = function.terminate(frameContext);
+        frameChanged = false;
+      }
+      return frameResult;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (endReader != null) {
+        endReader.close();
+        endReader = null;
+      }
+      if (startReader != null) {
+        startReader.close();
+        startReader = null;
+      }
+      frameTuples = null;
+    }
+  }
+
+  /**
+   * Scans the rows of a spilled window partition
+   */
+  private static class PartitionScanExec extends PhysicalExec {
+    private final WindowPartition partition;
+    private WindowPartition.RowReader reader;
+    private long readNum;
+
+    PartitionScanExec(TaskAttemptContext context, WindowPartition partition) {
+      super(context, partition.getSchema(), partition.getSchema());
+      this.partition = partition;
+    }
+
+    @Override
+    public void init() throws IOException {
+      super.init();
+      reader = partition.openReader(null);
+    }
+
+    @Override
+    public Tuple next() throws IOException {
+      Tuple tuple = reader.next();
+      if (tuple != null) {
+        readNum++;
+      }
+      return tuple;
+    }
+
+    @Override
+    public void rescan() throws IOException {
+      reader.close();
+      reader = partition.openReader(null);
+      readNum = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (reader != null) {
+        reader.close();
+        reader = null;
+      }
+    }
+
+    @Override
+    public float getProgress() {
+      return partition.getRowNum() == 0 ? 1.0f : (float) readNum / partition.getRowNum();
+    }
   }
 }
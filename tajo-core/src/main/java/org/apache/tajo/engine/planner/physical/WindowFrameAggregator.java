@@ -0,0 +1,305 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.algebra.WindowSpec.WindowFrameStartBoundType;
+import org.apache.tajo.catalog.proto.CatalogProtos.FunctionType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.plan.expr.WindowFunctionEval;
+
+import java.util.ArrayDeque;
+
+/**
+ * WindowFrameAggregator computes an aggregation function over the window frames of a partition incrementally.
+ *
+ * The rows of a partition enter a frame by {@link #add(Datum)} and leave it by {@link #remove(Datum)} in the order of
+ * the window, as the frame slides from row to row, which holds for ROWS and RANGE frames. SUM, COUNT and AVG keep only
+ * their running sums, so that each row takes O(1) time and memory. MIN and MAX keep a running value if the frame
+ * starts at the first row of the partition. Otherwise, they keep the candidate values of the frame in a monotonic
+ * deque, which takes amortized O(1) time, and whose size is bounded by the number of rows in a frame.
+ */
+public abstract class WindowFrameAggregator {
+
+  /**
+   * @return an aggregator for a given function, or null if the function cannot be computed incrementally
+   */
+  public static WindowFrameAggregator create(WindowFunctionEval function) {
+    if (function.getFuncDesc().getFuncType() != FunctionType.AGGREGATION) {
+      return null;
+    }
+
+    String name = function.getFuncDesc().getFunctionName().toLowerCase();
+    Type returnType = function.getValueType().getType();
+    boolean noArgs = function.getArgs() == null || function.getArgs().length == 0;
+
+    if (name.equals("count")) {
+      return noArgs ? new CountRows() : new SlidingAggregator(SlidingAggregator.COUNT, false);
+    }
+
+    if (noArgs || function.getArgs().length > 1) {
+      return null;
+    }
+
+    Type paramType = function.getArgs()[0].getValueType().getType();
+    switch (name) {
+    case "sum":
+      if (returnType == Type.INT8 && isInteger(paramType)) {
+        return new SlidingAggregator(SlidingAggregator.SUM, false);
+      } else if (returnType == Type.FLOAT8 && isFloat(paramType)) {
+        return new SlidingAggregator(SlidingAggregator.SUM, true);
+      }
+      return null;
+    case "avg":
+      if (returnType == Type.FLOAT8 && (isInteger(paramType) || isFloat(paramType))) {
+        return new SlidingAggregator(SlidingAggregator.AVG, isFloat(paramType));
+      }
+      return null;
+    case "min":
+    case "max":
+      // values are returned without any casting
+      if (returnType == paramType) {
+        boolean growing =
+            function.getWindowFrame().getStartBound().getBoundType() == WindowFrameStartBoundType.UNBOUNDED_PRECEDING;
+        return new MinMaxAggregator(name.equals("max"), !growing);
+      }
+      return null;
+    default:
+      return null;
+    }
+  }
+
+  private static boolean isInteger(Type type) {
+    return type == Type.INT1 || type == Type.INT2 || type == Type.INT4 || type == Type.INT8;
+  }
+
+  private static boolean isFloat(Type type) {
+    return type == Type.FLOAT4 || type == Type.FLOAT8;
+  }
+
+  /**
+   * @return True if the aggregator takes the argument values of rows. Otherwise, null values are given.
+   */
+  public boolean needValues() {
+    return true;
+  }
+
+  /**
+   * Prepare the aggregation of a new partition.
+   */
+  public abstract void reset();
+
+  /**
+   * @param value the argument value of a row entering the frame
+   */
+  public abstract void add(Datum value);
+
+  /**
+   * @param value the argument value of a row leaving the frame. Rows leave the frame in the order they entered it.
+   */
+  public abstract void remove(Datum value);
+
+  /**
+   * @return the result over the rows in the frame
+   */
+  public abstract Datum result();
+
+  /**
+   * count(*) is the size of a frame.
+   */
+  static class CountRows extends WindowFrameAggregator {
+    private long count;
+
+    @Override
+    public boolean needValues() {
+      return false;
+    }
+
+    @Override
+    public void reset() {
+      count = 0;
+    }
+
+    @Override
+    public void add(Datum value) {
+      count++;
+    }
+
+    @Override
+    public void remove(Datum value) {
+      count--;
+    }
+
+    @Override
+    public Datum result() {
+      return DatumFactory.createInt8(count);
+    }
+  }
+
+  /**
+   * SUM, COUNT and AVG over a sliding frame
+   */
+  static class SlidingAggregator extends WindowFrameAggregator {
+    static final int SUM = 0;
+    static final int COUNT = 1;
+    static final int AVG = 2;
+
+    private final int kind;
+    private final boolean floatValues;
+
+    private long count;
+    private long longSum;
+    private double doubleSum;
+
+    SlidingAggregator(int kind, boolean floatValues) {
+      this.kind = kind;
+      this.floatValues = floatValues;
+    }
+
+    @Override
+    public void reset() {
+      count = 0;
+      longSum = 0;
+      doubleSum = 0;
+    }
+
+    @Override
+    public void add(Datum value) {
+      if (value.isNull()) {
+        return;
+      }
+      count++;
+      if (floatValues) {
+        doubleSum += value.asFloat8();
+      } else if (kind != COUNT) {
+        longSum += value.asInt8();
+      }
+    }
+
+    @Override
+    public void remove(Datum value) {
+      if (value.isNull()) {
+        return;
+      }
+      count--;
+      if (floatValues) {
+        // an empty frame drops rounding errors of the subtractions
+        doubleSum = count == 0 ? 0 : doubleSum - value.asFloat8();
+      } else if (kind != COUNT) {
+        longSum -= value.asInt8();
+      }
+    }
+
+    @Override
+    public Datum result() {
+      if (kind == COUNT) {
+        return DatumFactory.createInt8(count);
+      } else if (count == 0) {
+        return NullDatum.get();
+      } else if (kind == SUM) {
+        return floatValues ? DatumFactory.createFloat8(doubleSum) : DatumFactory.createInt8(longSum);
+      } else {
+        return DatumFactory.createFloat8(floatValues ? doubleSum / count : (double) longSum / count);
+      }
+    }
+  }
+
+  /**
+   * MIN and MAX. Null values are ignored.
+   *
+   * If values are never removed, only the running result is kept. Otherwise, the deque keeps the values of the frame
+   * which can still be the result, that is, the values which are not preceded by a better or equal value. Their
+   * sequence numbers tell whether a removed row is the head of the deque.
+   */
+  static class MinMaxAggregator extends WindowFrameAggregator {
+    private final boolean max;
+    private final boolean removable;
+
+    private final ArrayDeque<Candidate> candidates = new ArrayDeque<>();
+    private long addedNum;
+    private long removedNum;
+    private Datum running = NullDatum.get();
+
+    MinMaxAggregator(boolean max, boolean removable) {
+      this.max = max;
+      this.removable = removable;
+    }
+
+    private boolean isBetterOrEqual(Datum d1, Datum d2) {
+      int cmp = d1.compareTo(d2);
+      return max ? cmp >= 0 : cmp <= 0;
+    }
+
+    @Override
+    public void reset() {
+      candidates.clear();
+      addedNum = 0;
+      removedNum = 0;
+      running = NullDatum.get();
+    }
+
+    @Override
+    public void add(Datum value) {
+      long seq = addedNum++;
+      if (value.isNull()) {
+        return;
+      }
+
+      if (!removable) {
+        if (running.isNull() || !isBetterOrEqual(running, value)) {
+          running = value;
+        }
+        return;
+      }
+
+      while (!candidates.isEmpty() && isBetterOrEqual(value, candidates.peekLast().value)) {
+        candidates.pollLast();
+      }
+      candidates.addLast(new Candidate(value, seq));
+    }
+
+    @Override
+    public void remove(Datum value) {
+      long seq = removedNum++;
+      if (!candidates.isEmpty() && candidates.peekFirst().seq == seq) {
+        candidates.pollFirst();
+      }
+    }
+
+    @Override
+    public Datum result() {
+      if (!removable) {
+        return running;
+      }
+      return candidates.isEmpty() ? NullDatum.get() : candidates.peekFirst().value;
+    }
+
+    private static class Candidate {
+      final Datum value;
+      final long seq;
+
+      Candidate(Datum value, long seq) {
+        this.value = value;
+        this.seq = seq;
+      }
+    }
+  }
+}
@@ -0,0 +1,250 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import com.google.common.base.Preconditions;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.LocalDirAllocator;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.apache.tajo.BuiltinStorages;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SchemaUtil;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.storage.Scanner;
+import org.apache.tajo.storage.TablespaceManager;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.storage.rawfile.DirectRawFileWriter;
+import org.apache.tajo.tuple.memory.UnSafeTupleList;
+import org.apache.tajo.util.FileUtil;
+import org.apache.tajo.worker.TaskAttemptContext;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * WindowPartition buffers the rows of a window partition for {@link WindowAggExec}.
+ *
+ * Rows are copied into off-heap memory blocks. If the used memory exceeds the given limit, all rows of the partition
+ * are written into a local temporal file, and the following rows are appended to the file.
+ * Rows of an in-memory partition can be accessed randomly, but rows of a spilled partition can be read only
+ * sequentially. Rows are read by {@link RowReader}s, and several readers can read a partition at the same time.
+ */
+public class WindowPartition implements Closeable {
+  private static final Log LOG = LogFactory.getLog(WindowPartition.class);
+
+  private static final TableMeta INTERMEDIATE_META = CatalogUtil.newTableMeta(BuiltinStorages.DRAW);
+  private static final int INITIAL_LIST_SIZE = 1000;
+
+  private final TaskAttemptContext context;
+  private final Schema schema;
+  private final long memoryLimit;
+  private final Path tmpDir;
+
+  private UnSafeTupleList memoryTuples;
+  private long rowNum;
+
+  // for spilled rows
+  private LocalDirAllocator localDirAllocator;
+  private RawLocalFileSystem localFS;
+  private int spillSeq;
+  private Path spillPath;
+  private DirectRawFileWriter spillWriter;
+  private long spillLength;
+
+  /**
+   * @param context task context
+   * @param schema the schema of rows
+   * @param memoryLimit the maximum bytes of rows kept in memory
+   * @param tmpDir the relative path of temporal files under local temporal dirs
+   */
+  public WindowPartition(TaskAttemptContext context, Schema schema, long memoryLimit, Path tmpDir) {
+    this.context = context;
+    this.schema = schema;
+    this.memoryLimit = memoryLimit;
+    this.tmpDir = tmpDir;
+    this.memoryTuples = new UnSafeTupleList(SchemaUtil.toDataTypes(schema), INITIAL_LIST_SIZE);
+  }
+
+  public Schema getSchema() {
+    return schema;
+  }
+
+  /**
+   * Copy a row into this partition.
+   */
+  public void add(Tuple tuple) throws IOException {
+    if (spillWriter != null) {
+      spillWriter.addTuple(tuple);
+    } else {
+      memoryTuples.addTuple(tuple);
+      if (memoryTuples.usedMem() > memoryLimit) {
+        spill();
+      }
+    }
+    rowNum++;
+  }
+
+  private void spill() throws IOException {
+    if (localFS == null) {
+      localDirAllocator = new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
+      localFS = new RawLocalFileSystem();
+    }
+    spillPath = localFS.makeQualified(localDirAllocator.getLocalPathForWrite(
+        tmpDir + "/window_" + spillSeq++, context.getConf()));
+    spillWriter = new DirectRawFileWriter(context.getConf(), null, schema, INTERMEDIATE_META, spillPath);
+    spillWriter.init();
+
+    for (Tuple tuple : memoryTuples) {
+      spillWriter.addTuple(tuple);
+    }
+    memoryTuples.reset();
+  }
+
+  public long getRowNum() {
+    return rowNum;
+  }
+
+  public boolean isSpilled() {
+    return spillPath != null;
+  }
+
+  /**
+   * @return a row of an in-memory partition. The row is valid until this partition is cleared.
+   */
+  public Tuple get(int index) {
+    Preconditions.checkState(!isSpilled(), "A spilled partition cannot be accessed randomly");
+    return memoryTuples.get(index);
+  }
+
+  private void finishSpill() throws IOException {
+    if (spillWriter != null) {
+      spillWriter.close();
+      spillWriter = null;
+      spillLength = new File(spillPath.toUri()).length();
+      LOG.info("Window partition of " + rowNum + " rows spilled "
+          + FileUtil.humanReadableByteCount(spillLength, false) + " (" + context.getTaskId() + ")");
+    }
+  }
+
+  /**
+   * @param order the row ids of an in-memory partition in the order to be read. If it is null, rows are read in the
+   *              order in which they were added.
+   * @return a reader of the rows. No more rows can be added to a spilled partition once it is read.
+   */
+  public RowReader openReader(@Nullable int [] order) throws IOException {
+    if (isSpilled()) {
+      Preconditions.checkArgument(order == null, "A spilled partition can be read only in the order of rows");
+      finishSpill();
+      FileFragment fragment = new FileFragment(spillPath.getName(), spillPath, 0, spillLength);
+      Scanner scanner = TablespaceManager.getLocalFs().getScanner(INTERMEDIATE_META, schema, fragment, schema);
+      scanner.init();
+      return new SpillReader(scanner);
+    }
+    return new MemoryReader(order);
+  }
+
+  private void deleteSpill() throws IOException {
+    if (spillWriter != null) {
+      spillWriter.close();
+      spillWriter = null;
+    }
+    if (spillPath != null) {
+      localFS.delete(spillPath, false);
+      spillPath = null;
+    }
+  }
+
+  /**
+   * Remove all rows so that this partition can be reused for the next partition.
+   */
+  public void clear() throws IOException {
+    memoryTuples.reset();
+    deleteSpill();
+    rowNum = 0;
+  }
+
+  @Override
+  public void close() throws IOException {
+    deleteSpill();
+    if (memoryTuples != null) {
+      memoryTuples.release();
+      memoryTuples = null;
+    }
+  }
+
+  /**
+   * Reads the rows of a partition sequentially. A returned row is valid until the next row is read.
+   */
+  public interface RowReader extends Closeable {
+    /**
+     * @return the next row, or null if there are no more rows
+     */
+    Tuple next() throws IOException;
+  }
+
+  private class MemoryReader implements RowReader {
+    private final int [] order;
+    private final int readNum;
+    private int readIdx;
+
+    MemoryReader(int [] order) {
+      this.order = order;
+      this.readNum = (int) rowNum;
+    }
+
+    @Override
+    public Tuple next() {
+      if (readIdx == readNum) {
+        return null;
+      }
+      int rowId = order == null ? readIdx : order[readIdx];
+      readIdx++;
+      return memoryTuples.get(rowId);
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  private static class SpillReader implements RowReader {
+    private final Scanner scanner;
+
+    SpillReader(Scanner scanner) {
+      this.scanner = scanner;
+    }
+
+    @Override
+    public Tuple next() throws IOException {
+      return scanner.next();
+    }
+
+    @Override
+    public void close() throws IOException {
+      scanner.close();
+    }
+  }
+}
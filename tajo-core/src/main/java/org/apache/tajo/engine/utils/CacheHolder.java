@@ -20,10 +20,8 @@ package org.apache.tajo.engine.utils;
 
 import org.apache.tajo.QueryId;
 import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.engine.planner.physical.JoinHashTable;
 import org.apache.tajo.engine.planner.physical.ScanExec;
-import org.apache.tajo.engine.planner.physical.TupleList;
-import org.apache.tajo.engine.planner.physical.TupleMap;
-import org.apache.tajo.util.Deallocatable;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
@@ -50,19 +48,17 @@ public interface CacheHolder<T> {
    * This is a cache-holder for a join table
    * It will release when execution block is finished
    */
-  class BroadcastCacheHolder implements CacheHolder<TupleMap<TupleList>> {
-    private TupleMap<TupleList> data;
-    private Deallocatable rowBlock;
+  class BroadcastCacheHolder implements CacheHolder<JoinHashTable> {
+    private JoinHashTable data;
     private TableStats tableStats;
 
-    public BroadcastCacheHolder(TupleMap<TupleList> data, TableStats tableStats, Deallocatable rowBlock){
+    public BroadcastCacheHolder(JoinHashTable data, TableStats tableStats){
       this.data = data;
       this.tableStats = tableStats;
-      this.rowBlock = rowBlock;
     }
 
     @Override
-    public TupleMap<TupleList> getData() {
+    public JoinHashTable getData() {
       return data;
     }
 
@@ -73,7 +69,7 @@ public interface CacheHolder<T> {
 
     @Override
     public void release() {
-      if(rowBlock != null) rowBlock.release();
+      if(data != null) data.release();
     }
 
     public static TableCacheKey getCacheKey(TaskAttemptContext ctx, ScanExec scanExec) throws IOException {
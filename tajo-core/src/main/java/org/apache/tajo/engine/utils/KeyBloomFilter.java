@@ -0,0 +1,153 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.engine.utils;
+
+import com.google.common.base.Preconditions;
+import org.apache.tajo.storage.Tuple;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * KeyBloomFilter is a bloom filter over the join keys of tuples. It answers whether a key may exist in a set of
+ * keys with false positives, but without false negatives. Keys are hashed with the hash codes of their datums,
+ * so that the keys of both join sides must have the same data types.
+ *
+ * Filters of the same size can be merged, so that a filter built by multiple tasks is the union of their filters.
+ * A key having a null value is never added, and it never matches because a null key cannot satisfy an equi-join.
+ */
+public class KeyBloomFilter {
+  private static final int NUM_HASH_FUNCTIONS = 3;
+
+  private final long[] bits;
+  private final long numBits;
+
+  /**
+   * @param numBits The number of bits. It is rounded up to a multiple of 64.
+   */
+  public KeyBloomFilter(int numBits) {
+    Preconditions.checkArgument(numBits > 0, "the number of bits must be positive: " + numBits);
+    this.bits = new long[(numBits + Long.SIZE - 1) / Long.SIZE];
+    this.numBits = (long) bits.length * Long.SIZE;
+  }
+
+  public KeyBloomFilter(byte[] bytes) {
+    Preconditions.checkArgument(bytes.length > 0 && bytes.length % (Long.SIZE / Byte.SIZE) == 0,
+        "invalid bloom filter length: " + bytes.length);
+    LongBuffer buffer = ByteBuffer.wrap(bytes).asLongBuffer();
+    this.bits = new long[buffer.remaining()];
+    buffer.get(bits);
+    this.numBits = (long) bits.length * Long.SIZE;
+  }
+
+  public long getNumBits() {
+    return numBits;
+  }
+
+  public void add(Tuple tuple, int[] keyIds) {
+    if (hasNullKey(tuple, keyIds)) {
+      return;
+    }
+
+    long hash = hash(tuple, keyIds);
+    int hash1 = (int) hash;
+    int hash2 = (int) (hash >>> 32);
+    for (int i = 1; i <= NUM_HASH_FUNCTIONS; i++) {
+      long index = index(hash1 + i * hash2);
+      bits[(int) (index >>> 6)] |= 1L << index;
+    }
+  }
+
+  /**
+   * @return False if the key of a tuple is definitely not in this filter.
+   */
+  public boolean mightContain(Tuple tuple, int[] keyIds) {
+    if (hasNullKey(tuple, keyIds)) {
+      return false;
+    }
+
+    long hash = hash(tuple, keyIds);
+    int hash1 = (int) hash;
+    int hash2 = (int) (hash >>> 32);
+    for (int i = 1; i <= NUM_HASH_FUNCTIONS; i++) {
+      long index = index(hash1 + i * hash2);
+      if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Add all keys of another filter to this filter.
+   */
+  public void merge(KeyBloomFilter other) {
+    Preconditions.checkArgument(numBits == other.numBits,
+        "cannot merge bloom filters of different sizes: " + numBits + ", " + other.numBits);
+    for (int i = 0; i < bits.length; i++) {
+      bits[i] |= other.bits[i];
+    }
+  }
+
+  /**
+   * @return the ratio of set bits. The false positive probability grows with it.
+   */
+  public double getFillRatio() {
+    long count = 0;
+    for (long word : bits) {
+      count += Long.bitCount(word);
+    }
+    return (double) count / numBits;
+  }
+
+  public byte[] toBytes() {
+    ByteBuffer buffer = ByteBuffer.allocate(bits.length * (Long.SIZE / Byte.SIZE));
+    buffer.asLongBuffer().put(bits);
+    return buffer.array();
+  }
+
+  private long index(int combinedHash) {
+    return (combinedHash & Integer.MAX_VALUE) % numBits;
+  }
+
+  private static boolean hasNullKey(Tuple tuple, int[] keyIds) {
+    for (int keyId : keyIds) {
+      if (tuple.isBlankOrNull(keyId)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static long hash(Tuple tuple, int[] keyIds) {
+    long hash = 1;
+    for (int keyId : keyIds) {
+      hash = 31 * hash + tuple.asDatum(keyId).hashCode();
+    }
+
+    // the finalizer of MurmurHash3 spreads the hash codes of adjacent keys over all bits
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb34fe5ba3b53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
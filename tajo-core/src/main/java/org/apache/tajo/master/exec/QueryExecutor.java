@@ -615,6 +615,7 @@ public class QueryExecutor {
       Tablespace space = TablespaceManager.get(tableDesc.getUri());
       space.rewritePlan(context, plan);
     }
+    TablespaceManager.pushDownOperators(context, plan);
 
     MasterPlan masterPlan = new MasterPlan(QueryIdFactory.NULL_QUERY_ID, context, plan);
     planner.build(context, masterPlan);
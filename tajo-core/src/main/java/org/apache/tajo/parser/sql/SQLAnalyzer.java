@@ -1370,6 +1370,20 @@ public class SQLAnalyzer extends SQLParserBaseVisitor<Expr> {
     return new TruncateTable(tableNames);
   }
 
+  @Override
+  public Expr visitAnalyze_table_statement(Analyze_table_statementContext ctx) {
+    String tableName = buildIdentifierChain(ctx.table_name().identifier());
+
+    // all columns of the table are scanned
+    Projection projection = new Projection();
+    projection.setNamedExprs(Lists.newArrayList(new NamedExpr(new QualifiedAsteriskExpr())));
+    projection.setChild(new Relation(tableName));
+
+    AnalyzeTable analyzeTable = new AnalyzeTable(tableName);
+    analyzeTable.setChild(projection);
+    return analyzeTable;
+  }
+
   private ColumnDefinition[] getDefinitions(Table_elementsContext ctx) {
     int size = ctx.field_element().size();
     ColumnDefinition[] elements = new ColumnDefinition[size];
@@ -602,6 +602,7 @@ public class Query implements EventHandler<QueryEvent> {
         hookList.add(new CreateTableHook());
         hookList.add(new InsertTableHook());
         hookList.add(new CreateIndexHook());
+        hookList.add(new AnalyzeTableHook());
       }
 
       public void execute(QueryContext queryContext, Query query,
@@ -653,6 +654,50 @@ public class Query implements EventHandler<QueryEvent> {
       }
     }
 
+    /**
+     * It stores the column stats collected by ANALYZE TABLE into the catalog.
+     * They are aggregated from the stats of all tasks when the last stage completes.
+     */
+    private static class AnalyzeTableHook implements QueryHook {
+
+      @Override
+      public boolean isEligible(QueryContext queryContext, Query query, ExecutionBlockId finalExecBlockId,
+                                Path finalOutputDir) {
+        Stage lastStage = query.getStage(finalExecBlockId);
+        return lastStage.getBlock().getPlan().getType() == NodeType.ANALYZE_TABLE;
+      }
+
+      @Override
+      public void execute(QueryMaster.QueryMasterContext context, QueryContext queryContext,
+                          Query query, ExecutionBlockId finalExecBlockId, Path finalOutputDir) throws Exception {
+        CatalogService catalog = context.getWorkerContext().getCatalog();
+        Stage lastStage = query.getStage(finalExecBlockId);
+        AnalyzeTableNode analyzeNode = (AnalyzeTableNode) lastStage.getBlock().getPlan();
+        TableStats analyzed = lastStage.getResultStats();
+
+        TableDesc tableDesc = catalog.getTableDesc(analyzeNode.getTableName());
+        TableStats stats = tableDesc.hasStats() ? tableDesc.getStats() : new TableStats();
+        stats.setNumRows(analyzed.getNumRows());
+        stats.setColumnStats(analyzed.getColumnStats());
+
+        UpdateTableStatsProto.Builder builder = UpdateTableStatsProto.newBuilder();
+        builder.setTableName(tableDesc.getName());
+        builder.setStats(stats.getProto());
+        builder.setUpdateColumnStats(true);
+        catalog.updateTableStats(builder.build());
+        LOG.info("Column stats of " + tableDesc.getName() + " are updated (" + analyzed.getNumRows() + " rows).");
+
+        // ANALYZE TABLE writes no rows. An empty result is returned to the client.
+        FileSystem fs = finalOutputDir.getFileSystem(query.systemConf);
+        fs.mkdirs(finalOutputDir);
+        TableDesc resultTableDesc = new TableDesc(query.getId().toString(), lastStage.getOutSchema(),
+            lastStage.getTableMeta(), finalOutputDir.toUri());
+        resultTableDesc.setExternal(true);
+        resultTableDesc.setStats(new TableStats());
+        query.setResultDesc(resultTableDesc);
+      }
+    }
+
     private static class MaterializedResultHook implements QueryHook {
 
       @Override
@@ -660,7 +705,7 @@ public class Query implements EventHandler<QueryEvent> {
                                 Path finalOutputDir) {
         Stage lastStage = query.getStage(finalExecBlockId);
         NodeType type = lastStage.getBlock().getPlan().getType();
-        return type != NodeType.CREATE_TABLE && type != NodeType.INSERT;
+        return type != NodeType.CREATE_TABLE && type != NodeType.INSERT && type != NodeType.ANALYZE_TABLE;
       }
 
       @Override
@@ -202,7 +202,9 @@ public class QueryMasterManagerService extends CompositeService
           .setQueryContext(stage.getContext().getQueryContext().getProto())
           .setQueryOutputPath(stage.getContext().getStagingDir().toString())
           .setPlanJson(CoreGsonHelper.toJson(stage.getBlock().getPlan(), LogicalNode.class))
-          .setShuffleType(shuffleType);
+          .setShuffleType(shuffleType)
+          .addAllShufflePushTargets(stage.getShufflePushTargets())
+          .addAllRuntimeFilters(stage.getRuntimeFilters());
 
       //Set assigned worker to stage
       if (!stage.getAssignedWorkerMap().containsKey(request.getWorker().getId())) {
@@ -329,6 +329,7 @@ public class QueryMasterTask extends CompositeService {
       // when a given uri is null, TablespaceManager.get will return the default tablespace.
       space = TablespaceManager.get(queryContext.get(QueryVars.OUTPUT_TABLE_URI, ""));
       space.rewritePlan(queryContext, plan);
+      TablespaceManager.pushDownOperators(queryContext, plan);
 
       initStagingDir();
 
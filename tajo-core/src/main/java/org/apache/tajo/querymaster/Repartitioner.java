@@ -30,9 +30,12 @@ import org.apache.tajo.SessionVars;
 import org.apache.tajo.algebra.JoinType;
 import org.apache.tajo.annotation.NotNull;
 import org.apache.tajo.catalog.*;
+import org.apache.tajo.catalog.statistics.ColumnStats;
+import org.apache.tajo.catalog.statistics.Histogram;
 import org.apache.tajo.catalog.statistics.StatisticsUtil;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.engine.planner.HistogramRangePartition;
 import org.apache.tajo.engine.planner.PhysicalPlannerImpl;
 import org.apache.tajo.engine.planner.RangePartitionAlgorithm;
 import org.apache.tajo.engine.planner.UniformRangePartition;
@@ -41,6 +44,7 @@ import org.apache.tajo.engine.planner.global.DataChannel;
 import org.apache.tajo.engine.planner.global.ExecutionBlock;
 import org.apache.tajo.engine.planner.global.MasterPlan;
 import org.apache.tajo.engine.planner.global.rewriter.rules.GlobalPlanRewriteUtil;
+import org.apache.tajo.engine.query.QueryContext;
 import org.apache.tajo.engine.utils.TupleUtil;
 import org.apache.tajo.exception.TajoException;
 import org.apache.tajo.exception.TajoInternalError;
@@ -410,16 +414,187 @@ public class Repartitioner {
     }
     Stage.scheduleFragment(stage, fragments[0], rightFragments);
 
-    // Assign partitions to tasks in a round robin manner.
-    for (Entry<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> entry
-        : hashEntries.entrySet()) {
-      addJoinShuffle(stage, entry.getKey(), entry.getValue());
+    // The actual volumes of all inputs are known from here.
+    QueryContext queryContext = stage.getMasterPlan().getContext();
+    boolean adaptive = queryContext.getBool(SessionVars.ADAPTIVE_EXECUTION_ENABLED);
+    if (adaptive && scheduleBroadcastJoinIfPossible(schedulerContext, stage, hashEntries)) {
+      return;
+    }
+
+    Map<Integer, ExecutionBlockId> skewedPartitions = findSkewedJoinPartitions(stage, hashEntries);
+
+    // Small partitions are coalesced into a task of about the join task volume, except in tests requiring
+    // a minimum number of tasks.
+    long coalesceVolume = 0;
+    if (adaptive && !queryContext.containsKey(SessionVars.TEST_MIN_TASK_NUM)) {
+      coalesceVolume = (long) StorageUnit.MB * desireJoinTaskVolumn;
+    }
+
+    int scheduledTaskNum = 0;
+    SortedMap<Integer, Long> volumes = new TreeMap<>();
+    for (Entry<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> entry : hashEntries.entrySet()) {
+      ExecutionBlockId skewedEbId = skewedPartitions.get(entry.getKey());
+      if (skewedEbId != null) {
+        int splitNum = addSkewedJoinShuffle(stage, entry.getKey(), entry.getValue(), skewedEbId);
+        scheduledTaskNum += splitNum;
+        joinTaskNum += splitNum - 1;
+      } else {
+        volumes.put(entry.getKey(), getVolume(entry.getValue()));
+      }
+    }
+
+    for (List<Integer> eachGroup : coalescePartitions(volumes, coalesceVolume)) {
+      Map<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> partitions = new TreeMap<>();
+      for (Integer eachPartId : eachGroup) {
+        partitions.put(eachPartId, hashEntries.get(eachPartId));
+      }
+      scheduledTaskNum += addJoinShuffle(stage, partitions);
     }
 
+    if (coalesceVolume > 0) {
+      LOG.info(stage.getId() + ", " + hashEntries.size() + " partitions are scheduled as " + scheduledTaskNum
+          + " tasks.");
+      joinTaskNum = Math.max(1, scheduledTaskNum);
+    }
     schedulerContext.setTaskSize((int) Math.ceil((double) bothFetchSize / joinTaskNum));
     schedulerContext.setEstimatedTaskNum(joinTaskNum);
   }
 
+  /**
+   * Group adjacent partitions so that the total volume of each group does not exceed the task volume.
+   * A partition larger than the task volume forms a group by itself.
+   *
+   * @param volumes key: partition id, value: volume
+   * @param taskVolume If it is zero, partitions are not coalesced.
+   * @return the partition ids of each group
+   */
+  @VisibleForTesting
+  public static List<List<Integer>> coalescePartitions(SortedMap<Integer, Long> volumes, long taskVolume) {
+    List<List<Integer>> groups = new ArrayList<>();
+    List<Integer> current = new ArrayList<>();
+    long currentVolume = 0;
+    for (Entry<Integer, Long> entry : volumes.entrySet()) {
+      if (!current.isEmpty() && (taskVolume == 0 || currentVolume + entry.getValue() > taskVolume)) {
+        groups.add(current);
+        current = new ArrayList<>();
+        currentVolume = 0;
+      }
+      current.add(entry.getKey());
+      currentVolume += entry.getValue();
+    }
+    if (!current.isEmpty()) {
+      groups.add(current);
+    }
+    return groups;
+  }
+
+  private static long getVolume(Map<ExecutionBlockId, List<IntermediateEntry>> grouppedPartitions) {
+    long volume = 0;
+    for (List<IntermediateEntry> entries : grouppedPartitions.values()) {
+      for (IntermediateEntry eachEntry : entries) {
+        volume += eachEntry.getVolume();
+      }
+    }
+    return volume;
+  }
+
+  /**
+   * The join strategy is decided from the estimated volumes before the child blocks are executed. If an input of
+   * a repartition join turns out to be small enough to be broadcast, the other input is split by pages regardless
+   * of its hash partitions, and each task fetches the whole small input. The number of tasks then follows the actual
+   * volume instead of the number of partitions.
+   *
+   * @return True if the join is scheduled as a broadcast join
+   */
+  private static boolean scheduleBroadcastJoinIfPossible(TaskSchedulerContext schedulerContext, Stage stage,
+      Map<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> hashEntries) {
+    QueryContext queryContext = stage.getMasterPlan().getContext();
+    if (!queryContext.getBool(SessionVars.TEST_BROADCAST_JOIN_ENABLED)) {
+      return false;
+    }
+
+    Map<ExecutionBlockId, List<IntermediateEntry>> inputs = new HashMap<>();
+    for (Map<ExecutionBlockId, List<IntermediateEntry>> eachPartition : hashEntries.values()) {
+      for (Entry<ExecutionBlockId, List<IntermediateEntry>> eachInput : eachPartition.entrySet()) {
+        if (!inputs.containsKey(eachInput.getKey())) {
+          inputs.put(eachInput.getKey(), new ArrayList<>());
+        }
+        inputs.get(eachInput.getKey()).addAll(eachInput.getValue());
+      }
+    }
+    if (inputs.size() != 2) {
+      return false;
+    }
+
+    JoinNode joinNode = PlannerUtil.findTopNode(stage.getBlock().getPlan(), NodeType.JOIN);
+    long threshold = StorageUnit.KB * (joinNode != null && joinNode.getJoinType() == JoinType.CROSS ?
+        queryContext.getLong(SessionVars.BROADCAST_CROSS_JOIN_THRESHOLD) :
+        queryContext.getLong(SessionVars.BROADCAST_NON_CROSS_JOIN_THRESHOLD));
+
+    // An input can be split only if the other input can be broadcast.
+    ExecutionBlockId largeEbId = null;
+    ExecutionBlockId smallEbId = null;
+    long largeVolume = -1;
+    long smallVolume = -1;
+    for (ExecutionBlockId eachEbId : getSplittableJoinInputs(stage.getMasterPlan(), stage.getBlock())) {
+      ExecutionBlockId otherEbId = null;
+      for (ExecutionBlockId eachInput : inputs.keySet()) {
+        if (!eachInput.equals(eachEbId)) {
+          otherEbId = eachInput;
+        }
+      }
+      if (otherEbId == null || !inputs.containsKey(eachEbId)) {
+        continue;
+      }
+      long volume = inputs.get(eachEbId).stream().mapToLong(IntermediateEntry::getVolume).sum();
+      long otherVolume = inputs.get(otherEbId).stream().mapToLong(IntermediateEntry::getVolume).sum();
+      if (otherVolume <= threshold && volume > largeVolume) {
+        largeEbId = eachEbId;
+        smallEbId = otherEbId;
+        largeVolume = volume;
+        smallVolume = otherVolume;
+      }
+    }
+    if (largeEbId == null) {
+      return false;
+    }
+
+    long taskVolume = (long) StorageUnit.MB * queryContext.getInt(SessionVars.JOIN_TASK_INPUT_SIZE);
+    List<List<FetchProto>> splits = splitIntermediatesByPages(stage, largeEbId, inputs.get(largeEbId), taskVolume);
+    if (splits == null || splits.isEmpty()) {
+      return false;
+    }
+
+    String smallName = smallEbId.toString();
+    Map<Integer, List<IntermediateEntry>> smallPartitions = new TreeMap<>();
+    for (IntermediateEntry eachEntry : inputs.get(smallEbId)) {
+      if (!smallPartitions.containsKey(eachEntry.getPartId())) {
+        smallPartitions.put(eachEntry.getPartId(), new ArrayList<>());
+      }
+      smallPartitions.get(eachEntry.getPartId()).add(eachEntry);
+    }
+    List<FetchProto> smallFetches = new ArrayList<>();
+    for (Entry<Integer, List<IntermediateEntry>> eachPartition : smallPartitions.entrySet()) {
+      smallFetches.addAll(mergeShuffleRequest(smallName, eachPartition.getKey(), HASH_SHUFFLE,
+          eachPartition.getValue()));
+    }
+
+    LOG.info(String.format("[Distributed Join Strategy] : Broadcast Join at runtime, base=%s, base_volume=%d, "
+        + "broadcast=%s, broadcast_volume=%d, tasks=%d", largeEbId, largeVolume, smallEbId, smallVolume,
+        splits.size()));
+    for (List<FetchProto> eachSplit : splits) {
+      Map<String, List<FetchProto>> fetches = new HashMap<>();
+      fetches.put(largeEbId.toString(), eachSplit);
+      fetches.put(smallName, smallFetches);
+      Stage.scheduleFetches(stage, fetches);
+    }
+
+    schedulerContext.setTaskSize((int) Math.ceil((double) (largeVolume + smallVolume * splits.size())
+        / splits.size()));
+    schedulerContext.setEstimatedTaskNum(splits.size());
+    return true;
+  }
+
   /**
    * merge intermediate entry by ebid, pullhost
    * @param hashEntries
@@ -550,23 +725,238 @@ public class Repartitioner {
     schedulerContext.setEstimatedTaskNum(baseFragments.size());
   }
 
-  private static void addJoinShuffle(Stage stage, int partitionId,
-                                     Map<ExecutionBlockId, List<IntermediateEntry>> grouppedPartitions) {
+  /**
+   * Schedules a task which joins the given hash partitions.
+   *
+   * @return the number of scheduled tasks
+   */
+  private static int addJoinShuffle(Stage stage,
+                                    Map<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> partitions) {
     Map<String, List<FetchProto>> fetches = new HashMap<>();
     for (ExecutionBlock execBlock : stage.getMasterPlan().getChilds(stage.getId())) {
-      if (grouppedPartitions.containsKey(execBlock.getId())) {
-        String name = execBlock.getId().toString();
-        List<FetchProto> requests = mergeShuffleRequest(name, partitionId, HASH_SHUFFLE,
-            grouppedPartitions.get(execBlock.getId()));
-        fetches.put(name, requests);
+      String name = execBlock.getId().toString();
+      for (Entry<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> eachPartition : partitions.entrySet()) {
+        if (eachPartition.getValue().containsKey(execBlock.getId())) {
+          if (!fetches.containsKey(name)) {
+            fetches.put(name, new ArrayList<>());
+          }
+          fetches.get(name).addAll(mergeShuffleRequest(name, eachPartition.getKey(), HASH_SHUFFLE,
+              eachPartition.getValue().get(execBlock.getId())));
+        }
       }
     }
 
     if (fetches.isEmpty()) {
-      LOG.info(stage.getId() + "'s " + partitionId + " partition has empty result.");
-      return;
+      LOG.info(stage.getId() + "'s " + partitions.keySet() + " partitions have empty result.");
+      return 0;
     }
     Stage.scheduleFetches(stage, fetches);
+    return 1;
+  }
+
+  /**
+   * Schedules a skewed hash partition of a join. The intermediate data of the skewed side are split by pages into
+   * multiple tasks, and each of the tasks fetches the whole partition of the other sides.
+   *
+   * @return the number of scheduled tasks
+   */
+  private static int addSkewedJoinShuffle(Stage stage, int partitionId,
+                                          Map<ExecutionBlockId, List<IntermediateEntry>> grouppedPartitions,
+                                          ExecutionBlockId skewedEbId) {
+    long splitVolume = (long) StorageUnit.MB *
+        stage.getMasterPlan().getContext().getInt(SessionVars.JOIN_PER_SHUFFLE_SIZE);
+    String skewedName = skewedEbId.toString();
+    List<List<FetchProto>> splits = splitIntermediatesByPages(stage, skewedEbId,
+        grouppedPartitions.get(skewedEbId), splitVolume);
+
+    if (splits == null || splits.size() <= 1) {
+      return addJoinShuffle(stage, Collections.singletonMap(partitionId, grouppedPartitions));
+    }
+
+    // the other sides are replicated to all tasks of the partition
+    Map<String, List<FetchProto>> replicatedFetches = new HashMap<>();
+    for (ExecutionBlock execBlock : stage.getMasterPlan().getChilds(stage.getId())) {
+      if (!execBlock.getId().equals(skewedEbId) && grouppedPartitions.containsKey(execBlock.getId())) {
+        String name = execBlock.getId().toString();
+        replicatedFetches.put(name, mergeShuffleRequest(name, partitionId, HASH_SHUFFLE,
+            grouppedPartitions.get(execBlock.getId())));
+      }
+    }
+
+    LOG.info(stage.getId() + "'s " + partitionId + " partition of " + skewedName + " is skewed. It is split into "
+        + splits.size() + " tasks.");
+    for (List<FetchProto> eachSplit : splits) {
+      Map<String, List<FetchProto>> fetches = new HashMap<>(replicatedFetches);
+      fetches.put(skewedName, eachSplit);
+      Stage.scheduleFetches(stage, fetches);
+    }
+    return splits.size();
+  }
+
+  /**
+   * Split intermediate data by pages regardless of their hash partitions.
+   *
+   * @return fetches for each task, or null if some intermediate data have no pages
+   */
+  private static List<List<FetchProto>> splitIntermediatesByPages(Stage stage, ExecutionBlockId ebId,
+                                                                  List<IntermediateEntry> entries, long splitVolume) {
+    long pageSize = (long) StorageUnit.MB *
+        stage.getContext().getConf().getIntVar(ConfVars.SHUFFLE_HASH_APPENDER_PAGE_VOLUME);
+    splitVolume = Math.max(splitVolume, pageSize);
+
+    // Intermediate data of union are split for each child block.
+    Map<ExecutionBlockId, List<IntermediateEntry>> childEntries = new HashMap<>();
+    for (IntermediateEntry eachEntry : entries) {
+      if (eachEntry.getPages() == null || eachEntry.getPages().isEmpty()) {
+        if (eachEntry.getVolume() > 0) {
+          LOG.warn(stage.getId() + ", intermediate data of " + ebId + " cannot be split because of missing pages.");
+          return null;
+        }
+        continue;
+      }
+      ExecutionBlockId childEbId = eachEntry.getEbId() != null ? eachEntry.getEbId() : ebId;
+      if (!childEntries.containsKey(childEbId)) {
+        childEntries.put(childEbId, new ArrayList<>());
+      }
+      childEntries.get(childEbId).add(eachEntry);
+    }
+
+    List<List<FetchProto>> splits = new ArrayList<>();
+    for (Entry<ExecutionBlockId, List<IntermediateEntry>> eachChild : childEntries.entrySet()) {
+      List<List<FetchProto>> eachSplits = splitOrMergeIntermediates(ebId.toString(), eachChild.getKey(),
+          eachChild.getValue(), splitVolume, pageSize);
+      if (eachSplits != null) {
+        splits.addAll(eachSplits);
+      }
+    }
+    return splits;
+  }
+
+  /**
+   * Find skewed hash partitions of a join from the volumes of intermediate data. If both sides of a partition are
+   * skewed, the larger one is split.
+   *
+   * @return key: partition id, value: the id of the skewed intermediate data
+   */
+  private static Map<Integer, ExecutionBlockId> findSkewedJoinPartitions(Stage stage,
+      Map<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> hashEntries) {
+    QueryContext queryContext = stage.getMasterPlan().getContext();
+    if (!queryContext.getBool(SessionVars.JOIN_SKEW_ENABLED)) {
+      return Collections.emptyMap();
+    }
+    float factor = queryContext.getFloat(SessionVars.JOIN_SKEW_FACTOR);
+    long threshold = (long) StorageUnit.MB * queryContext.getInt(SessionVars.JOIN_SKEW_THRESHOLD);
+
+    Map<Integer, ExecutionBlockId> skewedPartitions = new HashMap<>();
+    Map<Integer, Long> skewedVolumes = new HashMap<>();
+    for (ExecutionBlockId eachEbId : getSplittableJoinInputs(stage.getMasterPlan(), stage.getBlock())) {
+      Map<Integer, Long> volumes = new HashMap<>();
+      for (Entry<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> entry : hashEntries.entrySet()) {
+        List<IntermediateEntry> entries = entry.getValue().get(eachEbId);
+        if (entries != null) {
+          volumes.put(entry.getKey(), entries.stream().mapToLong(IntermediateEntry::getVolume).sum());
+        }
+      }
+
+      for (Integer eachPartId : findSkewedPartitions(volumes, factor, threshold)) {
+        Long volume = volumes.get(eachPartId);
+        if (!skewedVolumes.containsKey(eachPartId) || skewedVolumes.get(eachPartId) < volume) {
+          skewedPartitions.put(eachPartId, eachEbId);
+          skewedVolumes.put(eachPartId, volume);
+        }
+      }
+    }
+    return skewedPartitions;
+  }
+
+  /**
+   * A partition is skewed if its volume is larger than both the factor times the median volume and the threshold.
+   *
+   * @param volumes key: partition id, value: volume
+   * @return the ids of skewed partitions
+   */
+  @VisibleForTesting
+  public static Set<Integer> findSkewedPartitions(Map<Integer, Long> volumes, float factor, long threshold) {
+    if (volumes.size() < 2) {
+      return Collections.emptySet();
+    }
+    long[] sorted = volumes.values().stream().mapToLong(Long::longValue).sorted().toArray();
+    long limit = Math.max((long) (sorted[sorted.length / 2] * (double) factor), threshold);
+
+    return volumes.entrySet().stream()
+        .filter(entry -> entry.getValue() > limit)
+        .map(Entry::getKey)
+        .collect(Collectors.toSet());
+  }
+
+  /**
+   * Splitting the partition of a relation into multiple tasks is valid only if each row of the relation produces
+   * its results regardless of the other rows of the relation. For example, the null-supplying side of an outer join
+   * cannot be split.
+   *
+   * @return the ids of intermediate data which can be split
+   */
+  @VisibleForTesting
+  public static Set<ExecutionBlockId> getSplittableJoinInputs(MasterPlan masterPlan, ExecutionBlock execBlock) {
+    Set<String> tableNames = new HashSet<>();
+    // An aggregation or a sort of a non-root block is finished by the next block.
+    collectSplittableScans(execBlock.getPlan(), true, !masterPlan.isRoot(execBlock), tableNames);
+
+    Set<ExecutionBlockId> splittable = new HashSet<>();
+    for (ExecutionBlock childBlock : masterPlan.getChilds(execBlock)) {
+      ExecutionBlockId scanEbId = execBlock.getUnionScanMap().get(childBlock.getId());
+      if (scanEbId == null) {
+        scanEbId = childBlock.getId();
+      }
+      if (tableNames.contains(scanEbId.toString())) {
+        splittable.add(scanEbId);
+      }
+    }
+    return splittable;
+  }
+
+  /**
+   * @param splittable false if no relation below the node can be split
+   * @param partial true if aggregations and sorts are finished by the next block
+   * @param tableNames the simple names of relations which can be split are added
+   */
+  @VisibleForTesting
+  public static void collectSplittableScans(LogicalNode node, boolean splittable, boolean partial,
+                                            Set<String> tableNames) {
+    switch (node.getType()) {
+      case SCAN:
+        if (splittable) {
+          tableNames.add(CatalogUtil.extractSimpleName(((ScanNode) node).getTableName()));
+        }
+        break;
+      case JOIN:
+        JoinNode join = (JoinNode) node;
+        JoinType joinType = join.getJoinType();
+        boolean inner = joinType == JoinType.INNER || joinType == JoinType.CROSS;
+        collectSplittableScans(join.getLeftChild(), splittable && (inner || joinType == JoinType.LEFT_OUTER
+            || joinType == JoinType.LEFT_SEMI || joinType == JoinType.LEFT_ANTI), partial, tableNames);
+        collectSplittableScans(join.getRightChild(), splittable && (inner || joinType == JoinType.RIGHT_OUTER
+            || joinType == JoinType.RIGHT_SEMI || joinType == JoinType.RIGHT_ANTI), partial, tableNames);
+        break;
+      case ROOT:
+      case PROJECTION:
+      case SELECTION:
+      case STORE:
+      case INSERT:
+      case CREATE_TABLE:
+        collectSplittableScans(((UnaryNode) node).getChild(), splittable, partial, tableNames);
+        break;
+      case GROUP_BY:
+      case DISTINCT_GROUP_BY:
+      case HAVING:
+      case SORT:
+      case LIMIT:
+        collectSplittableScans(((UnaryNode) node).getChild(), splittable && partial, partial, tableNames);
+        break;
+      default:
+        // the other relations are not split
+        break;
+    }
   }
 
   /**
@@ -625,6 +1015,41 @@ public class Repartitioner {
     return StatisticsUtil.aggregateTableStat(tableStatses);
   }
 
+  /**
+   * @return the histogram collected by ANALYZE TABLE if a child block sorts the rows of a single table
+   * by one of its columns. Otherwise, null.
+   */
+  private static Histogram getSortKeyHistogram(CatalogService catalog, ExecutionBlock childBlock,
+                                               SortSpec[] sortSpecs) {
+    ScanNode[] scans = childBlock.getScanNodes();
+    if (sortSpecs.length != 1 || scans.length != 1 || scans[0].getTableDesc() == null) {
+      return null;
+    }
+
+    Column sortKey = sortSpecs[0].getSortKey();
+    if (!scans[0].getOutSchema().contains(sortKey)) {
+      return null;
+    }
+
+    // histograms are not shipped with the plan, so they are read from the catalog
+    TableDesc tableDesc;
+    try {
+      tableDesc = catalog.getTableDesc(scans[0].getTableName());
+    } catch (UndefinedTableException e) {
+      return null;
+    }
+    if (!tableDesc.hasStats() || tableDesc.getStats().getColumnStats() == null) {
+      return null;
+    }
+    for (ColumnStats stats : tableDesc.getStats().getColumnStats()) {
+      if (stats.hasHistogram() && stats.getColumn().getSimpleName().equals(sortKey.getSimpleName())
+          && stats.getColumn().getDataType().equals(sortKey.getDataType())) {
+        return stats.getHistogram();
+      }
+    }
+    return null;
+  }
+
   public static void scheduleRangeShuffledFetches(TaskSchedulerContext schedulerContext, MasterPlan masterPlan,
                                                   Stage stage, DataChannel channel, int maxNum)
       throws IOException {
@@ -670,7 +1095,15 @@ public class Repartitioner {
 
       determinedTaskNum = ranges.length;
     } else {
-      RangePartitionAlgorithm partitioner = new UniformRangePartition(mergedRange, sortSpecs);
+      RangePartitionAlgorithm partitioner;
+      CatalogService catalog = stage.getContext().getQueryMasterContext().getWorkerContext().getCatalog();
+      Histogram histogram = getSortKeyHistogram(catalog, sampleChildBlock, sortSpecs);
+      if (histogram != null) {
+        LOG.info(stage.getId() + ", The histogram of " + sortSpecs[0].getSortKey() + " is used for range partitioning");
+        partitioner = new HistogramRangePartition(mergedRange, sortSpecs, histogram);
+      } else {
+        partitioner = new UniformRangePartition(mergedRange, sortSpecs);
+      }
       BigInteger card = partitioner.getTotalCardinality();
 
       // if the number of the range cardinality is less than the desired number of tasks,
@@ -1101,6 +1534,72 @@ public class Repartitioner {
     return createFetchURL(maxUrlLength, fetch, false);
   }
 
+  /**
+   * Group hash shuffle fetches of a task which can be requested together. Fetches in a group have the same name,
+   * the same pull server and the same execution block, and the pull server sends their partitions in a single
+   * response. A fetch which cannot be merged, like a range shuffle, forms a group by itself.
+   *
+   * @param maxPartitionNum The maximum number of partitions in a group
+   */
+  public static List<List<FetchProto>> groupFetchesByPullServer(List<FetchProto> fetches, int maxPartitionNum) {
+    List<List<FetchProto>> groups = new ArrayList<>();
+    // name + pull server + ebId -> the group being filled
+    Map<String, List<FetchProto>> openGroups = new HashMap<>();
+
+    for (FetchProto fetch : fetches) {
+      if (fetch.getType() != HASH_SHUFFLE || fetch.getLength() >= 0 || maxPartitionNum <= 1) {
+        groups.add(Lists.newArrayList(fetch));
+        continue;
+      }
+
+      String key = fetch.getName() + "," + fetch.getHost() + ":" + fetch.getPort() + ","
+          + new ExecutionBlockId(fetch.getExecutionBlockId());
+      List<FetchProto> group = openGroups.get(key);
+      if (group == null || group.size() >= maxPartitionNum) {
+        group = new ArrayList<>();
+        groups.add(group);
+        openGroups.put(key, group);
+      }
+      group.add(fetch);
+    }
+    return groups;
+  }
+
+  /**
+   * Get the pull server URIs which request all partitions of given fetches.
+   * The fetches should be grouped by {@link #groupFetchesByPullServer(List, int)}.
+   */
+  public static List<URI> createBatchedURIs(int maxUrlLength, List<FetchProto> fetches) {
+    if (fetches.size() == 1) {
+      return createFullURIs(maxUrlLength, fetches.get(0));
+    }
+
+    FetchProto first = fetches.get(0);
+    ExecutionBlockId ebId = new ExecutionBlockId(first.getExecutionBlockId());
+    String urlPrefix = "http://" + first.getHost() + ":" + first.getPort() + "/?"
+        + "qid=" + ebId.getQueryId().toString()
+        + "&sid=" + ebId.getId()
+        + "&type=h"
+        + "&p=";
+
+    // A long request is divided into multiple requests in the same way as task ids of the range shuffle.
+    List<URI> fetchURLs = new ArrayList<>();
+    StringBuilder partIds = new StringBuilder();
+    for (FetchProto fetch : fetches) {
+      String partId = String.valueOf(fetch.getPartitionId());
+      if (partIds.length() > 0 && urlPrefix.length() + partIds.length() + partId.length() + 1 > maxUrlLength) {
+        fetchURLs.add(URI.create(urlPrefix + partIds));
+        partIds.setLength(0);
+      }
+      if (partIds.length() > 0) {
+        partIds.append(",");
+      }
+      partIds.append(partId);
+    }
+    fetchURLs.add(URI.create(urlPrefix + partIds));
+    return fetchURLs;
+  }
+
   private static String getRangeParam(FetchProto proto) {
     StringBuilder sb = new StringBuilder();
     String firstKeyBase64 = new String(org.apache.commons.codec.binary.Base64.encodeBase64(proto.getRangeStart().toByteArray()));
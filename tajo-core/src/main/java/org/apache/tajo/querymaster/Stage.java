@@ -22,13 +22,16 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.protobuf.ByteString;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.yarn.event.Event;
 import org.apache.hadoop.yarn.event.EventHandler;
 import org.apache.hadoop.yarn.state.*;
 import org.apache.tajo.*;
 import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableDesc;
 import org.apache.tajo.catalog.TableMeta;
@@ -43,15 +46,18 @@ import org.apache.tajo.engine.planner.global.DataChannel;
 import org.apache.tajo.engine.planner.global.ExecutionBlock;
 import org.apache.tajo.engine.planner.global.MasterPlan;
 import org.apache.tajo.engine.planner.global.MasterPlan.ShuffleContext;
+import org.apache.tajo.engine.utils.KeyBloomFilter;
 import org.apache.tajo.error.Errors.SerializedException;
 import org.apache.tajo.exception.ErrorUtil;
 import org.apache.tajo.exception.TajoException;
 import org.apache.tajo.exception.TajoInternalError;
 import org.apache.tajo.ipc.TajoWorkerProtocol;
 import org.apache.tajo.master.TaskState;
+import org.apache.tajo.master.cluster.WorkerConnectionInfo;
 import org.apache.tajo.master.event.*;
 import org.apache.tajo.master.event.TaskAttemptToSchedulerEvent.TaskAttemptScheduleContext;
 import org.apache.tajo.plan.logical.*;
+import org.apache.tajo.plan.rewrite.rules.PartitionedTableRewriter;
 import org.apache.tajo.plan.serder.PlanProto;
 import org.apache.tajo.plan.serder.PlanProto.DistinctGroupbyEnforcer.MultipleAggregationStage;
 import org.apache.tajo.plan.serder.PlanProto.EnforceProperty;
@@ -64,6 +70,7 @@ import org.apache.tajo.rpc.protocolrecords.PrimitiveProtos;
 import org.apache.tajo.storage.FileTablespace;
 import org.apache.tajo.storage.Tablespace;
 import org.apache.tajo.storage.TablespaceManager;
+import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.unit.StorageUnit;
 import org.apache.tajo.util.KeyValueSet;
@@ -92,6 +99,8 @@ import static org.apache.tajo.plan.serder.PlanProto.ShuffleType;
 public class Stage implements EventHandler<StageEvent> {
 
   private static final Log LOG = LogFactory.getLog(Stage.class);
+  // the false positive probability of a runtime filter is about (fill ratio)^3
+  private static final double MAX_RUNTIME_FILTER_FILL_RATIO = 0.5;
 
   private final Properties rpcParams;
 
@@ -115,6 +124,14 @@ public class Stage implements EventHandler<StageEvent> {
 
   private final Map<TaskId, Task> tasks = Maps.newConcurrentMap();
   private final Map<Integer, InetSocketAddress> workerMap = Maps.newConcurrentMap();
+  // pull servers receiving pushed hash partitions. It is decided once for all tasks of this stage.
+  private List<String> shufflePushTargets;
+  // a bloom filter over the shuffle keys of the output, merged from the shuffle reports. See RuntimeFilterRule.
+  private volatile KeyBloomFilter runtimeFilter;
+  // true if a worker did not report its filter for its succeeded tasks
+  private volatile boolean runtimeFilterMissed;
+  // bloom filters applied to the scan of this stage. It is decided once for all tasks of this stage.
+  private List<RuntimeFilterProto> runtimeFilters;
 
   private static final DiagnosticsUpdateTransition DIAGNOSTIC_UPDATE_TRANSITION = new DiagnosticsUpdateTransition();
   private static final InternalErrorTransition INTERNAL_ERROR_TRANSITION = new InternalErrorTransition();
@@ -333,6 +350,128 @@ public class Stage implements EventHandler<StageEvent> {
     return masterPlan.getOutgoingChannels(getId()).iterator().next();
   }
 
+  /**
+   * Pull servers (host:port) to which tasks of this stage push their hash partitions. The partition p is pushed to
+   * the (p % size)-th pull server, so that each partition is merged in a single worker.
+   *
+   * @return an empty list if the partitions are written to local disks.
+   */
+  public synchronized List<String> getShufflePushTargets() {
+    if (shufflePushTargets == null) {
+      shufflePushTargets = new ArrayList<>();
+      if (getDataChannel().getShuffleType() == ShuffleType.HASH_SHUFFLE
+          && context.getQueryContext().getBool(SessionVars.SHUFFLE_PUSH_ENABLED)) {
+        List<WorkerConnectionInfo> workers = new ArrayList<>(context.getWorkerMap().values());
+        Collections.sort(workers, (w1, w2) -> Integer.compare(w1.getId(), w2.getId()));
+        for (WorkerConnectionInfo worker : workers) {
+          shufflePushTargets.add(worker.getHost() + ":" + worker.getPullServerPort());
+        }
+        LOG.info(getId() + " pushes hash partitions to " + shufflePushTargets);
+      }
+    }
+    return shufflePushTargets;
+  }
+
+  /**
+   * @return a bloom filter over the shuffle keys of all output rows, or null if this stage has not succeeded or
+   * it does not build a runtime filter.
+   */
+  public KeyBloomFilter getRuntimeFilter() {
+    if (getSynchronizedState() != StageState.SUCCEEDED || runtimeFilterMissed) {
+      return null;
+    }
+    return runtimeFilter;
+  }
+
+  /**
+   * @return the bloom filter of the source stage of a runtime filter. It is null if the source stage has not
+   * succeeded, or if the filter is too full to filter out rows.
+   */
+  private KeyBloomFilter getSourceFilter(ExecutionBlock.RuntimeFilter runtimeFilter) {
+    Stage source = context.getQuery().getStage(runtimeFilter.getSourceId());
+    KeyBloomFilter filter = source == null ? null : source.getRuntimeFilter();
+    if (filter == null) {
+      LOG.info(getId() + " is not filtered by " + runtimeFilter.getSourceId() + " which has not succeeded");
+      return null;
+    }
+
+    double fillRatio = filter.getFillRatio();
+    if (fillRatio > MAX_RUNTIME_FILTER_FILL_RATIO) {
+      LOG.info(getId() + " is not filtered by " + runtimeFilter.getSourceId() + " whose filter is too full: "
+          + fillRatio);
+      return null;
+    }
+    return filter;
+  }
+
+  /**
+   * Bloom filters built by the other stages and applied to the rows of the scan of this stage.
+   */
+  public synchronized List<RuntimeFilterProto> getRuntimeFilters() {
+    if (runtimeFilters == null) {
+      runtimeFilters = new ArrayList<>();
+      for (ExecutionBlock.RuntimeFilter eachFilter : block.getRuntimeFilters()) {
+        if (eachFilter.isPartitionFilter()) {
+          continue;
+        }
+        KeyBloomFilter filter = getSourceFilter(eachFilter);
+        if (filter == null) {
+          continue;
+        }
+
+        RuntimeFilterProto.Builder builder = RuntimeFilterProto.newBuilder();
+        builder.setTableName(eachFilter.getTableName());
+        for (Column key : eachFilter.getKeys()) {
+          builder.addKeys(key.getProto());
+        }
+        builder.setFilter(ByteString.copyFrom(filter.toBytes()));
+        runtimeFilters.add(builder.build());
+        LOG.info(getId() + " filters " + eachFilter.getTableName() + " by the output of " + eachFilter.getSourceId());
+      }
+    }
+    return runtimeFilters;
+  }
+
+  /**
+   * Remove the partitions of a partitioned table scan whose key values are not in the runtime filters of the scan.
+   * It should be called before the fragments of the scan are created.
+   */
+  private void prunePartitions(PartitionedTableScanNode scan) {
+    Path[] paths = scan.getInputPaths();
+    if (paths == null || paths.length == 0) {
+      return;
+    }
+
+    Schema partitionSchema = scan.getTableDesc().getPartitionMethod().getExpressionSchema();
+    for (ExecutionBlock.RuntimeFilter eachFilter : block.getRuntimeFilters()) {
+      if (!eachFilter.isPartitionFilter() || !eachFilter.getTableName().equals(scan.getCanonicalName())) {
+        continue;
+      }
+      KeyBloomFilter filter = getSourceFilter(eachFilter);
+      if (filter == null) {
+        continue;
+      }
+
+      int[] keyIds = new int[eachFilter.getKeys().length];
+      for (int i = 0; i < keyIds.length; i++) {
+        keyIds[i] = partitionSchema.getColumnIdByName(eachFilter.getKeys()[i].getSimpleName());
+      }
+
+      List<Path> remaining = new ArrayList<>();
+      for (Path path : paths) {
+        Tuple partitionKey = PartitionedTableRewriter.buildTupleFromPartitionPath(partitionSchema, path, false);
+        // a path which does not represent a partition is kept
+        if (partitionKey == null || filter.mightContain(partitionKey, keyIds)) {
+          remaining.add(path);
+        }
+      }
+      LOG.info(getId() + " prunes " + (paths.length - remaining.size()) + " of " + paths.length + " partitions of "
+          + scan.getCanonicalName() + " by the output of " + eachFilter.getSourceId());
+      paths = remaining.toArray(new Path[remaining.size()]);
+    }
+    scan.setInputPaths(paths);
+  }
+
   public EventHandler<Event> getEventHandler() {
     return eventHandler;
   }
@@ -666,6 +805,7 @@ public class Stage implements EventHandler<StageEvent> {
     long[] avgRows = new long[]{0, 0};
     long[] numBytes = new long[]{0, 0};
     long[] readBytes = new long[]{0, 0};
+    long[] uncompressedBytes = new long[]{0, 0};
     long[] numRows = new long[]{0, 0};
     int[] numBlocks = new int[]{0, 0};
     int[] numOutputs = new int[]{0, 0};
@@ -685,6 +825,7 @@ public class Stage implements EventHandler<StageEvent> {
         numBlocks[i] += childStatArray[i].getNumBlocks();
         numBytes[i] += childStatArray[i].getNumBytes();
         readBytes[i] += childStatArray[i].getReadBytes();
+        uncompressedBytes[i] += childStatArray[i].getUncompressedBytes();
         numOutputs[i] += childStatArray[i].getNumShuffleOutputs();
         numRows[i] += childStatArray[i].getNumRows();
       }
@@ -697,6 +838,7 @@ public class Stage implements EventHandler<StageEvent> {
       stat[i].setNumBlocks(numBlocks[i]);
       stat[i].setNumBytes(numBytes[i]);
       stat[i].setReadBytes(readBytes[i]);
+      stat[i].setUncompressedBytes(uncompressedBytes[i]);
       stat[i].setNumShuffleOutputs(numOutputs[i]);
       stat[i].setNumRows(numRows[i]);
       stat[i].setAvgRows(avgRows[i]);
@@ -1195,6 +1337,7 @@ public class Stage implements EventHandler<StageEvent> {
       //
       // Also, we can ensure FileTableSpace if the type of ScanNode is PARTITIONS_SCAN.
       if (scan.getType() == NodeType.PARTITIONS_SCAN) {
+        stage.prunePartitions((PartitionedTableScanNode) scan);
         // After calling this method, partition paths are removed from the physical plan.
         fragments = Repartitioner.getFragmentsFromPartitionedTable((FileTablespace) tablespace, scan, table);
       } else {
@@ -1354,6 +1497,17 @@ public class Stage implements EventHandler<StageEvent> {
       }
     }
 
+    if (report.hasRuntimeFilter()) {
+      KeyBloomFilter filter = new KeyBloomFilter(report.getRuntimeFilter().toByteArray());
+      if (runtimeFilter == null) {
+        runtimeFilter = filter;
+      } else {
+        runtimeFilter.merge(filter);
+      }
+    } else if (report.getSucceededTasks() > 0) {
+      runtimeFilterMissed = true;
+    }
+
     if (completedShuffleTasks.get() >= succeededObjectCount) {
       LOG.info(getId() + ", Finalized " + type + " reports: " + completedShuffleTasks.get());
       getEventHandler().handle(new StageEvent(getId(), StageEventType.SQ_STAGE_COMPLETED));
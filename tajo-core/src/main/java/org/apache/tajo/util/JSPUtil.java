@@ -314,6 +314,10 @@ public class JSPUtil {
         + tableStats.getNumBytes() + " B)";
     result += ", ReadBytes: " + FileUtil.humanReadableByteCount(tableStats.getReadBytes(), false) + " ("
         + tableStats.getReadBytes() + " B)";
+    if (tableStats.getUncompressedBytes() > 0 && tableStats.getUncompressedBytes() != tableStats.getNumBytes()) {
+      result += ", UncompressedBytes: " + FileUtil.humanReadableByteCount(tableStats.getUncompressedBytes(), false)
+          + " (" + tableStats.getUncompressedBytes() + " B)";
+    }
     result += ", ReadRows: " + (tableStats.getNumRows() == 0 ? "-" : tableStats.getNumRows());
 
     return result;
@@ -20,6 +20,7 @@ package org.apache.tajo.worker;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.protobuf.ByteString;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.*;
 import io.netty.channel.socket.nio.NioSocketChannel;
@@ -39,6 +40,7 @@ import org.apache.tajo.TaskAttemptId;
 import org.apache.tajo.TaskId;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.engine.query.QueryContext;
+import org.apache.tajo.engine.utils.KeyBloomFilter;
 import org.apache.tajo.exception.ErrorUtil;
 import org.apache.tajo.exception.TajoInternalError;
 import org.apache.tajo.ipc.QueryMasterProtocol;
@@ -96,6 +98,10 @@ public class ExecutionBlockContext {
   private AtomicBoolean stop = new AtomicBoolean();
 
   private PlanProto.ShuffleType shuffleType;
+  // pull servers (host:port) receiving pushed hash partitions. It is empty if partitions are written locally.
+  private List<String> shufflePushTargets;
+  // bloom filters applied to scans, keyed by the canonical names of the scans
+  private final Map<String, RuntimeFilterProto> runtimeFilters = Maps.newHashMap();
 
   // It keeps all of the query unit attempts while a TaskRunner is running.
   private final ConcurrentMap<TaskAttemptId, Task> tasks = Maps.newConcurrentMap();
@@ -120,6 +126,10 @@ public class ExecutionBlockContext {
     this.resource = new ExecutionBlockSharedResource();
     this.workerContext = workerContext;
     this.shuffleType = request.getShuffleType();
+    this.shufflePushTargets = new ArrayList<>(request.getShufflePushTargetsList());
+    for (RuntimeFilterProto runtimeFilter : request.getRuntimeFiltersList()) {
+      runtimeFilters.put(runtimeFilter.getTableName(), runtimeFilter);
+    }
     this.queryMasterClient = queryMasterClient;
   }
 
@@ -156,6 +166,14 @@ public class ExecutionBlockContext {
     return resource;
   }
 
+  public List<String> getShufflePushTargets() {
+    return shufflePushTargets;
+  }
+
+  public Map<String, RuntimeFilterProto> getRuntimeFilters() {
+    return runtimeFilters;
+  }
+
   private AsyncRpcClient getRpcClient() {
     return queryMasterClient;
   }
@@ -359,6 +377,10 @@ public class ExecutionBlockContext {
     reporterBuilder.setEbId(ebId.getProto());
     reporterBuilder.setReportSuccess(true);
     reporterBuilder.setSucceededTasks(succeededTasksNum.get());
+    KeyBloomFilter runtimeFilter = resource.getRuntimeFilter();
+    if (runtimeFilter != null) {
+      reporterBuilder.setRuntimeFilter(ByteString.copyFrom(runtimeFilter.toBytes()));
+    }
     try {
       List<IntermediateEntryProto> intermediateEntries = Lists.newArrayList();
       List<HashShuffleAppenderManager.HashShuffleIntermediate> shuffles =
@@ -396,9 +418,12 @@ public class ExecutionBlockContext {
         }
         intermediateBuilder.clear();
 
+        // pushed pages are pulled from the pull server which has merged them
+        String pullHost = eachShuffle.getPullHost() != null ? eachShuffle.getPullHost() :
+            getWorkerContext().getConnectionInfo().getHost() + ":" +
+                getWorkerContext().getConnectionInfo().getPullServerPort();
         intermediateBuilder.setEbId(ebId.getProto())
-            .setHost(getWorkerContext().getConnectionInfo().getHost() + ":" +
-                getWorkerContext().getConnectionInfo().getPullServerPort())
+            .setHost(pullHost)
             .setTaskId(-1)
             .setAttemptId(-1)
             .setPartId(eachShuffle.getPartId())
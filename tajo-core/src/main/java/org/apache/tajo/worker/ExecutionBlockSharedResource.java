@@ -25,10 +25,14 @@ import org.apache.tajo.ExecutionBlockId;
 import org.apache.tajo.SessionVars;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.engine.codegen.ExecutorPreCompiler;
+import org.apache.tajo.engine.codegen.ScanPipeline;
+import org.apache.tajo.engine.codegen.ScanPipelineCompiler;
+import org.apache.tajo.engine.codegen.TupleComparatorCompiler;
 import org.apache.tajo.engine.codegen.TajoClassLoader;
 import org.apache.tajo.engine.json.CoreGsonHelper;
 import org.apache.tajo.engine.query.QueryContext;
 import org.apache.tajo.engine.utils.CacheHolder;
+import org.apache.tajo.engine.utils.KeyBloomFilter;
 import org.apache.tajo.engine.utils.TableCache;
 import org.apache.tajo.engine.utils.TableCacheKey;
 import org.apache.tajo.exception.TajoException;
@@ -50,8 +54,12 @@ public class ExecutionBlockSharedResource {
   // Resources
   private TajoClassLoader classLoader;
   private ExecutorPreCompiler.CompilationContext compilationContext;
+  private ScanPipelineCompiler pipelineCompiler;
+  private TupleComparatorCompiler comparatorCompiler;
   private LogicalNode plan;
   private boolean codeGenEnabled = false;
+  // a bloom filter over the shuffle keys of the tasks run in this worker. See RuntimeFilterRule.
+  private KeyBloomFilter runtimeFilter;
 
   public void initialize(final QueryContext context, final String planJson) {
 
@@ -82,6 +90,8 @@ public class ExecutionBlockSharedResource {
       classLoader = new TajoClassLoader();
       compilationContext = new ExecutorPreCompiler.CompilationContext(classLoader);
       ExecutorPreCompiler.compile(compilationContext, plan);
+      pipelineCompiler = new ScanPipelineCompiler(classLoader);
+      comparatorCompiler = new TupleComparatorCompiler(classLoader);
     }
   }
 
@@ -113,6 +123,34 @@ public class ExecutionBlockSharedResource {
     }
   }
 
+  public ScanPipeline compileScanPipeline(Schema schema, EvalNode[] conjuncts, EvalNode[] targets) {
+    if (codeGenEnabled) {
+      return pipelineCompiler.compile(schema, conjuncts, targets);
+    } else {
+      throw new IllegalStateException("CodeGen is disabled");
+    }
+  }
+
+  public TupleComparatorCompiler getComparatorCompiler() {
+    if (codeGenEnabled) {
+      return comparatorCompiler;
+    } else {
+      throw new IllegalStateException("CodeGen is disabled");
+    }
+  }
+
+  public synchronized void mergeRuntimeFilter(KeyBloomFilter filter) {
+    if (runtimeFilter == null) {
+      runtimeFilter = filter;
+    } else {
+      runtimeFilter.merge(filter);
+    }
+  }
+
+  public synchronized KeyBloomFilter getRuntimeFilter() {
+    return runtimeFilter;
+  }
+
   /* This is guarantee a lock for a ExecutionBlock */
   public synchronized Object getLock() {
     return lock;
@@ -136,6 +174,8 @@ public class ExecutionBlockSharedResource {
 
   public void release() {
     compilationContext = null;
+    pipelineCompiler = null;
+    comparatorCompiler = null;
 
     if (classLoader != null) {
       try {
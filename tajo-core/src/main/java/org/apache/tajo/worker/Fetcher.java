@@ -18,8 +18,11 @@
 
 package org.apache.tajo.worker;
 
+import com.google.common.util.concurrent.Uninterruptibles;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.*;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.http.*;
@@ -46,11 +49,18 @@ import java.net.URI;
 import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Fetcher fetches data from a given uri via HTTP protocol and stores them into
  * a specific file. It aims at asynchronous and efficient data transmit.
+ *
+ * If a {@link ShuffleDataStream} is given, a fetched response is kept in memory while the memory limit of the stream
+ * allows, and it is passed to the stream as soon as the response is completed.
+ *
+ * If keep-alive is enabled, a connection is returned to {@link FetcherConnectionPool} after a response is completely
+ * received, and it is reused by later fetches to the same pull server.
  */
 public class Fetcher {
 
@@ -63,6 +73,9 @@ public class Fetcher {
   private final String host;
   private int port;
   private final boolean useLocalFile;
+  private final boolean keepAlive;
+  // for the streaming fetch. It is null if fetched data are stored into files.
+  private final ShuffleDataStream stream;
 
   private long startTime;
   private volatile long finishTime;
@@ -74,11 +87,17 @@ public class Fetcher {
   private List<Long> chunkLengths = new ArrayList<>();
 
   public Fetcher(TajoConf conf, URI uri, FileChunk chunk) {
+    this(conf, uri, chunk, null);
+  }
+
+  public Fetcher(TajoConf conf, URI uri, FileChunk chunk, ShuffleDataStream stream) {
     this.uri = uri;
+    this.stream = stream;
     this.fileChunk = chunk;
     this.useLocalFile = !chunk.fromRemote();
     this.state = TajoProtos.FetcherState.FETCH_INIT;
     this.conf = conf;
+    this.keepAlive = conf.getBoolVar(TajoConf.ConfVars.SHUFFLE_FETCHER_KEEP_ALIVE_ENABLED);
 
     String scheme = uri.getScheme() == null ? "http" : uri.getScheme();
     this.host = uri.getHost() == null ? "localhost" : uri.getHost();
@@ -125,6 +144,10 @@ public class Fetcher {
     return messageReceiveCount;
   }
 
+  public ShuffleDataStream getStream() {
+    return stream;
+  }
+
   public List<FileChunk> get() throws IOException {
     List<FileChunk> fileChunks = new ArrayList<>();
     if (useLocalFile) {
@@ -137,30 +160,41 @@ public class Fetcher {
     }
 
     if (state == FetcherState.FETCH_INIT) {
-      ChannelInitializer<Channel> initializer = new HttpClientChannelInitializer(fileChunk.getFile());
-      bootstrap.handler(initializer);
+      bootstrap.handler(new HttpClientChannelInitializer());
     }
 
     this.startTime = System.currentTimeMillis();
     this.state = TajoProtos.FetcherState.FETCH_FETCHING;
-    ChannelFuture future = null;
+    this.chunkLengths.clear();
+    InetSocketAddress address = new InetSocketAddress(host, port);
+    Channel channel = null;
+    HttpClientHandler handler = null;
     try {
-      future = bootstrap.clone().connect(new InetSocketAddress(host, port))
-              .addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
-
-      // Wait until the connection attempt succeeds or fails.
-      Channel channel = future.awaitUninterruptibly().channel();
-      if (!future.isSuccess()) {
-        state = TajoProtos.FetcherState.FETCH_FAILED;
-        throw new IOException(future.cause());
+      channel = keepAlive ? FetcherConnectionPool.getInstance(conf).acquire(address) : null;
+      if (channel == null) {
+        ChannelFuture future = bootstrap.clone().connect(address)
+            .addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+
+        // Wait until the connection attempt succeeds or fails.
+        channel = future.awaitUninterruptibly().channel();
+        if (!future.isSuccess()) {
+          state = TajoProtos.FetcherState.FETCH_FAILED;
+          throw new IOException(future.cause());
+        }
       }
 
+      handler = new HttpClientHandler(fileChunk.getFile());
+      int readTimeout = conf.getIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_READ_TIMEOUT);
+      channel.pipeline().addLast("timeout", new ReadTimeoutHandler(readTimeout, TimeUnit.SECONDS));
+      channel.pipeline().addLast("handler", handler);
+
       String query = uri.getPath()
           + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "");
       // Prepare the HTTP request.
       HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, query);
       request.headers().set(HttpHeaders.Names.HOST, host);
-      request.headers().set(HttpHeaders.Names.CONNECTION, HttpHeaders.Values.CLOSE);
+      request.headers().set(HttpHeaders.Names.CONNECTION,
+          keepAlive ? HttpHeaders.Values.KEEP_ALIVE : HttpHeaders.Values.CLOSE);
       request.headers().set(HttpHeaders.Names.ACCEPT_ENCODING, HttpHeaders.Values.GZIP);
 
       if(LOG.isDebugEnabled()) {
@@ -169,8 +203,14 @@ public class Fetcher {
       // Send the HTTP request.
       channel.writeAndFlush(request);
 
-      // Wait for the server to close the connection. throw exception if failed
-      channel.closeFuture().syncUninterruptibly();
+      // Wait until the response is completed or the connection is closed.
+      handler.awaitResponse();
+
+      if (stream != null) {
+        // the response has been passed to the stream
+        fileChunk.setLength(fileLen);
+        return fileChunks;
+      }
 
       fileChunk.setLength(fileChunk.getFile().length());
 
@@ -186,9 +226,8 @@ public class Fetcher {
       return fileChunks;
 
     } finally {
-      if(future != null && future.channel().isOpen()){
-        // Close the channel to exit.
-        future.channel().close().awaitUninterruptibly();
+      if (channel != null) {
+        releaseChannel(address, channel, handler);
       }
 
       this.finishTime = System.currentTimeMillis();
@@ -206,6 +245,28 @@ public class Fetcher {
     }
   }
 
+  /**
+   * Return the connection to the pool if the response has been completely received and the pull server keeps
+   * the connection alive. Otherwise, close it.
+   */
+  private void releaseChannel(InetSocketAddress address, Channel channel, HttpClientHandler handler) {
+    if (keepAlive && handler != null && handler.isReusable() && channel.isActive()) {
+      try {
+        channel.pipeline().remove("timeout");
+        channel.pipeline().remove(handler);
+        FetcherConnectionPool.getInstance(conf).release(address, channel);
+        return;
+      } catch (Exception e) {
+        LOG.debug("Failed to reuse the connection: " + channel, e);
+      }
+    }
+
+    if (channel.isOpen()) {
+      // Close the channel to exit.
+      channel.close().awaitUninterruptibly();
+    }
+  }
+
   public URI getURI() {
     return this.uri;
   }
@@ -215,11 +276,102 @@ public class Fetcher {
     private RandomAccessFile raf;
     private FileChannel fc;
     private long length = -1;
+    // counted down when the response is completed or the connection is closed
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private boolean responseKeepAlive;
+    private boolean lastContentReceived;
+
+    // for the streaming fetch
+    private CompositeByteBuf buffered;
+    private long bufferedBytes;
+    private long receivedBytes;
 
     public HttpClientHandler(File file) throws FileNotFoundException {
       this.file = file;
-      this.raf = new RandomAccessFile(file, "rw");
-      this.fc = raf.getChannel();
+      if (stream == null) {
+        this.raf = new RandomAccessFile(file, "rw");
+        this.fc = raf.getChannel();
+      }
+    }
+
+    void awaitResponse() {
+      Uninterruptibles.awaitUninterruptibly(completed);
+    }
+
+    /**
+     * @return True if the response has been completely received, and the connection can be used for another request.
+     */
+    boolean isReusable() {
+      return lastContentReceived && responseKeepAlive && state == TajoProtos.FetcherState.FETCH_FINISHED;
+    }
+
+    /**
+     * Keep a content in memory if the memory limit of the stream allows. Otherwise, the response is written to
+     * the file from now on.
+     */
+    private void receive(ByteBuf content) throws IOException {
+      int contentLength = content.readableBytes();
+      if (fc == null && stream.reserve(contentLength)) {
+        if (buffered == null) {
+          buffered = Unpooled.compositeBuffer(Integer.MAX_VALUE);
+        }
+        buffered.addComponent(content.retain());
+        buffered.writerIndex(buffered.writerIndex() + contentLength);
+        bufferedBytes += contentLength;
+      } else {
+        if (fc == null) {
+          spill();
+        }
+        content.readBytes(fc, contentLength);
+      }
+      receivedBytes += contentLength;
+    }
+
+    private void spill() throws IOException {
+      raf = new RandomAccessFile(file, "rw");
+      raf.setLength(0);
+      fc = raf.getChannel();
+      if (buffered != null) {
+        while (buffered.isReadable()) {
+          buffered.readBytes(fc, buffered.readableBytes());
+        }
+        releaseBuffered();
+      }
+    }
+
+    private void releaseBuffered() {
+      if (buffered != null) {
+        stream.release(bufferedBytes);
+        buffered.release();
+        buffered = null;
+        bufferedBytes = 0;
+      }
+    }
+
+    /**
+     * Pass the completed response to the stream.
+     */
+    private void finishStream() {
+      fileLen = receivedBytes;
+      if (fc != null) {
+        IOUtils.cleanup(LOG, fc, raf);
+        FileChunk chunk = new FileChunk(file, 0, receivedBytes);
+        chunk.setEbId(fileChunk.getEbId());
+        chunk.setFromRemote(true);
+        stream.addFile(chunk);
+      } else if (buffered != null) {
+        // the reserved memory is released by the consumer
+        stream.addBuffer(buffered);
+        buffered = null;
+        bufferedBytes = 0;
+      }
+    }
+
+    private void cleanup() {
+      if (stream != null) {
+        releaseBuffered();
+      }
+      IOUtils.cleanup(LOG, fc, raf);
     }
 
     @Override
@@ -230,6 +382,7 @@ public class Fetcher {
       if (msg instanceof HttpResponse) {
         try {
           HttpResponse response = (HttpResponse) msg;
+          responseKeepAlive = HttpHeaders.isKeepAlive(response);
 
           StringBuilder sb = new StringBuilder();
           if (LOG.isDebugEnabled()) {
@@ -280,12 +433,20 @@ public class Fetcher {
           HttpContent httpContent = (HttpContent) msg;
           ByteBuf content = httpContent.content();
           if (content.isReadable()) {
-            content.readBytes(fc, content.readableBytes());
+            if (stream == null) {
+              content.readBytes(fc, content.readableBytes());
+            } else if (state != TajoProtos.FetcherState.FETCH_FAILED) {
+              receive(content);
+            }
           }
 
           if (msg instanceof LastHttpContent) {
-            if (raf != null) {
-              fileLen = file.length();
+            if (stream == null) {
+              if (raf != null) {
+                fileLen = file.length();
+              }
+            } else if (state != TajoProtos.FetcherState.FETCH_FAILED) {
+              finishStream();
             }
 
             finishTime = System.currentTimeMillis();
@@ -293,7 +454,9 @@ public class Fetcher {
               state = TajoProtos.FetcherState.FETCH_FINISHED;
             }
 
-            IOUtils.cleanup(LOG, fc, raf);
+            cleanup();
+            lastContentReceived = true;
+            completed.countDown();
           }
         } catch (Exception e) {
           LOG.error(e.getMessage(), e);
@@ -313,9 +476,10 @@ public class Fetcher {
       }
 
       // this fetching will be retry
-      IOUtils.cleanup(LOG, fc, raf);
+      cleanup();
       finishTime = System.currentTimeMillis();
       state = TajoProtos.FetcherState.FETCH_FAILED;
+      completed.countDown();
       ctx.close();
     }
 
@@ -327,30 +491,27 @@ public class Fetcher {
         LOG.error("Channel closed by peer: " + ctx.channel());
         state = TajoProtos.FetcherState.FETCH_FAILED;
       }
-      IOUtils.cleanup(LOG, fc, raf);
-      
+      cleanup();
+      completed.countDown();
+
       super.channelUnregistered(ctx);
     }
   }
 
+  /**
+   * It adds only the http codecs. The timeout handler and the response handler are added for each request, because
+   * a connection can be reused by the other fetchers.
+   */
   class HttpClientChannelInitializer extends ChannelInitializer<Channel> {
-    private final File file;
-
-    public HttpClientChannelInitializer(File file) {
-      this.file = file;
-    }
 
     @Override
     protected void initChannel(Channel channel) throws Exception {
       ChannelPipeline pipeline = channel.pipeline();
 
       int maxChunkSize = conf.getIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_CHUNK_MAX_SIZE);
-      int readTimeout = conf.getIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_READ_TIMEOUT);
 
       pipeline.addLast("codec", new HttpClientCodec(4096, 8192, maxChunkSize));
       pipeline.addLast("inflater", new HttpContentDecompressor());
-      pipeline.addLast("timeout", new ReadTimeoutHandler(readTimeout, TimeUnit.SECONDS));
-      pipeline.addLast("handler", new HttpClientHandler(file));
     }
   }
 }
@@ -0,0 +1,220 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.worker;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.ReferenceCountUtil;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.conf.TajoConf;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FetcherConnectionPool keeps idle keep-alive connections to pull servers, so that {@link Fetcher}s of a worker
+ * reuse them instead of opening a new connection for each fetch.
+ *
+ * While a connection is idle, its pipeline has only the http codecs and an idle handler. The idle handler closes
+ * the connection if it is idle longer than the timeout, or if the pull server sends anything.
+ */
+public class FetcherConnectionPool {
+  private static final Log LOG = LogFactory.getLog(FetcherConnectionPool.class);
+
+  static final String IDLE_STATE_HANDLER = "idle-state";
+  static final String IDLE_HANDLER = "idle";
+
+  private static FetcherConnectionPool instance;
+
+  private final Map<InetSocketAddress, Deque<Channel>> idleChannels = new HashMap<>();
+  private final int maxIdleNum;
+  private final int idleTimeoutSec;
+  private boolean closed;
+
+  FetcherConnectionPool(int maxIdleNum, int idleTimeoutSec) {
+    this.maxIdleNum = maxIdleNum;
+    this.idleTimeoutSec = idleTimeoutSec;
+  }
+
+  public static synchronized FetcherConnectionPool getInstance(TajoConf conf) {
+    if (instance == null) {
+      instance = new FetcherConnectionPool(
+          conf.getIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_IDLE_CONNECTION_MAX_NUM),
+          conf.getIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_IDLE_CONNECTION_TIMEOUT));
+    }
+    return instance;
+  }
+
+  /**
+   * Close the shared pool and all its idle connections. A new pool is created on the next
+   * {@link #getInstance(TajoConf)}.
+   */
+  public static synchronized void shutdown() {
+    if (instance != null) {
+      instance.close();
+      instance = null;
+    }
+  }
+
+  /**
+   * @return an idle connection to a given address, or null if there is no available one.
+   */
+  public Channel acquire(InetSocketAddress address) {
+    while (true) {
+      Channel channel;
+      synchronized (idleChannels) {
+        Deque<Channel> channels = idleChannels.get(address);
+        if (channels == null || channels.isEmpty()) {
+          return null;
+        }
+        channel = channels.pollFirst();
+      }
+
+      if (channel.isActive()) {
+        try {
+          ChannelPipeline pipeline = channel.pipeline();
+          pipeline.remove(IDLE_HANDLER);
+          pipeline.remove(IDLE_STATE_HANDLER);
+          return channel;
+        } catch (Exception e) {
+          // the connection has been closed meanwhile
+          LOG.debug("Discard a closed connection: " + channel, e);
+        }
+      }
+      channel.close();
+    }
+  }
+
+  /**
+   * Return a connection whose response is completely received. Handlers for the response should be removed
+   * in advance. If there are already enough idle connections to the address, it is closed.
+   */
+  public void release(InetSocketAddress address, Channel channel) {
+    if (!channel.isActive()) {
+      channel.close();
+      return;
+    }
+
+    try {
+      ChannelPipeline pipeline = channel.pipeline();
+      pipeline.addLast(IDLE_STATE_HANDLER, new IdleStateHandler(0, 0, idleTimeoutSec, TimeUnit.SECONDS));
+      pipeline.addLast(IDLE_HANDLER, new IdleChannelHandler(address));
+    } catch (Exception e) {
+      LOG.debug("Discard a closed connection: " + channel, e);
+      channel.close();
+      return;
+    }
+
+    synchronized (idleChannels) {
+      Deque<Channel> channels = idleChannels.get(address);
+      if (channels == null) {
+        channels = new ArrayDeque<>();
+        idleChannels.put(address, channels);
+      }
+      if (!closed && channels.size() < maxIdleNum) {
+        // the most recently used one is reused first
+        channels.addFirst(channel);
+        return;
+      }
+    }
+    channel.close();
+  }
+
+  private void remove(InetSocketAddress address, Channel channel) {
+    synchronized (idleChannels) {
+      Deque<Channel> channels = idleChannels.get(address);
+      if (channels != null) {
+        channels.remove(channel);
+        if (channels.isEmpty()) {
+          idleChannels.remove(address);
+        }
+      }
+    }
+  }
+
+  public int getIdleNum(InetSocketAddress address) {
+    synchronized (idleChannels) {
+      Deque<Channel> channels = idleChannels.get(address);
+      return channels == null ? 0 : channels.size();
+    }
+  }
+
+  /**
+   * Close all idle connections. Connections released afterwards are closed instead of being kept.
+   */
+  public void close() {
+    synchronized (idleChannels) {
+      closed = true;
+      for (Deque<Channel> channels : idleChannels.values()) {
+        for (Channel channel : channels) {
+          channel.close();
+        }
+      }
+      idleChannels.clear();
+    }
+  }
+
+  class IdleChannelHandler extends ChannelInboundHandlerAdapter {
+    private final InetSocketAddress address;
+
+    IdleChannelHandler(InetSocketAddress address) {
+      this.address = address;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+      // nothing is expected while the connection is idle
+      ReferenceCountUtil.release(msg);
+      remove(address, ctx.channel());
+      ctx.close();
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+      if (evt instanceof IdleStateEvent) {
+        remove(address, ctx.channel());
+        ctx.close();
+      } else {
+        super.userEventTriggered(ctx, evt);
+      }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+      remove(address, ctx.channel());
+      super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+      remove(address, ctx.channel());
+      ctx.close();
+    }
+  }
+}
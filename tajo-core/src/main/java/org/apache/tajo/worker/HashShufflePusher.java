@@ -0,0 +1,330 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.worker;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.*;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.TaskAttemptId;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.pullserver.TajoPullServerService;
+import org.apache.tajo.rpc.NettyUtils;
+import org.apache.tajo.storage.HashShuffleAppenderManager;
+import org.apache.tajo.storage.StorageConstants;
+import org.apache.tajo.storage.compress.BlockCompression;
+import org.apache.tajo.storage.compress.BlockCompressor;
+import org.apache.tajo.tuple.memory.MemoryRowBlock;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HashShufflePusher sends row blocks of hash partitions to the pull servers of the workers merging them, instead of
+ * writing them to local files. A pull server appends each pushed block to its partition file, and returns the offset.
+ * The pushed pages are recorded in {@link HashShuffleAppenderManager}, and reported as intermediates of the pull
+ * servers when the execution block is completed.
+ *
+ * If the table meta has a compression codec, a row block is pushed as compressed frames of {@link BlockCompression}.
+ *
+ * Connections are shared with {@link Fetcher}s via {@link FetcherConnectionPool}. A failed push is not retried in
+ * general, because the pull server may have appended the block. It fails the task instead. The only exception is a
+ * pooled connection on which the request could not be written, because the pull server may have closed it while it
+ * was idle. Then, the pull server has not received the whole request, and it is sent once more over a fresh
+ * connection. A connection closed after the request was flushed is not retried even without any response.
+ */
+public class HashShufflePusher {
+  private static final Log LOG = LogFactory.getLog(HashShufflePusher.class);
+
+  private static HashShufflePusher instance;
+
+  private final TajoConf conf;
+  private final ExecutorService executor;
+  private final Bootstrap bootstrap;
+  private final boolean keepAlive;
+  private final int readTimeout;
+
+  HashShufflePusher(TajoConf conf) {
+    this.conf = conf;
+    this.executor = Executors.newFixedThreadPool(conf.getIntVar(TajoConf.ConfVars.SHUFFLE_PUSH_THREAD_NUM),
+        new ThreadFactoryBuilder().setNameFormat("HashShufflePusher-%d").setDaemon(true).build());
+    this.keepAlive = conf.getBoolVar(TajoConf.ConfVars.SHUFFLE_FETCHER_KEEP_ALIVE_ENABLED);
+    this.readTimeout = conf.getIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_READ_TIMEOUT);
+    this.bootstrap = new Bootstrap()
+        .group(
+            NettyUtils.getSharedEventLoopGroup(NettyUtils.GROUP.FETCHER,
+                conf.getIntVar(TajoConf.ConfVars.SHUFFLE_RPC_CLIENT_WORKER_THREAD_NUM)))
+        .channel(NioSocketChannel.class)
+        .option(ChannelOption.ALLOCATOR, NettyUtils.ALLOCATOR)
+        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS,
+            conf.getIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_CONNECT_TIMEOUT) * 1000)
+        .option(ChannelOption.TCP_NODELAY, true)
+        .handler(new ChannelInitializer<Channel>() {
+          @Override
+          protected void initChannel(Channel channel) throws Exception {
+            // the same pipeline as the fetcher's one, because connections are shared
+            int maxChunkSize = conf.getIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_CHUNK_MAX_SIZE);
+            channel.pipeline().addLast("codec", new HttpClientCodec(4096, 8192, maxChunkSize));
+            channel.pipeline().addLast("inflater", new HttpContentDecompressor());
+          }
+        });
+  }
+
+  public static synchronized HashShufflePusher getInstance(TajoConf conf) {
+    if (instance == null) {
+      instance = new HashShufflePusher(conf);
+    }
+    return instance;
+  }
+
+  /**
+   * Push a row block of a partition to a pull server asynchronously.
+   *
+   * @param meta The table meta of the partition file
+   * @param pullHost The pull server (host:port) merging the partition
+   * @param release If true, the row block is released after it is sent. Otherwise, it is cleared to be reused.
+   * @return the number of pushed bytes. If the push fails, the future throws an exception.
+   */
+  public Future<Long> push(final HashShuffleAppenderManager appenderManager, final TableMeta meta,
+                           final TaskAttemptId taskId, final String pullHost, final int partId,
+                           final MemoryRowBlock rowBlock, final boolean release) {
+    return executor.submit(() -> {
+      try {
+        ByteBuf content = getContent(meta, rowBlock);
+        int length = content.readableBytes();
+        long pos = send(pullHost, taskId.getTaskId().getExecutionBlockId(), partId, content);
+        appenderManager.addPushedPage(taskId, pullHost, partId, pos, length, rowBlock.rows());
+        return (long) length;
+      } finally {
+        if (release) rowBlock.release();
+        else rowBlock.clear();
+      }
+    });
+  }
+
+  /**
+   * @return the bytes of a row block to be pushed. They are compressed if the table meta has a compression codec.
+   */
+  private ByteBuf getContent(TableMeta meta, MemoryRowBlock rowBlock) throws IOException {
+    ByteBuf buffer = rowBlock.getMemory().getBuffer().duplicate();
+    CompressionCodec codec =
+        BlockCompression.getCodec(conf, meta.getProperty(StorageConstants.COMPRESSION_CODEC, null));
+    if (codec == null) {
+      return buffer.retain();
+    }
+
+    ByteBuf content = Unpooled.buffer(buffer.readableBytes() / 2);
+    try (BlockCompressor compressor = new BlockCompressor(codec)) {
+      while (buffer.isReadable()) {
+        ByteBuffer frame =
+            compressor.compress(buffer, Math.min(buffer.readableBytes(), BlockCompression.FRAME_SIZE));
+        content.writeBytes(frame);
+      }
+    }
+    return content;
+  }
+
+  /**
+   * Send the content, which is released by this method.
+   *
+   * @return the offset of the content in the partition file of the pull server
+   */
+  private long send(String pullHost, ExecutionBlockId ebId, int partId, ByteBuf content)
+      throws IOException {
+    int idx = pullHost.lastIndexOf(':');
+    InetSocketAddress address =
+        new InetSocketAddress(pullHost.substring(0, idx), Integer.parseInt(pullHost.substring(idx + 1)));
+
+    try {
+      Channel channel = keepAlive ? FetcherConnectionPool.getInstance(conf).acquire(address) : null;
+      if (channel != null) {
+        PushResponseHandler handler = send(address, channel, ebId, partId, content.duplicate().retain());
+        if (!handler.isUnsent()) {
+          return handler.getPosition(pullHost, partId);
+        }
+        LOG.warn("Cannot write to a pooled connection to " + pullHost + ". Push partition "
+            + partId + " again over a new connection.");
+      }
+
+      ChannelFuture future = bootstrap.connect(address).awaitUninterruptibly();
+      if (!future.isSuccess()) {
+        throw new IOException("Cannot connect to " + pullHost, future.cause());
+      }
+      return send(address, future.channel(), ebId, partId, content.duplicate().retain())
+          .getPosition(pullHost, partId);
+    } finally {
+      content.release();
+    }
+  }
+
+  /**
+   * Send the content over a connection, and wait until the response is completed or the connection is closed.
+   * The content is released by this method, and the connection is returned to the pool or closed.
+   */
+  private PushResponseHandler send(InetSocketAddress address, Channel channel, ExecutionBlockId ebId, int partId,
+                                   ByteBuf content) {
+    final PushResponseHandler handler = new PushResponseHandler();
+    boolean written = false;
+    try {
+      channel.pipeline().addLast("timeout", new ReadTimeoutHandler(readTimeout, TimeUnit.SECONDS));
+      channel.pipeline().addLast("handler", handler);
+
+      String uri = "/?qid=" + ebId.getQueryId().toString() + "&sid=" + ebId.getId() + "&p=" + partId + "&type=h";
+      FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, uri, content);
+      request.headers().set(HttpHeaders.Names.HOST, address.getHostName());
+      request.headers().set(HttpHeaders.Names.CONNECTION,
+          keepAlive ? HttpHeaders.Values.KEEP_ALIVE : HttpHeaders.Values.CLOSE);
+      HttpHeaders.setContentLength(request, request.content().readableBytes());
+      written = true;
+      ChannelFuture writeFuture = channel.writeAndFlush(request).addListener((ChannelFutureListener) future -> {
+        if (!future.isSuccess()) {
+          handler.writeFailed(future.cause());
+        }
+      });
+
+      handler.awaitResponse();
+      // the connection can be closed before the listener of a failed write is notified
+      if (!writeFuture.awaitUninterruptibly().isSuccess()) {
+        handler.writeFailed(writeFuture.cause());
+      }
+      return handler;
+
+    } catch (Exception e) {
+      if (written) {
+        handler.failed(e);
+      } else {
+        handler.writeFailed(e);
+      }
+      return handler;
+
+    } finally {
+      if (!written) {
+        content.release();
+      }
+      releaseChannel(address, channel, handler);
+    }
+  }
+
+  private void releaseChannel(InetSocketAddress address, Channel channel, PushResponseHandler handler) {
+    if (keepAlive && handler != null && handler.isReusable() && channel.isActive()) {
+      try {
+        channel.pipeline().remove("timeout");
+        channel.pipeline().remove(handler);
+        FetcherConnectionPool.getInstance(conf).release(address, channel);
+        return;
+      } catch (Exception e) {
+        LOG.debug("Failed to reuse the connection: " + channel, e);
+      }
+    }
+
+    if (channel.isOpen()) {
+      channel.close().awaitUninterruptibly();
+    }
+  }
+
+  static class PushResponseHandler extends SimpleChannelInboundHandler<HttpObject> {
+    // counted down when the response is completed or the connection is closed
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private HttpResponse response;
+    private boolean lastContentReceived;
+    private Throwable cause;
+    // true if the request has not been flushed
+    private volatile boolean unsent;
+
+    void awaitResponse() {
+      Uninterruptibles.awaitUninterruptibly(completed);
+    }
+
+    void failed(Throwable cause) {
+      this.cause = cause;
+      completed.countDown();
+    }
+
+    void writeFailed(Throwable cause) {
+      unsent = true;
+      failed(cause);
+    }
+
+    /**
+     * @return true if the request could not be written without any response. Then, the pull server has not received
+     * the whole request, and it can be sent again.
+     */
+    boolean isUnsent() {
+      return unsent && response == null;
+    }
+
+    boolean isReusable() {
+      return lastContentReceived && response != null && HttpHeaders.isKeepAlive(response)
+          && response.getStatus().equals(HttpResponseStatus.OK);
+    }
+
+    long getPosition(String pullHost, int partId) throws IOException {
+      if (!lastContentReceived || response == null) {
+        throw new IOException("Failed to push partition " + partId + " to " + pullHost, cause);
+      }
+      String pos = response.headers().get(TajoPullServerService.PUSH_POSITION_HEADER_NAME);
+      if (!response.getStatus().equals(HttpResponseStatus.OK) || pos == null) {
+        throw new IOException("Failed to push partition " + partId + " to " + pullHost + ": "
+            + response.getStatus());
+      }
+      return Long.parseLong(pos);
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, HttpObject msg) throws Exception {
+      if (msg instanceof HttpResponse) {
+        response = (HttpResponse) msg;
+      }
+      if (msg instanceof LastHttpContent) {
+        lastContentReceived = true;
+        completed.countDown();
+      }
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+      this.cause = cause;
+      LOG.error(cause.getMessage(), cause);
+      ctx.close();
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+      completed.countDown();
+      super.channelInactive(ctx);
+    }
+  }
+}
@@ -0,0 +1,208 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import io.netty.buffer.ByteBuf;
+import org.apache.tajo.pullserver.retriever.FileChunk;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ShuffleDataStream passes the shuffle data of an input table from fetchers to the scanner of a task
+ * as soon as each fetch completes, so that the task does not wait for all fetches to be done.
+ *
+ * A fetched response is kept in memory if the total size of buffered responses does not exceed the memory limit.
+ * Otherwise, it is written to a local file as the non-streaming fetch does. Both are read by
+ * {@link ShuffleStreamScanner}.
+ */
+public class ShuffleDataStream {
+
+  /**
+   * A fetched response, which is either in memory or in a local file.
+   */
+  static class Segment {
+    private final ByteBuf buffer;
+    private final FileChunk chunk;
+
+    private Segment(ByteBuf buffer, FileChunk chunk) {
+      this.buffer = buffer;
+      this.chunk = chunk;
+    }
+
+    public boolean isMemory() {
+      return buffer != null;
+    }
+
+    public ByteBuf getBuffer() {
+      return buffer;
+    }
+
+    public FileChunk getChunk() {
+      return chunk;
+    }
+  }
+
+  // the end of the stream
+  private static final Segment END = new Segment(null, null);
+
+  private final String tableName;
+  private final long memoryLimit;
+  private int fetchNum;
+  private final AtomicLong usedMemory = new AtomicLong();
+  // It includes the registration of fetches. See finishRegistration().
+  private final AtomicInteger remainFetchNum = new AtomicInteger(1);
+  private final AtomicInteger finishedFetchNum = new AtomicInteger();
+  private final BlockingQueue<Segment> segments = new LinkedBlockingQueue<>();
+
+  private volatile boolean failed;
+  private volatile boolean closed;
+
+  public ShuffleDataStream(String tableName, long memoryLimit) {
+    this.tableName = tableName;
+    this.memoryLimit = memoryLimit;
+  }
+
+  public String getTableName() {
+    return tableName;
+  }
+
+  /**
+   * Reserve memory for a fetched buffer.
+   *
+   * @return False if the memory limit is exceeded. Then, the response should be written to a file.
+   */
+  public boolean reserve(int bytes) {
+    if (usedMemory.addAndGet(bytes) > memoryLimit) {
+      usedMemory.addAndGet(-bytes);
+      return false;
+    }
+    return true;
+  }
+
+  public void release(long bytes) {
+    usedMemory.addAndGet(-bytes);
+  }
+
+  public long getUsedMemory() {
+    return usedMemory.get();
+  }
+
+  /**
+   * Add a fetched response in memory. Its memory should be reserved in advance.
+   */
+  public void addBuffer(ByteBuf buffer) {
+    segments.add(new Segment(buffer, null));
+    if (closed) {
+      releaseAll();
+    }
+  }
+
+  /**
+   * Add a fetched response, or a local shuffle file.
+   */
+  public void addFile(FileChunk chunk) {
+    segments.add(new Segment(null, chunk));
+  }
+
+  /**
+   * It should be called for each fetch before fetches start.
+   */
+  public void addFetch() {
+    fetchNum++;
+    remainFetchNum.incrementAndGet();
+  }
+
+  public int getFetchNum() {
+    return fetchNum;
+  }
+
+  /**
+   * It should be called after all fetches are added. The stream ends when all added fetches are done.
+   */
+  public void finishRegistration() {
+    countDown();
+  }
+
+  /**
+   * It should be called when each fetch is done.
+   */
+  public void finishFetch() {
+    finishedFetchNum.incrementAndGet();
+    countDown();
+  }
+
+  private void countDown() {
+    if (remainFetchNum.decrementAndGet() == 0) {
+      segments.add(END);
+    }
+  }
+
+  /**
+   * It should be called when a fetch fails finally.
+   */
+  public void fail() {
+    failed = true;
+    segments.add(END);
+  }
+
+  public boolean isFailed() {
+    return failed;
+  }
+
+  public float getProgress() {
+    if (fetchNum == 0) {
+      return 1.0f;
+    }
+    return finishedFetchNum.get() / (float) fetchNum;
+  }
+
+  /**
+   * @return the next segment. It blocks until a fetch is done. Null if all fetches are done.
+   */
+  Segment take() throws InterruptedException {
+    Segment segment = segments.take();
+    if (segment == END) {
+      // for subsequent calls
+      segments.add(END);
+      return null;
+    }
+    return segment;
+  }
+
+  /**
+   * Release buffered responses. Responses fetched after closing are released immediately.
+   */
+  public void close() {
+    closed = true;
+    releaseAll();
+  }
+
+  private void releaseAll() {
+    Segment segment;
+    while ((segment = segments.poll()) != null) {
+      if (segment.isMemory()) {
+        release(segment.getBuffer().readableBytes());
+        segment.getBuffer().release();
+      }
+    }
+  }
+}
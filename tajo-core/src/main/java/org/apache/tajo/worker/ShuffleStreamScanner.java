@@ -0,0 +1,256 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import io.netty.buffer.ByteBuf;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.exception.TajoRuntimeException;
+import org.apache.tajo.exception.UnsupportedException;
+import org.apache.tajo.pullserver.retriever.FileChunk;
+import org.apache.tajo.storage.AbstractScanner;
+import org.apache.tajo.storage.RawFile;
+import org.apache.tajo.storage.Scanner;
+import org.apache.tajo.storage.TablespaceManager;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.fragment.FileFragment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * ShuffleStreamScanner reads the shuffle data of a {@link ShuffleDataStream} while the data are being fetched.
+ *
+ * Fetched responses are read in the order of completion. A response in memory is decoded in the same way as
+ * {@link RawFile}, and it is released as soon as it is read. A response written to a local file is read by
+ * the scanner of the table format.
+ */
+public class ShuffleStreamScanner extends AbstractScanner {
+  private final TajoConf conf;
+  private final Schema schema;
+  private final TableMeta meta;
+  private final ShuffleDataStream stream;
+
+  private ShuffleDataStream.Segment currentSegment;
+  private Scanner currentScanner;
+  private boolean eof;
+
+  // the sum of input stats of closed scanners
+  private TableStats inputStats;
+
+  public ShuffleStreamScanner(TajoConf conf, Schema schema, TableMeta meta, ShuffleDataStream stream) {
+    this.conf = conf;
+    this.schema = schema;
+    this.meta = meta;
+    this.stream = stream;
+  }
+
+  @Override
+  public void init() throws IOException {
+    inputStats = new TableStats();
+    inputStats.setNumBytes(0);
+    inputStats.setReadBytes(0);
+    inputStats.setNumRows(0);
+  }
+
+  @Override
+  public Tuple next() throws IOException {
+    while (!eof) {
+      if (currentScanner != null) {
+        Tuple tuple = currentScanner.next();
+        if (tuple != null) {
+          return tuple;
+        }
+        closeCurrentScanner();
+      }
+      openNextScanner();
+    }
+    return null;
+  }
+
+  private void openNextScanner() throws IOException {
+    try {
+      currentSegment = stream.take();
+    } catch (InterruptedException e) {
+      throw new IOException(e);
+    }
+
+    if (currentSegment == null) {
+      eof = true;
+      if (stream.isFailed()) {
+        throw new IOException("Failed to fetch the shuffle data of " + stream.getTableName());
+      }
+      return;
+    }
+
+    if (currentSegment.isMemory()) {
+      ByteBuf buffer = currentSegment.getBuffer();
+      FileFragment fragment = new FileFragment(stream.getTableName(),
+          new Path("memory:///" + stream.getTableName()), 0, buffer.readableBytes());
+      currentScanner = new ByteBufScanner(conf, schema, meta, fragment, buffer);
+    } else {
+      FileChunk chunk = currentSegment.getChunk();
+      FileFragment fragment = new FileFragment(stream.getTableName(), new Path(chunk.getFile().toURI()),
+          chunk.startOffset(), chunk.length());
+      currentScanner = TablespaceManager.getLocalFs().getScanner(meta, schema, fragment, schema);
+    }
+    currentScanner.init();
+  }
+
+  private void closeCurrentScanner() throws IOException {
+    try {
+      currentScanner.close();
+
+      TableStats stats = currentScanner.getInputStats();
+      if (stats != null) {
+        inputStats.setNumBytes(inputStats.getNumBytes() + stats.getNumBytes());
+        inputStats.setReadBytes(inputStats.getReadBytes() + stats.getReadBytes());
+        inputStats.setNumRows(inputStats.getNumRows() + stats.getNumRows());
+      }
+    } finally {
+      if (currentSegment.isMemory()) {
+        stream.release(currentSegment.getBuffer().readableBytes());
+        currentSegment.getBuffer().release();
+      }
+      currentScanner = null;
+      currentSegment = null;
+    }
+  }
+
+  @Override
+  public void reset() throws IOException {
+    // released data cannot be read again
+    throw new TajoRuntimeException(new UnsupportedException("rescan of streamed shuffle data"));
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (currentScanner != null) {
+      closeCurrentScanner();
+    }
+    stream.close();
+  }
+
+  @Override
+  public Schema getSchema() {
+    return schema;
+  }
+
+  @Override
+  public float getProgress() {
+    return eof ? 1.0f : stream.getProgress();
+  }
+
+  @Override
+  public TableStats getInputStats() {
+    return inputStats;
+  }
+
+  /**
+   * It reads a fetched response in memory in the same way as {@link RawFile}.
+   */
+  private static class ByteBufScanner extends RawFile.RawFileScanner {
+    private final ByteBuf buffer;
+
+    ByteBufScanner(TajoConf conf, Schema schema, TableMeta meta, FileFragment fragment, ByteBuf buffer)
+        throws IOException {
+      super(conf, schema, meta, fragment);
+      this.buffer = buffer;
+    }
+
+    @Override
+    protected SeekableByteChannel openChannel() throws IOException {
+      return new ByteBufChannel(buffer);
+    }
+  }
+
+  /**
+   * A read-only channel of the readable bytes of a buffer. Closing it does not release the buffer.
+   */
+  private static class ByteBufChannel implements SeekableByteChannel {
+    private final ByteBuf buffer;
+    private long position;
+    private boolean open = true;
+
+    ByteBufChannel(ByteBuf buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      if (!open) {
+        throw new ClosedChannelException();
+      }
+      long remain = size() - position;
+      if (remain <= 0) {
+        return -1;
+      }
+
+      int length = (int) Math.min(dst.remaining(), remain);
+      ByteBuffer target = dst.duplicate();
+      target.limit(target.position() + length);
+      buffer.getBytes(buffer.readerIndex() + (int) position, target);
+      dst.position(dst.position() + length);
+      position += length;
+      return length;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+      throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+      return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+      this.position = newPosition;
+      return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+      return buffer.readableBytes();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) throws IOException {
+      throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+      return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+      open = false;
+    }
+  }
+}
@@ -296,6 +296,8 @@ public class TajoWorker extends CompositeService {
       hashShuffleAppenderManager.shutdown();
     }
 
+    FetcherConnectionPool.shutdown();
+
     if(webServer != null) {
       try {
         webServer.stop();
@@ -24,12 +24,16 @@ import com.google.common.collect.Maps;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.fs.Path;
+import org.apache.tajo.ResourceProtos.RuntimeFilterProto;
 import org.apache.tajo.TajoProtos.TaskAttemptState;
 import org.apache.tajo.TaskAttemptId;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.proto.CatalogProtos.PartitionDescProto;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.engine.codegen.ScanPipeline;
+import org.apache.tajo.engine.codegen.ScanPipelineCompiler;
+import org.apache.tajo.engine.codegen.TupleComparatorCompiler;
 import org.apache.tajo.engine.planner.enforce.Enforcer;
 import org.apache.tajo.engine.planner.global.DataChannel;
 import org.apache.tajo.engine.query.QueryContext;
@@ -56,6 +60,8 @@ import static org.apache.tajo.catalog.proto.CatalogProtos.FragmentProto;
 public class TaskAttemptContext {
   private static final Log LOG = LogFactory.getLog(TaskAttemptContext.class);
   private final Map<String, List<FragmentProto>> fragmentMap = Maps.newHashMap();
+  /** input tables which are scanned while being fetched */
+  private final Map<String, ShuffleDataStream> shuffleDataStreams = Maps.newHashMap();
 
   private volatile TaskAttemptState state;
   private TableStats resultStats;
@@ -82,6 +88,10 @@ public class TaskAttemptContext {
   /** a output volume for each partition */
   private Map<Integer, Long> partitionOutputVolume;
   private HashShuffleAppenderManager hashShuffleAppenderManager;
+  /** pull servers receiving pushed hash partitions. It is empty if partitions are written locally. */
+  private List<String> shufflePushTargets = Collections.emptyList();
+  /** bloom filters applied to scans, keyed by the canonical names of the scans */
+  private Map<String, RuntimeFilterProto> runtimeFilters = Collections.emptyMap();
 
   private EvalContext evalContext = new EvalContext();
 
@@ -96,6 +106,8 @@ public class TaskAttemptContext {
     if (executionBlockContext != null) { // For unit tests
       this.workerContext = executionBlockContext.getWorkerContext();
       this.sharedResource = executionBlockContext.getSharedResource();
+      this.shufflePushTargets = executionBlockContext.getShufflePushTargets();
+      this.runtimeFilters = executionBlockContext.getRuntimeFilters();
     }
 
     this.taskId = taskId;
@@ -189,6 +201,31 @@ public class TaskAttemptContext {
     return this.resultStats;
   }
 
+  /**
+   * @return a scan pipeline generated by {@link ScanPipelineCompiler}, or null if the shared resource is not
+   * initialized
+   */
+  public ScanPipeline compileScanPipeline(Schema schema, EvalNode[] conjuncts, EvalNode[] targets) {
+    if (sharedResource != null) {
+      return sharedResource.compileScanPipeline(schema, conjuncts, targets);
+    } else {
+      LOG.debug("Shared resource is not initialized. It is NORMAL in unit tests");
+      return null;
+    }
+  }
+
+  /**
+   * @return the compiler of tuple comparators, or null if the shared resource is not initialized
+   */
+  public TupleComparatorCompiler getComparatorCompiler() {
+    if (sharedResource != null) {
+      return sharedResource.getComparatorCompiler();
+    } else {
+      LOG.debug("Shared resource is not initialized. It is NORMAL in unit tests");
+      return null;
+    }
+  }
+
   public boolean isStopped() {
     return this.stopped;
   }
@@ -230,6 +267,21 @@ public class TaskAttemptContext {
   public CountDownLatch getFetchLatch() {
     return doneFetchPhaseSignal;
   }
+
+  public void addShuffleDataStream(ShuffleDataStream stream) {
+    shuffleDataStreams.put(stream.getTableName(), stream);
+  }
+
+  /**
+   * @return the stream of an input table, or null if the table is not scanned while being fetched
+   */
+  public ShuffleDataStream getShuffleDataStream(String tableName) {
+    return shuffleDataStreams.get(tableName);
+  }
+
+  public Collection<ShuffleDataStream> getShuffleDataStreams() {
+    return shuffleDataStreams.values();
+  }
   
   public void addShuffleFileOutput(int partId, String fileName) {
     shuffleFileOutputs.put(partId, fileName);
@@ -407,6 +459,22 @@ public class TaskAttemptContext {
     return hashShuffleAppenderManager;
   }
 
+  public List<String> getShufflePushTargets() {
+    return shufflePushTargets;
+  }
+
+  @VisibleForTesting
+  public void setShufflePushTargets(List<String> shufflePushTargets) {
+    this.shufflePushTargets = shufflePushTargets;
+  }
+
+  /**
+   * @return a bloom filter built by the other side of a join for a scan, or null if the scan is not filtered.
+   */
+  public RuntimeFilterProto getRuntimeFilter(String tableName) {
+    return runtimeFilters.get(tableName);
+  }
+
   public EvalContext getEvalContext() {
     return evalContext;
   }
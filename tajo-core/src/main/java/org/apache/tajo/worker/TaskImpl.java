@@ -27,6 +27,8 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.CommonConfigurationKeysPublic;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.tajo.BuiltinStorages;
+import org.apache.tajo.SessionVars;
 import org.apache.tajo.TajoProtos;
 import org.apache.tajo.TajoProtos.TaskAttemptState;
 import org.apache.tajo.TaskAttemptId;
@@ -59,6 +61,7 @@ import org.apache.tajo.querymaster.Repartitioner;
 import org.apache.tajo.rpc.NullCallback;
 import org.apache.tajo.storage.*;
 import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.unit.StorageUnit;
 import org.apache.tajo.util.NetUtils;
 
 import java.io.File;
@@ -408,10 +411,17 @@ public class TaskImpl implements Task {
       if(!context.isStopped()) {
         context.setState(TajoProtos.TaskAttemptState.TA_RUNNING);
         if (context.hasFetchPhase()) {
-          // If the fetch is still in progress, the query unit must wait for complete.
-          waitForFetch();
-          context.setFetcherProgress(FETCHER_PROGRESS);
-          updateProgress();
+          if (context.getShuffleDataStreams().isEmpty()) {
+            // If the fetch is still in progress, the query unit must wait for complete.
+            waitForFetch();
+            context.setFetcherProgress(FETCHER_PROGRESS);
+            updateProgress();
+          } else {
+            // streamed tables are scanned while being fetched, instead of fetched fragments
+            for (ShuffleDataStream stream : context.getShuffleDataStreams()) {
+              context.updateAssignedFragments(stream.getTableName(), new FileFragment[0]);
+            }
+          }
         }
 
         this.executor = executionBlockContext.getTQueryEngine().createPlan(context, plan);
@@ -435,6 +445,9 @@ public class TaskImpl implements Task {
         }
         this.executor = null;
       }
+      for (ShuffleDataStream stream : context.getShuffleDataStreams()) {
+        stream.close();
+      }
 
       executionBlockContext.completedTasksNum.incrementAndGet();
       context.getHashShuffleAppenderManager().finalizeTask(getId());
@@ -615,7 +628,9 @@ public class TaskImpl implements Task {
             if (fetcher.getState() == TajoProtos.FetcherState.FETCH_FINISHED) {
               for (FileChunk eachFetch : fetched) {
                 if (eachFetch.getFile() != null) {
-                  if (!eachFetch.fromRemote()) {
+                  if (fetcher.getStream() != null) {
+                    fetcher.getStream().addFile(eachFetch);
+                  } else if (!eachFetch.fromRemote()) {
                     localChunks.add(eachFetch);
                   } else {
                     remoteChunks.add(eachFetch);
@@ -631,8 +646,14 @@ public class TaskImpl implements Task {
         }
       } finally {
         if(fetcher.getState() == TajoProtos.FetcherState.FETCH_FINISHED){
+          if (fetcher.getStream() != null) {
+            fetcher.getStream().finishFetch();
+          }
           fetcherFinished(ctx);
         } else {
+          if (fetcher.getStream() != null) {
+            fetcher.getStream().fail();
+          }
           if (retryNum == maxRetryNum) {
             LOG.error("ERROR: the maximum retry (" + retryNum + ") on the fetch exceeded (" + fetcher.getURI() + ")");
           }
@@ -683,22 +704,34 @@ public class TaskImpl implements Task {
       List<FileChunk> storeChunkList = new ArrayList<>();
       List<Fetcher> runnerList = Lists.newArrayList();
 
-      for (FetchProto f : fetches) {
+      String streamingTable = getStreamingTable(fetches);
+      ShuffleDataStream stream = null;
+      if (streamingTable != null) {
+        stream = new ShuffleDataStream(streamingTable,
+            queryContext.getInt(SessionVars.SHUFFLE_FETCH_STREAMING_BUFFER_SIZE) * (long) StorageUnit.MB);
+      }
+
+      // partitions of the same pull server are requested together
+      int maxBatchNum = systemConf.getIntVar(ConfVars.SHUFFLE_FETCHER_BATCH_PARTITION_MAX_NUM);
+      for (List<FetchProto> batch : Repartitioner.groupFetchesByPullServer(fetches, maxBatchNum)) {
+        FetchProto f = batch.get(0);
         storeDir = new File(inputDir.toString(), f.getName());
         if (!storeDir.exists()) {
           if (!storeDir.mkdirs()) throw new IOException("Failed to create " + storeDir);
         }
 
-        for (URI uri : Repartitioner.createFullURIs(maxUrlLength, f)) {
+        for (URI uri : Repartitioner.createBatchedURIs(maxUrlLength, batch)) {
           storeChunkList.clear();
           defaultStoreFile = new File(storeDir, "in_" + i);
           InetAddress address = InetAddress.getByName(uri.getHost());
 
           WorkerConnectionInfo conn = executionBlockContext.getWorkerContext().getConnectionInfo();
+          List<FileChunk> localChunkCandidates = null;
           if (NetUtils.isLocalAddress(address) && conn.getPullServerPort() == uri.getPort()) {
+            localChunkCandidates = getLocalStoredFileChunk(uri, systemConf);
+          }
 
-            List<FileChunk> localChunkCandidates = getLocalStoredFileChunk(uri, systemConf);
-
+          if (localChunkCandidates != null) {
             for (FileChunk localChunk : localChunkCandidates) {
               // When a range request is out of range, storeChunk will be NULL. This case is normal state.
               // So, we should skip and don't need to create storeChunk.
@@ -727,7 +760,10 @@ public class TaskImpl implements Task {
           // If we decide that intermediate data should be really fetched from a remote host, storeChunk
           // represents a complete file. Otherwise, storeChunk may represent a complete file or only a part of it
           for (FileChunk eachChunk : storeChunkList) {
-            Fetcher fetcher = new Fetcher(systemConf, uri, eachChunk);
+            Fetcher fetcher = new Fetcher(systemConf, uri, eachChunk, stream);
+            if (stream != null) {
+              stream.addFetch();
+            }
             runnerList.add(fetcher);
             i++;
             if (LOG.isDebugEnabled()) {
@@ -737,6 +773,11 @@ public class TaskImpl implements Task {
         }
       }
       ctx.addFetchPhase(runnerList.size(), new File(inputDir.toString()));
+      if (stream != null) {
+        stream.finishRegistration();
+        ctx.addShuffleDataStream(stream);
+        LOG.info("Shuffle data of " + streamingTable + " are scanned while being fetched");
+      }
       LOG.info("Create shuffle Fetchers local:" + localStoreChunkCount +
           ", remote:" + (runnerList.size() - localStoreChunkCount));
       return runnerList;
@@ -745,6 +786,46 @@ public class TaskImpl implements Task {
     }
   }
 
+  /**
+   * @return the input table whose shuffle data can be scanned while being fetched, or null.
+   *
+   * The streaming fetch is used only if all fetches are hash shuffles of a single input table in the raw format,
+   * and the table is the only scan of the plan. For multiple inputs, the physical planner chooses algorithms by
+   * the volumes of fetched data. Also, streamed data cannot be rescanned.
+   */
+  private String getStreamingTable(List<FetchProto> fetches) {
+    if (!queryContext.getBool(SessionVars.SHUFFLE_FETCH_STREAMING_ENABLED)) {
+      return null;
+    }
+
+    String tableName = null;
+    for (FetchProto fetch : fetches) {
+      if (fetch.getType() != ShuffleType.HASH_SHUFFLE && fetch.getType() != ShuffleType.SCATTERED_HASH_SHUFFLE) {
+        return null;
+      }
+      if (tableName != null && !tableName.equals(fetch.getName())) {
+        return null;
+      }
+      tableName = fetch.getName();
+    }
+
+    LogicalNode[] scanNodes = PlannerUtil.findAllNodes(plan, NodeType.SCAN, NodeType.PARTITIONS_SCAN,
+        NodeType.INDEX_SCAN);
+    if (tableName == null || scanNodes.length != 1 || scanNodes[0].getType() != NodeType.SCAN) {
+      return null;
+    }
+    ScanNode scanNode = (ScanNode) scanNodes[0];
+    if (!scanNode.getCanonicalName().equals(tableName)
+        || !BuiltinStorages.RAW.equals(scanNode.getTableDesc().getMeta().getDataFormat())) {
+      return null;
+    }
+    return tableName;
+  }
+
+  /**
+   * @return the chunks of local files. If some chunks cannot be read from the files directly, e.g., a range of
+   * a compressed file, null.
+   */
   private List<FileChunk> getLocalStoredFileChunk(URI fetchURI, TajoConf conf) throws IOException {
     // Parse the URI
 
@@ -792,6 +873,9 @@ public class TaskImpl implements Task {
 
         try {
           FileChunk chunk = TajoPullServerService.getFileChunks(queryId, sid, path, startKey, endKey, last);
+          if (chunk != null && chunk.getPrefix() != null) {
+            return null;
+          }
           chunkList.add(chunk);
         } catch (Throwable t) {
           LOG.error(t.getMessage(), t);
@@ -805,23 +889,27 @@ public class TaskImpl implements Task {
 
       // If the stage requires a hash shuffle or a scattered hash shuffle
     } else if (shuffleType.equals("h") || shuffleType.equals("s")) {
-      int partParentId = HashShuffleAppenderManager.getPartParentId(Integer.parseInt(partId), conf);
-      Path partPath = StorageUtil.concatPath(queryBaseDir, "hash-shuffle", String.valueOf(partParentId), partId);
+      // a hash shuffle request can have multiple partitions
+      for (String eachPartId : TajoPullServerService.splitMaps(params.get("p"))) {
+        int partParentId = HashShuffleAppenderManager.getPartParentId(Integer.parseInt(eachPartId), conf);
+        Path partPath = StorageUtil.concatPath(queryBaseDir, "hash-shuffle", String.valueOf(partParentId),
+            eachPartId);
+
+        if (!executionBlockContext.getLocalDirAllocator().ifExists(partPath.toString(), conf)) {
+          throw new IOException("Hash shuffle or Scattered hash shuffle - file not exist: " + partPath);
+        }
+        Path path = executionBlockContext.getLocalFS().makeQualified(
+          executionBlockContext.getLocalDirAllocator().getLocalPathToRead(partPath.toString(), conf));
+        File file = new File(path.toUri());
+        long startPos = (offset >= 0 && length >= 0) ? offset : 0;
+        long readLen = (offset >= 0 && length >= 0) ? length : file.length();
 
-      if (!executionBlockContext.getLocalDirAllocator().ifExists(partPath.toString(), conf)) {
-        throw new IOException("Hash shuffle or Scattered hash shuffle - file not exist: " + partPath);
-      }
-      Path path = executionBlockContext.getLocalFS().makeQualified(
-        executionBlockContext.getLocalDirAllocator().getLocalPathToRead(partPath.toString(), conf));
-      File file = new File(path.toUri());
-      long startPos = (offset >= 0 && length >= 0) ? offset : 0;
-      long readLen = (offset >= 0 && length >= 0) ? length : file.length();
-
-      if (startPos >= file.length()) {
-        throw new IOException("Start pos[" + startPos + "] great than file length [" + file.length() + "]");
+        if (startPos >= file.length()) {
+          throw new IOException("Start pos[" + startPos + "] great than file length [" + file.length() + "]");
+        }
+        FileChunk chunk = new FileChunk(file, startPos, readLen);
+        chunkList.add(chunk);
       }
-      FileChunk chunk = new FileChunk(file, startPos, readLen);
-      chunkList.add(chunk);
 
     } else {
       throw new IOException("Unknown shuffle type");
@@ -711,6 +711,9 @@ public class ExprAnnotator extends BaseAlgebraVisitor<ExprAnnotator.Context, Eva
     FunctionType functionType;
 
     WindowFrame frame = null;
+    if (windowSpec.hasWindowFrame()) {
+      frame = visitWindowFrame(ctx, stack, windowSpec.getWindowFrame(), sortKeys);
+    }
 
     if (params.length > 0) {
       givenArgs[0] = visit(ctx, stack, params[0]);
@@ -763,6 +766,65 @@ public class ExprAnnotator extends BaseAlgebraVisitor<ExprAnnotator.Context, Eva
     return new WindowFunctionEval(funcDesc, givenArgs, frame);
   }
 
+  /**
+   * Convert an explicit window frame. A frame without an end bound ends at the current row.
+   * An offset of a RANGE frame requires a single numeric sort key.
+   */
+  private WindowFrame visitWindowFrame(Context ctx, Stack<Expr> stack, WindowSpec.WindowFrame frameExpr,
+                                       EvalNode [] sortKeys) throws TajoException {
+    WindowSpec.WindowFrameUnit unit = frameExpr.getUnit();
+
+    WindowSpec.WindowStartBound startExpr = frameExpr.getStartBound();
+    WindowStartBound startBound = new WindowStartBound(startExpr.getBoundType());
+    if (startExpr.getBoundType() == WindowFrameStartBoundType.PRECEDING) {
+      startBound.setNumber(visitFrameOffset(ctx, stack, unit, startExpr.getNumber(), sortKeys));
+    }
+
+    WindowEndBound endBound;
+    if (frameExpr.hasEndBound()) {
+      WindowSpec.WindowEndBound endExpr = frameExpr.getEndBound();
+      endBound = new WindowEndBound(endExpr.getBoundType());
+      if (endExpr.getBoundType() == WindowFrameEndBoundType.FOLLOWING) {
+        endBound.setNumber(visitFrameOffset(ctx, stack, unit, endExpr.getNumber(), sortKeys));
+      }
+    } else {
+      endBound = new WindowEndBound(WindowFrameEndBoundType.CURRENT_ROW);
+    }
+
+    WindowFrame frame = new WindowFrame(startBound, endBound);
+    frame.setFrameUnit(unit);
+    return frame;
+  }
+
+  private EvalNode visitFrameOffset(Context ctx, Stack<Expr> stack, WindowSpec.WindowFrameUnit unit, Expr offset,
+                                    EvalNode [] sortKeys) throws TajoException {
+    EvalNode number = visit(ctx, stack, offset);
+    if (number.getType() != EvalType.CONST || !isNumericType(number.getValueType().getType())) {
+      throw makeSyntaxError("The offset of a window frame must be a numeric constant: " + offset);
+    }
+    if (((ConstEval) number).getValue().asFloat8() < 0) {
+      throw makeSyntaxError("The offset of a window frame must not be negative: " + offset);
+    }
+
+    if (unit == WindowSpec.WindowFrameUnit.ROW) {
+      if (!isIntegerType(number.getValueType().getType())) {
+        throw makeSyntaxError("The offset of a ROWS window frame must be an integer: " + offset);
+      }
+    } else if (sortKeys == null || sortKeys.length != 1 ||
+        !isNumericType(sortKeys[0].getValueType().getType())) {
+      throw makeSyntaxError("A RANGE window frame with an offset requires exactly one numeric ORDER BY key");
+    }
+    return number;
+  }
+
+  private static boolean isIntegerType(Type type) {
+    return type == Type.INT1 || type == Type.INT2 || type == Type.INT4 || type == Type.INT8;
+  }
+
+  private static boolean isNumericType(Type type) {
+    return isIntegerType(type) || type == Type.FLOAT4 || type == Type.FLOAT8 || type == Type.NUMERIC;
+  }
+
   ///////////////////////////////////////////////////////////////////////////////////////////////////////////
   // Literal Section
   ///////////////////////////////////////////////////////////////////////////////////////////////////////////
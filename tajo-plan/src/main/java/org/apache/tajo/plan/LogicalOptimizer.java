@@ -90,8 +90,9 @@ public class LogicalOptimizer {
 
     if (context == null || context.getBool(SessionVars.TEST_JOIN_OPT_ENABLED)) {
       // default is true
+      JoinOrderAlgorithm algorithm = getJoinOrderAlgorithm(context);
       while (blockCursor.hasNext()) {
-        optimizeJoinOrder(plan, blockCursor.nextBlock());
+        optimizeJoinOrder(algorithm, plan, blockCursor.nextBlock());
       }
     } else {
       LOG.info("Skip join order optimization");
@@ -100,7 +101,16 @@ public class LogicalOptimizer {
     return plan.getRootBlock().getRoot();
   }
 
-  private void optimizeJoinOrder(LogicalPlan plan, String blockName) throws TajoException {
+  private JoinOrderAlgorithm getJoinOrderAlgorithm(OverridableConf context) {
+    if (context != null && context.get(SessionVars.JOIN_ORDER_ALGORITHM).equalsIgnoreCase("dp")) {
+      return new DynamicProgrammingJoinOrderAlgorithm(context.getInt(SessionVars.JOIN_ORDER_DP_MAX_RELATIONS));
+    } else {
+      return joinOrderAlgorithm;
+    }
+  }
+
+  private void optimizeJoinOrder(JoinOrderAlgorithm joinOrderAlgorithm, LogicalPlan plan, String blockName)
+      throws TajoException {
     LogicalPlan.QueryBlock block = plan.getBlock(blockName);
 
     if (block.hasNode(NodeType.JOIN)) {
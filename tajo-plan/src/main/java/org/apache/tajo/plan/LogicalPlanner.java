@@ -2267,6 +2267,27 @@ public class LogicalPlanner extends BaseAlgebraVisitor<LogicalPlanner.PlanContex
     return truncateTableNode;
   }
 
+  @Override
+  public LogicalNode visitAnalyzeTable(PlanContext context, Stack<Expr> stack, AnalyzeTable analyzeTable)
+      throws TajoException {
+    stack.push(analyzeTable);
+    LogicalNode child = visit(context, stack, analyzeTable.getChild());
+    stack.pop();
+
+    QueryBlock block = context.queryBlock;
+    RelationNode relationNode = block.getRelations().iterator().next();
+    if (!(relationNode instanceof ScanNode)) {
+      throw new UnsupportedException("ANALYZE TABLE on " + relationNode.getType());
+    }
+
+    AnalyzeTableNode analyzeTableNode = block.getNodeFromExpr(analyzeTable);
+    analyzeTableNode.setTableName(((ScanNode) relationNode).getTableName());
+    analyzeTableNode.setInSchema(child.getOutSchema());
+    analyzeTableNode.setOutSchema(child.getOutSchema());
+    analyzeTableNode.setChild(child);
+    return analyzeTableNode;
+  }
+
   /*===============================================================================================
     Util SECTION
   ===============================================================================================*/
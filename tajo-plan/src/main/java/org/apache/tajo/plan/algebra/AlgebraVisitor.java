@@ -55,6 +55,7 @@ public interface AlgebraVisitor<CONTEXT, RESULT> {
   RESULT visitTruncateTable(CONTEXT ctx, Stack<Expr> stack, TruncateTable expr) throws TajoException;
   RESULT visitCreateIndex(CONTEXT ctx, Stack<Expr> stack, CreateIndex expr) throws TajoException;
   RESULT visitDropIndex(CONTEXT ctx, Stack<Expr> stack, DropIndex expr) throws TajoException;
+  RESULT visitAnalyzeTable(CONTEXT ctx, Stack<Expr> stack, AnalyzeTable expr) throws TajoException;
 
     // Insert or Update
   RESULT visitInsert(CONTEXT ctx, Stack<Expr> stack, Insert expr) throws TajoException;
@@ -132,6 +132,9 @@ public class BaseAlgebraVisitor<CONTEXT, RESULT> implements AlgebraVisitor<CONTE
     case DropIndex:
       current = visitDropIndex(ctx, stack, (DropIndex) expr);
       break;
+    case AnalyzeTable:
+      current = visitAnalyzeTable(ctx, stack, (AnalyzeTable) expr);
+      break;
 
     case Insert:
       current = visitInsert(ctx, stack, (Insert) expr);
@@ -504,6 +507,11 @@ public class BaseAlgebraVisitor<CONTEXT, RESULT> implements AlgebraVisitor<CONTE
   public RESULT visitTruncateTable(CONTEXT ctx, Stack<Expr> stack, TruncateTable expr) throws TajoException {
     return null;
   }
+
+  @Override
+  public RESULT visitAnalyzeTable(CONTEXT ctx, Stack<Expr> stack, AnalyzeTable expr) throws TajoException {
+    return null;
+  }
   ///////////////////////////////////////////////////////////////////////////////////////////////////////////
   // Insert or Update Section
   ///////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -0,0 +1,497 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.plan.joinorder;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.algebra.JoinType;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.SchemaUtil;
+import org.apache.tajo.catalog.statistics.ColumnStats;
+import org.apache.tajo.catalog.statistics.FrequentValues;
+import org.apache.tajo.catalog.statistics.Histogram;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.exception.TajoException;
+import org.apache.tajo.plan.LogicalPlan;
+import org.apache.tajo.plan.expr.*;
+import org.apache.tajo.plan.logical.JoinNode;
+import org.apache.tajo.plan.logical.JoinSpec;
+import org.apache.tajo.plan.logical.RelationNode;
+import org.apache.tajo.plan.logical.ScanNode;
+
+import java.util.*;
+
+import static org.apache.tajo.plan.joinorder.GreedyHeuristicJoinOrderAlgorithm.DEFAULT_SELECTION_FACTOR;
+import static org.apache.tajo.plan.joinorder.GreedyHeuristicJoinOrderAlgorithm.getCost;
+
+/**
+ * This is a dynamic programming algorithm to find the cheapest bushy join tree. For every set of relations,
+ * it keeps the cheapest plan built from two disjoint subsets which are connected by at least one join predicate.
+ * Cross products are considered only for the sets which cannot be connected by any predicate.
+ *
+ * The cardinality of a join is estimated from the number of rows of tables and the column statistics of join keys.
+ * For an equi-join predicate <code>a = b</code>, the selectivity is
+ * <code>(1 - nullFraction(a)) * (1 - nullFraction(b)) / max(ndv(a), ndv(b))</code>.
+ * If the statistics are not available, {@link GreedyHeuristicJoinOrderAlgorithm#DEFAULT_SELECTION_FACTOR} is used.
+ * The selectivity of a filter comparing a column with a constant is estimated from the histogram and the frequent
+ * values of the column if they are collected by ANALYZE TABLE.
+ * The cost of a join tree is the total volume of the inputs of all joins, which is the amount of data to be shuffled.
+ *
+ * Since the search space grows exponentially, this algorithm is used only for the blocks having at most
+ * the given number of relations and only inner or cross joins. Otherwise, {@link GreedyHeuristicJoinOrderAlgorithm}
+ * is used.
+ */
+public class DynamicProgrammingJoinOrderAlgorithm implements JoinOrderAlgorithm {
+  private static final Log LOG = LogFactory.getLog(DynamicProgrammingJoinOrderAlgorithm.class);
+
+  private final int maxRelations;
+  private final JoinOrderAlgorithm fallback = new GreedyHeuristicJoinOrderAlgorithm();
+
+  public DynamicProgrammingJoinOrderAlgorithm(int maxRelations) {
+    this.maxRelations = maxRelations;
+  }
+
+  @Override
+  public FoundJoinOrder findBestOrder(LogicalPlan plan, LogicalPlan.QueryBlock block, JoinGraphContext graphContext)
+      throws TajoException {
+
+    List<RelationNode> relations = new ArrayList<>(block.getRelations());
+    if (relations.size() > maxRelations || !isReorderable(graphContext.getJoinGraph())) {
+      LOG.info("Greedy join ordering is used for " + relations.size() + " relations of " + block.getName());
+      return fallback.findBestOrder(plan, block, graphContext);
+    }
+
+    RelationEstimate[] estimates = new RelationEstimate[relations.size()];
+    for (int i = 0; i < estimates.length; i++) {
+      estimates[i] = new RelationEstimate(relations.get(i));
+    }
+
+    // For inner joins, the predicates of the on clause and the where clause are interchangeable.
+    Set<EvalNode> predicates = new LinkedHashSet<>();
+    for (JoinEdge edge : graphContext.getJoinGraph().getEdgesAll()) {
+      predicates.addAll(edge.getJoinQual());
+    }
+    graphContext.addCandidateJoinConditions(predicates);
+    predicates.addAll(graphContext.getCandidateJoinConditions());
+    predicates.addAll(graphContext.getCandidateJoinFilters());
+
+    List<JoinPredicate> joinPredicates = new ArrayList<>();
+    List<EvalNode> remainings = new ArrayList<>();
+    for (EvalNode predicate : predicates) {
+      int mask = getRelationMask(estimates, predicate);
+      if (Integer.bitCount(mask) > 1) {
+        joinPredicates.add(new JoinPredicate(predicate, mask, estimateSelectivity(estimates, predicate)));
+      } else {
+        // It will be evaluated after the join tree.
+        remainings.add(predicate);
+      }
+    }
+    graphContext.addCandidateJoinFilters(remainings);
+
+    DPTable table = enumerate(estimates, joinPredicates);
+    int all = (1 << estimates.length) - 1;
+
+    JoinVertex root = buildVertex(table, all, estimates, joinPredicates, graphContext);
+    JoinNode joinTree = (JoinNode) root.buildPlan(plan, block);
+    // all generated nodes should be registered to corresponding blocks
+    block.registerNode(joinTree);
+    return new FoundJoinOrder(joinTree, getCost(joinTree));
+  }
+
+  /**
+   * @return True if the join graph consists of only inner or cross joins, which can be arbitrarily reordered.
+   */
+  private static boolean isReorderable(JoinGraph graph) {
+    for (JoinEdge edge : graph.getEdgesAll()) {
+      if (edge.getJoinType() != JoinType.INNER && edge.getJoinType() != JoinType.CROSS) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static DPTable enumerate(RelationEstimate[] estimates, List<JoinPredicate> predicates) {
+    int size = 1 << estimates.length;
+    DPTable table = new DPTable(size);
+
+    for (int set = 1; set < size; set++) {
+      double card = 1;
+      double width = 0;
+      for (int i = 0; i < estimates.length; i++) {
+        if ((set & (1 << i)) != 0) {
+          card *= estimates[i].rows;
+          width += estimates[i].width;
+        }
+      }
+      for (JoinPredicate predicate : predicates) {
+        if ((predicate.mask & set) == predicate.mask) {
+          card *= predicate.selectivity;
+        }
+      }
+      table.volume[set] = Math.max(card, 1) * width;
+
+      if (Integer.bitCount(set) == 1) {
+        table.connected[set] = true;
+        continue;
+      }
+
+      // a proper subset is numerically smaller than the set, so every subset is already planned.
+      if (!findBestSplit(table, predicates, set, true)) {
+        findBestSplit(table, predicates, set, false);
+      }
+    }
+    return table;
+  }
+
+  /**
+   * Find the cheapest pair of subsets which forms the given set.
+   *
+   * @param connectedOnly If true, only the pairs of connected subsets joined by some predicates are considered.
+   * @return True if any pair is found
+   */
+  private static boolean findBestSplit(DPTable table, List<JoinPredicate> predicates, int set, boolean connectedOnly) {
+    // the lowest relation is always in the left subset to avoid enumerating symmetric pairs twice
+    int lowest = Integer.lowestOneBit(set);
+    for (int left = (set - 1) & set; left > 0; left = (left - 1) & set) {
+      if ((left & lowest) == 0) {
+        continue;
+      }
+      int right = set ^ left;
+      if (connectedOnly && !(table.connected[left] && table.connected[right]
+          && isJoinedBy(predicates, left, right))) {
+        continue;
+      }
+
+      double cost = table.cost[left] + table.cost[right] + table.volume[left] + table.volume[right];
+      if (table.left[set] == 0 || cost < table.cost[set]) {
+        table.cost[set] = cost;
+        table.left[set] = left;
+      }
+    }
+
+    table.connected[set] = connectedOnly && table.left[set] != 0;
+    return table.left[set] != 0;
+  }
+
+  private static boolean isJoinedBy(List<JoinPredicate> predicates, int left, int right) {
+    for (JoinPredicate predicate : predicates) {
+      if (predicate.isEvaluatedAt(left, right)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static JoinVertex buildVertex(DPTable table, int set, RelationEstimate[] estimates,
+                                        List<JoinPredicate> predicates, JoinGraphContext graphContext) {
+    if (Integer.bitCount(set) == 1) {
+      return estimates[Integer.numberOfTrailingZeros(set)].vertex;
+    }
+
+    int left = table.left[set];
+    int right = set ^ left;
+    // the larger input is placed on the left side like GreedyHeuristicJoinOrderAlgorithm
+    if (table.volume[left] < table.volume[right]) {
+      int temp = left;
+      left = right;
+      right = temp;
+    }
+
+    Set<EvalNode> joinQuals = new HashSet<>();
+    for (JoinPredicate predicate : predicates) {
+      if (predicate.isEvaluatedAt(left, right)) {
+        joinQuals.add(predicate.predicate);
+      }
+    }
+    JoinSpec joinSpec = new JoinSpec(joinQuals.isEmpty() ? JoinType.CROSS : JoinType.INNER);
+    joinSpec.addPredicates(joinQuals);
+    graphContext.markAsEvaluatedJoinConditions(joinQuals);
+    graphContext.markAsEvaluatedJoinFilters(joinQuals);
+
+    JoinVertex leftVertex = buildVertex(table, left, estimates, predicates, graphContext);
+    JoinVertex rightVertex = buildVertex(table, right, estimates, predicates, graphContext);
+    return new JoinedRelationsVertex(new JoinEdge(joinSpec, leftVertex, rightVertex));
+  }
+
+  /**
+   * @return the bit set of relations referred by the predicate, or 0 if any column does not belong to the relations.
+   */
+  private static int getRelationMask(RelationEstimate[] estimates, EvalNode predicate) {
+    int mask = 0;
+    for (Column column : EvalTreeUtil.findUniqueColumns(predicate)) {
+      int idx = findRelation(estimates, column);
+      if (idx < 0) {
+        return 0;
+      }
+      mask |= 1 << idx;
+    }
+    return mask;
+  }
+
+  private static int findRelation(RelationEstimate[] estimates, Column column) {
+    for (int i = 0; i < estimates.length; i++) {
+      if (estimates[i].vertex.getSchema().contains(column)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static double estimateSelectivity(RelationEstimate[] estimates, EvalNode predicate) {
+    if (predicate.getType() != EvalType.EQUAL) {
+      return DEFAULT_SELECTION_FACTOR;
+    }
+    BinaryEval equal = (BinaryEval) predicate;
+    if (equal.getLeftExpr().getType() != EvalType.FIELD || equal.getRightExpr().getType() != EvalType.FIELD) {
+      return DEFAULT_SELECTION_FACTOR;
+    }
+
+    Column leftKey = ((FieldEval) equal.getLeftExpr()).getColumnRef();
+    Column rightKey = ((FieldEval) equal.getRightExpr()).getColumnRef();
+    RelationEstimate leftRelation = estimates[findRelation(estimates, leftKey)];
+    RelationEstimate rightRelation = estimates[findRelation(estimates, rightKey)];
+
+    double leftNdv = leftRelation.getDistinctValues(leftKey);
+    double rightNdv = rightRelation.getDistinctValues(rightKey);
+    double selectivity = leftRelation.getNonNullFraction(leftKey) * rightRelation.getNonNullFraction(rightKey);
+    if (leftNdv > 0 || rightNdv > 0) {
+      return selectivity / Math.max(leftNdv, rightNdv);
+    } else {
+      return selectivity * DEFAULT_SELECTION_FACTOR;
+    }
+  }
+
+  /**
+   * A join predicate and the relations referred by it.
+   */
+  private static class JoinPredicate {
+    private final EvalNode predicate;
+    private final int mask;
+    private final double selectivity;
+
+    JoinPredicate(EvalNode predicate, int mask, double selectivity) {
+      this.predicate = predicate;
+      this.mask = mask;
+      this.selectivity = selectivity;
+    }
+
+    /**
+     * @return True if this predicate refers to both sides and can be evaluated at their join.
+     */
+    boolean isEvaluatedAt(int left, int right) {
+      return (mask & (left | right)) == mask && (mask & left) != 0 && (mask & right) != 0;
+    }
+  }
+
+  /**
+   * The best plans of all sets of relations. Each set is represented as a bit set of relation indexes.
+   */
+  private static class DPTable {
+    // the left subset of the best plan. 0 if not planned yet.
+    private final int[] left;
+    private final double[] cost;
+    private final double[] volume;
+    // true if the best plan does not have any cross product
+    private final boolean[] connected;
+
+    DPTable(int size) {
+      left = new int[size];
+      cost = new double[size];
+      volume = new double[size];
+      connected = new boolean[size];
+    }
+  }
+
+  /**
+   * @return the comparison type when both sides are swapped, or null if it is not a comparison
+   */
+  private static EvalType flip(EvalType type) {
+    switch (type) {
+      case EQUAL:
+      case NOT_EQUAL:
+        return type;
+      case LTH:
+        return EvalType.GTH;
+      case LEQ:
+        return EvalType.GEQ;
+      case GTH:
+        return EvalType.LTH;
+      case GEQ:
+        return EvalType.LEQ;
+      default:
+        return null;
+    }
+  }
+
+  private static boolean isComparable(Type columnType, Type valueType) {
+    return columnType == valueType || (isNumeric(columnType) && isNumeric(valueType));
+  }
+
+  private static boolean isNumeric(Type type) {
+    switch (type) {
+      case INT1:
+      case INT2:
+      case INT4:
+      case INT8:
+      case FLOAT4:
+      case FLOAT8:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * The estimated number of rows and the statistics of a relation.
+   */
+  private static class RelationEstimate {
+    private final RelationVertex vertex;
+    private final double width;
+    private final double rows;
+    private final double tableRows;
+    private final Map<String, ColumnStats> columnStats = new HashMap<>();
+
+    RelationEstimate(RelationNode relation) {
+      this.vertex = new RelationVertex(relation);
+      this.width = Math.max(SchemaUtil.estimateRowByteSizeWithSchema(relation.getOutSchema()), 1);
+
+      TableStats stats = null;
+      if (relation instanceof ScanNode) {
+        stats = ((ScanNode) relation).getTableDesc().getStats();
+      }
+
+      if (stats != null && stats.getNumRows() != null && stats.getNumRows() > 0) {
+        tableRows = stats.getNumRows();
+      } else if (stats != null && stats.getNumBytes() != null && stats.getNumBytes() > 0) {
+        tableRows = stats.getNumBytes() / width;
+      } else {
+        // TableSubQueryNode or unknown tables
+        tableRows = Math.max(getCost(relation) / width, 1);
+      }
+
+      if (stats != null && stats.getColumnStats() != null) {
+        for (ColumnStats eachStats : stats.getColumnStats()) {
+          columnStats.put(eachStats.getColumn().getSimpleName(), eachStats);
+        }
+      }
+
+      double filtered = tableRows;
+      if (relation instanceof ScanNode && ((ScanNode) relation).hasQual()) {
+        for (EvalNode qual : AlgebraicUtil.toConjunctiveNormalFormArray(((ScanNode) relation).getQual())) {
+          filtered *= estimateFilterSelectivity(qual);
+        }
+      }
+      this.rows = Math.max(filtered, 1);
+    }
+
+    /**
+     * @return the selectivity of a filter. Only the comparisons between a column and a constant are estimated
+     * from the column statistics. {@link GreedyHeuristicJoinOrderAlgorithm#DEFAULT_SELECTION_FACTOR} is used
+     * for the others.
+     */
+    private double estimateFilterSelectivity(EvalNode qual) {
+      if (!(qual instanceof BinaryEval)) {
+        return DEFAULT_SELECTION_FACTOR;
+      }
+
+      BinaryEval binaryEval = (BinaryEval) qual;
+      EvalType type = binaryEval.getType();
+      EvalNode columnSide = binaryEval.getLeftExpr();
+      EvalNode constSide = binaryEval.getRightExpr();
+      if (columnSide.getType() == EvalType.CONST && constSide.getType() == EvalType.FIELD) {
+        columnSide = binaryEval.getRightExpr();
+        constSide = binaryEval.getLeftExpr();
+        type = flip(type);
+      }
+      if (type == null || columnSide.getType() != EvalType.FIELD || constSide.getType() != EvalType.CONST) {
+        return DEFAULT_SELECTION_FACTOR;
+      }
+
+      Column column = ((FieldEval) columnSide).getColumnRef();
+      ColumnStats stats = columnStats.get(column.getSimpleName());
+      Datum value = ((ConstEval) constSide).getValue();
+      if (stats == null || value.isNull() || !isComparable(stats.getColumn().getDataType().getType(), value.type())) {
+        return DEFAULT_SELECTION_FACTOR;
+      }
+
+      double nonNullFraction = getNonNullFraction(column);
+      Histogram histogram = stats.getHistogram();
+      switch (type) {
+        case EQUAL:
+          return nonNullFraction * estimateEquals(stats, value, tableRows * nonNullFraction);
+        case NOT_EQUAL:
+          return nonNullFraction * (1 - estimateEquals(stats, value, tableRows * nonNullFraction));
+        case LTH:
+        case LEQ:
+          return histogram == null ? DEFAULT_SELECTION_FACTOR :
+              nonNullFraction * histogram.estimateLessThan(value, type == EvalType.LEQ);
+        case GTH:
+        case GEQ:
+          return histogram == null ? DEFAULT_SELECTION_FACTOR :
+              nonNullFraction * (1 - histogram.estimateLessThan(value, type == EvalType.GTH));
+        default:
+          return DEFAULT_SELECTION_FACTOR;
+      }
+    }
+
+    /**
+     * @return the fraction of non-null values equal to a given value
+     */
+    private static double estimateEquals(ColumnStats stats, Datum value, double nonNullRows) {
+      FrequentValues frequentValues = stats.getFrequentValues();
+      if (frequentValues != null && nonNullRows > 0) {
+        long count = frequentValues.getCount(value);
+        if (count >= 0) {
+          return Math.min(count / nonNullRows, 1);
+        }
+      }
+
+      long ndv = stats.getNumDistValues() == null ? 0 : stats.getNumDistValues();
+      if (stats.getHistogram() != null) {
+        return stats.getHistogram().estimateEquals(value, ndv);
+      } else if (ndv > 0) {
+        return 1.0 / ndv;
+      } else {
+        return DEFAULT_SELECTION_FACTOR;
+      }
+    }
+
+    /**
+     * @return the number of distinct values of a column, which is not larger than the estimated rows.
+     * 0 if unknown.
+     */
+    double getDistinctValues(Column column) {
+      ColumnStats stats = columnStats.get(column.getSimpleName());
+      if (stats == null || stats.getNumDistValues() == null || stats.getNumDistValues() <= 0) {
+        return 0;
+      }
+      return Math.min(stats.getNumDistValues(), rows);
+    }
+
+    double getNonNullFraction(Column column) {
+      ColumnStats stats = columnStats.get(column.getSimpleName());
+      if (stats == null || stats.getNumNulls() == null || stats.getNumNulls() <= 0) {
+        return 1;
+      }
+      return Math.max(1 - stats.getNumNulls() / tableRows, 0);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.plan.logical;
+
+import com.google.common.base.Objects;
+import com.google.gson.annotations.Expose;
+import org.apache.tajo.plan.PlanString;
+
+/**
+ * AnalyzeTableNode collects the column statistics of all rows of its child, which scans the table to be analyzed.
+ */
+public class AnalyzeTableNode extends UnaryNode implements Cloneable {
+  @Expose private String tableName;
+
+  public AnalyzeTableNode(int pid) {
+    super(pid, NodeType.ANALYZE_TABLE);
+  }
+
+  public String getTableName() {
+    return tableName;
+  }
+
+  public void setTableName(String tableName) {
+    this.tableName = tableName;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(tableName);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof AnalyzeTableNode) {
+      AnalyzeTableNode other = (AnalyzeTableNode) obj;
+      return super.equals(other) && tableName.equals(other.tableName);
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return "AnalyzeTable (table=" + tableName + ")";
+  }
+
+  @Override
+  public PlanString getPlanString() {
+    return new PlanString(this);
+  }
+}
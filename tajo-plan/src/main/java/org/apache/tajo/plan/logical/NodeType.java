@@ -57,7 +57,8 @@ public enum NodeType {
   ALTER_TABLE (AlterTableNode.class),
   CREATE_INDEX(CreateIndexNode.class),
   DROP_INDEX(DropIndexNode.class),
-  TRUNCATE_TABLE (TruncateTableNode.class);
+  TRUNCATE_TABLE (TruncateTableNode.class),
+  ANALYZE_TABLE (AnalyzeTableNode.class);
 
   private final Class<? extends LogicalNode> baseClass;
 
@@ -76,7 +76,8 @@ public class WindowSpec {
   public static class WindowFrame implements Cloneable {
     @Expose private WindowStartBound startBound;
     @Expose private WindowEndBound endBound;
-    @Expose org.apache.tajo.algebra.WindowSpec.WindowFrameUnit unit; // TODO - to be supported
+    // null if the frame is not given explicitly
+    @Expose org.apache.tajo.algebra.WindowSpec.WindowFrameUnit unit;
 
     public WindowFrame() {
       this.startBound = new WindowStartBound(WindowFrameStartBoundType.UNBOUNDED_PRECEDING);
@@ -128,7 +129,9 @@ public class WindowSpec {
     public WindowFrame clone() throws CloneNotSupportedException {
       WindowFrame newFrame = (WindowFrame) super.clone();
       newFrame.startBound = startBound.clone();
-      newFrame.endBound = endBound.clone();
+      if (endBound != null) {
+        newFrame.endBound = endBound.clone();
+      }
       newFrame.unit = unit;
       return newFrame;
     }
@@ -198,8 +201,8 @@ public class WindowSpec {
       return boundType;
     }
 
-    public EvalNode setNumber(EvalNode number) {
-      return number;
+    public void setNumber(EvalNode number) {
+      this.number = number;
     }
 
     public EvalNode getNumber() {
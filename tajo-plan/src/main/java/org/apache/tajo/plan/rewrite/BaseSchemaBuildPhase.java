@@ -546,6 +546,19 @@ public class BaseSchemaBuildPhase extends LogicalPlanPreprocessPhase {
       return truncateTableNode;
     }
 
+    @Override
+    public LogicalNode visitAnalyzeTable(LogicalPlanner.PlanContext ctx, Stack<Expr> stack, AnalyzeTable expr)
+        throws TajoException {
+      stack.push(expr);
+      LogicalNode child = visit(ctx, stack, expr.getChild());
+      stack.pop();
+
+      AnalyzeTableNode analyzeTable = ctx.getPlan().createNode(AnalyzeTableNode.class);
+      analyzeTable.setInSchema(child.getOutSchema());
+      analyzeTable.setOutSchema(child.getOutSchema());
+      return analyzeTable;
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////////////////////
     // Insert or Update Section
     ///////////////////////////////////////////////////////////////////////////////////////////////////////////
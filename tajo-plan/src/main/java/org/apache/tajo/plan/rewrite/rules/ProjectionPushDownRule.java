@@ -530,6 +530,11 @@ public class ProjectionPushDownRule extends
           createIndexNode.setChild(child);
           createIndexNode.setInSchema(child.getOutSchema());
           break;
+        case ANALYZE_TABLE:
+          AnalyzeTableNode analyzeTableNode = (AnalyzeTableNode) parentNode;
+          analyzeTableNode.setChild(child);
+          analyzeTableNode.setInSchema(child.getOutSchema());
+          break;
         default:
           throw new TajoInternalError("unexpected parent node: " + parentNode.getType());
         }
@@ -24,6 +24,7 @@ import com.google.common.collect.Maps;
 import org.apache.tajo.OverridableConf;
 import org.apache.tajo.algebra.WindowSpec.WindowFrameEndBoundType;
 import org.apache.tajo.algebra.WindowSpec.WindowFrameStartBoundType;
+import org.apache.tajo.algebra.WindowSpec.WindowFrameUnit;
 import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.FunctionDesc;
 import org.apache.tajo.catalog.SortSpec;
@@ -219,7 +220,7 @@ public class EvalNodeDeserializer {
 
               WindowFunctionEval winFunc =
                   new WindowFunctionEval(new FunctionDesc(funcProto.getFuncion()), params,
-                      convertWindowFrame(windowFuncProto.getWindowFrame()));
+                      convertWindowFrame(context, evalContext, windowFuncProto.getWindowFrame()));
 
               if (windowFuncProto.getSortSpecCount() > 0) {
                 SortSpec[] sortSpecs = LogicalNodeDeserializer.convertSortSpecs(windowFuncProto.getSortSpecList());
@@ -256,14 +257,25 @@ public class EvalNodeDeserializer {
     return current;
   }
 
-  private static WindowSpec.WindowFrame convertWindowFrame(WinFunctionEvalSpec.WindowFrame windowFrame) {
+  private static WindowSpec.WindowFrame convertWindowFrame(OverridableConf context, EvalContext evalContext,
+                                                          WinFunctionEvalSpec.WindowFrame windowFrame) {
     WindowFrameStartBoundType startBoundType = convertWindowStartBound(windowFrame.getStartBound().getBoundType());
     WindowSpec.WindowStartBound startBound = new WindowSpec.WindowStartBound(startBoundType);
+    if (windowFrame.getStartBound().hasNumber()) {
+      startBound.setNumber(deserialize(context, evalContext, windowFrame.getStartBound().getNumber()));
+    }
 
     WindowFrameEndBoundType endBoundType = convertWindowEndBound(windowFrame.getEndBound().getBoundType());
     WindowSpec.WindowEndBound endBound = new WindowSpec.WindowEndBound(endBoundType);
+    if (windowFrame.getEndBound().hasNumber()) {
+      endBound.setNumber(deserialize(context, evalContext, windowFrame.getEndBound().getNumber()));
+    }
 
     WindowSpec.WindowFrame frame = new WindowSpec.WindowFrame(startBound, endBound);
+    if (windowFrame.hasUnit()) {
+      frame.setFrameUnit(windowFrame.getUnit() == WinFunctionEvalSpec.WindowFrameUnit.RANGE ?
+          WindowFrameUnit.RANGE : WindowFrameUnit.ROW);
+    }
     return frame;
   }
 
@@ -23,6 +23,7 @@ import com.google.common.collect.Maps;
 import com.google.protobuf.ByteString;
 import org.apache.tajo.algebra.WindowSpec.WindowFrameEndBoundType;
 import org.apache.tajo.algebra.WindowSpec.WindowFrameStartBoundType;
+import org.apache.tajo.algebra.WindowSpec.WindowFrameUnit;
 import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.datum.AnyDatum;
 import org.apache.tajo.datum.Datum;
@@ -330,12 +331,22 @@ public class EvalNodeSerializer
 
     WinFunctionEvalSpec.WindowStartBound.Builder startBoundBuilder = WinFunctionEvalSpec.WindowStartBound.newBuilder();
     startBoundBuilder.setBoundType(convertStartBoundType(startBound.getBoundType()));
+    if (startBound.getNumber() != null) {
+      startBoundBuilder.setNumber(serialize(startBound.getNumber()));
+    }
 
     WinFunctionEvalSpec.WindowEndBound.Builder endBoundBuilder = WinFunctionEvalSpec.WindowEndBound.newBuilder();
     endBoundBuilder.setBoundType(convertEndBoundType(endBound.getBoundType()));
+    if (endBound.getNumber() != null) {
+      endBoundBuilder.setNumber(serialize(endBound.getNumber()));
+    }
 
     windowFrameBuilder.setStartBound(startBoundBuilder);
     windowFrameBuilder.setEndBound(endBoundBuilder);
+    if (frame.hasFrameUnit()) {
+      windowFrameBuilder.setUnit(frame.getFrameUnit() == WindowFrameUnit.RANGE ?
+          WinFunctionEvalSpec.WindowFrameUnit.RANGE : WinFunctionEvalSpec.WindowFrameUnit.ROW);
+    }
 
     return windowFrameBuilder.build();
   }
@@ -161,6 +161,9 @@ public class LogicalNodeDeserializer {
       case DROP_INDEX:
         current = convertDropIndex(protoNode);
         break;
+      case ANALYZE_TABLE:
+        current = convertAnalyzeTable(nodeMap, protoNode);
+        break;
 
       default:
         throw new RuntimeException("Unknown NodeType: " + protoNode.getType().name());
@@ -667,6 +670,19 @@ public class LogicalNodeDeserializer {
     return truncateTable;
   }
 
+  private static AnalyzeTableNode convertAnalyzeTable(Map<Integer, LogicalNode> nodeMap,
+                                                      PlanProto.LogicalNode protoNode) {
+    AnalyzeTableNode analyzeTable = new AnalyzeTableNode(protoNode.getNodeId());
+
+    PlanProto.AnalyzeTableNode analyzeTableProto = protoNode.getAnalyzeTable();
+    analyzeTable.setTableName(analyzeTableProto.getTableName());
+    analyzeTable.setChild(nodeMap.get(analyzeTableProto.getChildSeq()));
+    analyzeTable.setInSchema(convertSchema(protoNode.getInSchema()));
+    analyzeTable.setOutSchema(convertSchema(protoNode.getOutSchema()));
+
+    return analyzeTable;
+  }
+
   private static CreateIndexNode convertCreateIndex(Map<Integer, LogicalNode> nodeMap,
                                                     PlanProto.LogicalNode protoNode) {
     CreateIndexNode createIndex = new CreateIndexNode(protoNode.getNodeId());
@@ -22,6 +22,7 @@ import com.google.common.collect.Maps;
 import org.apache.hadoop.fs.Path;
 import org.apache.tajo.algebra.JoinType;
 import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.catalog.TableDesc;
 import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.common.ProtoObject;
 import org.apache.tajo.exception.TajoException;
@@ -427,9 +428,27 @@ public class LogicalNodeSerializer extends BasicLogicalPlanVisitor<LogicalNodeSe
     return scan;
   }
 
+  /**
+   * Histograms, NDV sketches and frequent values of columns are only used to plan a query in the master.
+   * They are removed from a table description shipped to tasks, and only the numbers derived from them are kept.
+   */
+  private static CatalogProtos.TableDescProto getTableDescWithoutSketches(TableDesc tableDesc) {
+    CatalogProtos.TableDescProto proto = tableDesc.getProto();
+    if (!proto.hasStats() || proto.getStats().getColStatCount() == 0) {
+      return proto;
+    }
+
+    CatalogProtos.TableStatsProto.Builder statsBuilder = proto.getStats().toBuilder();
+    for (int i = 0; i < statsBuilder.getColStatCount(); i++) {
+      statsBuilder.setColStat(i, statsBuilder.getColStat(i).toBuilder()
+          .clearHistogram().clearNdvSketch().clearFrequentValues());
+    }
+    return proto.toBuilder().setStats(statsBuilder).build();
+  }
+
   public PlanProto.ScanNode.Builder buildScanNode(ScanNode scan) {
     PlanProto.ScanNode.Builder scanBuilder = PlanProto.ScanNode.newBuilder();
-    scanBuilder.setTable(scan.getTableDesc().getProto());
+    scanBuilder.setTable(getTableDescWithoutSketches(scan.getTableDesc()));
     if (scan.hasAlias()) {
       scanBuilder.setAlias(scan.getAlias());
     }
@@ -785,6 +804,23 @@ public class LogicalNodeSerializer extends BasicLogicalPlanVisitor<LogicalNodeSe
     return node;
   }
 
+  @Override
+  public LogicalNode visitAnalyzeTable(SerializeContext context, LogicalPlan plan, LogicalPlan.QueryBlock block,
+                                       AnalyzeTableNode node, Stack<LogicalNode> stack) throws TajoException {
+    super.visitAnalyzeTable(context, plan, block, node, new Stack<>());
+
+    PlanProto.AnalyzeTableNode.Builder analyzeTableBuilder = PlanProto.AnalyzeTableNode.newBuilder();
+    int [] childIds = registerGetChildIds(context, node);
+    analyzeTableBuilder.setChildSeq(childIds[0]);
+    analyzeTableBuilder.setTableName(node.getTableName());
+
+    PlanProto.LogicalNode.Builder nodeBuilder = createNodeBuilder(context, node);
+    nodeBuilder.setAnalyzeTable(analyzeTableBuilder);
+    context.treeBuilder.addNodes(nodeBuilder);
+
+    return node;
+  }
+
   @Override
   public LogicalNode visitDropIndex(SerializeContext context, LogicalPlan plan, LogicalPlan.QueryBlock block,
                                     DropIndexNode node, Stack<LogicalNode> stack) {
@@ -73,12 +73,14 @@ public class PlannerUtil {
             type == NodeType.ALTER_TABLE ||
             type == NodeType.TRUNCATE_TABLE ||
             type == NodeType.CREATE_INDEX ||
-            type == NodeType.DROP_INDEX;
+            type == NodeType.DROP_INDEX ||
+            type == NodeType.ANALYZE_TABLE;
   }
 
   /**
    * Most update queries require only the updates to the catalog information,
-   * but some queries such as "CREATE INDEX" or CTAS requires distributed execution on multiple cluster nodes.
+   * but some queries such as "CREATE INDEX", "ANALYZE TABLE" or CTAS requires distributed execution
+   * on multiple cluster nodes.
    * This function checks whether the given DDL plan requires distributed execution or not.
    * @param node the root node of a query plan
    * @return Return true if the input query plan requires distributed execution. Otherwise, return false.
@@ -92,7 +94,8 @@ public class PlannerUtil {
     NodeType type = baseNode.getType();
 
     return type == NodeType.CREATE_INDEX && !((CreateIndexNode)baseNode).isExternal() ||
-        type == NodeType.CREATE_TABLE && ((CreateTableNode)baseNode).hasSubQuery();
+        type == NodeType.CREATE_TABLE && ((CreateTableNode)baseNode).hasSubQuery() ||
+        type == NodeType.ANALYZE_TABLE;
   }
 
   /**
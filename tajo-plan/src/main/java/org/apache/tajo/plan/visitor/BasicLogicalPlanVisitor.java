@@ -148,6 +148,9 @@ public class BasicLogicalPlanVisitor<CONTEXT, RESULT> implements LogicalPlanVisi
       case DROP_INDEX:
         current = visitDropIndex(context, plan, block, (DropIndexNode) node, stack);
         break;
+      case ANALYZE_TABLE:
+        current = visitAnalyzeTable(context, plan, block, (AnalyzeTableNode) node, stack);
+        break;
       default:
         throw new TajoInternalError("Unknown logical node type: " + node.getType());
     }
@@ -413,4 +416,13 @@ public class BasicLogicalPlanVisitor<CONTEXT, RESULT> implements LogicalPlanVisi
                                    TruncateTableNode node, Stack<LogicalNode> stack) throws TajoException {
     return null;
   }
+
+  @Override
+  public RESULT visitAnalyzeTable(CONTEXT context, LogicalPlan plan, LogicalPlan.QueryBlock block,
+                                  AnalyzeTableNode node, Stack<LogicalNode> stack) throws TajoException {
+    stack.push(node);
+    RESULT result = visit(context, plan, block, node.getChild(), stack);
+    stack.pop();
+    return result;
+  }
 }
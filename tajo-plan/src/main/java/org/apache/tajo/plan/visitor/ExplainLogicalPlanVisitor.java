@@ -240,6 +240,12 @@ public class ExplainLogicalPlanVisitor extends BasicLogicalPlanVisitor<ExplainLo
     return visitUnaryNode(context, plan, block, node, stack);
   }
 
+  @Override
+  public LogicalNode visitAnalyzeTable(Context context, LogicalPlan plan, LogicalPlan.QueryBlock block,
+                                       AnalyzeTableNode node, Stack<LogicalNode> stack) throws TajoException {
+    return visitUnaryNode(context, plan, block, node, stack);
+  }
+
   @Override
   public LogicalNode visitDropIndex(Context context, LogicalPlan plan, LogicalPlan.QueryBlock block,
                                     DropIndexNode node, Stack<LogicalNode> stack) {
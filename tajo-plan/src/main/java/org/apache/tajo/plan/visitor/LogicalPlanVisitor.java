@@ -113,4 +113,7 @@ public interface LogicalPlanVisitor<CONTEXT, RESULT> {
 
   RESULT visitTruncateTable(CONTEXT context, LogicalPlan plan, LogicalPlan.QueryBlock block, TruncateTableNode node,
                          Stack<LogicalNode> stack) throws TajoException;
+
+  RESULT visitAnalyzeTable(CONTEXT context, LogicalPlan plan, LogicalPlan.QueryBlock block, AnalyzeTableNode node,
+                           Stack<LogicalNode> stack) throws TajoException;
 }
@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.pullserver;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.ReferenceCountUtil;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PushedPageLimiter bounds the heap memory of pushed pages which are being aggregated in a pull server.
+ *
+ * Before the body of a pushed page is aggregated, its length is reserved from a budget shared by all connections.
+ * The reservation is returned after the aggregated page is appended to its partition file. If the budget is
+ * exhausted, the connection stops reading until enough memory is returned by other connections.
+ * Pages larger than the maximum content length of the aggregator are not reserved, because they are rejected anyway.
+ */
+class PushedPageLimiter extends ChannelInboundHandlerAdapter {
+  private static final long RETRY_INTERVAL_MS = 10;
+
+  private final AtomicLong budget;
+  private final long maxContentLength;
+  // messages received while waiting for the budget
+  private final Queue<Object> pending = new ArrayDeque<>();
+  private long pendingLength;
+  private long reserved;
+
+  /**
+   * @param budget the number of bytes which can be reserved. It is shared by all connections of a pull server.
+   * @param maxContentLength the maximum content length of the aggregator, which must not exceed the whole budget
+   */
+  PushedPageLimiter(AtomicLong budget, long maxContentLength) {
+    this.budget = budget;
+    this.maxContentLength = maxContentLength;
+  }
+
+  @Override
+  public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+    if (pendingLength > 0) {
+      pending.add(msg);
+      return;
+    }
+
+    if (msg instanceof HttpRequest && ((HttpRequest) msg).getMethod() == HttpMethod.POST) {
+      long length = HttpHeaders.getContentLength((HttpRequest) msg, -1);
+      if (length > 0 && length <= maxContentLength && !tryReserve(length)) {
+        pending.add(msg);
+        pendingLength = length;
+        ctx.channel().config().setAutoRead(false);
+        scheduleRetry(ctx);
+        return;
+      }
+    }
+
+    ctx.fireChannelRead(msg);
+    if (msg instanceof LastHttpContent) {
+      // the aggregated page has been handled synchronously
+      release();
+    }
+  }
+
+  @Override
+  public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+    release();
+    pendingLength = 0;
+    while (!pending.isEmpty()) {
+      ReferenceCountUtil.release(pending.poll());
+    }
+    super.channelInactive(ctx);
+  }
+
+  private void scheduleRetry(final ChannelHandlerContext ctx) {
+    ctx.executor().schedule(() -> {
+      if (pendingLength == 0 || !ctx.channel().isActive()) {
+        return;
+      }
+      if (!tryReserve(pendingLength)) {
+        scheduleRetry(ctx);
+        return;
+      }
+
+      pendingLength = 0;
+      ctx.channel().config().setAutoRead(true);
+      try {
+        ctx.fireChannelRead(pending.poll());
+        // the other messages may have to wait again
+        while (pendingLength == 0 && !pending.isEmpty()) {
+          channelRead(ctx, pending.poll());
+        }
+      } catch (Exception e) {
+        ctx.fireExceptionCaught(e);
+      }
+    }, RETRY_INTERVAL_MS, TimeUnit.MILLISECONDS);
+  }
+
+  private boolean tryReserve(long length) {
+    while (true) {
+      long available = budget.get();
+      if (available < length) {
+        return false;
+      }
+      if (budget.compareAndSet(available, available - length)) {
+        reserved += length;
+        return true;
+      }
+    }
+  }
+
+  private void release() {
+    if (reserved > 0) {
+      budget.addAndGet(reserved);
+      reserved = 0;
+    }
+  }
+}
@@ -66,6 +66,7 @@ import org.apache.tajo.pullserver.retriever.FileChunk;
 import org.apache.tajo.rpc.NettyUtils;
 import org.apache.tajo.storage.*;
 import org.apache.tajo.storage.RowStoreUtil.RowStoreDecoder;
+import org.apache.tajo.storage.compress.BlockCompression;
 import org.apache.tajo.storage.index.bst.BSTIndex;
 import org.apache.tajo.storage.index.bst.BSTIndex.BSTIndexReader;
 import org.apache.tajo.unit.StorageUnit;
@@ -75,12 +76,14 @@ import java.io.*;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class TajoPullServerService extends AbstractService {
 
@@ -130,6 +133,11 @@ public class TajoPullServerService extends AbstractService {
   private static final AtomicIntegerFieldUpdater<ProcessingStatus> REMAIN_FILE_UPDATER;
 
   public static final String CHUNK_LENGTH_HEADER_NAME = "c";
+  // the start offset of a pushed page in the partition file
+  public static final String PUSH_POSITION_HEADER_NAME = "pos";
+
+  // the number of locks serializing appends of pushed pages to partition files
+  private static final int PUSH_LOCK_NUM = 64;
 
   static class CacheKey {
     private Path path;
@@ -382,9 +390,20 @@ public class TajoPullServerService extends AbstractService {
 
     final PullServer PullServer;
     private SSLFactory sslFactory;
+    private final int maxPushedPageLength;
+    // the memory available to pushed pages being aggregated, which is shared by all connections
+    private final AtomicLong pushMemoryBudget;
 
     public HttpChannelInitializer(TajoConf conf) throws Exception {
       PullServer = new PullServer(conf);
+
+      // a pushed page is aggregated into a single request. It is a little larger than the page volume.
+      int pageVolume = conf.getInt(ConfVars.SHUFFLE_HASH_APPENDER_PAGE_VOLUME.varname,
+          ConfVars.SHUFFLE_HASH_APPENDER_PAGE_VOLUME.defaultIntVal) * StorageUnit.MB;
+      maxPushedPageLength = Math.max(1 << 16, 2 * pageVolume);
+      long memoryLimit = (long) conf.getInt(ConfVars.PULLSERVER_PUSH_MEMORY_LIMIT.varname,
+          ConfVars.PULLSERVER_PUSH_MEMORY_LIMIT.defaultIntVal) * StorageUnit.MB;
+      pushMemoryBudget = new AtomicLong(Math.max(memoryLimit, maxPushedPageLength));
       if (conf.getBoolean(ConfVars.SHUFFLE_SSL_ENABLED_KEY.varname,
           ConfVars.SHUFFLE_SSL_ENABLED_KEY.defaultBoolVal)) {
         sslFactory = new SSLFactory(SSLFactory.Mode.SERVER, conf);
@@ -408,7 +427,8 @@ public class TajoPullServerService extends AbstractService {
       int maxChunkSize = getConfig().getInt(ConfVars.SHUFFLE_FETCHER_CHUNK_MAX_SIZE.varname,
           ConfVars.SHUFFLE_FETCHER_CHUNK_MAX_SIZE.defaultIntVal);
       pipeline.addLast("codec", new HttpServerCodec(maxUrlLength, 8192, maxChunkSize));
-      pipeline.addLast("aggregator", new HttpObjectAggregator(1 << 16));
+      pipeline.addLast("push-limiter", new PushedPageLimiter(pushMemoryBudget, maxPushedPageLength));
+      pipeline.addLast("aggregator", new HttpObjectAggregator(maxPushedPageLength));
       pipeline.addLast("chunking", new ChunkedWriteHandler());
       pipeline.addLast("shuffle", PullServer);
       // TODO factor security manager into pipeline
@@ -483,9 +503,13 @@ public class TajoPullServerService extends AbstractService {
     private final TajoConf conf;
     private final LocalDirAllocator lDirAlloc =
       new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
+    private final Object[] pushLocks = new Object[PUSH_LOCK_NUM];
 
     public PullServer(TajoConf conf) throws IOException {
       this.conf = conf;
+      for (int i = 0; i < pushLocks.length; i++) {
+        pushLocks[i] = new Object();
+      }
 
       // init local temporal dir
       lDirAlloc.getAllLocalPathsToRead(".", conf);
@@ -517,6 +541,9 @@ public class TajoPullServerService extends AbstractService {
 
         clearIndexCache(request.getUri());
         return;
+      } else if (request.getMethod() == HttpMethod.POST) {
+        appendPushedPage(ctx, request);
+        return;
       } else if (request.getMethod() != HttpMethod.GET) {
         sendError(ctx, HttpResponseStatus.METHOD_NOT_ALLOWED);
         return;
@@ -593,31 +620,40 @@ public class TajoPullServerService extends AbstractService {
 
         // if a stage requires a hash shuffle or a scattered hash shuffle
       } else if (shuffleType.equals("h") || shuffleType.equals("s")) {
-        int partParentId = HashShuffleAppenderManager.getPartParentId(Integer.parseInt(partId), conf);
-        Path partPath = StorageUtil.concatPath(queryBaseDir, "hash-shuffle", String.valueOf(partParentId), partId);
-        if (!lDirAlloc.ifExists(partPath.toString(), conf)) {
-          LOG.warn("Partition shuffle file not exists: " + partPath);
-          sendError(ctx, HttpResponseStatus.NO_CONTENT);
+        // A hash shuffle request can have multiple partitions. They are sent as chunks of a single response.
+        List<String> partIds = splitMaps(params.get("p"));
+        if (partIds.size() > 1 && offset >= 0) {
+          sendError(ctx, "A ranged request cannot have multiple partitions", HttpResponseStatus.BAD_REQUEST);
           return;
         }
 
-        Path path = localFS.makeQualified(lDirAlloc.getLocalPathToRead(partPath.toString(), conf));
+        for (String eachPartId : partIds) {
+          int partParentId = HashShuffleAppenderManager.getPartParentId(Integer.parseInt(eachPartId), conf);
+          Path partPath = StorageUtil.concatPath(queryBaseDir, "hash-shuffle", String.valueOf(partParentId),
+              eachPartId);
+          if (!lDirAlloc.ifExists(partPath.toString(), conf)) {
+            LOG.warn("Partition shuffle file not exists: " + partPath);
+            continue;
+          }
 
-        File file = new File(path.toUri());
-        long startPos = (offset >= 0 && length >= 0) ? offset : 0;
-        long readLen = (offset >= 0 && length >= 0) ? length : file.length();
+          Path path = localFS.makeQualified(lDirAlloc.getLocalPathToRead(partPath.toString(), conf));
 
-        if (startPos >= file.length()) {
-          String errorMessage = "Start pos[" + startPos + "] great than file length [" + file.length() + "]";
-          LOG.error(errorMessage);
-          sendError(ctx, errorMessage, HttpResponseStatus.BAD_REQUEST);
-          return;
-        }
-        if (LOG.isDebugEnabled()) {
-          LOG.debug("RequestURL: " + request.getUri() + ", fileLen=" + file.length());
+          File file = new File(path.toUri());
+          long startPos = (offset >= 0 && length >= 0) ? offset : 0;
+          long readLen = (offset >= 0 && length >= 0) ? length : file.length();
+
+          if (startPos >= file.length()) {
+            String errorMessage = "Start pos[" + startPos + "] great than file length [" + file.length() + "]";
+            LOG.error(errorMessage);
+            sendError(ctx, errorMessage, HttpResponseStatus.BAD_REQUEST);
+            return;
+          }
+          if (LOG.isDebugEnabled()) {
+            LOG.debug("RequestURL: " + request.getUri() + ", fileLen=" + file.length());
+          }
+          FileChunk chunk = new FileChunk(file, startPos, readLen);
+          chunks.add(chunk);
         }
-        FileChunk chunk = new FileChunk(file, startPos, readLen);
-        chunks.add(chunk);
       } else {
         LOG.error("Unknown shuffle type: " + shuffleType);
         sendError(ctx, "Unknown shuffle type:" + shuffleType, HttpResponseStatus.BAD_REQUEST);
@@ -626,14 +662,8 @@ public class TajoPullServerService extends AbstractService {
 
       // Write the content.
       if (chunks.size() == 0) {
-        HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.NO_CONTENT);
-
-        if (!HttpHeaders.isKeepAlive(request)) {
-          ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
-        } else {
-          response.headers().set(HttpHeaders.Names.CONNECTION, HttpHeaders.Values.KEEP_ALIVE);
-          ctx.writeAndFlush(response);
-        }
+        sendEmptyResponse(ctx, request,
+            new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.NO_CONTENT));
       } else {
         FileChunk[] file = chunks.toArray(new FileChunk[chunks.size()]);
         ChannelFuture writeFuture = null;
@@ -641,8 +671,8 @@ public class TajoPullServerService extends AbstractService {
         long totalSize = 0;
         StringBuilder sb = new StringBuilder();
         for (FileChunk chunk : file) {
-          totalSize += chunk.length();
-          sb.append(Long.toString(chunk.length())).append(",");
+          totalSize += chunk.transferLength();
+          sb.append(Long.toString(chunk.transferLength())).append(",");
         }
         sb.deleteCharAt(sb.length() - 1);
         HttpHeaders.addHeader(response, CHUNK_LENGTH_HEADER_NAME, sb.toString());
@@ -676,6 +706,80 @@ public class TajoPullServerService extends AbstractService {
       }
     }
 
+    /**
+     * A full response without content. It completes the response of a keep-alive connection.
+     */
+    private void sendEmptyResponse(ChannelHandlerContext ctx, FullHttpRequest request, FullHttpResponse response) {
+      HttpHeaders.setContentLength(response, 0);
+
+      if (!HttpHeaders.isKeepAlive(request)) {
+        ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+      } else {
+        response.headers().set(HttpHeaders.Names.CONNECTION, HttpHeaders.Values.KEEP_ALIVE);
+        ctx.writeAndFlush(response);
+      }
+    }
+
+    /**
+     * Append a page of a hash partition, which a map task of some worker has pushed, to the partition file.
+     * Appends to the same file are serialized, and the start offset of the page is returned in the
+     * {@link #PUSH_POSITION_HEADER_NAME} header. If an append fails, the file is truncated to the previous length.
+     */
+    private void appendPushedPage(ChannelHandlerContext ctx, FullHttpRequest request) throws IOException {
+      Map<String, List<String>> params;
+      try {
+        params = decodeParams(request.getUri());
+      } catch (Throwable e) {
+        LOG.error("Failed to decode uri " + request.getUri());
+        sendError(ctx, e.getMessage(), HttpResponseStatus.BAD_REQUEST);
+        return;
+      }
+
+      if (!params.get("type").get(0).equals("h") || params.get("p").size() != 1) {
+        sendError(ctx, "Only a single hash partition can be pushed", HttpResponseStatus.BAD_REQUEST);
+        return;
+      }
+
+      int partId = Integer.parseInt(params.get("p").get(0));
+      int partParentId = HashShuffleAppenderManager.getPartParentId(partId, conf);
+      Path partPath = StorageUtil.concatPath(getBaseOutputDir(params.get("qid").get(0), params.get("sid").get(0)),
+          "hash-shuffle", String.valueOf(partParentId), String.valueOf(partId));
+
+      ByteBuffer content = request.content().nioBuffer();
+      int length = content.remaining();
+      long pos;
+      synchronized (pushLocks[(partPath.hashCode() & Integer.MAX_VALUE) % pushLocks.length]) {
+        Path path;
+        if (lDirAlloc.ifExists(partPath.toString(), conf)) {
+          path = lDirAlloc.getLocalPathToRead(partPath.toString(), conf);
+        } else {
+          path = lDirAlloc.getLocalPathForWrite(partPath.toString(), conf);
+        }
+        File file = new File(localFS.makeQualified(path).toUri());
+        file.getParentFile().mkdirs();
+
+        try (FileChannel channel = new RandomAccessFile(file, "rw").getChannel()) {
+          pos = channel.size();
+          try {
+            while (content.hasRemaining()) {
+              channel.write(content, pos + length - content.remaining());
+            }
+          } catch (IOException e) {
+            channel.truncate(pos);
+            throw e;
+          }
+        }
+      }
+
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Pushed page appended: " + partPath + ", pos=" + pos + ", length=" + length);
+      }
+
+      FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+      response.headers().set(PUSH_POSITION_HEADER_NAME, pos);
+      sendEmptyResponse(ctx, request, response);
+    }
+
     /**
      * Upon a request from TajoWorker, this method clears index cache for fetching data of an execution block.
      * It is called whenever an execution block is completed.
@@ -727,6 +831,9 @@ public class TajoPullServerService extends AbstractService {
       ChannelFuture writeFuture;
       try {
         spill = new RandomAccessFile(file.getFile(), "r");
+        if (file.getPrefix() != null) {
+          ctx.write(Unpooled.wrappedBuffer(file.getPrefix()));
+        }
         if (ctx.pipeline().get(SslHandler.class) == null) {
           final FadvisedFileRegion filePart = new FadvisedFileRegion(spill,
               file.startOffset(), file.length(), manageOsCache, readaheadLength,
@@ -814,6 +921,7 @@ public class TajoPullServerService extends AbstractService {
     File data;
     long startOffset;
     long endOffset;
+    boolean toEnd = false;
     try {
       if (LOG.isDebugEnabled()) {
         if (indexReaderCache.size() > lowCacheHitCheckThreshold && indexReaderCache.stats().hitRate() < 0.5) {
@@ -919,17 +1027,53 @@ public class TajoPullServerService extends AbstractService {
       if (last || (endOffset == -1
           && comparator.compare(idxReader.getLastKey(), end) < 0)) {
         endOffset = data.length();
+        toEnd = true;
       }
     } finally {
       idxReader.release();
     }
 
-    FileChunk chunk = new FileChunk(data, startOffset, endOffset - startOffset);
+    FileChunk chunk;
+    try (RandomAccessFile raf = new RandomAccessFile(data, "r")) {
+      if (BlockCompression.isCompressed(raf.getChannel())) {
+        chunk = getCompressedFileChunk(data, raf.getChannel(), startOffset, endOffset, toEnd);
+      } else {
+        chunk = new FileChunk(data, startOffset, endOffset - startOffset);
+      }
+    }
 
     if (LOG.isDebugEnabled()) LOG.debug("Retrieve File Chunk: " + chunk);
     return chunk;
   }
 
+  /**
+   * A compressed file is indexed by virtual offsets. Its chunk consists of the data frames including the range.
+   * If the range does not start or end on frame boundaries, a trim frame is sent before them, so that the frames
+   * are sent as they are.
+   */
+  private static FileChunk getCompressedFileChunk(File data, FileChannel channel, long startOffset, long endOffset,
+                                                  boolean toEnd) throws IOException {
+    long start = BlockCompression.getFramePosition(startOffset);
+    int skip = BlockCompression.getOffsetInFrame(startOffset);
+    long end;
+    int keep = -1;
+    if (toEnd) {
+      end = channel.size();
+    } else {
+      end = BlockCompression.getFramePosition(endOffset);
+      if (BlockCompression.getOffsetInFrame(endOffset) > 0) {
+        keep = BlockCompression.getOffsetInFrame(endOffset);
+        end += BlockCompression.getFrameSize(channel, end);
+      }
+    }
+
+    FileChunk chunk = new FileChunk(data, start, end - start);
+    if (end > start && (skip > 0 || keep >= 0)) {
+      chunk.setPrefix(BlockCompression.createTrimFrame(skip, keep, end - start));
+    }
+    return chunk;
+  }
+
   public static List<String> splitMaps(List<String> mapq) {
     if (null == mapq) {
       return null;
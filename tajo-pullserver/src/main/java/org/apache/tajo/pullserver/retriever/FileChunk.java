@@ -36,6 +36,11 @@ public class FileChunk {
    */
   private String ebId;
 
+  /**
+   * Bytes sent before the file region, e.g., a trim frame of a compressed range. It is null if there are no such bytes.
+   */
+  private byte[] prefix;
+
   public FileChunk(File file, long startOffset, long length) throws FileNotFoundException {
     this.file = file;
     this.startOffset = startOffset;
@@ -74,6 +79,21 @@ public class FileChunk {
     this.ebId = newVal;
   }
 
+  public byte[] getPrefix() {
+    return this.prefix;
+  }
+
+  public void setPrefix(byte[] prefix) {
+    this.prefix = prefix;
+  }
+
+  /**
+   * @return the number of bytes to be sent, including the prefix
+   */
+  public long transferLength() {
+    return prefix == null ? length : prefix.length + length;
+  }
+
   public String toString() {
     return " (start=" + startOffset() + ", length=" + length + ", fromRemote=" + fromRemote + ", ebId=" + ebId + ") "
 	+ file.getAbsolutePath();
@@ -198,6 +198,7 @@ WINDOW : W I N D O W;
 AVG : A V G;
 ADD: A D D;
 ALTER : A L T E R;
+ANALYZE : A N A L Y Z E;
 
 BETWEEN : B E T W E E N;
 BY : B Y;
@@ -73,6 +73,7 @@ schema_statement
   | alter_tablespace_statement
   | alter_table_statement
   | truncate_table_statement
+  | analyze_table_statement
   ;
 
 index_statement
@@ -209,6 +210,10 @@ truncate_table_statement
   : TRUNCATE (TABLE)? table_name (COMMA table_name)*
   ;
 
+analyze_table_statement
+  : ANALYZE TABLE table_name
+  ;
+
 /*
 ===============================================================================
   11.21 <data types>
@@ -237,6 +242,7 @@ nonreserved_keywords
   : ADD
   | AVG
   | ALTER
+  | ANALYZE
   | BETWEEN
   | BY
   | CATALOG
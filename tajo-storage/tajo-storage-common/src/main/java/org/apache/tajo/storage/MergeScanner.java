@@ -45,6 +45,7 @@ public class MergeScanner implements Scanner {
   private Scanner currentScanner;
   private boolean projectable = false;
   private boolean selectable = false;
+  private EvalNode filter;
   private Schema target;
   private float progress;
   protected TableStats tableStats;
@@ -73,11 +74,13 @@ public class MergeScanner implements Scanner {
     }
 
     // it should keep the input order. Otherwise, it causes wrong result of sort queries.
-    this.reset();
+    this.iterator = fragments.iterator();
 
-    if (currentScanner != null) {
-      this.projectable = currentScanner.isProjectable();
-      this.selectable = currentScanner.isSelectable();
+    // scanners are opened in init(), after a filter is given
+    if (!fragments.isEmpty()) {
+      Scanner firstScanner = TablespaceManager.getLocalFs().getScanner(meta, schema, fragments.get(0), target);
+      this.projectable = firstScanner.isProjectable();
+      this.selectable = firstScanner.isSelectable();
     }
 
     tableStats = new TableStats();
@@ -94,6 +97,7 @@ public class MergeScanner implements Scanner {
   @Override
   public void init() throws IOException {
     progress = 0.0f;
+    reset();
   }
 
   @Override
@@ -136,6 +140,9 @@ public class MergeScanner implements Scanner {
     if (iterator.hasNext()) {
       currentFragment = iterator.next();
       currentScanner = TablespaceManager.getLocalFs().getScanner(meta, schema, currentFragment, target);
+      if (filter != null) {
+        currentScanner.setFilter(filter);
+      }
       currentScanner.init();
       return currentScanner;
     } else {
@@ -175,7 +182,11 @@ public class MergeScanner implements Scanner {
 
   @Override
   public void setFilter(EvalNode filter) {
-    throw new TajoRuntimeException(new UnsupportedException());
+    if (!selectable) {
+      throw new TajoRuntimeException(new UnsupportedException());
+    }
+    // it is given to each scanner when the scanner is opened
+    this.filter = filter;
   }
 
   @Override
@@ -32,18 +32,34 @@ public class StorageProperty {
   private final boolean absolutePathAllowed;
   /** if this storage provides metadata provider */
   private final boolean metadataProvided;
+  /** if this storage can evaluate aggregations on its tables */
+  private final boolean groupbyPushdownSupported;
+  /** if this storage can evaluate joins between its tables */
+  private final boolean joinPushdownSupported;
 
   public StorageProperty(String defaultFormat,
                          boolean movable,
                          boolean writable,
                          boolean absolutePathAllowed,
                          boolean metadataProvided) {
+    this(defaultFormat, movable, writable, absolutePathAllowed, metadataProvided, false, false);
+  }
+
+  public StorageProperty(String defaultFormat,
+                         boolean movable,
+                         boolean writable,
+                         boolean absolutePathAllowed,
+                         boolean metadataProvided,
+                         boolean groupbyPushdownSupported,
+                         boolean joinPushdownSupported) {
 
     this.defaultFormat = defaultFormat;
     this.movable = movable;
     this.writable = writable;
     this.absolutePathAllowed = absolutePathAllowed;
     this.metadataProvided = metadataProvided;
+    this.groupbyPushdownSupported = groupbyPushdownSupported;
+    this.joinPushdownSupported = joinPushdownSupported;
   }
 
   /**
@@ -89,4 +105,22 @@ public class StorageProperty {
   public boolean isMetadataProvided() {
     return this.metadataProvided;
   }
+
+  /**
+   * Can aggregations be pushed down into this storage?
+   *
+   * @return True if this storage evaluates group-by and aggregation functions on its tables.
+   */
+  public boolean isGroupbyPushdownSupported() {
+    return this.groupbyPushdownSupported;
+  }
+
+  /**
+   * Can joins be pushed down into this storage?
+   *
+   * @return True if this storage evaluates joins between its tables.
+   */
+  public boolean isJoinPushdownSupported() {
+    return this.joinPushdownSupported;
+  }
 }
@@ -313,6 +313,15 @@ public abstract class Tablespace {
     // nothing to do by default
   }
 
+  /**
+   * Rewrite the logical plan so that operators on tables of this tablespace are evaluated by the storage.
+   * It is called for each tablespace of scanned tables after the logical plan is optimized,
+   * only if {@link StorageProperty} of this tablespace supports any pushdown.
+   */
+  public void pushDownOperators(OverridableConf context, LogicalPlan plan) throws TajoException {
+    // nothing to do by default
+  }
+
   ////////////////////////////////////////////////////////////////////////////
   // Table Lifecycle Section
   ////////////////////////////////////////////////////////////////////////////
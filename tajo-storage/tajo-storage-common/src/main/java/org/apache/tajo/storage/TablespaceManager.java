@@ -29,16 +29,24 @@ import net.minidev.json.parser.ParseException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.fs.Path;
+import org.apache.tajo.OverridableConf;
+import org.apache.tajo.SessionVars;
 import org.apache.tajo.TajoConstants;
 import org.apache.tajo.catalog.MetadataProvider;
 import org.apache.tajo.catalog.TableDesc;
 import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.exception.TajoException;
 import org.apache.tajo.exception.TajoRuntimeException;
 import org.apache.tajo.exception.UndefinedTablespaceException;
 import org.apache.tajo.exception.UndefinedTablespaceHandlerException;
 import org.apache.tajo.exception.UnsupportedException;
+import org.apache.tajo.plan.LogicalPlan;
 import org.apache.tajo.plan.StorageService;
 import org.apache.tajo.plan.expr.EvalNode;
+import org.apache.tajo.plan.logical.LogicalNode;
+import org.apache.tajo.plan.logical.NodeType;
+import org.apache.tajo.plan.logical.ScanNode;
+import org.apache.tajo.plan.util.PlannerUtil;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.util.JavaResourceUtil;
 import org.apache.tajo.util.Pair;
@@ -445,6 +453,37 @@ public class TablespaceManager implements StorageService {
     return TABLE_SPACES.values();
   }
 
+  /**
+   * Push down operators into the tablespaces of scanned tables if it is enabled by
+   * {@link SessionVars#STORAGE_PUSHDOWN_ENABLED}. It should be called after the logical plan is optimized.
+   */
+  public static void pushDownOperators(OverridableConf context, LogicalPlan plan) throws TajoException {
+    if (!context.getBool(SessionVars.STORAGE_PUSHDOWN_ENABLED)) {
+      return;
+    }
+
+    // some tablespaces do not support hashCode()
+    List<Tablespace> spaces = new ArrayList<>();
+    for (LogicalPlan.QueryBlock block : plan.getQueryBlocks()) {
+      LogicalNode[] scanNodes = PlannerUtil.findAllNodes(block.getRoot(), NodeType.SCAN);
+      if (scanNodes != null) {
+        for (LogicalNode eachScanNode : scanNodes) {
+          Tablespace space = get(((ScanNode) eachScanNode).getTableDesc().getUri());
+          if (!spaces.contains(space)) {
+            spaces.add(space);
+          }
+        }
+      }
+    }
+
+    for (Tablespace space : spaces) {
+      StorageProperty property = space.getProperty();
+      if (property.isGroupbyPushdownSupported() || property.isJoinPushdownSupported()) {
+        space.pushDownOperators(context, plan);
+      }
+    }
+  }
+
   public static Collection<MetadataProvider> getMetadataProviders() {
     Collection<Tablespace> filteredSpace = Collections2.filter(TABLE_SPACES.values(), new Predicate<Tablespace>() {
       @Override
@@ -0,0 +1,163 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.storage.compress;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.storage.StorageConstants;
+import org.apache.tajo.unit.StorageUnit;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * The format of block-compressed raw files, which are written by {@link BlockCompressor} and read by
+ * {@link BlockDecompressingChannel}.
+ *
+ * A file is a sequence of frames. A data frame consists of a header of
+ * <code>[MAGIC, compressed length, uncompressed length]</code> and compressed chunks, each of which is
+ * <code>[compressed length, compressed bytes]</code> of at most {@link #CHUNK_SIZE} uncompressed bytes.
+ * A trim frame, <code>[TRIM_MAGIC, skip, keep, length]</code>, makes a reader skip the first bytes of the next
+ * data frame and keep only the first bytes of the last one of the following data frames. It allows a range of
+ * a file to be sent without recompressing the frames on its boundaries.
+ *
+ * The magic numbers cannot be the first bytes of an uncompressed raw file, because they are negative record sizes
+ * in the little endian.
+ *
+ * Offsets in a file being written are virtual offsets, which consist of the position of a data frame and
+ * an offset in its uncompressed bytes.
+ */
+public final class BlockCompression {
+  public static final int MAGIC = 0x54435A81;
+  public static final int TRIM_MAGIC = 0x54435A82;
+  public static final int HEADER_SIZE = 12;
+  public static final int TRIM_FRAME_SIZE = 20;
+
+  // the maximum uncompressed size of a frame which is split from a large row block
+  public static final int FRAME_SIZE = 128 * StorageUnit.KB;
+  // The uncompressed size of a chunk. It must not exceed the buffer sizes of native codecs (256KB by default).
+  public static final int CHUNK_SIZE = 64 * StorageUnit.KB;
+
+  private static final int OFFSET_BITS = 24;
+  private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+
+  /**
+   * @return the codec of a table meta or the shuffle codec of the system conf. If both are not set, null.
+   */
+  public static CompressionCodec getCodec(Configuration conf, TableMeta meta) {
+    String codecName = meta.getProperty(StorageConstants.COMPRESSION_CODEC,
+        conf.get(TajoConf.ConfVars.SHUFFLE_COMPRESSION_CODEC.varname, ""));
+    return getCodec(conf, codecName);
+  }
+
+  /**
+   * @return the codec of a class name. If the name is empty, null.
+   */
+  public static CompressionCodec getCodec(Configuration conf, String codecName) {
+    if (codecName == null || codecName.isEmpty()) {
+      return null;
+    }
+    CompressionCodec codec = new CompressionCodecFactory(conf).getCodecByClassName(codecName);
+    if (codec == null) {
+      throw new IllegalArgumentException("Unknown compression codec: " + codecName);
+    }
+    return codec;
+  }
+
+  public static boolean isMagic(int magic) {
+    return magic == MAGIC || magic == TRIM_MAGIC;
+  }
+
+  public static long toVirtualOffset(long framePosition, int offsetInFrame) {
+    if (offsetInFrame > OFFSET_MASK) {
+      throw new IllegalArgumentException("Too large offset in a frame: " + offsetInFrame);
+    }
+    return (framePosition << OFFSET_BITS) | offsetInFrame;
+  }
+
+  public static long getFramePosition(long virtualOffset) {
+    return virtualOffset >>> OFFSET_BITS;
+  }
+
+  public static int getOffsetInFrame(long virtualOffset) {
+    return (int) (virtualOffset & OFFSET_MASK);
+  }
+
+  /**
+   * @return True if a file starts with a frame
+   */
+  public static boolean isCompressed(FileChannel channel) throws IOException {
+    if (channel.size() < HEADER_SIZE) {
+      return false;
+    }
+    ByteBuffer magic = ByteBuffer.allocate(4);
+    readFully(channel, magic, 0);
+    return isMagic(magic.getInt(0));
+  }
+
+  /**
+   * @return the size of the data frame starting at a given position, including its header
+   */
+  public static int getFrameSize(FileChannel channel, long position) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    readFully(channel, header, position);
+    if (header.getInt(0) != MAGIC) {
+      throw new IOException("No data frame at " + position);
+    }
+    return HEADER_SIZE + header.getInt(4);
+  }
+
+  /**
+   * Create a trim frame.
+   *
+   * @param skip The number of uncompressed bytes to be skipped in the first data frame
+   * @param keep The number of uncompressed bytes to be kept in the last data frame. -1 keeps all bytes.
+   * @param length The total size of the following data frames
+   */
+  public static byte[] createTrimFrame(int skip, int keep, long length) {
+    return ByteBuffer.allocate(TRIM_FRAME_SIZE).putInt(TRIM_MAGIC).putInt(skip).putInt(keep).putLong(length)
+        .array();
+  }
+
+  static void readFully(ReadableByteChannel channel, ByteBuffer dst) throws IOException {
+    while (dst.hasRemaining()) {
+      if (channel.read(dst) < 0) {
+        throw new EOFException("Unexpected end of a compressed block");
+      }
+    }
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer dst, long position) throws IOException {
+    while (dst.hasRemaining()) {
+      if (channel.read(dst, position + dst.position()) < 0) {
+        throw new EOFException("Unexpected end of a compressed block at " + position);
+      }
+    }
+  }
+
+  private BlockCompression() {
+  }
+}
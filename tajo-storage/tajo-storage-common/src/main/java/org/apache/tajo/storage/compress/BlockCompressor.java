@@ -0,0 +1,99 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.storage.compress;
+
+import io.netty.buffer.ByteBuf;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.Compressor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * BlockCompressor compresses bytes into data frames of {@link BlockCompression}.
+ * Each chunk of a frame is compressed independently, so that it can be decompressed by a block codec such as
+ * LZ4 and Snappy.
+ */
+public class BlockCompressor implements Closeable {
+  private Compressor compressor;
+  private final byte[] chunk = new byte[BlockCompression.CHUNK_SIZE];
+  private ByteBuffer frame = ByteBuffer.allocate(BlockCompression.HEADER_SIZE + BlockCompression.CHUNK_SIZE);
+
+  public BlockCompressor(CompressionCodec codec) throws IOException {
+    this.compressor = CodecPool.getCompressor(codec);
+    if (compressor == null) {
+      throw new IOException(codec.getClass().getName() + " does not provide a compressor");
+    }
+  }
+
+  /**
+   * Compress bytes of a buffer into a data frame. The reader index of the buffer is advanced.
+   *
+   * @param length The number of bytes to be compressed
+   * @return the frame. It is valid until the next call.
+   */
+  public ByteBuffer compress(ByteBuf src, int length) throws IOException {
+    frame.clear();
+    frame.putInt(BlockCompression.MAGIC).putInt(0).putInt(length);
+
+    int remaining = length;
+    while (remaining > 0) {
+      int chunkLength = Math.min(BlockCompression.CHUNK_SIZE, remaining);
+      src.readBytes(chunk, 0, chunkLength);
+      remaining -= chunkLength;
+
+      compressor.reset();
+      compressor.setInput(chunk, 0, chunkLength);
+      compressor.finish();
+
+      ensureRemaining(4);
+      int lengthPosition = frame.position();
+      frame.position(lengthPosition + 4);
+      while (!compressor.finished()) {
+        ensureRemaining(chunkLength / 8 + 64);
+        int written = compressor.compress(frame.array(), frame.position(), frame.remaining());
+        frame.position(frame.position() + written);
+      }
+      frame.putInt(lengthPosition, frame.position() - lengthPosition - 4);
+    }
+
+    frame.putInt(4, frame.position() - BlockCompression.HEADER_SIZE);
+    frame.flip();
+    return frame;
+  }
+
+  private void ensureRemaining(int size) {
+    if (frame.remaining() < size) {
+      ByteBuffer newFrame = ByteBuffer.allocate(Math.max(frame.capacity() * 2, frame.position() + size));
+      frame.flip();
+      newFrame.put(frame);
+      frame = newFrame;
+    }
+  }
+
+  @Override
+  public void close() {
+    if (compressor != null) {
+      CodecPool.returnCompressor(compressor);
+      compressor = null;
+    }
+  }
+}
@@ -0,0 +1,235 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.storage.compress;
+
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.Decompressor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * BlockDecompressingChannel reads the uncompressed bytes of frames of {@link BlockCompression} from a channel.
+ * It reads the given length of the channel from its current position. Positions of this channel are offsets in
+ * the uncompressed bytes. A backward seek out of the current frame reads frames again from the start.
+ */
+public class BlockDecompressingChannel implements SeekableByteChannel {
+  private final SeekableByteChannel channel;
+  private final long start;
+  private final long length;
+  private Decompressor decompressor;
+
+  private final ByteBuffer header = ByteBuffer.allocate(BlockCompression.TRIM_FRAME_SIZE);
+  private ByteBuffer compressed = ByteBuffer.allocate(BlockCompression.CHUNK_SIZE);
+  private byte[] frame = new byte[BlockCompression.FRAME_SIZE];
+
+  // the number of bytes read from the channel
+  private long consumed;
+  // uncompressed bytes of the current frame in [frameStart, frameLimit)
+  private int frameStart;
+  private int frameOffset;
+  private int frameLimit;
+  private long position;
+
+  // the state of the last trim frame
+  private int skip;
+  private int keep = -1;
+  private long trimEnd;
+
+  public BlockDecompressingChannel(SeekableByteChannel channel, long length, CompressionCodec codec)
+      throws IOException {
+    this.channel = channel;
+    this.start = channel.position();
+    this.length = length;
+    this.decompressor = CodecPool.getDecompressor(codec);
+    if (decompressor == null) {
+      throw new IOException(codec.getClass().getName() + " does not provide a decompressor");
+    }
+  }
+
+  /**
+   * @return the number of compressed bytes read from the underlying channel
+   */
+  public long getCompressedPosition() {
+    return consumed;
+  }
+
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    if (frameOffset == frameLimit && !nextFrame()) {
+      return -1;
+    }
+
+    int n = Math.min(dst.remaining(), frameLimit - frameOffset);
+    dst.put(frame, frameOffset, n);
+    frameOffset += n;
+    position += n;
+    return n;
+  }
+
+  /**
+   * Read and decompress the next data frame having any bytes to be read.
+   *
+   * @return False if there are no more frames
+   */
+  private boolean nextFrame() throws IOException {
+    while (consumed < length) {
+      header.clear();
+      header.limit(4);
+      BlockCompression.readFully(channel, header);
+      int magic = header.getInt(0);
+
+      if (magic == BlockCompression.TRIM_MAGIC) {
+        header.limit(BlockCompression.TRIM_FRAME_SIZE);
+        BlockCompression.readFully(channel, header);
+        consumed += BlockCompression.TRIM_FRAME_SIZE;
+        skip = header.getInt(4);
+        keep = header.getInt(8);
+        trimEnd = consumed + header.getLong(12);
+        continue;
+
+      } else if (magic != BlockCompression.MAGIC) {
+        throw new IOException("Invalid compressed block at " + (start + consumed));
+      }
+
+      header.limit(BlockCompression.HEADER_SIZE);
+      BlockCompression.readFully(channel, header);
+      int compressedLength = header.getInt(4);
+      int uncompressedLength = header.getInt(8);
+      if (compressed.capacity() < compressedLength) {
+        compressed = ByteBuffer.allocate(compressedLength);
+      }
+      compressed.clear();
+      compressed.limit(compressedLength);
+      BlockCompression.readFully(channel, compressed);
+      consumed += BlockCompression.HEADER_SIZE + compressedLength;
+      decompress(uncompressedLength);
+
+      frameStart = frameOffset = skip;
+      frameLimit = uncompressedLength;
+      skip = 0;
+      if (keep >= 0 && consumed == trimEnd) {
+        frameLimit = keep;
+        keep = -1;
+      }
+      if (frameOffset < frameLimit) {
+        return true;
+      }
+    }
+    frameStart = frameOffset = frameLimit = 0;
+    return false;
+  }
+
+  private void decompress(int uncompressedLength) throws IOException {
+    if (frame.length < uncompressedLength) {
+      frame = new byte[uncompressedLength];
+    }
+
+    int chunkPosition = 0;
+    int uncompressed = 0;
+    while (uncompressed < uncompressedLength) {
+      int chunkLength = compressed.getInt(chunkPosition);
+      int expected = Math.min(BlockCompression.CHUNK_SIZE, uncompressedLength - uncompressed);
+
+      decompressor.reset();
+      decompressor.setInput(compressed.array(), chunkPosition + 4, chunkLength);
+      int n = 0;
+      while (n < expected) {
+        int read = decompressor.decompress(frame, uncompressed + n, expected - n);
+        if (read == 0 && (decompressor.finished() || decompressor.needsInput())) {
+          break;
+        }
+        n += read;
+      }
+      if (n != expected) {
+        throw new IOException("Corrupted compressed block at " + (start + consumed));
+      }
+      chunkPosition += 4 + chunkLength;
+      uncompressed += n;
+    }
+  }
+
+  @Override
+  public long position() throws IOException {
+    return position;
+  }
+
+  @Override
+  public SeekableByteChannel position(long newPosition) throws IOException {
+    if (newPosition < position) {
+      if (position - newPosition <= frameOffset - frameStart) {
+        frameOffset -= (int) (position - newPosition);
+        position = newPosition;
+        return this;
+      }
+
+      // read frames again from the start
+      channel.position(start);
+      consumed = position = 0;
+      frameStart = frameOffset = frameLimit = 0;
+      skip = 0;
+      keep = -1;
+    }
+
+    while (position < newPosition) {
+      if (frameOffset == frameLimit && !nextFrame()) {
+        break;
+      }
+      int n = (int) Math.min(newPosition - position, frameLimit - frameOffset);
+      frameOffset += n;
+      position += n;
+    }
+    return this;
+  }
+
+  /**
+   * @return the compressed size
+   */
+  @Override
+  public long size() throws IOException {
+    return length;
+  }
+
+  @Override
+  public int write(ByteBuffer src) throws IOException {
+    throw new NonWritableChannelException();
+  }
+
+  @Override
+  public SeekableByteChannel truncate(long size) throws IOException {
+    throw new NonWritableChannelException();
+  }
+
+  @Override
+  public boolean isOpen() {
+    return channel.isOpen();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (decompressor != null) {
+      CodecPool.returnDecompressor(decompressor);
+      decompressor = null;
+    }
+    channel.close();
+  }
+}
@@ -0,0 +1,202 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.vector;
+
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.exception.TajoRuntimeException;
+import org.apache.tajo.exception.UnsupportedDataTypeException;
+import org.apache.tajo.storage.Tuple;
+
+import java.util.Arrays;
+
+/**
+ * ColumnVector keeps values of a column for all rows of a {@link VectorizedRowBatch} in a primitive array.
+ *
+ * Values are stored in the same representation as the primitive getters of {@link Tuple}.
+ * <ul>
+ *   <li>LONG: BOOLEAN (0 or 1), INT1, INT2, INT4, INT8, DATE, TIME, TIMESTAMP and INET4</li>
+ *   <li>DOUBLE: FLOAT4 and FLOAT8</li>
+ *   <li>BYTES: CHAR, TEXT and BLOB</li>
+ * </ul>
+ * The value of a null row is undefined.
+ */
+public class ColumnVector {
+
+  public enum VectorType {
+    LONG,
+    DOUBLE,
+    BYTES
+  }
+
+  private final DataType dataType;
+  private final VectorType vectorType;
+
+  private long[] longs;
+  private double[] doubles;
+  private byte[][] bytes;
+
+  private final boolean[] isNull;
+  // true if no row is null. It allows to skip null checks.
+  private boolean noNulls = true;
+
+  public ColumnVector(DataType dataType, int maxSize) {
+    this.dataType = dataType;
+    this.vectorType = getVectorType(dataType.getType());
+    if (vectorType == null) {
+      throw new TajoRuntimeException(new UnsupportedDataTypeException(dataType.getType().name()));
+    }
+
+    switch (vectorType) {
+      case LONG: longs = new long[maxSize]; break;
+      case DOUBLE: doubles = new double[maxSize]; break;
+      default: bytes = new byte[maxSize][]; break;
+    }
+    this.isNull = new boolean[maxSize];
+  }
+
+  /**
+   * @return the vector type for a given data type. If the data type is not supported, null.
+   */
+  public static VectorType getVectorType(Type type) {
+    switch (type) {
+      case BOOLEAN:
+      case INT1:
+      case INT2:
+      case INT4:
+      case INT8:
+      case DATE:
+      case TIME:
+      case TIMESTAMP:
+      case INET4:
+        return VectorType.LONG;
+      case FLOAT4:
+      case FLOAT8:
+        return VectorType.DOUBLE;
+      case CHAR:
+      case TEXT:
+      case BLOB:
+        return VectorType.BYTES;
+      default:
+        return null;
+    }
+  }
+
+  public static boolean isSupported(DataType dataType) {
+    return getVectorType(dataType.getType()) != null;
+  }
+
+  public DataType getDataType() {
+    return dataType;
+  }
+
+  public VectorType getVectorType() {
+    return vectorType;
+  }
+
+  public long[] getLongs() {
+    return longs;
+  }
+
+  public double[] getDoubles() {
+    return doubles;
+  }
+
+  public byte[][] getBytes() {
+    return bytes;
+  }
+
+  public boolean isNull(int row) {
+    return !noNulls && isNull[row];
+  }
+
+  /**
+   * @return True if some rows may be null.
+   */
+  public boolean hasNulls() {
+    return !noNulls;
+  }
+
+  public void setNull(int row) {
+    isNull[row] = true;
+    noNulls = false;
+  }
+
+  public void reset() {
+    if (!noNulls) {
+      Arrays.fill(isNull, false);
+      noNulls = true;
+    }
+  }
+
+  /**
+   * Copy a field of a tuple into a row.
+   */
+  public void set(int row, Tuple tuple, int fieldId) {
+    if (tuple.isBlankOrNull(fieldId)) {
+      setNull(row);
+      return;
+    }
+    isNull[row] = false;
+
+    switch (dataType.getType()) {
+      case BOOLEAN: longs[row] = tuple.getBool(fieldId) ? 1 : 0; break;
+      case INT1:
+      case INT2: longs[row] = tuple.getInt2(fieldId); break;
+      case INT4:
+      case DATE:
+      case INET4: longs[row] = tuple.getInt4(fieldId); break;
+      case INT8:
+      case TIME:
+      case TIMESTAMP: longs[row] = tuple.getInt8(fieldId); break;
+      case FLOAT4: doubles[row] = tuple.getFloat4(fieldId); break;
+      case FLOAT8: doubles[row] = tuple.getFloat8(fieldId); break;
+      default: bytes[row] = tuple.getBytes(fieldId); break;
+    }
+  }
+
+  /**
+   * @return a datum of a row. It is the boundary to tuple-at-a-time operators.
+   */
+  public Datum getDatum(int row) {
+    if (isNull(row)) {
+      return NullDatum.get();
+    }
+
+    switch (dataType.getType()) {
+      case BOOLEAN: return DatumFactory.createBool(longs[row] != 0);
+      case INT1:
+      case INT2: return DatumFactory.createInt2((short) longs[row]);
+      case INT4: return DatumFactory.createInt4((int) longs[row]);
+      case INT8: return DatumFactory.createInt8(longs[row]);
+      case DATE: return DatumFactory.createDate((int) longs[row]);
+      case TIME: return DatumFactory.createTime(longs[row]);
+      case TIMESTAMP: return DatumFactory.createTimestamp(longs[row]);
+      case INET4: return DatumFactory.createInet4((int) longs[row]);
+      case FLOAT4: return DatumFactory.createFloat4((float) doubles[row]);
+      case FLOAT8: return DatumFactory.createFloat8(doubles[row]);
+      case CHAR: return DatumFactory.createChar(bytes[row]);
+      case TEXT: return DatumFactory.createText(bytes[row]);
+      default: return DatumFactory.createBlob(bytes[row]);
+    }
+  }
+}
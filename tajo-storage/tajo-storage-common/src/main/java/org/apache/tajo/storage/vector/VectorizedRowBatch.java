@@ -0,0 +1,179 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.vector;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.storage.Tuple;
+
+/**
+ * VectorizedRowBatch is a set of rows stored column by column in {@link ColumnVector}s.
+ *
+ * Filters do not move values. Instead, they narrow the selection of a batch. If the selection is in use,
+ * only rows whose indexes are in the first size() elements of getSelected() are valid.
+ * Otherwise, all rows from 0 to size() - 1 are valid.
+ */
+public class VectorizedRowBatch {
+  public static final int DEFAULT_SIZE = 1024;
+
+  private final ColumnVector[] columns;
+  private final int maxSize;
+  private final int[] selected;
+  private boolean selectedInUse;
+  private int size;
+
+  public VectorizedRowBatch(Schema schema) {
+    this(schema, DEFAULT_SIZE);
+  }
+
+  public VectorizedRowBatch(Schema schema, int maxSize) {
+    this.columns = new ColumnVector[schema.size()];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = new ColumnVector(schema.getColumn(i).getDataType(), maxSize);
+    }
+    this.maxSize = maxSize;
+    this.selected = new int[maxSize];
+  }
+
+  private VectorizedRowBatch(ColumnVector[] columns, int maxSize, int[] selected) {
+    this.columns = columns;
+    this.maxSize = maxSize;
+    this.selected = selected;
+  }
+
+  /**
+   * @return True if all columns of a given schema can be kept in column vectors.
+   */
+  public static boolean isSupported(Schema schema) {
+    for (Column column : schema.getRootColumns()) {
+      if (!ColumnVector.isSupported(column.getDataType())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Create a batch which shares column vectors and the selection array of this batch.
+   * The size and whether the selection is in use should be copied by {@link #setSelection(VectorizedRowBatch)}.
+   *
+   * @param columnIds column indexes of this batch for each column of the projected batch
+   */
+  public VectorizedRowBatch project(int[] columnIds) {
+    ColumnVector[] projected = new ColumnVector[columnIds.length];
+    for (int i = 0; i < columnIds.length; i++) {
+      projected[i] = columns[columnIds[i]];
+    }
+    return new VectorizedRowBatch(projected, maxSize, selected);
+  }
+
+  /**
+   * Copy the size and the selection state from a batch sharing the selection array.
+   */
+  public void setSelection(VectorizedRowBatch batch) {
+    this.size = batch.size;
+    this.selectedInUse = batch.selectedInUse;
+  }
+
+  public ColumnVector getColumn(int columnId) {
+    return columns[columnId];
+  }
+
+  public int getColumnNum() {
+    return columns.length;
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * @return the number of valid rows
+   */
+  public int size() {
+    return size;
+  }
+
+  public void setSize(int size) {
+    this.size = size;
+  }
+
+  public boolean isFull() {
+    return size == maxSize;
+  }
+
+  public int[] getSelected() {
+    return selected;
+  }
+
+  public boolean isSelectedInUse() {
+    return selectedInUse;
+  }
+
+  public void setSelectedInUse(boolean selectedInUse) {
+    this.selectedInUse = selectedInUse;
+  }
+
+  /**
+   * @param i an index between 0 and size() - 1
+   * @return the row index of the i-th valid row
+   */
+  public int getRow(int i) {
+    return selectedInUse ? selected[i] : i;
+  }
+
+  /**
+   * Clear all rows and null flags to fill this batch again.
+   */
+  public void reset() {
+    size = 0;
+    selectedInUse = false;
+    for (ColumnVector column : columns) {
+      column.reset();
+    }
+  }
+
+  /**
+   * Append a tuple to this batch. It must be called before any selection is applied.
+   *
+   * @return False if this batch is full.
+   */
+  public boolean addTuple(Tuple tuple) {
+    if (size == maxSize) {
+      return false;
+    }
+    for (int i = 0; i < columns.length; i++) {
+      columns[i].set(size, tuple, i);
+    }
+    size++;
+    return true;
+  }
+
+  /**
+   * Write all columns of a row into a tuple for tuple-at-a-time operators.
+   *
+   * @param row row index, not an index of the selection
+   * @param output a tuple which has at least getColumnNum() fields
+   */
+  public void fillTuple(int row, Tuple output) {
+    for (int i = 0; i < columns.length; i++) {
+      output.put(i, columns[i].getDatum(row));
+    }
+  }
+}
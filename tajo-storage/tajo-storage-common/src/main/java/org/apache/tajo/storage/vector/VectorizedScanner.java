@@ -0,0 +1,44 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.vector;
+
+import org.apache.tajo.storage.Scanner;
+
+import java.io.IOException;
+
+/**
+ * A scanner which can write rows into column vectors directly without creating any tuple.
+ *
+ * Columns of a batch are in the same order as tuples returned by {@link Scanner#next()}.
+ * That is, they are projected columns if the scanner is projectable. Otherwise, all columns of the schema.
+ * next() and nextBatch() should not be mixed for the same scanner.
+ */
+public interface VectorizedScanner extends Scanner {
+
+  /**
+   * Fill the next rows into a batch. The batch is reset before filling.
+   *
+   * A filter given by {@link Scanner#setFilter} may be used only to skip data coarsely,
+   * such as by column statistics. So, the caller must evaluate the filter for every row of the batch.
+   *
+   * @param batch a batch whose columns are the same as tuples of this scanner
+   * @return False if there are no more rows
+   */
+  boolean nextBatch(VectorizedRowBatch batch) throws IOException;
+}
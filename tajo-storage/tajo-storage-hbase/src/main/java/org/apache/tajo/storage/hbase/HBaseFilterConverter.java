@@ -0,0 +1,309 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.hbase;
+
+import org.apache.hadoop.hbase.filter.BinaryComparator;
+import org.apache.hadoop.hbase.filter.CompareFilter.CompareOp;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.SingleColumnValueFilter;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.plan.expr.*;
+import org.apache.tajo.util.Bytes;
+
+/**
+ * Converts a Tajo filter into an HBase {@link Filter}, which region servers evaluate to drop rows
+ * before they are sent to scanners.
+ *
+ * Only a part of a filter may be converted. A converted filter never rejects a row accepted by
+ * the original filter, so the original filter still has to be evaluated for the returned rows.
+ * Supported predicates are comparisons between a column and a constant, IN, IS NULL, AND and OR.
+ * Only columns mapped to a qualifier of a column family are converted, and region servers compare their cells
+ * as unsigned bytes. So, text columns support all comparisons, while integer columns stored in the binary format
+ * support only equality predicates. The other columns are left to the original filter.
+ */
+public class HBaseFilterConverter {
+  private static final byte[] EMPTY_VALUE = new byte[0];
+
+  private final Schema schema;
+  private final ColumnMapping columnMapping;
+  private final boolean[] isReadColumns;
+
+  /**
+   * @param schema the schema of the table
+   * @param columnMapping the column mapping of the table
+   * @param targets columns read from the table. Only these columns can be referred to by converted filters.
+   */
+  public HBaseFilterConverter(Schema schema, ColumnMapping columnMapping, Column[] targets) {
+    this.schema = schema;
+    this.columnMapping = columnMapping;
+    this.isReadColumns = new boolean[schema.size()];
+    for (Column target : targets) {
+      int columnId = schema.getColumnId(target.getQualifiedName());
+      if (columnId >= 0) {
+        isReadColumns[columnId] = true;
+      }
+    }
+  }
+
+  /**
+   * @param filter a Tajo filter
+   * @return an HBase filter, or null if no part of the filter can be converted
+   */
+  public Filter convert(EvalNode filter) {
+    switch (filter.getType()) {
+      case AND:
+        return convertAnd((BinaryEval) filter);
+      case OR:
+        return convertOr((BinaryEval) filter);
+      case EQUAL:
+      case NOT_EQUAL:
+      case LTH:
+      case LEQ:
+      case GTH:
+      case GEQ:
+        return convertComparison((BinaryEval) filter);
+      case IS_NULL:
+        return convertIsNull((IsNullEval) filter);
+      case IN:
+        return convertIn((InEval) filter);
+      default:
+        return null;
+    }
+  }
+
+  private Filter convertAnd(BinaryEval and) {
+    Filter left = convert(and.getLeftExpr());
+    Filter right = convert(and.getRightExpr());
+    if (left == null) {
+      return right;
+    } else if (right == null) {
+      return left;
+    } else {
+      return new FilterList(FilterList.Operator.MUST_PASS_ALL, left, right);
+    }
+  }
+
+  private Filter convertOr(BinaryEval or) {
+    Filter left = convert(or.getLeftExpr());
+    Filter right = convert(or.getRightExpr());
+    return left == null || right == null ? null : new FilterList(FilterList.Operator.MUST_PASS_ONE, left, right);
+  }
+
+  private Filter convertIsNull(IsNullEval isNull) {
+    int columnId = getColumnId(isNull.getChild());
+    if (columnId < 0) {
+      return null;
+    }
+    switch (schema.getColumn(columnId).getDataType().getType()) {
+      case TEXT:
+      case INT1:
+      case INT2:
+      case INT4:
+      case INT8:
+      case FLOAT4:
+      case FLOAT8:
+        break;
+      default:
+        // cells of the other types are always deserialized into null
+        return null;
+    }
+
+    byte[][] mappingColumn = columnMapping.getMappingColumns()[columnId];
+    SingleColumnValueFilter filter;
+    if (!isNull.isNot()) {
+      // an empty cell is null except for text columns, so a missing or empty cell is accepted
+      filter = new SingleColumnValueFilter(mappingColumn[0], mappingColumn[1], CompareOp.EQUAL, EMPTY_VALUE);
+      filter.setFilterIfMissing(false);
+    } else if (schema.getColumn(columnId).getDataType().getType() == Type.TEXT) {
+      // any existing cell, including an empty one, is a text value
+      filter = new SingleColumnValueFilter(mappingColumn[0], mappingColumn[1], CompareOp.GREATER_OR_EQUAL,
+          EMPTY_VALUE);
+      filter.setFilterIfMissing(true);
+    } else {
+      filter = new SingleColumnValueFilter(mappingColumn[0], mappingColumn[1], CompareOp.NOT_EQUAL, EMPTY_VALUE);
+      filter.setFilterIfMissing(true);
+    }
+    return filter;
+  }
+
+  private Filter convertComparison(BinaryEval binaryEval) {
+    EvalType type = binaryEval.getType();
+    EvalNode columnSide = binaryEval.getLeftExpr();
+    EvalNode constSide = binaryEval.getRightExpr();
+    if (columnSide.getType() == EvalType.CONST) {
+      columnSide = binaryEval.getRightExpr();
+      constSide = binaryEval.getLeftExpr();
+      type = flip(type);
+    }
+
+    int columnId = getColumnId(columnSide);
+    if (columnId < 0 || constSide.getType() != EvalType.CONST) {
+      return null;
+    }
+    Datum value = ((ConstEval) constSide).getValue();
+    if (value.isNull()) {
+      // a comparison with null is never true, but it is left to the row-level filter.
+      return null;
+    }
+    return comparison(type, columnId, value);
+  }
+
+  private Filter convertIn(InEval inEval) {
+    if (inEval.isNot() || !(inEval.getRightExpr() instanceof ValueSetEval)) {
+      return null;
+    }
+    int columnId = getColumnId(inEval.getLeftExpr());
+    if (columnId < 0) {
+      return null;
+    }
+
+    FilterList filters = new FilterList(FilterList.Operator.MUST_PASS_ONE);
+    for (Datum value : ((ValueSetEval) inEval.getRightExpr()).getValues()) {
+      if (value.isNull()) {
+        continue;
+      }
+      Filter eq = comparison(EvalType.EQUAL, columnId, value);
+      if (eq == null) {
+        return null;
+      }
+      filters.addFilter(eq);
+    }
+    return filters.getFilters().isEmpty() ? null : filters;
+  }
+
+  private static EvalType flip(EvalType type) {
+    switch (type) {
+      case LTH:
+        return EvalType.GTH;
+      case LEQ:
+        return EvalType.GEQ;
+      case GTH:
+        return EvalType.LTH;
+      case GEQ:
+        return EvalType.LEQ;
+      default:
+        return type;
+    }
+  }
+
+  /**
+   * @return the index of a column mapped to a qualifier of a column family, or -1
+   */
+  private int getColumnId(EvalNode node) {
+    if (node.getType() != EvalType.FIELD) {
+      return -1;
+    }
+    int columnId = schema.getColumnId(((FieldEval) node).getColumnRef().getQualifiedName());
+    if (columnId < 0 || !isReadColumns[columnId] || columnMapping.getIsRowKeyMappings()[columnId]
+        || columnMapping.getIsColumnKeys()[columnId] || columnMapping.getIsColumnValues()[columnId]
+        || columnMapping.getMappingColumns()[columnId][1] == null) {
+      return -1;
+    }
+    return columnId;
+  }
+
+  private boolean isSupportedType(int columnId) {
+    switch (schema.getColumn(columnId).getDataType().getType()) {
+      case TEXT:
+        return true;
+      case INT1:
+      case INT2:
+      case INT4:
+        return columnMapping.getIsBinaryColumns()[columnId];
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * @return a filter, or null if the value cannot be compared exactly with the stored cells
+   */
+  private Filter comparison(EvalType type, int columnId, Datum value) {
+    if (!isSupportedType(columnId)) {
+      return null;
+    }
+
+    byte[] bytes;
+    switch (schema.getColumn(columnId).getDataType().getType()) {
+      case TEXT:
+        if (value.type() != Type.TEXT) {
+          return null;
+        }
+        bytes = value.asByteArray();
+        break;
+
+      case INT1:
+      case INT2:
+        // signed integers are not ordered as unsigned bytes
+        if (!isEquality(type) || !isIntegral(value.type()) || value.asInt8() != (short) value.asInt8()) {
+          return null;
+        }
+        bytes = Bytes.toBytes((short) value.asInt8());
+        break;
+
+      case INT4:
+        if (!isEquality(type) || !isIntegral(value.type()) || value.asInt8() != (int) value.asInt8()) {
+          return null;
+        }
+        bytes = Bytes.toBytes((int) value.asInt8());
+        break;
+
+      default:
+        return null;
+    }
+
+    byte[][] mappingColumn = columnMapping.getMappingColumns()[columnId];
+    SingleColumnValueFilter filter = new SingleColumnValueFilter(mappingColumn[0], mappingColumn[1],
+        toCompareOp(type), new BinaryComparator(bytes));
+    // a comparison with a missing cell, which is null, is never true
+    filter.setFilterIfMissing(true);
+    return filter;
+  }
+
+  private static boolean isEquality(EvalType type) {
+    return type == EvalType.EQUAL || type == EvalType.NOT_EQUAL;
+  }
+
+  private static boolean isIntegral(Type type) {
+    return type == Type.INT1 || type == Type.INT2 || type == Type.INT4 || type == Type.INT8;
+  }
+
+  private static CompareOp toCompareOp(EvalType type) {
+    switch (type) {
+      case EQUAL:
+        return CompareOp.EQUAL;
+      case NOT_EQUAL:
+        return CompareOp.NOT_EQUAL;
+      case LTH:
+        return CompareOp.LESS;
+      case LEQ:
+        return CompareOp.LESS_OR_EQUAL;
+      case GTH:
+        return CompareOp.GREATER;
+      case GEQ:
+        return CompareOp.GREATER_OR_EQUAL;
+      default:
+        throw new IllegalArgumentException("Not a comparison: " + type);
+    }
+  }
+}
@@ -23,10 +23,12 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.client.*;
+import org.apache.hadoop.hbase.filter.Filter;
 import org.apache.hadoop.hbase.filter.FilterList;
 import org.apache.hadoop.hbase.filter.FirstKeyOnlyFilter;
 import org.apache.hadoop.hbase.filter.InclusiveStopFilter;
 import org.apache.hadoop.hbase.filter.KeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.PageFilter;
 import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableMeta;
@@ -88,6 +90,9 @@ public class HBaseScanner implements Scanner {
 
   private Tuple outTuple;
 
+  private EvalNode filter;
+  private long limit = -1;
+
   public HBaseScanner (Configuration conf, Schema schema, TableMeta meta, Fragment fragment) throws IOException {
     Preconditions.checkNotNull(conf);
     Preconditions.checkNotNull(schema);
@@ -151,28 +156,43 @@ public class HBaseScanner implements Scanner {
 
   private void initScanner() throws IOException {
     scan = new Scan();
-    scan.setBatch(scanFetchSize);
     scan.setCacheBlocks(false);
-    scan.setCaching(scanFetchSize);
+    scan.setCaching(limit > 0 ? (int) Math.min(scanFetchSize, limit) : scanFetchSize);
 
     FilterList filters = null;
-    if (targetIndexes == null || targetIndexes.length == 0) {
+    boolean rowKeyOnly = true;
+    for (int eachIndex : targetIndexes) {
+      if (isRowKeyMappings[eachIndex]) {
+        continue;
+      }
+      rowKeyOnly = false;
+      byte[][] mappingColumn = mappingColumnFamilies[eachIndex];
+      if (mappingColumn[1] == null) {
+        scan.addFamily(mappingColumn[0]);
+      } else {
+        scan.addColumn(mappingColumn[0], mappingColumn[1]);
+      }
+    }
+    if (rowKeyOnly) {
+      // only the first cell of each row is fetched without its value
       filters = new FilterList(FilterList.Operator.MUST_PASS_ALL);
       filters.addFilter(new FirstKeyOnlyFilter());
       filters.addFilter(new KeyOnlyFilter());
-    } else {
-      boolean[] isRowKeyMappings = columnMapping.getIsRowKeyMappings();
-      for (int eachIndex : targetIndexes) {
-        if (isRowKeyMappings[eachIndex]) {
-          continue;
-        }
-        byte[][] mappingColumn = columnMapping.getMappingColumns()[eachIndex];
-        if (mappingColumn[1] == null) {
-          scan.addFamily(mappingColumn[0]);
-        } else {
-          scan.addColumn(mappingColumn[0], mappingColumn[1]);
-        }
+    }
+
+    // region servers drop rows by the converted part of the filter
+    Filter valueFilter = null;
+    if (filter != null) {
+      valueFilter = new HBaseFilterConverter(schema, columnMapping, targets).convert(filter);
+    }
+    if (valueFilter != null) {
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("HBase filter: " + valueFilter);
+      }
+      if (filters == null) {
+        filters = new FilterList(FilterList.Operator.MUST_PASS_ALL);
       }
+      filters.addFilter(valueFilter);
     }
 
     scan.setStartRow(fragment.getStartRow());
@@ -187,6 +207,19 @@ public class HBaseScanner implements Scanner {
       scan.setStopRow(fragment.getStopRow());
     }
 
+    boolean pageLimited = limit > 0 && filter == null;
+    if (pageLimited) {
+      // Each region server stops after the limit. If there is a filter, rows are counted after it is evaluated.
+      if (filters == null) {
+        filters = new FilterList(FilterList.Operator.MUST_PASS_ALL);
+      }
+      filters.addFilter(new PageFilter(limit));
+    }
+
+    // filters evaluated for whole rows cannot be used with batches of cells
+    if (valueFilter == null && !pageLimited) {
+      scan.setBatch(scanFetchSize);
+    }
     if (filters != null) {
       scan.setFilter(filters);
     }
@@ -200,26 +233,35 @@ public class HBaseScanner implements Scanner {
 
   @Override
   public Tuple next() throws IOException {
-    if (finished.get()) {
-      return null;
-    }
-
-    if (scanResults == null || scanResultIndex >= scanResults.length) {
-      scanResults = scanner.next(scanFetchSize);
-      if (scanResults == null || scanResults.length == 0) {
+    while (!finished.get()) {
+      if (limit >= 0 && numRows >= limit) {
         finished.set(true);
         progress = 1.0f;
         return null;
       }
-      scanResultIndex = 0;
-    }
 
-    Result result = scanResults[scanResultIndex++];
-    for (int i = 0; i < targetIndexes.length; i++) {
-      outTuple.put(i, getDatum(result, targetIndexes[i]));
+      if (scanResults == null || scanResultIndex >= scanResults.length) {
+        scanResults = scanner.next(scanFetchSize);
+        if (scanResults == null || scanResults.length == 0) {
+          finished.set(true);
+          progress = 1.0f;
+          return null;
+        }
+        scanResultIndex = 0;
+      }
+
+      Result result = scanResults[scanResultIndex++];
+      for (int i = 0; i < targetIndexes.length; i++) {
+        outTuple.put(i, getDatum(result, targetIndexes[i]));
+      }
+
+      // the HBase filter may be only a part of the filter
+      if (filter == null || filter.eval(outTuple).isTrue()) {
+        numRows++;
+        return outTuple;
+      }
     }
-    numRows++;
-    return outTuple;
+    return null;
   }
 
   private Datum getDatum(Result result, int fieldId) throws IOException {
@@ -388,6 +430,7 @@ public class HBaseScanner implements Scanner {
     scanResults = null;
     finished.set(false);
     tableStats = new TableStats();
+    numRows = 0;
 
     if (scanner != null) {
       scanner.close();
@@ -435,16 +478,30 @@ public class HBaseScanner implements Scanner {
 
   @Override
   public boolean isSelectable() {
-    return false;
+    return true;
   }
 
+  /**
+   * Sets a filter. The filter is converted into an HBase filter to drop rows in region servers,
+   * and then it is evaluated for each remaining row. It must be bound to the target schema before the first next().
+   */
   @Override
   public void setFilter(EvalNode filter) {
-    throw new TajoRuntimeException(new UnsupportedException());
+    if (inited) {
+      throw new IllegalStateException("Should be called before init()");
+    }
+    this.filter = filter;
   }
 
+  /**
+   * Sets the maximum number of rows returned by this scanner.
+   */
   @Override
   public void setLimit(long num) {
+    if (inited) {
+      throw new IllegalStateException("Should be called before init()");
+    }
+    this.limit = num;
   }
 
   @Override
@@ -0,0 +1,140 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.hbase;
+
+import org.apache.hadoop.hbase.filter.CompareFilter.CompareOp;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.SingleColumnValueFilter;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.plan.expr.*;
+import org.apache.tajo.util.Bytes;
+import org.apache.tajo.util.KeyValueSet;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link HBaseFilterConverter}.
+ */
+public class TestHBaseFilterConverter {
+  private static final Column RK = new Column("t.rk", Type.TEXT);
+  private static final Column NAME = new Column("t.name", Type.TEXT);
+  private static final Column ID = new Column("t.id", Type.INT4);
+  private static final Column SCORE = new Column("t.score", Type.INT4);
+  private static final Column ATTRS = new Column("t.attrs", Type.TEXT);
+  private static final Schema SCHEMA = new Schema(new Column[] {RK, NAME, ID, SCORE, ATTRS});
+
+  private HBaseFilterConverter converter;
+
+  @Before
+  public void setUp() throws Exception {
+    KeyValueSet properties = new KeyValueSet();
+    properties.set(HBaseStorageConstants.META_TABLE_KEY, "test");
+    // id is stored in the binary format, and score is stored in the text format
+    properties.set(HBaseStorageConstants.META_COLUMNS_KEY, ":key,cf1:name,cf1:id#b,cf1:score,cf2:");
+    ColumnMapping columnMapping = new ColumnMapping(SCHEMA, properties);
+    converter = new HBaseFilterConverter(SCHEMA, columnMapping, SCHEMA.toArray());
+  }
+
+  private static EvalNode binary(EvalType type, EvalNode left, EvalNode right) {
+    return new BinaryEval(type, left, right);
+  }
+
+  private static EvalNode field(Column column) {
+    return new FieldEval(column);
+  }
+
+  private static EvalNode constant(Datum datum) {
+    return new ConstEval(datum);
+  }
+
+  private static void assertColumnValueFilter(Filter filter, String qualifier, CompareOp op, byte[] value,
+                                              boolean filterIfMissing) {
+    assertTrue(filter instanceof SingleColumnValueFilter);
+    SingleColumnValueFilter columnValueFilter = (SingleColumnValueFilter) filter;
+    assertEquals("cf1", new String(columnValueFilter.getFamily()));
+    assertEquals(qualifier, new String(columnValueFilter.getQualifier()));
+    assertEquals(op, columnValueFilter.getOperator());
+    assertArrayEquals(value, columnValueFilter.getComparator().getValue());
+    assertEquals(filterIfMissing, columnValueFilter.getFilterIfMissing());
+  }
+
+  @Test
+  public void testComparison() {
+    Filter filter = converter.convert(
+        binary(EvalType.GTH, field(NAME), constant(DatumFactory.createText("tajo"))));
+    assertColumnValueFilter(filter, "name", CompareOp.GREATER, Bytes.toBytes("tajo"), true);
+
+    // a constant on the left side
+    filter = converter.convert(binary(EvalType.LEQ, constant(DatumFactory.createText("tajo")), field(NAME)));
+    assertColumnValueFilter(filter, "name", CompareOp.GREATER_OR_EQUAL, Bytes.toBytes("tajo"), true);
+
+    // only equality predicates for integers in the binary format
+    filter = converter.convert(binary(EvalType.EQUAL, field(ID), constant(DatumFactory.createInt4(10))));
+    assertColumnValueFilter(filter, "id", CompareOp.EQUAL, Bytes.toBytes(10), true);
+    assertNull(converter.convert(binary(EvalType.LTH, field(ID), constant(DatumFactory.createInt4(10)))));
+
+    // an integral constant out of the int range
+    assertNull(converter.convert(
+        binary(EvalType.EQUAL, field(ID), constant(DatumFactory.createInt8(Long.MAX_VALUE)))));
+
+    // integers in the text format, row keys and column families are not converted
+    assertNull(converter.convert(binary(EvalType.EQUAL, field(SCORE), constant(DatumFactory.createInt4(10)))));
+    assertNull(converter.convert(binary(EvalType.EQUAL, field(RK), constant(DatumFactory.createText("tajo")))));
+    assertNull(converter.convert(binary(EvalType.EQUAL, field(ATTRS), constant(DatumFactory.createText("tajo")))));
+  }
+
+  @Test
+  public void testPartialConversion() {
+    EvalNode like = new LikePredicateEval(false, field(NAME), new ConstEval(DatumFactory.createText("ta%")));
+    EvalNode isNotNull = new IsNullEval(true, field(SCORE));
+
+    // only a convertible part of AND is converted
+    Filter filter = converter.convert(binary(EvalType.AND, like, isNotNull));
+    assertColumnValueFilter(filter, "score", CompareOp.NOT_EQUAL, new byte[0], true);
+
+    // OR is converted only if both sides are convertible
+    assertNull(converter.convert(binary(EvalType.OR, like, isNotNull)));
+
+    // a missing or empty cell is null
+    filter = converter.convert(new IsNullEval(false, field(SCORE)));
+    assertColumnValueFilter(filter, "score", CompareOp.EQUAL, new byte[0], false);
+  }
+
+  @Test
+  public void testIn() {
+    Filter filter = converter.convert(new InEval(field(NAME), new RowConstantEval(new Datum[] {
+        DatumFactory.createText("a"), DatumFactory.createText("b")}), false));
+    assertTrue(filter instanceof FilterList);
+    FilterList filterList = (FilterList) filter;
+    assertEquals(FilterList.Operator.MUST_PASS_ONE, filterList.getOperator());
+    assertEquals(2, filterList.getFilters().size());
+    assertColumnValueFilter(filterList.getFilters().get(0), "name", CompareOp.EQUAL, Bytes.toBytes("a"), true);
+    assertColumnValueFilter(filterList.getFilters().get(1), "name", CompareOp.EQUAL, Bytes.toBytes("b"), true);
+
+    assertNull(converter.convert(new InEval(field(NAME), new RowConstantEval(new Datum[] {
+        DatumFactory.createText("a")}), true)));
+  }
+}
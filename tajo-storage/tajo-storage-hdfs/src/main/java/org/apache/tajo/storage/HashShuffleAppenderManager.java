@@ -49,6 +49,9 @@ public class HashShuffleAppenderManager {
   private static final Log LOG = LogFactory.getLog(HashShuffleAppenderManager.class);
 
   private ConcurrentMap<ExecutionBlockId, Map<Integer, PartitionAppenderMeta>> appenderMap = Maps.newConcurrentMap();
+  // partitions pushed to the pull servers of other workers. ebId -> <pull server, partId> -> pushed pages
+  private ConcurrentMap<ExecutionBlockId, Map<Pair<String, Integer>, PushedPartitionMeta>> pushedMap =
+      Maps.newConcurrentMap();
   private ConcurrentMap<Integer, ExecutorService> executors = Maps.newConcurrentMap(); // for parallel writing
   private List<String> temporalPaths = Lists.newArrayList();
 
@@ -155,16 +158,52 @@ public class HashShuffleAppenderManager {
     }
   }
 
+  /**
+   * Record a page of a task which has been pushed to the pull server of another worker. The pull server appends it
+   * to its own file of the partition. It is reported as an intermediate of the pull server.
+   *
+   * @param pullHost The pull server (host:port) which has received the page
+   * @param pos The start offset of the page in the file of the pull server
+   */
+  public synchronized void addPushedPage(TaskAttemptId taskId, String pullHost, int partId, long pos, int length,
+                                         int rows) {
+    ExecutionBlockId ebId = taskId.getTaskId().getExecutionBlockId();
+    Map<Pair<String, Integer>, PushedPartitionMeta> partitions = pushedMap.get(ebId);
+    if (partitions == null) {
+      partitions = new ConcurrentHashMap<>();
+      pushedMap.put(ebId, partitions);
+    }
+
+    Pair<String, Integer> key = new Pair<>(pullHost, partId);
+    PushedPartitionMeta meta = partitions.get(key);
+    if (meta == null) {
+      meta = new PushedPartitionMeta(pullHost, partId);
+      partitions.put(key, meta);
+    }
+    meta.addPage(taskId, pos, length, rows);
+  }
+
   public List<HashShuffleIntermediate> close(ExecutionBlockId ebId) throws IOException {
     Map<Integer, PartitionAppenderMeta> partitionAppenderMap = appenderMap.remove(ebId);
+    Map<Pair<String, Integer>, PushedPartitionMeta> pushedPartitions = pushedMap.remove(ebId);
 
-    if (partitionAppenderMap == null) {
+    if (partitionAppenderMap == null && pushedPartitions == null) {
       LOG.info("Close HashShuffleAppenderWrapper:" + ebId + ", not a hash shuffle");
       return null;
     }
 
     // Send Intermediate data to QueryMaster.
     List<HashShuffleIntermediate> intermediateEntries = new ArrayList<>();
+    if (pushedPartitions != null) {
+      for (PushedPartitionMeta eachMeta : pushedPartitions.values()) {
+        intermediateEntries.add(eachMeta.toIntermediate());
+      }
+    }
+    if (partitionAppenderMap == null) {
+      LOG.info("Close pushed hash shuffle:" + ebId + ", intermediates=" + intermediateEntries.size());
+      return intermediateEntries;
+    }
+
     for (PartitionAppenderMeta eachMeta : partitionAppenderMap.values()) {
       try {
         eachMeta.appender.close();
@@ -185,6 +224,14 @@ public class HashShuffleAppenderManager {
   }
 
   public void finalizeTask(TaskAttemptId taskId) {
+    Map<Pair<String, Integer>, PushedPartitionMeta> pushedPartitions =
+        pushedMap.get(taskId.getTaskId().getExecutionBlockId());
+    if (pushedPartitions != null) {
+      for (PushedPartitionMeta eachPartition : pushedPartitions.values()) {
+        eachPartition.taskFinished(taskId);
+      }
+    }
+
     Map<Integer, PartitionAppenderMeta> partitionAppenderMap =
         appenderMap.get(taskId.getTaskId().getExecutionBlockId());
     if (partitionAppenderMap == null) {
@@ -198,23 +245,25 @@ public class HashShuffleAppenderManager {
 
   /**
    * Asynchronously write partitions.
+   *
+   * @return the number of bytes written to the partition file
    */
-  public Future<MemoryRowBlock> writePartitions(TableMeta meta, Schema schema, final TaskAttemptId taskId, int partId,
-                                                final MemoryRowBlock rowBlock,
-                                                final boolean release) throws IOException {
+  public Future<Long> writePartitions(TableMeta meta, Schema schema, final TaskAttemptId taskId, int partId,
+                                      final MemoryRowBlock rowBlock,
+                                      final boolean release) throws IOException {
 
     HashShuffleAppenderWrapper appender =
         getAppender(rowBlock, taskId.getTaskId().getExecutionBlockId(), partId, meta, schema);
     ExecutorService executor = executors.get(appender.getVolumeId());
-    return executor.submit(new Callable<MemoryRowBlock>() {
+    return executor.submit(new Callable<Long>() {
       @Override
-      public MemoryRowBlock call() throws Exception {
-        appender.writeRowBlock(taskId, rowBlock);
+      public Long call() throws Exception {
+        long writtenBytes = appender.writeRowBlock(taskId, rowBlock);
 
         if (release) rowBlock.release();
         else rowBlock.clear();
 
-        return rowBlock;
+        return writtenBytes;
       }
     });
   }
@@ -236,19 +285,34 @@ public class HashShuffleAppenderManager {
     //[<page start offset, length>]
     private List<Pair<Long, Integer>> pages = new ArrayList<>();
 
+    // the pull server having the pages if they are pushed to another worker. Otherwise, null.
+    private String pullHost;
+
     public HashShuffleIntermediate(int partId, long volume,
                                    List<Pair<Long, Integer>> pages,
                                    Collection<Pair<Long, Pair<Integer, Integer>>> failureTskTupleIndexes) {
+      this(partId, volume, pages, failureTskTupleIndexes, null);
+    }
+
+    public HashShuffleIntermediate(int partId, long volume,
+                                   List<Pair<Long, Integer>> pages,
+                                   Collection<Pair<Long, Pair<Integer, Integer>>> failureTskTupleIndexes,
+                                   String pullHost) {
       this.partId = partId;
       this.volume = volume;
       this.failureTskTupleIndexes = failureTskTupleIndexes;
       this.pages = pages;
+      this.pullHost = pullHost;
     }
 
     public int getPartId() {
       return partId;
     }
 
+    public String getPullHost() {
+      return pullHost;
+    }
+
     public long getVolume() {
       return volume;
     }
@@ -262,6 +326,48 @@ public class HashShuffleAppenderManager {
     }
   }
 
+  /**
+   * Pages of a partition which tasks of this worker have pushed to a pull server.
+   */
+  static class PushedPartitionMeta {
+    private final String pullHost;
+    private final int partId;
+    private long volume;
+    //[<page start offset, length>]
+    private final List<Pair<Long, Integer>> pages = new ArrayList<>();
+    //<taskId,<page start offset,<task start, task end>>>
+    private final Map<TaskAttemptId, List<Pair<Long, Pair<Integer, Integer>>>> taskTupleIndexes = Maps.newHashMap();
+
+    PushedPartitionMeta(String pullHost, int partId) {
+      this.pullHost = pullHost;
+      this.partId = partId;
+    }
+
+    synchronized void addPage(TaskAttemptId taskId, long pos, int length, int rows) {
+      volume += length;
+      pages.add(new Pair<>(pos, length));
+
+      List<Pair<Long, Pair<Integer, Integer>>> taskIndexes = taskTupleIndexes.get(taskId);
+      if (taskIndexes == null) {
+        taskIndexes = new ArrayList<>();
+        taskTupleIndexes.put(taskId, taskIndexes);
+      }
+      taskIndexes.add(new Pair<>(pos, new Pair<>(0, rows)));
+    }
+
+    synchronized void taskFinished(TaskAttemptId taskId) {
+      taskTupleIndexes.remove(taskId);
+    }
+
+    synchronized HashShuffleIntermediate toIntermediate() {
+      List<Pair<Long, Pair<Integer, Integer>>> failures = new ArrayList<>();
+      for (List<Pair<Long, Pair<Integer, Integer>>> eachFailureIndex : taskTupleIndexes.values()) {
+        failures.addAll(eachFailureIndex);
+      }
+      return new HashShuffleIntermediate(partId, volume, new ArrayList<>(pages), failures, pullHost);
+    }
+  }
+
   static class PartitionAppenderMeta {
     int partId;
     HashShuffleAppenderWrapper appender;
@@ -79,14 +79,15 @@ public class HashShuffleAppenderWrapper implements Closeable {
    * After writing if a current page exceeds pageSize, pageOffset will be added.
    * @param taskId
    * @param rowBlock
-   * @return written bytes
+   * @return written bytes. If the appender compresses row blocks, it is the number of compressed bytes.
    * @throws java.io.IOException
    */
-  public MemoryRowBlock writeRowBlock(TaskAttemptId taskId, MemoryRowBlock rowBlock) throws IOException {
+  public long writeRowBlock(TaskAttemptId taskId, MemoryRowBlock rowBlock) throws IOException {
     if (closed.get()) {
-      return rowBlock;
+      return 0;
     }
 
+    long posBeforeWritten = appender.getOffset();
     appender.writeRowBlock(rowBlock);
     appender.flush();
 
@@ -107,7 +108,7 @@ public class HashShuffleAppenderWrapper implements Closeable {
       nextPage(posAfterWritten);
       rowNumInPage = 0;
     }
-    return rowBlock;
+    return posAfterWritten - posBeforeWritten;
   }
 
   public long getOffset() throws IOException {
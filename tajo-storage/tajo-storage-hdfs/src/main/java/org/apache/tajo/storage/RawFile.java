@@ -24,6 +24,7 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.io.compress.CompressionCodec;
 import org.apache.tajo.TaskAttemptId;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableMeta;
@@ -35,8 +36,13 @@ import org.apache.tajo.datum.ProtobufDatumFactory;
 import org.apache.tajo.exception.TajoRuntimeException;
 import org.apache.tajo.exception.UnsupportedException;
 import org.apache.tajo.plan.expr.EvalNode;
+import org.apache.tajo.storage.compress.BlockCompression;
+import org.apache.tajo.storage.compress.BlockDecompressingChannel;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.storage.rawfile.DirectRawFileWriter;
+import org.apache.tajo.storage.vector.ColumnVector;
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
+import org.apache.tajo.storage.vector.VectorizedScanner;
 import org.apache.tajo.unit.StorageUnit;
 import org.apache.tajo.util.BitArray;
 
@@ -45,7 +51,7 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
 
 public class RawFile {
   private static final Log LOG = LogFactory.getLog(RawFile.class);
@@ -53,8 +59,15 @@ public class RawFile {
   public static final String WRITE_BUFFER_SIZE = "tajo.storage.raw.io.write-buffer.bytes";
   public static final int DEFAULT_BUFFER_SIZE = 128 * StorageUnit.KB;
 
-  public static class RawFileScanner extends FileScanner implements SeekableScanner {
-    private FileChannel channel;
+  /**
+   * RawFileScanner reads a fragment of compressed frames of {@link BlockCompression} through
+   * {@link BlockDecompressingChannel}. Then, offsets of the scanner are positions in the uncompressed bytes of
+   * the fragment.
+   */
+  public static class RawFileScanner extends FileScanner implements SeekableScanner, VectorizedScanner {
+    private SeekableByteChannel channel;
+    // not null if the fragment is compressed
+    private BlockDecompressingChannel decompressingChannel;
     private DataType[] columnTypes;
 
     private ByteBuffer buffer;
@@ -77,8 +90,10 @@ public class RawFile {
       super(conf, schema, meta, fragment);
     }
 
-    @Override
-    public void init() throws IOException {
+    /**
+     * Open a channel of the fragment. A subclass can read records from other than a local file.
+     */
+    protected SeekableByteChannel openChannel() throws IOException {
       File file;
       try {
         if (fragment.getPath().toUri().getScheme() != null) {
@@ -90,7 +105,12 @@ public class RawFile {
         throw new IOException(iae);
       }
       fis = new FileInputStream(file);
-      channel = fis.getChannel();
+      return fis.getChannel();
+    }
+
+    @Override
+    public void init() throws IOException {
+      channel = openChannel();
       filePosition = startOffset = fragment.getStartKey();
       endOffset = fragment.getStartKey() + fragment.getLength();
 
@@ -118,10 +138,38 @@ public class RawFile {
         channel.position(fragment.getStartKey());
       }
 
+      if (isCompressed()) {
+        CompressionCodec codec = BlockCompression.getCodec(conf, meta);
+        if (codec == null) {
+          throw new IOException(fragment.getPath() + " is compressed, but no compression codec is given");
+        }
+        decompressingChannel = new BlockDecompressingChannel(channel, fragment.getLength(), codec);
+        channel = decompressingChannel;
+        filePosition = startOffset = 0;
+        endOffset = Long.MAX_VALUE;
+      }
+
       forceFillBuffer = true;
       super.init();
     }
 
+    /**
+     * @return True if the fragment starts with a compressed frame
+     */
+    private boolean isCompressed() throws IOException {
+      if (fragment.getLength() < BlockCompression.HEADER_SIZE) {
+        return false;
+      }
+
+      ByteBuffer magic = ByteBuffer.allocate(4);
+      int bytesRead;
+      do {
+        bytesRead = channel.read(magic);
+      } while (bytesRead >= 0 && magic.hasRemaining());
+      channel.position(fragment.getStartKey());
+      return !magic.hasRemaining() && BlockCompression.isMagic(magic.getInt(0));
+    }
+
     @Override
     public long getNextOffset() throws IOException {
       return filePosition - (forceFillBuffer ? 0 : buffer.remaining());
@@ -136,9 +184,9 @@ public class RawFile {
       if(!forceFillBuffer && filePosition > offset && offset > filePosition - buffer.limit()){
         buffer.position((int)(offset - (filePosition - buffer.limit())));
       } else {
-        if(offset < startOffset || offset > startOffset + fragment.getLength()){
+        if(offset < startOffset || offset > endOffset){
           throw new IndexOutOfBoundsException(String.format("range(%d, %d), offset: %d",
-              startOffset, startOffset + fragment.getLength(), offset));
+              startOffset, endOffset, offset));
         }
         channel.position(offset);
         filePosition = offset;
@@ -246,13 +294,15 @@ public class RawFile {
       throw new IOException("Invalid Variable int64");
     }
 
-    @Override
-    public Tuple next() throws IOException {
-      if(eos) return null;
-
+    /**
+     * Read the header and the null flags of the next record, and make sure that the buffer has the whole record.
+     *
+     * @return False if there are no more records
+     */
+    private boolean readRecordHeader() throws IOException {
       if (forceFillBuffer || buffer.remaining() < headerSize) {
         if (!fillBuffer()) {
-          return null;
+          return false;
         }
       }
 
@@ -271,9 +321,27 @@ public class RawFile {
         reSizeBuffer(recordSize);
 
         if (!fillBuffer()) {
-          return null;
+          return false;
         }
       }
+      return true;
+    }
+
+    private void finishRecord() {
+      recordCount++;
+
+      if(filePosition - buffer.remaining() >= endOffset){
+        eos = true;
+      }
+    }
+
+    @Override
+    public Tuple next() throws IOException {
+      if(eos) return null;
+
+      if (!readRecordHeader()) {
+        return null;
+      }
 
       for (int i = 0; i < columnTypes.length; i++) {
         // check if the i'th column is null
@@ -374,12 +442,92 @@ public class RawFile {
         }
       }
 
-      recordCount++;
+      finishRecord();
+      return outTuple;
+    }
 
-      if(filePosition - buffer.remaining() >= endOffset){
-        eos = true;
+    @Override
+    public boolean nextBatch(VectorizedRowBatch batch) throws IOException {
+      batch.reset();
+
+      int row = 0;
+      while (!eos && row < batch.getMaxSize() && readRecordHeader()) {
+        for (int i = 0; i < columnTypes.length; i++) {
+          ColumnVector vector = batch.getColumn(i);
+          if (nullFlags.get(i)) {
+            vector.setNull(row);
+            continue;
+          }
+
+          switch (columnTypes[i].getType()) {
+          case BOOLEAN:
+            vector.getLongs()[row] = buffer.get() == 1 ? 1 : 0;
+            break;
+
+          case CHAR:
+          case TEXT:
+          case BLOB: {
+            byte[] bytes = new byte[readRawVarint32()];
+            buffer.get(bytes);
+            vector.getBytes()[row] = bytes;
+            break;
+          }
+
+          case INT2:
+            vector.getLongs()[row] = buffer.getShort();
+            break;
+
+          case INT4:
+            vector.getLongs()[row] = decodeZigZag32(readRawVarint32());
+            break;
+
+          case INT8:
+            vector.getLongs()[row] = decodeZigZag64(readRawVarint64());
+            break;
+
+          case FLOAT4:
+            vector.getDoubles()[row] = buffer.getFloat();
+            break;
+
+          case FLOAT8:
+            vector.getDoubles()[row] = buffer.getDouble();
+            break;
+
+          case INET4:
+            vector.getLongs()[row] = buffer.getInt();
+            break;
+
+          case DATE: {
+            int val = buffer.getInt();
+            if (val < Integer.MIN_VALUE + 1) {
+              vector.setNull(row);
+            } else {
+              vector.getLongs()[row] = val;
+            }
+            break;
+          }
+          case TIME:
+          case TIMESTAMP: {
+            long val = buffer.getLong();
+            if (val < Long.MIN_VALUE + 1) {
+              vector.setNull(row);
+            } else {
+              vector.getLongs()[row] = val;
+            }
+            break;
+          }
+
+          default:
+            throw new TajoRuntimeException(new UnsupportedException(columnTypes[i].getType().name()));
+          }
+        }
+
+        finishRecord();
+        row++;
       }
-      return outTuple;
+
+      batch.setSize(row);
+      return row > 0;
     }
 
     private void reSizeBuffer(int writableBytes){
@@ -398,7 +546,7 @@ public class RawFile {
       // reset the buffer
       buffer.clear();
       forceFillBuffer = true;
-      filePosition = fragment.getStartKey();
+      filePosition = startOffset;
       recordCount = 0;
       channel.position(filePosition);
       eos = false;
@@ -453,7 +601,8 @@ public class RawFile {
         return 1.0f;
       }
 
-      long readBytes = filePosition - startOffset;
+      long readBytes = decompressingChannel != null ?
+          decompressingChannel.getCompressedPosition() : filePosition - startOffset;
       if (readBytes == 0) {
         return 0.0f;
       } else {
@@ -49,6 +49,9 @@ import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.storage.thirdparty.orc.HdfsOrcDataSource;
+import org.apache.tajo.storage.vector.ColumnVector;
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
+import org.apache.tajo.storage.vector.VectorizedScanner;
 import org.apache.tajo.util.datetime.DateTimeUtil;
 import org.joda.time.DateTimeZone;
 
@@ -60,7 +63,7 @@ import java.util.TimeZone;
 /**
  * OrcScanner for reading ORC files
  */
-public class ORCScanner extends FileScanner {
+public class ORCScanner extends FileScanner implements VectorizedScanner {
   private static final Log LOG = LogFactory.getLog(ORCScanner.class);
   private OrcRecordReader recordReader;
   private Block[] blocks;
@@ -68,6 +71,7 @@ public class ORCScanner extends FileScanner {
   private int batchSize = 0;
   private Tuple outTuple;
   private AggregatedMemoryContext aggrMemoryContext = new AggregatedMemoryContext();
+  private EvalNode filter;
 
   public ORCScanner(Configuration conf, final Schema schema, final TableMeta meta, final Fragment fragment) {
     super(conf, schema, meta, fragment);
@@ -138,9 +142,11 @@ public class ORCScanner extends FileScanner {
     TimeZone timezone = TimeZone.getTimeZone(meta.getProperty(StorageConstants.TIMEZONE,
       TajoConstants.DEFAULT_SYSTEM_TIMEZONE));
 
-    // TODO: make OrcPredicate useful
+    // stripes and row groups are skipped by their column statistics.
+    OrcPredicate predicate = filter == null ? OrcPredicate.TRUE : new OrcStatisticsPredicate(schema, filter);
+
     // presto-orc uses joda timezone, so it needs to be converted.
-    recordReader = orcReader.createRecordReader(columnMap, OrcPredicate.TRUE,
+    recordReader = orcReader.createRecordReader(columnMap, predicate,
         fragment.getStartKey(), fragment.getLength(), DateTimeZone.forTimeZone(timezone), aggrMemoryContext);
 
     super.init();
@@ -151,22 +157,105 @@ public class ORCScanner extends FileScanner {
 
   @Override
   public Tuple next() throws IOException {
-    if (currentPosInBatch == batchSize) {
+    while (true) {
+      if (currentPosInBatch == batchSize) {
+        getNextBatch();
+
+        // EOF
+        if (batchSize == -1) {
+          return null;
+        }
+      }
+
+      for (int i=0; i<targetColInfo.length; i++) {
+        outTuple.put(i, createValueDatum(blocks[i], targetColInfo[i].type));
+      }
+
+      currentPosInBatch++;
+
+      // rows in the remaining row groups still need to be filtered
+      if (filter == null || filter.eval(outTuple).isTrue()) {
+        return outTuple;
+      }
+    }
+  }
+
+  @Override
+  public boolean nextBatch(VectorizedRowBatch batch) throws IOException {
+    batch.reset();
+    while (currentPosInBatch == batchSize) {
       getNextBatch();
 
       // EOF
       if (batchSize == -1) {
-        return null;
+        return false;
       }
     }
 
-    for (int i=0; i<targetColInfo.length; i++) {
-      outTuple.put(i, createValueDatum(blocks[i], targetColInfo[i].type));
+    int rows = Math.min(batchSize - currentPosInBatch, batch.getMaxSize());
+    for (int i = 0; i < targetColInfo.length; i++) {
+      fillVector(blocks[i], targetColInfo[i].type, batch.getColumn(i), rows);
     }
+    currentPosInBatch += rows;
+    batch.setSize(rows);
+    return true;
+  }
 
-    currentPosInBatch++;
+  /**
+   * Copy values of a block into a column vector without creating datums.
+   */
+  private void fillVector(Block block, TajoDataTypes.DataType type, ColumnVector vector, int rows) {
+    long[] longs = vector.getLongs();
+    double[] doubles = vector.getDoubles();
+    byte[][] bytes = vector.getBytes();
+
+    for (int row = 0; row < rows; row++) {
+      int pos = currentPosInBatch + row;
+      if (block.isNull(pos)) {
+        vector.setNull(row);
+        continue;
+      }
 
-    return outTuple;
+      switch (type.getType()) {
+        case INT1:
+        case INT2:
+        case INT4:
+        case INT8:
+        case INET4:
+        case TIME:
+          longs[row] = block.getLong(pos, 0);
+          break;
+
+        case BOOLEAN:
+          longs[row] = block.getByte(pos, 0) != 0 ? 1 : 0;
+          break;
+
+        case FLOAT4:
+          doubles[row] = (float) block.getDouble(pos, 0);
+          break;
+
+        case FLOAT8:
+          doubles[row] = block.getDouble(pos, 0);
+          break;
+
+        case CHAR:
+        case TEXT:
+        case BLOB:
+          bytes[row] = block.getSlice(pos, 0, block.getLength(pos)).getBytes();
+          break;
+
+        case TIMESTAMP:
+          longs[row] = DateTimeUtil.javaTimeToJulianTime(block.getLong(pos, 0));
+          break;
+
+        case DATE:
+          longs[row] = block.getInt(pos, 0) + DateTimeUtil.DAYS_FROM_JULIAN_TO_EPOCH;
+          break;
+
+        default:
+          throw new TajoRuntimeException(new NotImplementedException(type.getType().name() + " for vectorized orc"));
+      }
+    }
   }
 
   private Type createFBtypeByTajoType(TajoDataTypes.DataType type) {
@@ -179,6 +268,7 @@ public class ORCScanner extends FileScanner {
       case INT4:
       case INT8:
       case INET4:
+      case TIME: // microseconds of a day
       case NULL_TYPE: // meaningless
         return BigintType.BIGINT;
 
@@ -265,6 +355,9 @@ public class ORCScanner extends FileScanner {
       case INET4:
         return DatumFactory.createInet4((int)block.getLong(currentPosInBatch, 0));
 
+      case TIME:
+        return DatumFactory.createTime(block.getLong(currentPosInBatch, 0));
+
       case NULL_TYPE:
         return NullDatum.get();
 
@@ -317,12 +410,16 @@ public class ORCScanner extends FileScanner {
 
   @Override
   public boolean isSelectable() {
-    return false;
+    return true;
   }
 
+  /**
+   * Sets a filter. Stripes and row groups are skipped by the filter, and then it is evaluated for each remaining row.
+   * It must be bound to the target schema before the first next().
+   */
   @Override
   public void setFilter(EvalNode filter) {
-    // TODO: implement it
+    this.filter = filter;
   }
 
   @Override
@@ -0,0 +1,248 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.orc;
+
+import com.facebook.presto.orc.OrcPredicate;
+import com.facebook.presto.orc.metadata.ColumnStatistics;
+import com.facebook.presto.orc.metadata.RangeStatistics;
+import io.airlift.slice.Slices;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.plan.expr.*;
+import org.apache.tajo.util.datetime.DateTimeUtil;
+
+import java.util.Map;
+
+/**
+ * OrcPredicate which decides whether a stripe or a row group may contain rows matched to a Tajo filter,
+ * by using the column statistics written in the ORC file.
+ *
+ * It returns false only if no row can be matched, so the filter still has to be evaluated for the returned rows.
+ * Comparisons between a column and a constant, IN, IS NULL, BETWEEN, AND and OR are used,
+ * and other predicates are regarded as matched.
+ */
+public class OrcStatisticsPredicate implements OrcPredicate {
+  private final Schema schema;
+  private final EvalNode filter;
+
+  /**
+   * @param schema the schema of the ORC file
+   * @param filter a Tajo filter
+   */
+  public OrcStatisticsPredicate(Schema schema, EvalNode filter) {
+    this.schema = schema;
+    this.filter = filter;
+  }
+
+  @Override
+  public boolean matches(long numberOfRows, Map<Integer, ColumnStatistics> statisticsByColumnIndex) {
+    return mayMatch(filter, numberOfRows, statisticsByColumnIndex);
+  }
+
+  private boolean mayMatch(EvalNode node, long numberOfRows, Map<Integer, ColumnStatistics> statistics) {
+    switch (node.getType()) {
+      case AND: {
+        BinaryEval and = (BinaryEval) node;
+        return mayMatch(and.getLeftExpr(), numberOfRows, statistics)
+            && mayMatch(and.getRightExpr(), numberOfRows, statistics);
+      }
+      case OR: {
+        BinaryEval or = (BinaryEval) node;
+        return mayMatch(or.getLeftExpr(), numberOfRows, statistics)
+            || mayMatch(or.getRightExpr(), numberOfRows, statistics);
+      }
+      case EQUAL:
+      case NOT_EQUAL:
+      case LTH:
+      case LEQ:
+      case GTH:
+      case GEQ:
+        return mayMatchComparison((BinaryEval) node, statistics);
+      case IS_NULL:
+        return mayMatchIsNull((IsNullEval) node, numberOfRows, statistics);
+      case IN:
+        return mayMatchIn((InEval) node, statistics);
+      case BETWEEN:
+        return mayMatchBetween((BetweenPredicateEval) node, statistics);
+      default:
+        return true;
+    }
+  }
+
+  private boolean mayMatchComparison(BinaryEval comparison, Map<Integer, ColumnStatistics> statistics) {
+    EvalType type = comparison.getType();
+    EvalNode columnSide = comparison.getLeftExpr();
+    EvalNode constSide = comparison.getRightExpr();
+    if (columnSide.getType() == EvalType.CONST) {
+      columnSide = comparison.getRightExpr();
+      constSide = comparison.getLeftExpr();
+      type = flip(type);
+    }
+
+    int columnId = getColumnId(columnSide);
+    if (columnId < 0 || constSide.getType() != EvalType.CONST) {
+      return true;
+    }
+    return mayMatch(type, columnId, ((ConstEval) constSide).getValue(), statistics);
+  }
+
+  private boolean mayMatchIsNull(IsNullEval isNull, long numberOfRows, Map<Integer, ColumnStatistics> statistics) {
+    int columnId = getColumnId(isNull.getChild());
+    ColumnStatistics columnStatistics = columnId < 0 ? null : statistics.get(columnId);
+    if (columnStatistics == null || !columnStatistics.hasNumberOfValues()) {
+      return true;
+    }
+    if (isNull.isNot()) {
+      return columnStatistics.getNumberOfValues() > 0;
+    } else {
+      return columnStatistics.getNumberOfValues() < numberOfRows;
+    }
+  }
+
+  private boolean mayMatchIn(InEval in, Map<Integer, ColumnStatistics> statistics) {
+    int columnId = getColumnId(in.getLeftExpr());
+    if (in.isNot() || columnId < 0 || !(in.getRightExpr() instanceof ValueSetEval)) {
+      return true;
+    }
+    for (Datum value : ((ValueSetEval) in.getRightExpr()).getValues()) {
+      if (mayMatch(EvalType.EQUAL, columnId, value, statistics)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean mayMatchBetween(BetweenPredicateEval between, Map<Integer, ColumnStatistics> statistics) {
+    int columnId = getColumnId(between.getPredicand());
+    if (between.isNot() || between.isSymmetric() || columnId < 0
+        || between.getBegin().getType() != EvalType.CONST || between.getEnd().getType() != EvalType.CONST) {
+      return true;
+    }
+    return mayMatch(EvalType.GEQ, columnId, ((ConstEval) between.getBegin()).getValue(), statistics)
+        && mayMatch(EvalType.LEQ, columnId, ((ConstEval) between.getEnd()).getValue(), statistics);
+  }
+
+  /**
+   * @return true if any value between the minimum and the maximum of a column may satisfy 'column op value'
+   */
+  @SuppressWarnings("unchecked")
+  private boolean mayMatch(EvalType type, int columnId, Datum value, Map<Integer, ColumnStatistics> statistics) {
+    ColumnStatistics columnStatistics = statistics.get(columnId);
+    if (columnStatistics == null) {
+      return true;
+    }
+    if (value.isNull() || (columnStatistics.hasNumberOfValues() && columnStatistics.getNumberOfValues() == 0)) {
+      // a comparison with null is never true
+      return false;
+    }
+
+    RangeStatistics range = null;
+    Comparable converted = null;
+    Type valueType = value.type();
+    switch (schema.getColumn(columnId).getDataType().getType()) {
+      case INT1:
+      case INT2:
+      case INT4:
+      case INT8:
+        if (isIntegral(valueType)) {
+          range = columnStatistics.getIntegerStatistics();
+          converted = value.asInt8();
+        }
+        break;
+      case FLOAT4:
+        // FLOAT4 values are written as doubles, so only FLOAT4 constants are compared exactly.
+        if (valueType == Type.FLOAT4) {
+          range = columnStatistics.getDoubleStatistics();
+          converted = (double) value.asFloat4();
+        }
+        break;
+      case FLOAT8:
+        if (isIntegral(valueType) || valueType == Type.FLOAT4 || valueType == Type.FLOAT8) {
+          range = columnStatistics.getDoubleStatistics();
+          converted = value.asFloat8();
+        }
+        break;
+      case TEXT:
+        if (valueType == Type.TEXT) {
+          range = columnStatistics.getStringStatistics();
+          converted = Slices.wrappedBuffer(value.asByteArray());
+        }
+        break;
+      case DATE:
+        if (valueType == Type.DATE) {
+          range = columnStatistics.getDateStatistics();
+          converted = value.asInt4() - DateTimeUtil.DAYS_FROM_JULIAN_TO_EPOCH;
+        }
+        break;
+      default:
+    }
+
+    if (range == null || range.getMin() == null || range.getMax() == null) {
+      return true;
+    }
+
+    int minCompared = range.getMin().compareTo(converted);
+    int maxCompared = range.getMax().compareTo(converted);
+    switch (type) {
+      case EQUAL:
+        return minCompared <= 0 && maxCompared >= 0;
+      case NOT_EQUAL:
+        return !(minCompared == 0 && maxCompared == 0);
+      case LTH:
+        return minCompared < 0;
+      case LEQ:
+        return minCompared <= 0;
+      case GTH:
+        return maxCompared > 0;
+      case GEQ:
+        return maxCompared >= 0;
+      default:
+        return true;
+    }
+  }
+
+  private static boolean isIntegral(Type type) {
+    return type == Type.INT1 || type == Type.INT2 || type == Type.INT4 || type == Type.INT8;
+  }
+
+  private static EvalType flip(EvalType type) {
+    switch (type) {
+      case LTH:
+        return EvalType.GTH;
+      case LEQ:
+        return EvalType.GEQ;
+      case GTH:
+        return EvalType.LTH;
+      case GEQ:
+        return EvalType.LEQ;
+      default:
+        return type;
+    }
+  }
+
+  private int getColumnId(EvalNode node) {
+    if (node.getType() != EvalType.FIELD) {
+      return -1;
+    }
+    Column column = ((FieldEval) node).getColumnRef();
+    return schema.contains(column) ? schema.getColumnId(column.getQualifiedName()) : -1;
+  }
+}
@@ -49,6 +49,7 @@ public class ObjectInspectorFactory {
         break;
 
       case INT8:
+      case TIME: // microseconds of a day
         oi = new TajoLongObjectInspector();
         break;
 
@@ -21,12 +21,12 @@ package org.apache.tajo.storage.orc.objectinspector;
 import org.apache.hadoop.hive.serde2.objectinspector.primitive.LongObjectInspector;
 import org.apache.hadoop.hive.serde2.typeinfo.PrimitiveTypeInfo;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
-import org.apache.tajo.datum.Int8Datum;
+import org.apache.tajo.datum.Datum;
 
 public class TajoLongObjectInspector extends TajoPrimitiveObjectInspector implements LongObjectInspector {
   @Override
   public long get(Object o) {
-    return ((Int8Datum)o).asInt8();
+    return ((Datum)o).asInt8();
   }
 
   @Override
@@ -0,0 +1,275 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.parquet;
+
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators;
+import org.apache.parquet.io.api.Binary;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.plan.expr.*;
+
+/**
+ * Converts a Tajo filter into a Parquet {@link FilterPredicate}, which Parquet uses to skip row groups
+ * by their column statistics and to drop records before they are materialized.
+ *
+ * Only a part of a filter may be converted. A converted predicate never rejects a row accepted by
+ * the original filter, so the original filter still has to be evaluated for the returned rows.
+ * Supported predicates are comparisons between a column and a constant, IN, IS NULL, BETWEEN, AND and OR.
+ * For binary columns, only equality predicates are converted because Parquet compares binary values as signed bytes.
+ */
+public class ParquetFilterConverter {
+  private final Schema schema;
+
+  /**
+   * @param schema the schema of columns which can be referred to by predicates.
+   *               Its columns must be read from the file.
+   */
+  public ParquetFilterConverter(Schema schema) {
+    this.schema = schema;
+  }
+
+  /**
+   * @param filter a Tajo filter
+   * @return a Parquet predicate, or null if no part of the filter can be converted
+   */
+  public FilterPredicate convert(EvalNode filter) {
+    switch (filter.getType()) {
+      case AND:
+        return convertAnd((BinaryEval) filter);
+      case OR:
+        return convertOr((BinaryEval) filter);
+      case EQUAL:
+      case NOT_EQUAL:
+      case LTH:
+      case LEQ:
+      case GTH:
+      case GEQ:
+        return convertComparison((BinaryEval) filter);
+      case IS_NULL:
+        return convertIsNull((IsNullEval) filter);
+      case IN:
+        return convertIn((InEval) filter);
+      case BETWEEN:
+        return convertBetween((BetweenPredicateEval) filter);
+      default:
+        return null;
+    }
+  }
+
+  private FilterPredicate convertAnd(BinaryEval and) {
+    FilterPredicate left = convert(and.getLeftExpr());
+    FilterPredicate right = convert(and.getRightExpr());
+    if (left == null) {
+      return right;
+    } else if (right == null) {
+      return left;
+    } else {
+      return FilterApi.and(left, right);
+    }
+  }
+
+  private FilterPredicate convertOr(BinaryEval or) {
+    FilterPredicate left = convert(or.getLeftExpr());
+    FilterPredicate right = convert(or.getRightExpr());
+    return left == null || right == null ? null : FilterApi.or(left, right);
+  }
+
+  private FilterPredicate convertIsNull(IsNullEval isNull) {
+    Column column = getColumn(isNull.getChild());
+    if (column == null) {
+      return null;
+    }
+    return comparison(isNull.isNot() ? EvalType.NOT_EQUAL : EvalType.EQUAL, column, null);
+  }
+
+  private FilterPredicate convertBetween(BetweenPredicateEval between) {
+    if (between.isNot() || between.isSymmetric()) {
+      return null;
+    }
+    Column column = getColumn(between.getPredicand());
+    if (column == null || between.getBegin().getType() != EvalType.CONST
+        || between.getEnd().getType() != EvalType.CONST) {
+      return null;
+    }
+    FilterPredicate begin = comparison(EvalType.GEQ, column, ((ConstEval) between.getBegin()).getValue());
+    FilterPredicate end = comparison(EvalType.LEQ, column, ((ConstEval) between.getEnd()).getValue());
+    return begin == null || end == null ? null : FilterApi.and(begin, end);
+  }
+
+  private FilterPredicate convertComparison(BinaryEval binaryEval) {
+    EvalType type = binaryEval.getType();
+    EvalNode columnSide = binaryEval.getLeftExpr();
+    EvalNode constSide = binaryEval.getRightExpr();
+    if (columnSide.getType() == EvalType.CONST) {
+      columnSide = binaryEval.getRightExpr();
+      constSide = binaryEval.getLeftExpr();
+      type = flip(type);
+    }
+
+    Column column = getColumn(columnSide);
+    if (column == null || constSide.getType() != EvalType.CONST) {
+      return null;
+    }
+    Datum value = ((ConstEval) constSide).getValue();
+    if (value.isNull()) {
+      // a comparison with null is never true, but it is left to the row-level filter.
+      return null;
+    }
+    return comparison(type, column, value);
+  }
+
+  private FilterPredicate convertIn(InEval inEval) {
+    if (inEval.isNot() || !(inEval.getRightExpr() instanceof ValueSetEval)) {
+      return null;
+    }
+    Column column = getColumn(inEval.getLeftExpr());
+    if (column == null) {
+      return null;
+    }
+
+    FilterPredicate predicate = null;
+    for (Datum value : ((ValueSetEval) inEval.getRightExpr()).getValues()) {
+      if (value.isNull()) {
+        continue;
+      }
+      FilterPredicate eq = comparison(EvalType.EQUAL, column, value);
+      if (eq == null) {
+        return null;
+      }
+      predicate = predicate == null ? eq : FilterApi.or(predicate, eq);
+    }
+    return predicate;
+  }
+
+  private static EvalType flip(EvalType type) {
+    switch (type) {
+      case LTH:
+        return EvalType.GTH;
+      case LEQ:
+        return EvalType.GEQ;
+      case GTH:
+        return EvalType.LTH;
+      case GEQ:
+        return EvalType.LEQ;
+      default:
+        return type;
+    }
+  }
+
+  private Column getColumn(EvalNode node) {
+    if (node.getType() != EvalType.FIELD) {
+      return null;
+    }
+    Column column = ((FieldEval) node).getColumnRef();
+    return schema.contains(column) ? schema.getColumn(column) : null;
+  }
+
+  /**
+   * @param value a constant. Null means a null value for IS NULL.
+   * @return a predicate, or null if the type of the value cannot be compared exactly with the column
+   */
+  private static FilterPredicate comparison(EvalType type, Column column, Datum value) {
+    String path = column.getSimpleName();
+    Type valueType = value == null ? null : value.type();
+
+    switch (column.getDataType().getType()) {
+      case BOOLEAN:
+        if (value != null && valueType != Type.BOOLEAN) {
+          return null;
+        }
+        Operators.BooleanColumn booleanColumn = FilterApi.booleanColumn(path);
+        Boolean bool = value == null ? null : value.asBool();
+        if (type == EvalType.EQUAL) {
+          return FilterApi.eq(booleanColumn, bool);
+        } else if (type == EvalType.NOT_EQUAL) {
+          return FilterApi.notEq(booleanColumn, bool);
+        }
+        return null;
+
+      case INT2:
+      case INT4:
+        if (value != null && (!isIntegral(valueType) || value.asInt8() != (int) value.asInt8())) {
+          return null;
+        }
+        return compare(type, FilterApi.intColumn(path), value == null ? null : (int) value.asInt8());
+
+      case INT8:
+        if (value != null && !isIntegral(valueType)) {
+          return null;
+        }
+        return compare(type, FilterApi.longColumn(path), value == null ? null : value.asInt8());
+
+      case FLOAT4:
+        if (value != null && valueType != Type.FLOAT4) {
+          return null;
+        }
+        return compare(type, FilterApi.floatColumn(path), value == null ? null : value.asFloat4());
+
+      case FLOAT8:
+        if (value != null && !isIntegral(valueType) && valueType != Type.FLOAT4 && valueType != Type.FLOAT8) {
+          return null;
+        }
+        return compare(type, FilterApi.doubleColumn(path), value == null ? null : value.asFloat8());
+
+      case TEXT:
+        if (value != null && valueType != Type.TEXT) {
+          return null;
+        }
+        Operators.BinaryColumn binaryColumn = FilterApi.binaryColumn(path);
+        Binary binary = value == null ? null : Binary.fromByteArray(value.asByteArray());
+        if (type == EvalType.EQUAL) {
+          return FilterApi.eq(binaryColumn, binary);
+        } else if (type == EvalType.NOT_EQUAL) {
+          return FilterApi.notEq(binaryColumn, binary);
+        }
+        return null;
+
+      default:
+        return null;
+    }
+  }
+
+  private static boolean isIntegral(Type type) {
+    return type == Type.INT2 || type == Type.INT4 || type == Type.INT8;
+  }
+
+  private static <T extends Comparable<T>, C extends Operators.Column<T> & Operators.SupportsLtGt>
+      FilterPredicate compare(EvalType type, C column, T value) {
+    switch (type) {
+      case EQUAL:
+        return FilterApi.eq(column, value);
+      case NOT_EQUAL:
+        return FilterApi.notEq(column, value);
+      case LTH:
+        return FilterApi.lt(column, value);
+      case LEQ:
+        return FilterApi.ltEq(column, value);
+      case GTH:
+        return FilterApi.gt(column, value);
+      case GEQ:
+        return FilterApi.gtEq(column, value);
+      default:
+        return null;
+    }
+  }
+}
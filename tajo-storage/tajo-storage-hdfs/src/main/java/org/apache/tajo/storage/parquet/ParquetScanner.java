@@ -18,7 +18,11 @@
 
 package org.apache.tajo.storage.parquet;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableMeta;
 import org.apache.tajo.exception.NotImplementedException;
@@ -35,7 +39,9 @@ import java.io.IOException;
  * FileScanner for reading Parquet files
  */
 public class ParquetScanner extends FileScanner {
+  private static final Log LOG = LogFactory.getLog(ParquetScanner.class);
   private TajoParquetReader reader;
+  private EvalNode filter;
   /** The number of actual read records */
   private long currentRowCount;
   private long totalRowCount;
@@ -63,7 +69,14 @@ public class ParquetScanner extends FileScanner {
     if (targets == null) {
       targets = schema.toArray();
     }
-    reader = new TajoParquetReader(conf, fragment.getPath(), schema, new Schema(targets));
+    Schema targetSchema = new Schema(targets);
+    FilterPredicate predicate = filter == null ? null : new ParquetFilterConverter(targetSchema).convert(filter);
+    if (predicate != null) {
+      LOG.debug("Parquet filter predicate: " + predicate);
+      reader = new TajoParquetReader(conf, fragment.getPath(), schema, targetSchema, FilterCompat.get(predicate));
+    } else {
+      reader = new TajoParquetReader(conf, fragment.getPath(), schema, targetSchema);
+    }
     totalRowCount = reader.getTotalRowCount();
     currentRowCount = 0;
     closed = false;
@@ -78,6 +91,17 @@ public class ParquetScanner extends FileScanner {
    */
   @Override
   public Tuple next() throws IOException {
+    Tuple tuple;
+    while ((tuple = nextTuple()) != null) {
+      // the parquet predicate may be only a part of the filter
+      if (filter == null || filter.eval(tuple).isTrue()) {
+        return tuple;
+      }
+    }
+    return null;
+  }
+
+  private Tuple nextTuple() throws IOException {
     // If there is no required column, we just read footer and then return an empty tuple
     if (targets.length == 0) {
       if(currentRowCount == totalRowCount) {
@@ -123,16 +147,20 @@ public class ParquetScanner extends FileScanner {
   /**
    * Returns whether this scanner is selectable.
    *
-   * @return false
+   * @return true
    */
   @Override
   public boolean isSelectable() {
-    return false;
+    return true;
   }
 
+  /**
+   * Sets a filter. The filter is converted into a Parquet predicate to skip row groups and records,
+   * and then it is evaluated for each remaining record. It must be bound to the target schema before the first next().
+   */
   @Override
   public void setFilter(EvalNode filter) {
-    throw new TajoRuntimeException(new NotImplementedException());
+    this.filter = filter;
   }
 
   /**
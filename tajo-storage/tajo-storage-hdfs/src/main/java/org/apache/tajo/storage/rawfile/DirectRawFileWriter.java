@@ -26,6 +26,7 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.LocalFileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.io.compress.CompressionCodec;
 import org.apache.tajo.BuiltinStorages;
 import org.apache.tajo.TaskAttemptId;
 import org.apache.tajo.catalog.Schema;
@@ -40,6 +41,8 @@ import org.apache.tajo.storage.FileAppender;
 import org.apache.tajo.storage.StorageConstants;
 import org.apache.tajo.storage.TableStatistics;
 import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.compress.BlockCompression;
+import org.apache.tajo.storage.compress.BlockCompressor;
 import org.apache.tajo.tuple.memory.MemoryRowBlock;
 import org.apache.tajo.tuple.memory.OffHeapRowBlockUtils.TupleConverter;
 import org.apache.tajo.tuple.memory.RowWriter;
@@ -49,8 +52,15 @@ import org.apache.tajo.unit.StorageUnit;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 
+/**
+ * If the data format is RAW and the table meta has a compression codec, row blocks are written as compressed
+ * frames of {@link BlockCompression}. A row block given from outside is split into frames of
+ * {@link BlockCompression#FRAME_SIZE}, and the internal buffer is written as a single frame, so that
+ * {@link #getOffset()} can return a virtual offset of the frame being buffered.
+ */
 public class DirectRawFileWriter extends FileAppender {
   private static final Log LOG = LogFactory.getLog(DirectRawFileWriter.class);
 
@@ -69,6 +79,8 @@ public class DirectRawFileWriter extends FileAppender {
   protected boolean analyzeField;
   protected boolean hasExternalBuf;
   protected boolean isLocal;
+  protected BlockCompressor compressor;
+  protected long uncompressedBytes;
 
   public DirectRawFileWriter(Configuration conf, TaskAttemptId taskAttemptId,
                              final Schema schema, final TableMeta meta, final Path path)
@@ -124,7 +136,16 @@ public class DirectRawFileWriter extends FileAppender {
 
     tupleConverter = initConverter();
 
+    if (BuiltinStorages.RAW.equals(meta.getDataFormat())) {
+      CompressionCodec codec =
+          BlockCompression.getCodec(conf, meta.getProperty(StorageConstants.COMPRESSION_CODEC, null));
+      if (codec != null) {
+        compressor = new BlockCompressor(codec);
+      }
+    }
+
     pos = 0;
+    uncompressedBytes = 0;
     super.init();
   }
 
@@ -192,21 +213,52 @@ public class DirectRawFileWriter extends FileAppender {
 
   @Override
   public long getOffset() throws IOException {
-    return hasExternalBuf ? pos : pos + rowBlock.getMemory().writerPosition();
+    if (hasExternalBuf) {
+      return pos;
+    } else if (compressor != null) {
+      return BlockCompression.toVirtualOffset(pos, rowBlock.getMemory().writerPosition());
+    } else {
+      return pos + rowBlock.getMemory().writerPosition();
+    }
   }
 
   public void writeRowBlock(MemoryRowBlock rowBlock) throws IOException {
-    if(isLocal) {
+    int length = rowBlock.getMemory().readableBytes();
+    if (compressor != null) {
+      writeFrames(rowBlock, length, hasExternalBuf ? BlockCompression.FRAME_SIZE : length);
+    } else if(isLocal) {
       pos += rowBlock.getMemory().writeTo(channel);
     } else {
       pos += rowBlock.getMemory().writeTo(fos);
     }
+    uncompressedBytes += length;
 
     if (tableStatsEnabled) {
       stats.incrementRows(rowBlock.rows());
     }
   }
 
+  private void writeFrames(MemoryRowBlock rowBlock, int length, int frameSize) throws IOException {
+    for (int remaining = length; remaining > 0; remaining -= frameSize) {
+      ByteBuffer frame = compressor.compress(rowBlock.getMemory().getBuffer(), Math.min(remaining, frameSize));
+      pos += frame.remaining();
+      if (isLocal) {
+        while (frame.hasRemaining()) {
+          channel.write(frame);
+        }
+      } else {
+        fos.write(frame.array(), frame.position(), frame.remaining());
+      }
+    }
+  }
+
+  /**
+   * @return the number of bytes before compression
+   */
+  public long getUncompressedBytes() {
+    return uncompressedBytes;
+  }
+
   @Override
   public void addTuple(Tuple t) throws IOException {
 
@@ -231,13 +283,13 @@ public class DirectRawFileWriter extends FileAppender {
     flush();
 
     if (tableStatsEnabled) {
-      stats.setNumBytes(getOffset());
+      stats.setNumBytes(pos);
     }
     if (LOG.isDebugEnabled()) {
-      LOG.debug("RawFileAppender written: " + getOffset() + " bytes, path: " + path);
+      LOG.debug("RawFileAppender written: " + pos + " bytes, path: " + path);
     }
 
-    IOUtils.cleanup(LOG, channel, randomAccessFile, fos);
+    IOUtils.cleanup(LOG, channel, randomAccessFile, fos, compressor);
     if(!hasExternalBuf && rowBlock != null) {
       rowBlock.release();
     }
@@ -247,7 +299,9 @@ public class DirectRawFileWriter extends FileAppender {
   public TableStats getStats() {
     if (tableStatsEnabled) {
       stats.setNumBytes(pos);
-      return stats.getTableStat();
+      TableStats tableStats = stats.getTableStat();
+      tableStats.setUncompressedBytes(uncompressedBytes);
+      return tableStats;
     } else {
       return null;
     }
@@ -1021,7 +1021,7 @@ public class WriterImpl implements Writer, MemoryManager.Callback {
         long val;
         if (datum instanceof Int4Datum || datum instanceof Inet4Datum) {
           val = datum.asInt4();
-        } else if (datum instanceof Int8Datum) {
+        } else if (datum instanceof Int8Datum || datum instanceof TimeDatum) {
           val = datum.asInt8();
         } else {
           val = datum.asInt2();
@@ -105,10 +105,10 @@ public class ParquetReader<T> implements Closeable {
     this(conf, file, readSupport, FilterCompat.get(unboundRecordFilter));
   }
 
-  private ParquetReader(Configuration conf,
-                        Path file,
-                        ReadSupport<T> readSupport,
-                        Filter filter) throws IOException {
+  protected ParquetReader(Configuration conf,
+                          Path file,
+                          ReadSupport<T> readSupport,
+                          Filter filter) throws IOException {
     this.readSupport = readSupport;
     this.filter = checkNotNull(filter, "filter");
     this.conf = conf;
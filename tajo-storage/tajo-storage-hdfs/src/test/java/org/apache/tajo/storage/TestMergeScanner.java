@@ -29,6 +29,7 @@ import org.apache.tajo.common.TajoDataTypes.Type;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.conf.TajoConf.ConfVars;
 import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.plan.expr.*;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.util.CommonTestingUtil;
@@ -44,6 +45,7 @@ import java.util.Arrays;
 import java.util.Collection;
 
 import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
 
 @RunWith(Parameterized.class)
 public class TestMergeScanner {
@@ -196,6 +198,58 @@ public class TestMergeScanner {
     assertEquals(tupleNum * 2, totalCounts);
 	}
 
+  @Test
+  public void testMultipleFilesWithFilter() throws IOException {
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("file", Type.TEXT);
+    schema.addColumn("name", Type.TEXT);
+    schema.addColumn("age", Type.INT8);
+
+    TableMeta meta = CatalogUtil.newTableMeta(dataFormat, new KeyValueSet());
+    meta.setPropertySet(CatalogUtil.newDefaultProperty(dataFormat));
+    if (dataFormat.equalsIgnoreCase("AVRO")) {
+      meta.putProperty(StorageConstants.AVRO_SCHEMA_LITERAL, TEST_MULTIPLE_FILES_AVRO_SCHEMA);
+    }
+
+    int tupleNum = 1000;
+    Fragment[] fragments = new Fragment[2];
+    for (int fileIdx = 0; fileIdx < fragments.length; fileIdx++) {
+      Path tablePath = new Path(testDir, dataFormat + "_filter_" + fileIdx + ".data");
+      Appender appender = TablespaceManager.getLocalFs().getAppender(null, null, meta, schema, tablePath);
+      appender.init();
+      for (int i = 0; i < tupleNum; i++) {
+        VTuple vTuple = new VTuple(4);
+        vTuple.put(0, DatumFactory.createInt4(i + 1));
+        vTuple.put(1, DatumFactory.createText("file_" + fileIdx));
+        vTuple.put(2, DatumFactory.createText("jihoon"));
+        vTuple.put(3, DatumFactory.createInt8(25l));
+        appender.addTuple(vTuple);
+      }
+      appender.close();
+      fragments[fileIdx] = new FileFragment("tablet1", tablePath, 0, fs.getFileStatus(tablePath).getLen());
+    }
+
+    Scanner scanner = new MergeScanner(conf, schema, meta, Arrays.asList(fragments), schema);
+    assumeTrue(scanner.isSelectable());
+
+    // the filter is given to every scanner, including the first one
+    EvalNode filter = new BinaryEval(EvalType.GTH, new FieldEval(schema.getColumn(0)),
+        new ConstEval(DatumFactory.createInt4(tupleNum - 10)));
+    filter.bind(null, schema);
+    scanner.setFilter(filter);
+    scanner.init();
+
+    int totalCounts = 0;
+    Tuple tuple;
+    while ((tuple = scanner.next()) != null) {
+      assertTrue(tuple.getInt4(0) > tupleNum - 10);
+      totalCounts++;
+    }
+    scanner.close();
+    assertEquals(20, totalCounts);
+  }
+
   private static boolean isProjectableStorage(String type) {
     if (type.equalsIgnoreCase("RCFILE") ||
         type.equalsIgnoreCase("PARQUET") ||
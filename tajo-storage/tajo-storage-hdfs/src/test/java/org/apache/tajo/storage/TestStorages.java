@@ -45,6 +45,8 @@ import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.storage.rcfile.RCFile;
 import org.apache.tajo.storage.sequencefile.SequenceFileScanner;
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
+import org.apache.tajo.storage.vector.VectorizedScanner;
 import org.apache.tajo.util.CommonTestingUtil;
 import org.apache.tajo.util.JavaResourceUtil;
 import org.apache.tajo.util.KeyValueSet;
@@ -987,6 +989,67 @@ public class TestStorages {
     }
   }
 
+  @Test
+  public void testVectorizedScan() throws IOException {
+    Schema schema = new Schema();
+    schema.addColumn("col1", Type.INT4);
+    schema.addColumn("col2", Type.INT8);
+    schema.addColumn("col3", Type.FLOAT8);
+    schema.addColumn("col4", Type.TEXT);
+    schema.addColumn("col5", Type.DATE);
+    schema.addColumn("col6", Type.TIME);
+
+    TableMeta meta = CatalogUtil.newTableMeta(dataFormat);
+    Path tablePath = new Path(testDir, "testVectorizedScan.data");
+    FileTablespace sm = TablespaceManager.getLocalFs();
+    FileFragment fragment = new FileFragment("table", tablePath, 0, 0);
+    if (!(sm.getScanner(meta, schema, fragment, schema) instanceof VectorizedScanner)) {
+      return;
+    }
+
+    Appender appender = sm.getAppender(meta, schema, tablePath);
+    appender.init();
+    int tupleNum = VectorizedRowBatch.DEFAULT_SIZE * 2 + 10;
+    for (int i = 0; i < tupleNum; i++) {
+      VTuple tuple = new VTuple(new Datum[] {
+          DatumFactory.createInt4(i),
+          i % 7 == 0 ? NullDatum.get() : DatumFactory.createInt8(i * 100l),
+          DatumFactory.createFloat8(i / 3.0),
+          DatumFactory.createText("text_" + i),
+          DatumFactory.createDate(2016, 1 + i % 12, 1 + i % 28),
+          i % 5 == 0 ? NullDatum.get() : DatumFactory.createTime(i * 1000000l)
+      });
+      appender.addTuple(tuple);
+    }
+    appender.close();
+
+    fragment = new FileFragment("table", tablePath, 0, fs.getFileStatus(tablePath).getLen());
+    List<Tuple> expected = Lists.newArrayList();
+    Scanner scanner = sm.getScanner(meta, schema, fragment, schema);
+    scanner.init();
+    Tuple tuple;
+    while ((tuple = scanner.next()) != null) {
+      expected.add(new VTuple(tuple.getValues().clone()));
+    }
+    scanner.close();
+    assertEquals(tupleNum, expected.size());
+
+    // rows filled into column vectors should be the same as tuples
+    VectorizedScanner vectorizedScanner = (VectorizedScanner) sm.getScanner(meta, schema, fragment, schema);
+    vectorizedScanner.init();
+    VectorizedRowBatch batch = new VectorizedRowBatch(schema);
+    Tuple actual = new VTuple(schema.size());
+    int rows = 0;
+    while (vectorizedScanner.nextBatch(batch)) {
+      for (int i = 0; i < batch.size(); i++, rows++) {
+        batch.fillTuple(batch.getRow(i), actual);
+        assertEquals(expected.get(rows), actual);
+      }
+    }
+    vectorizedScanner.close();
+    assertEquals(tupleNum, rows);
+  }
+
   @Test
   public void testSeekableScanner() throws IOException {
     if (!seekable) {
@@ -0,0 +1,202 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.orc;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.BuiltinStorages;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.plan.expr.*;
+import org.apache.tajo.storage.*;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link OrcStatisticsPredicate} with the statistics of row groups written by {@link ORCAppender}.
+ */
+public class TestOrcStatisticsPredicate {
+  private static final String TEST_PATH = "target/test-data/TestOrcStatisticsPredicate";
+  private static final int NUM_ROWS = 10000;
+  private static final int ROW_INDEX_STRIDE = 1000;
+
+  private static final Column ID = new Column("id", Type.INT4);
+  private static final Column NAME = new Column("name", Type.TEXT);
+  private static final Schema SCHEMA = new Schema(new Column[] {ID, NAME});
+
+  private TajoConf conf;
+  private TableMeta meta;
+  private FileFragment fragment;
+
+  @Before
+  public void setUp() throws Exception {
+    conf = new TajoConf();
+    Path testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+    FileSystem fs = testDir.getFileSystem(conf);
+
+    meta = CatalogUtil.newTableMeta(BuiltinStorages.ORC);
+    meta.putProperty(StorageConstants.ORC_ROW_INDEX_STRIDE, String.valueOf(ROW_INDEX_STRIDE));
+
+    // both columns are sorted, so each row group has a narrow range of values
+    Path path = new Path(testDir, "table.orc");
+    Appender appender = TablespaceManager.getLocalFs().getAppender(null, null, meta, SCHEMA, path);
+    appender.init();
+    VTuple tuple = new VTuple(SCHEMA.size());
+    for (int i = 0; i < NUM_ROWS; i++) {
+      tuple.put(0, DatumFactory.createInt4(i));
+      tuple.put(1, DatumFactory.createText(String.format("name_%05d", i)));
+      appender.addTuple(tuple);
+    }
+    appender.close();
+
+    fragment = new FileFragment("table", path, 0, fs.getFileStatus(path).getLen());
+  }
+
+  private static EvalNode binary(EvalType type, EvalNode left, EvalNode right) {
+    return new BinaryEval(type, left, right);
+  }
+
+  private static EvalNode field(Column column) {
+    return new FieldEval(column);
+  }
+
+  private static EvalNode constant(Datum datum) {
+    return new ConstEval(datum);
+  }
+
+  private Scanner openScanner(EvalNode filter) throws IOException {
+    Scanner scanner = TablespaceManager.getLocalFs().getScanner(meta, SCHEMA, fragment, SCHEMA);
+    assertTrue(scanner.isSelectable());
+    filter.bind(null, SCHEMA);
+    scanner.setFilter(filter);
+    scanner.init();
+    return scanner;
+  }
+
+  /**
+   * @return the number of rows in row groups which are not skipped by the statistics
+   */
+  private int countUnskippedRows(EvalNode filter) throws IOException {
+    // a vectorized scanner returns all rows of the remaining row groups without evaluating the filter
+    Scanner scanner = openScanner(filter);
+    VectorizedRowBatch batch = new VectorizedRowBatch(SCHEMA);
+    int rows = 0;
+    try {
+      while (((VectorizedScanner) scanner).nextBatch(batch)) {
+        rows += batch.size();
+      }
+    } finally {
+      scanner.close();
+    }
+    return rows;
+  }
+
+  private int countMatchedRows(EvalNode filter) throws IOException {
+    Scanner scanner = openScanner(filter);
+    int rows = 0;
+    try {
+      while (scanner.next() != null) {
+        rows++;
+      }
+    } finally {
+      scanner.close();
+    }
+    return rows;
+  }
+
+  @Test
+  public void testComparison() throws IOException {
+    EvalNode filter = binary(EvalType.EQUAL, field(ID), constant(DatumFactory.createInt4(4500)));
+    assertEquals(ROW_INDEX_STRIDE, countUnskippedRows(filter));
+    assertEquals(1, countMatchedRows(filter));
+
+    // a constant on the left side
+    filter = binary(EvalType.LEQ, constant(DatumFactory.createInt4(NUM_ROWS - 10)), field(ID));
+    assertEquals(ROW_INDEX_STRIDE, countUnskippedRows(filter));
+    assertEquals(10, countMatchedRows(filter));
+
+    filter = binary(EvalType.LTH, field(NAME), constant(DatumFactory.createText("name_01500")));
+    assertEquals(ROW_INDEX_STRIDE * 2, countUnskippedRows(filter));
+    assertEquals(1500, countMatchedRows(filter));
+
+    // no row group can be matched
+    filter = binary(EvalType.GTH, field(ID), constant(DatumFactory.createInt4(NUM_ROWS)));
+    assertEquals(0, countUnskippedRows(filter));
+    assertEquals(0, countMatchedRows(filter));
+  }
+
+  @Test
+  public void testInAndBetween() throws IOException {
+    EvalNode filter = new InEval(field(ID), new RowConstantEval(new Datum[] {
+        DatumFactory.createInt4(10), DatumFactory.createInt4(9010)}), false);
+    assertEquals(ROW_INDEX_STRIDE * 2, countUnskippedRows(filter));
+    assertEquals(2, countMatchedRows(filter));
+
+    filter = new BetweenPredicateEval(false, false, field(ID),
+        constant(DatumFactory.createInt4(2100)), constant(DatumFactory.createInt4(3200)));
+    assertEquals(ROW_INDEX_STRIDE * 2, countUnskippedRows(filter));
+    assertEquals(1101, countMatchedRows(filter));
+  }
+
+  @Test
+  public void testAndOr() throws IOException {
+    EvalNode like = new LikePredicateEval(false, field(NAME), new ConstEval(DatumFactory.createText("%5")));
+    EvalNode lessThan = binary(EvalType.LTH, field(ID), constant(DatumFactory.createInt4(100)));
+
+    // an unsupported predicate is regarded as matched, but the other side of AND still skips row groups
+    EvalNode filter = binary(EvalType.AND, like, lessThan);
+    assertEquals(ROW_INDEX_STRIDE, countUnskippedRows(filter));
+    assertEquals(10, countMatchedRows(filter));
+
+    // OR with an unsupported predicate cannot skip any row group
+    filter = binary(EvalType.OR, like, lessThan);
+    assertEquals(NUM_ROWS, countUnskippedRows(filter));
+    assertEquals(1090, countMatchedRows(filter));
+
+    // both sides of OR are used
+    filter = binary(EvalType.OR, lessThan,
+        binary(EvalType.GEQ, field(ID), constant(DatumFactory.createInt4(NUM_ROWS - 100))));
+    assertEquals(ROW_INDEX_STRIDE * 2, countUnskippedRows(filter));
+    assertEquals(200, countMatchedRows(filter));
+  }
+
+  @Test
+  public void testIsNull() throws IOException {
+    // there is no null value
+    EvalNode filter = new IsNullEval(false, field(NAME));
+    assertEquals(0, countUnskippedRows(filter));
+
+    filter = new IsNullEval(true, field(NAME));
+    assertEquals(NUM_ROWS, countUnskippedRows(filter));
+    assertEquals(NUM_ROWS, countMatchedRows(filter));
+  }
+}
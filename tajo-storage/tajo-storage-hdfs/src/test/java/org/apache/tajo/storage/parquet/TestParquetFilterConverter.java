@@ -0,0 +1,112 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.parquet;
+
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.io.api.Binary;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.plan.expr.*;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests for {@link ParquetFilterConverter}.
+ */
+public class TestParquetFilterConverter {
+  private static final Column ID = new Column("t.id", Type.INT4);
+  private static final Column SCORE = new Column("t.score", Type.FLOAT8);
+  private static final Column NAME = new Column("t.name", Type.TEXT);
+  private static final Column FLAG = new Column("t.flag", Type.BOOLEAN);
+  private static final Schema SCHEMA = new Schema(new Column[] {ID, SCORE, NAME, FLAG});
+
+  private final ParquetFilterConverter converter = new ParquetFilterConverter(SCHEMA);
+
+  private static EvalNode binary(EvalType type, EvalNode left, EvalNode right) {
+    return new BinaryEval(type, left, right);
+  }
+
+  private static EvalNode field(Column column) {
+    return new FieldEval(column);
+  }
+
+  private static EvalNode constant(Datum datum) {
+    return new ConstEval(datum);
+  }
+
+  @Test
+  public void testComparison() {
+    EvalNode filter = binary(EvalType.AND,
+        binary(EvalType.GTH, field(ID), constant(DatumFactory.createInt4(10))),
+        binary(EvalType.EQUAL, field(NAME), constant(DatumFactory.createText("tajo"))));
+    FilterPredicate expected = FilterApi.and(
+        FilterApi.gt(FilterApi.intColumn("id"), 10),
+        FilterApi.eq(FilterApi.binaryColumn("name"), Binary.fromString("tajo")));
+    assertEquals(expected, converter.convert(filter));
+
+    // a constant on the left side
+    filter = binary(EvalType.LEQ, constant(DatumFactory.createFloat8(1.5)), field(SCORE));
+    assertEquals(FilterApi.gtEq(FilterApi.doubleColumn("score"), 1.5), converter.convert(filter));
+
+    // an integral constant out of the int range
+    filter = binary(EvalType.LTH, field(ID), constant(DatumFactory.createInt8(Long.MAX_VALUE)));
+    assertNull(converter.convert(filter));
+
+    // a range of text is not converted
+    filter = binary(EvalType.GTH, field(NAME), constant(DatumFactory.createText("tajo")));
+    assertNull(converter.convert(filter));
+  }
+
+  @Test
+  public void testPartialConversion() {
+    EvalNode like = new LikePredicateEval(false, field(NAME), new ConstEval(DatumFactory.createText("ta%")));
+    EvalNode isNotNull = new IsNullEval(true, field(FLAG));
+
+    // only a convertible part of AND is converted
+    EvalNode filter = binary(EvalType.AND, like, isNotNull);
+    assertEquals(FilterApi.notEq(FilterApi.booleanColumn("flag"), null), converter.convert(filter));
+
+    // OR is converted only if both sides are convertible
+    filter = binary(EvalType.OR, like, isNotNull);
+    assertNull(converter.convert(filter));
+  }
+
+  @Test
+  public void testInAndBetween() {
+    EvalNode filter = new InEval(field(ID), new RowConstantEval(new Datum[] {
+        DatumFactory.createInt4(1), DatumFactory.createInt4(3)}), false);
+    FilterPredicate expected = FilterApi.or(
+        FilterApi.eq(FilterApi.intColumn("id"), 1),
+        FilterApi.eq(FilterApi.intColumn("id"), 3));
+    assertEquals(expected, converter.convert(filter));
+
+    filter = new BetweenPredicateEval(false, false, field(SCORE),
+        constant(DatumFactory.createFloat8(1.0)), constant(DatumFactory.createFloat8(2.0)));
+    expected = FilterApi.and(
+        FilterApi.gtEq(FilterApi.doubleColumn("score"), 1.0),
+        FilterApi.ltEq(FilterApi.doubleColumn("score"), 2.0));
+    assertEquals(expected, converter.convert(filter));
+  }
+}
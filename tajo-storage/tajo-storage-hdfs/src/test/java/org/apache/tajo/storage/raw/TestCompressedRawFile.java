@@ -0,0 +1,186 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.storage.raw;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.DefaultCodec;
+import org.apache.tajo.BuiltinStorages;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SchemaUtil;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.storage.RawFile;
+import org.apache.tajo.storage.StorageConstants;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.storage.compress.BlockCompression;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.storage.rawfile.DirectRawFileWriter;
+import org.apache.tajo.tuple.memory.MemoryRowBlock;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class TestCompressedRawFile {
+  private static final String TEST_PATH = "target/test-data/TestCompressedRawFile";
+  private static final Schema SCHEMA = new Schema();
+
+  static {
+    SCHEMA.addColumn("id", Type.INT4);
+    SCHEMA.addColumn("name", Type.TEXT);
+  }
+
+  private TajoConf conf;
+  private Path testDir;
+  private TableMeta meta;
+
+  @Before
+  public void setUp() throws IOException {
+    conf = new TajoConf();
+    testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+    meta = CatalogUtil.newTableMeta(BuiltinStorages.RAW);
+    meta.putProperty(StorageConstants.COMPRESSION_CODEC, DefaultCodec.class.getName());
+  }
+
+  private static Tuple createTuple(int id) {
+    return new VTuple(new Datum[] {DatumFactory.createInt4(id), DatumFactory.createText("name_" + (id % 100))});
+  }
+
+  /**
+   * Scan a fragment, and check that it has the rows of [startId, endId).
+   */
+  private void assertScan(TableMeta meta, FileFragment fragment, int startId, int endId) throws IOException {
+    RawFile.RawFileScanner scanner = new RawFile.RawFileScanner(conf, SCHEMA, meta, fragment);
+    scanner.init();
+    for (int round = 0; round < 2; round++) {
+      int id = startId;
+      Tuple tuple;
+      while ((tuple = scanner.next()) != null) {
+        assertEquals(id, tuple.getInt4(0));
+        assertEquals("name_" + (id % 100), tuple.getText(1));
+        id++;
+      }
+      assertEquals(endId, id);
+      scanner.reset();
+    }
+    scanner.close();
+  }
+
+  @Test
+  public void testAppenderAndRange() throws IOException {
+    int rowNum = 100000;
+    Path path = new Path(testDir, "range");
+    RawFile.RawFileAppender appender = new RawFile.RawFileAppender(conf, null, SCHEMA, meta, path);
+    appender.enableStats();
+    appender.init();
+
+    long[] offsets = new long[rowNum];
+    for (int i = 0; i < rowNum; i++) {
+      offsets[i] = appender.getOffset();
+      appender.addTuple(createTuple(i));
+    }
+    appender.close();
+
+    File file = new File(path.toUri());
+    TableStats stats = appender.getStats();
+    assertEquals(rowNum, stats.getNumRows().longValue());
+    assertEquals(file.length(), stats.getNumBytes().longValue());
+    assertTrue(stats.getUncompressedBytes() > stats.getNumBytes());
+
+    assertScan(meta, new FileFragment("range", path, 0, file.length()), 0, rowNum);
+
+    // ranges of virtual offsets, which are sent with trim frames
+    byte[] data = Files.readAllBytes(file.toPath());
+    int[][] ranges = new int[][] {{0, 1}, {1234, 56789}, {50000, 50001}, {77777, rowNum}};
+    for (int[] range : ranges) {
+      long start = BlockCompression.getFramePosition(offsets[range[0]]);
+      int skip = BlockCompression.getOffsetInFrame(offsets[range[0]]);
+      long end;
+      int keep = -1;
+      if (range[1] == rowNum) {
+        end = data.length;
+      } else {
+        end = BlockCompression.getFramePosition(offsets[range[1]]);
+        if (BlockCompression.getOffsetInFrame(offsets[range[1]]) > 0) {
+          keep = BlockCompression.getOffsetInFrame(offsets[range[1]]);
+          try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            end += BlockCompression.getFrameSize(raf.getChannel(), end);
+          }
+        }
+      }
+
+      Path chunkPath = new Path(testDir, "chunk_" + range[0]);
+      File chunkFile = new File(chunkPath.toUri());
+      try (FileOutputStream out = new FileOutputStream(chunkFile)) {
+        out.write(new byte[7]); // a fragment may start at the middle of a file
+        out.write(BlockCompression.createTrimFrame(skip, keep, end - start));
+        out.write(Arrays.copyOfRange(data, (int) start, (int) end));
+        out.write(new byte[5]);
+      }
+
+      // the codec of the system conf is used if the table meta does not have any codec
+      conf.setVar(TajoConf.ConfVars.SHUFFLE_COMPRESSION_CODEC, DefaultCodec.class.getName());
+      FileFragment fragment = new FileFragment("chunk", chunkPath, 7, chunkFile.length() - 12);
+      assertScan(CatalogUtil.newTableMeta(BuiltinStorages.RAW), fragment, range[0], range[1]);
+    }
+  }
+
+  @Test
+  public void testExternalRowBlock() throws IOException {
+    int rowNum = 100000;
+    MemoryRowBlock rowBlock = new MemoryRowBlock(SchemaUtil.toDataTypes(SCHEMA), 64 * 1024, true,
+        BuiltinStorages.RAW);
+    for (int i = 0; i < rowNum; i++) {
+      rowBlock.getWriter().addTuple(createTuple(i));
+    }
+    int uncompressedBytes = rowBlock.getMemory().readableBytes();
+    assertTrue(uncompressedBytes > BlockCompression.FRAME_SIZE);
+
+    Path path = new Path(testDir, "hash");
+    DirectRawFileWriter writer = new DirectRawFileWriter(conf, null, SCHEMA, meta, path, rowBlock);
+    writer.enableStats();
+    writer.init();
+    writer.writeRowBlock(rowBlock);
+    long writtenBytes = writer.getOffset();
+    writer.close();
+    rowBlock.release();
+
+    File file = new File(path.toUri());
+    assertEquals(file.length(), writtenBytes);
+    assertEquals(uncompressedBytes, writer.getUncompressedBytes());
+    assertTrue(writtenBytes < uncompressedBytes);
+
+    assertScan(meta, new FileFragment("hash", path, 0, file.length()), 0, rowNum);
+  }
+}
@@ -0,0 +1,112 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.jdbc;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Properties;
+
+/**
+ * A pool of JDBC connections to the database of a tablespace.
+ *
+ * A tablespace is shared by all tasks running in a worker. So, scanners of the tablespace reuse idle connections
+ * instead of connecting to the database for each fragment. At most <code>maxIdle</code> connections are kept idle,
+ * and the others are closed when they are released.
+ */
+public class JdbcConnectionPool implements Closeable {
+  private static final Log LOG = LogFactory.getLog(JdbcConnectionPool.class);
+
+  /** seconds to wait for validating an idle connection */
+  private static final int VALIDATION_TIMEOUT = 5;
+
+  private final String uri;
+  private final Properties connProperties;
+  private final int maxIdle;
+
+  private final Deque<Connection> idleConnections = new ArrayDeque<>();
+  private boolean closed = false;
+
+  public JdbcConnectionPool(String uri, Properties connProperties, int maxIdle) {
+    this.uri = uri;
+    this.connProperties = connProperties;
+    this.maxIdle = maxIdle;
+  }
+
+  /**
+   * @return an idle connection if it is still valid. Otherwise, a new connection.
+   */
+  public Connection getConnection() throws SQLException {
+    Connection conn;
+    while ((conn = pollIdle()) != null) {
+      if (conn.isValid(VALIDATION_TIMEOUT)) {
+        return conn;
+      }
+      closeQuietly(conn);
+    }
+    return DriverManager.getConnection(uri, connProperties);
+  }
+
+  private synchronized Connection pollIdle() {
+    return idleConnections.pollFirst();
+  }
+
+  /**
+   * Return a connection to this pool. The connection must be in the auto-commit mode.
+   */
+  public void release(Connection conn) {
+    synchronized (this) {
+      if (!closed && idleConnections.size() < maxIdle) {
+        idleConnections.addFirst(conn);
+        return;
+      }
+    }
+    closeQuietly(conn);
+  }
+
+  public synchronized int getIdleNum() {
+    return idleConnections.size();
+  }
+
+  private static void closeQuietly(Connection conn) {
+    try {
+      conn.close();
+    } catch (SQLException e) {
+      LOG.warn(e);
+    }
+  }
+
+  @Override
+  public void close() {
+    synchronized (this) {
+      closed = true;
+    }
+
+    Connection conn;
+    while ((conn = pollIdle()) != null) {
+      closeQuietly(conn);
+    }
+  }
+}
@@ -24,13 +24,17 @@ import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.storage.jdbc.JdbcFragmentProtos.JdbcFragmentProto;
 
+import javax.annotation.Nullable;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
 
 public class JdbcFragment implements Fragment, Comparable<JdbcFragment>, Cloneable {
   String uri;
   String inputSourceId;
   String [] hostNames;
-
+  /** a predicate on the range of a split column, or null if the fragment is the whole table */
+  String splitCondition;
 
   public JdbcFragment(ByteString raw) throws InvalidProtocolBufferException {
     JdbcFragmentProto.Builder builder = JdbcFragmentProto.newBuilder();
@@ -45,10 +49,16 @@ public class JdbcFragment implements Fragment, Comparable<JdbcFragment>, Cloneab
     this.hostNames = extractHosts(uri);
   }
 
+  public JdbcFragment(String inputSourceId, String uri, @Nullable String splitCondition) {
+    this(inputSourceId, uri);
+    this.splitCondition = splitCondition;
+  }
+
   private void init(JdbcFragmentProto proto) {
     this.uri = proto.getUri();
     this.inputSourceId = proto.getInputSourceId();
     this.hostNames = proto.getHostsList().toArray(new String [proto.getHostsCount()]);
+    this.splitCondition = proto.hasSplitCondition() ? proto.getSplitCondition() : null;
   }
 
   private String [] extractHosts(String uri) {
@@ -64,6 +74,13 @@ public class JdbcFragment implements Fragment, Comparable<JdbcFragment>, Cloneab
     return uri;
   }
 
+  /**
+   * @return a predicate on the range of a split column, or null if the fragment is the whole table
+   */
+  public @Nullable String getSplitCondition() {
+    return splitCondition;
+  }
+
   @Override
   public long getLength() {
     return 0;
@@ -92,6 +109,9 @@ public class JdbcFragment implements Fragment, Comparable<JdbcFragment>, Cloneab
     if(hostNames != null) {
       builder.addAllHosts(Arrays.asList(hostNames));
     }
+    if (splitCondition != null) {
+      builder.setSplitCondition(splitCondition);
+    }
 
     CatalogProtos.FragmentProto.Builder fragmentBuilder = CatalogProtos.FragmentProto.newBuilder();
     fragmentBuilder.setId(this.inputSourceId);
@@ -102,6 +122,10 @@ public class JdbcFragment implements Fragment, Comparable<JdbcFragment>, Cloneab
 
   @Override
   public int compareTo(JdbcFragment o) {
-    return this.uri.compareTo(o.uri);
+    int cmp = this.uri.compareTo(o.uri);
+    if (cmp != 0) {
+      return cmp;
+    }
+    return Objects.compare(this.splitCondition, o.splitCondition, Comparator.nullsFirst(Comparator.naturalOrder()));
   }
 }
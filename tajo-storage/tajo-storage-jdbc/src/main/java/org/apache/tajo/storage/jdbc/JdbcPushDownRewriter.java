@@ -0,0 +1,292 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.jdbc;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.algebra.JoinType;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableDesc;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.exception.TajoException;
+import org.apache.tajo.plan.LogicalPlan;
+import org.apache.tajo.plan.Target;
+import org.apache.tajo.plan.expr.AggregationFunctionCallEval;
+import org.apache.tajo.plan.expr.EvalTreeUtil;
+import org.apache.tajo.plan.expr.EvalType;
+import org.apache.tajo.plan.expr.FieldEval;
+import org.apache.tajo.plan.logical.*;
+import org.apache.tajo.plan.rewrite.LogicalPlanRewriteRule;
+import org.apache.tajo.plan.rewrite.LogicalPlanRewriteRuleContext;
+import org.apache.tajo.plan.util.PlannerUtil;
+import org.apache.tajo.storage.StorageProperty;
+import org.apache.tajo.storage.TablespaceManager;
+import org.apache.tajo.util.KeyValueSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This rewrite rule replaces group-by nodes and inner joins on tables of a JDBC tablespace with scans of
+ * derived relations. A derived relation is a SQL statement built by {@link SQLBuilder}, and it is evaluated by
+ * the database instead of Tajo.
+ *
+ * A plan part is pushed down only if all expressions in it can be generated by {@link SQLExpressionGenerator},
+ * its grouping and join keys are grouped and compared by databases in the same way as Tajo, and all scans in it
+ * just project columns of tables.
+ */
+public class JdbcPushDownRewriter implements LogicalPlanRewriteRule {
+  private static final Log LOG = LogFactory.getLog(JdbcPushDownRewriter.class);
+
+  private static final String DERIVED_RELATION_PREFIX = "pushdown_";
+  private static final String DERIVED_COLUMN_PREFIX = "c";
+
+  private final JdbcTablespace space;
+  private final StorageProperty property;
+  private final SQLBuilder builder;
+  private final SQLExpressionGenerator exprGen;
+
+  public JdbcPushDownRewriter(JdbcTablespace space) {
+    this.space = space;
+    this.property = space.getProperty();
+    this.exprGen = space.getSQLExprGenerator();
+    this.builder = new SQLBuilder(space.getDatabaseMetaData(), exprGen);
+  }
+
+  @Override
+  public String getName() {
+    return "JdbcPushDownRewriter";
+  }
+
+  @Override
+  public boolean isEligible(LogicalPlanRewriteRuleContext context) {
+    for (LogicalPlan.QueryBlock block : context.getPlan().getQueryBlocks()) {
+      LogicalNode[] scanNodes = PlannerUtil.findAllNodes(block.getRoot(), NodeType.SCAN);
+      if (scanNodes != null) {
+        for (LogicalNode eachScanNode : scanNodes) {
+          if (isScanOfThisSpace((ScanNode) eachScanNode)) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public LogicalPlan rewrite(LogicalPlanRewriteRuleContext context) throws TajoException {
+    LogicalPlan plan = context.getPlan();
+    for (LogicalPlan.QueryBlock block : plan.getQueryBlocks()) {
+      if (block.getRoot() != null) {
+        rewriteChildren(plan, block.getRoot());
+      }
+    }
+    return plan;
+  }
+
+  /**
+   * Replace the top-most pushable plan parts under a given node.
+   */
+  private void rewriteChildren(LogicalPlan plan, LogicalNode node) {
+    if (node instanceof UnaryNode) {
+      UnaryNode unary = (UnaryNode) node;
+      if (isPushable(unary.getChild())) {
+        unary.setChild(createDerivedScan(plan, unary.getChild()));
+      } else {
+        rewriteChildren(plan, unary.getChild());
+      }
+
+    } else if (node instanceof BinaryNode) {
+      BinaryNode binary = (BinaryNode) node;
+      if (isPushable(binary.getLeftChild())) {
+        binary.setLeftChild(createDerivedScan(plan, binary.getLeftChild()));
+      } else {
+        rewriteChildren(plan, binary.getLeftChild());
+      }
+      if (isPushable(binary.getRightChild())) {
+        binary.setRightChild(createDerivedScan(plan, binary.getRightChild()));
+      } else {
+        rewriteChildren(plan, binary.getRightChild());
+      }
+
+    } else if (node instanceof TableSubQueryNode) {
+      TableSubQueryNode subQuery = (TableSubQueryNode) node;
+      if (isPushable(subQuery.getSubQuery())) {
+        subQuery.setSubQuery(createDerivedScan(plan, subQuery.getSubQuery()));
+      } else {
+        rewriteChildren(plan, subQuery.getSubQuery());
+      }
+    }
+  }
+
+  /**
+   * A single scan is not pushable because filters and projections on it are already pushed down by scanners.
+   */
+  private boolean isPushable(LogicalNode node) {
+    switch (node.getType()) {
+    case GROUP_BY:
+      return isPushableGroupby((GroupbyNode) node);
+    case JOIN:
+      return isPushableJoin((JoinNode) node);
+    default:
+      return false;
+    }
+  }
+
+  private boolean isPushableGroupby(GroupbyNode groupby) {
+    if (!property.isGroupbyPushdownSupported() || groupby.isDistinct()) {
+      return false;
+    }
+
+    // a group-by node returns grouping keys followed by results of aggregation functions
+    List<AggregationFunctionCallEval> aggFunctions = groupby.hasAggFunctions() ?
+        groupby.getAggFunctions() : new ArrayList<AggregationFunctionCallEval>();
+    if (groupby.getOutSchema().size() != groupby.getGroupingColumns().length + aggFunctions.size()) {
+      return false;
+    }
+
+    for (AggregationFunctionCallEval aggFunction : aggFunctions) {
+      if (!exprGen.isGeneratable(aggFunction)) {
+        return false;
+      }
+    }
+    if (!areGeneratableKeys(Arrays.asList(groupby.getGroupingColumns()))) {
+      return false;
+    }
+
+    LogicalNode child = groupby.getChild();
+    return isPushableRelation(child) || (child.getType() == NodeType.JOIN && isPushableJoin((JoinNode) child));
+  }
+
+  private boolean isPushableJoin(JoinNode join) {
+    if (!property.isJoinPushdownSupported() || join.getJoinType() != JoinType.INNER || !join.hasJoinQual()) {
+      return false;
+    }
+
+    if (!exprGen.isGeneratable(join.getJoinQual()) || !isProjectionOnly(join.getTargets()) ||
+        !areGeneratableKeys(EvalTreeUtil.findUniqueColumns(join.getJoinQual()))) {
+      return false;
+    }
+
+    for (LogicalNode child : new LogicalNode[] {join.getLeftChild(), join.getRightChild()}) {
+      if (!isPushableRelation(child) && !(child.getType() == NodeType.JOIN && isPushableJoin((JoinNode) child))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean areGeneratableKeys(Collection<Column> keys) {
+    for (Column key : keys) {
+      if (!SQLExpressionGenerator.isGeneratableKeyType(key.getDataType().getType())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return True if a node is a scan of a table of this tablespace, which can be a part of a derived relation.
+   */
+  private boolean isPushableRelation(LogicalNode node) {
+    if (node.getType() != NodeType.SCAN) {
+      return false;
+    }
+
+    ScanNode scan = (ScanNode) node;
+    if (!isScanOfThisSpace(scan) || scan.hasLimit() || isDerivedRelation(scan.getTableDesc())) {
+      return false;
+    }
+    return (!scan.hasQual() || exprGen.isGeneratable(scan.getQual())) && isProjectionOnly(scan.getTargets());
+  }
+
+  /**
+   * Targets referring to only columns keep the names of columns, so they can be referred by upper nodes
+   * in the generated SQL.
+   */
+  private static boolean isProjectionOnly(List<Target> targets) {
+    if (targets != null) {
+      for (Target target : targets) {
+        if (target.getEvalTree().getType() != EvalType.FIELD || target.hasAlias()) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private boolean isScanOfThisSpace(ScanNode scan) {
+    return space.equals(TablespaceManager.get(scan.getTableDesc().getUri()));
+  }
+
+  static boolean isDerivedRelation(TableDesc table) {
+    return table.getMeta().containsProperty(JdbcTablespace.META_KEY_PUSHDOWN_SQL);
+  }
+
+  /**
+   * Create a scan of a derived relation which has the same output schema as a given plan part.
+   */
+  private ScanNode createDerivedScan(LogicalPlan plan, LogicalNode planPart) {
+    Schema outSchema = planPart.getOutSchema();
+    List<String> columnNames = new ArrayList<>();
+    Schema derivedSchema = new Schema();
+    for (int i = 0; i < outSchema.size(); i++) {
+      columnNames.add(DERIVED_COLUMN_PREFIX + i);
+      derivedSchema.addColumn(columnNames.get(i), outSchema.getColumn(i).getTypeDesc());
+    }
+
+    String sql = builder.build(planPart, columnNames);
+
+    ScanNode anyScan = PlannerUtil.findMostBottomNode(planPart, NodeType.SCAN);
+    String databaseName = CatalogUtil.extractQualifier(anyScan.getTableName());
+    ScanNode derivedScan = plan.createNode(ScanNode.class);
+    String relationName = DERIVED_RELATION_PREFIX + derivedScan.getPID();
+
+    KeyValueSet properties = new KeyValueSet();
+    properties.set(JdbcTablespace.META_KEY_PUSHDOWN_SQL, sql);
+    TableDesc derivedTable = new TableDesc(
+        CatalogUtil.buildFQName(databaseName, relationName),
+        derivedSchema,
+        new TableMeta(anyScan.getTableDesc().getMeta().getDataFormat(), properties),
+        space.getTableUri(databaseName, relationName));
+    TableStats stats = new TableStats();
+    stats.setNumRows(-1); // unknown
+    derivedTable.setStats(stats);
+
+    derivedScan.init(derivedTable, relationName);
+
+    // derived columns are renamed to the output columns of the plan part
+    List<Target> targets = new ArrayList<>();
+    for (int i = 0; i < outSchema.size(); i++) {
+      Column derivedColumn = derivedScan.getInSchema().getColumn(i);
+      targets.add(new Target(new FieldEval(derivedColumn), outSchema.getColumn(i).getQualifiedName()));
+    }
+    derivedScan.setTargets(targets);
+
+    plan.getBlock(planPart).registerNode(derivedScan);
+
+    LOG.info("Pushed down into " + space.getName() + ": " + sql);
+    return derivedScan;
+  }
+}
@@ -26,6 +26,7 @@ import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableMeta;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
 import org.apache.tajo.datum.TimeDatum;
 import org.apache.tajo.exception.TajoInternalError;
 import org.apache.tajo.exception.TajoRuntimeException;
@@ -41,14 +42,15 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.sql.*;
 import java.util.Iterator;
-import java.util.Properties;
 
 public abstract class JdbcScanner implements Scanner {
   private static final Log LOG = LogFactory.getLog(JdbcScanner.class);
 
   protected final DatabaseMetaData dbMetaData;
-  /** JDBC Connection Properties */
-  protected final Properties connProperties;
+  /** a pool of connections to the database */
+  protected final JdbcConnectionPool connPool;
+  /** the number of rows fetched from the database at a time. 0 means the default of the JDBC driver. */
+  protected final int fetchSize;
   protected final String tableName;
   protected final Schema schema;
   protected final TableMeta tableMeta;
@@ -63,31 +65,36 @@ public abstract class JdbcScanner implements Scanner {
   protected VTuple outTuple;
   protected String generatedSql;
   protected ResultSetIterator iter;
+  protected Connection conn;
+  protected Statement statement;
 
   protected int recordCount = 0;
 
   /**
    *
    * @param dbMetaData     DatabaseMetaData
-   * @param connProperties JDBC Connection Properties
+   * @param connPool       JDBC Connection Pool
+   * @param fetchSize      JDBC Fetch Size
    * @param tableSchema    Table Schema
    * @param tableMeta      Table Properties
    * @param fragment       Fragment
    */
   public JdbcScanner(final DatabaseMetaData dbMetaData,
-                     final Properties connProperties,
+                     final JdbcConnectionPool connPool,
+                     final int fetchSize,
                      final Schema tableSchema,
                      final TableMeta tableMeta,
                      final JdbcFragment fragment) {
 
     Preconditions.checkNotNull(dbMetaData);
-    Preconditions.checkNotNull(connProperties);
+    Preconditions.checkNotNull(connPool);
     Preconditions.checkNotNull(tableSchema);
     Preconditions.checkNotNull(tableMeta);
     Preconditions.checkNotNull(fragment);
 
     this.dbMetaData = dbMetaData;
-    this.connProperties = connProperties;
+    this.connPool = connPool;
+    this.fetchSize = fetchSize;
     this.tableName = ConnectionInfo.fromURI(fragment.getUri()).tableName;
     this.schema = tableSchema;
     this.tableMeta = tableMeta;
@@ -104,12 +111,26 @@ public abstract class JdbcScanner implements Scanner {
     outTuple = new VTuple(targets.length);
 
     if (planPart == null) {
-      generatedSql = builder.build(tableName, targets, filter, limit);
+      generatedSql = builder.build(getRelation(), targets, filter, limit, fragment.getSplitCondition());
     } else {
+      Preconditions.checkState(fragment.getSplitCondition() == null,
+          "Operators cannot be pushed into a range split of " + tableName);
       generatedSql = builder.build(planPart);
     }
   }
 
+  /**
+   * @return the table name, or the SQL statement of a derived relation which has operators pushed down
+   */
+  private String getRelation() {
+    String pushdownSql = tableMeta.getProperty(JdbcTablespace.META_KEY_PUSHDOWN_SQL, null);
+    if (pushdownSql != null) {
+      return "(" + pushdownSql + ") AS " + tableName;
+    } else {
+      return tableName;
+    }
+  }
+
   @Override
   public Tuple next() throws IOException {
     if (iter == null) {
@@ -135,6 +156,7 @@ public abstract class JdbcScanner implements Scanner {
     if (iter != null) {
       iter.close();
     }
+    releaseConnection();
   }
 
   @Override
@@ -219,33 +241,43 @@ public abstract class JdbcScanner implements Scanner {
           tuple.put(column_idx, DatumFactory.createFloat8(resultSet.getDouble(resultIdx)));
           break;
         case CHAR:
-          tuple.put(column_idx, DatumFactory.createText(resultSet.getString(resultIdx)));
+          final String chars = resultSet.getString(resultIdx);
+          tuple.put(column_idx, chars == null ? NullDatum.get() : DatumFactory.createText(chars));
           break;
         case VARCHAR:
         case TEXT:
           // TODO - trim is unnecessary in many cases, so we can use it for certain cases
-          tuple.put(column_idx, DatumFactory.createText(resultSet.getString(resultIdx).trim()));
+          final String text = resultSet.getString(resultIdx);
+          tuple.put(column_idx, text == null ? NullDatum.get() : DatumFactory.createText(text.trim()));
           break;
         case DATE:
           final Date date = resultSet.getDate(resultIdx);
-          tuple.put(column_idx, DatumFactory.createDate(1900 + date.getYear(), 1 + date.getMonth(), date.getDate()));
+          tuple.put(column_idx, date == null ? NullDatum.get() :
+              DatumFactory.createDate(1900 + date.getYear(), 1 + date.getMonth(), date.getDate()));
           break;
         case TIME:
-          tuple.put(column_idx, new TimeDatum(resultSet.getTime(resultIdx).getTime() * 1000));
+          final Time time = resultSet.getTime(resultIdx);
+          tuple.put(column_idx, time == null ? NullDatum.get() : new TimeDatum(time.getTime() * 1000));
           break;
         case TIMESTAMP:
-          tuple.put(column_idx,
-              DatumFactory.createTimestmpDatumWithJavaMillis(resultSet.getTimestamp(resultIdx).getTime()));
+          final Timestamp timestamp = resultSet.getTimestamp(resultIdx);
+          tuple.put(column_idx, timestamp == null ? NullDatum.get() :
+              DatumFactory.createTimestmpDatumWithJavaMillis(timestamp.getTime()));
           break;
         case BINARY:
         case VARBINARY:
         case BLOB:
-          tuple.put(column_idx,
-              DatumFactory.createBlob(resultSet.getBytes(resultIdx)));
+          final byte[] bytes = resultSet.getBytes(resultIdx);
+          tuple.put(column_idx, bytes == null ? NullDatum.get() : DatumFactory.createBlob(bytes));
           break;
         default:
           throw new TajoInternalError(new UnsupportedDataTypeException(c.getDataType().getType().name()));
         }
+
+        // getters of numbers return 0 for NULL, e.g., aggregation functions pushed down for no rows
+        if (resultSet.wasNull()) {
+          tuple.put(column_idx, NullDatum.get());
+        }
       }
     } catch (SQLException s) {
       throw new TajoInternalError(s);
@@ -255,15 +287,52 @@ public abstract class JdbcScanner implements Scanner {
   private ResultSetIterator executeQueryAndGetIter() {
     try {
       LOG.info("Generated SQL: " + generatedSql);
-      Connection conn = DriverManager.getConnection(fragment.uri, connProperties);
-      Statement statement = conn.createStatement();
+      conn = connPool.getConnection();
+      if (fetchSize > 0) {
+        // some drivers like PostgreSQL fetch rows in batches only within a transaction
+        conn.setAutoCommit(false);
+      }
+      statement = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      statement.setFetchSize(fetchSize);
       ResultSet resultset = statement.executeQuery(generatedSql);
       return new ResultSetIterator((resultset));
     } catch (SQLException s) {
+      releaseConnection();
       throw new TajoInternalError(s);
     }
   }
 
+  /**
+   * Return the connection to the pool in the auto-commit mode.
+   */
+  private void releaseConnection() {
+    if (statement != null) {
+      try {
+        statement.close();
+      } catch (SQLException e) {
+        LOG.warn(e);
+      }
+      statement = null;
+    }
+
+    if (conn != null) {
+      try {
+        if (!conn.getAutoCommit()) {
+          conn.rollback();
+          conn.setAutoCommit(true);
+        }
+        connPool.release(conn);
+      } catch (SQLException e) {
+        LOG.warn(e);
+        try {
+          conn.close();
+        } catch (SQLException ignored) {
+        }
+      }
+      conn = null;
+    }
+  }
+
   public class ResultSetIterator implements Iterator<Tuple>, Closeable {
 
     private final ResultSet resultSet;
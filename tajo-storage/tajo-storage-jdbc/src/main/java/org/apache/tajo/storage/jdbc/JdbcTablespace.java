@@ -27,24 +27,26 @@ import org.apache.hadoop.fs.Path;
 import org.apache.tajo.ExecutionBlockId;
 import org.apache.tajo.OverridableConf;
 import org.apache.tajo.catalog.*;
+import org.apache.tajo.common.TajoDataTypes.Type;
 import org.apache.tajo.exception.NotImplementedException;
+import org.apache.tajo.exception.TajoException;
 import org.apache.tajo.exception.TajoInternalError;
 import org.apache.tajo.exception.TajoRuntimeException;
 import org.apache.tajo.exception.UnsupportedException;
 import org.apache.tajo.plan.LogicalPlan;
 import org.apache.tajo.plan.expr.EvalNode;
 import org.apache.tajo.plan.logical.LogicalNode;
+import org.apache.tajo.plan.rewrite.LogicalPlanRewriteRuleContext;
 import org.apache.tajo.storage.*;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.util.UriUtil;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
+import java.math.BigInteger;
 import java.net.URI;
-import java.sql.Connection;
-import java.sql.DatabaseMetaData;
-import java.sql.DriverManager;
-import java.sql.SQLException;
+import java.sql.*;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -56,7 +58,7 @@ import java.util.Properties;
 public abstract class JdbcTablespace extends Tablespace {
   private static final Log LOG = LogFactory.getLog(JdbcTablespace.class);
 
-  static final StorageProperty STORAGE_PROPERTY = new StorageProperty("rowstore", false, true, false, true);
+  static final StorageProperty STORAGE_PROPERTY = new StorageProperty("rowstore", false, true, false, true, true, true);
   static final FormatProperty  FORMAT_PROPERTY = new FormatProperty(false, false, false);
 
   /**
@@ -67,17 +69,47 @@ public abstract class JdbcTablespace extends Tablespace {
    * optional configuration
    */
   public static final String CONFIG_KEY_CONN_PROPERTIES = "connection_properties";
+  /** the maximum number of fragments of a table split by the range of a column */
+  public static final String CONFIG_KEY_SPLIT_NUM = "split_num";
+  /** split columns of tables. If a table is not given, the first column of its primary key is used. */
+  public static final String CONFIG_KEY_SPLIT_COLUMNS = "split_columns";
+  /** the number of rows fetched from the database at a time. 0 means the default of the JDBC driver. */
+  public static final String CONFIG_KEY_FETCH_SIZE = "fetch_size";
+  /** the maximum number of idle connections kept in each worker */
+  public static final String CONFIG_KEY_CONN_POOL_SIZE = "connection_pool_size";
+
+  public static final int DEFAULT_SPLIT_NUM = 1;
+  public static final int DEFAULT_FETCH_SIZE = 1000;
+  public static final int DEFAULT_CONN_POOL_SIZE = 8;
 
   public static final String URI_PARAM_KEY_TABLE = "table";
 
+  /** a table property for the SQL statement of a derived relation which has operators pushed down */
+  public static final String META_KEY_PUSHDOWN_SQL = "jdbc.pushdown.sql";
+
   protected Connection conn;
   protected String database;
   protected Properties connProperties = new Properties();
+  protected JdbcConnectionPool connPool;
+  protected int splitNum;
+  protected int fetchSize;
 
   public JdbcTablespace(String name, URI uri, JSONObject config) {
     super(name, uri, config);
     setDatabase();
     setJdbcProperties();
+    this.splitNum = getIntConfig(CONFIG_KEY_SPLIT_NUM, DEFAULT_SPLIT_NUM);
+    this.fetchSize = getIntConfig(CONFIG_KEY_FETCH_SIZE, DEFAULT_FETCH_SIZE);
+  }
+
+  private int getIntConfig(String key, int defaultValue) {
+    Object value = config.get(key);
+    if (value == null) {
+      return defaultValue;
+    }
+    int intValue = value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(value.toString());
+    Preconditions.checkState(intValue >= 0, "Invalid " + key + " field in configs: " + value);
+    return intValue;
   }
 
   private void setDatabase() {
@@ -107,6 +139,8 @@ public abstract class JdbcTablespace extends Tablespace {
     } catch (SQLException e) {
       throw new IOException(e);
     }
+    this.connPool = new JdbcConnectionPool(uri.toASCIIString(), connProperties,
+        getIntConfig(CONFIG_KEY_CONN_POOL_SIZE, DEFAULT_CONN_POOL_SIZE));
   }
 
   @Override
@@ -123,7 +157,153 @@ public abstract class JdbcTablespace extends Tablespace {
   public List<Fragment> getSplits(String inputSourceId,
                                   TableDesc tableDesc,
                                   @Nullable EvalNode filterCondition) throws IOException {
-    return Lists.newArrayList((Fragment)new JdbcFragment(inputSourceId, tableDesc.getUri().toASCIIString()));
+    String tableUri = tableDesc.getUri().toASCIIString();
+
+    if (splitNum > 1 && !JdbcPushDownRewriter.isDerivedRelation(tableDesc)) {
+      String tableName = ConnectionInfo.fromURI(tableUri).tableName;
+      Column splitColumn = getSplitColumn(tableDesc.getLogicalSchema(), tableName);
+      if (splitColumn != null) {
+        List<Fragment> fragments = Lists.newArrayList();
+        for (String splitCondition : getSplitConditions(tableName, splitColumn)) {
+          fragments.add(new JdbcFragment(inputSourceId, tableUri, splitCondition));
+        }
+        return fragments;
+      }
+    }
+
+    return Lists.newArrayList((Fragment)new JdbcFragment(inputSourceId, tableUri));
+  }
+
+  /**
+   * @return a split column of a table, or null if the table cannot be split by the range of any column
+   */
+  protected @Nullable Column getSplitColumn(Schema schema, String tableName) {
+    String columnName = null;
+    Object splitColumns = config.get(CONFIG_KEY_SPLIT_COLUMNS);
+    if (splitColumns != null) {
+      Preconditions.checkState(splitColumns instanceof JSONObject, "Invalid split_columns field in configs");
+      columnName = ((JSONObject) splitColumns).getAsString(tableName);
+    }
+
+    if (columnName == null) {
+      try (ResultSet rs = getDatabaseMetaData().getPrimaryKeys(null, null, tableName)) {
+        while (rs.next()) {
+          if (rs.getShort("KEY_SEQ") == 1) {
+            columnName = rs.getString("COLUMN_NAME");
+          }
+        }
+      } catch (SQLException e) {
+        throw new TajoInternalError(e);
+      }
+    }
+
+    if (columnName != null) {
+      for (Column column : schema.getRootColumns()) {
+        if (column.getSimpleName().equalsIgnoreCase(columnName) && isSplittable(column.getDataType().getType())) {
+          return column;
+        }
+      }
+      LOG.info(tableName + " cannot be split by " + columnName);
+    }
+    return null;
+  }
+
+  private static boolean isSplittable(Type type) {
+    switch (type) {
+    case INT1:
+    case INT2:
+    case INT4:
+    case INT8:
+    case DATE:
+    case TIMESTAMP:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * Split the range between the minimum and the maximum values of a column into at most <code>splitNum</code>
+   * ranges of the same width. The first range includes null values, and the first and the last ranges are open
+   * so that rows added after splitting are also scanned.
+   *
+   * @return predicates on the ranges. If the table is empty, it has only a null predicate.
+   */
+  protected List<String> getSplitConditions(String tableName, Column splitColumn) {
+    String columnName = splitColumn.getSimpleName();
+    Type type = splitColumn.getDataType().getType();
+
+    long min, max;
+    String sql = "SELECT MIN(" + columnName + "), MAX(" + columnName + ") FROM " + tableName;
+    try (Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery(sql)) {
+      rs.next();
+      if (rs.getObject(1) == null) {
+        return Lists.newArrayList((String) null);
+      }
+      if (type == Type.DATE) {
+        min = rs.getDate(1).toLocalDate().toEpochDay();
+        max = rs.getDate(2).toLocalDate().toEpochDay();
+      } else if (type == Type.TIMESTAMP) {
+        min = rs.getTimestamp(1).getTime();
+        max = rs.getTimestamp(2).getTime();
+      } else {
+        min = rs.getLong(1);
+        max = rs.getLong(2);
+      }
+    } catch (SQLException e) {
+      throw new TajoInternalError(e);
+    }
+
+    long[] splitPoints = getSplitPoints(min, max, splitNum);
+    List<String> conditions = Lists.newArrayList();
+    if (splitPoints.length == 0) {
+      conditions.add(null);
+      return conditions;
+    }
+
+    for (int i = 0; i <= splitPoints.length; i++) {
+      StringBuilder sb = new StringBuilder();
+      if (i == 0) {
+        sb.append(columnName).append(" < ").append(toLiteral(type, splitPoints[0]));
+        sb.append(" OR ").append(columnName).append(" IS NULL");
+      } else if (i == splitPoints.length) {
+        sb.append(columnName).append(" >= ").append(toLiteral(type, splitPoints[i - 1]));
+      } else {
+        sb.append(columnName).append(" >= ").append(toLiteral(type, splitPoints[i - 1]));
+        sb.append(" AND ").append(columnName).append(" < ").append(toLiteral(type, splitPoints[i]));
+      }
+      conditions.add(sb.toString());
+    }
+    LOG.info(tableName + " is split into " + conditions.size() + " ranges of " + columnName);
+    return conditions;
+  }
+
+  /**
+   * @return the boundaries between ranges of the same width, which are at most <code>splitNum - 1</code>
+   */
+  static long[] getSplitPoints(long min, long max, int splitNum) {
+    BigInteger lower = BigInteger.valueOf(min);
+    BigInteger width = BigInteger.valueOf(max).subtract(lower).add(BigInteger.ONE);
+    int num = width.min(BigInteger.valueOf(splitNum)).intValue();
+
+    long[] splitPoints = new long[Math.max(0, num - 1)];
+    for (int i = 1; i < num; i++) {
+      BigInteger offset = width.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(num));
+      splitPoints[i - 1] = lower.add(offset).longValue();
+    }
+    return splitPoints;
+  }
+
+  private static String toLiteral(Type type, long value) {
+    switch (type) {
+    case DATE:
+      return "DATE '" + LocalDate.ofEpochDay(value) + "'";
+    case TIMESTAMP:
+      return "TIMESTAMP '" + new Timestamp(value) + "'";
+    default:
+      return String.valueOf(value);
+    }
   }
 
   @Override
@@ -131,6 +311,22 @@ public abstract class JdbcTablespace extends Tablespace {
     return STORAGE_PROPERTY;
   }
 
+  @Override
+  public void pushDownOperators(OverridableConf context, LogicalPlan plan) throws TajoException {
+    JdbcPushDownRewriter rewriter = new JdbcPushDownRewriter(this);
+    LogicalPlanRewriteRuleContext ruleContext = new LogicalPlanRewriteRuleContext(context, plan);
+    if (rewriter.isEligible(ruleContext)) {
+      rewriter.rewrite(ruleContext);
+    }
+  }
+
+  /**
+   * @return a generator of SQL expressions evaluated by the database of this tablespace
+   */
+  protected SQLExpressionGenerator getSQLExprGenerator() {
+    return new SQLExpressionGenerator(getDatabaseMetaData());
+  }
+
   @Override
   public FormatProperty getFormatProperty(TableMeta meta) {
     return FORMAT_PROPERTY;
@@ -138,6 +334,9 @@ public abstract class JdbcTablespace extends Tablespace {
 
   @Override
   public void close() {
+    if (connPool != null) {
+      connPool.close();
+    }
     if (conn != null) {
       try {
         conn.close();
@@ -200,6 +399,14 @@ public abstract class JdbcTablespace extends Tablespace {
                             Fragment fragment,
                             @Nullable Schema target) throws IOException;
 
+  public JdbcConnectionPool getConnectionPool() {
+    return connPool;
+  }
+
+  public int getFetchSize() {
+    return fetchSize;
+  }
+
   public DatabaseMetaData getDatabaseMetaData() {
     try {
       return conn.getMetaData();
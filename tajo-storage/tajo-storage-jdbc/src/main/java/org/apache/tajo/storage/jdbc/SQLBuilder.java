@@ -19,16 +19,24 @@
 package org.apache.tajo.storage.jdbc;
 
 import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
+import org.apache.tajo.algebra.JoinType;
+import org.apache.tajo.catalog.CatalogUtil;
 import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.exception.TajoRuntimeException;
 import org.apache.tajo.exception.UnsupportedException;
 import org.apache.tajo.plan.Target;
+import org.apache.tajo.plan.expr.AggregationFunctionCallEval;
 import org.apache.tajo.plan.expr.EvalNode;
+import org.apache.tajo.plan.expr.FieldEval;
 import org.apache.tajo.plan.logical.*;
+import org.apache.tajo.plan.util.PlannerUtil;
 import org.apache.tajo.util.StringUtils;
 
 import javax.annotation.Nullable;
 import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Stack;
 
@@ -41,7 +49,10 @@ public class SQLBuilder {
   private final SQLExpressionGenerator sqlExprGen;
 
   public static class SQLBuilderContext {
-    StringBuilder sb;
+    List<String> selectList = new ArrayList<>();
+    StringBuilder fromClause = new StringBuilder();
+    List<String> conditions = new ArrayList<>();
+    List<String> groupingList;
   }
 
   public SQLBuilder(DatabaseMetaData dbMetaData, SQLExpressionGenerator exprGen) {
@@ -50,6 +61,14 @@ public class SQLBuilder {
   }
 
   public String build(String tableName, Column [] targets, @Nullable EvalNode filter, @Nullable Long limit) {
+    return build(tableName, targets, filter, limit, null);
+  }
+
+  /**
+   * @param splitCondition a predicate on the range of a split column of a fragment
+   */
+  public String build(String tableName, Column [] targets, @Nullable EvalNode filter, @Nullable Long limit,
+                      @Nullable String splitCondition) {
 
     StringBuilder selectClause = new StringBuilder("SELECT ");
     if (targets.length > 0) {
@@ -68,9 +87,15 @@ public class SQLBuilder {
     fromClause.append(tableName).append(" ");
 
     StringBuilder whereClause = null;
-    if (filter != null) {
+    if (filter != null && splitCondition != null) {
+      whereClause = new StringBuilder("WHERE ");
+      whereClause.append("(").append(sqlExprGen.generate(filter)).append(") AND (").append(splitCondition).append(") ");
+    } else if (filter != null) {
       whereClause = new StringBuilder("WHERE ");
       whereClause.append(sqlExprGen.generate(filter)).append(" ");
+    } else if (splitCondition != null) {
+      whereClause = new StringBuilder("WHERE ");
+      whereClause.append(splitCondition).append(" ");
     }
 
     StringBuilder limitClause = null;
@@ -94,9 +119,47 @@ public class SQLBuilder {
   }
 
   public String build(LogicalNode planPart) {
+    return build(planPart, null);
+  }
+
+  /**
+   * Build a SQL statement from a plan part consisting of scans, filters, inner joins, a group-by and a projection.
+   * Columns of the result are ordered by the output schema of the plan part.
+   *
+   * @param planPart the top node of a plan part
+   * @param columnNames column names of the result. If null, they are decided by databases.
+   */
+  public String build(LogicalNode planPart, @Nullable List<String> columnNames) {
     SQLBuilderContext context = new SQLBuilderContext();
     visit(context, planPart, new Stack<LogicalNode>());
-    return context.sb.toString();
+
+    StringBuilder sb = new StringBuilder("SELECT ");
+    if (context.selectList.isEmpty()) {
+      sb.append("1");
+    } else {
+      Preconditions.checkArgument(columnNames == null || columnNames.size() == context.selectList.size(),
+          "The number of column names must be equal to that of output columns");
+      for (int i = 0; i < context.selectList.size(); i++) {
+        if (i > 0) {
+          sb.append(",");
+        }
+        sb.append(context.selectList.get(i));
+        if (columnNames != null) {
+          sb.append(" AS ").append(columnNames.get(i));
+        }
+      }
+    }
+
+    sb.append(" FROM ").append(context.fromClause);
+
+    if (!context.conditions.isEmpty()) {
+      sb.append(" WHERE ").append(StringUtils.join(context.conditions, " AND "));
+    }
+
+    if (context.groupingList != null && !context.groupingList.isEmpty()) {
+      sb.append(" GROUP BY ").append(StringUtils.join(context.groupingList, ","));
+    }
+    return sb.toString();
   }
 
   public void visit(SQLBuilderContext context, LogicalNode node, Stack<LogicalNode> stack) {
@@ -107,6 +170,10 @@ public class SQLBuilder {
       visitScan(context, (ScanNode) node, stack);
       break;
 
+    case JOIN:
+      visitJoin(context, (JoinNode) node, stack);
+      break;
+
     case GROUP_BY:
       visitGroupBy(context, (GroupbyNode) node, stack);
       break;
@@ -131,48 +198,89 @@ public class SQLBuilder {
   }
 
   public void visitDerivedSubquery(SQLBuilderContext ctx, TableSubQueryNode derivedSubquery, Stack<LogicalNode> stack) {
-    ctx.sb.append(" (");
-    visit(ctx, derivedSubquery.getSubQuery(), stack);
-    ctx.sb.append(" ) ").append(derivedSubquery.getTableName());
+    ctx.fromClause.append("(").append(build(derivedSubquery.getSubQuery())).append(") AS ")
+        .append(getSimpleName(derivedSubquery.getCanonicalName()));
+    setSelectList(ctx, derivedSubquery.getTargets(), derivedSubquery.getOutSchema());
   }
 
   public void visitProjection(SQLBuilderContext ctx, ProjectionNode projection, Stack<LogicalNode> stack) {
-
     visit(ctx, projection.getChild(), stack);
+    setSelectList(ctx, projection.getTargets(), projection.getOutSchema());
+  }
+
+  public void visitJoin(SQLBuilderContext ctx, JoinNode join, Stack<LogicalNode> stack) {
+    if (join.getJoinType() != JoinType.INNER && join.getJoinType() != JoinType.CROSS) {
+      throw new TajoRuntimeException(new UnsupportedException("join type '" + join.getJoinType().name() + "'"));
+    }
+
+    visit(ctx, join.getLeftChild(), stack);
+
+    ctx.fromClause.append(join.hasJoinQual() ? " JOIN " : " CROSS JOIN ");
+    boolean nested = join.getRightChild().getType() == NodeType.JOIN;
+    if (nested) {
+      ctx.fromClause.append("(");
+    }
+    visit(ctx, join.getRightChild(), stack);
+    if (nested) {
+      ctx.fromClause.append(")");
+    }
+
+    if (join.hasJoinQual()) {
+      ctx.fromClause.append(" ON ").append(generate(join.getJoinQual()));
+    }
+    setSelectList(ctx, join.getTargets(), join.getOutSchema());
   }
 
   public void visitGroupBy(SQLBuilderContext ctx, GroupbyNode groupby, Stack<LogicalNode> stack) {
     visit(ctx, groupby.getChild(), stack);
-    ctx.sb.append("GROUP BY ").append(StringUtils.join(groupby.getGroupingColumns(), ",", 0)).append(" ");
+
+    ctx.groupingList = new ArrayList<>();
+    for (Column column : groupby.getGroupingColumns()) {
+      ctx.groupingList.add(generate(new FieldEval(column)));
+    }
+
+    // a group-by node returns grouping keys followed by results of aggregation functions
+    ctx.selectList = new ArrayList<>(ctx.groupingList);
+    for (AggregationFunctionCallEval aggFunction : groupby.getAggFunctions()) {
+      ctx.selectList.add(generate(aggFunction));
+    }
   }
 
   public void visitFilter(SQLBuilderContext ctx, SelectionNode filter, Stack<LogicalNode> stack) {
     visit(ctx, filter.getChild(), stack);
-    ctx.sb.append("WHERE " + sqlExprGen.generate(filter.getQual()));
+    ctx.conditions.add(generate(filter.getQual()));
   }
 
   public void visitScan(SQLBuilderContext ctx, ScanNode scan, Stack<LogicalNode> stack) {
+    // fields are qualified by the simple name of the table or its alias
+    String tableName = ConnectionInfo.fromURI(scan.getTableDesc().getUri()).table();
+    ctx.fromClause.append(tableName).append(" AS ").append(getSimpleName(scan.getCanonicalName()));
 
-    StringBuilder selectClause = new StringBuilder("SELECT ");
-    if (scan.getTargets().size() > 0) {
-      selectClause.append(generateTargetList(scan.getTargets()));
-    } else {
-      selectClause.append("1");
+    if (scan.hasQual()) {
+      ctx.conditions.add(generate(scan.getQual()));
     }
+    setSelectList(ctx, scan.getTargets(), scan.getOutSchema());
+  }
 
-    selectClause.append(" ");
-
-    ctx.sb.append("FROM ").append(scan.getTableName()).append(" ");
-
-    if (scan.hasAlias()) {
-      ctx.sb.append("AS ").append(scan.getAlias()).append(" ");
+  private void setSelectList(SQLBuilderContext ctx, @Nullable List<Target> targets, Schema outSchema) {
+    if (targets == null) {
+      targets = PlannerUtil.schemaToTargets(outSchema);
     }
 
-    if (scan.hasQual()) {
-      ctx.sb.append("WHERE " + sqlExprGen.generate(scan.getQual()));
+    ctx.selectList = new ArrayList<>();
+    for (Target target : targets) {
+      ctx.selectList.add(generate(target.getEvalTree()));
     }
   }
 
+  private String generate(EvalNode eval) {
+    return sqlExprGen.generate(eval).trim();
+  }
+
+  private static String getSimpleName(String name) {
+    return CatalogUtil.isSimpleIdentifier(name) ? name : CatalogUtil.extractSimpleName(name);
+  }
+
   public String generateTargetList(List<Target> targets) {
     return StringUtils.join(targets, ",", new Function<Target, String>() {
       @Override
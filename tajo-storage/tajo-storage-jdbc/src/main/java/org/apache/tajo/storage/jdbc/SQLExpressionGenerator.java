@@ -21,6 +21,7 @@ package org.apache.tajo.storage.jdbc;
 import com.google.common.base.Function;
 import org.apache.tajo.catalog.CatalogUtil;
 import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.common.TajoDataTypes.Type;
 import org.apache.tajo.datum.Datum;
 import org.apache.tajo.exception.NotImplementedException;
 import org.apache.tajo.exception.TajoRuntimeException;
@@ -113,9 +114,12 @@ public class SQLExpressionGenerator extends SimpleEvalNodeVisitor<SQLExpressionG
   @Override
   protected EvalNode visitBinaryEval(Context context, Stack<EvalNode> stack, BinaryEval binaryEval) {
     stack.push(binaryEval);
+    // parentheses keep the evaluation order of the expression tree
+    context.sb.append("(");
     visit(context, binaryEval.getLeftExpr(), stack);
     context.sb.append(convertBinOperatorToSQLRepr(binaryEval.getType())).append(" ");
     visit(context, binaryEval.getRightExpr(), stack);
+    context.sb.append(") ");
     stack.pop();
     return binaryEval;
   }
@@ -201,6 +205,11 @@ public class SQLExpressionGenerator extends SimpleEvalNodeVisitor<SQLExpressionG
 
     context.sb.append(func.getName()).append("(");
 
+    // count(*) is the only aggregation function without any argument
+    if (func.getType() == EvalType.AGG_FUNCTION && func.getArgs().length == 0) {
+      context.sb.append("*");
+    }
+
     boolean first = true;
     for (EvalNode param : func.getArgs()) {
       if (first) {
@@ -223,6 +232,124 @@ public class SQLExpressionGenerator extends SimpleEvalNodeVisitor<SQLExpressionG
     throw new TajoRuntimeException(new NotImplementedException());
   }
 
+  /**
+   * Check if an expression can be translated into SQL which is evaluated by databases in the same way as Tajo.
+   * Aggregation functions are limited to ones whose results do not depend on the implementation.
+   *
+   * @param node EvalNode
+   * @return True if the expression can be pushed down into databases.
+   */
+  public boolean isGeneratable(EvalNode node) {
+    switch (node.getType()) {
+    case FIELD:
+      return true;
+
+    case CONST:
+      return isSupportedLiteral(((ConstEval) node).getValue().type());
+
+    case AGG_FUNCTION:
+      if (!isGeneratableAggregation((AggregationFunctionCallEval) node)) {
+        return false;
+      }
+      break;
+
+    case NOT:
+    case SIGNED:
+    case IS_NULL:
+    case AND:
+    case OR:
+    case EQUAL:
+    case NOT_EQUAL:
+    case LTH:
+    case LEQ:
+    case GTH:
+    case GEQ:
+    case PLUS:
+    case MINUS:
+    case MULTIPLY:
+      break;
+
+    default:
+      return false;
+    }
+
+    for (int i = 0; i < node.childNum(); i++) {
+      if (!isGeneratable(node.getChild(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Aggregation functions are limited to ones returning the same values of the same types as Tajo. For example,
+   * PostgreSQL returns NUMERIC for sum over BIGINT, and Tajo reads NUMERIC columns as FLOAT8, so that sum over them
+   * is exact in databases but not in Tajo. min and max over strings depend on collations of databases.
+   */
+  private static boolean isGeneratableAggregation(AggregationFunctionCallEval func) {
+    String name = func.getName().toLowerCase();
+    if (name.equals("count")) {
+      return true;
+    } else if (func.getArgs().length != 1) {
+      return false;
+    }
+
+    Type argType = func.getArgs()[0].getValueType().getType();
+    switch (name) {
+    case "sum":
+      return argType == Type.INT2 || argType == Type.INT4;
+    case "min":
+    case "max":
+      return isGeneratableKeyType(argType);
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * Strings are grouped and compared by collations of databases, and CHAR values are padded with spaces.
+   *
+   * @param type the type of grouping keys or join keys
+   * @return True if databases group and compare values of the type in the same way as Tajo.
+   */
+  public static boolean isGeneratableKeyType(Type type) {
+    switch (type) {
+    case BOOLEAN:
+    case INT1:
+    case INT2:
+    case INT4:
+    case INT8:
+    case FLOAT4:
+    case FLOAT8:
+    case DATE:
+    case TIMESTAMP:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  private static boolean isSupportedLiteral(Type type) {
+    switch (type) {
+    case BOOLEAN:
+    case INT1:
+    case INT2:
+    case INT4:
+    case INT8:
+    case FLOAT4:
+    case FLOAT8:
+    case TEXT:
+    case VARCHAR:
+    case CHAR:
+    case DATE:
+    case TIMESTAMP:
+    case NULL_TYPE:
+      return true;
+    default:
+      return false;
+    }
+  }
+
   /**
    * convert Tajo literal into SQL representation
    *
@@ -20,19 +20,20 @@ package org.apache.tajo.storage.pgsql;
 
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.storage.jdbc.JdbcConnectionPool;
 import org.apache.tajo.storage.jdbc.JdbcFragment;
 import org.apache.tajo.storage.jdbc.JdbcScanner;
 
 import java.sql.DatabaseMetaData;
-import java.util.Properties;
 
 public class PgSQLJdbcScanner extends JdbcScanner {
 
   public PgSQLJdbcScanner(DatabaseMetaData dbMetaData,
-                          Properties connProperties,
+                          JdbcConnectionPool connPool,
+                          int fetchSize,
                           Schema tableSchema,
                           TableMeta tableMeta,
                           JdbcFragment fragment) {
-    super(dbMetaData, connProperties, tableSchema, tableMeta, fragment);
+    super(dbMetaData, connPool, fetchSize, tableSchema, tableMeta, fragment);
   }
 }
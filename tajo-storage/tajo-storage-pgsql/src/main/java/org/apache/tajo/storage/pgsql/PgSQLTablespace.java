@@ -68,7 +68,8 @@ public class PgSQLTablespace extends JdbcTablespace {
     if (fragment.isEmpty()) {
       scanner = new NullScanner(conf, schema, meta, fragment);
     } else {
-      scanner = new PgSQLJdbcScanner(getDatabaseMetaData(), connProperties, schema, meta, (JdbcFragment) fragment);
+      scanner = new PgSQLJdbcScanner(getDatabaseMetaData(), connPool, fetchSize, schema, meta,
+          (JdbcFragment) fragment);
     }
     scanner.setTarget(target.toArray());
     return scanner;
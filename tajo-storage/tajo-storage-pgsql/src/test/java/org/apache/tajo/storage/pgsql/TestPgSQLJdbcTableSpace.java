@@ -26,9 +26,11 @@ import org.apache.tajo.exception.TajoException;
 import org.apache.tajo.exception.TajoRuntimeException;
 import org.apache.tajo.exception.UndefinedTablespaceException;
 import org.apache.tajo.exception.UnsupportedException;
+import org.apache.tajo.storage.Scanner;
 import org.apache.tajo.storage.Tablespace;
 import org.apache.tajo.storage.TablespaceManager;
 import org.apache.tajo.storage.fragment.Fragment;
+import org.apache.tajo.storage.jdbc.JdbcFragment;
 import org.apache.tajo.storage.jdbc.JdbcTablespace;
 import org.junit.Test;
 import org.postgresql.util.PSQLException;
@@ -79,6 +81,46 @@ public class TestPgSQLJdbcTableSpace {
     assertEquals(1, fragments.size());
   }
 
+  @Test
+  public void testGetRangeSplits() throws Exception {
+    JSONObject configElements = new JSONObject();
+    configElements.put(JdbcTablespace.CONFIG_KEY_MAPPED_DATABASE, PgSQLTestServer.DATABASE_NAME);
+    configElements.put(JdbcTablespace.CONFIG_KEY_SPLIT_NUM, 2);
+    configElements.put(JdbcTablespace.CONFIG_KEY_FETCH_SIZE, 2);
+    JSONObject splitColumns = new JSONObject();
+    splitColumns.put("lineitem", "l_orderkey");
+    configElements.put(JdbcTablespace.CONFIG_KEY_SPLIT_COLUMNS, splitColumns);
+
+    PgSQLTablespace space = new PgSQLTablespace("t1", URI.create(jdbcUrl), configElements);
+    try {
+      space.init(new TajoConf());
+      TableDesc table = space.getMetadataProvider().getTableDesc(null, "lineitem");
+      List<Fragment> fragments = space.getSplits("lineitem", table, null);
+
+      // l_orderkey is between 1 and 3
+      assertEquals(2, fragments.size());
+      assertEquals("l_orderkey < 2 OR l_orderkey IS NULL", ((JdbcFragment) fragments.get(0)).getSplitCondition());
+      assertEquals("l_orderkey >= 2", ((JdbcFragment) fragments.get(1)).getSplitCondition());
+
+      int[] rowNums = new int[fragments.size()];
+      for (int i = 0; i < fragments.size(); i++) {
+        JdbcFragment fragment = new JdbcFragment(fragments.get(i).getProto().getContents());
+        Scanner scanner = space.getScanner(table.getMeta(), table.getSchema(), fragment, null);
+        scanner.init();
+        while (scanner.next() != null) {
+          rowNums[i]++;
+        }
+        scanner.close();
+      }
+      assertArrayEquals(new int[] {2, 3}, rowNums);
+
+      // the connection is reused by the second scanner
+      assertEquals(1, space.getConnectionPool().getIdleNum());
+    } finally {
+      space.close();
+    }
+  }
+
   @Test
   public void testConnProperties() throws Exception {
     Map<String, String> connProperties = new HashMap<>();
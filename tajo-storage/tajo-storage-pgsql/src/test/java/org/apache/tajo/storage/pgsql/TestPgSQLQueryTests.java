@@ -19,16 +19,24 @@
 package org.apache.tajo.storage.pgsql;
 
 import org.apache.tajo.QueryTestCaseBase;
+import org.apache.tajo.cli.tsql.SimpleParser;
 import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.storage.StorageUtil;
 import org.apache.tajo.storage.Tablespace;
 import org.apache.tajo.storage.TablespaceManager;
+import org.apache.tajo.util.FileUtil;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.io.File;
+import java.sql.ResultSet;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 public class TestPgSQLQueryTests extends QueryTestCaseBase {
   @SuppressWarnings("unused")
   // This should be invoked for initializing PgSQLTestServer
@@ -199,6 +207,84 @@ public class TestPgSQLQueryTests extends QueryTestCaseBase {
     }
   }
 
+  // Operator pushdown -------------------------------------------------------
+
+  private String explainGlobal(String sql) throws Exception {
+    ResultSet res = executeString("EXPLAIN GLOBAL " + sql);
+    try {
+      return resultSetToString(res);
+    } finally {
+      cleanupQuery(res);
+    }
+  }
+
+  /**
+   * Run the query of a test with the pushdown enabled. The global plan must scan a derived relation instead of
+   * the given operators.
+   */
+  private void runPushdownTests(String... pushedOperators) throws Exception {
+    try {
+      testingCluster.setAllTajoDaemonConfValue(TajoConf.ConfVars.$STORAGE_PUSHDOWN_ENABLED.varname, "true");
+
+      File queryFile = new File(StorageUtil.concatPath(currentQueryPath, getMethodName() + ".sql").toUri());
+      String plan = explainGlobal(SimpleParser.parseScript(FileUtil.readTextFile(queryFile)).get(0)
+          .getHistoryStatement());
+      assertTrue(plan, plan.contains("pushdown_"));
+      for (String operator : pushedOperators) {
+        assertFalse(plan, plan.contains(operator + "("));
+      }
+
+      runSimpleTests();
+    } finally {
+      testingCluster.setAllTajoDaemonConfValue(TajoConf.ConfVars.$STORAGE_PUSHDOWN_ENABLED.varname,
+          TajoConf.ConfVars.$STORAGE_PUSHDOWN_ENABLED.defaultVal);
+    }
+  }
+
+  @SimpleTest
+  @Test
+  @Option(sort = true)
+  public void testGroupbyPushdown() throws Exception {
+    runPushdownTests("GROUP_BY");
+  }
+
+  @SimpleTest
+  @Test
+  @Option(sort = true)
+  public void testJoinPushdown() throws Exception {
+    runPushdownTests("JOIN");
+  }
+
+  @SimpleTest
+  @Test
+  @Option(sort = true)
+  public void testGroupbyWithJoinPushdown() throws Exception {
+    runPushdownTests("GROUP_BY", "JOIN");
+  }
+
+  @Test
+  public void testNoPushdownOfDifferentSemantics() throws Exception {
+    try {
+      testingCluster.setAllTajoDaemonConfValue(TajoConf.ConfVars.$STORAGE_PUSHDOWN_ENABLED.varname, "true");
+
+      // strings are grouped and compared by the collation of the database, and CHAR values are padded
+      String[] queries = {
+          "SELECT l_returnflag, count(*) FROM lineitem GROUP BY l_returnflag",
+          "SELECT l_orderkey, max(l_comment) FROM lineitem GROUP BY l_orderkey",
+          "SELECT l_orderkey, o_orderpriority FROM lineitem JOIN orders ON l_shipmode = o_orderpriority",
+          // l_quantity is NUMERIC in the database, so its sum is exact there but not in Tajo
+          "SELECT l_orderkey, sum(l_quantity) FROM lineitem GROUP BY l_orderkey"
+      };
+      for (String sql : queries) {
+        String plan = explainGlobal(sql);
+        assertFalse(plan, plan.contains("pushdown_"));
+      }
+    } finally {
+      testingCluster.setAllTajoDaemonConfValue(TajoConf.ConfVars.$STORAGE_PUSHDOWN_ENABLED.varname,
+          TajoConf.ConfVars.$STORAGE_PUSHDOWN_ENABLED.defaultVal);
+    }
+  }
+
   @SimpleTest
   @Test
   @Option(sort = true)
@@ -0,0 +1,2 @@
+SELECT l_orderkey, count(*) AS cnt, sum(l_linenumber) AS total, min(l_partkey) AS min_part, max(l_suppkey) AS max_supp
+FROM lineitem GROUP BY l_orderkey;
\ No newline at end of file
@@ -0,0 +1,2 @@
+SELECT o_custkey, count(*) AS cnt, sum(l_linenumber) AS total
+FROM lineitem JOIN orders ON l_orderkey = o_orderkey GROUP BY o_custkey;
\ No newline at end of file
@@ -0,0 +1 @@
+SELECT l_orderkey, l_linenumber, o_custkey FROM lineitem JOIN orders ON l_orderkey = o_orderkey WHERE l_linenumber > 1;
\ No newline at end of file